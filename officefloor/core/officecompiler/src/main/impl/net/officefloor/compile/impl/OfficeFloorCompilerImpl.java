@@ -29,6 +29,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
 
 import net.officefloor.compile.OfficeFloorCompiler;
 import net.officefloor.compile.OfficeFloorCompilerConfigurer;
@@ -54,6 +55,7 @@ import net.officefloor.compile.impl.state.autowire.AutoWireStateManagerFactoryIm
 import net.officefloor.compile.impl.structure.AdministrationNodeImpl;
 import net.officefloor.compile.impl.structure.AutoWirerImpl;
 import net.officefloor.compile.impl.structure.CompileContextImpl;
+import net.officefloor.compile.impl.structure.ParallelTypeLoader;
 import net.officefloor.compile.impl.structure.EscalationNodeImpl;
 import net.officefloor.compile.impl.structure.ExecutionStrategyNodeImpl;
 import net.officefloor.compile.impl.structure.ExecutiveNodeImpl;
@@ -92,6 +94,7 @@ import net.officefloor.compile.impl.structure.TeamNodeImpl;
 import net.officefloor.compile.impl.structure.TeamOversightNodeImpl;
 import net.officefloor.compile.impl.supplier.SupplierLoaderImpl;
 import net.officefloor.compile.impl.team.TeamLoaderImpl;
+import net.officefloor.compile.impl.type.TypeSnapshotCache;
 import net.officefloor.compile.impl.util.CompileUtil;
 import net.officefloor.compile.internal.structure.AdministrationNode;
 import net.officefloor.compile.internal.structure.AutoWireDirection;
@@ -234,6 +237,28 @@ public class OfficeFloorCompilerImpl extends OfficeFloorCompiler implements Node
 	 */
 	private File overridePropertiesDirectory = null;
 
+	/**
+	 * Directory containing the snapshot of loaded types.
+	 */
+	private File typeSnapshotDirectory = null;
+
+	/**
+	 * {@link TypeSnapshotCache}. Lazy created on first use.
+	 */
+	private TypeSnapshotCache typeSnapshotCache = null;
+
+	/**
+	 * Indicates whether to load types in parallel. Should this not be
+	 * configured, the {@link System} property is used.
+	 */
+	private Boolean isParallelTypeLoading = null;
+
+	/**
+	 * {@link ParallelTypeLoader} for the current compile. Will be
+	 * <code>null</code> if not loading types in parallel.
+	 */
+	private ParallelTypeLoader parallelTypeLoader = null;
+
 	/**
 	 * {@link MBeanRegistrator}.
 	 */
@@ -547,6 +572,17 @@ public class OfficeFloorCompilerImpl extends OfficeFloorCompiler implements Node
 		this.overridePropertiesDirectory = propertiesDirectory;
 	}
 
+	@Override
+	public void setTypeSnapshotDirectory(File snapshotDirectory) {
+		this.typeSnapshotDirectory = snapshotDirectory;
+		this.typeSnapshotCache = null;
+	}
+
+	@Override
+	public void setParallelTypeLoading(boolean isParallel) {
+		this.isParallelTypeLoading = isParallel;
+	}
+
 	@Override
 	public void addOfficeFloorListener(OfficeFloorListener officeFloorListener) {
 		this.officeFloorListeners.add(officeFloorListener);
@@ -725,14 +761,33 @@ public class OfficeFloorCompilerImpl extends OfficeFloorCompiler implements Node
 			officeVisitor = new OfficeAutoWirerVisitorImpl();
 		}
 
+		// Determine if load types in parallel
+		boolean isParallel = (this.isParallelTypeLoading != null) ? this.isParallelTypeLoading
+				: Boolean.parseBoolean(System.getProperty(PARALLEL_TYPE_LOADING_PROPERTY_NAME));
+		if (isParallel) {
+
+			// Ensure lazy state created before loading types in parallel
+			this.getRootSourceContext();
+			this.getTypeSnapshotCache();
+			this.getCompilerIssues();
+			this.parallelTypeLoader = new ParallelTypeLoader(ForkJoinPool.commonPool());
+		}
+
 		// Create the compile context
-		CompileContextImpl compileContext = new CompileContextImpl(officeFloorMBeanRegistrator);
+		CompileContextImpl compileContext = new CompileContextImpl(officeFloorMBeanRegistrator,
+				this.parallelTypeLoader);
 
 		// Source the OfficeFloor tree
 		OfficeFloorNode node = this.createOfficeFloorNode(officeFloorSource.getClass().getName(), officeFloorSource,
 				this.officeFloorLocation);
 		this.properties.configureProperties(node);
-		boolean isSourced = node.sourceOfficeFloorTree(officeVisitor, compileContext);
+		boolean isSourced;
+		try {
+			isSourced = node.sourceOfficeFloorTree(officeVisitor, compileContext);
+		} finally {
+			// Types loaded in parallel only once tree sourced
+			this.parallelTypeLoader = null;
+		}
 		if (!isSourced) {
 			return null; // must source tree
 		}
@@ -780,6 +835,13 @@ public class OfficeFloorCompilerImpl extends OfficeFloorCompiler implements Node
 		if (officeFloorMBeanRegistrator != null) {
 			officeFloorMBeanRegistrator.registerPossibleMBean(OfficeFloor.class, officeFloorName,
 					new OfficeFloorMBeanImpl(officeFloor));
+
+			// Register type snapshot metrics (if snapshotting types)
+			TypeSnapshotCache typeSnapshotCache = this.getTypeSnapshotCache();
+			if (typeSnapshotCache != null) {
+				officeFloorMBeanRegistrator.registerPossibleMBean(TypeSnapshotCache.class, officeFloorName,
+						typeSnapshotCache);
+			}
 		}
 
 		// Allow visiting of the auto wire state managers
@@ -949,6 +1011,7 @@ public class OfficeFloorCompilerImpl extends OfficeFloorCompiler implements Node
 	 */
 	protected void resetRootSourceContext() {
 		this.sourceContext = null;
+		this.typeSnapshotCache = null; // may be different class loader
 	}
 
 	@Override
@@ -957,8 +1020,40 @@ public class OfficeFloorCompilerImpl extends OfficeFloorCompiler implements Node
 		return new CompileContextImpl(null);
 	}
 
+	@Override
+	public TypeSnapshotCache getTypeSnapshotCache() {
+
+		// Lazy create the type snapshot cache
+		if (this.typeSnapshotCache == null) {
+
+			// Determine the directory (must opt-in)
+			File directory = this.typeSnapshotDirectory;
+			if (directory == null) {
+				String directoryPath = System.getProperty(TYPE_SNAPSHOT_DIRECTORY_PROPERTY_NAME);
+				if (CompileUtil.isBlank(directoryPath)) {
+					return null; // not snapshotting types
+				}
+				directory = new File(directoryPath);
+			}
+
+			// Create the type snapshot cache
+			this.typeSnapshotCache = new TypeSnapshotCache(directory, this.getRootSourceContext().getClassLoader());
+		}
+		return this.typeSnapshotCache;
+	}
+
 	@Override
 	public CompilerIssues getCompilerIssues() {
+
+		// Determine if isolated issues for loading type in parallel
+		ParallelTypeLoader parallelLoader = this.parallelTypeLoader;
+		if (parallelLoader != null) {
+			CompilerIssues isolatedIssues = parallelLoader.getIsolatedCompilerIssues();
+			if (isolatedIssues != null) {
+				return isolatedIssues;
+			}
+		}
+
 		// Ensure have compiler issues
 		if (this.issues == null) {
 			this.issues = new FailCompilerIssues();
@@ -274,6 +274,16 @@ public class OfficeFloorCompilerAdapter extends OfficeFloorCompiler {
 		this.invokeMethod("setOverridePropertiesDirectory", new Object[] { propertiesDirectory }, File.class);
 	}
 
+	@Override
+	public void setTypeSnapshotDirectory(File snapshotDirectory) {
+		this.invokeMethod("setTypeSnapshotDirectory", new Object[] { snapshotDirectory }, File.class);
+	}
+
+	@Override
+	public void setParallelTypeLoading(boolean isParallel) {
+		this.invokeMethod("setParallelTypeLoading", new Object[] { isParallel }, boolean.class);
+	}
+
 	@Override
 	public void addOfficeFloorListener(OfficeFloorListener officeFloorListener) {
 		this.invokeMethod("addOfficeFloorListener", new Object[] { officeFloorListener }, OfficeFloorListener.class);
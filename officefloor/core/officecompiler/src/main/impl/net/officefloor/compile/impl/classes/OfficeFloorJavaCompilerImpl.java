@@ -22,6 +22,7 @@
 package net.officefloor.compile.impl.classes;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -31,7 +32,9 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -53,6 +56,7 @@ import javax.tools.ToolProvider;
 
 import net.officefloor.compile.classes.OfficeFloorClassPathScanner;
 import net.officefloor.compile.classes.OfficeFloorJavaCompiler;
+import net.officefloor.compile.impl.util.CompileUtil;
 import net.officefloor.compile.issues.CompileError;
 import net.officefloor.frame.api.source.SourceContext;
 
@@ -91,10 +95,22 @@ public class OfficeFloorJavaCompilerImpl extends OfficeFloorJavaCompiler {
 	private final SourceContext sourceContext;
 
 	/**
-	 * {@link JavaCompiler}.
+	 * {@link JavaCompiler}. May be <code>null</code> if only loading precompiled
+	 * {@link Class} instances.
 	 */
 	private final JavaCompiler javaCompiler;
 
+	/**
+	 * Precompiled {@link Class} names by content key.
+	 */
+	private final Map<String, String> precompiledClasses;
+
+	/**
+	 * Directory to record compiled {@link Class} instances. May be
+	 * <code>null</code> if not precompiling.
+	 */
+	private final File precompileDirectory;
+
 	/**
 	 * Compiled {@link Class} definitions.
 	 */
@@ -108,30 +124,89 @@ public class OfficeFloorJavaCompilerImpl extends OfficeFloorJavaCompiler {
 	/**
 	 * Source {@link JavaSourceImpl} instances.
 	 */
-	private final List<JavaSourceImpl> sources = new LinkedList<>();
+	private final List<JavaSourceImpl> sources = new ArrayList<>();
 
 	/**
 	 * Instantiate.
 	 * 
 	 * @param sourceContext {@link SourceContext}.
 	 * @throws ClassNotFoundException If missing {@link Class} instances for
-	 *                                compiling.
+	 *                                compiling and no precompiled {@link Class}
+	 *                                instances.
 	 */
 	public OfficeFloorJavaCompilerImpl(SourceContext sourceContext) throws ClassNotFoundException {
 		this.sourceContext = sourceContext;
-
-		// Ensure compiler available
 		ClassLoader classLoader = this.sourceContext.getClassLoader();
-		Class<?> javacProcessingEnvironmentClass = classLoader.loadClass(JAVAC_PROCESSING_ENVIRONMENT_CLASS_NAME);
-		if (javacProcessingEnvironmentClass == null) {
+
+		// Determine if precompiling (always compiles to record classes)
+		String precompileDirectory = System.getProperty(SYSTEM_PROPERTY_JAVA_PRECOMPILE_DIRECTORY);
+		this.precompileDirectory = CompileUtil.isBlank(precompileDirectory) ? null : new File(precompileDirectory);
+
+		// Load the precompiled classes (compile at runtime if unable to load)
+		Map<String, String> precompiledClasses;
+		try {
+			precompiledClasses = (this.precompileDirectory != null) ? Collections.emptyMap()
+					: PrecompiledJavaClasses.getIndex(classLoader);
+		} catch (IOException ex) {
+			precompiledClasses = Collections.emptyMap();
+		}
+		this.precompiledClasses = precompiledClasses;
+
+		// Determine if compiler available
+		Class<?> javacProcessingEnvironmentClass;
+		try {
+			javacProcessingEnvironmentClass = classLoader.loadClass(JAVAC_PROCESSING_ENVIRONMENT_CLASS_NAME);
+		} catch (ClassNotFoundException ex) {
+			javacProcessingEnvironmentClass = null;
+		}
+		if ((javacProcessingEnvironmentClass == null) && (this.precompiledClasses.isEmpty())) {
 			throw new ClassNotFoundException(JAVAC_PROCESSING_ENVIRONMENT_CLASS_NAME);
 		}
 
 		// Load state
 		this.compiledClassLoader = new CompiledClassLoader(classLoader);
 
-		// Obtain the Java Compiler
-		this.javaCompiler = ToolProvider.getSystemJavaCompiler();
+		// Obtain the Java Compiler (only precompiled classes if not available)
+		this.javaCompiler = (javacProcessingEnvironmentClass != null) ? ToolProvider.getSystemJavaCompiler() : null;
+	}
+
+	/**
+	 * Creates the content keys for the {@link JavaSourceImpl} instances.
+	 * 
+	 * @return Content keys, in order of the {@link JavaSourceImpl} instances.
+	 */
+	private String[] createContentKeys() {
+		List<String> classNames = new ArrayList<>(this.sources.size());
+		List<String> contents = new ArrayList<>(this.sources.size());
+		for (JavaSourceImpl javaSource : this.sources) {
+			classNames.add(javaSource.className);
+			contents.add(javaSource.contents);
+		}
+		return PrecompiledJavaClasses.createKeys(classNames, contents);
+	}
+
+	/**
+	 * Loads the precompiled {@link Class} instances.
+	 * 
+	 * @param keys Content keys of the {@link JavaSourceImpl} instances.
+	 * @return {@link Class} by {@link JavaSource} or <code>null</code> if not all
+	 *         {@link JavaSourceImpl} instances are precompiled.
+	 */
+	private Map<JavaSource, Class<?>> loadPrecompiledClasses(String[] keys) {
+		ClassLoader classLoader = this.sourceContext.getClassLoader();
+		Map<JavaSource, Class<?>> classes = new HashMap<>();
+		for (int i = 0; i < keys.length; i++) {
+			String precompiledClassName = this.precompiledClasses.get(keys[i]);
+			if (precompiledClassName == null) {
+				return null; // not precompiled
+			}
+			try {
+				classes.put(this.sources.get(i), classLoader.loadClass(precompiledClassName));
+			} catch (ClassNotFoundException ex) {
+				return null; // index out of date with classes
+			}
+		}
+		return classes;
 	}
 
 	/*
@@ -545,6 +620,25 @@ public class OfficeFloorJavaCompilerImpl extends OfficeFloorJavaCompiler {
 	@Override
 	public Map<JavaSource, Class<?>> compile() {
 
+		// Use precompiled classes (if all sources precompiled)
+		String[] keys = null;
+		if ((this.precompileDirectory != null) || (!this.precompiledClasses.isEmpty())) {
+			keys = this.createContentKeys();
+		}
+		if (!this.precompiledClasses.isEmpty()) {
+			Map<JavaSource, Class<?>> precompiled = this.loadPrecompiledClasses(keys);
+			if (precompiled != null) {
+				return precompiled;
+			}
+		}
+
+		// Ensure able to compile
+		if (this.javaCompiler == null) {
+			throw new CompileError("No Java compiler available to compile " + this.sources.get(0).className
+					+ " (and not precompiled). Re-run precompile of OfficeFloor or disable Java compiling with system property "
+					+ SYSTEM_PROPERTY_JAVA_COMPILING + "=false");
+		}
+
 		// Create diagnostics to report errors
 		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
 
@@ -594,6 +688,15 @@ public class OfficeFloorJavaCompilerImpl extends OfficeFloorJavaCompiler {
 				}
 				classes.put(javaSource, clazz);
 			}
+
+			// Record the classes (if precompiling)
+			if (this.precompileDirectory != null) {
+				Map<String, String> keyedClassNames = new HashMap<>();
+				for (int i = 0; i < keys.length; i++) {
+					keyedClassNames.put(keys[i], this.sources.get(i).className);
+				}
+				PrecompiledJavaClasses.record(this.precompileDirectory, keyedClassNames, this.compiledClasses);
+			}
 			return classes;
 
 		} catch (Exception ex) {
@@ -0,0 +1,231 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.compile.impl.classes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+
+import net.officefloor.compile.classes.OfficeFloorJavaCompiler;
+import net.officefloor.compile.classes.OfficeFloorJavaCompiler.JavaSource;
+
+/**
+ * <p>
+ * Index of {@link Class} instances compiled at build time by the
+ * {@link OfficeFloorJavaCompiler}.
+ * <p>
+ * Generated {@link Class} names are suffixed with a running index and
+ * therefore differ between runs. The index is subsequently keyed by a digest
+ * of the {@link JavaSource} content, with the generated {@link Class} names
+ * normalised out of the content.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class PrecompiledJavaClasses {
+
+	/**
+	 * Name of the token replacing the {@link JavaSource} own {@link Class} name.
+	 */
+	private static final String SELF_TOKEN = "$SELF$";
+
+	/**
+	 * Loaded index by {@link ClassLoader}.
+	 */
+	private static final Map<ClassLoader, Map<String, String>> indexes = new WeakHashMap<>();
+
+	/**
+	 * Obtains the index of precompiled {@link Class} names by content key.
+	 * 
+	 * @param classLoader {@link ClassLoader}.
+	 * @return Index of precompiled {@link Class} names by content key. May be
+	 *         empty.
+	 * @throws IOException If fails to read the index.
+	 */
+	public static Map<String, String> getIndex(ClassLoader classLoader) throws IOException {
+		synchronized (indexes) {
+
+			// Determine if already loaded
+			Map<String, String> index = indexes.get(classLoader);
+			if (index != null) {
+				return index;
+			}
+
+			// Load the index (merging all on class path)
+			Properties properties = new Properties();
+			Enumeration<URL> resources = classLoader
+					.getResources(OfficeFloorJavaCompiler.PRECOMPILED_CLASSES_RESOURCE_PATH);
+			while (resources.hasMoreElements()) {
+				try (InputStream input = resources.nextElement().openStream()) {
+					properties.load(input);
+				}
+			}
+			index = new HashMap<>();
+			for (String key : properties.stringPropertyNames()) {
+				index.put(key, properties.getProperty(key));
+			}
+			index = Collections.unmodifiableMap(index);
+
+			// Cache and return the index
+			indexes.put(classLoader, index);
+			return index;
+		}
+	}
+
+	/**
+	 * Creates the content key for each {@link JavaSource}.
+	 * 
+	 * @param classNames {@link Class} names of the {@link JavaSource} instances
+	 *                   compiled together.
+	 * @param contents   Contents of the {@link JavaSource} instances, in same
+	 *                   order as the {@link Class} names.
+	 * @return Content keys, in same order as the {@link Class} names.
+	 */
+	public static String[] createKeys(List<String> classNames, List<String> contents) {
+		String[] keys = new String[classNames.size()];
+		for (int i = 0; i < keys.length; i++) {
+
+			// Normalise out the generated class names
+			String content = contents.get(i);
+			for (int n = 0; n < keys.length; n++) {
+				String token = (n == i) ? SELF_TOKEN : "$SOURCE" + n + "$";
+				String className = classNames.get(n);
+				content = content.replace(className, token);
+				int simpleNameIndex = className.lastIndexOf('.');
+				if (simpleNameIndex >= 0) {
+					content = replaceWord(content, className.substring(simpleNameIndex + ".".length()), token);
+				}
+			}
+
+			// Create the key
+			keys[i] = digest(content);
+		}
+		return keys;
+	}
+
+	/**
+	 * Records the compiled {@link Class} instances into the directory.
+	 * 
+	 * @param directory       Directory to contain the compiled {@link Class}
+	 *                        files.
+	 * @param keyedClassNames {@link Class} names by content key.
+	 * @param compiledClasses Byte code by {@link Class} name (including inner
+	 *                        {@link Class} instances).
+	 * @throws IOException If fails to record.
+	 */
+	public static void record(File directory, Map<String, String> keyedClassNames,
+			Map<String, ByteArrayOutputStream> compiledClasses) throws IOException {
+		synchronized (PrecompiledJavaClasses.class) {
+
+			// Write the class files
+			for (Map.Entry<String, ByteArrayOutputStream> entry : compiledClasses.entrySet()) {
+				File classFile = new File(directory, entry.getKey().replace('.', '/') + ".class");
+				classFile.getParentFile().mkdirs();
+				try (OutputStream output = new FileOutputStream(classFile)) {
+					entry.getValue().writeTo(output);
+				}
+			}
+
+			// Merge into the index
+			File indexFile = new File(directory, OfficeFloorJavaCompiler.PRECOMPILED_CLASSES_RESOURCE_PATH);
+			Properties index = new Properties();
+			if (indexFile.exists()) {
+				try (InputStream input = new FileInputStream(indexFile)) {
+					index.load(input);
+				}
+			}
+			for (Map.Entry<String, String> entry : keyedClassNames.entrySet()) {
+				index.setProperty(entry.getKey(), entry.getValue());
+			}
+			indexFile.getParentFile().mkdirs();
+			try (OutputStream output = new FileOutputStream(indexFile)) {
+				index.store(output, "Generated by OfficeFloor precompile");
+			}
+		}
+	}
+
+	/**
+	 * Replaces the word (not replacing where part of larger identifier).
+	 * 
+	 * @param content     Content.
+	 * @param word        Word to replace.
+	 * @param replacement Replacement.
+	 * @return Content with the word replaced.
+	 */
+	private static String replaceWord(String content, String word, String replacement) {
+		StringBuilder result = new StringBuilder(content.length());
+		int start = 0;
+		int index;
+		while ((index = content.indexOf(word, start)) >= 0) {
+			int end = index + word.length();
+			boolean isWord = ((index == 0) || (!Character.isJavaIdentifierPart(content.charAt(index - 1))))
+					&& ((end == content.length()) || (!Character.isJavaIdentifierPart(content.charAt(end))));
+			result.append(content, start, index);
+			result.append(isWord ? replacement : word);
+			start = end;
+		}
+		result.append(content, start, content.length());
+		return result.toString();
+	}
+
+	/**
+	 * Creates the digest of the content.
+	 * 
+	 * @param content Content.
+	 * @return Hex digest of the content.
+	 */
+	private static String digest(String content) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+				hex.append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException ex) {
+			// Should always be available
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * All access via static methods.
+	 */
+	private PrecompiledJavaClasses() {
+	}
+
+}
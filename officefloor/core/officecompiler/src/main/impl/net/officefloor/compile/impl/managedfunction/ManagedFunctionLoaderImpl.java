@@ -27,6 +27,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import net.officefloor.compile.impl.properties.PropertyListImpl;
+import net.officefloor.compile.impl.type.TypeSnapshotCache;
 import net.officefloor.compile.impl.util.CompileUtil;
 import net.officefloor.compile.internal.structure.Node;
 import net.officefloor.compile.internal.structure.NodeContext;
@@ -205,13 +206,28 @@ public class ManagedFunctionLoaderImpl implements ManagedFunctionLoader, IssueTa
 			return null; // failed to instantiate
 		}
 
-		// Load and return the type
-		return this.loadManagedFunctionType(managedFunctionSource, propertyList);
+		// Load and return the type (snapshot as configured by class)
+		return this.loadManagedFunctionType(managedFunctionSource, propertyList, true);
 	}
 
 	@Override
 	public FunctionNamespaceType loadManagedFunctionType(ManagedFunctionSource managedFunctionSource,
 			PropertyList propertyList) {
+		return this.loadManagedFunctionType(managedFunctionSource, propertyList, false);
+	}
+
+	/**
+	 * Loads the {@link FunctionNamespaceType}.
+	 * 
+	 * @param managedFunctionSource {@link ManagedFunctionSource}.
+	 * @param propertyList          {@link PropertyList} for the
+	 *                              {@link ManagedFunctionSource}.
+	 * @param isSnapshot            Indicates if able to snapshot the
+	 *                              {@link FunctionNamespaceType}.
+	 * @return {@link FunctionNamespaceType} or <code>null</code> if issues.
+	 */
+	private FunctionNamespaceType loadManagedFunctionType(ManagedFunctionSource managedFunctionSource,
+			PropertyList propertyList, boolean isSnapshot) {
 
 		// Obtain qualified name
 		String qualifiedName = this.node.getQualifiedName();
@@ -220,6 +236,19 @@ public class ManagedFunctionLoaderImpl implements ManagedFunctionLoader, IssueTa
 		PropertyList overriddenProperties = this.nodeContext.overrideProperties(this.node, qualifiedName,
 				this.officeNode, propertyList);
 
+		// Attempt to use snapshot of the type (sourcing for function factories)
+		TypeSnapshotCache typeSnapshotCache = isSnapshot ? this.nodeContext.getTypeSnapshotCache() : null;
+		String snapshotKey = null;
+		if (typeSnapshotCache != null) {
+			snapshotKey = typeSnapshotCache.createFunctionNamespaceTypeKey(managedFunctionSource.getClass(),
+					overriddenProperties);
+			FunctionNamespaceType namespaceType = typeSnapshotCache.getFunctionNamespaceType(snapshotKey,
+					() -> this.loadManagedFunctionType(managedFunctionSource, propertyList, false));
+			if (namespaceType != null) {
+				return namespaceType;
+			}
+		}
+
 		// Create the managed function source context
 		String[] additionalProfiles = this.nodeContext.additionalProfiles(this.officeNode);
 		ManagedFunctionSourceContext context = new ManagedFunctionSourceContextImpl(qualifiedName, this.isLoadingType,
@@ -265,6 +294,11 @@ public class ManagedFunctionLoaderImpl implements ManagedFunctionLoader, IssueTa
 			}
 		}
 
+		// Snapshot the namespace type for next time
+		if (typeSnapshotCache != null) {
+			typeSnapshotCache.snapshotFunctionNamespaceType(snapshotKey, namespaceType);
+		}
+
 		// Return the namespace type
 		return namespaceType;
 	}
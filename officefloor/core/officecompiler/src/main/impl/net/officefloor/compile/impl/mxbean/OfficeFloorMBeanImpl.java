@@ -34,11 +34,18 @@ import javax.management.MBeanNotificationInfo;
 import javax.management.MBeanOperationInfo;
 import javax.management.MBeanParameterInfo;
 import javax.management.ReflectionException;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
 
 import net.officefloor.frame.api.manage.InvalidParameterTypeException;
 import net.officefloor.frame.api.manage.OfficeFloor;
 import net.officefloor.frame.api.manage.UnknownFunctionException;
 import net.officefloor.frame.api.manage.UnknownOfficeException;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 
 /**
  * {@link DynamicMBean} for the {@link OfficeFloor}.
@@ -47,6 +54,58 @@ import net.officefloor.frame.api.manage.UnknownOfficeException;
  */
 public class OfficeFloorMBeanImpl implements DynamicMBean {
 
+	/**
+	 * Names of the items summarising a {@link LatencyHistogram}.
+	 */
+	private static final String[] LATENCY_ITEM_NAMES = new String[] { "count", "totalNanos", "meanNanos", "maxNanos",
+			"p50Nanos", "p90Nanos", "p99Nanos" };
+
+	/**
+	 * {@link CompositeType} summarising a {@link LatencyHistogram}.
+	 */
+	private static final CompositeType LATENCY_TYPE;
+
+	static {
+		try {
+			OpenType<?>[] itemTypes = new OpenType<?>[LATENCY_ITEM_NAMES.length];
+			for (int i = 0; i < itemTypes.length; i++) {
+				itemTypes[i] = SimpleType.LONG;
+			}
+			LATENCY_TYPE = new CompositeType("Latency", "Summary of latencies", LATENCY_ITEM_NAMES,
+					new String[] { "Number of recorded latencies", "Total of latencies in nanoseconds",
+							"Mean latency in nanoseconds", "Maximum latency in nanoseconds",
+							"50th percentile latency in nanoseconds", "90th percentile latency in nanoseconds",
+							"99th percentile latency in nanoseconds" },
+					itemTypes);
+		} catch (OpenDataException ex) {
+			throw new IllegalStateException("Invalid latency composite type", ex);
+		}
+	}
+
+	/**
+	 * Creates the {@link CompositeData} summary of the {@link LatencyHistogram}.
+	 * 
+	 * @param histogram
+	 *            {@link LatencyHistogram}. May be <code>null</code>.
+	 * @return {@link CompositeData} summary of the {@link LatencyHistogram} or
+	 *         <code>null</code> if no {@link LatencyHistogram}.
+	 * @throws MBeanException
+	 *             If fails to create the summary.
+	 */
+	private static CompositeData createLatencySummary(LatencyHistogram histogram) throws MBeanException {
+		if (histogram == null) {
+			return null;
+		}
+		try {
+			return new CompositeDataSupport(LATENCY_TYPE, LATENCY_ITEM_NAMES,
+					new Object[] { histogram.getCount(), histogram.getTotal(), histogram.getMean(),
+							histogram.getMax(), histogram.getPercentile(50), histogram.getPercentile(90),
+							histogram.getPercentile(99) });
+		} catch (OpenDataException ex) {
+			throw new MBeanException(ex);
+		}
+	}
+
 	/**
 	 * {@link OfficeFloor}.
 	 */
@@ -73,6 +132,10 @@ public class OfficeFloorMBeanImpl implements DynamicMBean {
 		switch (attribute) {
 		case "OfficeNames":
 			return this.officeFloor.getOfficeNames();
+		case "TeamNames":
+			return this.officeFloor.getMetrics().getTeamNames();
+		case "ManagedObjectSourceNames":
+			return this.officeFloor.getMetrics().getManagedObjectSourceNames();
 		}
 
 		// As here, unknown attribute
@@ -135,6 +198,21 @@ public class OfficeFloorMBeanImpl implements DynamicMBean {
 				throw new MBeanException(ex);
 			}
 
+		case "getManagedFunctionLatency":
+			try {
+				return createLatencySummary(this.officeFloor.getMetrics()
+						.getManagedFunctionLatency((String) params[0], (String) params[1]));
+			} catch (UnknownOfficeException | UnknownFunctionException ex) {
+				throw new MBeanException(ex);
+			}
+
+		case "getTeamQueueWaitLatency":
+			return createLatencySummary(this.officeFloor.getMetrics().getTeamQueueWaitLatency((String) params[0]));
+
+		case "getManagedObjectSourcingLatency":
+			return createLatencySummary(
+					this.officeFloor.getMetrics().getManagedObjectSourcingLatency((String) params[0]));
+
 		case "closeOfficeFloor":
 			try {
 				this.officeFloor.closeOfficeFloor();
@@ -154,6 +232,11 @@ public class OfficeFloorMBeanImpl implements DynamicMBean {
 		// Create the attributes
 		MBeanAttributeInfo officeNames = new MBeanAttributeInfo("OfficeNames", String[].class.getName(),
 				"Names of the Offices within the OfficeFloor", true, false, false);
+		MBeanAttributeInfo teamNames = new MBeanAttributeInfo("TeamNames", String[].class.getName(),
+				"Names of the Teams within the OfficeFloor", true, false, false);
+		MBeanAttributeInfo managedObjectSourceNames = new MBeanAttributeInfo("ManagedObjectSourceNames",
+				String[].class.getName(), "Names of the managed object sources within the OfficeFloor", true, false,
+				false);
 
 		// Create the operations
 		MBeanOperationInfo getManagedFunctions = new MBeanOperationInfo("getManagedFunctionNames",
@@ -176,13 +259,33 @@ public class OfficeFloorMBeanImpl implements DynamicMBean {
 								"Name of the function to invoke within the Office"),
 						new MBeanParameterInfo("parameter", Object.class.getName(), "Parameter to the function") },
 				null, MBeanOperationInfo.ACTION);
+		MBeanOperationInfo getManagedFunctionLatency = new MBeanOperationInfo("getManagedFunctionLatency",
+				"Obtains the latency of executing the function",
+				new MBeanParameterInfo[] {
+						new MBeanParameterInfo("officeName", String.class.getName(), "Name of the Office"),
+						new MBeanParameterInfo("functionName", String.class.getName(),
+								"Name of the function within the Office") },
+				CompositeData.class.getName(), MBeanOperationInfo.INFO);
+		MBeanOperationInfo getTeamQueueWaitLatency = new MBeanOperationInfo("getTeamQueueWaitLatency",
+				"Obtains the latency of waiting in the queue of the Team",
+				new MBeanParameterInfo[] {
+						new MBeanParameterInfo("teamName", String.class.getName(), "Name of the Team") },
+				CompositeData.class.getName(), MBeanOperationInfo.INFO);
+		MBeanOperationInfo getManagedObjectSourcingLatency = new MBeanOperationInfo(
+				"getManagedObjectSourcingLatency", "Obtains the latency of sourcing the managed object",
+				new MBeanParameterInfo[] { new MBeanParameterInfo("managedObjectSourceName",
+						String.class.getName(), "Name of the managed object source") },
+				CompositeData.class.getName(), MBeanOperationInfo.INFO);
 		MBeanOperationInfo closeOfficeFloor = new MBeanOperationInfo("closeOfficeFloor", "Closes the OfficeFloor",
 				new MBeanParameterInfo[] {}, null, MBeanOperationInfo.ACTION);
 
 		// Return the MBean Info
 		return new MBeanInfo(OfficeFloorMBeanImpl.class.getName(), "MBean to managed the OfficeFloor",
-				new MBeanAttributeInfo[] { officeNames }, new MBeanConstructorInfo[0],
-				new MBeanOperationInfo[] { getManagedFunctions, getManagedFunctionParameterType, invokeFunction, closeOfficeFloor },
+				new MBeanAttributeInfo[] { officeNames, teamNames, managedObjectSourceNames },
+				new MBeanConstructorInfo[0],
+				new MBeanOperationInfo[] { getManagedFunctions, getManagedFunctionParameterType, invokeFunction,
+						getManagedFunctionLatency, getTeamQueueWaitLatency, getManagedObjectSourcingLatency,
+						closeOfficeFloor },
 				new MBeanNotificationInfo[0]);
 	}
 
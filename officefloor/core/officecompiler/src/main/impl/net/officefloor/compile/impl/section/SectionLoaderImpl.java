@@ -23,6 +23,7 @@ package net.officefloor.compile.impl.section;
 
 import net.officefloor.compile.impl.properties.PropertyListImpl;
 import net.officefloor.compile.impl.structure.SectionNodeImpl;
+import net.officefloor.compile.impl.type.TypeSnapshotCache;
 import net.officefloor.compile.impl.util.CompileUtil;
 import net.officefloor.compile.internal.structure.CompileContext;
 import net.officefloor.compile.internal.structure.Node;
@@ -195,12 +196,26 @@ public class SectionLoaderImpl implements SectionLoader {
 			return null; // failed to instantiate
 		}
 
-		// Return loaded section type
-		return this.loadSectionType(sectionSource, sectionLocation, propertyList);
+		// Return loaded section type (snapshot as configured by class)
+		return this.loadSectionType(sectionSource, sectionLocation, propertyList, true);
 	}
 
 	@Override
 	public SectionType loadSectionType(SectionSource sectionSource, String sectionLocation, PropertyList propertyList) {
+		return this.loadSectionType(sectionSource, sectionLocation, propertyList, false);
+	}
+
+	/**
+	 * Loads the {@link SectionType}.
+	 * 
+	 * @param sectionSource   {@link SectionSource}.
+	 * @param sectionLocation Location of the section.
+	 * @param propertyList    {@link PropertyList} for the {@link SectionSource}.
+	 * @param isSnapshot      Indicates if able to snapshot the {@link SectionType}.
+	 * @return {@link SectionType} or <code>null</code> if issues.
+	 */
+	private SectionType loadSectionType(SectionSource sectionSource, String sectionLocation,
+			PropertyList propertyList, boolean isSnapshot) {
 
 		// Create the section node
 		SectionNode sectionNode = new SectionNodeImpl(false, null, this.parentSectionNode, this.officeNode,
@@ -214,6 +229,18 @@ public class SectionLoaderImpl implements SectionLoader {
 		sectionNode.initialise(sectionSource.getClass().getName(), sectionSource, sectionLocation);
 		overriddenProperties.configureProperties(sectionNode);
 
+		// Attempt to use snapshot of the type
+		TypeSnapshotCache typeSnapshotCache = isSnapshot ? this.nodeContext.getTypeSnapshotCache() : null;
+		String snapshotKey = null;
+		if (typeSnapshotCache != null) {
+			snapshotKey = typeSnapshotCache.createSectionTypeKey(sectionSource.getClass(), sectionLocation,
+					overriddenProperties);
+			SectionType sectionType = typeSnapshotCache.getSectionType(snapshotKey);
+			if (sectionType != null) {
+				return sectionType;
+			}
+		}
+
 		// Create the compile context
 		CompileContext compileContext = this.nodeContext.createCompileContext();
 
@@ -223,8 +250,12 @@ public class SectionLoaderImpl implements SectionLoader {
 			return null; // must source section successfully
 		}
 
-		// Return the section type
-		return sectionNode.loadSectionType(compileContext);
+		// Load the section type (and snapshot for next time)
+		SectionType sectionType = sectionNode.loadSectionType(compileContext);
+		if ((typeSnapshotCache != null) && (sectionType != null)) {
+			typeSnapshotCache.snapshotSectionType(snapshotKey, sectionType);
+		}
+		return sectionType;
 	}
 
 	@Override
@@ -21,7 +21,9 @@
 
 package net.officefloor.compile.impl.structure;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -33,11 +35,13 @@ import net.officefloor.compile.internal.structure.CompileContext;
 import net.officefloor.compile.internal.structure.ExecutiveNode;
 import net.officefloor.compile.internal.structure.FunctionNamespaceNode;
 import net.officefloor.compile.internal.structure.GovernanceNode;
+import net.officefloor.compile.internal.structure.ManagedFunctionNode;
 import net.officefloor.compile.internal.structure.ManagedObjectPoolNode;
 import net.officefloor.compile.internal.structure.ManagedObjectSourceNode;
 import net.officefloor.compile.internal.structure.Node;
 import net.officefloor.compile.internal.structure.OfficeFloorMBeanRegistrator;
 import net.officefloor.compile.internal.structure.OfficeNode;
+import net.officefloor.compile.internal.structure.SectionNode;
 import net.officefloor.compile.internal.structure.SuppliedManagedObjectSourceNode;
 import net.officefloor.compile.internal.structure.SupplierNode;
 import net.officefloor.compile.internal.structure.TeamNode;
@@ -62,6 +66,12 @@ public class CompileContextImpl implements CompileContext {
 	 */
 	private OfficeFloorMBeanRegistrator officeFloorMBeanRegistrator;
 
+	/**
+	 * {@link ParallelTypeLoader}. Will be <code>null</code> if not loading types
+	 * in parallel.
+	 */
+	private final ParallelTypeLoader parallelTypeLoader;
+
 	/**
 	 * {@link ManagedObjectType} by {@link ManagedObjectSourceNode} instances.
 	 */
@@ -162,7 +172,73 @@ public class CompileContextImpl implements CompileContext {
 	 *                                    be <code>null</code>.
 	 */
 	public CompileContextImpl(OfficeFloorMBeanRegistrator officeFloorMBeanRegistrator) {
+		this(officeFloorMBeanRegistrator, null);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param officeFloorMBeanRegistrator {@link OfficeFloorMBeanRegistrator}. May
+	 *                                    be <code>null</code>.
+	 * @param parallelTypeLoader          {@link ParallelTypeLoader}. May be
+	 *                                    <code>null</code> to not load types in
+	 *                                    parallel.
+	 */
+	public CompileContextImpl(OfficeFloorMBeanRegistrator officeFloorMBeanRegistrator,
+			ParallelTypeLoader parallelTypeLoader) {
 		this.officeFloorMBeanRegistrator = officeFloorMBeanRegistrator;
+		this.parallelTypeLoader = parallelTypeLoader;
+	}
+
+	/**
+	 * Collects the {@link Node} instances requiring their type loaded.
+	 * 
+	 * @param node                 {@link Node}.
+	 * @param isRoot               Indicates if root {@link Node}.
+	 * @param managedObjectSources {@link ManagedObjectSourceNode} instances
+	 *                             requiring their {@link ManagedObjectType} loaded.
+	 * @param namespaces           {@link FunctionNamespaceNode} instances
+	 *                             requiring their {@link FunctionNamespaceType}
+	 *                             loaded.
+	 */
+	private void collectTypeNodes(Node node, boolean isRoot, List<ManagedObjectSourceNode> managedObjectSources,
+			List<FunctionNamespaceNode> namespaces) {
+
+		// Only load types for initialised nodes
+		if (!node.isInitialised()) {
+			return;
+		}
+
+		// Sections and offices are sourced separately
+		if ((!isRoot) && ((node instanceof SectionNode) || (node instanceof OfficeNode))) {
+			return;
+		}
+
+		// Determine if requires type loaded
+		if (node instanceof ManagedObjectSourceNode) {
+			ManagedObjectSourceNode mos = (ManagedObjectSourceNode) node;
+
+			// Supplied types are loaded via the supplier (so load on use)
+			if ((!mos.isSupplied()) && (!this.managedObjectTypes.containsKey(mos))
+					&& (!managedObjectSources.contains(mos))) {
+				managedObjectSources.add(mos);
+			}
+
+		} else if (node instanceof ManagedFunctionNode) {
+			FunctionNamespaceNode namespace = ((ManagedFunctionNode) node).getFunctionNamespaceNode();
+			if ((namespace != null) && (namespace.isInitialised()) && (!this.namespaceTypes.containsKey(namespace))
+					&& (!namespaces.contains(namespace))) {
+				namespaces.add(namespace);
+			}
+		}
+
+		// Collect from the children
+		Node[] children = node.getChildNodes();
+		if (children != null) {
+			for (Node child : children) {
+				this.collectTypeNodes(child, false, managedObjectSources, namespaces);
+			}
+		}
 	}
 
 	/**
@@ -188,6 +264,30 @@ public class CompileContextImpl implements CompileContext {
 		}
 	}
 
+	@Override
+	public void preloadTypes(Node node) {
+
+		// Determine if loading types in parallel
+		if (this.parallelTypeLoader == null) {
+			return; // load types on use
+		}
+
+		// Collect the nodes requiring their type loaded
+		List<ManagedObjectSourceNode> managedObjectSources = new ArrayList<>();
+		List<FunctionNamespaceNode> namespaces = new ArrayList<>();
+		this.collectTypeNodes(node, true, managedObjectSources, namespaces);
+
+		// Load the types in parallel
+		Map<ManagedObjectSourceNode, ManagedObjectType<?>> loadedManagedObjectTypes = this.parallelTypeLoader
+				.loadTypes(managedObjectSources, (mos) -> mos.loadManagedObjectType(this));
+		Map<FunctionNamespaceNode, FunctionNamespaceType> loadedNamespaceTypes = this.parallelTypeLoader
+				.loadTypes(namespaces, (namespace) -> namespace.loadFunctionNamespaceType(false));
+
+		// Register the loaded types (failures re-loaded on use to report issues)
+		loadedManagedObjectTypes.forEach((mos, type) -> this.managedObjectTypes.put(mos, new TypeHolder<>(type)));
+		loadedNamespaceTypes.forEach((namespace, type) -> this.namespaceTypes.put(namespace, new TypeHolder<>(type)));
+	}
+
 	@Override
 	public ManagedObjectType<?> getOrLoadManagedObjectType(ManagedObjectSourceNode managedObjectSourceNode) {
 		return getOrLoadType(managedObjectSourceNode, this.managedObjectTypes,
@@ -31,6 +31,7 @@ import java.util.Set;
 import java.util.function.Consumer;
 
 import net.officefloor.compile.impl.section.OfficeSectionManagedObjectSourceTypeImpl;
+import net.officefloor.compile.impl.type.TypeSnapshotCache;
 import net.officefloor.compile.impl.util.CompileUtil;
 import net.officefloor.compile.impl.util.LinkUtil;
 import net.officefloor.compile.internal.structure.AdministrationNode;
@@ -618,9 +619,38 @@ public class ManagedObjectSourceNodeImpl implements ManagedObjectSourceNode {
 	@Override
 	public ManagedObjectType<?> loadManagedObjectType(CompileContext compileContext) {
 
-		// Load and return the managed object type
-		return this.loadType(compileContext,
+		// Determine if snapshot of type (only for configured source class)
+		TypeSnapshotCache typeSnapshotCache = this.context.getTypeSnapshotCache();
+		if ((typeSnapshotCache == null) || (this.suppliedManagedObjectNode != null)
+				|| (this.state.managedObjectSource != null)) {
+
+			// Load and return the managed object type
+			return this.loadType(compileContext,
+					(mos, properties, loader) -> loader.loadManagedObjectType(mos, properties));
+		}
+
+		// Obtain the managed object source class
+		Class<? extends ManagedObjectSource<?, ?>> managedObjectSourceClass = this.context
+				.getManagedObjectSourceClass(this.state.managedObjectSourceClassName, this);
+		if (managedObjectSourceClass == null) {
+			return null; // must have managed object source class
+		}
+
+		// Attempt to use snapshot of the type
+		String snapshotKey = typeSnapshotCache.createManagedObjectTypeKey(managedObjectSourceClass,
+				this.getPropertyList(null));
+		ManagedObjectType<?> managedObjectType = typeSnapshotCache.getManagedObjectType(snapshotKey);
+		if (managedObjectType != null) {
+			return managedObjectType;
+		}
+
+		// Load the managed object type (and snapshot for next time)
+		managedObjectType = this.loadType(compileContext,
 				(mos, properties, loader) -> loader.loadManagedObjectType(mos, properties));
+		if (managedObjectType != null) {
+			typeSnapshotCache.snapshotManagedObjectType(snapshotKey, managedObjectType);
+		}
+		return managedObjectType;
 	}
 
 	@Override
@@ -798,6 +798,9 @@ public class OfficeFloorNodeImpl implements OfficeFloorNode, ManagedObjectSource
 			return false;
 		}
 
+		// Pre-load the types (in parallel if configured)
+		compileContext.preloadTypes(this);
+
 		// Ensure all non-supplied managed object sources are sourced
 		isSourced = CompileUtil.source(this.managedObjectSources,
 				(managedObjectSource) -> managedObjectSource.getSectionManagedObjectSourceName(),
@@ -713,6 +713,9 @@ public class OfficeNodeImpl implements OfficeNode, ManagedFunctionVisitor {
 			return false; // must be able to inherit
 		}
 
+		// Pre-load the types (in parallel if configured)
+		compileContext.preloadTypes(this);
+
 		// Ensure all non-supplied managed object sources are sourced
 		isSourced = CompileUtil.source(this.managedObjectSources,
 				(managedObjectSource) -> managedObjectSource.getSectionManagedObjectSourceName(),
@@ -0,0 +1,175 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.compile.impl.structure;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+import net.officefloor.compile.OfficeFloorCompiler;
+import net.officefloor.compile.impl.issues.AbstractCompilerIssues;
+import net.officefloor.compile.impl.issues.DefaultCompilerIssue;
+import net.officefloor.compile.internal.structure.Node;
+import net.officefloor.compile.issues.CompilerIssues;
+
+/**
+ * Loads types in parallel.
+ * <p>
+ * Each type is loaded with its own isolated {@link CompilerIssues}. Should the
+ * type fail to load (or report an issue), the loaded type is discarded so that
+ * the type is re-loaded sequentially on use. This keeps reporting of the
+ * {@link CompilerIssues} deterministic.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class ParallelTypeLoader {
+
+	/**
+	 * Isolated {@link CompilerIssues} for the type being loaded by the current
+	 * {@link Thread}.
+	 */
+	private final ThreadLocal<IsolatedCompilerIssues> isolatedIssues = new ThreadLocal<>();
+
+	/**
+	 * {@link ForkJoinPool}.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param pool {@link ForkJoinPool} to load the types.
+	 */
+	public ParallelTypeLoader(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Obtains the isolated {@link CompilerIssues} for the type being loaded by the
+	 * current {@link Thread}.
+	 * 
+	 * @return Isolated {@link CompilerIssues} or <code>null</code> if the current
+	 *         {@link Thread} is not loading a type in parallel.
+	 */
+	public CompilerIssues getIsolatedCompilerIssues() {
+		return this.isolatedIssues.get();
+	}
+
+	/**
+	 * Loads the types in parallel.
+	 * 
+	 * @param <N>        {@link Node} type.
+	 * @param <T>        Type.
+	 * @param nodes      {@link Node} instances to have their type loaded.
+	 * @param typeLoader {@link Function} to load the type for the {@link Node}.
+	 * @return Successfully loaded types by {@link Node} (in order of the
+	 *         {@link Node} instances). {@link Node} instances failing to load their
+	 *         type are not included.
+	 */
+	public <N extends Node, T> Map<N, T> loadTypes(List<N> nodes, Function<N, T> typeLoader) {
+
+		// Nothing to load if no nodes
+		Map<N, T> types = new LinkedHashMap<>();
+		if (nodes.size() == 0) {
+			return types;
+		}
+
+		// Use same class loader as compiling
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+		// Fork loading each type
+		List<ForkJoinTask<T>> tasks = new ArrayList<>(nodes.size());
+		for (N node : nodes) {
+			tasks.add(this.pool.submit(() -> this.loadIsolatedType(node, typeLoader, classLoader)));
+		}
+
+		// Join the loaded types (in order of nodes)
+		for (int i = 0; i < nodes.size(); i++) {
+			T type;
+			try {
+				type = tasks.get(i).join();
+			} catch (RuntimeException | Error ex) {
+				type = null; // re-load sequentially to report failure
+			}
+			if (type != null) {
+				types.put(nodes.get(i), type);
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * Loads the type with isolated {@link CompilerIssues}.
+	 * 
+	 * @param <N>         {@link Node} type.
+	 * @param <T>         Type.
+	 * @param node        {@link Node} to have its type loaded.
+	 * @param typeLoader  {@link Function} to load the type for the {@link Node}.
+	 * @param classLoader Context {@link ClassLoader} for loading the type.
+	 * @return Type or <code>null</code> if failed to load type.
+	 */
+	private <N extends Node, T> T loadIsolatedType(N node, Function<N, T> typeLoader, ClassLoader classLoader) {
+		Thread thread = Thread.currentThread();
+		ClassLoader threadClassLoader = thread.getContextClassLoader();
+		IsolatedCompilerIssues issues = new IsolatedCompilerIssues();
+		try {
+			thread.setContextClassLoader(classLoader);
+			this.isolatedIssues.set(issues);
+
+			// Load the type
+			T type = typeLoader.apply(node);
+
+			// Only use type if loaded without issue
+			return issues.isIssue ? null : type;
+
+		} finally {
+			this.isolatedIssues.remove();
+			thread.setContextClassLoader(threadClassLoader);
+		}
+	}
+
+	/**
+	 * Isolated {@link CompilerIssues} for loading a type in parallel.
+	 */
+	private static class IsolatedCompilerIssues extends AbstractCompilerIssues {
+
+		/**
+		 * Indicates if an issue was reported. Issues are reported again on the
+		 * sequential re-load by the {@link OfficeFloorCompiler}.
+		 */
+		private boolean isIssue = false;
+
+		/*
+		 * ================ AbstractCompilerIssues ====================
+		 */
+
+		@Override
+		protected void handleDefaultIssue(DefaultCompilerIssue issue) {
+			this.isIssue = true;
+		}
+	}
+
+}
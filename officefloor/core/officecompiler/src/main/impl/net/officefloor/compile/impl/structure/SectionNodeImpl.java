@@ -445,6 +445,9 @@ public class SectionNodeImpl implements SectionNode {
 			return false;
 		}
 
+		// Pre-load the types (in parallel if configured)
+		compileContext.preloadTypes(this);
+
 		// Ensure all functions are sourced
 		isSourced = CompileUtil.source(this.functionNodes, (function) -> function.getSectionFunctionName(),
 				(function) -> function.souceManagedFunction(managedFunctionVisitor, compileContext));
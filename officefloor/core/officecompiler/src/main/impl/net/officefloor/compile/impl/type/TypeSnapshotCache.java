@@ -0,0 +1,1227 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.compile.impl.type;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import net.officefloor.compile.OfficeFloorCompiler;
+import net.officefloor.compile.impl.managedfunction.FunctionNamespaceTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectDependencyTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectExecutionStrategyTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectFlowTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectFunctionDependencyTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectTeamTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectTypeImpl;
+import net.officefloor.compile.impl.section.SectionInputTypeImpl;
+import net.officefloor.compile.impl.section.SectionObjectTypeImpl;
+import net.officefloor.compile.impl.section.SectionOutputTypeImpl;
+import net.officefloor.compile.impl.section.SectionTypeImpl;
+import net.officefloor.compile.impl.util.CompileUtil;
+import net.officefloor.compile.managedfunction.FunctionNamespaceType;
+import net.officefloor.compile.managedfunction.ManagedFunctionEscalationType;
+import net.officefloor.compile.managedfunction.ManagedFunctionFlowType;
+import net.officefloor.compile.managedfunction.ManagedFunctionObjectType;
+import net.officefloor.compile.managedfunction.ManagedFunctionType;
+import net.officefloor.compile.managedobject.ManagedObjectDependencyType;
+import net.officefloor.compile.managedobject.ManagedObjectExecutionStrategyType;
+import net.officefloor.compile.managedobject.ManagedObjectFlowType;
+import net.officefloor.compile.managedobject.ManagedObjectFunctionDependencyType;
+import net.officefloor.compile.managedobject.ManagedObjectTeamType;
+import net.officefloor.compile.managedobject.ManagedObjectType;
+import net.officefloor.compile.properties.Property;
+import net.officefloor.compile.properties.PropertyList;
+import net.officefloor.compile.section.SectionInputType;
+import net.officefloor.compile.section.SectionObjectType;
+import net.officefloor.compile.section.SectionOutputType;
+import net.officefloor.compile.section.SectionType;
+import net.officefloor.compile.spi.managedfunction.source.FunctionNamespaceBuilder;
+import net.officefloor.compile.spi.managedfunction.source.ManagedFunctionFlowTypeBuilder;
+import net.officefloor.compile.spi.managedfunction.source.ManagedFunctionObjectTypeBuilder;
+import net.officefloor.compile.spi.managedfunction.source.ManagedFunctionSource;
+import net.officefloor.compile.spi.managedfunction.source.ManagedFunctionTypeBuilder;
+import net.officefloor.compile.spi.section.source.SectionSource;
+import net.officefloor.frame.api.function.ManagedFunction;
+import net.officefloor.frame.api.function.ManagedFunctionFactory;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+
+/**
+ * <p>
+ * Persistent snapshot of loaded types, so that restarts of the
+ * {@link OfficeFloorCompiler} may skip re-sourcing types when nothing has
+ * changed.
+ * <p>
+ * Each snapshot is keyed by a digest of the source {@link Class} bytes, its
+ * {@link Property} values, the contents of its location (e.g. section
+ * configuration file) and any configuration resources/{@link Class} instances
+ * named by the {@link Property} values. The snapshot further records the digest
+ * of each {@link Class} referenced by the type, so that the snapshot is only
+ * used while these are unchanged.
+ * <p>
+ * Factories can not be snapshot. Therefore, the {@link ManagedFunctionFactory}
+ * of a snapshot {@link FunctionNamespaceType} sources the
+ * {@link ManagedFunctionSource} on first use. Types with annotations that are
+ * not {@link Serializable} are not snapshot.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class TypeSnapshotCache implements TypeSnapshotCacheMBean {
+
+	/**
+	 * Prefix on snapshot entries for the digest of referenced {@link Class}.
+	 */
+	private static final String CLASS_DIGEST_PREFIX = "class.";
+
+	/**
+	 * Primitive {@link Class} instances by name.
+	 */
+	private static final Map<String, Class<?>> primitives = new HashMap<>();
+
+	static {
+		for (Class<?> primitive : new Class<?>[] { boolean.class, byte.class, short.class, char.class, int.class,
+				long.class, float.class, double.class, void.class }) {
+			primitives.put(primitive.getName(), primitive);
+		}
+	}
+
+	/**
+	 * Directory containing the snapshots.
+	 */
+	private final File directory;
+
+	/**
+	 * {@link ClassLoader}.
+	 */
+	private final ClassLoader classLoader;
+
+	/**
+	 * Number of types loaded from snapshot.
+	 */
+	private final LongAdder hitCount = new LongAdder();
+
+	/**
+	 * Number of types required to be loaded.
+	 */
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param directory   Directory containing the snapshots.
+	 * @param classLoader {@link ClassLoader}.
+	 */
+	public TypeSnapshotCache(File directory, ClassLoader classLoader) {
+		this.directory = directory;
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Creates the key to the {@link ManagedObjectType} snapshot.
+	 * 
+	 * @param managedObjectSourceClass {@link ManagedObjectSource} {@link Class}.
+	 * @param properties               {@link PropertyList} to configure the
+	 *                                 {@link ManagedObjectSource}.
+	 * @return Key to the {@link ManagedObjectType} snapshot. May be
+	 *         <code>null</code> if unable to snapshot.
+	 */
+	public String createManagedObjectTypeKey(Class<?> managedObjectSourceClass, PropertyList properties) {
+		return this.createKey(ManagedObjectType.class, managedObjectSourceClass, null, properties);
+	}
+
+	/**
+	 * Creates the key to the {@link SectionType} snapshot.
+	 * 
+	 * @param sectionSourceClass {@link SectionSource} {@link Class}.
+	 * @param sectionLocation    Location of the section.
+	 * @param properties         {@link PropertyList} to configure the
+	 *                           {@link SectionSource}.
+	 * @return Key to the {@link SectionType} snapshot. May be <code>null</code>
+	 *         if unable to snapshot.
+	 */
+	public String createSectionTypeKey(Class<?> sectionSourceClass, String sectionLocation,
+			PropertyList properties) {
+		return this.createKey(SectionType.class, sectionSourceClass, sectionLocation, properties);
+	}
+
+	/**
+	 * Creates the key to the {@link FunctionNamespaceType} snapshot.
+	 * 
+	 * @param managedFunctionSourceClass {@link ManagedFunctionSource}
+	 *                                   {@link Class}.
+	 * @param properties                 {@link PropertyList} to configure the
+	 *                                   {@link ManagedFunctionSource}.
+	 * @return Key to the {@link FunctionNamespaceType} snapshot. May be
+	 *         <code>null</code> if unable to snapshot.
+	 */
+	public String createFunctionNamespaceTypeKey(Class<?> managedFunctionSourceClass, PropertyList properties) {
+		return this.createKey(FunctionNamespaceType.class, managedFunctionSourceClass, null, properties);
+	}
+
+	/**
+	 * Creates the key to a snapshot.
+	 * 
+	 * @param type        Type being snapshot.
+	 * @param sourceClass Source {@link Class} loading the type.
+	 * @param location    Location of configuration. May be <code>null</code>.
+	 * @param properties  {@link PropertyList} to configure the source.
+	 * @return Key to the snapshot. May be <code>null</code> if unable to
+	 *         snapshot.
+	 */
+	private String createKey(Class<?> type, Class<?> sourceClass, String location, PropertyList properties) {
+		try {
+			MessageDigest digest = newDigest();
+			update(digest, type.getName());
+			update(digest, sourceClass.getName());
+
+			// Include source class (and its parents)
+			Class<?> clazz = sourceClass;
+			while ((clazz != null) && (clazz != Object.class)) {
+				update(digest, this.digestClass(clazz.getName()));
+				clazz = clazz.getSuperclass();
+			}
+
+			// Include location (and contents of its configuration)
+			update(digest, location);
+			update(digest, this.digestReferencedResource(location));
+
+			// Include properties (and possible configuration they reference)
+			for (Property property : properties) {
+				String value = property.getValue();
+				update(digest, property.getName());
+				update(digest, value);
+				update(digest, this.digestReferencedResource(value));
+			}
+
+			// Return the key
+			return toHex(digest.digest());
+
+		} catch (IOException ex) {
+			return null; // unable to snapshot
+		}
+	}
+
+	/**
+	 * Obtains the {@link ManagedObjectType} from snapshot.
+	 * 
+	 * @param key Key to the snapshot. May be <code>null</code>.
+	 * @return {@link ManagedObjectType} or <code>null</code> if no valid snapshot.
+	 */
+	public ManagedObjectType<?> getManagedObjectType(String key) {
+		return this.getType(key, (snapshot) -> this.loadManagedObjectType(snapshot));
+	}
+
+	/**
+	 * Obtains the {@link SectionType} from snapshot.
+	 * 
+	 * @param key Key to the snapshot. May be <code>null</code>.
+	 * @return {@link SectionType} or <code>null</code> if no valid snapshot.
+	 */
+	public SectionType getSectionType(String key) {
+		return this.getType(key, (snapshot) -> this.loadSectionType(snapshot));
+	}
+
+	/**
+	 * Obtains the {@link FunctionNamespaceType} from snapshot.
+	 * 
+	 * @param key          Key to the snapshot. May be <code>null</code>.
+	 * @param typeSourcing Sources the {@link FunctionNamespaceType} to provide
+	 *                     the {@link ManagedFunctionFactory} instances.
+	 * @return {@link FunctionNamespaceType} or <code>null</code> if no valid
+	 *         snapshot.
+	 */
+	public FunctionNamespaceType getFunctionNamespaceType(String key, Supplier<FunctionNamespaceType> typeSourcing) {
+		return this.getType(key, (snapshot) -> this.loadFunctionNamespaceType(snapshot, typeSourcing));
+	}
+
+	/**
+	 * Obtains the type from snapshot.
+	 * 
+	 * @param key    Key to the snapshot. May be <code>null</code>.
+	 * @param loader {@link SnapshotLoader}.
+	 * @return Type or <code>null</code> if no valid snapshot.
+	 */
+	private <T> T getType(String key, SnapshotLoader<T> loader) {
+
+		// Attempt to load the snapshot
+		T type = null;
+		if (key != null) {
+			try {
+				Properties snapshot = this.readSnapshot(key);
+				if ((snapshot != null) && (this.isReferencedClassesUnchanged(snapshot))) {
+					type = loader.load(snapshot);
+				}
+			} catch (Exception ex) {
+				type = null; // invalid snapshot, so load type
+			}
+		}
+
+		// Record the result and return type
+		(type != null ? this.hitCount : this.missCount).increment();
+		return type;
+	}
+
+	/**
+	 * Loads the type from the snapshot.
+	 */
+	@FunctionalInterface
+	private static interface SnapshotLoader<T> {
+
+		/**
+		 * Loads the type.
+		 * 
+		 * @param snapshot Snapshot.
+		 * @return Type.
+		 * @throws Exception If fails to load.
+		 */
+		T load(Properties snapshot) throws Exception;
+	}
+
+	/**
+	 * Determines if the {@link Class} instances referenced by the snapshot are
+	 * unchanged.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @return <code>true</code> if referenced {@link Class} instances are
+	 *         unchanged.
+	 * @throws IOException If fails to digest a {@link Class}.
+	 */
+	private boolean isReferencedClassesUnchanged(Properties snapshot) throws IOException {
+		for (String name : snapshot.stringPropertyNames()) {
+			if (name.startsWith(CLASS_DIGEST_PREFIX)) {
+				String className = name.substring(CLASS_DIGEST_PREFIX.length());
+				if (!this.digestClass(className).equals(snapshot.getProperty(name))) {
+					return false; // class changed
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Snapshots the {@link ManagedObjectType}.
+	 * 
+	 * @param key  Key to the snapshot. May be <code>null</code>.
+	 * @param type {@link ManagedObjectType}.
+	 */
+	public void snapshotManagedObjectType(String key, ManagedObjectType<?> type) {
+		if (key == null) {
+			return; // unable to snapshot
+		}
+		try {
+			Properties snapshot = new Properties();
+			this.setClass(snapshot, "objectType", type.getObjectType());
+			snapshot.setProperty("input", String.valueOf(type.isInput()));
+
+			// Snapshot the dependencies
+			ManagedObjectDependencyType<?>[] dependencies = type.getDependencyTypes();
+			snapshot.setProperty("dependencies", String.valueOf(dependencies.length));
+			for (int i = 0; i < dependencies.length; i++) {
+				ManagedObjectDependencyType<?> dependency = dependencies[i];
+				String prefix = "dependency." + i + ".";
+				if (!this.setAnnotations(snapshot, prefix + "annotations", dependency.getAnnotations())) {
+					return; // annotations are not able to be snapshot
+				}
+				snapshot.setProperty(prefix + "name", dependency.getDependencyName());
+				snapshot.setProperty(prefix + "index", String.valueOf(dependency.getIndex()));
+				this.setClass(snapshot, prefix + "type", dependency.getDependencyType());
+				setOptional(snapshot, prefix + "qualifier", dependency.getTypeQualifier());
+				this.setKey(snapshot, prefix + "key", dependency.getKey());
+			}
+
+			// Snapshot the function dependencies
+			ManagedObjectFunctionDependencyType[] functionDependencies = type.getFunctionDependencyTypes();
+			snapshot.setProperty("functionDependencies", String.valueOf(functionDependencies.length));
+			for (int i = 0; i < functionDependencies.length; i++) {
+				ManagedObjectFunctionDependencyType functionDependency = functionDependencies[i];
+				String prefix = "functionDependency." + i + ".";
+				snapshot.setProperty(prefix + "name", functionDependency.getFunctionObjectName());
+				this.setClass(snapshot, prefix + "type", functionDependency.getFunctionObjectType());
+			}
+
+			// Snapshot the flows
+			ManagedObjectFlowType<?>[] flows = type.getFlowTypes();
+			snapshot.setProperty("flows", String.valueOf(flows.length));
+			for (int i = 0; i < flows.length; i++) {
+				ManagedObjectFlowType<?> flow = flows[i];
+				String prefix = "flow." + i + ".";
+				snapshot.setProperty(prefix + "name", flow.getFlowName());
+				snapshot.setProperty(prefix + "index", String.valueOf(flow.getIndex()));
+				this.setClass(snapshot, prefix + "argumentType", flow.getArgumentType());
+				this.setKey(snapshot, prefix + "key", flow.getKey());
+			}
+
+			// Snapshot the teams
+			ManagedObjectTeamType[] teams = type.getTeamTypes();
+			snapshot.setProperty("teams", String.valueOf(teams.length));
+			for (int i = 0; i < teams.length; i++) {
+				snapshot.setProperty("team." + i + ".name", teams[i].getTeamName());
+			}
+
+			// Snapshot the execution strategies
+			ManagedObjectExecutionStrategyType[] strategies = type.getExecutionStrategyTypes();
+			snapshot.setProperty("executionStrategies", String.valueOf(strategies.length));
+			for (int i = 0; i < strategies.length; i++) {
+				snapshot.setProperty("executionStrategy." + i + ".name", strategies[i].getExecutionStrategyName());
+			}
+
+			// Snapshot the extension types
+			Class<?>[] extensionTypes = type.getExtensionTypes();
+			snapshot.setProperty("extensionTypes", String.valueOf(extensionTypes.length));
+			for (int i = 0; i < extensionTypes.length; i++) {
+				this.setClass(snapshot, "extensionType." + i, extensionTypes[i]);
+			}
+
+			// Write the snapshot
+			this.writeSnapshot(key, snapshot);
+
+		} catch (IOException ex) {
+			// Ignore, as type is loaded on next start
+		}
+	}
+
+	/**
+	 * Loads the {@link ManagedObjectType} from the snapshot.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @return {@link ManagedObjectType}.
+	 * @throws Exception If fails to load.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private ManagedObjectType<?> loadManagedObjectType(Properties snapshot) throws Exception {
+
+		// Load the dependencies
+		ManagedObjectDependencyType[] dependencies = new ManagedObjectDependencyType[getCount(snapshot,
+				"dependencies")];
+		for (int i = 0; i < dependencies.length; i++) {
+			String prefix = "dependency." + i + ".";
+			dependencies[i] = new ManagedObjectDependencyTypeImpl(getIndex(snapshot, prefix + "index"),
+					this.getClass(snapshot, prefix + "type"), snapshot.getProperty(prefix + "qualifier"),
+					this.getAnnotations(snapshot, prefix + "annotations"), (Enum) this.getKey(snapshot, prefix + "key"),
+					snapshot.getProperty(prefix + "name"));
+		}
+
+		// Load the function dependencies
+		ManagedObjectFunctionDependencyType[] functionDependencies = new ManagedObjectFunctionDependencyType[getCount(
+				snapshot, "functionDependencies")];
+		for (int i = 0; i < functionDependencies.length; i++) {
+			String prefix = "functionDependency." + i + ".";
+			functionDependencies[i] = new ManagedObjectFunctionDependencyTypeImpl(
+					snapshot.getProperty(prefix + "name"), this.getClass(snapshot, prefix + "type"));
+		}
+
+		// Load the flows
+		ManagedObjectFlowType<?>[] flows = new ManagedObjectFlowType[getCount(snapshot, "flows")];
+		for (int i = 0; i < flows.length; i++) {
+			String prefix = "flow." + i + ".";
+			flows[i] = new ManagedObjectFlowTypeImpl(getIndex(snapshot, prefix + "index"),
+					this.getClass(snapshot, prefix + "argumentType"), (Enum) this.getKey(snapshot, prefix + "key"),
+					snapshot.getProperty(prefix + "name"));
+		}
+
+		// Load the teams
+		ManagedObjectTeamType[] teams = new ManagedObjectTeamType[getCount(snapshot, "teams")];
+		for (int i = 0; i < teams.length; i++) {
+			teams[i] = new ManagedObjectTeamTypeImpl(snapshot.getProperty("team." + i + ".name"));
+		}
+
+		// Load the execution strategies
+		ManagedObjectExecutionStrategyType[] strategies = new ManagedObjectExecutionStrategyType[getCount(snapshot,
+				"executionStrategies")];
+		for (int i = 0; i < strategies.length; i++) {
+			strategies[i] = new ManagedObjectExecutionStrategyTypeImpl(
+					snapshot.getProperty("executionStrategy." + i + ".name"));
+		}
+
+		// Load the extension types
+		Class<?>[] extensionTypes = new Class<?>[getCount(snapshot, "extensionTypes")];
+		for (int i = 0; i < extensionTypes.length; i++) {
+			extensionTypes[i] = this.getClass(snapshot, "extensionType." + i);
+		}
+
+		// Create and return the managed object type
+		return new ManagedObjectTypeImpl(this.getClass(snapshot, "objectType"),
+				Boolean.parseBoolean(snapshot.getProperty("input")), dependencies, functionDependencies, flows, teams,
+				strategies, extensionTypes);
+	}
+
+	/**
+	 * Snapshots the {@link SectionType}.
+	 * 
+	 * @param key  Key to the snapshot. May be <code>null</code>.
+	 * @param type {@link SectionType}.
+	 */
+	public void snapshotSectionType(String key, SectionType type) {
+		if (key == null) {
+			return; // unable to snapshot
+		}
+		try {
+			Properties snapshot = new Properties();
+
+			// Snapshot the inputs
+			SectionInputType[] inputs = type.getSectionInputTypes();
+			snapshot.setProperty("inputs", String.valueOf(inputs.length));
+			for (int i = 0; i < inputs.length; i++) {
+				SectionInputType input = inputs[i];
+				String prefix = "input." + i + ".";
+				snapshot.setProperty(prefix + "name", input.getSectionInputName());
+				this.setClassName(snapshot, prefix + "parameterType", input.getParameterType());
+				if (!this.setAnnotations(snapshot, prefix + "annotations", input.getAnnotations())) {
+					return; // annotations are not able to be snapshot
+				}
+			}
+
+			// Snapshot the outputs
+			SectionOutputType[] outputs = type.getSectionOutputTypes();
+			snapshot.setProperty("outputs", String.valueOf(outputs.length));
+			for (int i = 0; i < outputs.length; i++) {
+				SectionOutputType output = outputs[i];
+				String prefix = "output." + i + ".";
+				snapshot.setProperty(prefix + "name", output.getSectionOutputName());
+				this.setClassName(snapshot, prefix + "argumentType", output.getArgumentType());
+				snapshot.setProperty(prefix + "escalationOnly", String.valueOf(output.isEscalationOnly()));
+				if (!this.setAnnotations(snapshot, prefix + "annotations", output.getAnnotations())) {
+					return; // annotations are not able to be snapshot
+				}
+			}
+
+			// Snapshot the objects
+			SectionObjectType[] objects = type.getSectionObjectTypes();
+			snapshot.setProperty("objects", String.valueOf(objects.length));
+			for (int i = 0; i < objects.length; i++) {
+				SectionObjectType object = objects[i];
+				String prefix = "object." + i + ".";
+				snapshot.setProperty(prefix + "name", object.getSectionObjectName());
+				this.setClassName(snapshot, prefix + "type", object.getObjectType());
+				setOptional(snapshot, prefix + "qualifier", object.getTypeQualifier());
+				if (!this.setAnnotations(snapshot, prefix + "annotations", object.getAnnotations())) {
+					return; // annotations are not able to be snapshot
+				}
+			}
+
+			// Write the snapshot
+			this.writeSnapshot(key, snapshot);
+
+		} catch (IOException ex) {
+			// Ignore, as type is loaded on next start
+		}
+	}
+
+	/**
+	 * Loads the {@link SectionType} from the snapshot.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @return {@link SectionType}.
+	 * @throws Exception If fails to load.
+	 */
+	private SectionType loadSectionType(Properties snapshot) throws Exception {
+
+		// Load the inputs
+		SectionInputType[] inputs = new SectionInputType[getCount(snapshot, "inputs")];
+		for (int i = 0; i < inputs.length; i++) {
+			String prefix = "input." + i + ".";
+			inputs[i] = new SectionInputTypeImpl(snapshot.getProperty(prefix + "name"),
+					snapshot.getProperty(prefix + "parameterType"),
+					this.getAnnotations(snapshot, prefix + "annotations"));
+		}
+
+		// Load the outputs
+		SectionOutputType[] outputs = new SectionOutputType[getCount(snapshot, "outputs")];
+		for (int i = 0; i < outputs.length; i++) {
+			String prefix = "output." + i + ".";
+			outputs[i] = new SectionOutputTypeImpl(snapshot.getProperty(prefix + "name"),
+					snapshot.getProperty(prefix + "argumentType"),
+					Boolean.parseBoolean(snapshot.getProperty(prefix + "escalationOnly")),
+					this.getAnnotations(snapshot, prefix + "annotations"));
+		}
+
+		// Load the objects
+		SectionObjectType[] objects = new SectionObjectType[getCount(snapshot, "objects")];
+		for (int i = 0; i < objects.length; i++) {
+			String prefix = "object." + i + ".";
+			objects[i] = new SectionObjectTypeImpl(snapshot.getProperty(prefix + "name"),
+					snapshot.getProperty(prefix + "type"), snapshot.getProperty(prefix + "qualifier"),
+					this.getAnnotations(snapshot, prefix + "annotations"));
+		}
+
+		// Create and return the section type
+		return new SectionTypeImpl(inputs, outputs, objects);
+	}
+
+	/**
+	 * Snapshots the {@link FunctionNamespaceType}.
+	 * 
+	 * @param key  Key to the snapshot. May be <code>null</code>.
+	 * @param type {@link FunctionNamespaceType}.
+	 */
+	public void snapshotFunctionNamespaceType(String key, FunctionNamespaceType type) {
+		if (key == null) {
+			return; // unable to snapshot
+		}
+		try {
+			Properties snapshot = new Properties();
+
+			// Snapshot the functions
+			ManagedFunctionType<?, ?>[] functions = type.getManagedFunctionTypes();
+			snapshot.setProperty("functions", String.valueOf(functions.length));
+			for (int i = 0; i < functions.length; i++) {
+				ManagedFunctionType<?, ?> function = functions[i];
+				String prefix = "function." + i + ".";
+				snapshot.setProperty(prefix + "name", function.getFunctionName());
+				this.setClass(snapshot, prefix + "objectKeyClass", function.getObjectKeyClass());
+				this.setClass(snapshot, prefix + "flowKeyClass", function.getFlowKeyClass());
+				this.setClass(snapshot, prefix + "returnType", function.getReturnType());
+				if (!this.setAnnotations(snapshot, prefix + "annotations", function.getAnnotations())) {
+					return; // annotations are not able to be snapshot
+				}
+
+				// Snapshot the objects
+				ManagedFunctionObjectType<?>[] objects = function.getObjectTypes();
+				snapshot.setProperty(prefix + "objects", String.valueOf(objects.length));
+				for (int j = 0; j < objects.length; j++) {
+					ManagedFunctionObjectType<?> object = objects[j];
+					String objectPrefix = prefix + "object." + j + ".";
+					snapshot.setProperty(objectPrefix + "name", object.getObjectName());
+					this.setClass(snapshot, objectPrefix + "type", object.getObjectType());
+					setOptional(snapshot, objectPrefix + "qualifier", object.getTypeQualifier());
+					this.setKey(snapshot, objectPrefix + "key", object.getKey());
+					if (!this.setAnnotations(snapshot, objectPrefix + "annotations", object.getAnnotations())) {
+						return; // annotations are not able to be snapshot
+					}
+				}
+
+				// Snapshot the flows
+				ManagedFunctionFlowType<?>[] flows = function.getFlowTypes();
+				snapshot.setProperty(prefix + "flows", String.valueOf(flows.length));
+				for (int j = 0; j < flows.length; j++) {
+					ManagedFunctionFlowType<?> flow = flows[j];
+					String flowPrefix = prefix + "flow." + j + ".";
+					snapshot.setProperty(flowPrefix + "name", flow.getFlowName());
+					this.setClass(snapshot, flowPrefix + "argumentType", flow.getArgumentType());
+					this.setKey(snapshot, flowPrefix + "key", flow.getKey());
+					if (!this.setAnnotations(snapshot, flowPrefix + "annotations", flow.getAnnotations())) {
+						return; // annotations are not able to be snapshot
+					}
+				}
+
+				// Snapshot the escalations
+				ManagedFunctionEscalationType[] escalations = function.getEscalationTypes();
+				snapshot.setProperty(prefix + "escalations", String.valueOf(escalations.length));
+				for (int j = 0; j < escalations.length; j++) {
+					ManagedFunctionEscalationType escalation = escalations[j];
+					String escalationPrefix = prefix + "escalation." + j + ".";
+					snapshot.setProperty(escalationPrefix + "name", escalation.getEscalationName());
+					this.setClass(snapshot, escalationPrefix + "type", escalation.getEscalationType());
+				}
+			}
+
+			// Write the snapshot
+			this.writeSnapshot(key, snapshot);
+
+		} catch (IOException ex) {
+			// Ignore, as type is loaded on next start
+		}
+	}
+
+	/**
+	 * Loads the {@link FunctionNamespaceType} from the snapshot.
+	 * 
+	 * @param snapshot     Snapshot.
+	 * @param typeSourcing Sources the {@link FunctionNamespaceType} to provide
+	 *                     the {@link ManagedFunctionFactory} instances.
+	 * @return {@link FunctionNamespaceType}.
+	 * @throws Exception If fails to load.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private FunctionNamespaceType loadFunctionNamespaceType(Properties snapshot,
+			Supplier<FunctionNamespaceType> typeSourcing) throws Exception {
+
+		// Factories source the namespace on first use
+		SourcedFunctionNamespace sourced = new SourcedFunctionNamespace(typeSourcing);
+
+		// Load the functions
+		FunctionNamespaceTypeImpl namespace = new FunctionNamespaceTypeImpl();
+		FunctionNamespaceBuilder builder = namespace;
+		int functionCount = getCount(snapshot, "functions");
+		for (int i = 0; i < functionCount; i++) {
+			String prefix = "function." + i + ".";
+			String functionName = snapshot.getProperty(prefix + "name");
+			ManagedFunctionTypeBuilder function = builder.addManagedFunctionType(functionName,
+					(Class) this.getClass(snapshot, prefix + "objectKeyClass"),
+					(Class) this.getClass(snapshot, prefix + "flowKeyClass"));
+			function.setFunctionFactory(new SnapshotManagedFunctionFactory(functionName, sourced));
+			function.setReturnType(this.getClass(snapshot, prefix + "returnType"));
+			for (Object annotation : this.getAnnotations(snapshot, prefix + "annotations")) {
+				function.addAnnotation(annotation);
+			}
+
+			// Load the objects
+			int objectCount = getCount(snapshot, prefix + "objects");
+			for (int j = 0; j < objectCount; j++) {
+				String objectPrefix = prefix + "object." + j + ".";
+				ManagedFunctionObjectTypeBuilder object = function
+						.addObject(this.getClass(snapshot, objectPrefix + "type"));
+				Enum key = this.getKey(snapshot, objectPrefix + "key");
+				if (key != null) {
+					object.setKey(key);
+				}
+				object.setLabel(snapshot.getProperty(objectPrefix + "name"));
+				String qualifier = snapshot.getProperty(objectPrefix + "qualifier");
+				if (qualifier != null) {
+					object.setTypeQualifier(qualifier);
+				}
+				for (Object annotation : this.getAnnotations(snapshot, objectPrefix + "annotations")) {
+					object.addAnnotation(annotation);
+				}
+			}
+
+			// Load the flows
+			int flowCount = getCount(snapshot, prefix + "flows");
+			for (int j = 0; j < flowCount; j++) {
+				String flowPrefix = prefix + "flow." + j + ".";
+				ManagedFunctionFlowTypeBuilder flow = function.addFlow();
+				Enum key = this.getKey(snapshot, flowPrefix + "key");
+				if (key != null) {
+					flow.setKey(key);
+				}
+				flow.setLabel(snapshot.getProperty(flowPrefix + "name"));
+				flow.setArgumentType(this.getClass(snapshot, flowPrefix + "argumentType"));
+				for (Object annotation : this.getAnnotations(snapshot, flowPrefix + "annotations")) {
+					flow.addAnnotation(annotation);
+				}
+			}
+
+			// Load the escalations
+			int escalationCount = getCount(snapshot, prefix + "escalations");
+			for (int j = 0; j < escalationCount; j++) {
+				String escalationPrefix = prefix + "escalation." + j + ".";
+				function.addEscalation((Class) this.getClass(snapshot, escalationPrefix + "type"))
+						.setLabel(snapshot.getProperty(escalationPrefix + "name"));
+			}
+		}
+
+		// Return the function namespace type
+		return namespace;
+	}
+
+	/**
+	 * Sources the {@link FunctionNamespaceType} once on first use.
+	 */
+	private static class SourcedFunctionNamespace {
+
+		/**
+		 * Sources the {@link FunctionNamespaceType}.
+		 */
+		private final Supplier<FunctionNamespaceType> typeSourcing;
+
+		/**
+		 * Sourced {@link FunctionNamespaceType}.
+		 */
+		private FunctionNamespaceType namespaceType = null;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param typeSourcing Sources the {@link FunctionNamespaceType}.
+		 */
+		private SourcedFunctionNamespace(Supplier<FunctionNamespaceType> typeSourcing) {
+			this.typeSourcing = typeSourcing;
+		}
+
+		/**
+		 * Obtains the sourced {@link ManagedFunctionType}.
+		 * 
+		 * @param functionName Name of the {@link ManagedFunctionType}.
+		 * @return Sourced {@link ManagedFunctionType} or <code>null</code> if not
+		 *         available.
+		 */
+		private synchronized ManagedFunctionType<?, ?> getManagedFunctionType(String functionName) {
+
+			// Lazy source the namespace
+			if (this.namespaceType == null) {
+				this.namespaceType = this.typeSourcing.get();
+				if (this.namespaceType == null) {
+					return null; // failed to source
+				}
+			}
+
+			// Obtain the function type
+			for (ManagedFunctionType<?, ?> functionType : this.namespaceType.getManagedFunctionTypes()) {
+				if (functionName.equals(functionType.getFunctionName())) {
+					return functionType;
+				}
+			}
+			return null; // function no longer available
+		}
+	}
+
+	/**
+	 * {@link ManagedFunctionFactory} for snapshot {@link ManagedFunctionType}.
+	 */
+	private static class SnapshotManagedFunctionFactory<M extends Enum<M>, F extends Enum<F>>
+			implements ManagedFunctionFactory<M, F> {
+
+		/**
+		 * Name of the {@link ManagedFunctionType}.
+		 */
+		private final String functionName;
+
+		/**
+		 * {@link SourcedFunctionNamespace}.
+		 */
+		private final SourcedFunctionNamespace namespace;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param functionName Name of the {@link ManagedFunctionType}.
+		 * @param namespace    {@link SourcedFunctionNamespace}.
+		 */
+		private SnapshotManagedFunctionFactory(String functionName, SourcedFunctionNamespace namespace) {
+			this.functionName = functionName;
+			this.namespace = namespace;
+		}
+
+		/*
+		 * ================= ManagedFunctionFactory ==================
+		 */
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public ManagedFunction<M, F> createManagedFunction() throws Throwable {
+
+			// Obtain the sourced function type
+			ManagedFunctionType<?, ?> functionType = this.namespace.getManagedFunctionType(this.functionName);
+			if (functionType == null) {
+				throw new IllegalStateException("Unable to source " + ManagedFunctionType.class.getSimpleName() + " "
+						+ this.functionName + " for snapshot");
+			}
+
+			// Create the managed function
+			return ((ManagedFunctionFactory<M, F>) functionType.getManagedFunctionFactory()).createManagedFunction();
+		}
+	}
+
+	/**
+	 * Specifies the {@link Class} within the snapshot (including its digest).
+	 * 
+	 * @param snapshot Snapshot.
+	 * @param name     Name of entry.
+	 * @param clazz    {@link Class}. May be <code>null</code>.
+	 * @throws IOException If fails to digest the {@link Class}.
+	 */
+	private void setClass(Properties snapshot, String name, Class<?> clazz) throws IOException {
+		if (clazz != null) {
+			this.setClassName(snapshot, name, clazz.getName());
+		}
+	}
+
+	/**
+	 * Specifies the {@link Class} name within the snapshot (including digest of
+	 * the {@link Class}).
+	 * 
+	 * @param snapshot  Snapshot.
+	 * @param name      Name of entry.
+	 * @param className Name of {@link Class}. May be <code>null</code>.
+	 * @throws IOException If fails to digest the {@link Class}.
+	 */
+	private void setClassName(Properties snapshot, String name, String className) throws IOException {
+		if (className != null) {
+			snapshot.setProperty(name, className);
+			snapshot.setProperty(CLASS_DIGEST_PREFIX + className, this.digestClass(className));
+		}
+	}
+
+	/**
+	 * Obtains the {@link Class} from the snapshot.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @param name     Name of entry.
+	 * @return {@link Class}. May be <code>null</code>.
+	 * @throws ClassNotFoundException If {@link Class} no longer available.
+	 */
+	private Class<?> getClass(Properties snapshot, String name) throws ClassNotFoundException {
+		String className = snapshot.getProperty(name);
+		if (className == null) {
+			return null;
+		}
+		Class<?> primitive = primitives.get(className);
+		return (primitive != null) ? primitive : Class.forName(className, false, this.classLoader);
+	}
+
+	/**
+	 * Specifies the key within the snapshot.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @param name     Name of entry.
+	 * @param key      Key. May be <code>null</code>.
+	 * @throws IOException If fails to digest the key {@link Class}.
+	 */
+	private void setKey(Properties snapshot, String name, Enum<?> key) throws IOException {
+		if (key != null) {
+			this.setClass(snapshot, name + ".type", key.getDeclaringClass());
+			snapshot.setProperty(name, key.name());
+		}
+	}
+
+	/**
+	 * Obtains the key from the snapshot.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @param name     Name of entry.
+	 * @return Key. May be <code>null</code>.
+	 * @throws ClassNotFoundException If key {@link Class} no longer available.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Enum<?> getKey(Properties snapshot, String name) throws ClassNotFoundException {
+		String keyName = snapshot.getProperty(name);
+		if (keyName == null) {
+			return null;
+		}
+		Class keyClass = this.getClass(snapshot, name + ".type");
+		return Enum.valueOf(keyClass, keyName);
+	}
+
+	/**
+	 * Specifies the annotations within the snapshot.
+	 * 
+	 * @param snapshot    Snapshot.
+	 * @param name        Name of entry.
+	 * @param annotations Annotations. May be <code>null</code>.
+	 * @return <code>false</code> if annotations are not able to be snapshot.
+	 * @throws IOException If fails to snapshot the annotations.
+	 */
+	private boolean setAnnotations(Properties snapshot, String name, Object[] annotations) throws IOException {
+
+		// Determine if annotations
+		if ((annotations == null) || (annotations.length == 0)) {
+			return true; // nothing to snapshot
+		}
+
+		// Ensure able to snapshot annotations (recording their types)
+		for (Object annotation : annotations) {
+			if (!(annotation instanceof Serializable)) {
+				return false; // not able to snapshot
+			}
+			Class<?> annotationType = (annotation instanceof Annotation) ? ((Annotation) annotation).annotationType()
+					: annotation.getClass();
+			String className = annotationType.getName();
+			snapshot.setProperty(CLASS_DIGEST_PREFIX + className, this.digestClass(className));
+		}
+
+		// Snapshot the annotations
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(annotations);
+		} catch (NotSerializableException ex) {
+			return false; // annotation contains state not able to be snapshot
+		}
+		snapshot.setProperty(name, Base64.getEncoder().encodeToString(bytes.toByteArray()));
+		return true;
+	}
+
+	/**
+	 * Obtains the annotations from the snapshot.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @param name     Name of entry.
+	 * @return Annotations.
+	 * @throws Exception If fails to load the annotations.
+	 */
+	private Object[] getAnnotations(Properties snapshot, String name) throws Exception {
+		String value = snapshot.getProperty(name);
+		if (value == null) {
+			return new Object[0];
+		}
+		try (ObjectInputStream input = new SnapshotObjectInputStream(
+				new ByteArrayInputStream(Base64.getDecoder().decode(value)))) {
+			return (Object[]) input.readObject();
+		}
+	}
+
+	/**
+	 * {@link ObjectInputStream} resolving {@link Class} instances from the
+	 * {@link ClassLoader}.
+	 */
+	private class SnapshotObjectInputStream extends ObjectInputStream {
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param input {@link InputStream} to the snapshot annotations.
+		 * @throws IOException If fails to read header.
+		 */
+		private SnapshotObjectInputStream(InputStream input) throws IOException {
+			super(input);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			String className = desc.getName();
+			Class<?> primitive = primitives.get(className);
+			return (primitive != null) ? primitive
+					: Class.forName(className, false, TypeSnapshotCache.this.classLoader);
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+			Class<?>[] interfaceClasses = new Class<?>[interfaces.length];
+			for (int i = 0; i < interfaces.length; i++) {
+				interfaceClasses[i] = Class.forName(interfaces[i], false, TypeSnapshotCache.this.classLoader);
+			}
+			return Proxy.getProxyClass(TypeSnapshotCache.this.classLoader, interfaceClasses);
+		}
+	}
+
+	/**
+	 * Specifies an optional value within the snapshot.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @param name     Name of entry.
+	 * @param value    Value. May be <code>null</code>.
+	 */
+	private static void setOptional(Properties snapshot, String name, String value) {
+		if (value != null) {
+			snapshot.setProperty(name, value);
+		}
+	}
+
+	/**
+	 * Obtains the count from the snapshot.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @param name     Name of entry.
+	 * @return Count.
+	 */
+	private static int getCount(Properties snapshot, String name) {
+		return getIndex(snapshot, name);
+	}
+
+	/**
+	 * Obtains the index from the snapshot.
+	 * 
+	 * @param snapshot Snapshot.
+	 * @param name     Name of entry.
+	 * @return Index.
+	 */
+	private static int getIndex(Properties snapshot, String name) {
+		return Integer.parseInt(snapshot.getProperty(name));
+	}
+
+	/**
+	 * Reads the snapshot.
+	 * 
+	 * @param key Key to the snapshot.
+	 * @return Snapshot or <code>null</code> if no snapshot.
+	 * @throws IOException If fails to read the snapshot.
+	 */
+	private Properties readSnapshot(String key) throws IOException {
+		File file = new File(this.directory, key + ".properties");
+		if (!file.isFile()) {
+			return null;
+		}
+		Properties snapshot = new Properties();
+		try (InputStream input = new FileInputStream(file)) {
+			snapshot.load(input);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Writes the snapshot.
+	 * 
+	 * @param key      Key to the snapshot.
+	 * @param snapshot Snapshot.
+	 * @throws IOException If fails to write the snapshot.
+	 */
+	private void writeSnapshot(String key, Properties snapshot) throws IOException {
+		this.directory.mkdirs();
+		File temp = File.createTempFile(key, ".tmp", this.directory);
+		try {
+			try (OutputStream output = new FileOutputStream(temp)) {
+				snapshot.store(output, null);
+			}
+			Files.move(temp.toPath(), new File(this.directory, key + ".properties").toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Obtains the digest of the {@link Class} bytes.
+	 * 
+	 * @param className Name of {@link Class}.
+	 * @return Digest of the {@link Class} bytes.
+	 * @throws IOException If fails to read the {@link Class} bytes.
+	 */
+	private String digestClass(String className) throws IOException {
+
+		// Primitives do not change
+		if (primitives.containsKey(className)) {
+			return "primitive";
+		}
+
+		// Obtain the component type of arrays
+		if (className.startsWith("[")) {
+			int componentIndex = className.lastIndexOf('[') + 1;
+			if (className.charAt(componentIndex) != 'L') {
+				return "primitive";
+			}
+			className = className.substring(componentIndex + 1, className.length() - 1);
+		}
+
+		// Digest the class bytes
+		String digest = this.digestResource(className.replace('.', '/') + ".class");
+		return (digest != null) ? digest : "none";
+	}
+
+	/**
+	 * Obtains the digest of resource (or {@link Class}) named by a
+	 * {@link Property} value.
+	 * 
+	 * @param value {@link Property} value.
+	 * @return Digest or empty if value does not name a resource.
+	 * @throws IOException If fails to read resource.
+	 */
+	private String digestReferencedResource(String value) throws IOException {
+		if (CompileUtil.isBlank(value) || (value.indexOf('\n') >= 0) || (value.indexOf(':') >= 0)) {
+			return "";
+		}
+		String path = value.trim();
+		String digest = path.endsWith("/") ? null : this.digestResource(path);
+		if (digest == null) {
+			// Determine if class name
+			digest = this.digestResource(path.replace('.', '/') + ".class");
+		}
+		return (digest != null) ? digest : "";
+	}
+
+	/**
+	 * Obtains the digest of a resource.
+	 * 
+	 * @param path Path to the resource.
+	 * @return Digest or <code>null</code> if no resource.
+	 * @throws IOException If fails to read the resource.
+	 */
+	private String digestResource(String path) throws IOException {
+		InputStream resource;
+		try {
+			resource = this.classLoader.getResourceAsStream(path);
+		} catch (IllegalArgumentException ex) {
+			return null; // invalid resource path
+		}
+		if (resource == null) {
+			return null;
+		}
+		MessageDigest digest = newDigest();
+		try (InputStream input = resource) {
+			byte[] buffer = new byte[4096];
+			int size;
+			while ((size = input.read(buffer)) > 0) {
+				digest.update(buffer, 0, size);
+			}
+		} catch (IOException ex) {
+			return null; // directory or unreadable, so not configuration
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Creates a new {@link MessageDigest}.
+	 * 
+	 * @return New {@link MessageDigest}.
+	 */
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			// Should always be available
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Updates the {@link MessageDigest} with the value.
+	 * 
+	 * @param digest {@link MessageDigest}.
+	 * @param value  Value. May be <code>null</code>.
+	 */
+	private static void update(MessageDigest digest, String value) {
+		digest.update((value == null ? "\0" : value).getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+	}
+
+	/**
+	 * Converts the bytes to hexadecimal.
+	 * 
+	 * @param bytes Bytes.
+	 * @return Hexadecimal.
+	 */
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+			hex.append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	/*
+	 * ==================== TypeSnapshotCacheMBean ====================
+	 */
+
+	@Override
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	@Override
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+}
@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor;
+
+import java.io.File;
+
+import net.officefloor.compile.OfficeFloorCompiler;
+import net.officefloor.compile.classes.OfficeFloorJavaCompiler;
+import net.officefloor.compile.impl.issues.FailCompilerIssues;
+import net.officefloor.frame.api.manage.OfficeFloor;
+
+/**
+ * <p>
+ * Provides <code>main</code> method to compile (but not open) the
+ * {@link OfficeFloor} to precompile the {@link OfficeFloorJavaCompiler}
+ * generated {@link Class} instances.
+ * <p>
+ * The precompiled {@link Class} instances are then loaded at runtime to avoid
+ * compiling at start up (and allow running without the Java compiler).
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class OfficeFloorPrecompileMain {
+
+	/**
+	 * Line output to <code>stdout</code> to indicate {@link OfficeFloor}
+	 * precompiled.
+	 */
+	public static String STD_OUT_PRECOMPILED_LINE = "OfficeFloor precompiled";
+
+	/**
+	 * Compiles the {@link OfficeFloor} recording the generated {@link Class}
+	 * instances.
+	 * 
+	 * @param args Directory to write the generated {@link Class} instances,
+	 *             followed by property name/value pairs.
+	 */
+	public static void main(String... args) {
+
+		// Obtain the directory to contain the precompiled classes
+		File directory = new File(args[0]);
+
+		// Remove previous index (as regenerating)
+		new File(directory, OfficeFloorJavaCompiler.PRECOMPILED_CLASSES_RESOURCE_PATH).delete();
+
+		// Flag to record the compiled classes
+		System.setProperty(OfficeFloorJavaCompiler.SYSTEM_PROPERTY_JAVA_PRECOMPILE_DIRECTORY,
+				directory.getAbsolutePath());
+
+		try {
+
+			// Create the compiler
+			OfficeFloorCompiler compiler = OfficeFloorCompiler.newOfficeFloorCompiler(null);
+
+			// Load the arguments as properties
+			for (int i = 1; i < args.length; i += 2) {
+				String name = args[i];
+				String value = args[i + 1];
+				compiler.addProperty(name, value);
+			}
+
+			// Fail on issues (so build fails)
+			compiler.setCompilerIssues(new FailCompilerIssues());
+
+			// Compile the OfficeFloor (generating the classes)
+			System.out.println("Precompiling OfficeFloor");
+			compiler.compile("OfficeFloor");
+			System.out.println(STD_OUT_PRECOMPILED_LINE);
+
+		} catch (Throwable ex) {
+			// Indicate failure (exiting as compiling may have started threads)
+			ex.printStackTrace();
+			System.exit(1);
+		}
+
+		// Exit (as compiling may have started threads)
+		System.exit(0);
+	}
+
+}
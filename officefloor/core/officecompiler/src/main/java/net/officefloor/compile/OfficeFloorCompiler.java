@@ -101,6 +101,21 @@ public abstract class OfficeFloorCompiler implements Node, PropertyConfigurable
 	 */
 	public static final String IMPLEMENTATION_CLASS_PROPERTY_NAME = "net.officefloor.compiler.implementation";
 
+	/**
+	 * {@link System#getProperty(String)} that allows specifying the directory to
+	 * contain the snapshot of loaded types. Should this not be specified (and not
+	 * configured via {@link #setTypeSnapshotDirectory(File)}) the types are always
+	 * loaded.
+	 */
+	public static final String TYPE_SNAPSHOT_DIRECTORY_PROPERTY_NAME = "officefloor.type.snapshot.directory";
+
+	/**
+	 * {@link System#getProperty(String)} that allows flagging to load the types in
+	 * parallel. Should this not be <code>true</code> (and not configured via
+	 * {@link #setParallelTypeLoading(boolean)}) the types are loaded sequentially.
+	 */
+	public static final String PARALLEL_TYPE_LOADING_PROPERTY_NAME = "officefloor.type.parallel";
+
 	/**
 	 * <p>
 	 * Factory to create the {@link OfficeFloorCompiler}.
@@ -792,6 +807,30 @@ public abstract class OfficeFloorCompiler implements Node, PropertyConfigurable
 	 */
 	public abstract void setOverridePropertiesDirectory(File propertiesDirectory);
 
+	/**
+	 * <p>
+	 * Specifies a directory to contain the snapshot of loaded types.
+	 * <p>
+	 * On compiling, the snapshot is used to skip re-sourcing the type should the
+	 * source {@link Class}, its properties and referenced configuration be
+	 * unchanged.
+	 * 
+	 * @param snapshotDirectory Directory to contain the snapshot of loaded types.
+	 */
+	public abstract void setTypeSnapshotDirectory(File snapshotDirectory);
+
+	/**
+	 * <p>
+	 * Flags whether to load the types in parallel.
+	 * <p>
+	 * On compiling, once the tree is sourced the independent types are loaded
+	 * across the available processors before linking. Any {@link CompilerIssues}
+	 * are still reported in the order of loading the types sequentially.
+	 * 
+	 * @param isParallel <code>true</code> to load the types in parallel.
+	 */
+	public abstract void setParallelTypeLoading(boolean isParallel);
+
 	/**
 	 * Specifies the {@link MBeanRegistrator}.
 	 * 
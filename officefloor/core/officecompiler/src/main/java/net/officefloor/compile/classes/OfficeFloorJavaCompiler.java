@@ -45,6 +45,19 @@ public abstract class OfficeFloorJavaCompiler {
 	 */
 	public static final String SYSTEM_PROPERTY_JAVA_COMPILING = "officefloor.java.compiling";
 
+	/**
+	 * {@link System} property specifying the directory to write the compiled
+	 * {@link Class} instances into. This is used by build time precompiling so
+	 * that the {@link Class} instances are loaded without requiring the Java
+	 * compiler at runtime.
+	 */
+	public static final String SYSTEM_PROPERTY_JAVA_PRECOMPILE_DIRECTORY = "officefloor.java.precompile.directory";
+
+	/**
+	 * Resource path to the index of precompiled {@link Class} instances.
+	 */
+	public static final String PRECOMPILED_CLASSES_RESOURCE_PATH = "META-INF/officefloor/precompiled-classes.properties";
+
 	/**
 	 * Default {@link OfficeFloorJavaCompiler} implementation {@link Class} name.
 	 */
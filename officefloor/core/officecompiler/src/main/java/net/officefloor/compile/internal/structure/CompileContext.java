@@ -21,6 +21,7 @@
 
 package net.officefloor.compile.internal.structure;
 
+import net.officefloor.compile.OfficeFloorCompiler;
 import net.officefloor.compile.administration.AdministrationType;
 import net.officefloor.compile.executive.ExecutiveType;
 import net.officefloor.compile.governance.GovernanceType;
@@ -53,6 +54,18 @@ public interface CompileContext {
 	 */
 	<T, S extends T> void registerPossibleMBean(Class<T> type, String name, S mbean);
 
+	/**
+	 * <p>
+	 * Pre-loads the {@link ManagedObjectType} and {@link FunctionNamespaceType}
+	 * instances for the initialised {@link Node} tree.
+	 * <p>
+	 * Should the {@link OfficeFloorCompiler} not be configured to load types in
+	 * parallel, this does nothing (as types are loaded on use).
+	 * 
+	 * @param node Root {@link Node} of the tree.
+	 */
+	void preloadTypes(Node node);
+
 	/**
 	 * Obtains the existing or loads the {@link ManagedObjectType} for the
 	 * {@link ManagedObjectSourceNode}.
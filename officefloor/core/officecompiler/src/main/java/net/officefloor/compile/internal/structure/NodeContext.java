@@ -25,6 +25,7 @@ import net.officefloor.compile.OfficeFloorCompiler;
 import net.officefloor.compile.administration.AdministrationLoader;
 import net.officefloor.compile.executive.ExecutiveLoader;
 import net.officefloor.compile.governance.GovernanceLoader;
+import net.officefloor.compile.impl.type.TypeSnapshotCache;
 import net.officefloor.compile.issues.CompilerIssues;
 import net.officefloor.compile.managedfunction.ManagedFunctionLoader;
 import net.officefloor.compile.managedobject.ManagedObjectLoader;
@@ -110,6 +111,14 @@ public interface NodeContext {
 	 */
 	CompileContext createCompileContext();
 
+	/**
+	 * Obtains the {@link TypeSnapshotCache}.
+	 * 
+	 * @return {@link TypeSnapshotCache} or <code>null</code> if not snapshotting
+	 *         types.
+	 */
+	TypeSnapshotCache getTypeSnapshotCache();
+
 	/**
 	 * Obtains the additional profiles.
 	 * 
@@ -23,9 +23,14 @@ package net.officefloor.compile.mbean;
 
 import java.lang.reflect.Proxy;
 
+import javax.management.openmbean.CompositeData;
+
 import net.officefloor.frame.api.function.ManagedFunction;
 import net.officefloor.frame.api.manage.Office;
 import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.metric.LatencyHistogram;
+import net.officefloor.frame.api.team.Team;
 
 /**
  * {@link Proxy} interface for the {@link OfficeFloor} MBean.
@@ -43,6 +48,23 @@ public interface OfficeFloorMBean {
 	 */
 	String[] getOfficeNames();
 
+	/**
+	 * Obtains the names of the {@link Team} instances within the
+	 * {@link OfficeFloor}.
+	 * 
+	 * @return Names of the {@link Team} instances within the {@link OfficeFloor}.
+	 */
+	String[] getTeamNames();
+
+	/**
+	 * Obtains the names of the {@link ManagedObjectSource} instances within the
+	 * {@link OfficeFloor}.
+	 * 
+	 * @return Names of the {@link ManagedObjectSource} instances within the
+	 *         {@link OfficeFloor}.
+	 */
+	String[] getManagedObjectSourceNames();
+
 	/**
 	 * Obtains the names of the {@link ManagedFunction} instances within the
 	 * {@link Office}.
@@ -79,6 +101,38 @@ public interface OfficeFloorMBean {
 	 */
 	void invokeFunction(String officeName, String functionName, String parameter);
 
+	/**
+	 * Obtains the {@link LatencyHistogram} summary of executing the
+	 * {@link ManagedFunction}.
+	 * 
+	 * @param officeName
+	 *            Name of the {@link Office}.
+	 * @param functionName
+	 *            Name of the {@link ManagedFunction} within the {@link Office}.
+	 * @return {@link LatencyHistogram} summary.
+	 */
+	CompositeData getManagedFunctionLatency(String officeName, String functionName);
+
+	/**
+	 * Obtains the {@link LatencyHistogram} summary of waiting in the queue of
+	 * the {@link Team}.
+	 * 
+	 * @param teamName
+	 *            Name of the {@link Team}.
+	 * @return {@link LatencyHistogram} summary.
+	 */
+	CompositeData getTeamQueueWaitLatency(String teamName);
+
+	/**
+	 * Obtains the {@link LatencyHistogram} summary of sourcing from the
+	 * {@link ManagedObjectSource}.
+	 * 
+	 * @param managedObjectSourceName
+	 *            Name of the {@link ManagedObjectSource}.
+	 * @return {@link LatencyHistogram} summary.
+	 */
+	CompositeData getManagedObjectSourcingLatency(String managedObjectSourceName);
+
 	/**
 	 * Closes the {@link OfficeFloor}.
 	 */
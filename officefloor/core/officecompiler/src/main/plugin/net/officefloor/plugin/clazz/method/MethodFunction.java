@@ -21,8 +21,12 @@
 
 package net.officefloor.plugin.clazz.method;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 
@@ -42,6 +46,92 @@ import net.officefloor.plugin.clazz.dependency.ClassDependencyFactory;
  */
 public class MethodFunction implements ManagedFunction<Indexed, Indexed> {
 
+	/**
+	 * {@link MethodHandle} to {@link ClassDependencyFactory} creating the
+	 * dependency for the {@link ManagedFunctionContext}.
+	 */
+	private static final MethodHandle CREATE_DEPENDENCY;
+
+	/**
+	 * {@link MethodHandle} to {@link #handleInvalidArguments(Method, Throwable, Object[])}.
+	 */
+	private static final MethodHandle HANDLE_INVALID_ARGUMENTS;
+
+	static {
+		try {
+			CREATE_DEPENDENCY = MethodHandles.lookup().findVirtual(ClassDependencyFactory.class, "createDependency",
+					MethodType.methodType(Object.class, ManagedFunctionContext.class));
+			HANDLE_INVALID_ARGUMENTS = MethodHandles.lookup().findStatic(MethodFunction.class,
+					"handleInvalidArguments",
+					MethodType.methodType(Object.class, Method.class, Throwable.class, Object[].class));
+		} catch (Exception ex) {
+			throw new IllegalStateException("Unable to obtain " + ClassDependencyFactory.class.getSimpleName()
+					+ " createDependency for " + ManagedFunctionContext.class.getSimpleName(), ex);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Creates the invoker of the {@link Method} for the {@link ManagedFunction}.
+	 * <p>
+	 * The invoker is a {@link MethodHandle} of type
+	 * <code>(Object instance, ManagedFunctionContext context)Object</code> that
+	 * creates each argument from its {@link ClassDependencyFactory} (in order)
+	 * and calls the {@link Method} directly. This avoids the reflective
+	 * invocation and the argument array for each execution.
+	 * 
+	 * @param method             {@link Method}.
+	 * @param parameterFactories {@link ClassDependencyFactory} instances for the
+	 *                           parameters of the {@link Method}.
+	 * @return Invoker {@link MethodHandle} or <code>null</code> if the
+	 *         {@link Method} is not accessible (requiring reflective invocation).
+	 */
+	public static MethodHandle createInvoker(Method method, ClassDependencyFactory[] parameterFactories) {
+
+		// Obtain handle to the method
+		MethodHandle invoker;
+		try {
+			invoker = MethodHandles.lookup().unreflect(method);
+		} catch (IllegalAccessException ex) {
+			return null; // not accessible, so fall back to reflection
+		}
+
+		// Provide (ignored) instance for static method
+		if (Modifier.isStatic(method.getModifiers())) {
+			invoker = MethodHandles.dropArguments(invoker, 0, Object.class);
+		}
+
+		// Generalise types (void return provides null)
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		invoker = invoker.asType(MethodType.genericMethodType(1 + parameterTypes.length));
+
+		// Describe arguments not matching the parameter types
+		if (parameterTypes.length > 0) {
+			MethodHandle handler = HANDLE_INVALID_ARGUMENTS.bindTo(method).asCollector(Object[].class,
+					parameterTypes.length);
+			handler = MethodHandles.dropArguments(handler, 1, Object.class);
+			handler = handler.asType(handler.type().changeParameterType(0, RuntimeException.class));
+			invoker = MethodHandles.catchException(invoker, RuntimeException.class, handler);
+		}
+
+		// Load the arguments (wrapping last parameter first, so loaded in order)
+		for (int i = parameterTypes.length - 1; i >= 0; i--) {
+			MethodHandle loader = CREATE_DEPENDENCY.bindTo(parameterFactories[i]);
+			invoker = MethodHandles.filterArguments(invoker, 1 + i, loader);
+		}
+
+		// Provide the context to each argument loader
+		MethodType invokerType = MethodType.methodType(Object.class, Object.class, ManagedFunctionContext.class);
+		if (parameterTypes.length == 0) {
+			return MethodHandles.dropArguments(invoker, 1, ManagedFunctionContext.class);
+		}
+		int[] reorder = new int[1 + parameterTypes.length];
+		for (int i = 1; i < reorder.length; i++) {
+			reorder[i] = 1;
+		}
+		return MethodHandles.permuteArguments(invoker, invokerType, reorder);
+	}
+
 	/**
 	 * Invokes the {@link Method} as the {@link ManagedFunction} directly on the
 	 * {@link Object}.
@@ -62,35 +152,86 @@ public class MethodFunction implements ManagedFunction<Indexed, Indexed> {
 			// Propagate failure of function
 			throw ex.getCause();
 		} catch (IllegalArgumentException ex) {
+			// Propagate illegal argument issue
+			throw createInvalidArgumentsException(method, parameters);
+		}
+	}
 
-			// Provide detail of illegal argument
-			StringBuilder message = new StringBuilder();
-			message.append("Function failure invoking ");
-			message.append(method.getName());
-			message.append("(");
-			boolean isFirst = true;
-			for (Class<?> parameterType : method.getParameterTypes()) {
-				if (isFirst) {
-					isFirst = false;
-				} else {
-					message.append(", ");
-				}
-				message.append(parameterType.getName());
-			}
-			message.append(") with arguments ");
-			isFirst = true;
-			for (Object parameter : parameters) {
-				if (isFirst) {
-					isFirst = false;
-				} else {
-					message.append(", ");
-				}
-				message.append(parameter == null ? "null" : parameter.getClass().getName());
+	/**
+	 * Handles failure of the invoker from
+	 * {@link #createInvoker(Method, ClassDependencyFactory[])}.
+	 * <p>
+	 * Arguments not matching the parameter types fail with a
+	 * {@link ClassCastException} (or {@link NullPointerException} for
+	 * <code>null</code> primitive). These are described as for
+	 * {@link #invokeMethod(Object, Method, Object[])}.
+	 * 
+	 * @param method    {@link Method}.
+	 * @param failure   Failure of the invoker.
+	 * @param arguments Arguments for the {@link Method}.
+	 * @return Never returns.
+	 * @throws Throwable Failure.
+	 */
+	private static Object handleInvalidArguments(Method method, Throwable failure, Object[] arguments)
+			throws Throwable {
+
+		// Determine if failure of function
+		if ((!(failure instanceof ClassCastException)) && (!(failure instanceof NullPointerException))) {
+			throw failure;
+		}
+
+		// Determine if arguments match parameter types (same conversion as invoker)
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			Class<?> parameterType = parameterTypes[i];
+			MethodHandle conversion = MethodHandles.identity(parameterType)
+					.asType(MethodType.methodType(parameterType, Object.class));
+			try {
+				conversion.invoke(arguments[i]);
+			} catch (ClassCastException | NullPointerException ex) {
+				throw createInvalidArgumentsException(method, arguments);
 			}
+		}
 
-			// Propagate illegal argument issue
-			throw new IllegalArgumentException(message.toString());
+		// Arguments valid, so failure of function
+		throw failure;
+	}
+
+	/**
+	 * Creates the {@link IllegalArgumentException} describing the arguments not
+	 * matching the {@link Method}.
+	 * 
+	 * @param method     {@link Method}.
+	 * @param parameters Parameters.
+	 * @return {@link IllegalArgumentException}.
+	 */
+	private static IllegalArgumentException createInvalidArgumentsException(Method method, Object[] parameters) {
+
+		// Provide detail of illegal argument
+		StringBuilder message = new StringBuilder();
+		message.append("Function failure invoking ");
+		message.append(method.getName());
+		message.append("(");
+		boolean isFirst = true;
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (isFirst) {
+				isFirst = false;
+			} else {
+				message.append(", ");
+			}
+			message.append(parameterType.getName());
 		}
+		message.append(") with arguments ");
+		isFirst = true;
+		for (Object parameter : parameters) {
+			if (isFirst) {
+				isFirst = false;
+			} else {
+				message.append(", ");
+			}
+			message.append(parameter == null ? "null" : parameter.getClass().getName());
+		}
+		return new IllegalArgumentException(message.toString());
 	}
 
 	/**
@@ -114,6 +255,12 @@ public class MethodFunction implements ManagedFunction<Indexed, Indexed> {
 	 */
 	private final MethodReturnTranslator<Object, Object> returnTranslator;
 
+	/**
+	 * Invoker {@link MethodHandle}. May be <code>null</code> to invoke the
+	 * {@link Method} reflectively.
+	 */
+	private final MethodHandle invoker;
+
 	/**
 	 * Initiate.
 	 * 
@@ -128,10 +275,33 @@ public class MethodFunction implements ManagedFunction<Indexed, Indexed> {
 	 */
 	public MethodFunction(MethodObjectFactory methodObjectInstanceFactory, Method method,
 			ClassDependencyFactory[] parameterFactories, MethodReturnTranslator<Object, Object> returnTranslator) {
+		this(methodObjectInstanceFactory, method, parameterFactories, returnTranslator, null);
+	}
+
+	/**
+	 * Initiate.
+	 * 
+	 * @param methodObjectInstanceFactory {@link MethodObjectFactory}. Will
+	 *                                    be <code>null</code> if static
+	 *                                    {@link Method}.
+	 * @param method                      Method to invoke for this
+	 *                                    {@link ManagedFunction}.
+	 * @param parameterFactories          {@link ClassDependencyFactory} instances.
+	 * @param returnTranslator            {@link MethodReturnTranslator} or
+	 *                                    <code>null</code>.
+	 * @param invoker                     Invoker {@link MethodHandle} from
+	 *                                    {@link #createInvoker(Method, ClassDependencyFactory[])}.
+	 *                                    May be <code>null</code> to invoke the
+	 *                                    {@link Method} reflectively.
+	 */
+	public MethodFunction(MethodObjectFactory methodObjectInstanceFactory, Method method,
+			ClassDependencyFactory[] parameterFactories, MethodReturnTranslator<Object, Object> returnTranslator,
+			MethodHandle invoker) {
 		this.method = method;
 		this.methodObjectInstanceFactory = methodObjectInstanceFactory;
 		this.parameterFactories = parameterFactories;
 		this.returnTranslator = returnTranslator;
+		this.invoker = invoker;
 	}
 
 	/**
@@ -159,14 +329,22 @@ public class MethodFunction implements ManagedFunction<Indexed, Indexed> {
 				? new TranslateManagedFunctionContext(context)
 				: context;
 
-		// Create the listing of parameters
-		Object[] params = new Object[this.parameterFactories.length];
-		for (int i = 0; i < params.length; i++) {
-			params[i] = this.parameterFactories[i].createDependency(runContext);
-		}
-
 		// Invoke the method as the function
-		Object returnValue = invokeMethod(instance, this.method, params);
+		Object returnValue;
+		if (this.invoker != null) {
+			// Invoke directly (loading parameters)
+			returnValue = (Object) this.invoker.invokeExact(instance, (ManagedFunctionContext<?, ?>) runContext);
+
+		} else {
+			// Create the listing of parameters
+			Object[] params = new Object[this.parameterFactories.length];
+			for (int i = 0; i < params.length; i++) {
+				params[i] = this.parameterFactories[i].createDependency(runContext);
+			}
+
+			// Invoke the method reflectively
+			returnValue = invokeMethod(instance, this.method, params);
+		}
 
 		// Determine if translate return value
 		if (returnValue != null) {
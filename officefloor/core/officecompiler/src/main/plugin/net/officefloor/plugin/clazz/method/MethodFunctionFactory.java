@@ -21,6 +21,7 @@
 
 package net.officefloor.plugin.clazz.method;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 
 import net.officefloor.frame.api.build.Indexed;
@@ -51,6 +52,13 @@ public class MethodFunctionFactory implements ManagedFunctionFactory<Indexed, In
 	 */
 	private final ClassDependencyFactory[] parameters;
 
+	/**
+	 * Invoker {@link MethodHandle} created once for all {@link MethodFunction}
+	 * instances. May be <code>null</code> to invoke the {@link Method}
+	 * reflectively.
+	 */
+	private final MethodHandle invoker;
+
 	/**
 	 * {@link MethodReturnTranslator} or <code>null</code>.
 	 */
@@ -71,6 +79,7 @@ public class MethodFunctionFactory implements ManagedFunctionFactory<Indexed, In
 		this.methodObjectInstanceFactory = methodObjectInstanceFactory;
 		this.method = method;
 		this.parameters = parameters;
+		this.invoker = (method == null) ? null : MethodFunction.createInvoker(method, parameters);
 	}
 
 	/**
@@ -98,7 +107,7 @@ public class MethodFunctionFactory implements ManagedFunctionFactory<Indexed, In
 	@Override
 	public MethodFunction createManagedFunction() {
 		return new MethodFunction(this.methodObjectInstanceFactory, this.method, this.parameters,
-				this.returnTranslator);
+				this.returnTranslator, this.invoker);
 	}
 
 }
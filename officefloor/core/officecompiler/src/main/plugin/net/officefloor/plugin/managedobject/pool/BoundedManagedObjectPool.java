@@ -0,0 +1,539 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.plugin.managedobject.pool;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.pool.ManagedObjectPool;
+import net.officefloor.frame.api.managedobject.pool.ManagedObjectPoolContext;
+import net.officefloor.frame.api.managedobject.pool.ThreadCompletionListener;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectUser;
+
+/**
+ * <p>
+ * Bounded {@link ManagedObjectPool}.
+ * <p>
+ * Idle {@link ManagedObject} instances are held within a lock-free shared pool.
+ * Managed {@link Thread} instances also cache a few idle {@link ManagedObject}
+ * instances, so that re-use on the same {@link Thread} avoids contention. On
+ * {@link Thread} completion, the cached {@link ManagedObject} instances are
+ * released to the shared pool.
+ * <p>
+ * Shared pool {@link ManagedObject} instances idle beyond the idle timeout are
+ * evicted (keeping the minimum idle). Eviction is undertaken on returning
+ * {@link ManagedObject} instances, so no further {@link Thread} is required.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class BoundedManagedObjectPool implements ManagedObjectPool, ThreadCompletionListener {
+
+	/**
+	 * {@link ThreadCache}. Only created once the {@link Thread} returns a
+	 * {@link ManagedObject}.
+	 */
+	private final ThreadLocal<ThreadCache> threadCache = new ThreadLocal<>();
+
+	/**
+	 * {@link ThreadCache} instances for statistics. Weakly referenced so that
+	 * completed {@link Thread} instances do not retain their cache.
+	 */
+	final ConcurrentLinkedQueue<WeakReference<ThreadCache>> threadCaches = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * {@link ReferenceQueue} of {@link ThreadCache} instances of completed
+	 * {@link Thread} instances, so they are pruned from the statistics.
+	 */
+	private final ReferenceQueue<ThreadCache> clearedThreadCaches = new ReferenceQueue<>();
+
+	/**
+	 * {@link ManagedObjectPoolContext}.
+	 */
+	private final ManagedObjectPoolContext context;
+
+	/**
+	 * {@link ManagedObjectSource} to source further {@link ManagedObject}
+	 * instances.
+	 */
+	private final ManagedObjectSource<?, ?> managedObjectSource;
+
+	/**
+	 * Minimum number of idle {@link ManagedObject} instances kept on eviction.
+	 */
+	private final int minIdle;
+
+	/**
+	 * Maximum number of idle {@link ManagedObject} instances within the shared
+	 * pool.
+	 */
+	private final int maxIdle;
+
+	/**
+	 * Maximum number of idle {@link ManagedObject} instances cached per
+	 * {@link Thread}.
+	 */
+	private final int maxThreadCacheSize;
+
+	/**
+	 * Time in milliseconds a {@link ManagedObject} may be idle before being
+	 * evicted. <code>0</code> (or less) to not evict.
+	 */
+	private final long idleTimeout;
+
+	/**
+	 * Clock providing the current time in milliseconds.
+	 */
+	private final LongSupplier clock;
+
+	/**
+	 * Head {@link SharedEntry} within the shared pool.
+	 */
+	private final AtomicReference<SharedEntry> sharedHead = new AtomicReference<>(null);
+
+	/**
+	 * Shared pool size.
+	 */
+	private final AtomicInteger sharedPoolSize = new AtomicInteger(0);
+
+	/**
+	 * Time in milliseconds for the next eviction check.
+	 */
+	private final AtomicLong nextEvictionTime;
+
+	/**
+	 * Indicates if emptied (e.g. {@link ManagedObjectPool} no longer in use).
+	 */
+	private volatile boolean isEmptied = false;
+
+	/**
+	 * Number of {@link ManagedObject} instances sourced from the
+	 * {@link ManagedObjectSource}.
+	 */
+	final LongAdder createdCount = new LongAdder();
+
+	/**
+	 * Number of {@link ManagedObject} instances obtained from the shared pool.
+	 */
+	final LongAdder sharedPoolHitCount = new LongAdder();
+
+	/**
+	 * Number of {@link ManagedObject} instances discarded.
+	 */
+	final LongAdder discardCount = new LongAdder();
+
+	/**
+	 * Number of {@link ManagedObject} instances evicted.
+	 */
+	final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * Number of {@link ManagedObject} instances lost.
+	 */
+	final LongAdder lostCount = new LongAdder();
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param context            {@link ManagedObjectPoolContext}.
+	 * @param minIdle            Minimum number of idle {@link ManagedObject}
+	 *                           instances kept on eviction.
+	 * @param maxIdle            Maximum number of idle {@link ManagedObject}
+	 *                           instances within the shared pool.
+	 * @param maxThreadCacheSize Maximum number of idle {@link ManagedObject}
+	 *                           instances cached per {@link Thread}.
+	 * @param idleTimeout        Time in milliseconds a {@link ManagedObject} may
+	 *                           be idle before being evicted. <code>0</code> to
+	 *                           not evict.
+	 * @param clock              Clock providing the current time in
+	 *                           milliseconds.
+	 */
+	public BoundedManagedObjectPool(ManagedObjectPoolContext context, int minIdle, int maxIdle,
+			int maxThreadCacheSize, long idleTimeout, LongSupplier clock) {
+		this.context = context;
+		this.managedObjectSource = context.getManagedObjectSource();
+		this.minIdle = minIdle;
+		this.maxIdle = maxIdle;
+		this.maxThreadCacheSize = maxThreadCacheSize;
+		this.idleTimeout = idleTimeout;
+		this.clock = clock;
+		this.nextEvictionTime = new AtomicLong(clock.getAsLong() + idleTimeout);
+	}
+
+	/**
+	 * Obtains the number of idle {@link ManagedObject} instances within the
+	 * shared pool.
+	 * 
+	 * @return Number of idle {@link ManagedObject} instances within the shared
+	 *         pool.
+	 */
+	public int getSharedPoolSize() {
+		return this.sharedPoolSize.get();
+	}
+
+	/**
+	 * Obtains the number of idle {@link ManagedObject} instances cached by
+	 * {@link Thread} instances.
+	 * 
+	 * @return Number of idle {@link ManagedObject} instances cached by
+	 *         {@link Thread} instances.
+	 */
+	public int getThreadCacheSize() {
+		int size = 0;
+		Iterator<WeakReference<ThreadCache>> iterator = this.threadCaches.iterator();
+		while (iterator.hasNext()) {
+			ThreadCache cache = iterator.next().get();
+			if (cache == null) {
+				iterator.remove(); // thread no longer available
+			} else {
+				size += cache.size;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Obtains the number of {@link ManagedObject} instances obtained from the
+	 * {@link Thread} caches.
+	 * 
+	 * @return Number of {@link ManagedObject} instances obtained from the
+	 *         {@link Thread} caches.
+	 */
+	public long getThreadCacheHitCount() {
+		long hits = 0;
+		for (WeakReference<ThreadCache> reference : this.threadCaches) {
+			ThreadCache cache = reference.get();
+			if (cache != null) {
+				hits += cache.hitCount;
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Creates the {@link ThreadCache} for the current {@link Thread}.
+	 * 
+	 * @return {@link ThreadCache} for the current {@link Thread}.
+	 */
+	private ThreadCache createThreadCache() {
+
+		// Prune caches of completed threads (keeping registrations bounded)
+		Reference<? extends ThreadCache> cleared;
+		while ((cleared = this.clearedThreadCaches.poll()) != null) {
+			this.threadCaches.remove(cleared);
+		}
+
+		// Register the cache for the thread
+		ThreadCache cache = new ThreadCache(this.maxThreadCacheSize);
+		this.threadCaches.add(new WeakReference<>(cache, this.clearedThreadCaches));
+		this.threadCache.set(cache);
+		return cache;
+	}
+
+	/**
+	 * Releases the {@link ManagedObject} to the shared pool.
+	 * 
+	 * @param managedObject {@link ManagedObject}.
+	 * @param now           Current time in milliseconds.
+	 */
+	private void releaseToSharedPool(ManagedObject managedObject, long now) {
+
+		// Determine if space in shared pool
+		if (this.sharedPoolSize.incrementAndGet() > this.maxIdle) {
+
+			// Allow managed object to be garbage collected (too many idle)
+			this.sharedPoolSize.decrementAndGet();
+			this.discardCount.increment();
+			return;
+		}
+
+		// Release to shared pool (new entry to avoid ABA on lock-free stack)
+		SharedEntry entry = new SharedEntry(managedObject, now);
+		SharedEntry head;
+		do {
+			head = this.sharedHead.get();
+			entry.next = head;
+		} while (!this.sharedHead.compareAndSet(head, entry));
+	}
+
+	/**
+	 * Obtains a {@link ManagedObject} from the shared pool.
+	 * 
+	 * @return {@link ManagedObject} or <code>null</code> if shared pool is empty.
+	 */
+	private ManagedObject getSharedPoolManagedObject() {
+
+		// Obtain the managed object from the shared pool
+		SharedEntry head;
+		do {
+			head = this.sharedHead.get();
+			if (head == null) {
+				return null; // empty pool
+			}
+		} while (!this.sharedHead.compareAndSet(head, head.next));
+
+		// Obtained the managed object
+		this.sharedPoolSize.decrementAndGet();
+		this.sharedPoolHitCount.increment();
+		return head.managedObject;
+	}
+
+	/**
+	 * Evicts the idle {@link ManagedObject} instances from the shared pool.
+	 * 
+	 * @param now Current time in milliseconds.
+	 */
+	private void evictIdle(long now) {
+
+		// Determine if time to check for eviction (only one thread evicts)
+		long evictionTime = this.nextEvictionTime.get();
+		if ((now < evictionTime) || (!this.nextEvictionTime.compareAndSet(evictionTime, now + this.idleTimeout))) {
+			return;
+		}
+
+		// Take all entries (newest first) to filter out the idle
+		SharedEntry entry = this.sharedHead.getAndSet(null);
+		SharedEntry keptHead = null;
+		SharedEntry keptTail = null;
+		int keptCount = 0;
+		int evictCount = 0;
+		while (entry != null) {
+			SharedEntry next = entry.next;
+			if ((keptCount < this.minIdle) || ((now - entry.idleTime) < this.idleTimeout)) {
+
+				// Keep the entry (new entry to avoid ABA on lock-free stack)
+				SharedEntry kept = new SharedEntry(entry.managedObject, entry.idleTime);
+				if (keptHead == null) {
+					keptHead = kept;
+				} else {
+					keptTail.next = kept;
+				}
+				keptTail = kept;
+				keptCount++;
+
+			} else {
+				// Evict the entry
+				evictCount++;
+			}
+			entry = next;
+		}
+
+		// Account for evicted
+		if (evictCount > 0) {
+			this.sharedPoolSize.addAndGet(-evictCount);
+			this.evictionCount.add(evictCount);
+		}
+
+		// Return the kept entries to the shared pool
+		if (keptHead != null) {
+			SharedEntry head;
+			do {
+				head = this.sharedHead.get();
+				keptTail.next = head;
+			} while (!this.sharedHead.compareAndSet(head, keptHead));
+		}
+	}
+
+	/*
+	 * =================== ManagedObjectPool =======================
+	 */
+
+	@Override
+	public void sourceManagedObject(ManagedObjectUser user) {
+
+		// Attempt to obtain from thread cache
+		if ((this.maxThreadCacheSize > 0) && (this.context.isCurrentThreadManaged())) {
+			ThreadCache cache = this.threadCache.get();
+			if ((cache != null) && (cache.size > 0)) {
+				cache.size--;
+				ManagedObject managedObject = cache.managedObjects[cache.size];
+				cache.managedObjects[cache.size] = null;
+				cache.hitCount++;
+				user.setManagedObject(managedObject);
+				return;
+			}
+		}
+
+		// Attempt to obtain from shared pool
+		ManagedObject managedObject = this.getSharedPoolManagedObject();
+		if (managedObject != null) {
+			user.setManagedObject(managedObject);
+			return;
+		}
+
+		// As here, none pooled so source new managed object
+		this.createdCount.increment();
+		this.managedObjectSource.sourceManagedObject(user);
+	}
+
+	@Override
+	public void returnManagedObject(ManagedObject managedObject) {
+
+		// Discard if emptied
+		if (this.isEmptied) {
+			this.discardCount.increment();
+			return;
+		}
+
+		// Attempt to cache on thread
+		if ((this.maxThreadCacheSize > 0) && (this.context.isCurrentThreadManaged())) {
+			ThreadCache cache = this.threadCache.get();
+			if (cache == null) {
+				cache = this.createThreadCache();
+			}
+			if (cache.size < cache.managedObjects.length) {
+				cache.managedObjects[cache.size++] = managedObject;
+				return;
+			}
+		}
+
+		// Release to shared pool
+		long now = this.clock.getAsLong();
+		this.releaseToSharedPool(managedObject, now);
+
+		// Evict idle managed objects
+		if (this.idleTimeout > 0) {
+			this.evictIdle(now);
+		}
+	}
+
+	@Override
+	public void lostManagedObject(ManagedObject managedObject, Throwable cause) {
+		// Not returned, so allow to be garbage collected
+		this.lostCount.increment();
+	}
+
+	@Override
+	public void empty() {
+
+		// Flag emptied (so no further pooling)
+		this.isEmptied = true;
+
+		// Release the shared pool
+		SharedEntry entry = this.sharedHead.getAndSet(null);
+		while (entry != null) {
+			this.sharedPoolSize.decrementAndGet();
+			entry = entry.next;
+		}
+	}
+
+	/*
+	 * ================ ThreadCompletionListener ===================
+	 */
+
+	@Override
+	public void threadComplete() {
+
+		// Obtain the thread cache (not created if thread never returned)
+		ThreadCache cache = this.threadCache.get();
+		if ((cache == null) || (cache.size == 0)) {
+			return; // nothing cached
+		}
+
+		// Release the thread cached managed objects to the shared pool
+		long now = this.clock.getAsLong();
+		for (int i = 0; i < cache.size; i++) {
+			ManagedObject managedObject = cache.managedObjects[i];
+			cache.managedObjects[i] = null;
+			if (this.isEmptied) {
+				this.discardCount.increment();
+			} else {
+				this.releaseToSharedPool(managedObject, now);
+			}
+		}
+		cache.size = 0;
+	}
+
+	/**
+	 * Entry within the lock-free shared pool.
+	 */
+	private static class SharedEntry {
+
+		/**
+		 * Idle {@link ManagedObject}.
+		 */
+		private final ManagedObject managedObject;
+
+		/**
+		 * Time in milliseconds the {@link ManagedObject} became idle.
+		 */
+		private final long idleTime;
+
+		/**
+		 * Next {@link SharedEntry}.
+		 */
+		private SharedEntry next = null;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param managedObject Idle {@link ManagedObject}.
+		 * @param idleTime      Time in milliseconds the {@link ManagedObject}
+		 *                      became idle.
+		 */
+		private SharedEntry(ManagedObject managedObject, long idleTime) {
+			this.managedObject = managedObject;
+			this.idleTime = idleTime;
+		}
+	}
+
+	/**
+	 * {@link Thread} cache of idle {@link ManagedObject} instances.
+	 */
+	private static class ThreadCache {
+
+		/**
+		 * Cached {@link ManagedObject} instances.
+		 */
+		private final ManagedObject[] managedObjects;
+
+		/**
+		 * Number of cached {@link ManagedObject} instances. Only updated by the
+		 * owning {@link Thread}, so statistics may be slightly stale.
+		 */
+		private int size = 0;
+
+		/**
+		 * Number of {@link ManagedObject} instances obtained from this cache.
+		 */
+		private long hitCount = 0;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param maxSize Maximum number of cached {@link ManagedObject} instances.
+		 */
+		private ThreadCache(int maxSize) {
+			this.managedObjects = new ManagedObject[maxSize];
+		}
+	}
+
+}
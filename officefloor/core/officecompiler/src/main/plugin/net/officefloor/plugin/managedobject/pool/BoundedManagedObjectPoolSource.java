@@ -0,0 +1,239 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.plugin.managedobject.pool;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.officefloor.compile.ManagedObjectPoolSourceService;
+import net.officefloor.compile.ManagedObjectPoolSourceServiceFactory;
+import net.officefloor.compile.spi.pool.source.ManagedObjectPoolSource;
+import net.officefloor.compile.spi.pool.source.ManagedObjectPoolSourceContext;
+import net.officefloor.compile.spi.pool.source.impl.AbstractManagedObjectPoolSource;
+import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.source.ServiceContext;
+
+/**
+ * <p>
+ * {@link ManagedObjectPoolSource} providing a {@link BoundedManagedObjectPool}.
+ * <p>
+ * This allows any {@link ManagedObjectSource} with expensive
+ * {@link ManagedObject} instances to be pooled from configuration.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class BoundedManagedObjectPoolSource extends AbstractManagedObjectPoolSource
+		implements ManagedObjectPoolSourceService<BoundedManagedObjectPoolSource>,
+		ManagedObjectPoolSourceServiceFactory, BoundedManagedObjectPoolSourceMBean {
+
+	/**
+	 * Name of property for the minimum number of idle {@link ManagedObject}
+	 * instances kept on eviction.
+	 */
+	public static final String PROPERTY_MINIMUM_IDLE = "minimum.idle";
+
+	/**
+	 * Default minimum number of idle {@link ManagedObject} instances.
+	 */
+	public static final int DEFAULT_MINIMUM_IDLE = 0;
+
+	/**
+	 * Name of property for the maximum number of idle {@link ManagedObject}
+	 * instances within the shared pool.
+	 */
+	public static final String PROPERTY_MAXIMUM_IDLE = "maximum.idle";
+
+	/**
+	 * Default maximum number of idle {@link ManagedObject} instances.
+	 */
+	public static final int DEFAULT_MAXIMUM_IDLE = 64;
+
+	/**
+	 * Name of property for the maximum number of idle {@link ManagedObject}
+	 * instances cached per {@link Thread}.
+	 */
+	public static final String PROPERTY_THREAD_CACHE_SIZE = "thread.cache.size";
+
+	/**
+	 * Default maximum number of idle {@link ManagedObject} instances cached per
+	 * {@link Thread}.
+	 */
+	public static final int DEFAULT_THREAD_CACHE_SIZE = 4;
+
+	/**
+	 * Name of property for the time in milliseconds a {@link ManagedObject} may
+	 * be idle before being evicted. <code>0</code> to not evict.
+	 */
+	public static final String PROPERTY_IDLE_TIMEOUT = "idle.timeout";
+
+	/**
+	 * Default idle timeout in milliseconds.
+	 */
+	public static final long DEFAULT_IDLE_TIMEOUT = 60 * 1000;
+
+	/**
+	 * {@link BoundedManagedObjectPool} instances created.
+	 */
+	private final List<BoundedManagedObjectPool> pools = new CopyOnWriteArrayList<>();
+
+	/*
+	 * =============== ManagedObjectPoolSourceService ===================
+	 */
+
+	@Override
+	public ManagedObjectPoolSourceService<?> createService(ServiceContext context) throws Throwable {
+		return this;
+	}
+
+	@Override
+	public String getManagedObjectPoolSourceAlias() {
+		return "BOUNDED";
+	}
+
+	@Override
+	public Class<BoundedManagedObjectPoolSource> getManagedObjectPoolSourceClass() {
+		return BoundedManagedObjectPoolSource.class;
+	}
+
+	/*
+	 * ================= ManagedObjectPoolSource ========================
+	 */
+
+	@Override
+	protected void loadSpecification(SpecificationContext context) {
+		// No required properties
+	}
+
+	@Override
+	protected void loadMetaData(MetaDataContext context) throws Exception {
+		ManagedObjectPoolSourceContext poolContext = context.getManagedObjectPoolSourceContext();
+
+		// Obtain the configuration
+		int minIdle = Integer
+				.parseInt(poolContext.getProperty(PROPERTY_MINIMUM_IDLE, String.valueOf(DEFAULT_MINIMUM_IDLE)));
+		int maxIdle = Integer
+				.parseInt(poolContext.getProperty(PROPERTY_MAXIMUM_IDLE, String.valueOf(DEFAULT_MAXIMUM_IDLE)));
+		int threadCacheSize = Integer.parseInt(
+				poolContext.getProperty(PROPERTY_THREAD_CACHE_SIZE, String.valueOf(DEFAULT_THREAD_CACHE_SIZE)));
+		long idleTimeout = Long
+				.parseLong(poolContext.getProperty(PROPERTY_IDLE_TIMEOUT, String.valueOf(DEFAULT_IDLE_TIMEOUT)));
+
+		// Ensure valid configuration
+		if ((minIdle < 0) || (maxIdle < 0) || (threadCacheSize < 0)) {
+			throw new IllegalArgumentException("Pool sizes must not be negative (" + PROPERTY_MINIMUM_IDLE + "="
+					+ minIdle + ", " + PROPERTY_MAXIMUM_IDLE + "=" + maxIdle + ", " + PROPERTY_THREAD_CACHE_SIZE
+					+ "=" + threadCacheSize + ")");
+		}
+		if (minIdle > maxIdle) {
+			throw new IllegalArgumentException(PROPERTY_MINIMUM_IDLE + " (" + minIdle
+					+ ") must not be greater than " + PROPERTY_MAXIMUM_IDLE + " (" + maxIdle + ")");
+		}
+
+		// Provide the meta-data
+		context.setPooledObjectType(Object.class);
+		context.setManagedObjectPoolFactory((managedObjectPoolContext) -> {
+			BoundedManagedObjectPool pool = new BoundedManagedObjectPool(managedObjectPoolContext, minIdle,
+					maxIdle, threadCacheSize, idleTimeout, System::currentTimeMillis);
+			this.pools.add(pool);
+			return pool;
+		});
+		context.addThreadCompleteListener((pool) -> (BoundedManagedObjectPool) pool);
+	}
+
+	/*
+	 * ================ BoundedManagedObjectPoolSourceMBean ===================
+	 */
+
+	@Override
+	public int getSharedPoolSize() {
+		int size = 0;
+		for (BoundedManagedObjectPool pool : this.pools) {
+			size += pool.getSharedPoolSize();
+		}
+		return size;
+	}
+
+	@Override
+	public int getThreadCacheSize() {
+		int size = 0;
+		for (BoundedManagedObjectPool pool : this.pools) {
+			size += pool.getThreadCacheSize();
+		}
+		return size;
+	}
+
+	@Override
+	public long getCreatedCount() {
+		long count = 0;
+		for (BoundedManagedObjectPool pool : this.pools) {
+			count += pool.createdCount.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public long getThreadCacheHitCount() {
+		long count = 0;
+		for (BoundedManagedObjectPool pool : this.pools) {
+			count += pool.getThreadCacheHitCount();
+		}
+		return count;
+	}
+
+	@Override
+	public long getSharedPoolHitCount() {
+		long count = 0;
+		for (BoundedManagedObjectPool pool : this.pools) {
+			count += pool.sharedPoolHitCount.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public long getDiscardCount() {
+		long count = 0;
+		for (BoundedManagedObjectPool pool : this.pools) {
+			count += pool.discardCount.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public long getEvictionCount() {
+		long count = 0;
+		for (BoundedManagedObjectPool pool : this.pools) {
+			count += pool.evictionCount.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public long getLostCount() {
+		long count = 0;
+		for (BoundedManagedObjectPool pool : this.pools) {
+			count += pool.lostCount.sum();
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.plugin.managedobject.pool;
+
+import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.pool.ManagedObjectPool;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+
+/**
+ * MBean providing the statistics of the {@link BoundedManagedObjectPool}
+ * instances.
+ * <p>
+ * These are intended to size the {@link ManagedObjectPool} from observed use.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public interface BoundedManagedObjectPoolSourceMBean {
+
+	/**
+	 * Obtains the number of idle {@link ManagedObject} instances within the
+	 * shared pool.
+	 * 
+	 * @return Number of idle {@link ManagedObject} instances within the shared
+	 *         pool.
+	 */
+	int getSharedPoolSize();
+
+	/**
+	 * Obtains the number of idle {@link ManagedObject} instances cached by
+	 * {@link Thread} instances.
+	 * 
+	 * @return Number of idle {@link ManagedObject} instances cached by
+	 *         {@link Thread} instances.
+	 */
+	int getThreadCacheSize();
+
+	/**
+	 * Obtains the number of {@link ManagedObject} instances sourced from the
+	 * {@link ManagedObjectSource}, as none were pooled.
+	 * 
+	 * @return Number of {@link ManagedObject} instances sourced from the
+	 *         {@link ManagedObjectSource}.
+	 */
+	long getCreatedCount();
+
+	/**
+	 * Obtains the number of {@link ManagedObject} instances obtained from the
+	 * {@link Thread} cache.
+	 * 
+	 * @return Number of {@link ManagedObject} instances obtained from the
+	 *         {@link Thread} cache.
+	 */
+	long getThreadCacheHitCount();
+
+	/**
+	 * Obtains the number of {@link ManagedObject} instances obtained from the
+	 * shared pool.
+	 * 
+	 * @return Number of {@link ManagedObject} instances obtained from the shared
+	 *         pool.
+	 */
+	long getSharedPoolHitCount();
+
+	/**
+	 * Obtains the number of {@link ManagedObject} instances discarded, as the
+	 * shared pool was full.
+	 * 
+	 * @return Number of {@link ManagedObject} instances discarded.
+	 */
+	long getDiscardCount();
+
+	/**
+	 * Obtains the number of {@link ManagedObject} instances evicted for being
+	 * idle.
+	 * 
+	 * @return Number of {@link ManagedObject} instances evicted for being idle.
+	 */
+	long getEvictionCount();
+
+	/**
+	 * Obtains the number of {@link ManagedObject} instances lost.
+	 * 
+	 * @return Number of {@link ManagedObject} instances lost.
+	 */
+	long getLostCount();
+
+}
@@ -23,12 +23,15 @@ package net.officefloor.compile.impl.classes;
 
 import static org.junit.Assert.assertNotEquals;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -328,6 +331,99 @@ public class OfficeFloorJavaCompilerTest extends OfficeFrameTestCase {
 				object.getClass().getSuperclass().getName());
 	}
 
+	/**
+	 * Ensure can precompile and then load the precompiled {@link Class} without
+	 * the Java compiler.
+	 */
+	public void testPrecompile() throws Exception {
+		File directory = Files.createTempDirectory(this.getName()).toFile();
+		try {
+
+			// Precompile the classes
+			Class<?> recordedClass;
+			String previous = System.setProperty(OfficeFloorJavaCompiler.SYSTEM_PROPERTY_JAVA_PRECOMPILE_DIRECTORY,
+					directory.getAbsolutePath());
+			try {
+				this.compiler = OfficeFloorJavaCompiler.newInstance(getSourceContext());
+				recordedClass = this.addPrecompileSource("PRECOMPILED").compile();
+			} finally {
+				if (previous == null) {
+					System.clearProperty(OfficeFloorJavaCompiler.SYSTEM_PROPERTY_JAVA_PRECOMPILE_DIRECTORY);
+				} else {
+					System.setProperty(OfficeFloorJavaCompiler.SYSTEM_PROPERTY_JAVA_PRECOMPILE_DIRECTORY, previous);
+				}
+			}
+
+			// Ensure recorded
+			assertTrue("Should record index",
+					new File(directory, OfficeFloorJavaCompiler.PRECOMPILED_CLASSES_RESOURCE_PATH).isFile());
+			assertTrue("Should record class",
+					new File(directory, recordedClass.getName().replace('.', '/') + ".class").isFile());
+			assertTrue("Should record inner class",
+					new File(directory, recordedClass.getName().replace('.', '/') + "$Inner.class").isFile());
+
+			// Load without Java compiler
+			ClassLoader classLoader = new URLClassLoader(new URL[] { directory.toURI().toURL() }, getClassLoader()) {
+				@Override
+				public Class<?> loadClass(String name) throws ClassNotFoundException {
+					if (OfficeFloorJavaCompilerImpl.JAVAC_PROCESSING_ENVIRONMENT_CLASS_NAME.equals(name)) {
+						throw new ClassNotFoundException(name);
+					}
+					return super.loadClass(name);
+				}
+			};
+			this.compiler = OfficeFloorJavaCompiler.newInstance(getSourceContext(classLoader));
+			assertNotNull("Should have compiler for precompiled classes", this.compiler);
+
+			// Ensure loads the precompiled class (regardless of generated name)
+			Class<?> precompiledClass = this.addPrecompileSource("PRECOMPILED").compile();
+			assertEquals("Should load precompiled class", recordedClass.getName(), precompiledClass.getName());
+			assertSame("Should load from class path", classLoader, precompiledClass.getClassLoader());
+			Simple simple = (Simple) precompiledClass.getConstructor().newInstance();
+			assertEquals("Incorrect precompiled result", "PRECOMPILED", simple.getMessage());
+
+			// Ensure different source is not precompiled
+			this.compiler = OfficeFloorJavaCompiler.newInstance(getSourceContext(classLoader));
+			JavaSource notPrecompiled = this.addPrecompileSource("CHANGED");
+			try {
+				notPrecompiled.compile();
+				fail("Should not successfully compile without Java compiler");
+			} catch (CompileError ex) {
+				assertTrue("Incorrect cause: " + ex.getMessage(),
+						ex.getMessage().startsWith("No Java compiler available to compile"));
+			}
+
+		} finally {
+			this.deleteDirectory(directory);
+		}
+	}
+
+	/**
+	 * Adds the {@link JavaSource} for precompiling.
+	 * 
+	 * @param message Message for the {@link Simple}.
+	 * @return {@link JavaSource}.
+	 */
+	private JavaSource addPrecompileSource(String message) {
+		ClassName className = this.compiler.createClassName("test.Precompiled");
+		StringWriter buffer = new StringWriter();
+		PrintWriter source = new PrintWriter(buffer);
+		source.println("package " + className.getPackageName() + ";");
+		source.println("public class " + className.getClassName() + " implements "
+				+ Simple.class.getName().replace('$', '.') + " {");
+		source.println("   public static class Inner {");
+		source.println("       public static final String MESSAGE = \"" + message + "\";");
+		source.println("   }");
+		source.println("   public " + className.getClassName() + "() {");
+		source.println("   }");
+		source.println("   public String getMessage() {");
+		source.println("       return " + className.getClassName() + ".Inner.MESSAGE;");
+		source.println("   }");
+		source.println("}");
+		source.flush();
+		return this.compiler.addSource(className.getName(), buffer.toString());
+	}
+
 	/**
 	 * Ensure able to create unique class name.
 	 */
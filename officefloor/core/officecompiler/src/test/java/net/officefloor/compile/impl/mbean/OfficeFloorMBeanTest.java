@@ -31,6 +31,7 @@ import javax.management.MBeanServer;
 import javax.management.MBeanServerConnection;
 import javax.management.MXBean;
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
 
 import net.officefloor.compile.mbean.OfficeFloorMBean;
 import net.officefloor.compile.spi.mbean.MBeanRegistrator;
@@ -38,6 +39,7 @@ import net.officefloor.extension.CompileOffice;
 import net.officefloor.frame.api.function.ManagedFunction;
 import net.officefloor.frame.api.manage.Office;
 import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.test.OfficeFrameTestCase;
 import net.officefloor.plugin.section.clazz.ClassSectionSource;
 import net.officefloor.plugin.section.clazz.Parameter;
@@ -125,16 +127,22 @@ public class OfficeFloorMBeanTest extends OfficeFrameTestCase {
 
 		// Ensure correct attributes
 		MBeanAttributeInfo[] attributes = info.getAttributes();
-		assertEquals("Incorrect number of attributes", 1, attributes.length);
+		assertEquals("Incorrect number of attributes", 3, attributes.length);
 		assertEquals("Incorrect attribute name", "OfficeNames", attributes[0].getName());
+		assertEquals("Incorrect attribute name", "TeamNames", attributes[1].getName());
+		assertEquals("Incorrect attribute name", "ManagedObjectSourceNames", attributes[2].getName());
 
 		// Ensure correct operations
 		MBeanOperationInfo[] operations = info.getOperations();
-		assertEquals("Incorrect number of operations", 4, operations.length);
+		assertEquals("Incorrect number of operations", 7, operations.length);
 		assertEquals("Incorrect first operation", "getManagedFunctionNames", operations[0].getName());
 		assertEquals("Incorrect first operation", "getManagedFunctionParameterType", operations[1].getName());
 		assertEquals("Incorrect second operation", "invokeFunction", operations[2].getName());
-		assertEquals("Incorrect third operation", "closeOfficeFloor", operations[3].getName());
+		assertEquals("Incorrect function latency operation", "getManagedFunctionLatency", operations[3].getName());
+		assertEquals("Incorrect team latency operation", "getTeamQueueWaitLatency", operations[4].getName());
+		assertEquals("Incorrect managed object latency operation", "getManagedObjectSourcingLatency",
+				operations[5].getName());
+		assertEquals("Incorrect close operation", "closeOfficeFloor", operations[6].getName());
 	}
 
 	/**
@@ -246,6 +254,52 @@ public class OfficeFloorMBeanTest extends OfficeFrameTestCase {
 		assertEquals("Managed function should be invoked with parameter", "TEST", CompileSection.invokedParameter);
 	}
 
+	/**
+	 * Ensure can obtain the latency of executing a {@link ManagedFunction}.
+	 */
+	public void testManagedFunctionLatency() throws Exception {
+
+		// Open and register MBean
+		this.officeFloor.openOfficeFloor();
+
+		// Obtain the OfficeFloor MBean
+		MBeanServerConnection connection = ManagementFactory.getPlatformMBeanServer();
+		OfficeFloorMBean mbean = JMX.newMBeanProxy(connection, this.objectName, OfficeFloorMBean.class);
+
+		// Ensure no latency before invoking
+		CompositeData latency = mbean.getManagedFunctionLatency("OFFICE", "SECTION.function");
+		assertEquals("Should not yet have executed", 0L, latency.get("count"));
+
+		// Invoke the function
+		mbean.invokeFunction("OFFICE", "SECTION.function", null);
+
+		// Ensure latency recorded
+		latency = mbean.getManagedFunctionLatency("OFFICE", "SECTION.function");
+		assertEquals("Should record execution", 1L, latency.get("count"));
+		assertEquals("Incorrect max", latency.get("totalNanos"), latency.get("maxNanos"));
+		assertTrue("Percentile should not exceed max",
+				(Long) latency.get("p99Nanos") <= (Long) latency.get("maxNanos"));
+	}
+
+	/**
+	 * Ensure can obtain the {@link Team} latencies.
+	 */
+	public void testTeamQueueWaitLatency() throws Exception {
+
+		// Open and register MBean
+		this.officeFloor.openOfficeFloor();
+
+		// Obtain the OfficeFloor MBean
+		MBeanServerConnection connection = ManagementFactory.getPlatformMBeanServer();
+		OfficeFloorMBean mbean = JMX.newMBeanProxy(connection, this.objectName, OfficeFloorMBean.class);
+
+		// Ensure able to obtain latency for each team
+		for (String teamName : mbean.getTeamNames()) {
+			assertNotNull("Should have latency for team " + teamName, mbean.getTeamQueueWaitLatency(teamName));
+		}
+		assertNull("Should not have latency for unknown team", mbean.getTeamQueueWaitLatency("UNKNOWN"));
+	}
+
 	/**
 	 * Ensure able to close {@link OfficeFloor}.
 	 */
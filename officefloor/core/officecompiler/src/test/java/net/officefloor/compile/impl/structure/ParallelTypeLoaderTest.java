@@ -0,0 +1,190 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.compile.impl.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.officefloor.compile.OfficeFloorCompiler;
+import net.officefloor.compile.impl.issues.AbstractCompilerIssues;
+import net.officefloor.compile.impl.issues.DefaultCompilerIssue;
+import net.officefloor.compile.spi.office.OfficeManagedObjectSource;
+import net.officefloor.compile.test.officefloor.CompileOfficeFloor;
+import net.officefloor.frame.api.build.None;
+import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.source.impl.AbstractManagedObjectSource;
+import net.officefloor.frame.api.source.TestSource;
+import net.officefloor.frame.internal.structure.ManagedObjectScope;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.plugin.section.clazz.Parameter;
+
+/**
+ * Tests the {@link ParallelTypeLoader}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class ParallelTypeLoaderTest extends OfficeFrameTestCase {
+
+	/**
+	 * Number of {@link ManagedObject} instances.
+	 */
+	private static final int MANAGED_OBJECT_COUNT = 10;
+
+	@Override
+	protected void setUp() throws Exception {
+		MockManagedObjectSource.loadingThreads.clear();
+		MockSection.value = null;
+	}
+
+	/**
+	 * Ensure can compile with types loaded in parallel.
+	 */
+	public void testCompileInParallel() throws Throwable {
+
+		// Compile with types loaded in parallel
+		CompileOfficeFloor compile = new CompileOfficeFloor();
+		compile.getOfficeFloorCompiler().setParallelTypeLoading(true);
+		compile.office((context) -> {
+			for (int i = 0; i < MANAGED_OBJECT_COUNT; i++) {
+				OfficeManagedObjectSource mos = context.getOfficeArchitect()
+						.addOfficeManagedObjectSource("MOS_" + i, MockManagedObjectSource.class.getName());
+				mos.addOfficeManagedObject("MO_" + i, ManagedObjectScope.THREAD);
+			}
+			context.addSection("SECTION", MockSection.class);
+		});
+		try (OfficeFloor officeFloor = compile.compileAndOpenOfficeFloor()) {
+
+			// Ensure types loaded in parallel
+			assertTrue("Should load types on other threads",
+					MockManagedObjectSource.loadingThreads.stream().anyMatch((thread) -> thread != Thread.currentThread()));
+
+			// Ensure functions operate
+			CompileOfficeFloor.invokeProcess(officeFloor, "SECTION.function", "TEST");
+			assertEquals("Should invoke function", "TEST", MockSection.value);
+		}
+	}
+
+	@TestSource
+	public static class MockManagedObjectSource extends AbstractManagedObjectSource<None, None>
+			implements ManagedObject {
+
+		private static final Set<Thread> loadingThreads = ConcurrentHashMap.newKeySet();
+
+		/*
+		 * ================== ManagedObjectSource =========================
+		 */
+
+		@Override
+		protected void loadSpecification(SpecificationContext context) {
+		}
+
+		@Override
+		protected void loadMetaData(MetaDataContext<None, None> context) throws Exception {
+			loadingThreads.add(Thread.currentThread());
+			context.setObjectClass(MockManagedObjectSource.class);
+		}
+
+		@Override
+		protected ManagedObject getManagedObject() throws Throwable {
+			return this;
+		}
+
+		/*
+		 * ==================== ManagedObject =============================
+		 */
+
+		@Override
+		public Object getObject() throws Throwable {
+			return this;
+		}
+	}
+
+	public static class MockSection {
+
+		private static volatile String value;
+
+		public void function(@Parameter String parameter) {
+			value = parameter;
+		}
+	}
+
+	/**
+	 * Ensure {@link OfficeFloorCompiler} issues are reported in same order as
+	 * loading types sequentially.
+	 */
+	public void testDeterministicIssues() throws Exception {
+
+		// Obtain issues loading types sequentially
+		List<String> sequentialIssues = this.compileWithIssues(false);
+		assertTrue("Should have issues", sequentialIssues.size() > 0);
+
+		// Ensure same issues when loading types in parallel
+		for (int i = 0; i < 5; i++) {
+			List<String> parallelIssues = this.compileWithIssues(true);
+			assertEquals("Should report issues in same order", sequentialIssues, parallelIssues);
+		}
+	}
+
+	/**
+	 * Compiles the {@link OfficeFloor} capturing the issues.
+	 * 
+	 * @param isParallel Indicates whether to load types in parallel.
+	 * @return Descriptions of the issues.
+	 */
+	private List<String> compileWithIssues(boolean isParallel) throws Exception {
+		List<String> issues = new ArrayList<>();
+		CompileOfficeFloor compile = new CompileOfficeFloor();
+		compile.getOfficeFloorCompiler().setParallelTypeLoading(isParallel);
+		compile.getOfficeFloorCompiler().setCompilerIssues(new AbstractCompilerIssues() {
+			@Override
+			protected void handleDefaultIssue(DefaultCompilerIssue issue) {
+				issues.add(issue.getNode().getNodeName() + ": " + issue.getIssueDescription());
+			}
+		});
+		compile.office((context) -> {
+			for (int i = 0; i < MANAGED_OBJECT_COUNT; i++) {
+				OfficeManagedObjectSource mos = context.getOfficeArchitect()
+						.addOfficeManagedObjectSource("MOS_" + i, FailManagedObjectSource.class.getName());
+				mos.addOfficeManagedObject("MO_" + i, ManagedObjectScope.THREAD);
+			}
+		});
+		assertNull("Should not compile", compile.compileOfficeFloor());
+		return issues;
+	}
+
+	@TestSource
+	public static class FailManagedObjectSource extends MockManagedObjectSource {
+
+		/*
+		 * ================== ManagedObjectSource =========================
+		 */
+
+		@Override
+		protected void loadMetaData(MetaDataContext<None, None> context) throws Exception {
+			throw new Exception("TEST");
+		}
+	}
+
+}
@@ -0,0 +1,657 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.compile.impl.type;
+
+import java.io.File;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import net.officefloor.compile.OfficeFloorCompiler;
+import net.officefloor.compile.impl.managedfunction.FunctionNamespaceTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectDependencyTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectExecutionStrategyTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectFlowTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectFunctionDependencyTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectTeamTypeImpl;
+import net.officefloor.compile.impl.managedobject.ManagedObjectTypeImpl;
+import net.officefloor.compile.impl.properties.PropertyListImpl;
+import net.officefloor.compile.impl.section.SectionInputTypeImpl;
+import net.officefloor.compile.impl.section.SectionObjectTypeImpl;
+import net.officefloor.compile.impl.section.SectionOutputTypeImpl;
+import net.officefloor.compile.impl.section.SectionTypeImpl;
+import net.officefloor.compile.managedfunction.FunctionNamespaceType;
+import net.officefloor.compile.managedfunction.ManagedFunctionEscalationType;
+import net.officefloor.compile.managedfunction.ManagedFunctionFlowType;
+import net.officefloor.compile.managedfunction.ManagedFunctionObjectType;
+import net.officefloor.compile.managedfunction.ManagedFunctionType;
+import net.officefloor.compile.managedobject.ManagedObjectDependencyType;
+import net.officefloor.compile.managedobject.ManagedObjectExecutionStrategyType;
+import net.officefloor.compile.managedobject.ManagedObjectFlowType;
+import net.officefloor.compile.managedobject.ManagedObjectFunctionDependencyType;
+import net.officefloor.compile.managedobject.ManagedObjectTeamType;
+import net.officefloor.compile.managedobject.ManagedObjectType;
+import net.officefloor.compile.properties.PropertyList;
+import net.officefloor.compile.section.SectionInputType;
+import net.officefloor.compile.section.SectionObjectType;
+import net.officefloor.compile.section.SectionOutputType;
+import net.officefloor.compile.section.SectionType;
+import net.officefloor.compile.spi.managedfunction.source.FunctionNamespaceBuilder;
+import net.officefloor.compile.spi.managedfunction.source.ManagedFunctionSourceContext;
+import net.officefloor.compile.spi.managedfunction.source.ManagedFunctionTypeBuilder;
+import net.officefloor.compile.spi.managedfunction.source.impl.AbstractManagedFunctionSource;
+import net.officefloor.compile.spi.office.OfficeManagedObjectSource;
+import net.officefloor.compile.spi.section.SectionDesigner;
+import net.officefloor.compile.spi.section.source.SectionSourceContext;
+import net.officefloor.compile.spi.section.source.impl.AbstractSectionSource;
+import net.officefloor.compile.test.issues.FailTestCompilerIssues;
+import net.officefloor.compile.test.officefloor.CompileOfficeFloor;
+import net.officefloor.frame.api.build.Indexed;
+import net.officefloor.frame.api.build.None;
+import net.officefloor.frame.api.function.ManagedFunction;
+import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.source.impl.AbstractManagedObjectSource;
+import net.officefloor.frame.api.source.TestSource;
+import net.officefloor.frame.internal.structure.ManagedObjectScope;
+import net.officefloor.plugin.section.managedfunction.ManagedFunctionSectionSource;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+
+/**
+ * Tests the {@link TypeSnapshotCache}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class TypeSnapshotCacheTest extends OfficeFrameTestCase {
+
+	/**
+	 * Directory for the snapshots.
+	 */
+	private File directory;
+
+	/**
+	 * {@link TypeSnapshotCache} to test.
+	 */
+	private TypeSnapshotCache cache;
+
+	@Override
+	protected void setUp() throws Exception {
+		this.directory = Files.createTempDirectory(this.getName()).toFile();
+		this.cache = new TypeSnapshotCache(this.directory, this.getClass().getClassLoader());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		this.deleteDirectory(this.directory);
+	}
+
+	/**
+	 * Ensure can snapshot and load the {@link ManagedObjectType}.
+	 */
+	public void testSnapshotManagedObjectType() {
+
+		// Create the managed object type
+		ManagedObjectType<?> type = new ManagedObjectTypeImpl<DependencyKey>(String.class, true,
+				dependencies(
+						new ManagedObjectDependencyTypeImpl<>(0, Integer.class, "QUALIFIER", new Object[0],
+								DependencyKey.KEY, null),
+						new ManagedObjectDependencyTypeImpl<>(1, int.class, null, new Object[0], null, "LABEL")),
+				new ManagedObjectFunctionDependencyType[] {
+						new ManagedObjectFunctionDependencyTypeImpl("FUNCTION_DEPENDENCY", Long.class) },
+				new ManagedObjectFlowType[] { new ManagedObjectFlowTypeImpl<>(0, null, DependencyKey.KEY, null),
+						new ManagedObjectFlowTypeImpl<>(1, String[].class, null, "FLOW") },
+				new ManagedObjectTeamType[] { new ManagedObjectTeamTypeImpl("TEAM") },
+				new ManagedObjectExecutionStrategyType[] { new ManagedObjectExecutionStrategyTypeImpl("STRATEGY") },
+				new Class<?>[] { CharSequence.class });
+
+		// Ensure no snapshot initially
+		String key = this.cache.createManagedObjectTypeKey(MockManagedObjectSource.class,
+				new PropertyListImpl("name", "value"));
+		assertNotNull("Should create key", key);
+		assertNull("Should not have snapshot", this.cache.getManagedObjectType(key));
+		assertEquals("Should be miss", 1, this.cache.getMissCount());
+
+		// Snapshot and then load
+		this.cache.snapshotManagedObjectType(key, type);
+		TypeSnapshotCache restarted = new TypeSnapshotCache(this.directory, this.getClass().getClassLoader());
+		ManagedObjectType<?> snapshot = restarted.getManagedObjectType(key);
+		assertNotNull("Should load snapshot", snapshot);
+		assertEquals("Should be hit", 1, restarted.getHitCount());
+		assertEquals("Should not be miss", 0, restarted.getMissCount());
+
+		// Ensure snapshot is correct
+		assertEquals("Incorrect object type", String.class, snapshot.getObjectType());
+		assertTrue("Incorrect input", snapshot.isInput());
+		ManagedObjectDependencyType<?>[] dependencies = snapshot.getDependencyTypes();
+		assertEquals("Incorrect number of dependencies", 2, dependencies.length);
+		assertEquals("Incorrect key dependency name", "KEY", dependencies[0].getDependencyName());
+		assertEquals("Incorrect key dependency index", 0, dependencies[0].getIndex());
+		assertEquals("Incorrect key dependency type", Integer.class, dependencies[0].getDependencyType());
+		assertEquals("Incorrect key dependency qualifier", "QUALIFIER", dependencies[0].getTypeQualifier());
+		assertEquals("Incorrect dependency key", DependencyKey.KEY, dependencies[0].getKey());
+		assertEquals("Incorrect label dependency name", "LABEL", dependencies[1].getDependencyName());
+		assertEquals("Incorrect label dependency type", int.class, dependencies[1].getDependencyType());
+		assertNull("Should be no qualifier", dependencies[1].getTypeQualifier());
+		assertNull("Should be no key", dependencies[1].getKey());
+		ManagedObjectFunctionDependencyType[] functionDependencies = snapshot.getFunctionDependencyTypes();
+		assertEquals("Incorrect number of function dependencies", 1, functionDependencies.length);
+		assertEquals("Incorrect function dependency name", "FUNCTION_DEPENDENCY",
+				functionDependencies[0].getFunctionObjectName());
+		assertEquals("Incorrect function dependency type", Long.class,
+				functionDependencies[0].getFunctionObjectType());
+		ManagedObjectFlowType<?>[] flows = snapshot.getFlowTypes();
+		assertEquals("Incorrect number of flows", 2, flows.length);
+		assertEquals("Incorrect key flow name", "KEY", flows[0].getFlowName());
+		assertNull("Should be no argument", flows[0].getArgumentType());
+		assertEquals("Incorrect flow key", DependencyKey.KEY, flows[0].getKey());
+		assertEquals("Incorrect label flow name", "FLOW", flows[1].getFlowName());
+		assertEquals("Incorrect label flow index", 1, flows[1].getIndex());
+		assertEquals("Incorrect flow argument", String[].class, flows[1].getArgumentType());
+		assertEquals("Incorrect team", "TEAM", snapshot.getTeamTypes()[0].getTeamName());
+		assertEquals("Incorrect execution strategy", "STRATEGY",
+				snapshot.getExecutionStrategyTypes()[0].getExecutionStrategyName());
+		assertEquals("Incorrect extension type", CharSequence.class, snapshot.getExtensionTypes()[0]);
+	}
+
+	/**
+	 * Dependency key.
+	 */
+	public static enum DependencyKey {
+		KEY
+	}
+
+	/**
+	 * Ensure change in property results in a different snapshot.
+	 */
+	public void testPropertyChange() {
+		String key = this.cache.createManagedObjectTypeKey(MockManagedObjectSource.class,
+				new PropertyListImpl("name", "value"));
+		assertEquals("Should be same key", key, this.cache.createManagedObjectTypeKey(MockManagedObjectSource.class,
+				new PropertyListImpl("name", "value")));
+		assertFalse("Should change key on property change", key.equals(this.cache
+				.createManagedObjectTypeKey(MockManagedObjectSource.class, new PropertyListImpl("name", "changed"))));
+	}
+
+	/**
+	 * Ensure change in configuration referenced by property results in a different
+	 * snapshot.
+	 */
+	public void testConfigurationChange() throws Exception {
+
+		// Provide configuration on class path
+		File configuration = new File(this.directory, "configuration.xml");
+		Files.write(configuration.toPath(), "<original />".getBytes(StandardCharsets.UTF_8));
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { this.directory.toURI().toURL() },
+				this.getClass().getClassLoader())) {
+			TypeSnapshotCache cache = new TypeSnapshotCache(this.directory, classLoader);
+			PropertyList properties = new PropertyListImpl("configuration", "configuration.xml");
+			String key = cache.createManagedObjectTypeKey(MockManagedObjectSource.class, properties);
+
+			// Change the configuration
+			Files.write(configuration.toPath(), "<changed />".getBytes(StandardCharsets.UTF_8));
+			assertFalse("Should change key on configuration change",
+					key.equals(cache.createManagedObjectTypeKey(MockManagedObjectSource.class, properties)));
+		}
+	}
+
+	/**
+	 * Ensure change in referenced {@link Class} invalidates the snapshot.
+	 */
+	public void testReferencedClassChange() throws Exception {
+
+		// Snapshot the type
+		String key = this.cache.createManagedObjectTypeKey(MockManagedObjectSource.class, new PropertyListImpl());
+		this.cache.snapshotManagedObjectType(key,
+				new ManagedObjectTypeImpl<None>(String.class, false, dependencies(),
+						new ManagedObjectFunctionDependencyType[0], new ManagedObjectFlowType[0],
+						new ManagedObjectTeamType[0], new ManagedObjectExecutionStrategyType[0], new Class<?>[0]));
+
+		// Tamper with the recorded digest of the object type
+		File snapshotFile = new File(this.directory, key + ".properties");
+		String content = new String(Files.readAllBytes(snapshotFile.toPath()), StandardCharsets.UTF_8);
+		content = content.replaceAll("(class\\.java\\.lang\\.String=)\\w+", "$1changed");
+		Files.write(snapshotFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+		// Ensure not use snapshot
+		assertNull("Should not use snapshot of changed class", this.cache.getManagedObjectType(key));
+		assertEquals("Should be miss", 1, this.cache.getMissCount());
+	}
+
+	/**
+	 * Ensure snapshots {@link java.io.Serializable} annotations.
+	 */
+	public void testSnapshotAnnotations() throws Exception {
+		MockAnnotation annotation = AnnotatedClass.class.getAnnotation(MockAnnotation.class);
+		String key = this.cache.createManagedObjectTypeKey(MockManagedObjectSource.class, new PropertyListImpl());
+		this.cache.snapshotManagedObjectType(key,
+				new ManagedObjectTypeImpl<None>(String.class, false,
+						dependencies(new ManagedObjectDependencyTypeImpl<None>(0, String.class, null,
+								new Object[] { annotation, "ANNOTATION" }, null, null)),
+						new ManagedObjectFunctionDependencyType[0], new ManagedObjectFlowType[0],
+						new ManagedObjectTeamType[0], new ManagedObjectExecutionStrategyType[0], new Class<?>[0]));
+		ManagedObjectType<?> snapshot = this.cache.getManagedObjectType(key);
+		assertNotNull("Should snapshot annotations", snapshot);
+		Object[] annotations = snapshot.getDependencyTypes()[0].getAnnotations();
+		assertEquals("Incorrect number of annotations", 2, annotations.length);
+		assertEquals("Incorrect annotation", annotation, annotations[0]);
+		assertEquals("Incorrect annotation value", "ANNOTATION", annotations[1]);
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	public static @interface MockAnnotation {
+		String value();
+	}
+
+	@MockAnnotation("TEST")
+	public static class AnnotatedClass {
+	}
+
+	/**
+	 * Ensure does not snapshot annotations that are unable to be recreated.
+	 */
+	public void testNotSnapshotNonSerializableAnnotations() {
+		String key = this.cache.createManagedObjectTypeKey(MockManagedObjectSource.class, new PropertyListImpl());
+		this.cache.snapshotManagedObjectType(key,
+				new ManagedObjectTypeImpl<None>(String.class, false,
+						dependencies(new ManagedObjectDependencyTypeImpl<None>(0, String.class, null,
+								new Object[] { new Object() }, null, null)),
+						new ManagedObjectFunctionDependencyType[0], new ManagedObjectFlowType[0],
+						new ManagedObjectTeamType[0], new ManagedObjectExecutionStrategyType[0], new Class<?>[0]));
+		assertNull("Should not snapshot non-serializable annotations", this.cache.getManagedObjectType(key));
+	}
+
+	/**
+	 * Ensure can snapshot and load the {@link SectionType}.
+	 */
+	public void testSnapshotSectionType() {
+
+		// Create the section type
+		SectionType type = new SectionTypeImpl(
+				new SectionInputType[] { new SectionInputTypeImpl("INPUT", String.class.getName(), new Object[0]),
+						new SectionInputTypeImpl("NO_PARAMETER", null, new Object[] { "ANNOTATION" }) },
+				new SectionOutputType[] { new SectionOutputTypeImpl("OUTPUT", Integer.class.getName(), false,
+						new Object[0]),
+						new SectionOutputTypeImpl("ESCALATION", Exception.class.getName(), true, new Object[0]) },
+				new SectionObjectType[] {
+						new SectionObjectTypeImpl("OBJECT", Long.class.getName(), "QUALIFIER", new Object[0]) });
+
+		// Ensure no snapshot initially
+		String key = this.cache.createSectionTypeKey(MockSectionSource.class, "LOCATION",
+				new PropertyListImpl("name", "value"));
+		assertNotNull("Should create key", key);
+		assertNull("Should not have snapshot", this.cache.getSectionType(key));
+
+		// Snapshot and then load
+		this.cache.snapshotSectionType(key, type);
+		SectionType snapshot = new TypeSnapshotCache(this.directory, this.getClass().getClassLoader())
+				.getSectionType(key);
+		assertNotNull("Should load snapshot", snapshot);
+
+		// Ensure snapshot is correct
+		SectionInputType[] inputs = snapshot.getSectionInputTypes();
+		assertEquals("Incorrect number of inputs", 2, inputs.length);
+		assertEquals("Incorrect input name", "INPUT", inputs[0].getSectionInputName());
+		assertEquals("Incorrect input parameter", String.class.getName(), inputs[0].getParameterType());
+		assertEquals("Should be no annotations", 0, inputs[0].getAnnotations().length);
+		assertEquals("Incorrect no parameter input name", "NO_PARAMETER", inputs[1].getSectionInputName());
+		assertNull("Should be no parameter", inputs[1].getParameterType());
+		assertEquals("Incorrect input annotation", "ANNOTATION", inputs[1].getAnnotations()[0]);
+		SectionOutputType[] outputs = snapshot.getSectionOutputTypes();
+		assertEquals("Incorrect number of outputs", 2, outputs.length);
+		assertEquals("Incorrect output name", "OUTPUT", outputs[0].getSectionOutputName());
+		assertEquals("Incorrect output argument", Integer.class.getName(), outputs[0].getArgumentType());
+		assertFalse("Should not be escalation only", outputs[0].isEscalationOnly());
+		assertEquals("Incorrect escalation name", "ESCALATION", outputs[1].getSectionOutputName());
+		assertTrue("Should be escalation only", outputs[1].isEscalationOnly());
+		SectionObjectType[] objects = snapshot.getSectionObjectTypes();
+		assertEquals("Incorrect number of objects", 1, objects.length);
+		assertEquals("Incorrect object name", "OBJECT", objects[0].getSectionObjectName());
+		assertEquals("Incorrect object type", Long.class.getName(), objects[0].getObjectType());
+		assertEquals("Incorrect object qualifier", "QUALIFIER", objects[0].getTypeQualifier());
+	}
+
+	/**
+	 * Ensure change in contents of the section location results in a different
+	 * snapshot.
+	 */
+	public void testSectionLocationChange() throws Exception {
+
+		// Provide section configuration on class path
+		File configuration = new File(this.directory, "configuration.section");
+		Files.write(configuration.toPath(), "<original />".getBytes(StandardCharsets.UTF_8));
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { this.directory.toURI().toURL() },
+				this.getClass().getClassLoader())) {
+			TypeSnapshotCache cache = new TypeSnapshotCache(this.directory, classLoader);
+			String key = cache.createSectionTypeKey(MockSectionSource.class, "configuration.section",
+					new PropertyListImpl());
+			assertEquals("Should be same key", key,
+					cache.createSectionTypeKey(MockSectionSource.class, "configuration.section", new PropertyListImpl()));
+
+			// Change the configuration
+			Files.write(configuration.toPath(), "<changed />".getBytes(StandardCharsets.UTF_8));
+			assertFalse("Should change key on section configuration change", key.equals(
+					cache.createSectionTypeKey(MockSectionSource.class, "configuration.section", new PropertyListImpl())));
+		}
+	}
+
+	/**
+	 * Ensure can snapshot and load the {@link FunctionNamespaceType}, with the
+	 * function factory sourcing the type on first use.
+	 */
+	public void testSnapshotFunctionNamespaceType() throws Throwable {
+
+		// Create the function namespace type
+		ManagedFunction<Indexed, Indexed> function = (context) -> {
+		};
+		FunctionNamespaceTypeImpl type = new FunctionNamespaceTypeImpl();
+		ManagedFunctionTypeBuilder<DependencyKey, Indexed> keyed = type.addManagedFunctionType("KEYED",
+				DependencyKey.class, Indexed.class);
+		keyed.setFunctionFactory(() -> null);
+		keyed.setReturnType(String.class);
+		keyed.addAnnotation("ANNOTATION");
+		keyed.addObject(Integer.class).setKey(DependencyKey.KEY);
+		keyed.addFlow().setLabel("FLOW");
+		keyed.addEscalation(Exception.class);
+		ManagedFunctionTypeBuilder<Indexed, Indexed> indexed = type.addManagedFunctionType("INDEXED", Indexed.class,
+				Indexed.class);
+		indexed.setFunctionFactory(() -> function);
+		indexed.addObject(String.class).setTypeQualifier("QUALIFIER");
+		indexed.addFlow().setArgumentType(Long.class);
+
+		// Snapshot and then load
+		String key = this.cache.createFunctionNamespaceTypeKey(MockManagedFunctionSource.class,
+				new PropertyListImpl());
+		assertNull("Should not have snapshot", this.cache.getFunctionNamespaceType(key, () -> type));
+		this.cache.snapshotFunctionNamespaceType(key, type);
+		int[] sourcedCount = new int[] { 0 };
+		FunctionNamespaceType snapshot = new TypeSnapshotCache(this.directory, this.getClass().getClassLoader())
+				.getFunctionNamespaceType(key, () -> {
+					sourcedCount[0]++;
+					return type;
+				});
+		assertNotNull("Should load snapshot", snapshot);
+
+		// Ensure snapshot is correct
+		ManagedFunctionType<?, ?>[] functions = snapshot.getManagedFunctionTypes();
+		assertEquals("Incorrect number of functions", 2, functions.length);
+		ManagedFunctionType<?, ?> indexedType = functions[0];
+		assertEquals("Incorrect indexed function", "INDEXED", indexedType.getFunctionName());
+		assertEquals("Incorrect object key class", Indexed.class, indexedType.getObjectKeyClass());
+		assertNull("Should be no return type", indexedType.getReturnType());
+		ManagedFunctionObjectType<?> indexedObject = indexedType.getObjectTypes()[0];
+		assertEquals("Incorrect indexed object name", "0", indexedObject.getObjectName());
+		assertEquals("Incorrect indexed object type", String.class, indexedObject.getObjectType());
+		assertEquals("Incorrect indexed object qualifier", "QUALIFIER", indexedObject.getTypeQualifier());
+		ManagedFunctionFlowType<?> indexedFlow = indexedType.getFlowTypes()[0];
+		assertEquals("Incorrect indexed flow name", "0", indexedFlow.getFlowName());
+		assertEquals("Incorrect indexed flow argument", Long.class, indexedFlow.getArgumentType());
+		ManagedFunctionType<?, ?> keyedType = functions[1];
+		assertEquals("Incorrect keyed function", "KEYED", keyedType.getFunctionName());
+		assertEquals("Incorrect keyed object key class", DependencyKey.class, keyedType.getObjectKeyClass());
+		assertEquals("Incorrect return type", String.class, keyedType.getReturnType());
+		assertEquals("Incorrect function annotation", "ANNOTATION", keyedType.getAnnotations()[0]);
+		ManagedFunctionObjectType<?> keyedObject = keyedType.getObjectTypes()[0];
+		assertEquals("Incorrect keyed object name", "KEY", keyedObject.getObjectName());
+		assertEquals("Incorrect object key", DependencyKey.KEY, keyedObject.getKey());
+		assertEquals("Incorrect keyed object type", Integer.class, keyedObject.getObjectType());
+		assertNull("Should be no qualifier", keyedObject.getTypeQualifier());
+		assertEquals("Incorrect keyed flow name", "FLOW", keyedType.getFlowTypes()[0].getFlowName());
+		ManagedFunctionEscalationType escalation = keyedType.getEscalationTypes()[0];
+		assertEquals("Incorrect escalation name", Exception.class.getName(), escalation.getEscalationName());
+		assertEquals("Incorrect escalation type", Exception.class, escalation.getEscalationType());
+
+		// Ensure function factory sources the type on first use
+		assertEquals("Should not source type until function required", 0, sourcedCount[0]);
+		assertSame("Incorrect function", function,
+				indexedType.getManagedFunctionFactory().createManagedFunction());
+		assertNull("Incorrect keyed function", keyedType.getManagedFunctionFactory().createManagedFunction());
+		assertEquals("Should only source type once", 1, sourcedCount[0]);
+	}
+
+	/**
+	 * Ensure loading {@link SectionType} and {@link FunctionNamespaceType} by
+	 * {@link Class} skips sourcing with snapshot.
+	 */
+	public void testLoadTypesWithSnapshot() {
+
+		// Load types to create the snapshots
+		MockSectionSource.sourceCount = 0;
+		MockManagedFunctionSource.sourceCount = 0;
+		OfficeFloorCompiler compiler = this.createCompiler();
+		SectionType sectionType = compiler.getSectionLoader().loadSectionType(MockSectionSource.class, "LOCATION",
+				new PropertyListImpl());
+		FunctionNamespaceType namespaceType = compiler.getManagedFunctionLoader()
+				.loadManagedFunctionType(MockManagedFunctionSource.class, new PropertyListImpl());
+		assertNotNull("Should load section type", sectionType);
+		assertNotNull("Should load namespace type", namespaceType);
+		assertEquals("Should source section", 1, MockSectionSource.sourceCount);
+		assertEquals("Should source functions", 1, MockManagedFunctionSource.sourceCount);
+
+		// Load types again (using snapshot)
+		compiler = this.createCompiler();
+		sectionType = compiler.getSectionLoader().loadSectionType(MockSectionSource.class, "LOCATION",
+				new PropertyListImpl());
+		namespaceType = compiler.getManagedFunctionLoader().loadManagedFunctionType(MockManagedFunctionSource.class,
+				new PropertyListImpl());
+		assertEquals("Incorrect snapshot section input", "INPUT",
+				sectionType.getSectionInputTypes()[0].getSectionInputName());
+		assertEquals("Incorrect snapshot function", "function",
+				namespaceType.getManagedFunctionTypes()[0].getFunctionName());
+		assertEquals("Should not source section", 1, MockSectionSource.sourceCount);
+		assertEquals("Should not source functions", 1, MockManagedFunctionSource.sourceCount);
+
+		// Ensure change in location sources the section
+		compiler.getSectionLoader().loadSectionType(MockSectionSource.class, "CHANGED", new PropertyListImpl());
+		assertEquals("Should source section for changed location", 2, MockSectionSource.sourceCount);
+	}
+
+	/**
+	 * Ensure compiling {@link OfficeFloor} with snapshot skips sourcing the
+	 * {@link FunctionNamespaceType} for the section.
+	 */
+	public void testCompileSectionWithSnapshot() throws Exception {
+
+		// Compile without snapshot
+		MockManagedFunctionSource.sourceCount = 0;
+		this.compileSectionOfficeFloor().closeOfficeFloor();
+		int sourceCount = MockManagedFunctionSource.sourceCount;
+
+		// Compile with snapshot (first compile creates snapshot)
+		MockManagedFunctionSource.sourceCount = 0;
+		this.compileSectionOfficeFloor(this.directory).closeOfficeFloor();
+		assertEquals("Should source functions for snapshot", sourceCount, MockManagedFunctionSource.sourceCount);
+
+		// Compile again (using snapshot)
+		MockManagedFunctionSource.sourceCount = 0;
+		this.compileSectionOfficeFloor(this.directory).closeOfficeFloor();
+		assertTrue("Should skip sourcing functions (" + MockManagedFunctionSource.sourceCount + " of " + sourceCount
+				+ ")", MockManagedFunctionSource.sourceCount < sourceCount);
+	}
+
+	/**
+	 * Creates the {@link OfficeFloorCompiler} with snapshots.
+	 * 
+	 * @return {@link OfficeFloorCompiler}.
+	 */
+	private OfficeFloorCompiler createCompiler() {
+		OfficeFloorCompiler compiler = OfficeFloorCompiler.newOfficeFloorCompiler(null);
+		compiler.setCompilerIssues(new FailTestCompilerIssues());
+		compiler.setTypeSnapshotDirectory(this.directory);
+		return compiler;
+	}
+
+	/**
+	 * Compiles the {@link OfficeFloor} with section sourcing the
+	 * {@link MockManagedFunctionSource}.
+	 * 
+	 * @param snapshotDirectory Optional snapshot directory.
+	 * @return Compiled {@link OfficeFloor}.
+	 */
+	private OfficeFloor compileSectionOfficeFloor(File... snapshotDirectory) throws Exception {
+		CompileOfficeFloor compile = new CompileOfficeFloor();
+		if (snapshotDirectory.length > 0) {
+			compile.getOfficeFloorCompiler().setTypeSnapshotDirectory(snapshotDirectory[0]);
+		}
+		compile.office((context) -> {
+			context.getOfficeArchitect().addOfficeSection("SECTION", ManagedFunctionSectionSource.class.getName(),
+					MockManagedFunctionSource.class.getName());
+		});
+		return compile.compileAndOpenOfficeFloor();
+	}
+
+	/**
+	 * Creates typed {@link ManagedObjectDependencyType} array.
+	 * 
+	 * @param dependencies {@link ManagedObjectDependencyType} instances.
+	 * @return {@link ManagedObjectDependencyType} array.
+	 */
+	@SafeVarargs
+	private static <D extends Enum<D>> ManagedObjectDependencyType<D>[] dependencies(
+			ManagedObjectDependencyType<D>... dependencies) {
+		return dependencies;
+	}
+
+	@TestSource
+	public static class MockSectionSource extends AbstractSectionSource {
+
+		private static int sourceCount = 0;
+
+		/*
+		 * ===================== SectionSource =========================
+		 */
+
+		@Override
+		protected void loadSpecification(SpecificationContext context) {
+		}
+
+		@Override
+		public void sourceSection(SectionDesigner designer, SectionSourceContext context) throws Exception {
+			sourceCount++;
+			designer.addSectionInput("INPUT", String.class.getName());
+			designer.addSectionOutput("OUTPUT", Integer.class.getName(), false);
+			designer.addSectionObject("OBJECT", Long.class.getName());
+		}
+	}
+
+	@TestSource
+	public static class MockManagedFunctionSource extends AbstractManagedFunctionSource {
+
+		private static int sourceCount = 0;
+
+		/*
+		 * ================== ManagedFunctionSource ====================
+		 */
+
+		@Override
+		protected void loadSpecification(SpecificationContext context) {
+		}
+
+		@Override
+		public void sourceManagedFunctions(FunctionNamespaceBuilder functionNamespaceTypeBuilder,
+				ManagedFunctionSourceContext context) throws Exception {
+			sourceCount++;
+			functionNamespaceTypeBuilder.addManagedFunctionType("function", None.class, None.class)
+					.setFunctionFactory(() -> (functionContext) -> {
+					});
+		}
+	}
+
+	/**
+	 * Ensure compiling {@link OfficeFloor} with snapshot skips sourcing the type.
+	 */
+	public void testCompileWithSnapshot() throws Exception {
+
+		// Compile without snapshot
+		MockManagedObjectSource.metaDataLoadCount = 0;
+		this.compileOfficeFloor().closeOfficeFloor();
+		int loadCount = MockManagedObjectSource.metaDataLoadCount;
+
+		// Compile with snapshot (first compile creates snapshot)
+		MockManagedObjectSource.metaDataLoadCount = 0;
+		this.compileOfficeFloor(this.directory).closeOfficeFloor();
+		assertEquals("Should load type for snapshot", loadCount, MockManagedObjectSource.metaDataLoadCount);
+
+		// Compile again (using snapshot)
+		MockManagedObjectSource.metaDataLoadCount = 0;
+		this.compileOfficeFloor(this.directory).closeOfficeFloor();
+		assertTrue("Should skip loading type (" + MockManagedObjectSource.metaDataLoadCount + " of " + loadCount + ")",
+				MockManagedObjectSource.metaDataLoadCount < loadCount);
+	}
+
+	/**
+	 * Compiles the {@link OfficeFloor}.
+	 * 
+	 * @param snapshotDirectory Optional snapshot directory.
+	 * @return Compiled {@link OfficeFloor}.
+	 */
+	private OfficeFloor compileOfficeFloor(File... snapshotDirectory) throws Exception {
+		CompileOfficeFloor compile = new CompileOfficeFloor();
+		if (snapshotDirectory.length > 0) {
+			compile.getOfficeFloorCompiler().setTypeSnapshotDirectory(snapshotDirectory[0]);
+		}
+		compile.office((context) -> {
+			OfficeManagedObjectSource mos = context.getOfficeArchitect().addOfficeManagedObjectSource("MOS",
+					MockManagedObjectSource.class.getName());
+			mos.addOfficeManagedObject("MO", ManagedObjectScope.THREAD);
+		});
+		return compile.compileAndOpenOfficeFloor();
+	}
+
+	@TestSource
+	public static class MockManagedObjectSource extends AbstractManagedObjectSource<None, None>
+			implements ManagedObject {
+
+		private static int metaDataLoadCount = 0;
+
+		/*
+		 * ================== ManagedObjectSource =========================
+		 */
+
+		@Override
+		protected void loadSpecification(SpecificationContext context) {
+		}
+
+		@Override
+		protected void loadMetaData(MetaDataContext<None, None> context) throws Exception {
+			metaDataLoadCount++;
+			context.setObjectClass(MockManagedObjectSource.class);
+		}
+
+		@Override
+		protected ManagedObject getManagedObject() throws Throwable {
+			return this;
+		}
+
+		/*
+		 * ==================== ManagedObject =============================
+		 */
+
+		@Override
+		public Object getObject() throws Throwable {
+			return this;
+		}
+	}
+
+}
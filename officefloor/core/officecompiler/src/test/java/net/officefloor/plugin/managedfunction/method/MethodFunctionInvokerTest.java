@@ -0,0 +1,239 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.plugin.managedfunction.method;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.officefloor.frame.api.administration.AdministrationContext;
+import net.officefloor.frame.api.build.Indexed;
+import net.officefloor.frame.api.function.ManagedFunctionContext;
+import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.ManagedObjectContext;
+import net.officefloor.frame.api.managedobject.ObjectRegistry;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.plugin.clazz.dependency.ClassDependencyFactory;
+import net.officefloor.plugin.clazz.method.MethodFunction;
+
+/**
+ * Tests the invoker created by
+ * {@link MethodFunction#createInvoker(Method, ClassDependencyFactory[])}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class MethodFunctionInvokerTest extends OfficeFrameTestCase {
+
+	/**
+	 * Order the parameters are loaded.
+	 */
+	private final List<Object> loadOrder = new ArrayList<>();
+
+	/**
+	 * Ensure can invoke instance method loading parameters in order.
+	 */
+	public void testInstanceMethod() throws Throwable {
+		MockFunction instance = new MockFunction();
+		MethodHandle invoker = this.createInvoker("instance", "A", 1, Boolean.TRUE);
+		Object result = invoker.invokeExact((Object) instance, (ManagedFunctionContext<?, ?>) null);
+		assertEquals("Incorrect result", "A-1-true", result);
+		assertEquals("Incorrect load order", "[A, 1, true]", this.loadOrder.toString());
+	}
+
+	/**
+	 * Ensure can invoke static method.
+	 */
+	public void testStaticMethod() throws Throwable {
+		MethodHandle invoker = this.createInvoker("staticMethod", 2L);
+		Object result = invoker.invokeExact((Object) null, (ManagedFunctionContext<?, ?>) null);
+		assertEquals("Incorrect result", Long.valueOf(3), result);
+	}
+
+	/**
+	 * Ensure provides <code>null</code> return for <code>void</code> method.
+	 */
+	public void testVoidMethod() throws Throwable {
+		MockFunction instance = new MockFunction();
+		MethodHandle invoker = this.createInvoker("noParameters");
+		Object result = invoker.invokeExact((Object) instance, (ManagedFunctionContext<?, ?>) null);
+		assertNull("Should be no return value", result);
+		assertTrue("Should invoke method", instance.isInvoked);
+	}
+
+	/**
+	 * Ensure propagates failure of method directly.
+	 */
+	public void testFailure() throws Throwable {
+		MethodHandle invoker = this.createInvoker("fail");
+		try {
+			Object result = invoker.invokeExact((Object) new MockFunction(), (ManagedFunctionContext<?, ?>) null);
+			fail("Should not be successful: " + result);
+		} catch (Exception ex) {
+			assertEquals("Incorrect failure", "TEST", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure describes argument not matching parameter type.
+	 */
+	public void testIncorrectArgumentType() throws Throwable {
+		MethodHandle invoker = this.createInvoker("instance", 1, 1, Boolean.TRUE);
+		try {
+			Object result = invoker.invokeExact((Object) new MockFunction(), (ManagedFunctionContext<?, ?>) null);
+			fail("Should not be successful: " + result);
+		} catch (IllegalArgumentException ex) {
+			assertEquals("Incorrect failure",
+					"Function failure invoking instance(java.lang.String, int, boolean) with arguments java.lang.Integer, java.lang.Integer, java.lang.Boolean",
+					ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure describes <code>null</code> argument for primitive parameter.
+	 */
+	public void testNullPrimitiveArgument() throws Throwable {
+		MethodHandle invoker = this.createInvoker("instance", "A", null, Boolean.TRUE);
+		try {
+			Object result = invoker.invokeExact((Object) new MockFunction(), (ManagedFunctionContext<?, ?>) null);
+			fail("Should not be successful: " + result);
+		} catch (IllegalArgumentException ex) {
+			assertEquals("Incorrect failure",
+					"Function failure invoking instance(java.lang.String, int, boolean) with arguments java.lang.String, null, java.lang.Boolean",
+					ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure {@link ClassCastException} of method with valid arguments is
+	 * propagated directly.
+	 */
+	public void testMethodClassCastException() throws Throwable {
+		MethodHandle invoker = this.createInvoker("cast", Integer.valueOf(1));
+		try {
+			Object result = invoker.invokeExact((Object) new MockFunction(), (ManagedFunctionContext<?, ?>) null);
+			fail("Should not be successful: " + result);
+		} catch (ClassCastException ex) {
+			// Correctly propagated
+		}
+	}
+
+	/**
+	 * Ensure no invoker for inaccessible {@link Method} (falling back to
+	 * reflection).
+	 */
+	public void testInaccessibleMethod() throws Exception {
+		Method method = MockFunction.class.getDeclaredMethod("inaccessible");
+		assertNull("Should not create invoker", MethodFunction.createInvoker(method, new ClassDependencyFactory[0]));
+	}
+
+	/**
+	 * Creates the invoker.
+	 * 
+	 * @param methodName Name of {@link Method} on {@link MockFunction}.
+	 * @param arguments  Arguments for the {@link Method}.
+	 * @return Invoker.
+	 */
+	private MethodHandle createInvoker(String methodName, Object... arguments) {
+		Method method = null;
+		for (Method check : MockFunction.class.getDeclaredMethods()) {
+			if (check.getName().equals(methodName)) {
+				method = check;
+			}
+		}
+		ClassDependencyFactory[] factories = new ClassDependencyFactory[arguments.length];
+		for (int i = 0; i < arguments.length; i++) {
+			factories[i] = new MockClassDependencyFactory(arguments[i]);
+		}
+		return MethodFunction.createInvoker(method, factories);
+	}
+
+	public static class MockFunction {
+
+		private boolean isInvoked = false;
+
+		public String instance(String text, int value, boolean flag) {
+			return text + "-" + value + "-" + flag;
+		}
+
+		public static long staticMethod(long value) {
+			return value + 1;
+		}
+
+		public void noParameters() {
+			this.isInvoked = true;
+		}
+
+		public void fail() throws Exception {
+			throw new Exception("TEST");
+		}
+
+		public String cast(Object value) {
+			return (String) value;
+		}
+
+		private void inaccessible() {
+		}
+	}
+
+	/**
+	 * Mock {@link ClassDependencyFactory}.
+	 */
+	private class MockClassDependencyFactory implements ClassDependencyFactory {
+
+		/**
+		 * Dependency.
+		 */
+		private final Object dependency;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param dependency Dependency.
+		 */
+		private MockClassDependencyFactory(Object dependency) {
+			this.dependency = dependency;
+		}
+
+		/*
+		 * ================= ClassDependencyFactory =================
+		 */
+
+		@Override
+		public Object createDependency(ManagedObject managedObject, ManagedObjectContext context,
+				ObjectRegistry<Indexed> registry) throws Throwable {
+			throw new UnsupportedOperationException("Should not be required");
+		}
+
+		@Override
+		public Object createDependency(ManagedFunctionContext<Indexed, Indexed> context) throws Throwable {
+			MethodFunctionInvokerTest.this.loadOrder.add(this.dependency);
+			return this.dependency;
+		}
+
+		@Override
+		public Object createDependency(AdministrationContext<Object, Indexed, Indexed> context) throws Throwable {
+			throw new UnsupportedOperationException("Should not be required");
+		}
+	}
+
+}
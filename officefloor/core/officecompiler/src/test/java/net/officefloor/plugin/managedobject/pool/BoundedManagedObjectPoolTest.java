@@ -0,0 +1,424 @@
+/*-
+ * #%L
+ * OfficeCompiler
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.plugin.managedobject.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.officefloor.compile.OfficeFloorCompiler;
+import net.officefloor.compile.pool.ManagedObjectPoolType;
+import net.officefloor.compile.properties.PropertyList;
+import net.officefloor.frame.api.build.None;
+import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.pool.ManagedObjectPool;
+import net.officefloor.frame.api.managedobject.pool.ManagedObjectPoolContext;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectUser;
+import net.officefloor.frame.api.managedobject.source.impl.AbstractManagedObjectSource;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+
+/**
+ * Tests the {@link BoundedManagedObjectPool}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class BoundedManagedObjectPoolTest extends OfficeFrameTestCase implements ManagedObjectPoolContext {
+
+	/**
+	 * {@link MockManagedObjectSource}.
+	 */
+	private final MockManagedObjectSource managedObjectSource = new MockManagedObjectSource();
+
+	/**
+	 * Indicates if the current {@link Thread} is managed.
+	 */
+	private boolean isThreadManaged = false;
+
+	/**
+	 * Current time in milliseconds.
+	 */
+	private long currentTime = 0;
+
+	/**
+	 * Ensure able to load the type.
+	 */
+	public void testType() {
+		ManagedObjectPoolType type = this.loadType();
+		assertEquals("Incorrect pooled type", Object.class, type.getPooledObjectType());
+		assertEquals("Should have thread completion listener", 1, type.getThreadCompletionListenerFactories().length);
+	}
+
+	/**
+	 * Ensure alias is available.
+	 */
+	public void testAlias() {
+		BoundedManagedObjectPoolSource source = new BoundedManagedObjectPoolSource();
+		assertEquals("Incorrect alias", "BOUNDED", source.getManagedObjectPoolSourceAlias());
+		assertEquals("Incorrect class", BoundedManagedObjectPoolSource.class,
+				source.getManagedObjectPoolSourceClass());
+	}
+
+	/**
+	 * Ensure re-uses {@link ManagedObject} from the shared pool.
+	 */
+	public void testReuseFromSharedPool() {
+		BoundedManagedObjectPool pool = this.createPool(0, 10, 4, 0);
+		ManagedObject first = this.source(pool);
+		pool.returnManagedObject(first);
+		assertEquals("Should be in shared pool", 1, pool.getSharedPoolSize());
+		assertSame("Should re-use managed object", first, this.source(pool));
+		assertEquals("Should only create once", 1, this.managedObjectSource.created.get());
+		assertEquals("Shared pool now empty", 0, pool.getSharedPoolSize());
+		assertEquals("Incorrect hits", 1, pool.sharedPoolHitCount.sum());
+	}
+
+	/**
+	 * Ensure caches on managed {@link Thread} and releases to shared pool on
+	 * {@link Thread} completion.
+	 */
+	public void testThreadCache() {
+		this.isThreadManaged = true;
+		BoundedManagedObjectPool pool = this.createPool(0, 10, 2, 0);
+
+		// Source and return (cached on thread)
+		ManagedObject[] managedObjects = new ManagedObject[3];
+		for (int i = 0; i < managedObjects.length; i++) {
+			managedObjects[i] = this.source(pool);
+		}
+		for (ManagedObject managedObject : managedObjects) {
+			pool.returnManagedObject(managedObject);
+		}
+		assertEquals("Should cache on thread", 2, pool.getThreadCacheSize());
+		assertEquals("Overflow to shared pool", 1, pool.getSharedPoolSize());
+
+		// Ensure re-use thread cached (last in first out)
+		assertSame("Should obtain from thread cache", managedObjects[1], this.source(pool));
+		assertEquals("Incorrect thread cache hits", 1, pool.getThreadCacheHitCount());
+		pool.returnManagedObject(managedObjects[1]);
+
+		// Complete thread, so releases to shared pool
+		pool.threadComplete();
+		assertEquals("Thread cache should be released", 0, pool.getThreadCacheSize());
+		assertEquals("Should all be in shared pool", 3, pool.getSharedPoolSize());
+		assertEquals("Should only create for initial", 3, this.managedObjectSource.created.get());
+	}
+
+	/**
+	 * Ensure not cache on unmanaged {@link Thread}, as no notification of
+	 * completion.
+	 */
+	public void testNoThreadCacheForUnmanagedThread() {
+		BoundedManagedObjectPool pool = this.createPool(0, 10, 2, 0);
+		pool.returnManagedObject(this.source(pool));
+		assertEquals("Should not cache on thread", 0, pool.getThreadCacheSize());
+		assertEquals("Should be in shared pool", 1, pool.getSharedPoolSize());
+	}
+
+	/**
+	 * Ensure {@link Thread} cache only registered for {@link Thread} instances
+	 * returning {@link ManagedObject} instances.
+	 */
+	public void testNoThreadCacheUnlessReturned() throws Exception {
+		this.isThreadManaged = true;
+		BoundedManagedObjectPool pool = this.createPool(0, 10, 2, 0);
+
+		// Borrow and complete on many threads (without returning)
+		for (int i = 0; i < 100; i++) {
+			Thread thread = new Thread(() -> {
+				this.source(pool);
+				pool.threadComplete();
+			});
+			thread.start();
+			thread.join();
+		}
+		assertEquals("Should not register thread caches", 0, pool.threadCaches.size());
+	}
+
+	/**
+	 * Ensure prunes {@link Thread} cache registrations of completed
+	 * {@link Thread} instances.
+	 */
+	public void testPruneCompletedThreadCaches() throws Exception {
+		this.isThreadManaged = true;
+		BoundedManagedObjectPool pool = this.createPool(0, 10, 2, 0);
+		Runnable use = () -> {
+			pool.returnManagedObject(this.source(pool));
+			pool.threadComplete();
+		};
+
+		// Register thread caches for many completed threads
+		final int THREADS = 100;
+		for (int i = 0; i < THREADS; i++) {
+			Thread thread = new Thread(use);
+			thread.start();
+			thread.join();
+		}
+
+		// Registering further thread caches prunes the completed threads
+		for (int attempt = 0; (attempt < 100) && (pool.threadCaches.size() > 1); attempt++) {
+			System.gc();
+			Thread.sleep(10);
+			Thread thread = new Thread(use);
+			thread.start();
+			thread.join();
+		}
+		assertTrue("Should prune completed thread caches (registered " + pool.threadCaches.size() + ")",
+				pool.threadCaches.size() < THREADS);
+	}
+
+	/**
+	 * Ensure discards once maximum idle reached.
+	 */
+	public void testMaximumIdle() {
+		BoundedManagedObjectPool pool = this.createPool(0, 2, 0, 0);
+		List<ManagedObject> managedObjects = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			managedObjects.add(this.source(pool));
+		}
+		for (ManagedObject managedObject : managedObjects) {
+			pool.returnManagedObject(managedObject);
+		}
+		assertEquals("Should only pool maximum", 2, pool.getSharedPoolSize());
+		assertEquals("Should discard remaining", 3, pool.discardCount.sum());
+	}
+
+	/**
+	 * Ensure evicts idle {@link ManagedObject} instances keeping the minimum.
+	 */
+	public void testEvictIdle() {
+		BoundedManagedObjectPool pool = this.createPool(2, 10, 0, 1000);
+
+		// Return managed objects
+		ManagedObject[] managedObjects = new ManagedObject[4];
+		for (int i = 0; i < managedObjects.length; i++) {
+			managedObjects[i] = this.source(pool);
+		}
+		for (int i = 0; i < 3; i++) {
+			pool.returnManagedObject(managedObjects[i]);
+		}
+		assertEquals("Should all be pooled", 3, pool.getSharedPoolSize());
+
+		// Idle beyond timeout, so evict on next return (keeping minimum)
+		this.currentTime = 1500;
+		pool.returnManagedObject(managedObjects[3]);
+		assertEquals("Should keep recent and minimum", 2, pool.getSharedPoolSize());
+		assertEquals("Incorrect number evicted", 2, pool.evictionCount.sum());
+		assertSame("Should keep most recent", managedObjects[3], this.source(pool));
+		assertSame("Should keep minimum", managedObjects[2], this.source(pool));
+	}
+
+	/**
+	 * Ensure lost {@link ManagedObject} is not re-used.
+	 */
+	public void testLostManagedObject() {
+		BoundedManagedObjectPool pool = this.createPool(0, 10, 0, 0);
+		ManagedObject lost = this.source(pool);
+		pool.lostManagedObject(lost, new Exception("TEST"));
+		assertEquals("Should record lost", 1, pool.lostCount.sum());
+		assertNotSame("Should not re-use lost", lost, this.source(pool));
+		assertEquals("Should create new", 2, this.managedObjectSource.created.get());
+	}
+
+	/**
+	 * Ensure empty releases all pooled and no longer pools.
+	 */
+	public void testEmpty() {
+		this.isThreadManaged = true;
+		BoundedManagedObjectPool pool = this.createPool(0, 10, 1, 0);
+		ManagedObject first = this.source(pool);
+		ManagedObject second = this.source(pool);
+		pool.returnManagedObject(first);
+		pool.returnManagedObject(second);
+		assertEquals("Should be pooled", 1, pool.getSharedPoolSize());
+
+		// Empty the pool
+		pool.empty();
+		assertEquals("Should empty shared pool", 0, pool.getSharedPoolSize());
+		pool.threadComplete();
+		assertEquals("Should not release to shared pool", 0, pool.getSharedPoolSize());
+		pool.returnManagedObject(this.source(pool));
+		assertEquals("Should no longer pool", 0, pool.getSharedPoolSize());
+	}
+
+	/**
+	 * Ensure source provides the statistics.
+	 */
+	public void testStatistics() throws Throwable {
+		BoundedManagedObjectPoolSource source = new BoundedManagedObjectPoolSource();
+		ManagedObjectPoolType type = OfficeFloorCompiler.newOfficeFloorCompiler(null).getManagedObjectPoolLoader()
+				.loadManagedObjectPoolType(source, OfficeFloorCompiler.newPropertyList());
+		ManagedObjectPool pool = type.getManagedObjectPoolFactory().createManagedObjectPool(this);
+		ManagedObject managedObject = this.source(pool);
+		pool.returnManagedObject(managedObject);
+		assertSame("Should re-use", managedObject, this.source(pool));
+		pool.returnManagedObject(managedObject);
+		assertEquals("Incorrect created", 1, source.getCreatedCount());
+		assertEquals("Incorrect shared pool size", 1, source.getSharedPoolSize());
+		assertEquals("Incorrect shared pool hits", 1, source.getSharedPoolHitCount());
+		assertEquals("Incorrect thread cache size", 0, source.getThreadCacheSize());
+		assertEquals("Incorrect discards", 0, source.getDiscardCount());
+	}
+
+	/**
+	 * Ensure pools safely across {@link Thread} instances.
+	 */
+	public void testConcurrentUse() throws Exception {
+		final int THREADS = 4;
+		final int ITERATIONS = 10000;
+		this.isThreadManaged = true;
+		BoundedManagedObjectPool pool = this.createPool(0, 100, 2, 0);
+
+		// Use pool concurrently (ensuring no managed object in use twice)
+		ConcurrentHashMap<ManagedObject, Boolean> inUse = new ConcurrentHashMap<>();
+		CountDownLatch complete = new CountDownLatch(THREADS);
+		AtomicInteger failures = new AtomicInteger(0);
+		for (int t = 0; t < THREADS; t++) {
+			new Thread(() -> {
+				try {
+					for (int i = 0; i < ITERATIONS; i++) {
+						ManagedObject first = this.source(pool);
+						ManagedObject second = this.source(pool);
+						if ((inUse.put(first, Boolean.TRUE) != null) || (inUse.put(second, Boolean.TRUE) != null)) {
+							failures.incrementAndGet();
+						}
+						inUse.remove(first);
+						inUse.remove(second);
+						pool.returnManagedObject(first);
+						pool.returnManagedObject(second);
+						if ((i % 100) == 0) {
+							pool.threadComplete();
+						}
+					}
+					pool.threadComplete();
+				} catch (Throwable ex) {
+					failures.incrementAndGet();
+				} finally {
+					complete.countDown();
+				}
+			}).start();
+		}
+		complete.await();
+		assertEquals("Managed object should only be in use once", 0, failures.get());
+		assertEquals("Should all be released to shared pool", this.managedObjectSource.created.get(),
+				pool.getSharedPoolSize());
+		assertTrue("Should re-use managed objects", this.managedObjectSource.created.get() <= (THREADS * 4));
+	}
+
+	/**
+	 * Loads the {@link ManagedObjectPoolType}.
+	 * 
+	 * @param propertyNameValuePairs Name/value pairs for the properties.
+	 * @return {@link ManagedObjectPoolType}.
+	 */
+	private ManagedObjectPoolType loadType(String... propertyNameValuePairs) {
+		PropertyList properties = OfficeFloorCompiler.newPropertyList();
+		for (int i = 0; i < propertyNameValuePairs.length; i += 2) {
+			properties.addProperty(propertyNameValuePairs[i]).setValue(propertyNameValuePairs[i + 1]);
+		}
+		return OfficeFloorCompiler.newOfficeFloorCompiler(null).getManagedObjectPoolLoader()
+				.loadManagedObjectPoolType(BoundedManagedObjectPoolSource.class, properties);
+	}
+
+	/**
+	 * Creates the {@link BoundedManagedObjectPool}.
+	 * 
+	 * @param minIdle            Minimum idle.
+	 * @param maxIdle            Maximum idle.
+	 * @param maxThreadCacheSize Maximum {@link Thread} cache size.
+	 * @param idleTimeout        Idle timeout.
+	 * @return {@link BoundedManagedObjectPool}.
+	 */
+	private BoundedManagedObjectPool createPool(int minIdle, int maxIdle, int maxThreadCacheSize, long idleTimeout) {
+		return new BoundedManagedObjectPool(this, minIdle, maxIdle, maxThreadCacheSize, idleTimeout,
+				() -> this.currentTime);
+	}
+
+	/**
+	 * Sources the {@link ManagedObject} from the {@link ManagedObjectPool}.
+	 * 
+	 * @param pool {@link ManagedObjectPool}.
+	 * @return Sourced {@link ManagedObject}.
+	 */
+	private ManagedObject source(ManagedObjectPool pool) {
+		ManagedObject[] sourced = new ManagedObject[1];
+		pool.sourceManagedObject(new ManagedObjectUser() {
+
+			@Override
+			public void setManagedObject(ManagedObject managedObject) {
+				sourced[0] = managedObject;
+			}
+
+			@Override
+			public void setFailure(Throwable cause) {
+				throw fail(cause);
+			}
+		});
+		assertNotNull("Should source managed object", sourced[0]);
+		return sourced[0];
+	}
+
+	/*
+	 * ================== ManagedObjectPoolContext ====================
+	 */
+
+	@Override
+	public ManagedObjectSource<?, ?> getManagedObjectSource() {
+		return this.managedObjectSource;
+	}
+
+	@Override
+	public boolean isCurrentThreadManaged() {
+		return this.isThreadManaged;
+	}
+
+	/**
+	 * Mock {@link ManagedObjectSource}.
+	 */
+	private static class MockManagedObjectSource extends AbstractManagedObjectSource<None, None> {
+
+		/**
+		 * Number of {@link ManagedObject} instances created.
+		 */
+		private final AtomicInteger created = new AtomicInteger(0);
+
+		@Override
+		protected void loadSpecification(SpecificationContext context) {
+			// No specification
+		}
+
+		@Override
+		protected void loadMetaData(MetaDataContext<None, None> context) throws Exception {
+			context.setObjectClass(Object.class);
+		}
+
+		@Override
+		protected ManagedObject getManagedObject() throws Throwable {
+			this.created.incrementAndGet();
+			Object object = new Object();
+			return () -> object;
+		}
+	}
+
+}
@@ -86,4 +86,16 @@ public class ExecutiveSourceContextImpl extends SourceContextImpl implements Exe
 		return this.threadFactoryManufacturer.manufactureThreadFactory(executionStrategyName, executive);
 	}
 
+	@Override
+	public ThreadFactory createVirtualThreadFactory(String executionStrategyName, Executive executive) {
+
+		// Ensure have executive
+		if (executive == null) {
+			executive = this.defaultExecutive;
+		}
+
+		// Return the thread factory
+		return this.threadFactoryManufacturer.manufactureVirtualThreadFactory(executionStrategyName, executive);
+	}
+
 }
@@ -38,6 +38,7 @@ import net.officefloor.frame.api.managedobject.pool.ThreadCompletionListener;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectExecuteContext;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSourceMetaData;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.impl.construct.asset.AssetManagerFactory;
 import net.officefloor.frame.impl.construct.managedobject.RawBoundManagedObjectInstanceMetaData;
 import net.officefloor.frame.impl.construct.managedobject.RawBoundManagedObjectMetaData;
@@ -124,6 +125,11 @@ public class RawManagedObjectMetaData<O extends Enum<O>, F extends Enum<F>> {
 	 */
 	private final RawManagingOfficeMetaData<F> rawManagingOfficeMetaData;
 
+	/**
+	 * {@link LatencyHistogram} of sourcing from the {@link ManagedObjectSource}.
+	 */
+	private final LatencyHistogram sourcingLatency = new LatencyHistogram();
+
 	/**
 	 * Initiate.
 	 * 
@@ -180,6 +186,17 @@ public class RawManagedObjectMetaData<O extends Enum<O>, F extends Enum<F>> {
 		return this.managedObjectName;
 	}
 
+	/**
+	 * Obtains the {@link LatencyHistogram} of sourcing from the
+	 * {@link ManagedObjectSource}.
+	 * 
+	 * @return {@link LatencyHistogram} of sourcing from the
+	 *         {@link ManagedObjectSource}.
+	 */
+	public LatencyHistogram getSourcingLatency() {
+		return this.sourcingLatency;
+	}
+
 	/**
 	 * Obtains the {@link ManagedObjectSourceConfiguration}.
 	 * 
@@ -322,7 +339,7 @@ public class RawManagedObjectMetaData<O extends Enum<O>, F extends Enum<F>> {
 		ManagedObjectMetaDataImpl<O> moMetaData = new ManagedObjectMetaDataImpl<>(boundName, this.objectType,
 				instanceIndex, this.managedObjectSource, this.managedObjectPool, this.isContextAware,
 				sourcingAssetManager, this.isAsynchronous, operationsAssetManager, this.isCoordinating,
-				dependencyMappings, this.timeout, governanceMetaData, logger);
+				dependencyMappings, this.timeout, governanceMetaData, logger, this.sourcingLatency);
 
 		// Return the managed object meta-data
 		return moMetaData;
@@ -59,6 +59,7 @@ import net.officefloor.frame.internal.configuration.OfficeConfiguration;
 import net.officefloor.frame.internal.structure.EscalationFlow;
 import net.officefloor.frame.internal.structure.FunctionState;
 import net.officefloor.frame.internal.structure.MonitorClock;
+import net.officefloor.frame.internal.structure.OfficeScheduler;
 import net.officefloor.frame.internal.structure.ProcessState;
 import net.officefloor.frame.internal.structure.ThreadState;
 
@@ -158,6 +159,11 @@ public class OfficeBuilderImpl implements OfficeBuilder, OfficeConfiguration {
 	 */
 	private MonitorClock clock = null;
 
+	/**
+	 * {@link OfficeScheduler}.
+	 */
+	private OfficeScheduler scheduler = null;
+
 	/**
 	 * Interval in milli-seconds to monitor the {@link Office}. Default is 1 second.
 	 */
@@ -204,6 +210,11 @@ public class OfficeBuilderImpl implements OfficeBuilder, OfficeConfiguration {
 		this.clock = clock;
 	}
 
+	@Override
+	public void setOfficeScheduler(OfficeScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
 	@Override
 	public void setMonitorOfficeInterval(long monitorOfficeInterval) {
 		this.monitorOfficeInterval = monitorOfficeInterval;
@@ -325,6 +336,11 @@ public class OfficeBuilderImpl implements OfficeBuilder, OfficeConfiguration {
 		return this.clock;
 	}
 
+	@Override
+	public OfficeScheduler getOfficeScheduler() {
+		return this.scheduler;
+	}
+
 	@Override
 	public long getMonitorOfficeInterval() {
 		return this.monitorOfficeInterval;
@@ -26,7 +26,6 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 
@@ -66,6 +65,7 @@ import net.officefloor.frame.impl.execute.office.LoadManagedObjectFunctionFactor
 import net.officefloor.frame.impl.execute.office.OfficeManagerProcessState;
 import net.officefloor.frame.impl.execute.office.OfficeMetaDataImpl;
 import net.officefloor.frame.impl.execute.office.OfficeStartupFunctionImpl;
+import net.officefloor.frame.impl.execute.office.TimingWheelOfficeScheduler;
 import net.officefloor.frame.impl.execute.process.ProcessMetaDataImpl;
 import net.officefloor.frame.impl.execute.thread.ThreadMetaDataImpl;
 import net.officefloor.frame.internal.configuration.BoundInputManagedObjectConfiguration;
@@ -91,6 +91,7 @@ import net.officefloor.frame.internal.structure.ManagedObjectMetaData;
 import net.officefloor.frame.internal.structure.ManagedObjectScope;
 import net.officefloor.frame.internal.structure.MonitorClock;
 import net.officefloor.frame.internal.structure.OfficeMetaData;
+import net.officefloor.frame.internal.structure.OfficeScheduler;
 import net.officefloor.frame.internal.structure.OfficeStartupFunction;
 import net.officefloor.frame.internal.structure.ProcessMetaData;
 import net.officefloor.frame.internal.structure.TeamManagement;
@@ -236,7 +237,11 @@ public class RawOfficeMetaDataFactory {
 			monitorClock = monitorClockImpl;
 		}
 		FunctionLoop functionLoop = new FunctionLoopImpl(defaultTeam);
-		Timer timer = new Timer(Office.class.getSimpleName() + "_Monitor_" + officeName, true);
+		OfficeScheduler scheduler = configuration.getOfficeScheduler();
+		if (scheduler == null) {
+			// Default the office scheduler
+			scheduler = new TimingWheelOfficeScheduler(Office.class.getSimpleName() + "_Monitor_" + officeName);
+		}
 
 		// Create the office manager process state
 		OfficeManagerProcessState officeManagerProcessState = new OfficeManagerProcessState(maxFunctionChainLength,
@@ -545,13 +550,13 @@ public class RawOfficeMetaDataFactory {
 
 		// Create the office manager
 		OfficeManagerImpl officeManager = new OfficeManagerImpl(monitorOfficeInterval, monitorClockImpl, functionLoop,
-				timer);
+				scheduler);
 
 		// Obtain the managed execution factory
 		ManagedExecutionFactory managedExecutionFactory = this.rawOfficeFloorMetaData.getManagedExecutionFactory();
 
 		// Load the office meta-data
-		OfficeMetaData officeMetaData = new OfficeMetaDataImpl(officeName, officeManager, monitorClock, timer,
+		OfficeMetaData officeMetaData = new OfficeMetaDataImpl(officeName, officeManager, monitorClock, scheduler,
 				functionLoop, breakChainExecutor, threadLocalAwareExecutor, executive, managedExecutionFactory,
 				functionMetaDatas.toArray(new ManagedFunctionMetaData[0]), functionLocator, processMetaData,
 				stateManagerKeepAliveFunction, loadObjectMetaDatas, startupFunctions, profiler);
@@ -30,6 +30,7 @@ import net.officefloor.frame.api.executive.ExecutionStrategy;
 import net.officefloor.frame.api.executive.Executive;
 import net.officefloor.frame.api.manage.OfficeFloor;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.metric.OfficeFloorMetrics;
 import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.impl.construct.managedobjectsource.RawManagedObjectMetaData;
 import net.officefloor.frame.impl.construct.team.RawTeamMetaData;
@@ -114,6 +115,11 @@ public class RawOfficeFloorMetaData {
 	 */
 	OfficeFloorMetaData officeFloorMetaData;
 
+	/**
+	 * {@link OfficeFloorMetrics}.
+	 */
+	OfficeFloorMetrics officeFloorMetrics;
+
 	/**
 	 * Initiate.
 	 * 
@@ -266,6 +272,15 @@ public class RawOfficeFloorMetaData {
 		return this.officeFloorMetaData;
 	}
 
+	/**
+	 * Obtains the {@link OfficeFloorMetrics}.
+	 * 
+	 * @return {@link OfficeFloorMetrics}.
+	 */
+	public OfficeFloorMetrics getOfficeFloorMetrics() {
+		return this.officeFloorMetrics;
+	}
+
 	/**
 	 * Obtains the {@link OfficeFloorListener} instances.
 	 * 
@@ -29,6 +29,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -44,6 +45,7 @@ import net.officefloor.frame.api.executive.TeamOversight;
 import net.officefloor.frame.api.manage.OfficeFloor;
 import net.officefloor.frame.api.managedobject.pool.ThreadCompletionListener;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.api.source.SourceContext;
 import net.officefloor.frame.impl.construct.executive.RawExecutiveMetaData;
 import net.officefloor.frame.impl.construct.executive.RawExecutiveMetaDataFactory;
@@ -66,6 +68,7 @@ import net.officefloor.frame.impl.execute.office.OfficeMetaDataImpl;
 import net.officefloor.frame.impl.execute.officefloor.DefaultOfficeFloorEscalationHandler;
 import net.officefloor.frame.impl.execute.officefloor.ManagedObjectSourceInstanceImpl;
 import net.officefloor.frame.impl.execute.officefloor.OfficeFloorMetaDataImpl;
+import net.officefloor.frame.impl.execute.officefloor.OfficeFloorMetricsImpl;
 import net.officefloor.frame.impl.execute.team.TeamExecutor;
 import net.officefloor.frame.internal.configuration.ExecutiveConfiguration;
 import net.officefloor.frame.internal.configuration.ManagedObjectSourceConfiguration;
@@ -520,6 +523,18 @@ public class RawOfficeFloorMetaDataFactory {
 				teamListing.toArray(new TeamManagement[0]), groupedMosInstances,
 				officeMetaDatas.toArray(new OfficeMetaData[0]), maxStartupWaitTime);
 
+		// Create the metrics
+		Map<String, LatencyHistogram> teamQueueWaitLatencies = new TreeMap<>();
+		teamRegistry.forEach((teamName, rawTeam) -> teamQueueWaitLatencies.put(teamName,
+				rawTeam.getTeamManagement().getQueueWaitLatency()));
+		Map<String, LatencyHistogram> managedObjectSourcingLatencies = new TreeMap<>();
+		for (RawManagedObjectMetaData<?, ?> rawMoMetaData : mosListing) {
+			managedObjectSourcingLatencies.put(rawMoMetaData.getManagedObjectName(),
+					rawMoMetaData.getSourcingLatency());
+		}
+		rawMetaData.officeFloorMetrics = new OfficeFloorMetricsImpl(officeMetaDatas.toArray(new OfficeMetaData[0]),
+				teamQueueWaitLatencies, managedObjectSourcingLatencies);
+
 		// Return the raw meta-data
 		return rawMetaData;
 	}
@@ -74,6 +74,11 @@ public class ExecutiveContextImpl extends SourceContextImpl implements Executive
 	 */
 	private ThreadFactory threadFactory = null;
 
+	/**
+	 * {@link ThreadFactory} for virtual {@link Thread} instances.
+	 */
+	private ThreadFactory virtualThreadFactory = null;
+
 	/**
 	 * Initialise.
 	 * 
@@ -141,6 +146,15 @@ public class ExecutiveContextImpl extends SourceContextImpl implements Executive
 		return this.threadFactory;
 	}
 
+	@Override
+	public ThreadFactory getVirtualThreadFactory() {
+		if (this.virtualThreadFactory == null) {
+			this.virtualThreadFactory = this.threadFactoryManufacturer.manufactureVirtualThreadFactory(this.teamName,
+					this.executive);
+		}
+		return this.virtualThreadFactory;
+	}
+
 	@Override
 	public TeamSource getTeamSource() {
 		return this.teamSource;
@@ -151,4 +165,9 @@ public class ExecutiveContextImpl extends SourceContextImpl implements Executive
 		return this.threadFactoryManufacturer.manufactureThreadFactory(teamName, this.executive);
 	}
 
+	@Override
+	public ThreadFactory createVirtualThreadFactory(String teamName) {
+		return this.threadFactoryManufacturer.manufactureVirtualThreadFactory(teamName, this.executive);
+	}
+
 }
@@ -28,6 +28,7 @@ import net.officefloor.frame.api.administration.AdministrationContext;
 import net.officefloor.frame.api.administration.AdministrationFactory;
 import net.officefloor.frame.api.function.AsynchronousFlow;
 import net.officefloor.frame.api.governance.Governance;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.internal.structure.AdministrationMetaData;
 import net.officefloor.frame.internal.structure.AssetManager;
@@ -109,6 +110,11 @@ public class AdministrationMetaDataImpl<E, F extends Enum<F>, G extends Enum<G>>
 	 */
 	private final Executor executor;
 
+	/**
+	 * {@link LatencyHistogram} of execution.
+	 */
+	private final LatencyHistogram executionLatency = new LatencyHistogram();
+
 	/**
 	 * Instantiate.
 	 * 
@@ -196,6 +202,11 @@ public class AdministrationMetaDataImpl<E, F extends Enum<F>, G extends Enum<G>>
 		return this.officeMetaData;
 	}
 
+	@Override
+	public LatencyHistogram getExecutionLatency() {
+		return this.executionLatency;
+	}
+
 	/*
 	 * ================= AdministratorMetaData ============================
 	 */
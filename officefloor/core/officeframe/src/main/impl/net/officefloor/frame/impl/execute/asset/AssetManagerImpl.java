@@ -35,6 +35,7 @@ import net.officefloor.frame.internal.structure.FunctionLoop;
 import net.officefloor.frame.internal.structure.FunctionState;
 import net.officefloor.frame.internal.structure.LinkedListSet;
 import net.officefloor.frame.internal.structure.MonitorClock;
+import net.officefloor.frame.internal.structure.OfficeManager;
 import net.officefloor.frame.internal.structure.ProcessState;
 import net.officefloor.frame.internal.structure.ThreadState;
 
@@ -70,6 +71,16 @@ public class AssetManagerImpl extends AbstractLinkedListSetEntry<FunctionState,
 		}
 	};
 
+	/**
+	 * <p>
+	 * Number of {@link AssetLatch} instances requiring managing.
+	 * <p>
+	 * Maintained alongside the {@link LinkedListSet} (under the managing
+	 * {@link ThreadState}) so the {@link OfficeManager} may determine without
+	 * synchronising whether to undertake checks.
+	 */
+	private volatile int latchCount = 0;
+
 	/**
 	 * Initiate.
 	 * 
@@ -103,6 +114,7 @@ public class AssetManagerImpl extends AbstractLinkedListSetEntry<FunctionState,
 	 */
 	void registerAssetLatch(AssetLatchImpl latch) {
 		this.latches.addEntry(latch);
+		this.latchCount++;
 	}
 
 	/**
@@ -113,6 +125,7 @@ public class AssetManagerImpl extends AbstractLinkedListSetEntry<FunctionState,
 	 */
 	void unregisterAssetLatch(AssetLatchImpl latch) {
 		this.latches.removeEntry(latch);
+		this.latchCount--;
 	}
 
 	/*
@@ -124,6 +137,11 @@ public class AssetManagerImpl extends AbstractLinkedListSetEntry<FunctionState,
 		return new AssetLatchImpl(asset, this, this.clock);
 	}
 
+	@Override
+	public boolean isManagingAssetLatches() {
+		return this.latchCount > 0;
+	}
+
 	/*
 	 * ================ FunctionState =====================================
 	 */
@@ -21,21 +21,19 @@
 
 package net.officefloor.frame.impl.execute.asset;
 
-import java.util.Timer;
-import java.util.TimerTask;
-
 import net.officefloor.frame.api.manage.Office;
 import net.officefloor.frame.internal.structure.AssetManager;
 import net.officefloor.frame.internal.structure.FunctionLoop;
 import net.officefloor.frame.internal.structure.MonitorClock;
 import net.officefloor.frame.internal.structure.OfficeManager;
+import net.officefloor.frame.internal.structure.OfficeScheduler;
 
 /**
  * Implementation of the {@link OfficeManager}.
  * 
  * @author Daniel Sagenschneider
  */
-public class OfficeManagerImpl extends TimerTask implements OfficeManager {
+public class OfficeManagerImpl implements OfficeManager, Runnable {
 
 	/**
 	 * Interval in milliseconds between each check of the {@link Office}.
@@ -48,9 +46,9 @@ public class OfficeManagerImpl extends TimerTask implements OfficeManager {
 	private final FunctionLoop functionLoop;
 
 	/**
-	 * {@link Timer} to monitor the {@link Office}.
+	 * {@link OfficeScheduler} to monitor the {@link Office}.
 	 */
-	private final Timer timer;
+	private final OfficeScheduler scheduler;
 
 	/**
 	 * {@link MonitorClockImpl}.
@@ -71,14 +69,15 @@ public class OfficeManagerImpl extends TimerTask implements OfficeManager {
 	 *                        increases responsiveness of the {@link Office}.
 	 * @param monitorClock    {@link MonitorClock} for the {@link Office}.
 	 * @param functionLoop    {@link FunctionLoop} for the {@link Office}.
-	 * @param timer           {@link Timer} to monitor the {@link Office}.
+	 * @param scheduler       {@link OfficeScheduler} to monitor the
+	 *                        {@link Office}.
 	 */
 	public OfficeManagerImpl(long monitorInterval, MonitorClockImpl monitorClock, FunctionLoop functionLoop,
-			Timer timer) {
+			OfficeScheduler scheduler) {
 		this.monitorInterval = monitorInterval;
 		this.monitorClock = monitorClock;
 		this.functionLoop = functionLoop;
-		this.timer = timer;
+		this.scheduler = scheduler;
 	}
 
 	/**
@@ -97,7 +96,7 @@ public class OfficeManagerImpl extends TimerTask implements OfficeManager {
 	@Override
 	public void startManaging() {
 		if (this.monitorInterval > 0) {
-			this.timer.scheduleAtFixedRate(this, 0, this.monitorInterval);
+			this.scheduler.scheduleAtFixedRate(this, 0, this.monitorInterval);
 		}
 	}
 
@@ -107,17 +106,21 @@ public class OfficeManagerImpl extends TimerTask implements OfficeManager {
 		// Trigger the monitoring of the office
 		for (int i = 0; i < this.assetManagers.length; i++) {
 			AssetManager assetManager = this.assetManagers[i];
-			this.functionLoop.delegateFunction(assetManager);
+
+			// Only check if latches to check (avoids idle sweeps)
+			if (assetManager.isManagingAssetLatches()) {
+				this.functionLoop.delegateFunction(assetManager);
+			}
 		}
 	}
 
 	@Override
 	public void stopManaging() {
-		this.timer.cancel();
+		this.scheduler.shutdown();
 	}
 
 	/*
-	 * ================== TimerTask ==========================================
+	 * ================== Runnable ===========================================
 	 */
 
 	@Override
@@ -21,9 +21,12 @@
 
 package net.officefloor.frame.impl.execute.execution;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import net.officefloor.frame.api.executive.Executive;
 import net.officefloor.frame.api.team.Team;
@@ -37,6 +40,51 @@ import net.officefloor.frame.internal.structure.ManagedExecutionFactory;
  */
 public class ThreadFactoryManufacturer {
 
+	/**
+	 * {@link Logger}.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(ThreadFactoryManufacturer.class.getName());
+
+	/**
+	 * Creates the virtual {@link Thread} builder. <code>null</code> if virtual
+	 * {@link Thread} instances are not available on the JVM.
+	 */
+	private static final Method OF_VIRTUAL;
+
+	/**
+	 * Creates the {@link ThreadFactory} from the virtual {@link Thread} builder.
+	 */
+	private static final Method BUILDER_FACTORY;
+
+	static {
+		Method ofVirtual = null;
+		Method builderFactory = null;
+		try {
+			// Load via reflection to allow compiling and running on Java 8
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			builderFactory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+
+			// Ensure able to create (e.g. not preview feature disabled)
+			builderFactory.invoke(ofVirtual.invoke(null));
+
+		} catch (Throwable ex) {
+			// Virtual threads not available
+			ofVirtual = null;
+			builderFactory = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_FACTORY = builderFactory;
+	}
+
+	/**
+	 * Indicates if virtual {@link Thread} instances are available on the JVM.
+	 * 
+	 * @return <code>true</code> if virtual {@link Thread} instances are available.
+	 */
+	public static boolean isVirtualThreadAvailable() {
+		return OF_VIRTUAL != null;
+	}
+
 	/**
 	 * {@link ManagedExecutionFactory}.
 	 */
@@ -68,7 +116,39 @@ public class ThreadFactoryManufacturer {
 	 * @return {@link ThreadFactory}.
 	 */
 	public ThreadFactory manufactureThreadFactory(String name, Executive executive) {
-		return new OfficeFloorThreadFactory(name, executive);
+		return new OfficeFloorThreadFactory(name, executive, null);
+	}
+
+	/**
+	 * <p>
+	 * Manufactures a new {@link ThreadFactory} creating virtual {@link Thread}
+	 * instances.
+	 * <p>
+	 * Should virtual {@link Thread} instances not be available on the JVM, the
+	 * {@link ThreadFactory} falls back to creating platform {@link Thread}
+	 * instances.
+	 * 
+	 * @param name      Name for the {@link Thread} instances created from the
+	 *                  {@link ThreadFactory}.
+	 * @param executive {@link Executive}.
+	 * @return {@link ThreadFactory}.
+	 * @see #isVirtualThreadAvailable()
+	 */
+	public ThreadFactory manufactureVirtualThreadFactory(String name, Executive executive) {
+
+		// Obtain the virtual thread factory
+		ThreadFactory virtualThreadFactory = null;
+		if (isVirtualThreadAvailable()) {
+			try {
+				virtualThreadFactory = (ThreadFactory) BUILDER_FACTORY.invoke(OF_VIRTUAL.invoke(null));
+			} catch (Exception ex) {
+				LOGGER.log(Level.WARNING, "Failed to create virtual thread factory for " + name
+						+ ", so falling back to platform threads", ex);
+			}
+		}
+
+		// Create the thread factory
+		return new OfficeFloorThreadFactory(name, executive, virtualThreadFactory);
 	}
 
 	/**
@@ -91,6 +171,12 @@ public class ThreadFactoryManufacturer {
 		 */
 		private final Executive executive;
 
+		/**
+		 * {@link ThreadFactory} for virtual {@link Thread} instances. May be
+		 * <code>null</code> to create platform {@link Thread} instances.
+		 */
+		private final ThreadFactory virtualThreadFactory;
+
 		/**
 		 * Index of the next {@link Thread}.
 		 */
@@ -99,13 +185,19 @@ public class ThreadFactoryManufacturer {
 		/**
 		 * Initiate.
 		 * 
-		 * @param name Name for the {@link Thread} instances created from the
-		 *             {@link ThreadFactory}.
+		 * @param name                 Name for the {@link Thread} instances created
+		 *                             from the {@link ThreadFactory}.
+		 * @param executive            {@link Executive}.
+		 * @param virtualThreadFactory {@link ThreadFactory} for virtual
+		 *                             {@link Thread} instances. May be
+		 *                             <code>null</code> to create platform
+		 *                             {@link Thread} instances.
 		 */
-		private OfficeFloorThreadFactory(String name, Executive executive) {
-			this.group = new ThreadGroup(name);
+		private OfficeFloorThreadFactory(String name, Executive executive, ThreadFactory virtualThreadFactory) {
+			this.group = (virtualThreadFactory == null) ? new ThreadGroup(name) : null;
 			this.threadNamePrefix = name + "-";
 			this.executive = executive;
+			this.virtualThreadFactory = virtualThreadFactory;
 		}
 
 		/*
@@ -125,9 +217,16 @@ public class ThreadFactoryManufacturer {
 			// Create and configure the thread
 			String threadName = this.threadNamePrefix + this.nextThreadIndex.getAndIncrement();
 			Runnable runnable = () -> managedExecution.managedExecute();
-			Thread thread = new Thread(this.group, runnable, threadName);
-			if (thread.isDaemon()) {
-				thread.setDaemon(false);
+			Thread thread;
+			if (this.virtualThreadFactory != null) {
+				// Virtual threads are always daemon
+				thread = this.virtualThreadFactory.newThread(runnable);
+				thread.setName(threadName);
+			} else {
+				thread = new Thread(this.group, runnable, threadName);
+				if (thread.isDaemon()) {
+					thread.setDaemon(false);
+				}
 			}
 			if (ThreadFactoryManufacturer.this.decorator != null) {
 				ThreadFactoryManufacturer.this.decorator.accept(thread);
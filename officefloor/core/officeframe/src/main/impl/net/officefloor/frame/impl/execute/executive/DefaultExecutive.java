@@ -46,11 +46,39 @@ public class DefaultExecutive extends AbstractExecutiveSource implements Executi
 	 */
 	public static final String EXECUTION_STRATEGY_NAME = "default";
 
+	/**
+	 * Name of {@link ExecutionStrategy} using virtual {@link Thread} instances
+	 * (falling back to platform {@link Thread} instances should the JVM not
+	 * support virtual {@link Thread} instances).
+	 */
+	public static final String VIRTUAL_EXECUTION_STRATEGY_NAME = "virtual";
+
 	/**
 	 * {@link ThreadFactory} instances.
 	 */
 	private ThreadFactory[] threadFactories;
 
+	/**
+	 * {@link ThreadFactory} instances for virtual {@link Thread} instances.
+	 */
+	private ThreadFactory[] virtualThreadFactories;
+
+	/**
+	 * {@link ExecutionStrategy} using virtual {@link Thread} instances.
+	 */
+	private final ExecutionStrategy virtualExecutionStrategy = new ExecutionStrategy() {
+
+		@Override
+		public String getExecutionStrategyName() {
+			return VIRTUAL_EXECUTION_STRATEGY_NAME;
+		}
+
+		@Override
+		public ThreadFactory[] getThreadFactories() {
+			return DefaultExecutive.this.virtualThreadFactories;
+		}
+	};
+
 	/**
 	 * Default construct to be used as {@link ExecutiveSource}.
 	 */
@@ -65,6 +93,8 @@ public class DefaultExecutive extends AbstractExecutiveSource implements Executi
 	public DefaultExecutive(ThreadFactoryManufacturer threadFactoryManufacturer) {
 		this.threadFactories = new ThreadFactory[] {
 				threadFactoryManufacturer.manufactureThreadFactory(this.getExecutionStrategyName(), this) };
+		this.virtualThreadFactories = new ThreadFactory[] {
+				threadFactoryManufacturer.manufactureVirtualThreadFactory(VIRTUAL_EXECUTION_STRATEGY_NAME, this) };
 	}
 
 	/**
@@ -75,6 +105,7 @@ public class DefaultExecutive extends AbstractExecutiveSource implements Executi
 	public Map<String, ThreadFactory[]> getExecutionStrategyMap() {
 		Map<String, ThreadFactory[]> executionStrategies = new HashMap<>();
 		executionStrategies.put(this.getExecutionStrategyName(), this.threadFactories);
+		executionStrategies.put(VIRTUAL_EXECUTION_STRATEGY_NAME, this.virtualThreadFactories);
 		return executionStrategies;
 	}
 
@@ -102,6 +133,8 @@ public class DefaultExecutive extends AbstractExecutiveSource implements Executi
 		for (int i = 0; i < availableProcessors; i++) {
 			this.threadFactories[i] = context.createThreadFactory(this.getExecutionStrategyName() + "-" + i, this);
 		}
+		this.virtualThreadFactories = new ThreadFactory[] {
+				context.createVirtualThreadFactory(VIRTUAL_EXECUTION_STRATEGY_NAME, this) };
 		return this;
 	}
 
@@ -111,7 +144,7 @@ public class DefaultExecutive extends AbstractExecutiveSource implements Executi
 
 	@Override
 	public ExecutionStrategy[] getExcutionStrategies() {
-		return new ExecutionStrategy[] { this };
+		return new ExecutionStrategy[] { this, this.virtualExecutionStrategy };
 	}
 
 	/*
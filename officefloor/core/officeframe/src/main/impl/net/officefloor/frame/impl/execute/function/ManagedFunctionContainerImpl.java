@@ -30,6 +30,7 @@ import net.officefloor.frame.api.function.FlowCallback;
 import net.officefloor.frame.api.function.ManagedFunction;
 import net.officefloor.frame.api.governance.Governance;
 import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.impl.execute.linkedlistset.AbstractLinkedListSetEntry;
 import net.officefloor.frame.impl.execute.linkedlistset.StrictLinkedListSet;
 import net.officefloor.frame.impl.execute.managedobject.ManagedObjectContainerImpl;
@@ -468,9 +469,17 @@ public class ManagedFunctionContainerImpl<M extends ManagedFunctionLogicMetaData
 			// Profile function being executed
 			threadState.profile(this.functionLogicMetaData);
 
-			// Execute the managed function
+			// Execute the managed function (recording latency)
 			ManagedFunctionLogicContextImpl logicContext = new ManagedFunctionLogicContextImpl();
-			this.managedFunctionLogic.execute(logicContext);
+			long executeStartTime = System.nanoTime();
+			try {
+				this.managedFunctionLogic.execute(logicContext);
+			} finally {
+				LatencyHistogram executionLatency = this.functionLogicMetaData.getExecutionLatency();
+				if (executionLatency != null) {
+					executionLatency.record(System.nanoTime() - executeStartTime);
+				}
+			}
 
 			// Must recheck managed objects
 			this.check = null;
@@ -29,6 +29,7 @@ import net.officefloor.frame.api.function.FlowCallback;
 import net.officefloor.frame.api.governance.Governance;
 import net.officefloor.frame.api.governance.GovernanceContext;
 import net.officefloor.frame.api.governance.GovernanceFactory;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.internal.structure.AssetManager;
 import net.officefloor.frame.internal.structure.EscalationProcedure;
@@ -89,6 +90,11 @@ public class GovernanceMetaDataImpl<I, F extends Enum<F>> implements GovernanceM
 	 */
 	private final Executor executor;
 
+	/**
+	 * {@link LatencyHistogram} of execution.
+	 */
+	private final LatencyHistogram executionLatency = new LatencyHistogram();
+
 	/**
 	 * {@link OfficeMetaData}.
 	 */
@@ -186,6 +192,11 @@ public class GovernanceMetaDataImpl<I, F extends Enum<F>> implements GovernanceM
 		return this.officeMetaData;
 	}
 
+	@Override
+	public LatencyHistogram getExecutionLatency() {
+		return this.executionLatency;
+	}
+
 	/*
 	 * ================== GovernanceMetaData ==========================
 	 */
@@ -25,6 +25,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import net.officefloor.frame.api.escalate.Escalation;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.api.team.Job;
 import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.impl.execute.function.AbstractDelegateFunctionState;
@@ -119,7 +120,7 @@ public class FunctionLoopImpl implements FunctionLoop {
 		}
 
 		// Delegate function to the responsible team
-		SafeLoop loop = new SafeLoop(function, responsibleTeam.getIdentifier());
+		SafeLoop loop = new SafeLoop(function, responsibleTeam);
 		Team team = responsibleTeam.getTeam();
 		try {
 
@@ -273,7 +274,7 @@ public class FunctionLoopImpl implements FunctionLoop {
 			}
 
 			// Obtain the responsible team
-			SafeLoop loop = new SafeLoop(function, responsibleTeam.getIdentifier());
+			SafeLoop loop = new SafeLoop(function, responsibleTeam);
 			Team team = responsibleTeam.getTeam();
 			try {
 
@@ -341,6 +342,17 @@ public class FunctionLoopImpl implements FunctionLoop {
 	 */
 	private class SafeLoop extends UnsafeLoop {
 
+		/**
+		 * {@link LatencyHistogram} of waiting to be executed by the {@link Team}.
+		 * Will be <code>null</code> if not assigned to a {@link Team}.
+		 */
+		private final LatencyHistogram queueWaitLatency;
+
+		/**
+		 * Time in nanoseconds that assigned to the {@link Team}.
+		 */
+		private final long assignedTime;
+
 		/**
 		 * Instantiate.
 		 * 
@@ -349,6 +361,37 @@ public class FunctionLoopImpl implements FunctionLoop {
 		 */
 		public SafeLoop(FunctionState initialFunction, Object currentTeam) {
 			super(initialFunction, currentTeam);
+			this.queueWaitLatency = null;
+			this.assignedTime = 0;
+		}
+
+		/**
+		 * Instantiate for assigning to the {@link Team}.
+		 * 
+		 * @param initialFunction Initial {@link FunctionState}.
+		 * @param responsibleTeam {@link TeamManagement} of the {@link Team} to
+		 *                        execute this {@link Job}.
+		 */
+		public SafeLoop(FunctionState initialFunction, TeamManagement responsibleTeam) {
+			super(initialFunction, responsibleTeam.getIdentifier());
+			this.queueWaitLatency = responsibleTeam.getQueueWaitLatency();
+			this.assignedTime = System.nanoTime();
+		}
+
+		/*
+		 * ========================= Job =========================
+		 */
+
+		@Override
+		public void run() {
+
+			// Record time waiting to be executed by the team
+			if (this.queueWaitLatency != null) {
+				this.queueWaitLatency.record(System.nanoTime() - this.assignedTime);
+			}
+
+			// Execute the functions
+			super.run();
 		}
 
 		/*
@@ -365,7 +408,7 @@ public class FunctionLoopImpl implements FunctionLoop {
 		protected FunctionState assignFunction(FunctionState function, TeamManagement responsibleTeam) {
 
 			// No need to synchronise assigning function, as loop is thread safe
-			SafeLoop loop = new SafeLoop(function, responsibleTeam.getIdentifier());
+			SafeLoop loop = new SafeLoop(function, responsibleTeam);
 			Team team = responsibleTeam.getTeam();
 			try {
 
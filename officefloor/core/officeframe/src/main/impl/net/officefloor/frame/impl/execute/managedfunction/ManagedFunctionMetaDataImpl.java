@@ -31,6 +31,7 @@ import net.officefloor.frame.api.function.ManagedFunctionContext;
 import net.officefloor.frame.api.function.ManagedFunctionFactory;
 import net.officefloor.frame.api.governance.Governance;
 import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.internal.structure.AssetManager;
 import net.officefloor.frame.internal.structure.EscalationProcedure;
@@ -116,6 +117,11 @@ public class ManagedFunctionMetaDataImpl<O extends Enum<O>, F extends Enum<F>>
 	 */
 	private final Executor executor;
 
+	/**
+	 * {@link LatencyHistogram} of execution.
+	 */
+	private final LatencyHistogram executionLatency = new LatencyHistogram();
+
 	/**
 	 * {@link OfficeMetaData}.
 	 */
@@ -328,6 +334,11 @@ public class ManagedFunctionMetaDataImpl<O extends Enum<O>, F extends Enum<F>>
 		return this.officeMetaData;
 	}
 
+	@Override
+	public LatencyHistogram getExecutionLatency() {
+		return this.executionLatency;
+	}
+
 	@Override
 	public ManagedFunctionMetaData<?, ?> getNextManagedFunctionMetaData() {
 		return this.nextFunctionMetaData;
@@ -42,6 +42,7 @@ import net.officefloor.frame.api.managedobject.ProcessSafeOperation;
 import net.officefloor.frame.api.managedobject.pool.ManagedObjectPool;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectUser;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.impl.execute.function.AbstractDelegateFunctionState;
 import net.officefloor.frame.impl.execute.function.Promise;
 import net.officefloor.frame.impl.execute.linkedlistset.AbstractLinkedListSetEntry;
@@ -599,8 +600,21 @@ public class ManagedObjectContainerImpl implements ManagedObjectContainer, Asset
 	 */
 	private class ManagedObjectUserImpl implements ManagedObjectUser {
 
+		/**
+		 * Time in nanoseconds that started sourcing the {@link ManagedObject}.
+		 */
+		private final long sourceStartTime = System.nanoTime();
+
 		@Override
 		public void setManagedObject(final ManagedObject managedObject) {
+
+			// Record latency of sourcing the managed object
+			LatencyHistogram sourcingLatency = ManagedObjectContainerImpl.this.metaData.getSourcingLatency();
+			if (sourcingLatency != null) {
+				sourcingLatency.record(System.nanoTime() - this.sourceStartTime);
+			}
+
+			// Load the managed object
 			ManagedObjectOperation setManagedObject = new ManagedObjectOperation() {
 				@Override
 				public FunctionState execute(FunctionStateContext context) {
@@ -31,6 +31,7 @@ import net.officefloor.frame.api.managedobject.ManagedObject;
 import net.officefloor.frame.api.managedobject.ObjectRegistry;
 import net.officefloor.frame.api.managedobject.pool.ManagedObjectPool;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.api.team.Job;
 import net.officefloor.frame.impl.execute.function.Promise;
 import net.officefloor.frame.impl.execute.linkedlistset.AbstractLinkedListSetEntry;
@@ -142,6 +143,11 @@ public class ManagedObjectMetaDataImpl<O extends Enum<O>> implements ManagedObje
 	 */
 	private final Logger logger;
 
+	/**
+	 * {@link LatencyHistogram} of sourcing the {@link ManagedObject}.
+	 */
+	private final LatencyHistogram sourcingLatency;
+
 	/**
 	 * {@link OfficeMetaData} containing this {@link ManagedObjectMetaData} to
 	 * create the {@link Job} instances.
@@ -199,12 +205,15 @@ public class ManagedObjectMetaDataImpl<O extends Enum<O>> implements ManagedObje
 	 *                                    {@link ManagedObject}.
 	 * @param logger                      {@link Logger} for the
 	 *                                    {@link ManagedObject}.
+	 * @param sourcingLatency             {@link LatencyHistogram} of sourcing
+	 *                                    from the {@link ManagedObjectSource}.
 	 */
 	public ManagedObjectMetaDataImpl(String boundManagedObjectName, Class<?> objectType, int instanceIndex,
 			ManagedObjectSource<?, ?> source, ManagedObjectPool pool, boolean isContextAwareManagedObject,
 			AssetManager sourcingManager, boolean isManagedObjectAsynchronous, AssetManager operationsManager,
 			boolean isCoordinatingManagedObject, ManagedObjectIndex[] dependencyMapping, long timeout,
-			ManagedObjectGovernanceMetaData<?>[] governanceMetaData, Logger logger) {
+			ManagedObjectGovernanceMetaData<?>[] governanceMetaData, Logger logger,
+			LatencyHistogram sourcingLatency) {
 		this.boundManagedObjectName = boundManagedObjectName;
 		this.objectType = objectType;
 		this.instanceIndex = instanceIndex;
@@ -219,6 +228,7 @@ public class ManagedObjectMetaDataImpl<O extends Enum<O>> implements ManagedObje
 		this.operationsManager = operationsManager;
 		this.governanceMetaData = governanceMetaData;
 		this.logger = logger;
+		this.sourcingLatency = sourcingLatency;
 	}
 
 	/**
@@ -280,6 +290,11 @@ public class ManagedObjectMetaDataImpl<O extends Enum<O>> implements ManagedObje
 		return this.pool;
 	}
 
+	@Override
+	public LatencyHistogram getSourcingLatency() {
+		return this.sourcingLatency;
+	}
+
 	@Override
 	public ManagedObjectStartupFunction[] getStartupFunctions() {
 		return this.startupFunctions;
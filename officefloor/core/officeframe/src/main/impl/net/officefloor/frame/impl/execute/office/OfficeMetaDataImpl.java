@@ -22,8 +22,6 @@
 package net.officefloor.frame.impl.execute.office;
 
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.Executor;
 
 import net.officefloor.frame.api.executive.Executive;
@@ -48,6 +46,7 @@ import net.officefloor.frame.internal.structure.ManagedObjectMetaData;
 import net.officefloor.frame.internal.structure.MonitorClock;
 import net.officefloor.frame.internal.structure.OfficeManager;
 import net.officefloor.frame.internal.structure.OfficeMetaData;
+import net.officefloor.frame.internal.structure.OfficeScheduler;
 import net.officefloor.frame.internal.structure.OfficeStartupFunction;
 import net.officefloor.frame.internal.structure.ProcessMetaData;
 import net.officefloor.frame.internal.structure.ProcessState;
@@ -77,9 +76,9 @@ public class OfficeMetaDataImpl implements OfficeMetaData {
 	private final MonitorClock monitorClock;
 
 	/**
-	 * {@link Timer} for the {@link Office}.
+	 * {@link OfficeScheduler} for the {@link Office}.
 	 */
-	private final Timer timer;
+	private final OfficeScheduler scheduler;
 
 	/**
 	 * {@link FunctionLoop}.
@@ -151,7 +150,8 @@ public class OfficeMetaDataImpl implements OfficeMetaData {
 	 * @param officeName                     Name of the {@link Office}.
 	 * @param officeManager                  {@link OfficeManager}.
 	 * @param monitorClock                   {@link MonitorClock}.
-	 * @param timer                          {@link Timer} for the {@link Office}.
+	 * @param scheduler                      {@link OfficeScheduler} for the
+	 *                                       {@link Office}.
 	 * @param functionLoop                   {@link FunctionLoop}.
 	 * @param breakChainExecutor             {@link Executor} to break the thread
 	 *                                       stack execution chain.
@@ -175,16 +175,17 @@ public class OfficeMetaDataImpl implements OfficeMetaData {
 	 *                                       instances.
 	 * @param profiler                       {@link Profiler}.
 	 */
-	public OfficeMetaDataImpl(String officeName, OfficeManager officeManager, MonitorClock monitorClock, Timer timer,
-			FunctionLoop functionLoop, Executor breakChainExecutor, ThreadLocalAwareExecutor threadLocalAwareExecutor,
-			Executive executive, ManagedExecutionFactory managedExecutionFactory,
+	public OfficeMetaDataImpl(String officeName, OfficeManager officeManager, MonitorClock monitorClock,
+			OfficeScheduler scheduler, FunctionLoop functionLoop, Executor breakChainExecutor,
+			ThreadLocalAwareExecutor threadLocalAwareExecutor, Executive executive,
+			ManagedExecutionFactory managedExecutionFactory,
 			ManagedFunctionMetaData<?, ?>[] functionMetaDatas, ManagedFunctionLocator functionLocator,
 			ProcessMetaData processMetaData, ManagedFunctionMetaData<?, ?> stateKeepAliveFunctionMetaData,
 			Map<String, ManagedFunctionMetaData<?, ?>> loadObjectMetaDatas, OfficeStartupFunction[] startupFunctions,
 			Profiler profiler) {
 		this.officeName = officeName;
 		this.monitorClock = monitorClock;
-		this.timer = timer;
+		this.scheduler = scheduler;
 		this.functionLoop = functionLoop;
 		this.breakChainExecutor = breakChainExecutor;
 		this.threadLocalAwareExecutor = threadLocalAwareExecutor;
@@ -308,20 +309,14 @@ public class OfficeMetaDataImpl implements OfficeMetaData {
 		if (delay > 0) {
 
 			// Delay execution of the process
-			this.timer.schedule(new TimerTask() {
-				@Override
-				public void run() {
+			this.scheduler.schedule(() -> {
 
-					// Easy access to office meta-data
-					OfficeMetaDataImpl officeMetaData = OfficeMetaDataImpl.this;
+				// Must execute on another thread (not hold up scheduler thread)
+				this.breakChainExecutor.execute(() -> {
 
-					// Must execute on another thread (not hold up timer thread)
-					officeMetaData.breakChainExecutor.execute(() -> {
-
-						// Execute the process
-						officeMetaData.executeFunction(function);
-					});
-				}
+					// Execute the process
+					this.executeFunction(function);
+				});
 			}, delay);
 
 		} else {
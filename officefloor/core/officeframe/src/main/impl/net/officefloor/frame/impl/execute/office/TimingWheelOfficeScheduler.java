@@ -0,0 +1,576 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.impl.execute.office;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.officefloor.frame.api.manage.Office;
+import net.officefloor.frame.impl.execute.officefloor.OfficeFloorImpl;
+import net.officefloor.frame.internal.structure.OfficeScheduler;
+
+/**
+ * <p>
+ * {@link OfficeScheduler} backed by a hierarchical timing wheel.
+ * <p>
+ * Scheduling and cancelling are O(1) and lock-free. Scheduled tasks are queued
+ * to the single wheel {@link Thread}, which places them within the wheel.
+ * Cancelled tasks are flagged and discarded on reaching their slot. On each
+ * tick, the expired tasks are run as a batch.
+ * <p>
+ * The wheel {@link Thread} is only started on first scheduling and parks until
+ * the next occupied slot (rather than waking each tick).
+ *
+ * @author Daniel Sagenschneider
+ */
+public class TimingWheelOfficeScheduler implements OfficeScheduler {
+
+	/**
+	 * {@link Logger} for failures of scheduled tasks.
+	 */
+	private static final Logger LOGGER = OfficeFloorImpl.getFrameworkLogger();
+
+	/**
+	 * Number of bits for indexing a slot within a wheel.
+	 */
+	private static final int WHEEL_BITS = 8;
+
+	/**
+	 * Number of slots within a wheel.
+	 */
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+	/**
+	 * Mask to obtain the slot within a wheel.
+	 */
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	/**
+	 * Number of wheels in the hierarchy.
+	 */
+	private static final int WHEEL_LEVELS = 4;
+
+	/**
+	 * Maximum number of ticks covered by the wheels.
+	 */
+	private static final long MAX_TICKS = 1L << (WHEEL_BITS * WHEEL_LEVELS);
+
+	/**
+	 * Indicates to park until a task is scheduled.
+	 */
+	private static final long NO_WAKE_TICK = Long.MAX_VALUE;
+
+	/**
+	 * {@link TimerEntry} is scheduled.
+	 */
+	private static final int SCHEDULED = 0;
+
+	/**
+	 * {@link TimerEntry} has run (or cancelled).
+	 */
+	private static final int COMPLETE = 1;
+
+	/**
+	 * Name of the wheel {@link Thread}.
+	 */
+	private final String threadName;
+
+	/**
+	 * Duration of a tick in nanoseconds.
+	 */
+	private final long tickNanos;
+
+	/**
+	 * Start time in nanoseconds (time of tick 0).
+	 */
+	private final long startNanos = System.nanoTime();
+
+	/**
+	 * Newly scheduled {@link TimerEntry} instances to be placed in the wheel.
+	 */
+	private final ConcurrentLinkedQueue<TimerEntry> pending = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Slots of the wheels. Each slot is the head of a linked list of
+	 * {@link TimerEntry} instances. Only accessed by the wheel {@link Thread}.
+	 */
+	private final TimerEntry[][] wheels = new TimerEntry[WHEEL_LEVELS][WHEEL_SIZE];
+
+	/**
+	 * Expired {@link TimerEntry} instances to run. Only accessed by the wheel
+	 * {@link Thread}.
+	 */
+	private final List<TimerEntry> expired = new ArrayList<>();
+
+	/**
+	 * Current tick of the wheel. Only accessed by the wheel {@link Thread}.
+	 */
+	private long currentTick = 0;
+
+	/**
+	 * Number of {@link TimerEntry} instances within the wheels. Only accessed by
+	 * the wheel {@link Thread}.
+	 */
+	private int wheelEntryCount = 0;
+
+	/**
+	 * Tick the wheel {@link Thread} is parked until. Less than the current tick
+	 * while the wheel {@link Thread} is active.
+	 */
+	private volatile long wakeTick = -1;
+
+	/**
+	 * Wheel {@link Thread}. Lazily started.
+	 */
+	private volatile Thread thread = null;
+
+	/**
+	 * Indicates if shutdown.
+	 */
+	private volatile boolean isShutdown = false;
+
+	/**
+	 * Instantiate with a millisecond tick.
+	 * 
+	 * @param threadName Name of the wheel {@link Thread}.
+	 */
+	public TimingWheelOfficeScheduler(String threadName) {
+		this(threadName, 1);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param threadName         Name of the wheel {@link Thread}.
+	 * @param tickDurationMillis Duration of a tick in milliseconds. This is the
+	 *                           accuracy of running the tasks.
+	 */
+	public TimingWheelOfficeScheduler(String threadName, long tickDurationMillis) {
+		this.threadName = threadName;
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickDurationMillis));
+	}
+
+	/**
+	 * Obtains the tick for the time.
+	 * 
+	 * @param nanos Time in nanoseconds.
+	 * @return Tick for the time (rounded up so never run early).
+	 */
+	private long getTick(long nanos) {
+		long elapsed = nanos - this.startNanos;
+		return (elapsed + this.tickNanos - 1) / this.tickNanos;
+	}
+
+	/**
+	 * Obtains the number of ticks for the period.
+	 * 
+	 * @param millis Period in milliseconds.
+	 * @return Number of ticks (at least one).
+	 */
+	private long getTicks(long millis) {
+		long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+		return Math.max(1, (nanos + this.tickNanos - 1) / this.tickNanos);
+	}
+
+	/**
+	 * Schedules the {@link TimerEntry}.
+	 * 
+	 * @param task   Task.
+	 * @param delay  Delay in milliseconds.
+	 * @param period Period in milliseconds. <code>0</code> to run only once.
+	 * @return {@link TimerEntry}.
+	 */
+	private TimerEntry scheduleEntry(Runnable task, long delay, long period) {
+
+		// Ensure not shutdown
+		if (this.isShutdown) {
+			throw new IllegalStateException(OfficeScheduler.class.getSimpleName() + " for " + Office.class.getSimpleName()
+					+ " already shutdown");
+		}
+
+		// Queue the entry for the wheel
+		long deadlineTick = this.getTick(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay)));
+		long periodTicks = (period > 0) ? this.getTicks(period) : 0;
+		TimerEntry entry = new TimerEntry(task, deadlineTick, periodTicks);
+		this.pending.add(entry);
+
+		// Ensure wheel thread running
+		Thread wheelThread = this.thread;
+		if (wheelThread == null) {
+			wheelThread = this.startThread();
+		}
+
+		// Wake wheel thread if parked until after deadline
+		if (deadlineTick < this.wakeTick) {
+			LockSupport.unpark(wheelThread);
+		}
+
+		// Return the entry
+		return entry;
+	}
+
+	/**
+	 * Starts the wheel {@link Thread}.
+	 * 
+	 * @return Wheel {@link Thread}.
+	 */
+	private synchronized Thread startThread() {
+		if (this.thread == null) {
+			Thread wheelThread = new Thread(() -> this.runWheel(), this.threadName);
+			wheelThread.setDaemon(true);
+			this.thread = wheelThread;
+			wheelThread.start();
+		}
+		return this.thread;
+	}
+
+	/**
+	 * Runs the wheel.
+	 */
+	private void runWheel() {
+		while (!this.isShutdown) {
+
+			// Flag active (so schedulers need not wake this thread)
+			this.wakeTick = -1;
+
+			// Determine the current tick
+			long nowTick = this.getTick(System.nanoTime());
+
+			// Fast forward if nothing scheduled
+			if (this.wheelEntryCount == 0) {
+				this.currentTick = Math.max(this.currentTick, nowTick - 1);
+			}
+
+			// Place the newly scheduled entries
+			TimerEntry entry;
+			while ((entry = this.pending.poll()) != null) {
+				this.place(entry);
+			}
+
+			// Advance the wheel to the current tick
+			while (this.currentTick < nowTick) {
+				this.advance();
+			}
+
+			// Run the expired entries
+			this.runExpired();
+
+			// Determine tick to next wake
+			long nextTick = this.getNextWakeTick();
+
+			// Flag to park (ensuring not miss newly scheduled entries)
+			this.wakeTick = nextTick;
+			if ((!this.pending.isEmpty()) || (this.isShutdown)) {
+				continue;
+			}
+
+			// Park until next tick
+			if (nextTick == NO_WAKE_TICK) {
+				LockSupport.park(this);
+			} else {
+				long parkNanos = this.startNanos + (nextTick * this.tickNanos) - System.nanoTime();
+				if (parkNanos > 0) {
+					LockSupport.parkNanos(this, parkNanos);
+				}
+			}
+		}
+
+		// Shutdown, so discard all entries
+		this.pending.clear();
+		for (int level = 0; level < WHEEL_LEVELS; level++) {
+			for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+				this.wheels[level][slot] = null;
+			}
+		}
+		this.wheelEntryCount = 0;
+	}
+
+	/**
+	 * Places the {@link TimerEntry} within the wheels (or expired if due).
+	 * 
+	 * @param entry {@link TimerEntry}.
+	 */
+	private void place(TimerEntry entry) {
+
+		// Ignore if cancelled
+		if (entry.state != SCHEDULED) {
+			return;
+		}
+
+		// Determine if expired
+		long ticks = entry.deadlineTick - this.currentTick;
+		if (ticks <= 0) {
+			this.expired.add(entry);
+			return;
+		}
+
+		// Determine the wheel for the entry
+		int level = 0;
+		long slotTick = entry.deadlineTick;
+		if (ticks >= MAX_TICKS) {
+			// Beyond wheels, so place furthest (re-placed on reaching)
+			level = WHEEL_LEVELS - 1;
+			slotTick = this.currentTick + MAX_TICKS - 1;
+		} else {
+			while (ticks >= (1L << (WHEEL_BITS * (level + 1)))) {
+				level++;
+			}
+		}
+		int slot = (int) ((slotTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+
+		// Place the entry
+		entry.next = this.wheels[level][slot];
+		this.wheels[level][slot] = entry;
+		this.wheelEntryCount++;
+	}
+
+	/**
+	 * Advances the wheel by a tick.
+	 */
+	private void advance() {
+
+		// Increment the tick
+		long tick = ++this.currentTick;
+
+		// Determine the highest wheel to cascade
+		int cascadeLevel = 0;
+		while ((cascadeLevel + 1 < WHEEL_LEVELS)
+				&& ((tick & ((1L << (WHEEL_BITS * (cascadeLevel + 1))) - 1)) == 0)) {
+			cascadeLevel++;
+		}
+
+		// Cascade from highest wheel down (so lower wheels include entries)
+		for (int level = cascadeLevel; level > 0; level--) {
+			int slot = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+			TimerEntry entry = this.takeSlot(level, slot);
+			while (entry != null) {
+				TimerEntry next = entry.next;
+				entry.next = null;
+				this.place(entry);
+				entry = next;
+			}
+		}
+
+		// Expire the entries of the current slot
+		TimerEntry entry = this.takeSlot(0, (int) (tick & WHEEL_MASK));
+		while (entry != null) {
+			TimerEntry next = entry.next;
+			entry.next = null;
+			if (entry.state == SCHEDULED) {
+				this.expired.add(entry);
+			}
+			entry = next;
+		}
+	}
+
+	/**
+	 * Takes the {@link TimerEntry} instances of the slot.
+	 * 
+	 * @param level Level of the wheel.
+	 * @param slot  Slot within the wheel.
+	 * @return Head {@link TimerEntry} of the slot. May be <code>null</code>.
+	 */
+	private TimerEntry takeSlot(int level, int slot) {
+		TimerEntry head = this.wheels[level][slot];
+		if (head != null) {
+			this.wheels[level][slot] = null;
+			for (TimerEntry entry = head; entry != null; entry = entry.next) {
+				this.wheelEntryCount--;
+			}
+		}
+		return head;
+	}
+
+	/**
+	 * Runs the batch of expired {@link TimerEntry} instances.
+	 */
+	private void runExpired() {
+		for (int i = 0; i < this.expired.size(); i++) {
+			TimerEntry entry = this.expired.get(i);
+
+			// Determine if repeating
+			if (entry.periodTicks == 0) {
+
+				// Run only once (unless cancelled)
+				if (entry.complete()) {
+					this.runTask(entry.task);
+				}
+
+			} else if (entry.state == SCHEDULED) {
+
+				// Run and schedule next run (skipping any missed runs)
+				this.runTask(entry.task);
+				do {
+					entry.deadlineTick += entry.periodTicks;
+				} while (entry.deadlineTick <= this.currentTick);
+				this.place(entry);
+			}
+		}
+		this.expired.clear();
+	}
+
+	/**
+	 * Runs the task.
+	 * 
+	 * @param task Task.
+	 */
+	private void runTask(Runnable task) {
+		try {
+			task.run();
+		} catch (Error ex) {
+			// Log and propagate (as likely unrecoverable)
+			LOGGER.log(Level.SEVERE, "Failed to run scheduled task", ex);
+			throw ex;
+		} catch (Throwable ex) {
+			// Log failure, so continue running further tasks
+			LOGGER.log(Level.SEVERE, "Failed to run scheduled task", ex);
+		}
+	}
+
+	/**
+	 * Obtains the tick to next wake the wheel {@link Thread}.
+	 * 
+	 * @return Tick to next wake the wheel {@link Thread}.
+	 */
+	private long getNextWakeTick() {
+
+		// Park until scheduled if nothing in wheels
+		if (this.wheelEntryCount == 0) {
+			return NO_WAKE_TICK;
+		}
+
+		// Find next occupied slot before lowest wheel completes rotation
+		long rotationTick = (this.currentTick | WHEEL_MASK) + 1;
+		for (long tick = this.currentTick + 1; tick < rotationTick; tick++) {
+			if (this.wheels[0][(int) (tick & WHEEL_MASK)] != null) {
+				return tick;
+			}
+		}
+
+		// Wake on rotation to cascade higher wheels
+		return rotationTick;
+	}
+
+	/*
+	 * ===================== OfficeScheduler =====================
+	 */
+
+	@Override
+	public ScheduledTask schedule(Runnable task, long delay) {
+		return this.scheduleEntry(task, delay, 0);
+	}
+
+	@Override
+	public ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+		if (period <= 0) {
+			throw new IllegalArgumentException("Non-positive period");
+		}
+		return this.scheduleEntry(task, initialDelay, period);
+	}
+
+	@Override
+	public void shutdown() {
+		this.isShutdown = true;
+		Thread wheelThread = this.thread;
+		if (wheelThread != null) {
+			LockSupport.unpark(wheelThread);
+		}
+	}
+
+	/**
+	 * Entry within the timing wheel.
+	 */
+	private static class TimerEntry implements ScheduledTask {
+
+		/**
+		 * {@link AtomicIntegerFieldUpdater} for the state.
+		 */
+		private static final AtomicIntegerFieldUpdater<TimerEntry> STATE = AtomicIntegerFieldUpdater
+				.newUpdater(TimerEntry.class, "state");
+
+		/**
+		 * Task.
+		 */
+		private final Runnable task;
+
+		/**
+		 * Number of ticks between repeated runs. <code>0</code> to only run once.
+		 */
+		private final long periodTicks;
+
+		/**
+		 * Tick to run the task. Only accessed by the wheel {@link Thread} once
+		 * scheduled.
+		 */
+		private long deadlineTick;
+
+		/**
+		 * Next {@link TimerEntry} within the slot.
+		 */
+		private TimerEntry next = null;
+
+		/**
+		 * State of this {@link TimerEntry}.
+		 */
+		private volatile int state = SCHEDULED;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param task         Task.
+		 * @param deadlineTick Tick to run the task.
+		 * @param periodTicks  Number of ticks between repeated runs. <code>0</code>
+		 *                     to only run once.
+		 */
+		private TimerEntry(Runnable task, long deadlineTick, long periodTicks) {
+			this.task = task;
+			this.deadlineTick = deadlineTick;
+			this.periodTicks = periodTicks;
+		}
+
+		/**
+		 * Flags this {@link TimerEntry} complete.
+		 * 
+		 * @return <code>true</code> if completed. <code>false</code> if already
+		 *         complete (or cancelled).
+		 */
+		private boolean complete() {
+			return STATE.compareAndSet(this, SCHEDULED, COMPLETE);
+		}
+
+		/*
+		 * ==================== ScheduledTask =====================
+		 */
+
+		@Override
+		public boolean cancel() {
+			return this.complete();
+		}
+	}
+
+}
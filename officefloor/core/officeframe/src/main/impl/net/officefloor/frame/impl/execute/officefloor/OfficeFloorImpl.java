@@ -42,6 +42,7 @@ import net.officefloor.frame.api.manage.UnknownOfficeException;
 import net.officefloor.frame.api.managedobject.pool.ManagedObjectPool;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectService;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.metric.OfficeFloorMetrics;
 import net.officefloor.frame.api.team.Job;
 import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.impl.execute.office.OfficeImpl;
@@ -104,6 +105,11 @@ public class OfficeFloorImpl implements OfficeFloor {
 	 */
 	private final Object startupNotify;
 
+	/**
+	 * {@link OfficeFloorMetrics}.
+	 */
+	private final OfficeFloorMetrics metrics;
+
 	/**
 	 * {@link Office} instances by their name.
 	 */
@@ -123,14 +129,16 @@ public class OfficeFloorImpl implements OfficeFloor {
 	 * @param breakChainExecutor  {@link Executor} to break the thread stack
 	 *                            execution chain.
 	 * @param startupNotify       Object to be notified about start up completions.
+	 * @param metrics             {@link OfficeFloorMetrics}.
 	 */
 	public OfficeFloorImpl(OfficeFloorMetaData officeFloorMetaData, OfficeFloorListener[] listeners,
-			Executive executive, Executor breakChainExecutor, Object startupNotify) {
+			Executive executive, Executor breakChainExecutor, Object startupNotify, OfficeFloorMetrics metrics) {
 		this.officeFloorMetaData = officeFloorMetaData;
 		this.listeners = listeners;
 		this.executive = executive;
 		this.breakChainExecutor = breakChainExecutor;
 		this.startupNotify = startupNotify;
+		this.metrics = metrics;
 	}
 
 	/*
@@ -543,6 +551,11 @@ public class OfficeFloorImpl implements OfficeFloor {
 		return office;
 	}
 
+	@Override
+	public OfficeFloorMetrics getMetrics() {
+		return this.metrics;
+	}
+
 	/**
 	 * Ensures open.
 	 * 
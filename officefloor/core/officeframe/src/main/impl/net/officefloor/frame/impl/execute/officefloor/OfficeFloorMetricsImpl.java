@@ -0,0 +1,121 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.impl.execute.officefloor;
+
+import java.util.Map;
+
+import net.officefloor.frame.api.manage.UnknownFunctionException;
+import net.officefloor.frame.api.manage.UnknownOfficeException;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.metric.LatencyHistogram;
+import net.officefloor.frame.api.metric.OfficeFloorMetrics;
+import net.officefloor.frame.api.team.Team;
+import net.officefloor.frame.internal.structure.ManagedFunctionMetaData;
+import net.officefloor.frame.internal.structure.OfficeMetaData;
+
+/**
+ * {@link OfficeFloorMetrics} implementation.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class OfficeFloorMetricsImpl implements OfficeFloorMetrics {
+
+	/**
+	 * {@link OfficeMetaData} instances.
+	 */
+	private final OfficeMetaData[] officeMetaData;
+
+	/**
+	 * {@link LatencyHistogram} of queue wait by {@link Team} name.
+	 */
+	private final Map<String, LatencyHistogram> teamQueueWaitLatencies;
+
+	/**
+	 * {@link LatencyHistogram} of sourcing by {@link ManagedObjectSource} name.
+	 */
+	private final Map<String, LatencyHistogram> managedObjectSourcingLatencies;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param officeMetaData                 {@link OfficeMetaData} instances.
+	 * @param teamQueueWaitLatencies         {@link LatencyHistogram} of queue
+	 *                                       wait by {@link Team} name.
+	 * @param managedObjectSourcingLatencies {@link LatencyHistogram} of sourcing
+	 *                                       by {@link ManagedObjectSource} name.
+	 */
+	public OfficeFloorMetricsImpl(OfficeMetaData[] officeMetaData, Map<String, LatencyHistogram> teamQueueWaitLatencies,
+			Map<String, LatencyHistogram> managedObjectSourcingLatencies) {
+		this.officeMetaData = officeMetaData;
+		this.teamQueueWaitLatencies = teamQueueWaitLatencies;
+		this.managedObjectSourcingLatencies = managedObjectSourcingLatencies;
+	}
+
+	/*
+	 * ===================== OfficeFloorMetrics ========================
+	 */
+
+	@Override
+	public LatencyHistogram getManagedFunctionLatency(String officeName, String functionName)
+			throws UnknownOfficeException, UnknownFunctionException {
+
+		// Find the office
+		for (OfficeMetaData office : this.officeMetaData) {
+			if (office.getOfficeName().equals(officeName)) {
+
+				// Find the managed function
+				for (ManagedFunctionMetaData<?, ?> function : office.getManagedFunctionMetaData()) {
+					if (function.getFunctionName().equals(functionName)) {
+						return function.getExecutionLatency();
+					}
+				}
+
+				// As here, unknown function
+				throw new UnknownFunctionException(functionName);
+			}
+		}
+
+		// As here, unknown office
+		throw new UnknownOfficeException(officeName);
+	}
+
+	@Override
+	public String[] getTeamNames() {
+		return this.teamQueueWaitLatencies.keySet().toArray(new String[0]);
+	}
+
+	@Override
+	public LatencyHistogram getTeamQueueWaitLatency(String teamName) {
+		return this.teamQueueWaitLatencies.get(teamName);
+	}
+
+	@Override
+	public String[] getManagedObjectSourceNames() {
+		return this.managedObjectSourcingLatencies.keySet().toArray(new String[0]);
+	}
+
+	@Override
+	public LatencyHistogram getManagedObjectSourcingLatency(String managedObjectSourceName) {
+		return this.managedObjectSourcingLatencies.get(managedObjectSourceName);
+	}
+
+}
@@ -191,7 +191,7 @@ public class ProcessStateImpl implements ProcessState {
 		this.processIdentifier = this.processMetaData.createProcessIdentifier();
 
 		// Create the process profiler (if profiling)
-		this.processProfiler = (profiler == null ? null
+		this.processProfiler = ((profiler == null) || (!profiler.isProfileProcessState()) ? null
 				: new ProcessProfilerImpl(profiler, this, System.currentTimeMillis(), System.nanoTime()));
 
 		// Create the main thread state
@@ -108,6 +108,20 @@ public class ProcessProfilerImpl implements ProcessProfiler, ProfiledProcessStat
 		this.threads.add(profiledThreadState);
 	}
 
+	/**
+	 * <p>
+	 * Releases the profile information for re-use.
+	 * <p>
+	 * Must only be invoked once the {@link ProcessState} is complete and the
+	 * profile information is no longer referenced.
+	 */
+	void release() {
+		for (ProfiledThreadState thread : this.threads) {
+			((ThreadProfilerImpl) thread).release();
+		}
+		this.threads.clear();
+	}
+
 	/*
 	 * ===================== ProcessProfiler ===========================
 	 */
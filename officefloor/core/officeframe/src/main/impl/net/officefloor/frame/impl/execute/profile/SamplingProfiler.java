@@ -0,0 +1,258 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package net.officefloor.frame.impl.execute.profile;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.officefloor.frame.api.profile.ProfiledProcessState;
+import net.officefloor.frame.api.profile.Profiler;
+import net.officefloor.frame.internal.structure.ProcessState;
+
+/**
+ * <p>
+ * {@link Profiler} that samples the {@link ProcessState} instances to profile,
+ * so that profiling may remain enabled in production.
+ * <p>
+ * A {@link ProcessState} is profiled if it is one in every sample rate or
+ * takes at least the latency threshold to complete. The profiles are collected
+ * into a reservoir (keeping a uniform sample should more profiles complete than
+ * the reservoir holds) that is handed off asynchronously to the delegate
+ * {@link Profiler}. This ensures completing the {@link ProcessState} never
+ * waits on the delegate {@link Profiler}.
+ * <p>
+ * Profile information of discarded {@link ProcessState} instances is re-used.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class SamplingProfiler implements Profiler {
+
+	/**
+	 * Delegate {@link Profiler}.
+	 */
+	private final Profiler delegate;
+
+	/**
+	 * Profile one in every this many {@link ProcessState} instances. Less than
+	 * <code>1</code> to not sample by rate.
+	 */
+	private final int sampleRate;
+
+	/**
+	 * Latency in nanoseconds at or above which the {@link ProcessState} is
+	 * profiled. Less than <code>1</code> to not sample by latency.
+	 */
+	private final long latencyThresholdNanoseconds;
+
+	/**
+	 * {@link Executor} to hand off profiles to the delegate {@link Profiler}.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Counter of {@link ProcessState} instances for sampling by rate.
+	 */
+	private final AtomicLong processCount = new AtomicLong(0);
+
+	/**
+	 * Reservoir of {@link ProcessProfilerImpl} instances awaiting hand off.
+	 */
+	private final ProcessProfilerImpl[] reservoir;
+
+	/**
+	 * Number of {@link ProcessProfilerImpl} instances within the reservoir.
+	 */
+	private int reservoirSize = 0;
+
+	/**
+	 * Number of profiles offered to the reservoir since last hand off.
+	 */
+	private long offeredCount = 0;
+
+	/**
+	 * Indicates if hand off to the delegate {@link Profiler} is scheduled.
+	 */
+	private boolean isHandOffScheduled = false;
+
+	/**
+	 * Instantiate handing off profiles with the {@link ForkJoinPool#commonPool()}.
+	 * 
+	 * @param delegate                    Delegate {@link Profiler}.
+	 * @param sampleRate                  Profile one in every this many
+	 *                                    {@link ProcessState} instances. Less than
+	 *                                    <code>1</code> to not sample by rate.
+	 * @param latencyThresholdNanoseconds Latency in nanoseconds at or above which
+	 *                                    the {@link ProcessState} is profiled.
+	 *                                    Less than <code>1</code> to not sample by
+	 *                                    latency.
+	 * @param reservoirCapacity           Maximum number of profiles held awaiting
+	 *                                    hand off.
+	 */
+	public SamplingProfiler(Profiler delegate, int sampleRate, long latencyThresholdNanoseconds,
+			int reservoirCapacity) {
+		this(delegate, sampleRate, latencyThresholdNanoseconds, reservoirCapacity, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param delegate                    Delegate {@link Profiler}.
+	 * @param sampleRate                  Profile one in every this many
+	 *                                    {@link ProcessState} instances. Less than
+	 *                                    <code>1</code> to not sample by rate.
+	 * @param latencyThresholdNanoseconds Latency in nanoseconds at or above which
+	 *                                    the {@link ProcessState} is profiled.
+	 *                                    Less than <code>1</code> to not sample by
+	 *                                    latency.
+	 * @param reservoirCapacity           Maximum number of profiles held awaiting
+	 *                                    hand off.
+	 * @param executor                    {@link Executor} to hand off profiles to
+	 *                                    the delegate {@link Profiler}.
+	 */
+	public SamplingProfiler(Profiler delegate, int sampleRate, long latencyThresholdNanoseconds,
+			int reservoirCapacity, Executor executor) {
+		if (reservoirCapacity < 1) {
+			throw new IllegalArgumentException("Reservoir capacity must be at least 1");
+		}
+		this.delegate = delegate;
+		this.sampleRate = sampleRate;
+		this.latencyThresholdNanoseconds = latencyThresholdNanoseconds;
+		this.reservoir = new ProcessProfilerImpl[reservoirCapacity];
+		this.executor = executor;
+	}
+
+	/**
+	 * Determines if sampled by rate.
+	 * 
+	 * @return <code>true</code> if sampled by rate.
+	 */
+	private boolean isSampledByRate() {
+		return (this.sampleRate > 0) && ((this.processCount.getAndIncrement() % this.sampleRate) == 0);
+	}
+
+	/**
+	 * Offers the profile to the reservoir.
+	 * 
+	 * @param profile {@link ProcessProfilerImpl}.
+	 */
+	private void offer(ProcessProfilerImpl profile) {
+
+		// Add to reservoir
+		ProcessProfilerImpl discarded = null;
+		boolean isScheduleHandOff = false;
+		synchronized (this.reservoir) {
+
+			// Load into reservoir (keeping uniform sample once full)
+			this.offeredCount++;
+			if (this.reservoirSize < this.reservoir.length) {
+				this.reservoir[this.reservoirSize++] = profile;
+			} else {
+				long index = ThreadLocalRandom.current().nextLong(this.offeredCount);
+				if (index < this.reservoir.length) {
+					discarded = this.reservoir[(int) index];
+					this.reservoir[(int) index] = profile;
+				} else {
+					discarded = profile;
+				}
+			}
+
+			// Determine if require scheduling hand off
+			if (!this.isHandOffScheduled) {
+				this.isHandOffScheduled = true;
+				isScheduleHandOff = true;
+			}
+		}
+
+		// Release the discarded profile
+		if (discarded != null) {
+			discarded.release();
+		}
+
+		// Schedule the hand off
+		if (isScheduleHandOff) {
+			this.executor.execute(this::handOff);
+		}
+	}
+
+	/**
+	 * Hands off the profiles in the reservoir to the delegate {@link Profiler}.
+	 */
+	private void handOff() {
+
+		// Take the profiles from the reservoir
+		ProcessProfilerImpl[] profiles;
+		synchronized (this.reservoir) {
+			profiles = new ProcessProfilerImpl[this.reservoirSize];
+			System.arraycopy(this.reservoir, 0, profiles, 0, this.reservoirSize);
+			for (int i = 0; i < this.reservoirSize; i++) {
+				this.reservoir[i] = null;
+			}
+			this.reservoirSize = 0;
+			this.offeredCount = 0;
+			this.isHandOffScheduled = false;
+		}
+
+		// Hand off the profiles
+		for (ProcessProfilerImpl profile : profiles) {
+			this.delegate.profileProcessState(profile);
+		}
+	}
+
+	/*
+	 * ======================= Profiler ===========================
+	 */
+
+	@Override
+	public boolean isProfileProcessState() {
+
+		// Must capture all if sampling by latency
+		if (this.latencyThresholdNanoseconds > 0) {
+			return true;
+		}
+
+		// Determine if sampled
+		return this.isSampledByRate();
+	}
+
+	@Override
+	public void profileProcessState(ProfiledProcessState process) {
+
+		// Determine if sampled
+		boolean isSampled;
+		if (this.latencyThresholdNanoseconds > 0) {
+			long latency = System.nanoTime() - process.getStartTimestampNanoseconds();
+			isSampled = (latency >= this.latencyThresholdNanoseconds) || this.isSampledByRate();
+		} else {
+			isSampled = true; // only captured if sampled by rate
+		}
+
+		// Offer sampled profile, otherwise release for re-use
+		ProcessProfilerImpl profile = (ProcessProfilerImpl) process;
+		if (isSampled) {
+			this.offer(profile);
+		} else {
+			profile.release();
+		}
+	}
+
+}
@@ -21,6 +21,7 @@
 
 package net.officefloor.frame.impl.execute.profile;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -44,6 +45,19 @@ import net.officefloor.frame.internal.structure.ThreadState;
 public class ThreadProfilerImpl extends AbstractLinkedListSetEntry<FunctionState, Flow>
 		implements ThreadProfiler, ProfiledThreadState {
 
+	/**
+	 * Maximum number of {@link ProfiledManagedFunctionImpl} instances pooled per
+	 * {@link Thread}.
+	 */
+	private static final int MAX_POOLED_FUNCTIONS = 1024;
+
+	/**
+	 * Pool of released {@link ProfiledManagedFunctionImpl} instances for the
+	 * {@link Thread}.
+	 */
+	private static final ThreadLocal<ArrayDeque<ProfiledManagedFunctionImpl>> functionPool = ThreadLocal
+			.withInitial(() -> new ArrayDeque<>());
+
 	/**
 	 * {@link ThreadState} being profiled.
 	 */
@@ -108,9 +122,28 @@ public class ThreadProfilerImpl extends AbstractLinkedListSetEntry<FunctionState
 		// Obtain the executing thread name
 		String executingThreadName = Thread.currentThread().getName();
 
-		// Create and add the profiled function
-		this.functions.add(new ProfiledManagedFunctionImpl(functionName, startTimestampMilliseconds,
-				startTimestampNanoseconds, executingThreadName));
+		// Obtain the profiled function (re-using released where available)
+		ProfiledManagedFunctionImpl function = functionPool.get().poll();
+		if (function == null) {
+			function = new ProfiledManagedFunctionImpl();
+		}
+
+		// Load and add the profiled function
+		function.load(functionName, startTimestampMilliseconds, startTimestampNanoseconds, executingThreadName);
+		this.functions.add(function);
+	}
+
+	/**
+	 * Releases the {@link ProfiledManagedFunction} instances for re-use.
+	 */
+	void release() {
+		ArrayDeque<ProfiledManagedFunctionImpl> pool = functionPool.get();
+		for (ProfiledManagedFunction function : this.functions) {
+			if (pool.size() < MAX_POOLED_FUNCTIONS) {
+				pool.add((ProfiledManagedFunctionImpl) function);
+			}
+		}
+		this.functions.clear();
 	}
 
 	/*
@@ -159,25 +192,25 @@ public class ThreadProfilerImpl extends AbstractLinkedListSetEntry<FunctionState
 		/**
 		 * {@link ManagedFunction} name.
 		 */
-		private final String functionName;
+		private String functionName;
 
 		/**
 		 * Start time stamp in milliseconds.
 		 */
-		private final long startTimestampMilliseconds;
+		private long startTimestampMilliseconds;
 
 		/**
 		 * Start time stamp in nanoseconds.
 		 */
-		private final long startTimestampNanoseconds;
+		private long startTimestampNanoseconds;
 
 		/**
 		 * Name of the executing {@link Thread}.
 		 */
-		private final String executingThreadName;
+		private String executingThreadName;
 
 		/**
-		 * Initiate.
+		 * Loads the profile information.
 		 * 
 		 * @param functionName
 		 *            {@link ManagedFunction} name.
@@ -185,9 +218,11 @@ public class ThreadProfilerImpl extends AbstractLinkedListSetEntry<FunctionState
 		 *            Start time stamp in milliseconds.
 		 * @param startTimestampNanoseconds
 		 *            Start time stamp in nanoseconds.
+		 * @param executingThreadName
+		 *            Name of the executing {@link Thread}.
 		 */
-		public ProfiledManagedFunctionImpl(String functionName, long startTimestampMilliseconds,
-				long startTimestampNanoseconds, String executingThreadName) {
+		private void load(String functionName, long startTimestampMilliseconds, long startTimestampNanoseconds,
+				String executingThreadName) {
 			this.functionName = functionName;
 			this.startTimestampMilliseconds = startTimestampMilliseconds;
 			this.startTimestampNanoseconds = startTimestampNanoseconds;
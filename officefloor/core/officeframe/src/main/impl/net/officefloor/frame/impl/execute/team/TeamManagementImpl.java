@@ -21,6 +21,8 @@
 
 package net.officefloor.frame.impl.execute.team;
 
+import net.officefloor.frame.api.metric.LatencyHistogram;
+import net.officefloor.frame.api.team.Job;
 import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.internal.structure.TeamManagement;
 
@@ -41,6 +43,11 @@ public class TeamManagementImpl implements TeamManagement {
 	 */
 	private final Team team;
 
+	/**
+	 * {@link LatencyHistogram} of {@link Job} instances waiting to be executed.
+	 */
+	private final LatencyHistogram queueWaitLatency = new LatencyHistogram();
+
 	/**
 	 * Initiate.
 	 * 
@@ -65,4 +72,9 @@ public class TeamManagementImpl implements TeamManagement {
 		return this.team;
 	}
 
+	@Override
+	public LatencyHistogram getQueueWaitLatency() {
+		return this.queueWaitLatency;
+	}
+
 }
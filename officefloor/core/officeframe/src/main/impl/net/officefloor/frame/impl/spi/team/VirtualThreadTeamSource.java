@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.impl.spi.team;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import net.officefloor.frame.api.team.Job;
+import net.officefloor.frame.api.team.Team;
+import net.officefloor.frame.api.team.source.TeamSource;
+import net.officefloor.frame.api.team.source.TeamSourceContext;
+import net.officefloor.frame.api.team.source.impl.AbstractTeamSource;
+import net.officefloor.frame.impl.execute.execution.ThreadFactoryManufacturer;
+import net.officefloor.frame.impl.execute.officefloor.OfficeFloorImpl;
+import net.officefloor.frame.impl.spi.team.AbstractExecutorTeamSource.ExecutorTeam;
+
+/**
+ * <p>
+ * {@link TeamSource} executing each {@link Job} on its own virtual
+ * {@link Thread}.
+ * <p>
+ * This allows many concurrent blocking {@link Job} instances (e.g. JDBC calls)
+ * without sizing the {@link Team}. Should the JVM not support virtual
+ * {@link Thread} instances, this falls back to a cached pool of platform
+ * {@link Thread} instances.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class VirtualThreadTeamSource extends AbstractTeamSource {
+
+	/**
+	 * Maximum time to wait in seconds for executing {@link Job} instances to
+	 * complete on stopping the {@link Team}.
+	 */
+	public static final String PROPERTY_SHUTDOWN_TIME_IN_SECONDS = AbstractExecutorTeamSource.PROPERTY_SHUTDOWN_TIME_IN_SECONDS;
+
+	/*
+	 * ==================== AbstractTeamSource ===============================
+	 */
+
+	@Override
+	protected void loadSpecification(SpecificationContext context) {
+		// No specification
+	}
+
+	@Override
+	public Team createTeam(TeamSourceContext context) throws Exception {
+
+		// Obtain the details of the team
+		String teamName = context.getTeamName();
+		int maxShutdownWaitTimeInSeconds = Integer
+				.valueOf(context.getProperty(PROPERTY_SHUTDOWN_TIME_IN_SECONDS, String.valueOf(10)));
+
+		// Determine if virtual threads available
+		if (!ThreadFactoryManufacturer.isVirtualThreadAvailable()) {
+
+			// Fall back to cached platform threads
+			OfficeFloorImpl.getFrameworkLogger().log(Level.INFO,
+					"Virtual threads not available, so team " + teamName + " using cached platform threads");
+			ThreadFactory threadFactory = context.getThreadFactory();
+			return new ExecutorTeam(teamName, () -> Executors.newCachedThreadPool(threadFactory),
+					maxShutdownWaitTimeInSeconds);
+		}
+
+		// Create and return the team
+		return new VirtualThreadTeam(teamName, context.getVirtualThreadFactory(), maxShutdownWaitTimeInSeconds);
+	}
+
+	/**
+	 * Virtual {@link Thread} per {@link Job} {@link Team}.
+	 */
+	private static class VirtualThreadTeam implements Team {
+
+		/**
+		 * Name of the {@link Team}.
+		 */
+		private final String teamName;
+
+		/**
+		 * {@link ThreadFactory} for the virtual {@link Thread} instances.
+		 */
+		private final ThreadFactory threadFactory;
+
+		/**
+		 * Maximum time in seconds to wait for shutdown.
+		 */
+		private final int maxShutdownWaitTimeInSeconds;
+
+		/**
+		 * Number of active {@link Job} instances.
+		 */
+		private final AtomicInteger activeJobs = new AtomicInteger(0);
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param teamName                     Name of the {@link Team}.
+		 * @param threadFactory                {@link ThreadFactory} for the virtual
+		 *                                     {@link Thread} instances.
+		 * @param maxShutdownWaitTimeInSeconds Maximum time in seconds to wait for
+		 *                                     shutdown.
+		 */
+		private VirtualThreadTeam(String teamName, ThreadFactory threadFactory, int maxShutdownWaitTimeInSeconds) {
+			this.teamName = teamName;
+			this.threadFactory = threadFactory;
+			this.maxShutdownWaitTimeInSeconds = maxShutdownWaitTimeInSeconds;
+		}
+
+		/*
+		 * ======================== Team ========================
+		 */
+
+		@Override
+		public void startWorking() {
+			// No initial workers as hired when required
+		}
+
+		@Override
+		public void assignJob(Job job) {
+
+			// Hire virtual worker to execute the job
+			this.activeJobs.incrementAndGet();
+			Thread thread = this.threadFactory.newThread(() -> {
+				try {
+					job.run();
+				} finally {
+					this.activeJobs.decrementAndGet();
+				}
+			});
+			thread.start();
+		}
+
+		@Override
+		public void stopWorking() {
+
+			// Wait some time for active jobs to complete
+			long endWaitTime = System.currentTimeMillis() + (this.maxShutdownWaitTimeInSeconds * 1000);
+			while (this.activeJobs.get() > 0) {
+
+				// Determine if still within time
+				if (System.currentTimeMillis() > endWaitTime) {
+					OfficeFloorImpl.getFrameworkLogger().log(Level.WARNING, "Team " + this.teamName
+							+ " failed to stop within " + this.maxShutdownWaitTimeInSeconds + " seconds");
+					return;
+				}
+
+				// Still within time, so wait a little
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException ex) {
+				}
+			}
+		}
+	}
+
+}
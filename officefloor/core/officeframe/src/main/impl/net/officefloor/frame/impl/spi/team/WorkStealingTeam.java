@@ -0,0 +1,617 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.impl.spi.team;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import net.officefloor.frame.api.team.Job;
+import net.officefloor.frame.api.team.Team;
+
+/**
+ * <p>
+ * {@link Team} of {@link Thread} instances that each own a lock-free
+ * {@link Job} deque and steal {@link Job} instances from each other when idle.
+ * <p>
+ * {@link Job} instances assigned by a {@link Thread} of this {@link Team} are
+ * pushed onto that {@link Thread}'s deque. All other {@link Job} instances are
+ * placed on a shared lock-free ring. Neither requires allocation per
+ * {@link Job}, avoiding the contended monitor of the {@link JobQueue}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WorkStealingTeam implements Team {
+
+	/**
+	 * Initial capacity of each {@link TeamMember} deque.
+	 */
+	private static final int INITIAL_DEQUE_CAPACITY = 256;
+
+	/**
+	 * {@link ThreadFactory}.
+	 */
+	private final ThreadFactory threadFactory;
+
+	/**
+	 * {@link TeamMember} instances.
+	 */
+	private final TeamMember[] teamMembers;
+
+	/**
+	 * {@link TeamMember} for the current {@link Thread}.
+	 */
+	private final ThreadLocal<TeamMember> currentTeamMember = new ThreadLocal<>();
+
+	/**
+	 * {@link JobRing} for {@link Job} instances assigned by {@link Thread}
+	 * instances outside this {@link Team}.
+	 */
+	private final JobRing sharedJobs;
+
+	/**
+	 * Overflow of {@link Job} instances should the {@link JobRing} be full.
+	 */
+	private final Queue<Job> overflowJobs = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Number of times to spin looking for a {@link Job} before parking.
+	 */
+	private final int spinCount;
+
+	/**
+	 * Time in nanoseconds to park waiting on a {@link Job}.
+	 */
+	private final long parkTime;
+
+	/**
+	 * Number of parked {@link TeamMember} instances.
+	 */
+	private final AtomicInteger parkedCount = new AtomicInteger(0);
+
+	/**
+	 * Index of next {@link TeamMember} to wake up.
+	 */
+	private final AtomicInteger wakeUpIndex = new AtomicInteger(0);
+
+	/**
+	 * Flag indicating to continue to work.
+	 */
+	private volatile boolean continueWorking = true;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param teamMemberCount Number of {@link TeamMember} instances within this
+	 *                        {@link WorkStealingTeam}.
+	 * @param threadFactory   {@link ThreadFactory}.
+	 * @param sharedQueueSize Size of the shared queue for {@link Job} instances
+	 *                        assigned from outside this {@link Team}. Rounded up
+	 *                        to a power of two.
+	 * @param spinCount       Number of times to spin looking for a {@link Job}
+	 *                        before parking.
+	 * @param waitTime        Time to wait in milliseconds parked before checking
+	 *                        again for a {@link Job}.
+	 */
+	public WorkStealingTeam(int teamMemberCount, ThreadFactory threadFactory, int sharedQueueSize, int spinCount,
+			long waitTime) {
+		this.threadFactory = threadFactory;
+		this.sharedJobs = new JobRing(sharedQueueSize);
+		this.spinCount = spinCount;
+		this.parkTime = TimeUnit.MILLISECONDS.toNanos(waitTime);
+
+		// Create the listing of Team Members
+		this.teamMembers = new TeamMember[teamMemberCount];
+		for (int i = 0; i < this.teamMembers.length; i++) {
+			this.teamMembers[i] = new TeamMember(i);
+		}
+	}
+
+	/**
+	 * Wakes up a parked {@link TeamMember} (if any).
+	 */
+	private void wakeUpTeamMember() {
+
+		// Determine if any parked team members
+		if (this.parkedCount.get() <= 0) {
+			return; // all team members active
+		}
+
+		// Wake up the next parked team member
+		int start = this.wakeUpIndex.getAndIncrement();
+		for (int i = 0; i < this.teamMembers.length; i++) {
+			TeamMember teamMember = this.teamMembers[Math.abs((start + i) % this.teamMembers.length)];
+			if (teamMember.isParked.compareAndSet(true, false)) {
+				this.parkedCount.decrementAndGet();
+				LockSupport.unpark(teamMember.thread);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Indicates if there are {@link Job} instances available.
+	 * 
+	 * @return <code>true</code> if {@link Job} instances available.
+	 */
+	private boolean isJobAvailable() {
+		if ((!this.sharedJobs.isEmpty()) || (!this.overflowJobs.isEmpty())) {
+			return true;
+		}
+		for (TeamMember teamMember : this.teamMembers) {
+			if (!teamMember.deque.isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * ====================== Team ==========================================
+	 */
+
+	@Override
+	public void startWorking() {
+
+		// Ensure indicate to continue working
+		this.continueWorking = true;
+
+		// Start the team members working
+		for (int i = 0; i < this.teamMembers.length; i++) {
+			TeamMember teamMember = this.teamMembers[i];
+			teamMember.isStarted = true;
+			teamMember.finished = false;
+			Thread thread = this.threadFactory.newThread(teamMember);
+			thread.start();
+		}
+	}
+
+	@Override
+	public void assignJob(Job job) {
+
+		// Determine if assigned by team member (keeping job local)
+		TeamMember teamMember = this.currentTeamMember.get();
+		if (teamMember != null) {
+			teamMember.deque.push(job);
+
+		} else if (!this.sharedJobs.offer(job)) {
+			// Shared jobs full, so overflow
+			this.overflowJobs.add(job);
+		}
+
+		// Wake up team member to undertake the job
+		this.wakeUpTeamMember();
+	}
+
+	@Override
+	public void stopWorking() {
+
+		// Flag team members to stop working
+		this.continueWorking = false;
+
+		// Stop the team workings
+		for (TeamMember teamMember : this.teamMembers) {
+
+			// Wait until team member is finished
+			while ((teamMember.isStarted) && (!teamMember.finished)) {
+
+				// Wake up team member
+				LockSupport.unpark(teamMember.thread);
+
+				// Allow team member to finish
+				Thread.yield();
+			}
+		}
+	}
+
+	/**
+	 * Team member of the {@link WorkStealingTeam}.
+	 */
+	private class TeamMember implements Runnable {
+
+		/**
+		 * Index of this {@link TeamMember} within the {@link Team}.
+		 */
+		private final int index;
+
+		/**
+		 * {@link JobDeque} of this {@link TeamMember}.
+		 */
+		private final JobDeque deque = new JobDeque(INITIAL_DEQUE_CAPACITY);
+
+		/**
+		 * Indicates if parked waiting on a {@link Job}.
+		 */
+		private final AtomicBoolean isParked = new AtomicBoolean(false);
+
+		/**
+		 * {@link Thread} of this {@link TeamMember}.
+		 */
+		private volatile Thread thread = null;
+
+		/**
+		 * Flag to indicate started.
+		 */
+		private volatile boolean isStarted = false;
+
+		/**
+		 * Flag to indicate finished.
+		 */
+		private volatile boolean finished = false;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param index Index of this {@link TeamMember} within the {@link Team}.
+		 */
+		private TeamMember(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * Obtains the next {@link Job}.
+		 * 
+		 * @return Next {@link Job} or <code>null</code> if no {@link Job} available.
+		 */
+		private Job nextJob() {
+
+			// Easy access to team
+			WorkStealingTeam team = WorkStealingTeam.this;
+
+			// Take latest job assigned by this team member
+			Job job = this.deque.pop();
+			if (job != null) {
+				return job;
+			}
+
+			// Take job assigned from outside the team
+			job = team.sharedJobs.poll();
+			if (job != null) {
+				return job;
+			}
+			job = team.overflowJobs.poll();
+			if (job != null) {
+				return job;
+			}
+
+			// Steal the oldest job from another team member
+			TeamMember[] teamMembers = team.teamMembers;
+			for (int i = 1; i < teamMembers.length; i++) {
+				job = teamMembers[(this.index + i) % teamMembers.length].deque.steal();
+				if (job != null) {
+					return job;
+				}
+			}
+
+			// As here, no job available
+			return null;
+		}
+
+		/*
+		 * ================== Runnable ======================================
+		 */
+
+		@Override
+		public void run() {
+
+			// Easy access to team
+			WorkStealingTeam team = WorkStealingTeam.this;
+
+			// Register the team member thread
+			this.thread = Thread.currentThread();
+			team.currentTeamMember.set(this);
+
+			try {
+				int spins = 0;
+				for (;;) {
+
+					// Obtain the next job to run
+					Job job = this.nextJob();
+					if (job != null) {
+
+						// Run the job
+						spins = 0;
+						job.run();
+						continue;
+					}
+
+					// No job, so check if continue working
+					if (!team.continueWorking) {
+						// Stop working
+						return;
+					}
+
+					// Spin a little looking for further jobs
+					if (spins < team.spinCount) {
+						spins++;
+						Thread.yield();
+						continue;
+					}
+
+					// Flag parked (before checking to not miss wake up)
+					this.isParked.set(true);
+					team.parkedCount.incrementAndGet();
+					if ((!team.isJobAvailable()) && (team.continueWorking)) {
+						LockSupport.parkNanos(this, team.parkTime);
+					}
+
+					// No longer parked (may already be cleared by waking)
+					if (this.isParked.compareAndSet(true, false)) {
+						team.parkedCount.decrementAndGet();
+					}
+					spins = 0;
+				}
+			} finally {
+				// Flag finished
+				team.currentTeamMember.remove();
+				this.finished = true;
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Lock-free deque of {@link Job} instances.
+	 * <p>
+	 * Only the owning {@link TeamMember} may {@link #push(Job)} and
+	 * {@link #pop()}, while other {@link TeamMember} instances may
+	 * {@link #steal()}.
+	 */
+	private static class JobDeque {
+
+		/**
+		 * Index of the oldest {@link Job}.
+		 */
+		private final AtomicLong top = new AtomicLong(0);
+
+		/**
+		 * Index after the newest {@link Job}.
+		 */
+		private volatile long bottom = 0;
+
+		/**
+		 * Circular array of {@link Job} instances.
+		 */
+		private volatile AtomicReferenceArray<Job> jobs;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param capacity Initial capacity. Must be a power of two.
+		 */
+		private JobDeque(int capacity) {
+			this.jobs = new AtomicReferenceArray<>(capacity);
+		}
+
+		/**
+		 * Indicates if empty.
+		 * 
+		 * @return <code>true</code> if empty.
+		 */
+		private boolean isEmpty() {
+			return this.top.get() >= this.bottom;
+		}
+
+		/**
+		 * Pushes the {@link Job}.
+		 * 
+		 * @param job {@link Job}.
+		 */
+		private void push(Job job) {
+			long b = this.bottom;
+			long t = this.top.get();
+			AtomicReferenceArray<Job> array = this.jobs;
+
+			// Grow if full (rare as reused thereafter)
+			if ((b - t) >= (array.length() - 1)) {
+				AtomicReferenceArray<Job> grown = new AtomicReferenceArray<>(array.length() << 1);
+				for (long i = t; i < b; i++) {
+					grown.set((int) (i & (grown.length() - 1)), array.get((int) (i & (array.length() - 1))));
+				}
+				this.jobs = grown;
+				array = grown;
+			}
+
+			// Add the job
+			array.set((int) (b & (array.length() - 1)), job);
+			this.bottom = b + 1;
+		}
+
+		/**
+		 * Pops the newest {@link Job}.
+		 * 
+		 * @return Newest {@link Job} or <code>null</code> if empty.
+		 */
+		private Job pop() {
+			long b = this.bottom - 1;
+			AtomicReferenceArray<Job> array = this.jobs;
+			this.bottom = b;
+			long t = this.top.get();
+			if (t > b) {
+				// Empty
+				this.bottom = b + 1;
+				return null;
+			}
+
+			// Obtain the job
+			int index = (int) (b & (array.length() - 1));
+			Job job = array.get(index);
+			if (t == b) {
+				// Last job, so race stealing
+				if (!this.top.compareAndSet(t, t + 1)) {
+					job = null; // stolen
+				}
+				this.bottom = b + 1;
+			}
+
+			// Release the job reference (only owner reuses slot)
+			if (job != null) {
+				array.lazySet(index, null);
+			}
+			return job;
+		}
+
+		/**
+		 * Steals the oldest {@link Job}.
+		 * 
+		 * @return Oldest {@link Job} or <code>null</code> if empty (or lost race
+		 *         to steal).
+		 */
+		private Job steal() {
+			long t = this.top.get();
+			long b = this.bottom;
+			if (t >= b) {
+				return null; // empty
+			}
+
+			// Attempt to steal the job
+			AtomicReferenceArray<Job> array = this.jobs;
+			Job job = array.get((int) (t & (array.length() - 1)));
+			return this.top.compareAndSet(t, t + 1) ? job : null;
+		}
+	}
+
+	/**
+	 * Bounded lock-free multiple producer multiple consumer ring of {@link Job}
+	 * instances.
+	 */
+	private static class JobRing {
+
+		/**
+		 * Sequence for each slot, indicating whether available to
+		 * {@link #offer(Job)} or {@link #poll()}.
+		 */
+		private final AtomicLongArray sequences;
+
+		/**
+		 * {@link Job} slots.
+		 */
+		private final AtomicReferenceArray<Job> jobs;
+
+		/**
+		 * Mask for the index into the slots.
+		 */
+		private final int mask;
+
+		/**
+		 * Index of next slot to {@link #offer(Job)}.
+		 */
+		private final AtomicLong tail = new AtomicLong(0);
+
+		/**
+		 * Index of next slot to {@link #poll()}.
+		 */
+		private final AtomicLong head = new AtomicLong(0);
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param size Size of the ring. Rounded up to a power of two.
+		 */
+		private JobRing(int size) {
+			int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+			this.sequences = new AtomicLongArray(capacity);
+			for (int i = 0; i < capacity; i++) {
+				this.sequences.set(i, i);
+			}
+			this.jobs = new AtomicReferenceArray<>(capacity);
+			this.mask = capacity - 1;
+		}
+
+		/**
+		 * Indicates if empty.
+		 * 
+		 * @return <code>true</code> if empty.
+		 */
+		private boolean isEmpty() {
+			return this.head.get() >= this.tail.get();
+		}
+
+		/**
+		 * Offers the {@link Job}.
+		 * 
+		 * @param job {@link Job}.
+		 * @return <code>false</code> if full.
+		 */
+		private boolean offer(Job job) {
+			long position = this.tail.get();
+			for (;;) {
+				int index = (int) (position & this.mask);
+				long difference = this.sequences.get(index) - position;
+				if (difference == 0) {
+					// Slot available, so attempt to claim
+					if (this.tail.compareAndSet(position, position + 1)) {
+						this.jobs.set(index, job);
+						this.sequences.set(index, position + 1);
+						return true;
+					}
+					position = this.tail.get();
+
+				} else if (difference < 0) {
+					return false; // full
+
+				} else {
+					// Another producer claimed slot
+					position = this.tail.get();
+				}
+			}
+		}
+
+		/**
+		 * Polls for the next {@link Job}.
+		 * 
+		 * @return Next {@link Job} or <code>null</code> if empty.
+		 */
+		private Job poll() {
+			long position = this.head.get();
+			for (;;) {
+				int index = (int) (position & this.mask);
+				long difference = this.sequences.get(index) - (position + 1);
+				if (difference == 0) {
+					// Job available, so attempt to claim
+					if (this.head.compareAndSet(position, position + 1)) {
+						Job job = this.jobs.get(index);
+						this.jobs.set(index, null);
+						this.sequences.set(index, position + this.mask + 1);
+						return job;
+					}
+					position = this.head.get();
+
+				} else if (difference < 0) {
+					return null; // empty
+
+				} else {
+					// Another consumer claimed job
+					position = this.head.get();
+				}
+			}
+		}
+	}
+
+}
@@ -39,6 +39,7 @@ import net.officefloor.frame.internal.structure.EscalationFlow;
 import net.officefloor.frame.internal.structure.FunctionState;
 import net.officefloor.frame.internal.structure.MonitorClock;
 import net.officefloor.frame.internal.structure.OfficeManager;
+import net.officefloor.frame.internal.structure.OfficeScheduler;
 import net.officefloor.frame.internal.structure.ProcessState;
 import net.officefloor.frame.internal.structure.ThreadState;
 
@@ -65,6 +66,18 @@ public interface OfficeBuilder {
 	 */
 	void setMonitorClock(MonitorClock clock);
 
+	/**
+	 * <p>
+	 * Allows providing an {@link OfficeScheduler} to run delayed
+	 * {@link ProcessState} instances and monitoring of the {@link Office}.
+	 * <p>
+	 * Should no {@link OfficeScheduler} be provided, a default timing wheel
+	 * implementation will be used.
+	 * 
+	 * @param scheduler {@link OfficeScheduler}.
+	 */
+	void setOfficeScheduler(OfficeScheduler scheduler);
+
 	/**
 	 * Specifies the interval in milli-seconds between each time the
 	 * {@link OfficeManager} monitors the {@link Office}.
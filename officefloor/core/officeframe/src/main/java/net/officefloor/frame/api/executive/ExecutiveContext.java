@@ -54,4 +54,17 @@ public interface ExecutiveContext extends TeamSourceContext {
 	 */
 	ThreadFactory createThreadFactory(String teamName);
 
+	/**
+	 * Creates a {@link ThreadFactory} of virtual {@link Thread} instances for the
+	 * {@link Team} name.
+	 * 
+	 * @param teamName Name of the {@link Team}.
+	 * @return {@link ThreadFactory}.
+	 * @see #createThreadFactory(String)
+	 * @see #getVirtualThreadFactory()
+	 */
+	default ThreadFactory createVirtualThreadFactory(String teamName) {
+		return this.createThreadFactory(teamName);
+	}
+
 }
@@ -70,11 +70,22 @@ public class TeamSourceContextWrapper extends SourceContextImpl implements TeamS
 	 */
 	private final String teamName;
 
+	/**
+	 * {@link WorkerEnvironment}. May be <code>null</code>.
+	 */
+	private final WorkerEnvironment workerEnvironment;
+
 	/**
 	 * {@link ThreadFactory}.
 	 */
 	private final ThreadFactory threadFactory;
 
+	/**
+	 * {@link ThreadFactory} for virtual {@link Thread} instances. Lazy created
+	 * as only required by some {@link Team} implementations.
+	 */
+	private ThreadFactory virtualThreadFactory = null;
+
 	/**
 	 * Instantiate.
 	 * 
@@ -96,13 +107,24 @@ public class TeamSourceContextWrapper extends SourceContextImpl implements TeamS
 		this.teamName = getTeamName(context, teamNameSuffix);
 
 		// Obtain the thread factory
-		ThreadFactory threadFactory = context.createThreadFactory(this.teamName);
-		if (workerEnvironment != null) {
-			// Provide worker wrapper
-			ThreadFactory delegate = threadFactory;
-			threadFactory = (worker) -> delegate.newThread(workerEnvironment.createWorkerEnvironment(worker));
+		this.workerEnvironment = workerEnvironment;
+		this.threadFactory = this.wrapThreadFactory(context.createThreadFactory(this.teamName));
+	}
+
+	/**
+	 * Wraps the {@link ThreadFactory} with the {@link WorkerEnvironment}.
+	 * 
+	 * @param threadFactory {@link ThreadFactory}.
+	 * @return {@link ThreadFactory} providing the {@link WorkerEnvironment}.
+	 */
+	private ThreadFactory wrapThreadFactory(ThreadFactory threadFactory) {
+		if (this.workerEnvironment == null) {
+			return threadFactory;
 		}
-		this.threadFactory = threadFactory;
+
+		// Provide worker wrapper
+		WorkerEnvironment workerEnvironment = this.workerEnvironment;
+		return (worker) -> threadFactory.newThread(workerEnvironment.createWorkerEnvironment(worker));
 	}
 
 	/**
@@ -140,4 +162,13 @@ public class TeamSourceContextWrapper extends SourceContextImpl implements TeamS
 		return this.threadFactory;
 	}
 
+	@Override
+	public ThreadFactory getVirtualThreadFactory() {
+		if (this.virtualThreadFactory == null) {
+			this.virtualThreadFactory = this
+					.wrapThreadFactory(this.executiveContext.createVirtualThreadFactory(this.teamName));
+		}
+		return this.virtualThreadFactory;
+	}
+
 }
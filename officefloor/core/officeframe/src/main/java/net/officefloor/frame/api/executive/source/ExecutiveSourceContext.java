@@ -46,4 +46,22 @@ public interface ExecutiveSourceContext extends SourceContext {
 	 */
 	ThreadFactory createThreadFactory(String executionStrategyName, Executive executive);
 
+	/**
+	 * <p>
+	 * Creates the underlying {@link ThreadFactory} of virtual {@link Thread}
+	 * instances that should be used for {@link ExecutionStrategy} instances.
+	 * <p>
+	 * Should the JVM not support virtual {@link Thread} instances, platform
+	 * {@link Thread} instances are created.
+	 * 
+	 * @param executionStrategyName Name of the {@link ExecutionStrategy} to
+	 *                              associate {@link Thread} names to the
+	 *                              {@link ExecutionStrategy}.
+	 * @param executive             {@link Executive}.
+	 * @return {@link ThreadFactory} to use for {@link ExecutionStrategy} instances.
+	 */
+	default ThreadFactory createVirtualThreadFactory(String executionStrategyName, Executive executive) {
+		return this.createThreadFactory(executionStrategyName, executive);
+	}
+
 }
@@ -22,6 +22,7 @@
 package net.officefloor.frame.api.manage;
 
 import net.officefloor.frame.api.function.ManagedFunction;
+import net.officefloor.frame.api.metric.OfficeFloorMetrics;
 
 /**
  * {@link OfficeFloor} where {@link ManagedFunction} instances are executed
@@ -70,4 +71,11 @@ public interface OfficeFloor extends AutoCloseable {
 	 */
 	Office getOffice(String officeName) throws UnknownOfficeException;
 
+	/**
+	 * Obtains the {@link OfficeFloorMetrics}.
+	 * 
+	 * @return {@link OfficeFloorMetrics}.
+	 */
+	OfficeFloorMetrics getMetrics();
+
 }
@@ -0,0 +1,226 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.api.metric;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Lock free histogram of latencies in nanoseconds.
+ * <p>
+ * Latencies are recorded into log-linear buckets (each power of two split into
+ * {@link #SUB_BUCKET_COUNT} buckets) giving percentiles within 12.5% of the
+ * actual latency. Each bucket is a striped counter so recording is cheap enough
+ * to be always on under contention.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Number of bits for the sub-buckets of each power of two.
+	 */
+	private static final int SUB_BUCKET_BITS = 3;
+
+	/**
+	 * Number of sub-buckets for each power of two.
+	 */
+	public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Maximum power of two of recorded latencies (approximately 73 minutes).
+	 * Larger latencies are recorded in the last bucket.
+	 */
+	private static final int MAX_EXPONENT = 41;
+
+	/**
+	 * Maximum latency recorded within the buckets.
+	 */
+	private static final long MAX_BUCKET_LATENCY = (1L << (MAX_EXPONENT + 1)) - 1;
+
+	/**
+	 * Number of buckets.
+	 */
+	private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+	/**
+	 * Obtains the bucket index for the latency.
+	 * 
+	 * @param latency Latency in nanoseconds.
+	 * @return Bucket index.
+	 */
+	private static int getBucketIndex(long latency) {
+
+		// Exact buckets for small latencies
+		if (latency < SUB_BUCKET_COUNT) {
+			return (int) latency;
+		}
+
+		// Determine the power of two and sub-bucket within it
+		int exponent = 63 - Long.numberOfLeadingZeros(latency);
+		int subBucket = (int) (latency >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return ((exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT) + subBucket;
+	}
+
+	/**
+	 * Obtains the highest latency recorded by the bucket.
+	 * 
+	 * @param bucketIndex Bucket index.
+	 * @return Highest latency in nanoseconds recorded by the bucket.
+	 */
+	private static long getBucketHighestLatency(int bucketIndex) {
+
+		// Exact buckets for small latencies
+		if (bucketIndex < SUB_BUCKET_COUNT) {
+			return bucketIndex;
+		}
+
+		// Determine the range of the bucket
+		int exponent = (bucketIndex / SUB_BUCKET_COUNT) + SUB_BUCKET_BITS - 1;
+		int subBucket = bucketIndex % SUB_BUCKET_COUNT;
+		int shift = exponent - SUB_BUCKET_BITS;
+		return ((((long) (SUB_BUCKET_COUNT + subBucket)) << shift) + (1L << shift)) - 1;
+	}
+
+	/**
+	 * Buckets of counts. Lazy created to only allocate buckets in use.
+	 */
+	private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKET_COUNT);
+
+	/**
+	 * Number of recorded latencies.
+	 */
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * Total of the recorded latencies in nanoseconds.
+	 */
+	private final LongAdder total = new LongAdder();
+
+	/**
+	 * Maximum recorded latency in nanoseconds.
+	 */
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Records the latency.
+	 * 
+	 * @param latency Latency in nanoseconds.
+	 */
+	public void record(long latency) {
+
+		// Ignore clock going backwards
+		if (latency < 0) {
+			latency = 0;
+		}
+
+		// Obtain the bucket
+		int index = getBucketIndex(Math.min(latency, MAX_BUCKET_LATENCY));
+		LongAdder bucket = this.buckets.get(index);
+		if (bucket == null) {
+			LongAdder newBucket = new LongAdder();
+			bucket = this.buckets.compareAndSet(index, null, newBucket) ? newBucket : this.buckets.get(index);
+		}
+
+		// Record the latency
+		bucket.increment();
+		this.count.increment();
+		this.total.add(latency);
+		this.max.accumulate(latency);
+	}
+
+	/**
+	 * Obtains the number of recorded latencies.
+	 * 
+	 * @return Number of recorded latencies.
+	 */
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * Obtains the total of the recorded latencies.
+	 * 
+	 * @return Total of the recorded latencies in nanoseconds.
+	 */
+	public long getTotal() {
+		return this.total.sum();
+	}
+
+	/**
+	 * Obtains the maximum recorded latency.
+	 * 
+	 * @return Maximum recorded latency in nanoseconds.
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Obtains the mean of the recorded latencies.
+	 * 
+	 * @return Mean of the recorded latencies in nanoseconds.
+	 */
+	public long getMean() {
+		long count = this.getCount();
+		return (count == 0) ? 0 : (this.getTotal() / count);
+	}
+
+	/**
+	 * Obtains the latency at the percentile.
+	 * 
+	 * @param percentile Percentile (0 to 100).
+	 * @return Latency in nanoseconds at or below which the percentile of recorded
+	 *         latencies fall. <code>0</code> if no latencies recorded.
+	 */
+	public long getPercentile(double percentile) {
+
+		// Obtain the snapshot of the bucket counts
+		long[] counts = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			LongAdder bucket = this.buckets.get(i);
+			if (bucket != null) {
+				counts[i] = bucket.sum();
+				count += counts[i];
+			}
+		}
+		if (count == 0) {
+			return 0; // no latencies recorded
+		}
+
+		// Find the bucket containing the percentile
+		long required = Math.max(1, (long) Math.ceil((Math.min(Math.max(percentile, 0), 100) / 100.0) * count));
+		long cumulative = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			cumulative += counts[i];
+			if (cumulative >= required) {
+				return (i == (BUCKET_COUNT - 1)) ? this.getMax() // last bucket is unbounded
+						: Math.min(getBucketHighestLatency(i), this.getMax());
+			}
+		}
+		return this.getMax();
+	}
+
+}
@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.api.metric;
+
+import net.officefloor.frame.api.function.ManagedFunction;
+import net.officefloor.frame.api.manage.Office;
+import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.api.manage.UnknownFunctionException;
+import net.officefloor.frame.api.manage.UnknownOfficeException;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.team.Team;
+
+/**
+ * Always on metrics of the {@link OfficeFloor}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public interface OfficeFloorMetrics {
+
+	/**
+	 * Obtains the {@link LatencyHistogram} of executing the
+	 * {@link ManagedFunction}.
+	 * 
+	 * @param officeName   Name of the {@link Office}.
+	 * @param functionName Name of the {@link ManagedFunction} within the
+	 *                     {@link Office}.
+	 * @return {@link LatencyHistogram} of executing the {@link ManagedFunction}.
+	 * @throws UnknownOfficeException   If unknown {@link Office}.
+	 * @throws UnknownFunctionException If unknown {@link ManagedFunction}.
+	 */
+	LatencyHistogram getManagedFunctionLatency(String officeName, String functionName)
+			throws UnknownOfficeException, UnknownFunctionException;
+
+	/**
+	 * Obtains the names of the {@link Team} instances.
+	 * 
+	 * @return Names of the {@link Team} instances.
+	 */
+	String[] getTeamNames();
+
+	/**
+	 * Obtains the {@link LatencyHistogram} of time waiting in the queue of the
+	 * {@link Team}.
+	 * 
+	 * @param teamName Name of the {@link Team}.
+	 * @return {@link LatencyHistogram} of time waiting in the queue of the
+	 *         {@link Team} or <code>null</code> if unknown {@link Team}.
+	 */
+	LatencyHistogram getTeamQueueWaitLatency(String teamName);
+
+	/**
+	 * Obtains the names of the {@link ManagedObjectSource} instances.
+	 * 
+	 * @return Names of the {@link ManagedObjectSource} instances.
+	 */
+	String[] getManagedObjectSourceNames();
+
+	/**
+	 * Obtains the {@link LatencyHistogram} of sourcing from the
+	 * {@link ManagedObjectSource}.
+	 * 
+	 * @param managedObjectSourceName Name of the {@link ManagedObjectSource}.
+	 * @return {@link LatencyHistogram} of sourcing from the
+	 *         {@link ManagedObjectSource} or <code>null</code> if unknown
+	 *         {@link ManagedObjectSource}.
+	 */
+	LatencyHistogram getManagedObjectSourcingLatency(String managedObjectSourceName);
+
+}
@@ -43,4 +43,17 @@ public interface Profiler {
 	 */
 	void profileProcessState(ProfiledProcessState process);
 
+	/**
+	 * <p>
+	 * Indicates whether to profile a new {@link ProcessState}.
+	 * <p>
+	 * Allows sampling to avoid the overhead of capturing profile information
+	 * for every {@link ProcessState}.
+	 * 
+	 * @return <code>true</code> to profile the new {@link ProcessState}.
+	 */
+	default boolean isProfileProcessState() {
+		return true;
+	}
+
 }
@@ -27,6 +27,7 @@ import net.officefloor.frame.api.executive.Executive;
 import net.officefloor.frame.api.manage.OfficeFloor;
 import net.officefloor.frame.api.managedobject.pool.ManagedObjectPool;
 import net.officefloor.frame.api.source.SourceContext;
+import net.officefloor.frame.api.team.Job;
 import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.impl.spi.team.PassiveTeamSource;
 
@@ -86,4 +87,20 @@ public interface TeamSourceContext extends SourceContext {
 	 */
 	ThreadFactory getThreadFactory();
 
+	/**
+	 * <p>
+	 * Obtains the {@link ThreadFactory} creating virtual {@link Thread} instances
+	 * for the {@link Team}.
+	 * <p>
+	 * This allows many concurrent blocking {@link Job} instances without sizing
+	 * the {@link Team}. Should the JVM not support virtual {@link Thread}
+	 * instances, platform {@link Thread} instances are created.
+	 * 
+	 * @return {@link ThreadFactory} creating virtual {@link Thread} instances for
+	 *         the {@link Team}.
+	 */
+	default ThreadFactory getVirtualThreadFactory() {
+		return this.getThreadFactory();
+	}
+
 }
@@ -39,6 +39,7 @@ import net.officefloor.frame.api.thread.ThreadSynchroniserFactory;
 import net.officefloor.frame.internal.structure.Asset;
 import net.officefloor.frame.internal.structure.FunctionState;
 import net.officefloor.frame.internal.structure.MonitorClock;
+import net.officefloor.frame.internal.structure.OfficeScheduler;
 import net.officefloor.frame.internal.structure.OfficeManager;
 import net.officefloor.frame.internal.structure.ProcessState;
 import net.officefloor.frame.internal.structure.ThreadState;
@@ -65,6 +66,14 @@ public interface OfficeConfiguration {
 	 */
 	MonitorClock getMonitorClock();
 
+	/**
+	 * Obtains the {@link OfficeScheduler}.
+	 * 
+	 * @return {@link OfficeScheduler}. May be <code>null</code> to use a default
+	 *         implementation.
+	 */
+	OfficeScheduler getOfficeScheduler();
+
 	/**
 	 * Obtains the interval in milli-seconds between each time the
 	 * {@link OfficeManager} monitors the {@link Office}.
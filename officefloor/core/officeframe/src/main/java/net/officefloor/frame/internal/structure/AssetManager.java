@@ -43,4 +43,15 @@ public interface AssetManager extends FunctionState {
 	 */
 	AssetLatch createAssetLatch(Asset asset);
 
+	/**
+	 * Indicates if managing registered {@link AssetLatch} instances.
+	 * <p>
+	 * This allows the {@link OfficeManager} to avoid checking
+	 * {@link AssetManager} instances that have nothing to check.
+	 * 
+	 * @return <code>true</code> if managing registered {@link AssetLatch}
+	 *         instances.
+	 */
+	boolean isManagingAssetLatches();
+
 }
@@ -23,6 +23,7 @@ package net.officefloor.frame.internal.structure;
 
 import net.officefloor.frame.api.function.AsynchronousFlow;
 import net.officefloor.frame.api.function.ManagedFunction;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.api.team.Team;
 
 /**
@@ -98,4 +99,13 @@ public interface ManagedFunctionLogicMetaData {
 	 */
 	OfficeMetaData getOfficeMetaData();
 
+	/**
+	 * Obtains the {@link LatencyHistogram} of executing the
+	 * {@link ManagedFunctionLogic}.
+	 * 
+	 * @return {@link LatencyHistogram} of executing the
+	 *         {@link ManagedFunctionLogic}.
+	 */
+	LatencyHistogram getExecutionLatency();
+
 }
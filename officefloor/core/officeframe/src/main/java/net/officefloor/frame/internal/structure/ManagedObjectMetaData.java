@@ -31,6 +31,7 @@ import net.officefloor.frame.api.managedobject.ObjectRegistry;
 import net.officefloor.frame.api.managedobject.pool.ManagedObjectPool;
 import net.officefloor.frame.api.managedobject.recycle.RecycleManagedObjectParameter;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 
 /**
  * Meta-data of a {@link ManagedObject}.
@@ -107,6 +108,14 @@ public interface ManagedObjectMetaData<O extends Enum<O>> {
 	 */
 	ManagedObjectPool getManagedObjectPool();
 
+	/**
+	 * Obtains the {@link LatencyHistogram} of sourcing the {@link ManagedObject}
+	 * from the {@link ManagedObjectSource}.
+	 * 
+	 * @return {@link LatencyHistogram} of sourcing the {@link ManagedObject}.
+	 */
+	LatencyHistogram getSourcingLatency();
+
 	/**
 	 * Obtains the {@link ManagedObjectStartupFunction} instances for the
 	 * {@link ManagedObjectSource}.
@@ -0,0 +1,76 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.internal.structure;
+
+import net.officefloor.frame.api.manage.Office;
+import net.officefloor.frame.api.team.Team;
+
+/**
+ * <p>
+ * Schedules delayed tasks for the {@link Office}.
+ * <p>
+ * Tasks are expected to be quick (typically handing off to a {@link Team}) so
+ * as not to hold up expiry of further tasks.
+ *
+ * @author Daniel Sagenschneider
+ */
+public interface OfficeScheduler {
+
+	/**
+	 * Scheduled task.
+	 */
+	interface ScheduledTask {
+
+		/**
+		 * Cancels the task.
+		 * 
+		 * @return <code>true</code> if cancelled. <code>false</code> if task
+		 *         already run (or cancelled).
+		 */
+		boolean cancel();
+	}
+
+	/**
+	 * Schedules the task.
+	 * 
+	 * @param task  Task.
+	 * @param delay Delay in milliseconds before running the task.
+	 * @return {@link ScheduledTask}.
+	 */
+	ScheduledTask schedule(Runnable task, long delay);
+
+	/**
+	 * Schedules the task to be run repeatedly at a fixed rate.
+	 * 
+	 * @param task         Task.
+	 * @param initialDelay Delay in milliseconds before first running the task.
+	 * @param period       Period in milliseconds between each run of the task.
+	 * @return {@link ScheduledTask}.
+	 */
+	ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period);
+
+	/**
+	 * Shuts down the {@link OfficeScheduler}, cancelling all scheduled tasks.
+	 */
+	void shutdown();
+
+}
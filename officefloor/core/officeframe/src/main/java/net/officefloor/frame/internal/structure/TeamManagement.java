@@ -21,6 +21,8 @@
 
 package net.officefloor.frame.internal.structure;
 
+import net.officefloor.frame.api.metric.LatencyHistogram;
+import net.officefloor.frame.api.team.Job;
 import net.officefloor.frame.api.team.Team;
 
 /**
@@ -44,4 +46,13 @@ public interface TeamManagement {
 	 */
 	Team getTeam();
 
+	/**
+	 * Obtains the {@link LatencyHistogram} of {@link Job} instances waiting to be
+	 * executed by the {@link Team}.
+	 * 
+	 * @return {@link LatencyHistogram} of {@link Job} instances waiting to be
+	 *         executed by the {@link Team}.
+	 */
+	LatencyHistogram getQueueWaitLatency();
+
 }
@@ -0,0 +1,126 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package net.officefloor.frame.api.metric;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+
+/**
+ * Tests the {@link LatencyHistogram}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class LatencyHistogramTest extends OfficeFrameTestCase {
+
+	/**
+	 * {@link LatencyHistogram} to test.
+	 */
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	/**
+	 * Ensure empty histogram.
+	 */
+	public void testEmpty() {
+		assertEquals("Incorrect count", 0, this.histogram.getCount());
+		assertEquals("Incorrect total", 0, this.histogram.getTotal());
+		assertEquals("Incorrect max", 0, this.histogram.getMax());
+		assertEquals("Incorrect mean", 0, this.histogram.getMean());
+		assertEquals("Incorrect percentile", 0, this.histogram.getPercentile(99));
+	}
+
+	/**
+	 * Ensure exact for small latencies.
+	 */
+	public void testSmallLatencies() {
+		for (int i = 1; i <= 4; i++) {
+			this.histogram.record(i);
+		}
+		assertEquals("Incorrect count", 4, this.histogram.getCount());
+		assertEquals("Incorrect total", 10, this.histogram.getTotal());
+		assertEquals("Incorrect max", 4, this.histogram.getMax());
+		assertEquals("Incorrect mean", 2, this.histogram.getMean());
+		assertEquals("Incorrect p25", 1, this.histogram.getPercentile(25));
+		assertEquals("Incorrect p50", 2, this.histogram.getPercentile(50));
+		assertEquals("Incorrect p100", 4, this.histogram.getPercentile(100));
+	}
+
+	/**
+	 * Ensure percentiles are within precision of the recorded latencies.
+	 */
+	public void testPercentilePrecision() {
+		for (int i = 1; i <= 1000; i++) {
+			this.histogram.record(i * 1000L);
+		}
+		assertEquals("Incorrect count", 1000, this.histogram.getCount());
+		assertEquals("Incorrect max", 1000000, this.histogram.getMax());
+		assertEquals("Incorrect mean", 500500, this.histogram.getMean());
+		assertWithinPrecision(500000, this.histogram.getPercentile(50));
+		assertWithinPrecision(900000, this.histogram.getPercentile(90));
+		assertWithinPrecision(990000, this.histogram.getPercentile(99));
+		assertEquals("Percentile should not exceed max", 1000000, this.histogram.getPercentile(100));
+	}
+
+	/**
+	 * Ensure handles very large and negative latencies.
+	 */
+	public void testOutOfRangeLatencies() {
+		this.histogram.record(-1);
+		this.histogram.record(Long.MAX_VALUE / 2);
+		assertEquals("Incorrect count", 2, this.histogram.getCount());
+		assertEquals("Negative should be recorded as zero", 0, this.histogram.getPercentile(50));
+		assertEquals("Incorrect max", Long.MAX_VALUE / 2, this.histogram.getMax());
+		assertEquals("Large latency should be capped by max", Long.MAX_VALUE / 2, this.histogram.getPercentile(100));
+	}
+
+	/**
+	 * Ensure able to record concurrently.
+	 */
+	public void testConcurrentRecording() throws Exception {
+		final int THREADS = 4;
+		final int RECORDS = 10000;
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < RECORDS; i++) {
+					this.histogram.record(i);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals("Incorrect count", THREADS * RECORDS, this.histogram.getCount());
+		assertEquals("Incorrect max", RECORDS - 1, this.histogram.getMax());
+	}
+
+	/**
+	 * Asserts the latency is within the precision of the {@link LatencyHistogram}.
+	 * 
+	 * @param expected Expected latency.
+	 * @param actual   Actual latency.
+	 */
+	private static void assertWithinPrecision(long expected, long actual) {
+		long precision = expected / LatencyHistogram.SUB_BUCKET_COUNT;
+		assertTrue("Latency " + actual + " not within precision of " + expected,
+				(actual >= expected) && (actual <= (expected + precision)));
+	}
+
+}
@@ -61,6 +61,7 @@ import net.officefloor.frame.api.managedobject.source.impl.ManagedObjectDependen
 import net.officefloor.frame.api.managedobject.source.impl.ManagedObjectExecutionMetaDataImpl;
 import net.officefloor.frame.api.managedobject.source.impl.ManagedObjectExtensionMetaDataImpl;
 import net.officefloor.frame.api.managedobject.source.impl.ManagedObjectFlowMetaDataImpl;
+import net.officefloor.frame.api.metric.LatencyHistogram;
 import net.officefloor.frame.api.source.TestSource;
 import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.api.thread.ThreadSynchroniserFactory;
@@ -195,7 +196,8 @@ public class MockConstruct {
 		return new ManagedObjectMetaDataImpl<>(boundManagedObjectName, objectType, 0,
 				new ConstructManagedObjectSource<>(), null, false,
 				assetManagerFactory.createAssetManager(AssetType.MANAGED_OBJECT, boundManagedObjectName, "mock", null),
-				false, null, false, null, 0, null, OfficeFrame.getLogger(boundManagedObjectName));
+				false, null, false, null, 0, null, OfficeFrame.getLogger(boundManagedObjectName),
+				new LatencyHistogram());
 	}
 
 	/**
@@ -0,0 +1,156 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package net.officefloor.frame.impl.execute.metric;
+
+import java.util.Arrays;
+
+import net.officefloor.frame.api.function.ManagedFunction;
+import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.api.manage.UnknownFunctionException;
+import net.officefloor.frame.api.manage.UnknownOfficeException;
+import net.officefloor.frame.api.metric.LatencyHistogram;
+import net.officefloor.frame.api.metric.OfficeFloorMetrics;
+import net.officefloor.frame.api.team.Team;
+import net.officefloor.frame.impl.spi.team.OnePersonTeamSource;
+import net.officefloor.frame.internal.structure.ManagedObjectScope;
+import net.officefloor.frame.test.AbstractOfficeConstructTestCase;
+import net.officefloor.frame.test.ReflectiveFunctionBuilder;
+import net.officefloor.frame.test.TestObject;
+
+/**
+ * Tests the {@link OfficeFloorMetrics}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class OfficeFloorMetricsTest extends AbstractOfficeConstructTestCase {
+
+	/**
+	 * Ensure records latency of executing the {@link ManagedFunction}.
+	 */
+	public void testManagedFunctionLatency() throws Exception {
+
+		// Construct
+		TestWork work = new TestWork();
+		this.constructFunction(work, "task");
+		String officeName = this.getOfficeName();
+		OfficeFloor officeFloor = this.constructOfficeFloor();
+		officeFloor.openOfficeFloor();
+
+		// Ensure initially no latencies
+		OfficeFloorMetrics metrics = officeFloor.getMetrics();
+		LatencyHistogram latency = metrics.getManagedFunctionLatency(officeName, "task");
+		assertEquals("Should not yet execute", 0, latency.getCount());
+
+		// Invoke the function
+		officeFloor.getOffice(officeName).getFunctionManager("task").invokeProcess(null, null);
+		officeFloor.getOffice(officeName).getFunctionManager("task").invokeProcess(null, null);
+
+		// Ensure recorded latency
+		assertEquals("Incorrect number of executions", 2, latency.getCount());
+		assertTrue("Should record time sleeping", latency.getMax() >= 1000000);
+	}
+
+	/**
+	 * Ensure indicates unknown {@link ManagedFunction}.
+	 */
+	public void testUnknownManagedFunction() throws Exception {
+		this.constructFunction(new TestWork(), "task");
+		String officeName = this.getOfficeName();
+		OfficeFloorMetrics metrics = this.constructOfficeFloor().getMetrics();
+		try {
+			metrics.getManagedFunctionLatency("UNKNOWN", "task");
+			fail("Should not find unknown office");
+		} catch (UnknownOfficeException ex) {
+		}
+		try {
+			metrics.getManagedFunctionLatency(officeName, "UNKNOWN");
+			fail("Should not find unknown function");
+		} catch (UnknownFunctionException ex) {
+		}
+	}
+
+	/**
+	 * Ensure records time waiting on the {@link Team}.
+	 */
+	public void testTeamQueueWaitLatency() throws Exception {
+
+		// Construct
+		TestWork work = new TestWork();
+		this.constructTeam("TEAM", OnePersonTeamSource.class);
+		ReflectiveFunctionBuilder task = this.constructFunction(work, "task");
+		task.getBuilder().setResponsibleTeam("TEAM");
+
+		String officeName = this.getOfficeName();
+		OfficeFloor officeFloor = this.constructOfficeFloor();
+		officeFloor.openOfficeFloor();
+
+		// Invoke the function
+		officeFloor.getOffice(officeName).getFunctionManager("task").invokeProcess(null, null);
+
+		// Ensure recorded time waiting on team
+		OfficeFloorMetrics metrics = officeFloor.getMetrics();
+		assertTrue("Should list team", Arrays.asList(metrics.getTeamNames()).contains("of-TEAM"));
+		LatencyHistogram latency = metrics.getTeamQueueWaitLatency("of-TEAM");
+		this.waitForTrue(() -> latency.getCount() >= 1);
+		assertNull("Should not have unknown team", metrics.getTeamQueueWaitLatency("UNKNOWN"));
+	}
+
+	/**
+	 * Ensure records time sourcing the managed object.
+	 */
+	public void testManagedObjectSourcingLatency() throws Exception {
+
+		// Construct
+		new TestObject("MO", this);
+		TestWork work = new TestWork();
+		ReflectiveFunctionBuilder task = this.constructFunction(work, "objectTask");
+		task.buildObject("MO", ManagedObjectScope.FUNCTION);
+
+		String officeName = this.getOfficeName();
+		OfficeFloor officeFloor = this.constructOfficeFloor();
+		officeFloor.openOfficeFloor();
+
+		// Invoke the function
+		officeFloor.getOffice(officeName).getFunctionManager("objectTask").invokeProcess(null, null);
+
+		// Ensure recorded sourcing the managed object
+		OfficeFloorMetrics metrics = officeFloor.getMetrics();
+		assertEquals("Incorrect managed object sources", 1, metrics.getManagedObjectSourceNames().length);
+		assertEquals("Incorrect managed object source", "of-MO", metrics.getManagedObjectSourceNames()[0]);
+		assertEquals("Should record sourcing", 1, metrics.getManagedObjectSourcingLatency("of-MO").getCount());
+		assertNull("Should not have unknown managed object source",
+				metrics.getManagedObjectSourcingLatency("UNKNOWN"));
+	}
+
+	/**
+	 * Test functionality.
+	 */
+	public static class TestWork {
+
+		public void task() throws InterruptedException {
+			Thread.sleep(1);
+		}
+
+		public void objectTask(TestObject object) {
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.impl.execute.office;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.officefloor.frame.internal.structure.OfficeScheduler;
+import net.officefloor.frame.internal.structure.OfficeScheduler.ScheduledTask;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+
+/**
+ * Tests the {@link TimingWheelOfficeScheduler}.
+ *
+ * @author Daniel Sagenschneider
+ */
+public class TimingWheelOfficeSchedulerTest extends OfficeFrameTestCase {
+
+	/**
+	 * {@link TimingWheelOfficeScheduler} to test.
+	 */
+	private final TimingWheelOfficeScheduler scheduler = new TimingWheelOfficeScheduler("TEST");
+
+	@Override
+	protected void tearDown() throws Exception {
+		this.scheduler.shutdown();
+		super.tearDown();
+	}
+
+	/**
+	 * Ensure runs the task after the delay.
+	 */
+	public void testSchedule() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		long start = System.nanoTime();
+		this.scheduler.schedule(() -> latch.countDown(), 20);
+		assertTrue("Task should be run", latch.await(5, TimeUnit.SECONDS));
+		long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue("Should not run early (" + duration + " milliseconds)", duration >= 20);
+	}
+
+	/**
+	 * Ensure runs the tasks in order of their deadline.
+	 */
+	public void testOrderOfDeadlines() throws Exception {
+		List<Integer> order = new ArrayList<>();
+		CountDownLatch latch = new CountDownLatch(3);
+		this.scheduler.schedule(() -> {
+			order.add(3);
+			latch.countDown();
+		}, 300);
+		this.scheduler.schedule(() -> {
+			order.add(1);
+			latch.countDown();
+		}, 10);
+		this.scheduler.schedule(() -> {
+			order.add(2);
+			latch.countDown();
+		}, 100);
+		assertTrue("Tasks should be run", latch.await(5, TimeUnit.SECONDS));
+		synchronized (order) {
+			assertEquals("Incorrect order", "[1, 2, 3]", order.toString());
+		}
+	}
+
+	/**
+	 * Ensure can cascade a task from a higher wheel.
+	 */
+	public void testCascade() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		long start = System.nanoTime();
+		this.scheduler.schedule(() -> latch.countDown(), 600);
+		assertTrue("Task should be run", latch.await(5, TimeUnit.SECONDS));
+		long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue("Should not run early (" + duration + " milliseconds)", duration >= 600);
+	}
+
+	/**
+	 * Ensure can cancel the task.
+	 */
+	public void testCancel() throws Exception {
+		AtomicInteger runs = new AtomicInteger(0);
+		ScheduledTask task = this.scheduler.schedule(() -> runs.incrementAndGet(), 50);
+		assertTrue("Should cancel", task.cancel());
+		assertFalse("Should only cancel once", task.cancel());
+
+		// Ensure other task runs (and cancelled not run)
+		CountDownLatch latch = new CountDownLatch(1);
+		ScheduledTask other = this.scheduler.schedule(() -> latch.countDown(), 100);
+		assertTrue("Other task should be run", latch.await(5, TimeUnit.SECONDS));
+		assertEquals("Cancelled task should not be run", 0, runs.get());
+		assertFalse("Should not cancel once run", other.cancel());
+	}
+
+	/**
+	 * Ensure runs tasks at fixed rate.
+	 */
+	public void testScheduleAtFixedRate() throws Exception {
+		CountDownLatch latch = new CountDownLatch(5);
+		ScheduledTask task = this.scheduler.scheduleAtFixedRate(() -> latch.countDown(), 0, 10);
+		assertTrue("Task should be run repeatedly", latch.await(5, TimeUnit.SECONDS));
+
+		// Ensure stops running on cancel
+		assertTrue("Should cancel", task.cancel());
+		AtomicInteger runs = new AtomicInteger(0);
+		ScheduledTask counter = this.scheduler.scheduleAtFixedRate(() -> runs.incrementAndGet(), 0, 10);
+		counter.cancel();
+		Thread.sleep(50);
+		assertTrue("Should not run after cancel", runs.get() <= 1);
+	}
+
+	/**
+	 * Ensure failure of a task is logged and does not stop other tasks.
+	 */
+	public void testFailingTask() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		String log = this.captureLoggerOutput(() -> {
+			this.scheduler.schedule(() -> {
+				throw new RuntimeException("TEST");
+			}, 1);
+			this.scheduler.schedule(() -> latch.countDown(), 20);
+			assertTrue("Should run task after failing task", latch.await(5, TimeUnit.SECONDS));
+		});
+		assertTrue("Should log failure: " + log, log.contains("Failed to run scheduled task"));
+		assertTrue("Should log cause: " + log, log.contains("TEST"));
+	}
+
+	/**
+	 * Ensure many tasks are run.
+	 */
+	public void testManyTasks() throws Exception {
+		final int TASKS = 10000;
+		CountDownLatch latch = new CountDownLatch(TASKS);
+		for (int i = 0; i < TASKS; i++) {
+			this.scheduler.schedule(() -> latch.countDown(), i % 300);
+		}
+		assertTrue("All tasks should be run", latch.await(10, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Ensure can not schedule after shutdown.
+	 */
+	public void testShutdown() {
+		this.scheduler.shutdown();
+		try {
+			this.scheduler.schedule(() -> fail("Should not run"), 1);
+			fail("Should not successfully schedule");
+		} catch (IllegalStateException ex) {
+			assertEquals("Incorrect cause",
+					OfficeScheduler.class.getSimpleName() + " for Office already shutdown", ex.getMessage());
+		}
+	}
+
+}
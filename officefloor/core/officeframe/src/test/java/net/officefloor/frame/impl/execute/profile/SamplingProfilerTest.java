@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package net.officefloor.frame.impl.execute.profile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.officefloor.frame.api.manage.FunctionManager;
+import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.api.profile.ProfiledManagedFunction;
+import net.officefloor.frame.api.profile.ProfiledProcessState;
+import net.officefloor.frame.api.profile.Profiler;
+import net.officefloor.frame.internal.structure.ProcessState;
+import net.officefloor.frame.test.AbstractOfficeConstructTestCase;
+
+/**
+ * Tests the {@link SamplingProfiler}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class SamplingProfilerTest extends AbstractOfficeConstructTestCase {
+
+	/**
+	 * Profiled {@link ProcessState} instances.
+	 */
+	private final List<ProfiledProcessState> profiles = new ArrayList<>();
+
+	/**
+	 * Hand offs to the delegate {@link Profiler}.
+	 */
+	private final List<Runnable> handOffs = new ArrayList<>();
+
+	/**
+	 * Ensure profiles one in every sample rate of {@link ProcessState}
+	 * instances.
+	 */
+	public void testSampleByRate() throws Exception {
+		FunctionManager function = this.construct(3, 0, 10);
+		for (int i = 0; i < 7; i++) {
+			function.invokeProcess(null, null);
+		}
+		this.handOff();
+		assertEquals("Should sample every third process", 3, this.profiles.size());
+		this.assertProfiledFunction(this.profiles.get(0));
+	}
+
+	/**
+	 * Ensure profiles {@link ProcessState} instances over the latency threshold.
+	 */
+	public void testSampleByLatency() throws Exception {
+		FunctionManager function = this.construct(0, 10_000_000, 10);
+
+		// Fast process should not be profiled
+		function.invokeProcess(Long.valueOf(0), null);
+		this.handOff();
+		assertEquals("Fast process should not be profiled", 0, this.profiles.size());
+
+		// Slow process should be profiled
+		function.invokeProcess(Long.valueOf(20), null);
+		this.handOff();
+		assertEquals("Slow process should be profiled", 1, this.profiles.size());
+		this.assertProfiledFunction(this.profiles.get(0));
+	}
+
+	/**
+	 * Ensure reservoir bounds the profiles awaiting hand off.
+	 */
+	public void testReservoir() throws Exception {
+		FunctionManager function = this.construct(1, 0, 3);
+		for (int i = 0; i < 10; i++) {
+			function.invokeProcess(null, null);
+		}
+		assertEquals("Should only schedule the one hand off", 1, this.handOffs.size());
+		assertEquals("Should not profile until hand off", 0, this.profiles.size());
+		this.handOff();
+		assertEquals("Should only hand off reservoir", 3, this.profiles.size());
+		for (ProfiledProcessState profile : this.profiles) {
+			this.assertProfiledFunction(profile);
+		}
+	}
+
+	/**
+	 * Constructs the {@link OfficeFloor} with the {@link SamplingProfiler}.
+	 * 
+	 * @param sampleRate                  Sample rate.
+	 * @param latencyThresholdNanoseconds Latency threshold.
+	 * @param reservoirCapacity           Reservoir capacity.
+	 * @return {@link FunctionManager} to invoke the test function.
+	 */
+	private FunctionManager construct(int sampleRate, long latencyThresholdNanoseconds, int reservoirCapacity)
+			throws Exception {
+		this.constructFunction(new TestWork(), "task").buildParameter();
+		this.getOfficeBuilder().setProfiler(new SamplingProfiler((process) -> this.profiles.add(process),
+				sampleRate, latencyThresholdNanoseconds, reservoirCapacity, (handOff) -> this.handOffs.add(handOff)));
+		String officeName = this.getOfficeName();
+		OfficeFloor officeFloor = this.constructOfficeFloor();
+		officeFloor.openOfficeFloor();
+		return officeFloor.getOffice(officeName).getFunctionManager("task");
+	}
+
+	/**
+	 * Undertakes the hand offs.
+	 */
+	private void handOff() {
+		for (Runnable handOff : this.handOffs) {
+			handOff.run();
+		}
+		this.handOffs.clear();
+	}
+
+	/**
+	 * Asserts the profiled function.
+	 * 
+	 * @param profile {@link ProfiledProcessState}.
+	 */
+	private void assertProfiledFunction(ProfiledProcessState profile) {
+		assertEquals("Incorrect number of threads", 1, profile.getProfiledThreadStates().size());
+		List<ProfiledManagedFunction> functions = profile.getProfiledThreadStates().get(0)
+				.getProfiledManagedFunctions();
+		assertEquals("Incorrect number of functions", 1, functions.size());
+		assertEquals("Incorrect function", "task", functions.get(0).getFunctionName());
+	}
+
+	/**
+	 * Test functionality.
+	 */
+	public static class TestWork {
+
+		public void task(Long sleepMilliseconds) throws InterruptedException {
+			if (sleepMilliseconds != null) {
+				Thread.sleep(sleepMilliseconds);
+			}
+		}
+	}
+
+}
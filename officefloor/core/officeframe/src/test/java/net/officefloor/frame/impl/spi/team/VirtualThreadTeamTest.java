@@ -0,0 +1,145 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.impl.spi.team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.officefloor.frame.api.team.Job;
+import net.officefloor.frame.api.team.Team;
+import net.officefloor.frame.impl.execute.execution.ThreadFactoryManufacturer;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.frame.util.TeamSourceStandAlone;
+
+/**
+ * Tests the {@link VirtualThreadTeamSource}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class VirtualThreadTeamTest extends OfficeFrameTestCase {
+
+	/**
+	 * Ensure executes the {@link Job}.
+	 */
+	public void testExecuteJob() throws Exception {
+
+		// Create the team
+		List<Thread> threads = new ArrayList<>();
+		AtomicInteger completedThreads = new AtomicInteger(0);
+		TeamSourceStandAlone standAlone = new TeamSourceStandAlone();
+		standAlone.setThreadDecorator((thread) -> threads.add(thread));
+		standAlone.addThreadCompletionListener(() -> completedThreads.incrementAndGet());
+		Team team = standAlone.loadTeam(VirtualThreadTeamSource.class);
+		team.startWorking();
+		try {
+
+			// Execute the job
+			MockJob job = new MockJob();
+			job.assignJobToTeam(team, 10);
+			assertEquals("Should execute job once", 1, job.doTaskInvocationCount);
+
+			// Ensure created by thread factory
+			assertEquals("Should create thread via thread factory", 1, threads.size());
+			assertEquals("Incorrect virtual thread", ThreadFactoryManufacturer.isVirtualThreadAvailable(),
+					isVirtual(threads.get(0)));
+
+			// Ensure managed execution (providing thread completion)
+			if (ThreadFactoryManufacturer.isVirtualThreadAvailable()) {
+				this.waitForTrue(() -> completedThreads.get() == 1);
+			}
+
+		} finally {
+			team.stopWorking();
+		}
+	}
+
+	/**
+	 * Ensure can execute many blocking {@link Job} instances concurrently.
+	 */
+	public void testManyConcurrentBlockingJobs() throws Exception {
+
+		// Create the team
+		Team team = new TeamSourceStandAlone().loadTeam(VirtualThreadTeamSource.class);
+		team.startWorking();
+		try {
+
+			// Assign many blocking jobs
+			final int JOB_COUNT = 1000;
+			CountDownLatch blocked = new CountDownLatch(JOB_COUNT);
+			CountDownLatch release = new CountDownLatch(1);
+			AtomicInteger completed = new AtomicInteger(0);
+			for (int i = 0; i < JOB_COUNT; i++) {
+				team.assignJob(new Job() {
+
+					@Override
+					public void run() {
+						blocked.countDown();
+						try {
+							release.await();
+						} catch (InterruptedException ex) {
+							throw fail(ex);
+						}
+						completed.incrementAndGet();
+					}
+
+					@Override
+					public void cancel(Throwable cause) {
+						fail("Should not cancel job");
+					}
+
+					@Override
+					public Object getProcessIdentifier() {
+						return this;
+					}
+				});
+			}
+
+			// Ensure all jobs block concurrently
+			assertTrue("All jobs should be blocking concurrently", blocked.await(10, TimeUnit.SECONDS));
+
+			// Release the jobs
+			release.countDown();
+			this.waitForTrue(() -> completed.get() == JOB_COUNT);
+
+		} finally {
+			team.stopWorking();
+		}
+	}
+
+	/**
+	 * Determines if virtual {@link Thread}.
+	 * 
+	 * @param thread {@link Thread}.
+	 * @return <code>true</code> if virtual {@link Thread}.
+	 */
+	private static boolean isVirtual(Thread thread) throws Exception {
+		try {
+			return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+		} catch (NoSuchMethodException ex) {
+			return false; // JVM without virtual threads
+		}
+	}
+
+}
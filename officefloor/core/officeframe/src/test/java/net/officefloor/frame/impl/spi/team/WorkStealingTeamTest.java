@@ -0,0 +1,285 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.impl.spi.team;
+
+import java.lang.Thread.State;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.officefloor.frame.api.team.Job;
+import net.officefloor.frame.api.team.Team;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.frame.util.TeamSourceStandAlone;
+
+/**
+ * Tests the {@link WorkStealingTeam}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WorkStealingTeamTest extends OfficeFrameTestCase {
+
+	/**
+	 * {@link Thread} instances of the {@link Team}.
+	 */
+	private final List<Thread> teamThreads = new ArrayList<>();
+
+	/**
+	 * Single member and single task.
+	 */
+	public void testSingleMemberOneTask() throws Exception {
+		this.workStealingTest(1, 1);
+	}
+
+	/**
+	 * Multiple members and single task.
+	 */
+	public void testMultipleMembersOneTask() throws Exception {
+		this.workStealingTest(3, 1);
+	}
+
+	/**
+	 * Single member and multiple tasks.
+	 */
+	public void testSingleMemberMultipleTasks() throws Exception {
+		this.workStealingTest(1, 6);
+	}
+
+	/**
+	 * Multiple members and multiple tasks.
+	 */
+	public void testMulitpleMembersMultipleTasks() throws Exception {
+		this.workStealingTest(3, 6);
+	}
+
+	/**
+	 * High load test.
+	 */
+	public void testHighLoad() throws Exception {
+		this.workStealingTest(100, 100);
+	}
+
+	/**
+	 * Ensure overflow of shared queue still executes all {@link Job} instances.
+	 */
+	public void testOverflowSharedQueue() throws Exception {
+
+		// Create team with small shared queue (and not yet working)
+		Team team = this.createTeam(2, "2");
+
+		// Assign more jobs than shared queue size
+		Counter counter = new Counter(null, 0);
+		final int JOB_COUNT = 100;
+		for (int i = 0; i < JOB_COUNT; i++) {
+			team.assignJob(counter);
+		}
+
+		// Start working and ensure all jobs executed
+		team.startWorking();
+		try {
+			this.waitForTrue(() -> counter.count.get() == JOB_COUNT);
+		} finally {
+			this.stopTeam(team);
+		}
+	}
+
+	/**
+	 * Ensure {@link Job} instances assigned by {@link Team} member are executed
+	 * (and stolen by other {@link Team} members).
+	 */
+	public void testAssignedByTeamMember() throws Exception {
+
+		// Create the team
+		Team team = this.createTeam(4, "4096");
+		team.startWorking();
+		try {
+
+			// Fan out jobs from within the team
+			final int JOB_COUNT = 10000;
+			Counter counter = new Counter(team, JOB_COUNT);
+			team.assignJob(counter);
+			this.waitForTrue(() -> counter.count.get() == JOB_COUNT);
+
+			// Ensure jobs stolen by other team members
+			assertTrue("Jobs should be run by multiple team members (run by " + counter.threads.size() + ")",
+					counter.threads.size() > 1);
+
+		} finally {
+			this.stopTeam(team);
+		}
+	}
+
+	/**
+	 * Counting {@link Job}.
+	 */
+	private static class Counter implements Job {
+
+		/**
+		 * {@link Team} to assign further {@link Job} instances. May be
+		 * <code>null</code>.
+		 */
+		private final Team team;
+
+		/**
+		 * Number of {@link Job} instances to run.
+		 */
+		private final int jobCount;
+
+		/**
+		 * Number of times run.
+		 */
+		private final AtomicInteger count = new AtomicInteger(0);
+
+		/**
+		 * Number of times assigned.
+		 */
+		private final AtomicInteger assigned = new AtomicInteger(1);
+
+		/**
+		 * {@link Thread} instances running this {@link Job}.
+		 */
+		private final List<Thread> threads = new ArrayList<>();
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param team     {@link Team} to assign further {@link Job} instances. May
+		 *                 be <code>null</code>.
+		 * @param jobCount Number of {@link Job} instances to run.
+		 */
+		private Counter(Team team, int jobCount) {
+			this.team = team;
+			this.jobCount = jobCount;
+		}
+
+		/*
+		 * ===================== Job ======================
+		 */
+
+		@Override
+		public void run() {
+
+			// Record the thread
+			synchronized (this.threads) {
+				Thread thread = Thread.currentThread();
+				if (!this.threads.contains(thread)) {
+					this.threads.add(thread);
+				}
+			}
+
+			// Fan out further jobs (with some work to allow stealing)
+			if (this.team != null) {
+				for (int i = 0; i < 2; i++) {
+					if (this.assigned.incrementAndGet() <= this.jobCount) {
+						try {
+							this.team.assignJob(this);
+						} catch (Exception ex) {
+							throw fail(ex);
+						}
+					}
+				}
+				Thread.yield();
+			}
+
+			// Count the run
+			this.count.incrementAndGet();
+		}
+
+		@Override
+		public void cancel(Throwable cause) {
+			fail("Should not cancel job");
+		}
+
+		@Override
+		public Object getProcessIdentifier() {
+			return this;
+		}
+	}
+
+	/**
+	 * Creates the {@link WorkStealingTeam}.
+	 * 
+	 * @param teamSize        Size of {@link Team}.
+	 * @param sharedQueueSize Shared queue size.
+	 * @return {@link WorkStealingTeam}.
+	 */
+	private Team createTeam(int teamSize, String sharedQueueSize) throws Exception {
+		TeamSourceStandAlone standAlone = new TeamSourceStandAlone();
+		standAlone.setThreadDecorator((thread) -> this.teamThreads.add(thread));
+		standAlone.setTeamSize(teamSize);
+		standAlone.addProperty(WorkStealingTeamSource.PROPERTY_SHARED_QUEUE_SIZE, sharedQueueSize);
+		return standAlone.loadTeam(WorkStealingTeamSource.class);
+	}
+
+	/**
+	 * Stops the {@link Team} ensuring all {@link Thread} instances complete.
+	 * 
+	 * @param team {@link Team}.
+	 */
+	private void stopTeam(Team team) {
+
+		// Stop processing (should have all threads finished)
+		team.stopWorking();
+
+		// Ensure all threads are stopped
+		this.waitForTrue(() -> {
+			for (Thread thread : this.teamThreads) {
+				if (!State.TERMINATED.equals(thread.getState())) {
+					return false;
+				}
+			}
+			return true;
+		});
+	}
+
+	/**
+	 * Runs the test on the {@link WorkStealingTeam}.
+	 * 
+	 * @param teamMemberCount Count of workers in the team.
+	 */
+	private void workStealingTest(int teamMemberCount, int taskCount) throws Exception {
+
+		// Create the team and start it working
+		final int teamSize = 10;
+		Team team = this.createTeam(teamSize, String.valueOf(WorkStealingTeamSource.DEFAULT_SHARED_QUEUE_SIZE));
+		team.startWorking();
+
+		// Ensure have appropriate number of threads
+		assertEquals("Incorrect number of threads", teamSize, this.teamThreads.size());
+
+		// Assign tasks and wait on them to be started for execution
+		MockJob[] tasks = new MockJob[taskCount];
+		for (int i = 0; i < taskCount; i++) {
+			tasks[i] = new MockJob();
+			tasks[i].assignJobToTeam(team, 10);
+		}
+
+		// Stop processing (should have all threads finished)
+		this.stopTeam(team);
+
+		// Should have invoked each task at least once
+		for (int i = 0; i < tasks.length; i++) {
+			assertTrue("Should have invoked task " + i + " at least once", tasks[i].doTaskInvocationCount >= 1);
+		}
+	}
+
+}
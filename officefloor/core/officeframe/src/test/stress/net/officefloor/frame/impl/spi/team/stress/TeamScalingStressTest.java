@@ -0,0 +1,211 @@
+/*-
+ * #%L
+ * OfficeFrame
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.frame.impl.spi.team.stress;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.officefloor.frame.api.team.Job;
+import net.officefloor.frame.api.team.Team;
+import net.officefloor.frame.api.team.source.TeamSource;
+import net.officefloor.frame.impl.spi.team.ExecutorFixedTeamSource;
+import net.officefloor.frame.impl.spi.team.LeaderFollowerTeamSource;
+import net.officefloor.frame.impl.spi.team.WorkStealingTeamSource;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.frame.util.TeamSourceStandAlone;
+
+/**
+ * Benchmarks the throughput of the {@link TeamSource} implementations as the
+ * {@link Team} size increases.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class TeamScalingStressTest extends OfficeFrameTestCase {
+
+	/**
+	 * Number of {@link Job} instances to run for each measurement.
+	 */
+	private static final int JOB_COUNT = 1000000;
+
+	/**
+	 * Number of {@link Job} chains concurrently assigning further {@link Job}
+	 * instances.
+	 */
+	private static final int CHAIN_COUNT = 64;
+
+	/**
+	 * Maximum time to wait in seconds for each measurement.
+	 */
+	private static final int MAX_WAIT_TIME_IN_SECONDS = 60;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		// Flag verbose to provide the scaling curve
+		this.setVerbose(true);
+	}
+
+	/**
+	 * Benchmarks the {@link LeaderFollowerTeamSource}.
+	 */
+	@StressTest
+	public void testLeaderFollowerScaling() throws Exception {
+		this.doScalingTest(LeaderFollowerTeamSource.class);
+	}
+
+	/**
+	 * Benchmarks the {@link ExecutorFixedTeamSource}.
+	 */
+	@StressTest
+	public void testExecutorFixedScaling() throws Exception {
+		this.doScalingTest(ExecutorFixedTeamSource.class);
+	}
+
+	/**
+	 * Benchmarks the {@link WorkStealingTeamSource}.
+	 */
+	@StressTest
+	public void testWorkStealingScaling() throws Exception {
+		this.doScalingTest(WorkStealingTeamSource.class);
+	}
+
+	/**
+	 * Undertakes the scaling test for the {@link TeamSource}.
+	 * 
+	 * @param teamSourceClass {@link TeamSource} {@link Class}.
+	 */
+	private void doScalingTest(Class<? extends TeamSource> teamSourceClass) throws Exception {
+
+		// Run for increasing team sizes (up to twice the processors)
+		int maxTeamSize = Runtime.getRuntime().availableProcessors() * 2;
+		StringBuilder curve = new StringBuilder();
+		curve.append(teamSourceClass.getSimpleName() + " scaling (team size: jobs per second)\n");
+		for (int teamSize = 1; teamSize <= maxTeamSize; teamSize <<= 1) {
+
+			// Create the team
+			TeamSourceStandAlone standAlone = new TeamSourceStandAlone();
+			standAlone.setTeamSize(teamSize);
+			Team team = standAlone.loadTeam(teamSourceClass);
+			team.startWorking();
+			try {
+
+				// Warm up and then measure
+				this.runJobs(team);
+				long startTime = System.nanoTime();
+				this.runJobs(team);
+				long runTime = System.nanoTime() - startTime;
+
+				// Record the throughput
+				long jobsPerSecond = (JOB_COUNT * TimeUnit.SECONDS.toNanos(1)) / Math.max(1, runTime);
+				curve.append("\t" + teamSize + ": " + jobsPerSecond + "\n");
+
+			} finally {
+				team.stopWorking();
+			}
+		}
+		this.printMessage(curve.toString());
+	}
+
+	/**
+	 * Runs the {@link Job} instances on the {@link Team}.
+	 * 
+	 * @param team {@link Team}.
+	 */
+	private void runJobs(Team team) throws Exception {
+
+		// Assign the chains of jobs
+		CountDownLatch complete = new CountDownLatch(1);
+		AtomicInteger remaining = new AtomicInteger(JOB_COUNT);
+		for (int i = 0; i < CHAIN_COUNT; i++) {
+			team.assignJob(new ChainJob(team, remaining, complete));
+		}
+
+		// Wait for jobs to complete
+		assertTrue("Timed out waiting on jobs", complete.await(MAX_WAIT_TIME_IN_SECONDS, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * {@link Job} that assigns itself again until all {@link Job} instances run.
+	 */
+	private static class ChainJob implements Job {
+
+		/**
+		 * {@link Team}.
+		 */
+		private final Team team;
+
+		/**
+		 * Remaining number of {@link Job} instances to run.
+		 */
+		private final AtomicInteger remaining;
+
+		/**
+		 * {@link CountDownLatch} to flag all {@link Job} instances run.
+		 */
+		private final CountDownLatch complete;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param team      {@link Team}.
+		 * @param remaining Remaining number of {@link Job} instances to run.
+		 * @param complete  {@link CountDownLatch} to flag all {@link Job}
+		 *                  instances run.
+		 */
+		private ChainJob(Team team, AtomicInteger remaining, CountDownLatch complete) {
+			this.team = team;
+			this.remaining = remaining;
+			this.complete = complete;
+		}
+
+		/*
+		 * ===================== Job ======================
+		 */
+
+		@Override
+		public void run() {
+			int count = this.remaining.decrementAndGet();
+			if (count == 0) {
+				this.complete.countDown();
+			} else if (count > 0) {
+				try {
+					this.team.assignJob(this);
+				} catch (Exception ex) {
+					throw fail(ex);
+				}
+			}
+		}
+
+		@Override
+		public void cancel(Throwable cause) {
+			fail("Should not cancel job");
+		}
+
+		@Override
+		public Object getProcessIdentifier() {
+			return this;
+		}
+	}
+
+}
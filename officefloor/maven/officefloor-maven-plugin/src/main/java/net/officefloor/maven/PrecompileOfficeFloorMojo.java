@@ -0,0 +1,217 @@
+/*-
+ * #%L
+ * Maven OfficeFloor Plugin
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.maven;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import net.officefloor.OfficeFloorPrecompileMain;
+import net.officefloor.compile.classes.OfficeFloorJavaCompiler;
+import net.officefloor.frame.api.manage.OfficeFloor;
+
+/**
+ * <p>
+ * Precompile {@link OfficeFloor} {@link Mojo}.
+ * <p>
+ * Compiles the {@link OfficeFloor} at build time to write the
+ * {@link OfficeFloorJavaCompiler} generated {@link Class} instances into the
+ * build output. At runtime, these are loaded rather than compiled, reducing
+ * start up time and allowing running on a JRE.
+ * 
+ * @author Daniel Sagenschneider
+ */
+@Mojo(name = "precompile", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.RUNTIME)
+public class PrecompileOfficeFloorMojo extends AbstractMojo {
+
+	/**
+	 * Default time out in seconds to precompile {@link OfficeFloor}.
+	 */
+	private static final int DEFAULT_TIMEOUT = 120;
+
+	/**
+	 * {@link MavenProject}.
+	 */
+	@Parameter(defaultValue = "${project}", readonly = true)
+	private MavenProject project;
+
+	/**
+	 * System properties provided to JVM.
+	 */
+	@Parameter(required = false)
+	private Map<String, String> systemProperties;
+
+	/**
+	 * Time out in seconds for precompiling {@link OfficeFloor}.
+	 */
+	@Parameter(required = false, defaultValue = "" + DEFAULT_TIMEOUT)
+	private int timeout = DEFAULT_TIMEOUT;
+
+	/*
+	 * =================== AbstractMojo =================
+	 */
+
+	@Override
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		try {
+
+			// Obtain details to run
+			String javaHome = System.getProperty("java.home");
+			String javaBin = javaHome + File.separator + "bin" + File.separator + "java";
+
+			// Generate the class path
+			StringBuilder classPath = new StringBuilder();
+			boolean isFirst = true;
+			for (String classPathEntry : this.project.getRuntimeClasspathElements()) {
+				if (!isFirst) {
+					classPath.append(File.pathSeparator);
+				}
+				isFirst = false;
+				classPath.append(classPathEntry);
+			}
+
+			// Create the command line
+			List<String> commandLine = new LinkedList<>();
+			commandLine.add(javaBin);
+			commandLine.add("-cp");
+			commandLine.add(classPath.toString());
+			if (this.systemProperties != null) {
+				for (String name : this.systemProperties.keySet()) {
+					String value = this.systemProperties.get(name);
+					commandLine.add("-D" + name.trim() + "=" + value.trim());
+				}
+			}
+			commandLine.add(OfficeFloorPrecompileMain.class.getName());
+			commandLine.add(this.project.getBuild().getOutputDirectory());
+
+			// Log the command line
+			this.getLog().debug("Precompiling OfficeFloor with: " + String.join(" ", commandLine));
+
+			// Run the precompile
+			ProcessBuilder builder = new ProcessBuilder(commandLine.toArray(new String[commandLine.size()]));
+			builder.redirectErrorStream(true);
+			Process process = builder.start();
+
+			// Log the output (on separate thread so time out is enforced)
+			OutputGobbler output = new OutputGobbler(process.getInputStream());
+
+			// Wait on completion
+			if (!process.waitFor(this.timeout, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+				throw new MojoFailureException("Timed out waiting on " + OfficeFloor.class.getSimpleName()
+						+ " to precompile after " + this.timeout + " seconds");
+			}
+
+			// Ensure all output consumed
+			output.join(TimeUnit.SECONDS.toMillis(this.timeout));
+			if (output.failure != null) {
+				throw new MojoExecutionException(
+						"Failed reading output of precompiling " + OfficeFloor.class.getSimpleName(), output.failure);
+			}
+			if ((process.exitValue() != 0) || (!output.isPrecompiled)) {
+				throw new MojoExecutionException("Failed to precompile " + OfficeFloor.class.getSimpleName()
+						+ " (exit value " + process.exitValue() + ")");
+			}
+
+		} catch (Exception ex) {
+			if (ex instanceof MojoExecutionException) {
+				throw (MojoExecutionException) ex;
+			} else if (ex instanceof MojoFailureException) {
+				throw (MojoFailureException) ex;
+			}
+			throw new MojoFailureException("Failed to precompile " + OfficeFloor.class.getSimpleName(), ex);
+		}
+	}
+
+	/**
+	 * Gobbles the output of precompiling the {@link OfficeFloor}.
+	 */
+	private class OutputGobbler extends Thread {
+
+		/**
+		 * Output of the precompile process.
+		 */
+		private final BufferedReader input;
+
+		/**
+		 * Indicates if output flagged {@link OfficeFloor} precompiled.
+		 */
+		private volatile boolean isPrecompiled = false;
+
+		/**
+		 * Possible failure in reading the output.
+		 */
+		private volatile Throwable failure = null;
+
+		/**
+		 * Initiate.
+		 * 
+		 * @param input {@link InputStream} of output to gobble.
+		 */
+		private OutputGobbler(InputStream input) {
+			this.input = new BufferedReader(new InputStreamReader(input));
+
+			// Flag as deamon (should not stop process finishing)
+			this.setDaemon(true);
+
+			// Start gobbling
+			this.start();
+		}
+
+		/*
+		 * ================= Thread ======================
+		 */
+
+		@Override
+		public void run() {
+			try {
+
+				// Consume from stream until EOF
+				String line;
+				while ((line = this.input.readLine()) != null) {
+					PrecompileOfficeFloorMojo.this.getLog().info(line);
+					if (OfficeFloorPrecompileMain.STD_OUT_PRECOMPILED_LINE.equals(line.trim())) {
+						this.isPrecompiled = true;
+					}
+				}
+
+			} catch (Throwable ex) {
+				this.failure = ex;
+			}
+		}
+	}
+
+}
@@ -22,14 +22,22 @@
 package net.officefloor.maven;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Properties;
+import java.util.function.Supplier;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -45,12 +53,16 @@ import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 
+import net.officefloor.compile.OfficeFloorCompiler;
+import net.officefloor.compile.classes.OfficeFloorJavaCompiler;
 import net.officefloor.compile.mbean.OfficeFloorMBean;
+import net.officefloor.maven.stubs.OfficeFloorProjectStub;
 import net.officefloor.frame.api.manage.OfficeFloor;
 import net.officefloor.server.http.HttpClientTestUtil;
 
 /**
- * Tests the {@link OpenOfficeFloorMojo} and {@link CloseOfficeFloorMojo}.
+ * Tests the {@link OpenOfficeFloorMojo}, {@link CloseOfficeFloorMojo} and
+ * {@link PrecompileOfficeFloorMojo}.
  * 
  * @author Daniel Sagenschneider
  */
@@ -193,6 +205,46 @@ public class OfficeFloorMavenPluginTest {
 		}
 	}
 
+	/**
+	 * Ensure can precompile the {@link OfficeFloor} and then load the precompiled
+	 * {@link Class}.
+	 */
+	@Test
+	public void precompileOfficeFloor() throws Exception {
+
+		// Precompile the OfficeFloor
+		PrecompileOfficeFloorMojo precompile = (PrecompileOfficeFloorMojo) this.mojo.lookupMojo("precompile",
+				new File(PlexusTestCase.getBasedir(), "src/test/resources/test-precompile-pom.xml"));
+		precompile.execute();
+
+		// Ensure precompiled index produced
+		File outputDirectory = new File(PlexusTestCase.getBasedir(), OfficeFloorProjectStub.OUTPUT_DIRECTORY);
+		File indexFile = new File(outputDirectory, OfficeFloorJavaCompiler.PRECOMPILED_CLASSES_RESOURCE_PATH);
+		assertTrue("Should produce precompiled index", indexFile.isFile());
+		Properties index = new Properties();
+		try (InputStream input = new FileInputStream(indexFile)) {
+			index.load(input);
+		}
+		assertEquals("Should precompile the one class", 1, index.size());
+		String recordedClassName = index.getProperty(index.stringPropertyNames().iterator().next());
+		assertTrue("Should write precompiled class",
+				new File(outputDirectory, recordedClassName.replace('.', '/') + ".class").isFile());
+
+		// Ensure precompiled class picked up (rather than compiled)
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { outputDirectory.toURI().toURL() },
+				this.getClass().getClassLoader())) {
+			OfficeFloorJavaCompiler compiler = OfficeFloorJavaCompiler
+					.newInstance(OfficeFloorCompiler.newOfficeFloorCompiler(classLoader).createRootSourceContext());
+			assertNotNull("Should have compiler for precompiled classes", compiler);
+			Class<?> precompiledClass = PrecompileJavaSource.addPrecompileSource(compiler).compile();
+			assertEquals("Should load precompiled class", recordedClassName, precompiledClass.getName());
+			assertSame("Should load from build output", classLoader, precompiledClass.getClassLoader());
+			@SuppressWarnings("unchecked")
+			Supplier<String> supplier = (Supplier<String>) precompiledClass.getConstructor().newInstance();
+			assertEquals("Incorrect precompiled result", PrecompileJavaSource.PRECOMPILED_MESSAGE, supplier.get());
+		}
+	}
+
 	/**
 	 * Opens {@link OfficeFloor}.
 	 * 
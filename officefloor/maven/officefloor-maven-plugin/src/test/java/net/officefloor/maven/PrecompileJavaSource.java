@@ -0,0 +1,102 @@
+/*-
+ * #%L
+ * Maven OfficeFloor Plugin
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.maven;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.function.Supplier;
+
+import net.officefloor.compile.OfficeFloorCompilerConfigurer;
+import net.officefloor.compile.OfficeFloorCompilerConfigurerContext;
+import net.officefloor.compile.OfficeFloorCompilerConfigurerServiceFactory;
+import net.officefloor.compile.classes.OfficeFloorJavaCompiler;
+import net.officefloor.compile.classes.OfficeFloorJavaCompiler.ClassName;
+import net.officefloor.compile.classes.OfficeFloorJavaCompiler.JavaSource;
+import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.api.source.ServiceContext;
+
+/**
+ * Compiles a {@link JavaSource} while compiling the {@link OfficeFloor} so
+ * there is a {@link Class} to precompile.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class PrecompileJavaSource
+		implements OfficeFloorCompilerConfigurer, OfficeFloorCompilerConfigurerServiceFactory {
+
+	/**
+	 * {@link System} property to flag compiling the {@link JavaSource}.
+	 */
+	public static final String SYSTEM_PROPERTY_PRECOMPILE = "test.precompile.officefloor";
+
+	/**
+	 * Message provided by the compiled {@link Class}.
+	 */
+	public static final String PRECOMPILED_MESSAGE = "PRECOMPILED";
+
+	/**
+	 * Adds the {@link JavaSource} to be precompiled.
+	 * 
+	 * @param compiler {@link OfficeFloorJavaCompiler}.
+	 * @return {@link JavaSource}.
+	 */
+	public static JavaSource addPrecompileSource(OfficeFloorJavaCompiler compiler) {
+		ClassName className = compiler.createClassName("test.Precompiled");
+		StringWriter buffer = new StringWriter();
+		PrintWriter source = new PrintWriter(buffer);
+		source.println("package " + className.getPackageName() + ";");
+		source.println("public class " + className.getClassName() + " implements " + Supplier.class.getName()
+				+ "<String> {");
+		source.println("   public String get() {");
+		source.println("       return \"" + PRECOMPILED_MESSAGE + "\";");
+		source.println("   }");
+		source.println("}");
+		source.flush();
+		return compiler.addSource(className, buffer.toString());
+	}
+
+	/*
+	 * ================ OfficeFloorCompilerConfigurerServiceFactory ================
+	 */
+
+	@Override
+	public OfficeFloorCompilerConfigurer createService(ServiceContext context) throws Throwable {
+		return this;
+	}
+
+	/*
+	 * ======================= OfficeFloorCompilerConfigurer =======================
+	 */
+
+	@Override
+	public void configureOfficeFloorCompiler(OfficeFloorCompilerConfigurerContext context) throws Exception {
+
+		// Determine if precompile
+		boolean isPrecompile = Boolean.parseBoolean(System.getProperty(SYSTEM_PROPERTY_PRECOMPILE, "false"));
+		if (isPrecompile) {
+			OfficeFloorJavaCompiler compiler = OfficeFloorJavaCompiler
+					.newInstance(context.getOfficeFloorCompiler().createRootSourceContext());
+			addPrecompileSource(compiler).compile();
+		}
+	}
+
+}
@@ -24,8 +24,10 @@ package net.officefloor.maven.stubs;
 import java.io.File;
 import java.util.Arrays;
 
+import org.apache.maven.model.Build;
 import org.apache.maven.plugin.testing.stubs.MavenProjectStub;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.PlexusTestCase;
 
 /**
  * Mock {@link MavenProject}.
@@ -34,6 +36,11 @@ import org.apache.maven.project.MavenProject;
  */
 public class OfficeFloorProjectStub extends MavenProjectStub {
 
+	/**
+	 * Build output directory.
+	 */
+	public static final String OUTPUT_DIRECTORY = "target/test-precompile-classes";
+
 	/**
 	 * Instantiate.
 	 */
@@ -42,6 +49,11 @@ public class OfficeFloorProjectStub extends MavenProjectStub {
 		// Load the runtime class
 		String javaClassPath = System.getProperty("java.class.path");
 		this.setRuntimeClasspathElements(Arrays.asList(javaClassPath.split(File.pathSeparator)));
+
+		// Load the build
+		Build build = new Build();
+		build.setOutputDirectory(new File(PlexusTestCase.getBasedir(), OUTPUT_DIRECTORY).getAbsolutePath());
+		this.setBuild(build);
 	}
 
 }
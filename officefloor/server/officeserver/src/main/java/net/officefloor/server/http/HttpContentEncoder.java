@@ -0,0 +1,65 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.officefloor.server.stream.StreamBuffer;
+
+/**
+ * <p>
+ * Encodes the {@link HttpResponse} entity for a <code>Content-Encoding</code>.
+ * <p>
+ * This allows plugging in further encodings (e.g. <code>br</code>) alongside
+ * the provided <code>gzip</code> and <code>deflate</code> encodings.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public interface HttpContentEncoder {
+
+	/**
+	 * Obtains the <code>Content-Encoding</code> coding (e.g. <code>gzip</code>)
+	 * matched against the <code>Accept-Encoding</code> of the
+	 * {@link HttpRequest}.
+	 * 
+	 * @return <code>Content-Encoding</code> coding.
+	 */
+	String getContentCoding();
+
+	/**
+	 * <p>
+	 * Creates the encoding {@link OutputStream}.
+	 * <p>
+	 * Bytes written to the returned {@link OutputStream} are encoded and written
+	 * to the target {@link OutputStream} (typically backed by pooled
+	 * {@link StreamBuffer} instances) as they are written. Closing the returned
+	 * {@link OutputStream} completes the encoding and releases any compressor
+	 * resources, however must not close the target {@link OutputStream}.
+	 * 
+	 * @param target Target {@link OutputStream} to receive the encoded bytes.
+	 * @return Encoding {@link OutputStream}.
+	 * @throws IOException If fails to start encoding.
+	 */
+	OutputStream createEncoder(OutputStream target) throws IOException;
+
+}
@@ -225,4 +225,42 @@ public interface HttpResponse {
 	 */
 	void send() throws IOException;
 
+	/**
+	 * <p>
+	 * Commits to streaming this {@link HttpResponse}.
+	 * <p>
+	 * The status, {@link HttpHeader} instances and cookies are sent
+	 * immediately. The entity then follows as it is flushed (by
+	 * <code>Transfer-Encoding: chunked</code>), rather than being held until
+	 * servicing completes. The <code>Content-Type</code> should therefore be
+	 * specified before streaming.
+	 * <p>
+	 * Should the underlying server not support streaming (or the client be
+	 * HTTP/1.0), the {@link HttpResponse} is sent as normal on completion of
+	 * servicing.
+	 * 
+	 * @throws IOException
+	 *             If already committed to send the {@link HttpResponse}.
+	 */
+	void stream() throws IOException;
+
+	/**
+	 * <p>
+	 * Detaches this {@link HttpResponse} from servicing, so that the entity may
+	 * continue to be written after servicing completes.
+	 * <p>
+	 * This commits to streaming this {@link HttpResponse} (see
+	 * {@link #stream()}) with the entity written so far sent immediately. The
+	 * {@link HttpResponse} is then only completed on closing the returned
+	 * {@link HttpResponseStream}. This enables long lived responses, such as
+	 * Server-Sent Events.
+	 * 
+	 * @return {@link HttpResponseStream} to write further entity content.
+	 * @throws IOException
+	 *             If already committed to send the {@link HttpResponse} or the
+	 *             underlying server is unable to stream the
+	 *             {@link HttpResponse}.
+	 */
+	HttpResponseStream detach() throws IOException;
+
 }
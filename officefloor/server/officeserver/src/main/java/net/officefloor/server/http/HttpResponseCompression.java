@@ -0,0 +1,320 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.officefloor.frame.api.source.SourceContext;
+import net.officefloor.server.http.impl.DeflaterHttpContentEncoder;
+
+/**
+ * Configuration of compressing the {@link HttpResponse} entity, as negotiated
+ * by the <code>Accept-Encoding</code> of the {@link HttpRequest}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class HttpResponseCompression {
+
+	/**
+	 * Default minimum entity size in bytes before compressing.
+	 */
+	public static final int DEFAULT_MINIMUM_SIZE = 1024;
+
+	/**
+	 * Default compression level.
+	 */
+	public static final int DEFAULT_LEVEL = 6;
+
+	/**
+	 * Default comma separated <code>Content-Type</code> values to compress. Values
+	 * ending with <code>/</code> or <code>*</code> match by prefix.
+	 */
+	public static final String DEFAULT_CONTENT_TYPES = "text/*,application/json,application/javascript,application/xml,image/svg+xml";
+
+	/**
+	 * Loads the {@link HttpResponseCompression} from configuration.
+	 * 
+	 * @param context {@link SourceContext}.
+	 * @return {@link HttpResponseCompression} or <code>null</code> if not
+	 *         compressing {@link HttpResponse} entities.
+	 */
+	public static HttpResponseCompression load(SourceContext context) {
+
+		// Determine if compressing
+		boolean isCompress = Boolean.parseBoolean(
+				HttpServer.getPropertyString(HttpServer.PROPERTY_HTTP_COMPRESSION, context, () -> String.valueOf(false)));
+		if (!isCompress) {
+			return null; // not compressing
+		}
+
+		// Load the configuration
+		int minimumSize = HttpServer.getPropertyInteger(HttpServer.PROPERTY_HTTP_COMPRESSION_MINIMUM_SIZE, context,
+				() -> DEFAULT_MINIMUM_SIZE);
+		String contentTypes = HttpServer.getPropertyString(HttpServer.PROPERTY_HTTP_COMPRESSION_CONTENT_TYPES, context,
+				() -> DEFAULT_CONTENT_TYPES);
+		int level = HttpServer.getPropertyInteger(HttpServer.PROPERTY_HTTP_COMPRESSION_LEVEL, context,
+				() -> DEFAULT_LEVEL);
+
+		// Load the encoders (plugged in encoders preferred)
+		List<HttpContentEncoder> encoders = new ArrayList<>();
+		for (HttpContentEncoder encoder : context.loadOptionalServices(HttpContentEncoderFactory.class)) {
+			encoders.add(encoder);
+		}
+		encoders.add(new DeflaterHttpContentEncoder(true, level));
+		encoders.add(new DeflaterHttpContentEncoder(false, level));
+
+		// Create the compression
+		return new HttpResponseCompression(minimumSize, contentTypes.split(","),
+				encoders.toArray(new HttpContentEncoder[encoders.size()]));
+	}
+
+	/**
+	 * Minimum entity size in bytes before compressing.
+	 */
+	private final int minimumSize;
+
+	/**
+	 * <code>Content-Type</code> values to compress.
+	 */
+	private final String[] contentTypes;
+
+	/**
+	 * Indicates if the corresponding <code>Content-Type</code> is a prefix match.
+	 */
+	private final boolean[] isContentTypePrefix;
+
+	/**
+	 * {@link HttpContentEncoder} instances in order of preference.
+	 */
+	private final HttpContentEncoder[] encoders;
+
+	/**
+	 * <code>Content-Encoding</code> {@link HttpHeaderValue} for the corresponding
+	 * {@link HttpContentEncoder}.
+	 */
+	private final HttpHeaderValue[] contentEncodings;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param minimumSize  Minimum entity size in bytes before compressing.
+	 * @param contentTypes <code>Content-Type</code> values to compress. Values
+	 *                     ending with <code>/</code> or <code>*</code> match by
+	 *                     prefix.
+	 * @param encoders     {@link HttpContentEncoder} instances in order of
+	 *                     preference.
+	 */
+	public HttpResponseCompression(int minimumSize, String[] contentTypes, HttpContentEncoder... encoders) {
+		this.minimumSize = Math.max(0, minimumSize);
+
+		// Load the content types
+		List<String> types = new ArrayList<>(contentTypes.length);
+		for (String contentType : contentTypes) {
+			String type = (contentType == null) ? "" : contentType.trim();
+			if (type.length() > 0) {
+				types.add(type);
+			}
+		}
+		this.contentTypes = new String[types.size()];
+		this.isContentTypePrefix = new boolean[types.size()];
+		for (int i = 0; i < this.contentTypes.length; i++) {
+			String type = types.get(i);
+			if (type.endsWith("*")) {
+				this.contentTypes[i] = type.substring(0, type.length() - 1);
+				this.isContentTypePrefix[i] = true;
+			} else {
+				this.contentTypes[i] = type;
+				this.isContentTypePrefix[i] = type.endsWith("/");
+			}
+		}
+
+		// Load the encoders
+		this.encoders = encoders;
+		this.contentEncodings = new HttpHeaderValue[encoders.length];
+		for (int i = 0; i < encoders.length; i++) {
+			this.contentEncodings[i] = new HttpHeaderValue(encoders[i].getContentCoding());
+		}
+	}
+
+	/**
+	 * Obtains the minimum entity size in bytes before compressing.
+	 * 
+	 * @return Minimum entity size in bytes before compressing.
+	 */
+	public int getMinimumSize() {
+		return this.minimumSize;
+	}
+
+	/**
+	 * Obtains the {@link HttpContentEncoder} instances in order of preference.
+	 * 
+	 * @return {@link HttpContentEncoder} instances in order of preference.
+	 */
+	public HttpContentEncoder[] getHttpContentEncoders() {
+		return this.encoders;
+	}
+
+	/**
+	 * Determines if the <code>Content-Type</code> is to be compressed.
+	 * 
+	 * @param contentType <code>Content-Type</code>. May include parameters (e.g.
+	 *                    <code>charset</code>).
+	 * @return <code>true</code> if compress.
+	 */
+	public boolean isCompressible(String contentType) {
+
+		// Must have content type
+		if (contentType == null) {
+			return false;
+		}
+
+		// Determine length of media type (ignoring parameters)
+		int mediaTypeLength = contentType.indexOf(';');
+		if (mediaTypeLength < 0) {
+			mediaTypeLength = contentType.length();
+		}
+		while ((mediaTypeLength > 0) && (contentType.charAt(mediaTypeLength - 1) == ' ')) {
+			mediaTypeLength--;
+		}
+
+		// Determine if match
+		for (int i = 0; i < this.contentTypes.length; i++) {
+			String type = this.contentTypes[i];
+			if (this.isContentTypePrefix[i]) {
+				if ((mediaTypeLength >= type.length()) && (contentType.regionMatches(true, 0, type, 0, type.length()))) {
+					return true;
+				}
+			} else if ((mediaTypeLength == type.length())
+					&& (contentType.regionMatches(true, 0, type, 0, type.length()))) {
+				return true;
+			}
+		}
+
+		// As here, not compress
+		return false;
+	}
+
+	/**
+	 * Negotiates the {@link HttpContentEncoder} from the
+	 * <code>Accept-Encoding</code> value.
+	 * 
+	 * @param acceptEncoding <code>Accept-Encoding</code> value. May be
+	 *                       <code>null</code>.
+	 * @return {@link HttpContentEncoder} or <code>null</code> if no acceptable
+	 *         encoding.
+	 */
+	public HttpContentEncoder negotiate(String acceptEncoding) {
+
+		// Determine if accept encoding
+		if ((acceptEncoding == null) || (this.encoders.length == 0)) {
+			return null;
+		}
+
+		// Load the quality for each encoder (negative for not specified)
+		float[] qualities = new float[this.encoders.length];
+		for (int i = 0; i < qualities.length; i++) {
+			qualities[i] = -1;
+		}
+		float wildcardQuality = -1;
+		int start = 0;
+		int length = acceptEncoding.length();
+		while (start < length) {
+
+			// Obtain the next element
+			int end = acceptEncoding.indexOf(',', start);
+			if (end < 0) {
+				end = length;
+			}
+			String element = acceptEncoding.substring(start, end);
+			start = end + 1;
+
+			// Obtain the coding and quality
+			int parameterIndex = element.indexOf(';');
+			String coding = (parameterIndex < 0 ? element : element.substring(0, parameterIndex)).trim();
+			if (coding.length() == 0) {
+				continue; // no coding
+			}
+			float quality = (parameterIndex < 0) ? 1 : parseQuality(element.substring(parameterIndex + 1));
+
+			// Load the quality
+			if ("*".equals(coding)) {
+				wildcardQuality = quality;
+			} else {
+				for (int i = 0; i < this.encoders.length; i++) {
+					if (coding.equalsIgnoreCase(this.encoders[i].getContentCoding())) {
+						qualities[i] = quality;
+					}
+				}
+			}
+		}
+
+		// Select the most acceptable encoder (ties by preference)
+		HttpContentEncoder selected = null;
+		float selectedQuality = 0;
+		for (int i = 0; i < this.encoders.length; i++) {
+			float quality = (qualities[i] >= 0) ? qualities[i] : wildcardQuality;
+			if (quality > selectedQuality) {
+				selected = this.encoders[i];
+				selectedQuality = quality;
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Obtains the <code>Content-Encoding</code> {@link HttpHeaderValue} for the
+	 * {@link HttpContentEncoder}.
+	 * 
+	 * @param encoder {@link HttpContentEncoder}.
+	 * @return <code>Content-Encoding</code> {@link HttpHeaderValue}.
+	 */
+	public HttpHeaderValue getContentEncoding(HttpContentEncoder encoder) {
+		for (int i = 0; i < this.encoders.length; i++) {
+			if (this.encoders[i] == encoder) {
+				return this.contentEncodings[i];
+			}
+		}
+		return new HttpHeaderValue(encoder.getContentCoding());
+	}
+
+	/**
+	 * Parses the quality from the <code>Accept-Encoding</code> element parameters.
+	 * 
+	 * @param parameters Parameters of the <code>Accept-Encoding</code> element.
+	 * @return Quality. Unparseable quality is considered not acceptable.
+	 */
+	private static float parseQuality(String parameters) {
+		for (String parameter : parameters.split(";")) {
+			int equalsIndex = parameter.indexOf('=');
+			if ((equalsIndex > 0) && ("q".equalsIgnoreCase(parameter.substring(0, equalsIndex).trim()))) {
+				try {
+					return Float.parseFloat(parameter.substring(equalsIndex + 1).trim());
+				} catch (NumberFormatException ex) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+}
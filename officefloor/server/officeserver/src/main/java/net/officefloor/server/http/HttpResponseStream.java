@@ -0,0 +1,91 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Stream of entity content for a {@link HttpResponse} that has been detached
+ * from servicing.
+ * <p>
+ * Unlike the {@link HttpResponse}, this may be used by any {@link Thread}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public interface HttpResponseStream {
+
+	/**
+	 * <p>
+	 * Writes further entity content.
+	 * <p>
+	 * The {@link ByteBuffer} content is sent as is (from its position to its
+	 * limit) and is not modified. This allows the same read-only content to be
+	 * written to many {@link HttpResponseStream} instances without copying.
+	 * <p>
+	 * Should the client not be keeping up with the content, this may block the
+	 * calling {@link Thread}.
+	 * 
+	 * @param content Content.
+	 * @throws IOException If {@link HttpResponseStream} is closed.
+	 */
+	void write(ByteBuffer content) throws IOException;
+
+	/**
+	 * <p>
+	 * Writes further entity content without blocking the calling
+	 * {@link Thread}.
+	 * <p>
+	 * The content is queued to be sent by the server I/O {@link Thread}. Rather
+	 * than back-pressure, should the client not be keeping up with the content
+	 * (more than the maximum buffers pending write to the client), the
+	 * connection is closed to drop the client. This is then reported by
+	 * {@link #isClosed()}.
+	 * <p>
+	 * As per {@link #write(ByteBuffer)}, the {@link ByteBuffer} content is not
+	 * modified.
+	 * 
+	 * @param content          Content.
+	 * @param maxPendingWrites Maximum number of buffers pending write to the
+	 *                         client before the client is dropped.
+	 * @throws IOException If {@link HttpResponseStream} is closed.
+	 */
+	void offer(ByteBuffer content, int maxPendingWrites) throws IOException;
+
+	/**
+	 * Indicates if this {@link HttpResponseStream} is closed. This will also be
+	 * the case should the client close the connection.
+	 * 
+	 * @return <code>true</code> if closed.
+	 */
+	boolean isClosed();
+
+	/**
+	 * Closes this {@link HttpResponseStream}, completing the
+	 * {@link HttpResponse}.
+	 * 
+	 * @throws IOException If fails to close.
+	 */
+	void close() throws IOException;
+
+}
@@ -70,6 +70,31 @@ public class HttpServer {
 	 */
 	public static final String PROPERTY_INCLUDE_STACK_TRACE = "http.include.stacktrace";
 
+	/**
+	 * Name of {@link Property} specifying whether to compress the
+	 * {@link HttpResponse} entity (as negotiated by <code>Accept-Encoding</code>).
+	 * Value is <code>true</code>/<code>false</code>.
+	 */
+	public static final String PROPERTY_HTTP_COMPRESSION = "http.compression";
+
+	/**
+	 * Name of {@link Property} specifying the minimum {@link HttpResponse} entity
+	 * size in bytes before compressing.
+	 */
+	public static final String PROPERTY_HTTP_COMPRESSION_MINIMUM_SIZE = "http.compression.minimum.size";
+
+	/**
+	 * Name of {@link Property} specifying the comma separated
+	 * <code>Content-Type</code> values to compress.
+	 */
+	public static final String PROPERTY_HTTP_COMPRESSION_CONTENT_TYPES = "http.compression.content.types";
+
+	/**
+	 * Name of {@link Property} specifying the compression level (1 fastest to 9
+	 * smallest).
+	 */
+	public static final String PROPERTY_HTTP_COMPRESSION_LEVEL = "http.compression.level";
+
 	/**
 	 * Name of {@link Property} for the {@link SslContextSource}.
 	 */
@@ -189,6 +214,11 @@ public class HttpServer {
 	 */
 	private final boolean isIncludeEscalationStackTrace;
 
+	/**
+	 * {@link HttpResponseCompression}. May be <code>null</code>.
+	 */
+	private final HttpResponseCompression httpResponseCompression;
+
 	/**
 	 * {@link HttpServerImplementation}.
 	 */
@@ -242,6 +272,9 @@ public class HttpServer {
 		this.isIncludeEscalationStackTrace = Boolean
 				.parseBoolean(getPropertyString(PROPERTY_INCLUDE_STACK_TRACE, context, () -> Boolean.TRUE.toString()));
 
+		// Load the response compression
+		this.httpResponseCompression = HttpResponseCompression.load(context);
+
 		// Obtain the server implementation
 		List<HttpServerImplementation> implementations = new ArrayList<>();
 		for (HttpServerImplementation implementation : context
@@ -313,6 +346,7 @@ public class HttpServer {
 		this.serverName = serverName;
 		this.dateHttpHeaderClock = dateHttpHeaderClock;
 		this.isIncludeEscalationStackTrace = isIncludeEscalationStackTrace;
+		this.httpResponseCompression = (context != null) ? HttpResponseCompression.load(context) : null;
 		this.serverImplementation = implementation;
 		this.isCreateSslContext = false;
 		this.sslContext = sslContext;
@@ -365,6 +399,11 @@ public class HttpServer {
 				return HttpServer.this.isIncludeEscalationStackTrace;
 			}
 
+			@Override
+			public HttpResponseCompression getHttpResponseCompression() {
+				return HttpServer.this.httpResponseCompression;
+			}
+
 			@Override
 			public SSLContext getSslContext() throws Exception {
 
@@ -79,6 +79,15 @@ public interface HttpServerImplementationContext {
 	 */
 	boolean isIncludeEscalationStackTrace();
 
+	/**
+	 * Obtains the {@link HttpResponseCompression} for compressing the
+	 * {@link HttpResponse} entity.
+	 * 
+	 * @return {@link HttpResponseCompression}. May be <code>null</code> to not
+	 *         compress.
+	 */
+	HttpResponseCompression getHttpResponseCompression();
+
 	/**
 	 * <p>
 	 * Obtains the {@link SSLContext} to use for HTTPS.
@@ -0,0 +1,108 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http;
+
+import net.officefloor.server.stream.StreamBuffer;
+
+/**
+ * <p>
+ * {@link HttpResponseWriter} that is able to stream the {@link HttpResponse}.
+ * <p>
+ * The {@link HttpResponse} head is written first, followed by the entity
+ * content as it is flushed. This allows large entities to be sent without
+ * holding the entire entity in {@link StreamBuffer} instances until servicing
+ * completes.
+ * 
+ * @param <B> Type of buffer.
+ * @author Daniel Sagenschneider
+ */
+public interface StreamingHttpResponseWriter<B> extends HttpResponseWriter<B> {
+
+	/**
+	 * Writes the head of the streamed {@link HttpResponse}.
+	 * 
+	 * @param version        {@link HttpVersion}.
+	 * @param status         {@link HttpStatus}.
+	 * @param headHttpHeader Head {@link WritableHttpHeader} to the linked list of
+	 *                       {@link WritableHttpHeader} instances for the
+	 *                       {@link HttpResponse}.
+	 * @param headHttpCookie Head {@link WritableHttpCookie} to the linked list of
+	 *                       {@link WritableHttpCookie} instances for the
+	 *                       {@link HttpResponse}.
+	 * @param contentType    <code>Content-Type</code> of the HTTP entity.
+	 */
+	void writeHttpResponseHead(HttpVersion version, HttpStatus status, WritableHttpHeader headHttpHeader,
+			WritableHttpCookie headHttpCookie, HttpHeaderValue contentType);
+
+	/**
+	 * <p>
+	 * Writes further content of the streamed {@link HttpResponse} entity.
+	 * <p>
+	 * Should the client not be keeping up with the content, this may block the
+	 * calling {@link Thread} (when not a server I/O {@link Thread}) until
+	 * previously written content is sent. This keeps the content held for the
+	 * {@link HttpResponse} bounded.
+	 * 
+	 * @param contentHeadStreamBuffer Head {@link StreamBuffer} to the linked list
+	 *                                of {@link StreamBuffer} instances containing
+	 *                                the further entity content. May be
+	 *                                <code>null</code> if no further content.
+	 * @param isLast                  Indicates if last of the entity content,
+	 *                                completing the {@link HttpResponse}.
+	 */
+	void writeHttpResponseContent(StreamBuffer<B> contentHeadStreamBuffer, boolean isLast);
+
+	/**
+	 * <p>
+	 * Writes further content of the streamed {@link HttpResponse} entity without
+	 * blocking the calling {@link Thread}.
+	 * <p>
+	 * Rather than back-pressure, should the client not be keeping up with the
+	 * content (more than the maximum buffers pending write), the connection is
+	 * closed to drop the client.
+	 * 
+	 * @param contentHeadStreamBuffer Head {@link StreamBuffer} to the linked list
+	 *                                of {@link StreamBuffer} instances containing
+	 *                                the further entity content.
+	 * @param maxPendingWrites        Maximum number of buffers pending write to
+	 *                                the client before the client is dropped.
+	 */
+	void offerHttpResponseContent(StreamBuffer<B> contentHeadStreamBuffer, int maxPendingWrites);
+
+	/**
+	 * Aborts the streamed {@link HttpResponse}. As the head has already been
+	 * sent, the connection is closed so the client does not consider the
+	 * {@link HttpResponse} complete.
+	 * 
+	 * @param failure Cause of aborting the {@link HttpResponse}.
+	 */
+	void abortHttpResponse(Throwable failure);
+
+	/**
+	 * Indicates if the connection is closed, so that no further content will be
+	 * received by the client.
+	 * 
+	 * @return <code>true</code> if the connection is closed.
+	 */
+	boolean isConnectionClosed();
+
+}
@@ -0,0 +1,373 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.function.BooleanSupplier;
+
+import net.officefloor.server.http.HttpContentEncoder;
+import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.stream.BufferJvmFix;
+import net.officefloor.server.stream.FileCompleteCallback;
+import net.officefloor.server.stream.ServerOutputStream;
+import net.officefloor.server.stream.ServerWriter;
+import net.officefloor.server.stream.StreamBuffer;
+import net.officefloor.server.stream.impl.BufferPoolServerOutputStream;
+import net.officefloor.server.stream.impl.CloseHandler;
+import net.officefloor.server.stream.impl.ServerOutputStreamWriter;
+
+/**
+ * <p>
+ * {@link ServerOutputStream} stage that compresses the {@link HttpResponse}
+ * entity into the pooled {@link StreamBuffer} instances as it is written.
+ * <p>
+ * Content is held back until the minimum size is reached, so that small
+ * entities are not compressed. Once reached, the decision to compress is made
+ * and all further content is either encoded or passed straight through.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class CompressionServerOutputStream<B> extends ServerOutputStream {
+
+	/**
+	 * Size of chunk to read {@link FileChannel} content for encoding.
+	 */
+	private static final int FILE_CHUNK_SIZE = 8192;
+
+	/**
+	 * Target {@link BufferPoolServerOutputStream}.
+	 */
+	private final BufferPoolServerOutputStream<B> target;
+
+	/**
+	 * {@link HttpContentEncoder}.
+	 */
+	private final HttpContentEncoder encoder;
+
+	/**
+	 * Minimum size in bytes before compressing.
+	 */
+	private final int minimumSize;
+
+	/**
+	 * Determines on reaching the minimum size whether to compress.
+	 */
+	private final BooleanSupplier isCompress;
+
+	/**
+	 * {@link CloseHandler}.
+	 */
+	private final CloseHandler closeHandler;
+
+	/**
+	 * Content held back until deciding whether to compress. Lazy created.
+	 */
+	private byte[] pending = null;
+
+	/**
+	 * Number of bytes within the pending content.
+	 */
+	private int pendingLength = 0;
+
+	/**
+	 * Indicates if decided whether to compress.
+	 */
+	private boolean isDecided = false;
+
+	/**
+	 * Encoding {@link OutputStream}. Will be <code>null</code> if not
+	 * compressing.
+	 */
+	private OutputStream encoding = null;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param target       Target {@link BufferPoolServerOutputStream}.
+	 * @param encoder      {@link HttpContentEncoder}.
+	 * @param minimumSize  Minimum size in bytes before compressing.
+	 * @param isCompress   Determines on reaching the minimum size whether to
+	 *                     compress.
+	 * @param closeHandler {@link CloseHandler}.
+	 */
+	public CompressionServerOutputStream(BufferPoolServerOutputStream<B> target, HttpContentEncoder encoder,
+			int minimumSize, BooleanSupplier isCompress, CloseHandler closeHandler) {
+		this.target = target;
+		this.encoder = encoder;
+		this.minimumSize = minimumSize;
+		this.isCompress = isCompress;
+		this.closeHandler = closeHandler;
+	}
+
+	/**
+	 * Obtains the {@link ServerWriter}.
+	 * 
+	 * @param charset {@link Charset} for writing out {@link String} data.
+	 * @return {@link ServerWriter}.
+	 * @throws IOException Should {@link ServerOutputStream} be closed.
+	 */
+	public ServerWriter getServerWriter(Charset charset) throws IOException {
+		this.ensureOpen();
+		return new ServerOutputStreamWriter(this, charset, this.closeHandler);
+	}
+
+	/**
+	 * Completes writing the content to the target
+	 * {@link BufferPoolServerOutputStream}.
+	 * 
+	 * @return <code>true</code> if the content was compressed.
+	 * @throws IOException If fails to complete writing the content.
+	 */
+	public boolean finish() throws IOException {
+
+		// Determine if decided
+		if (!this.isDecided) {
+			// Below minimum size, so write content uncompressed
+			this.isDecided = true;
+			if (this.pendingLength > 0) {
+				this.target.write(this.pending, 0, this.pendingLength);
+				this.pendingLength = 0;
+			}
+			return false;
+		}
+
+		// Complete any encoding
+		if (this.encoding == null) {
+			return false; // not compressed
+		}
+		this.encoding.close();
+		return true;
+	}
+
+	/**
+	 * Indicates if compressing the content.
+	 * 
+	 * @return <code>true</code> if compressing the content.
+	 */
+	public boolean isCompressing() {
+		return this.encoding != null;
+	}
+
+	/**
+	 * Clears the content to enable writing new content.
+	 * 
+	 * @throws IOException If fails to clear.
+	 */
+	public void clear() throws IOException {
+
+		// Release the encoding
+		if (this.encoding != null) {
+			this.encoding.close();
+			this.encoding = null;
+		}
+
+		// Reset for new content
+		this.isDecided = false;
+		this.pendingLength = 0;
+		this.target.clear();
+	}
+
+	/**
+	 * Ensures the {@link OutputStream} is open.
+	 * 
+	 * @throws IOException If {@link OutputStream} is closed.
+	 */
+	private void ensureOpen() throws IOException {
+		if (this.closeHandler.isClosed()) {
+			throw new IOException("Closed");
+		}
+	}
+
+	/**
+	 * Obtains the {@link OutputStream} to receive the content.
+	 * 
+	 * @param length Number of bytes to be written.
+	 * @return {@link OutputStream} to receive the content, or <code>null</code>
+	 *         if the content is to be held back in the pending content.
+	 * @throws IOException If fails to obtain the {@link OutputStream}.
+	 */
+	private OutputStream getOutput(long length) throws IOException {
+
+		// Determine if already decided
+		if (this.isDecided) {
+			return (this.encoding != null) ? this.encoding : this.target;
+		}
+
+		// Determine if hold back the content
+		if ((this.pendingLength + length) < this.minimumSize) {
+			if (this.pending == null) {
+				this.pending = new byte[this.minimumSize];
+			}
+			return null;
+		}
+
+		// Reached minimum size, so decide whether to compress
+		this.isDecided = true;
+		OutputStream output = this.target;
+		if (this.isCompress.getAsBoolean()) {
+			this.encoding = this.encoder.createEncoder(this.target);
+			output = this.encoding;
+		}
+
+		// Write the pending content
+		if (this.pendingLength > 0) {
+			output.write(this.pending, 0, this.pendingLength);
+			this.pendingLength = 0;
+		}
+		return output;
+	}
+
+	/*
+	 * ===================== ServerOutputStream ======================
+	 */
+
+	@Override
+	public void write(int b) throws IOException {
+		this.ensureOpen();
+		OutputStream output = this.getOutput(1);
+		if (output == null) {
+			this.pending[this.pendingLength++] = (byte) b;
+		} else {
+			output.write(b);
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		this.ensureOpen();
+		OutputStream output = this.getOutput(len);
+		if (output == null) {
+			System.arraycopy(b, off, this.pending, this.pendingLength, len);
+			this.pendingLength += len;
+		} else {
+			output.write(b, off, len);
+		}
+	}
+
+	@Override
+	public void write(ByteBuffer buffer) throws IOException {
+		this.ensureOpen();
+		int length = buffer.remaining();
+		OutputStream output = this.getOutput(length);
+		if (output == null) {
+			// Hold back the content
+			buffer.duplicate().get(this.pending, this.pendingLength, length);
+			this.pendingLength += length;
+
+		} else if (output == this.target) {
+			// Not compressing, so avoid copying the content
+			this.target.write(buffer);
+
+		} else if (buffer.hasArray()) {
+			// Encode directly from the backing array
+			output.write(buffer.array(), buffer.arrayOffset() + BufferJvmFix.position(buffer), length);
+
+		} else {
+			// Encode by copying out the content
+			ByteBuffer content = buffer.duplicate();
+			byte[] chunk = new byte[Math.min(length, FILE_CHUNK_SIZE)];
+			while (content.hasRemaining()) {
+				int chunkLength = Math.min(chunk.length, content.remaining());
+				content.get(chunk, 0, chunkLength);
+				output.write(chunk, 0, chunkLength);
+			}
+		}
+	}
+
+	@Override
+	public void write(FileChannel file, long position, long count, FileCompleteCallback callback) throws IOException {
+		this.ensureOpen();
+
+		// Determine the content to write
+		long length = (count < 0) ? file.size() - position : count;
+		OutputStream output = this.getOutput(length);
+		if (output == this.target) {
+			// Not compressing, so avoid copying the content
+			this.target.write(file, position, count, callback);
+			return;
+		}
+
+		// Read in the content
+		boolean isWritten = false;
+		try {
+			byte[] chunk = new byte[(int) Math.min(Math.max(length, 1), FILE_CHUNK_SIZE)];
+			ByteBuffer chunkBuffer = ByteBuffer.wrap(chunk);
+			long filePosition = position;
+			long remaining = length;
+			while (remaining > 0) {
+				BufferJvmFix.clear(chunkBuffer);
+				BufferJvmFix.limit(chunkBuffer, (int) Math.min(chunk.length, remaining));
+				int bytesRead = file.read(chunkBuffer, filePosition);
+				if (bytesRead < 0) {
+					throw new IOException("File content truncated (expected " + length + " bytes)");
+				}
+				if (output == null) {
+					System.arraycopy(chunk, 0, this.pending, this.pendingLength, bytesRead);
+					this.pendingLength += bytesRead;
+				} else {
+					output.write(chunk, 0, bytesRead);
+				}
+				filePosition += bytesRead;
+				remaining -= bytesRead;
+			}
+			isWritten = true;
+
+		} finally {
+			// Content read, so file complete
+			if (callback != null) {
+				callback.complete(file, isWritten);
+			}
+		}
+	}
+
+	@Override
+	public void write(FileChannel file, FileCompleteCallback callback) throws IOException {
+		this.write(file, 0, -1, callback);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.ensureOpen();
+
+		// Only flush uncompressed, as flushing would reduce compression
+		if ((this.isDecided) && (this.encoding == null)) {
+			this.target.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		// Ensure close only once
+		if (this.closeHandler.isClosed()) {
+			return; // already closed
+		}
+
+		// Handle close
+		this.closeHandler.close();
+	}
+
+}
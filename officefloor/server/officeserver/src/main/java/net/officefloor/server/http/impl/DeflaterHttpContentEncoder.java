@@ -0,0 +1,283 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import net.officefloor.server.http.HttpContentEncoder;
+
+/**
+ * <p>
+ * {@link Deflater} {@link HttpContentEncoder} for the <code>gzip</code> and
+ * <code>deflate</code> codings.
+ * <p>
+ * {@link Deflater} instances are pooled per {@link Thread} to avoid the cost of
+ * creating (and the native memory of) a {@link Deflater} per response.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class DeflaterHttpContentEncoder implements HttpContentEncoder {
+
+	/**
+	 * Maximum number of {@link Compressor} instances pooled per {@link Thread}.
+	 */
+	private static final int MAX_THREAD_POOL_SIZE = 4;
+
+	/**
+	 * Size of the output chunk for deflating.
+	 */
+	private static final int OUTPUT_CHUNK_SIZE = 8192;
+
+	/**
+	 * <code>gzip</code> header (no file name, modification time or flags).
+	 */
+	private static final byte[] GZIP_HEADER = new byte[] { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0,
+			(byte) 0xff };
+
+	/**
+	 * {@link Compressor} pooled per {@link Thread}.
+	 */
+	private final ThreadLocal<CompressorPool> threadPool = ThreadLocal.withInitial(() -> new CompressorPool());
+
+	/**
+	 * Indicates if <code>gzip</code> (otherwise <code>deflate</code>).
+	 */
+	private final boolean isGzip;
+
+	/**
+	 * Compression level.
+	 */
+	private final int level;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param isGzip Indicates if <code>gzip</code> (otherwise
+	 *               <code>deflate</code>).
+	 * @param level  Compression level.
+	 */
+	public DeflaterHttpContentEncoder(boolean isGzip, int level) {
+		this.isGzip = isGzip;
+		this.level = level;
+	}
+
+	/*
+	 * ================== HttpContentEncoder ====================
+	 */
+
+	@Override
+	public String getContentCoding() {
+		return this.isGzip ? "gzip" : "deflate";
+	}
+
+	@Override
+	public OutputStream createEncoder(OutputStream target) throws IOException {
+
+		// Obtain the compressor for the thread
+		CompressorPool pool = this.threadPool.get();
+		Compressor compressor = (pool.size > 0) ? pool.compressors[--pool.size]
+				: new Compressor(new Deflater(this.level, this.isGzip));
+
+		// Start the encoding
+		if (this.isGzip) {
+			target.write(GZIP_HEADER);
+		}
+		return new DeflaterOutputStream(compressor, target);
+	}
+
+	/**
+	 * Pool of {@link Compressor} instances for the {@link Thread}.
+	 */
+	private static class CompressorPool {
+
+		/**
+		 * Pooled {@link Compressor} instances.
+		 */
+		private final Compressor[] compressors = new Compressor[MAX_THREAD_POOL_SIZE];
+
+		/**
+		 * Number of pooled {@link Compressor} instances.
+		 */
+		private int size = 0;
+	}
+
+	/**
+	 * Reusable compression state.
+	 */
+	private static class Compressor {
+
+		/**
+		 * {@link Deflater}.
+		 */
+		private final Deflater deflater;
+
+		/**
+		 * {@link CRC32} for <code>gzip</code> trailer.
+		 */
+		private final CRC32 crc = new CRC32();
+
+		/**
+		 * Output chunk.
+		 */
+		private final byte[] output = new byte[OUTPUT_CHUNK_SIZE];
+
+		/**
+		 * Single byte input.
+		 */
+		private final byte[] singleByte = new byte[1];
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param deflater {@link Deflater}.
+		 */
+		private Compressor(Deflater deflater) {
+			this.deflater = deflater;
+		}
+	}
+
+	/**
+	 * {@link Deflater} {@link OutputStream}.
+	 */
+	private class DeflaterOutputStream extends OutputStream {
+
+		/**
+		 * {@link Compressor}. Will be <code>null</code> once closed.
+		 */
+		private Compressor compressor;
+
+		/**
+		 * Target {@link OutputStream}.
+		 */
+		private final OutputStream target;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param compressor {@link Compressor}.
+		 * @param target     Target {@link OutputStream}.
+		 */
+		private DeflaterOutputStream(Compressor compressor, OutputStream target) {
+			this.compressor = compressor;
+			this.target = target;
+		}
+
+		/**
+		 * Writes the deflated output to the target.
+		 * 
+		 * @throws IOException If fails to write.
+		 */
+		private void deflate() throws IOException {
+			Deflater deflater = this.compressor.deflater;
+			byte[] output = this.compressor.output;
+			int bytesDeflated;
+			while ((bytesDeflated = deflater.deflate(output, 0, output.length)) > 0) {
+				this.target.write(output, 0, bytesDeflated);
+			}
+		}
+
+		/**
+		 * Writes the little-endian integer to the target.
+		 * 
+		 * @param value Value.
+		 * @throws IOException If fails to write.
+		 */
+		private void writeInt(long value) throws IOException {
+			this.target.write((int) (value & 0xff));
+			this.target.write((int) ((value >> 8) & 0xff));
+			this.target.write((int) ((value >> 16) & 0xff));
+			this.target.write((int) ((value >> 24) & 0xff));
+		}
+
+		/*
+		 * =================== OutputStream ======================
+		 */
+
+		@Override
+		public void write(int b) throws IOException {
+			this.compressor.singleByte[0] = (byte) b;
+			this.write(this.compressor.singleByte, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (this.compressor == null) {
+				throw new IOException("Closed");
+			}
+			if (len == 0) {
+				return; // nothing to write
+			}
+
+			// Deflate the bytes
+			if (DeflaterHttpContentEncoder.this.isGzip) {
+				this.compressor.crc.update(b, off, len);
+			}
+			this.compressor.deflater.setInput(b, off, len);
+			while (!this.compressor.deflater.needsInput()) {
+				this.deflate();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			// Determine if already closed
+			Compressor compressor = this.compressor;
+			if (compressor == null) {
+				return; // already closed
+			}
+			this.compressor = null;
+
+			try {
+				// Complete the deflating
+				Deflater deflater = compressor.deflater;
+				deflater.finish();
+				byte[] output = compressor.output;
+				while (!deflater.finished()) {
+					int bytesDeflated = deflater.deflate(output, 0, output.length);
+					this.target.write(output, 0, bytesDeflated);
+				}
+
+				// Write the gzip trailer
+				if (DeflaterHttpContentEncoder.this.isGzip) {
+					this.writeInt(compressor.crc.getValue());
+					this.writeInt(deflater.getBytesRead());
+				}
+
+			} finally {
+				// Return compressor to pool for the thread
+				CompressorPool pool = DeflaterHttpContentEncoder.this.threadPool.get();
+				if (pool.size < pool.compressors.length) {
+					compressor.deflater.reset();
+					compressor.crc.reset();
+					pool.compressors[pool.size++] = compressor;
+				} else {
+					compressor.deflater.end();
+				}
+			}
+		}
+	}
+
+}
@@ -24,6 +24,7 @@ package net.officefloor.server.http.impl;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.concurrent.RejectedExecutionException;
 
@@ -34,23 +35,29 @@ import net.officefloor.frame.api.team.TeamOverloadException;
 import net.officefloor.server.http.CleanupException;
 import net.officefloor.server.http.DateHttpHeaderClock;
 import net.officefloor.server.http.HttpEscalationContext;
+import net.officefloor.server.http.HttpContentEncoder;
 import net.officefloor.server.http.HttpEscalationHandler;
 import net.officefloor.server.http.HttpException;
 import net.officefloor.server.http.HttpHeader;
 import net.officefloor.server.http.HttpHeaderName;
 import net.officefloor.server.http.HttpHeaderValue;
 import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.http.HttpResponseCompression;
 import net.officefloor.server.http.HttpResponseCookies;
 import net.officefloor.server.http.HttpResponseHeaders;
+import net.officefloor.server.http.HttpResponseStream;
 import net.officefloor.server.http.HttpResponseWriter;
 import net.officefloor.server.http.HttpStatus;
 import net.officefloor.server.http.HttpVersion;
 import net.officefloor.server.http.ServerHttpConnection;
+import net.officefloor.server.http.StreamingHttpResponseWriter;
 import net.officefloor.server.http.WritableHttpHeader;
 import net.officefloor.server.stream.ServerOutputStream;
 import net.officefloor.server.stream.ServerWriter;
+import net.officefloor.server.stream.StreamBuffer;
 import net.officefloor.server.stream.impl.BufferPoolServerOutputStream;
 import net.officefloor.server.stream.impl.CloseHandler;
+import net.officefloor.server.stream.impl.FlushHandler;
 import net.officefloor.server.stream.impl.ProcessAwareServerOutputStream;
 import net.officefloor.server.stream.impl.ProcessAwareServerWriter;
 
@@ -59,7 +66,7 @@ import net.officefloor.server.stream.impl.ProcessAwareServerWriter;
  * 
  * @author Daniel Sagenschneider
  */
-public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
+public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler, FlushHandler {
 
 	/**
 	 * <code>Server</code> {@link HttpHeaderName}.
@@ -71,6 +78,27 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 	 */
 	private static final HttpHeaderName DATE_HTTP_HEADER_NAME = new HttpHeaderName("Date");
 
+	/**
+	 * <code>Content-Encoding</code> {@link HttpHeaderName}.
+	 */
+	private static final HttpHeaderName CONTENT_ENCODING_HTTP_HEADER_NAME = new HttpHeaderName("Content-Encoding");
+
+	/**
+	 * <code>Vary</code> {@link HttpHeaderName}.
+	 */
+	private static final HttpHeaderName VARY_HTTP_HEADER_NAME = new HttpHeaderName("Vary");
+
+	/**
+	 * <code>Accept-Encoding</code> {@link HttpHeader} name.
+	 */
+	private static final String ACCEPT_ENCODING_HTTP_HEADER_NAME = "Accept-Encoding";
+
+	/**
+	 * <code>Accept-Encoding</code> {@link HttpHeaderValue} for the
+	 * <code>Vary</code> {@link HttpHeader}.
+	 */
+	private static final HttpHeaderValue VARY_ACCEPT_ENCODING = new HttpHeaderValue("Accept-Encoding");
+
 	/**
 	 * Binary <code>Content-Type</code>.
 	 */
@@ -121,6 +149,18 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 	 */
 	private final ProcessAwareServerOutputStream safeOutputStream;
 
+	/**
+	 * {@link CompressionServerOutputStream}. Will be <code>null</code> if not
+	 * compressing.
+	 */
+	private final CompressionServerOutputStream<B> compressionOutputStream;
+
+	/**
+	 * {@link HttpContentEncoder} negotiated for the {@link HttpResponse} entity.
+	 * Will be <code>null</code> if not compressing.
+	 */
+	private final HttpContentEncoder contentEncoder;
+
 	/**
 	 * {@link ServerWriter}.
 	 */
@@ -163,6 +203,22 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 	 */
 	private boolean isWritten = false;
 
+	/**
+	 * Indicates if the entity is encoded by the {@link HttpContentEncoder}.
+	 */
+	private boolean isContentEncoded = false;
+
+	/**
+	 * Indicates if committed to streaming this {@link HttpResponse}.
+	 */
+	private boolean isStreaming = false;
+
+	/**
+	 * {@link DetachedHttpResponseStream}. Will be <code>null</code> if not
+	 * detached.
+	 */
+	private DetachedHttpResponseStream detachedStream = null;
+
 	/**
 	 * Instantiate.
 	 * 
@@ -177,9 +233,30 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 		this.version = version;
 		this.headers = new ProcessAwareHttpResponseHeaders(managedObjectContext);
 		this.cookies = new ProcessAwareHttpResponseCookies(managedObjectContext);
-		this.bufferPoolOutputStream = new BufferPoolServerOutputStream<>(this.serverHttpConnection.bufferPool, this);
-		this.safeOutputStream = new ProcessAwareServerOutputStream(this.bufferPoolOutputStream, managedObjectContext);
+		this.bufferPoolOutputStream = new BufferPoolServerOutputStream<>(this.serverHttpConnection.bufferPool, this, this);
 		this.managedObjectContext = managedObjectContext;
+
+		// Negotiate compressing the entity
+		HttpResponseCompression compression = this.serverHttpConnection.httpResponseCompression;
+		if (compression != null) {
+			HttpHeader acceptEncoding = this.serverHttpConnection.getClientRequest().getHeaders()
+					.getHeader(ACCEPT_ENCODING_HTTP_HEADER_NAME);
+			this.contentEncoder = compression.negotiate(acceptEncoding == null ? null : acceptEncoding.getValue());
+		} else {
+			this.contentEncoder = null;
+		}
+
+		// Provide the entity output stream
+		if (this.contentEncoder != null) {
+			this.compressionOutputStream = new CompressionServerOutputStream<>(this.bufferPoolOutputStream,
+					this.contentEncoder, compression.getMinimumSize(), () -> this.isCompressContent(), this);
+			this.safeOutputStream = new ProcessAwareServerOutputStream(this.compressionOutputStream,
+					managedObjectContext);
+		} else {
+			this.compressionOutputStream = null;
+			this.safeOutputStream = new ProcessAwareServerOutputStream(this.bufferPoolOutputStream,
+					managedObjectContext);
+		}
 	}
 
 	/**
@@ -228,6 +305,14 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 	 */
 	private void unsafeFlushResponseToHttpResponseWriter(Throwable escalation) throws IOException {
 
+		// Determine if detached (so only abort on escalation)
+		if (this.detachedStream != null) {
+			if (escalation != null) {
+				this.detachedStream.abort(escalation);
+			}
+			return;
+		}
+
 		// Determine if already written
 		if (this.isWritten) {
 			return; // already written
@@ -239,6 +324,24 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 			escalation = new CleanupException(this.cleanupEscalations);
 		}
 
+		// Determine if completing the stream
+		if (this.isStreaming) {
+			this.isWritten = true;
+			StreamingHttpResponseWriter<B> writer = this.getStreamingHttpResponseWriter();
+
+			// Head already sent, so abort on escalation
+			if (escalation != null) {
+				this.bufferPoolOutputStream.clear();
+				writer.abortHttpResponse(escalation);
+				return;
+			}
+
+			// Send the remaining content
+			this.unsafeSend();
+			writer.writeHttpResponseContent(this.bufferPoolOutputStream.removeBuffers(), true);
+			return;
+		}
+
 		// Handle escalation
 		if (escalation != null) {
 
@@ -337,9 +440,45 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 			this.status = HttpStatus.NO_CONTENT;
 		}
 
+		// Obtain the headers
+		WritableHttpHeader httpHeaders = this.createWritableHttpHeaders(contentType);
+
+		// Write the response (and consider written)
+		this.isWritten = true;
+		this.serverHttpConnection.httpResponseWriter.writeHttpResponse(this.version, this.status, httpHeaders,
+				this.cookies.getWritableHttpCookie(), contentLength, contentType,
+				this.bufferPoolOutputStream.getBuffers());
+	}
+
+	/**
+	 * Creates the {@link WritableHttpHeader} instances for the
+	 * {@link HttpResponse}.
+	 * 
+	 * @param contentType <code>Content-Type</code>. May be <code>null</code> if no
+	 *                    entity.
+	 * @return Head {@link WritableHttpHeader} of the linked list of
+	 *         {@link WritableHttpHeader} instances.
+	 */
+	private WritableHttpHeader createWritableHttpHeaders(HttpHeaderValue contentType) {
+
 		// Obtain the headers
 		WritableHttpHeader httpHeaders = this.headers.getWritableHttpHeaders();
 
+		// Content-Encoding and Vary HTTP headers (if compressing)
+		HttpResponseCompression compression = this.serverHttpConnection.httpResponseCompression;
+		if ((compression != null) && (contentType != null) && (compression.isCompressible(contentType.getValue()))
+				&& (this.headers.getHeader(VARY_HTTP_HEADER_NAME.getName()) == null)) {
+			WritableHttpHeader varyHeader = new WritableHttpHeader(VARY_HTTP_HEADER_NAME, VARY_ACCEPT_ENCODING);
+			varyHeader.next = httpHeaders;
+			httpHeaders = varyHeader;
+		}
+		if (this.isContentEncoded) {
+			WritableHttpHeader encodingHeader = new WritableHttpHeader(CONTENT_ENCODING_HTTP_HEADER_NAME,
+					compression.getContentEncoding(this.contentEncoder));
+			encodingHeader.next = httpHeaders;
+			httpHeaders = encodingHeader;
+		}
+
 		// Date HTTP header (if specified)
 		DateHttpHeaderClock clock = this.serverHttpConnection.dateHttpHeaderClock;
 		if (clock != null) {
@@ -357,11 +496,18 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 			httpHeaders = serverHeader;
 		}
 
-		// Write the response (and consider written)
-		this.isWritten = true;
-		this.serverHttpConnection.httpResponseWriter.writeHttpResponse(this.version, this.status, httpHeaders,
-				this.cookies.getWritableHttpCookie(), contentLength, contentType,
-				this.bufferPoolOutputStream.getBuffers());
+		// Return the headers
+		return httpHeaders;
+	}
+
+	/**
+	 * Obtains the {@link StreamingHttpResponseWriter}.
+	 * 
+	 * @return {@link StreamingHttpResponseWriter}.
+	 */
+	@SuppressWarnings("unchecked")
+	private StreamingHttpResponseWriter<B> getStreamingHttpResponseWriter() {
+		return (StreamingHttpResponseWriter<B>) this.serverHttpConnection.httpResponseWriter;
 	}
 
 	/**
@@ -381,6 +527,11 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 			this.entityWriter.flush();
 		}
 
+		// Complete compressing the content
+		if (this.compressionOutputStream != null) {
+			this.isContentEncoded = this.compressionOutputStream.finish();
+		}
+
 		// Consider sent
 		this.isSent = true;
 	}
@@ -407,7 +558,12 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 		if (this.entityWriter != null) {
 			this.entityWriter.flush(); // clear content
 		}
-		this.bufferPoolOutputStream.clear();
+		this.isContentEncoded = false;
+		if (this.compressionOutputStream != null) {
+			this.compressionOutputStream.clear();
+		} else {
+			this.bufferPoolOutputStream.clear();
+		}
 	}
 
 	/**
@@ -426,12 +582,38 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 		}
 	}
 
+	/**
+	 * Determines whether to compress the content, once reaching the minimum size.
+	 * 
+	 * @return <code>true</code> to compress the content.
+	 */
+	private boolean isCompressContent() {
+
+		// Do not compress partial content
+		if (this.status.getStatusCode() == HttpStatus.PARTIAL_CONTENT.getStatusCode()) {
+			return false;
+		}
+
+		// Do not compress if already encoded
+		if (this.headers.getHeader(CONTENT_ENCODING_HTTP_HEADER_NAME.getName()) != null) {
+			return false;
+		}
+
+		// Compress if content type allowed
+		return this.serverHttpConnection.httpResponseCompression
+				.isCompressible(this.deriveContentType().getValue());
+	}
+
 	/**
 	 * Determines if can change the <code>Content-Type</code> and {@link Charset}.
 	 * 
 	 * @throws IOException If not able to change.
 	 */
 	private void allowContentTypeChange() throws IOException {
+		if (this.isStreaming) {
+			throw new IOException("Can not change Content-Type. Committed to streaming "
+					+ this.deriveContentType().getValue());
+		}
 		if (this.entityWriter != null) {
 			throw new IOException("Can not change Content-Type. Committed to writing "
 					+ this.deriveContentType().getValue() + " (charset " + this.charset.name() + ")");
@@ -550,8 +732,10 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 	public ServerWriter getEntityWriter() throws IOException {
 		return this.safe(() -> {
 			if (this.entityWriter == null) {
-				this.entityWriter = new ProcessAwareServerWriter(
-						this.bufferPoolOutputStream.getServerWriter(this.charset), this.managedObjectContext);
+				ServerWriter unsafeWriter = (this.compressionOutputStream != null)
+						? this.compressionOutputStream.getServerWriter(this.charset)
+						: this.bufferPoolOutputStream.getServerWriter(this.charset);
+				this.entityWriter = new ProcessAwareServerWriter(unsafeWriter, this.managedObjectContext);
 			}
 			return this.entityWriter;
 		});
@@ -575,7 +759,7 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 		this.safe(() -> {
 
 			// Ensure not written
-			if (this.isSent) {
+			if ((this.isSent) || (this.isStreaming)) {
 				throw new IOException("Already committed to send response");
 			}
 
@@ -599,6 +783,183 @@ public class ProcessAwareHttpResponse<B> implements HttpResponse, CloseHandler {
 		});
 	}
 
+	@Override
+	public void stream() throws IOException {
+		this.safe(() -> {
+
+			// Ensure not already sent
+			if (this.isSent) {
+				throw new IOException("Already committed to send response");
+			}
+
+			// Determine if already streaming
+			if (this.isStreaming) {
+				return null;
+			}
+
+			// Determine if able to stream (HTTP/1.0 is unable to chunk entity)
+			if ((!(this.serverHttpConnection.httpResponseWriter instanceof StreamingHttpResponseWriter))
+					|| (HttpVersion.HTTP_1_0.equals(this.clientVersion))) {
+				return null; // send on completion of servicing
+			}
+
+			// Entity is not compressed when streamed
+			if (this.compressionOutputStream != null) {
+				if (this.compressionOutputStream.isCompressing()) {
+					throw new IOException("Can not stream response once compressing the entity");
+				}
+				this.compressionOutputStream.finish();
+			}
+
+			// Commit to streaming by writing the head
+			this.isStreaming = true;
+			HttpHeaderValue contentType = this.deriveContentType();
+			this.getStreamingHttpResponseWriter().writeHttpResponseHead(this.version, this.status,
+					this.createWritableHttpHeaders(contentType), this.cookies.getWritableHttpCookie(), contentType);
+
+			// Void return
+			return null;
+		});
+	}
+
+	@Override
+	public HttpResponseStream detach() throws IOException {
+		return this.safe(() -> {
+
+			// Determine if already detached
+			if (this.detachedStream != null) {
+				return this.detachedStream;
+			}
+
+			// Stream the response
+			this.stream();
+			if (!this.isStreaming) {
+				throw new IOException("Unable to detach " + HttpResponse.class.getSimpleName()
+						+ " as unable to stream for " + this.clientVersion.getName());
+			}
+
+			// Send the content so far (and consider written)
+			this.unsafeSend();
+			this.isWritten = true;
+			StreamBuffer<B> content = this.bufferPoolOutputStream.removeBuffers();
+			StreamingHttpResponseWriter<B> writer = this.getStreamingHttpResponseWriter();
+			if (content != null) {
+				writer.writeHttpResponseContent(content, false);
+			}
+
+			// Detach
+			this.detachedStream = new DetachedHttpResponseStream(writer);
+			return this.detachedStream;
+		});
+	}
+
+	/**
+	 * {@link HttpResponseStream} for the detached {@link HttpResponse}.
+	 */
+	private class DetachedHttpResponseStream implements HttpResponseStream {
+
+		/**
+		 * {@link StreamingHttpResponseWriter}.
+		 */
+		private final StreamingHttpResponseWriter<B> writer;
+
+		/**
+		 * Indicates if closed. Volatile so may be checked without blocking on a
+		 * {@link Thread} writing to a slow client.
+		 */
+		private volatile boolean isClosed = false;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param writer {@link StreamingHttpResponseWriter}.
+		 */
+		private DetachedHttpResponseStream(StreamingHttpResponseWriter<B> writer) {
+			this.writer = writer;
+		}
+
+		/**
+		 * Aborts the {@link HttpResponse}.
+		 * 
+		 * @param failure Cause of the failure.
+		 */
+		private synchronized void abort(Throwable failure) {
+			if (!this.isClosed) {
+				this.isClosed = true;
+				this.writer.abortHttpResponse(failure);
+			}
+		}
+
+		/*
+		 * ================= HttpResponseStream ==================
+		 */
+
+		@Override
+		public synchronized void write(ByteBuffer content) throws IOException {
+
+			// Ensure not closed
+			if (this.isClosed()) {
+				throw new IOException(HttpResponseStream.class.getSimpleName() + " closed");
+			}
+
+			// Write the content (without modifying the content)
+			StreamBuffer<B> buffer = ProcessAwareHttpResponse.this.serverHttpConnection.bufferPool
+					.getUnpooledStreamBuffer(content.duplicate());
+			this.writer.writeHttpResponseContent(buffer, false);
+		}
+
+		@Override
+		public synchronized void offer(ByteBuffer content, int maxPendingWrites) throws IOException {
+
+			// Ensure not closed
+			if (this.isClosed()) {
+				throw new IOException(HttpResponseStream.class.getSimpleName() + " closed");
+			}
+
+			// Queue the content (without modifying the content)
+			StreamBuffer<B> buffer = ProcessAwareHttpResponse.this.serverHttpConnection.bufferPool
+					.getUnpooledStreamBuffer(content.duplicate());
+			this.writer.offerHttpResponseContent(buffer, maxPendingWrites);
+		}
+
+		@Override
+		public boolean isClosed() {
+			return this.isClosed || this.writer.isConnectionClosed();
+		}
+
+		@Override
+		public synchronized void close() throws IOException {
+			if (!this.isClosed) {
+				this.isClosed = true;
+				this.writer.writeHttpResponseContent(null, true);
+			}
+		}
+	}
+
+	/*
+	 * ======================= FlushHandler =================================
+	 */
+
+	@Override
+	public void flush() throws IOException {
+		this.safe(() -> {
+
+			// Only send content when streaming (and not completed)
+			if ((!this.isStreaming) || (this.isWritten)) {
+				return null;
+			}
+
+			// Send the content written so far
+			StreamBuffer<B> content = this.bufferPoolOutputStream.removeBuffers();
+			if (content != null) {
+				this.getStreamingHttpResponseWriter().writeHttpResponseContent(content, false);
+			}
+
+			// Void return
+			return null;
+		});
+	}
+
 	/*
 	 * ======================= CloseHandler =================================
 	 */
@@ -40,10 +40,12 @@ import net.officefloor.server.http.HttpRequest;
 import net.officefloor.server.http.HttpRequestCookies;
 import net.officefloor.server.http.HttpRequestHeaders;
 import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.http.HttpResponseCompression;
 import net.officefloor.server.http.HttpResponseWriter;
 import net.officefloor.server.http.HttpServerLocation;
 import net.officefloor.server.http.HttpVersion;
 import net.officefloor.server.http.ServerHttpConnection;
+import net.officefloor.server.stream.ServerInputStream;
 import net.officefloor.server.stream.StreamBufferPool;
 import net.officefloor.server.stream.impl.ByteSequence;
 
@@ -128,6 +130,11 @@ public class ProcessAwareServerHttpConnectionManagedObject<B>
 	 */
 	final HttpResponseWriter<B> httpResponseWriter;
 
+	/**
+	 * {@link HttpResponseCompression}. May be <code>null</code> to not compress.
+	 */
+	final HttpResponseCompression httpResponseCompression;
+
 	/**
 	 * {@link ManagedObjectContext}.
 	 */
@@ -167,6 +174,95 @@ public class ProcessAwareServerHttpConnectionManagedObject<B>
 			NonMaterialisedHttpHeaders requestHeaders, ByteSequence requestEntity, HttpHeaderValue serverName,
 			DateHttpHeaderClock dateHttpHeaderClock, boolean isIncludeStackTraceOnEscalation,
 			HttpResponseWriter<B> writer, StreamBufferPool<B> bufferPool) {
+		this(serverLocation, isSecure, methodSupplier, requestUriSupplier, version, requestHeaders, requestEntity,
+				serverName, dateHttpHeaderClock, isIncludeStackTraceOnEscalation, writer, bufferPool, null);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param serverLocation                  {@link HttpServerLocation}.
+	 * @param isSecure                        Indicates if secure.
+	 * @param methodSupplier                  {@link Supplier} for the
+	 *                                        {@link HttpRequest}
+	 *                                        {@link HttpMethod}.
+	 * @param requestUriSupplier              {@link Supplier} for the
+	 *                                        {@link HttpRequest} URI.
+	 * @param version                         {@link HttpVersion} for the
+	 *                                        {@link HttpRequest}.
+	 * @param requestHeaders                  {@link NonMaterialisedHttpHeaders} for
+	 *                                        the {@link HttpRequest}.
+	 * @param requestEntity                   {@link ByteSequence} for the
+	 *                                        {@link HttpRequest} entity.
+	 * @param serverName                      Name of the server. May be
+	 *                                        <code>null</code> if not sending
+	 *                                        <code>Server</code>
+	 *                                        {@link HttpHeader}.
+	 * @param dateHttpHeaderClock             {@link DateHttpHeaderClock}. May be
+	 *                                        <code>null</code> to not send
+	 *                                        <code>Date</code> {@link HttpHeader}.
+	 * @param isIncludeStackTraceOnEscalation <code>true</code> to include the
+	 *                                        {@link Escalation} stack trace in the
+	 *                                        {@link HttpResponse}.
+	 * @param writer                          {@link HttpResponseWriter}.
+	 * @param bufferPool                      {@link StreamBufferPool}.
+	 * @param httpResponseCompression         {@link HttpResponseCompression}. May
+	 *                                        be <code>null</code> to not compress.
+	 */
+	public ProcessAwareServerHttpConnectionManagedObject(HttpServerLocation serverLocation, boolean isSecure,
+			Supplier<HttpMethod> methodSupplier, Supplier<String> requestUriSupplier, HttpVersion version,
+			NonMaterialisedHttpHeaders requestHeaders, ByteSequence requestEntity, HttpHeaderValue serverName,
+			DateHttpHeaderClock dateHttpHeaderClock, boolean isIncludeStackTraceOnEscalation,
+			HttpResponseWriter<B> writer, StreamBufferPool<B> bufferPool,
+			HttpResponseCompression httpResponseCompression) {
+		this(serverLocation, isSecure, methodSupplier, requestUriSupplier, version, requestHeaders, requestEntity,
+				serverName, dateHttpHeaderClock, isIncludeStackTraceOnEscalation, writer, bufferPool,
+				httpResponseCompression, null);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param serverLocation                  {@link HttpServerLocation}.
+	 * @param isSecure                        Indicates if secure.
+	 * @param methodSupplier                  {@link Supplier} for the
+	 *                                        {@link HttpRequest}
+	 *                                        {@link HttpMethod}.
+	 * @param requestUriSupplier              {@link Supplier} for the
+	 *                                        {@link HttpRequest} URI.
+	 * @param version                         {@link HttpVersion} for the
+	 *                                        {@link HttpRequest}.
+	 * @param requestHeaders                  {@link NonMaterialisedHttpHeaders} for
+	 *                                        the {@link HttpRequest}.
+	 * @param requestEntity                   {@link ByteSequence} for the
+	 *                                        {@link HttpRequest} entity. Ignored
+	 *                                        if streaming the entity.
+	 * @param serverName                      Name of the server. May be
+	 *                                        <code>null</code> if not sending
+	 *                                        <code>Server</code>
+	 *                                        {@link HttpHeader}.
+	 * @param dateHttpHeaderClock             {@link DateHttpHeaderClock}. May be
+	 *                                        <code>null</code> to not send
+	 *                                        <code>Date</code> {@link HttpHeader}.
+	 * @param isIncludeStackTraceOnEscalation <code>true</code> to include the
+	 *                                        {@link Escalation} stack trace in the
+	 *                                        {@link HttpResponse}.
+	 * @param writer                          {@link HttpResponseWriter}.
+	 * @param bufferPool                      {@link StreamBufferPool}.
+	 * @param httpResponseCompression         {@link HttpResponseCompression}. May
+	 *                                        be <code>null</code> to not compress.
+	 * @param requestEntityStream             {@link ServerInputStream} streaming
+	 *                                        the {@link HttpRequest} entity as it
+	 *                                        is received. May be <code>null</code>
+	 *                                        to use the received
+	 *                                        {@link ByteSequence} entity.
+	 */
+	public ProcessAwareServerHttpConnectionManagedObject(HttpServerLocation serverLocation, boolean isSecure,
+			Supplier<HttpMethod> methodSupplier, Supplier<String> requestUriSupplier, HttpVersion version,
+			NonMaterialisedHttpHeaders requestHeaders, ByteSequence requestEntity, HttpHeaderValue serverName,
+			DateHttpHeaderClock dateHttpHeaderClock, boolean isIncludeStackTraceOnEscalation,
+			HttpResponseWriter<B> writer, StreamBufferPool<B> bufferPool,
+			HttpResponseCompression httpResponseCompression, ServerInputStream requestEntityStream) {
 		this.serverLocation = serverLocation;
 
 		// Indicate if secure
@@ -175,10 +271,17 @@ public class ProcessAwareServerHttpConnectionManagedObject<B>
 		// Create the HTTP request
 		HttpRequestHeaders headers = new MaterialisingHttpRequestHeaders(requestHeaders);
 		HttpRequestCookies cookies = new MaterialisingHttpRequestCookies(headers);
-		this.request = new MaterialisingHttpRequest(methodSupplier, requestUriSupplier, version, headers, cookies,
-				requestEntity);
+		if (requestEntityStream != null) {
+			// Entity streamed (so not available for serialising)
+			this.request = new MaterialisingHttpRequest(methodSupplier, requestUriSupplier, version, headers,
+					cookies, requestEntityStream);
+			this.requestEntity = ByteSequence.EMPTY;
+		} else {
+			this.request = new MaterialisingHttpRequest(methodSupplier, requestUriSupplier, version, headers,
+					cookies, requestEntity);
+			this.requestEntity = requestEntity;
+		}
 		this.clientRequest = this.request;
-		this.requestEntity = requestEntity;
 
 		// Store remaining state
 		this.serverName = serverName;
@@ -186,6 +289,7 @@ public class ProcessAwareServerHttpConnectionManagedObject<B>
 		this.isIncludeStackTraceOnEscalation = isIncludeStackTraceOnEscalation;
 		this.httpResponseWriter = writer;
 		this.bufferPool = bufferPool;
+		this.httpResponseCompression = httpResponseCompression;
 	}
 
 	/**
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.Writer;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
 /**
  * Server {@link Writer}.
@@ -47,6 +48,28 @@ public abstract class ServerWriter extends Writer {
 	 */
 	public abstract void write(byte[] encodedBytes) throws IOException;
 
+	/**
+	 * <p>
+	 * Enables writing part of the encoded bytes.
+	 * <p>
+	 * The bytes are copied, so the array may be re-used on return.
+	 * <p>
+	 * Caution should also be taken to ensure that previous written content is
+	 * not waiting for further surrogate characters.
+	 * 
+	 * @param encodedBytes
+	 *            Encoded bytes.
+	 * @param offset
+	 *            Offset into the encoded bytes.
+	 * @param length
+	 *            Number of bytes to write.
+	 * @throws IOException
+	 *             If fails to write the bytes.
+	 */
+	public void write(byte[] encodedBytes, int offset, int length) throws IOException {
+		this.write(Arrays.copyOfRange(encodedBytes, offset, offset + length));
+	}
+
 	/**
 	 * <p>
 	 * Enables writing encoded bytes.
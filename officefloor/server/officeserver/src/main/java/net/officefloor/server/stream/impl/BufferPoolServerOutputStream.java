@@ -23,8 +23,6 @@ package net.officefloor.server.stream.impl;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
@@ -53,6 +51,11 @@ public class BufferPoolServerOutputStream<B> extends ServerOutputStream {
 	 */
 	private final CloseHandler closeHandler;
 
+	/**
+	 * {@link FlushHandler}. May be <code>null</code>.
+	 */
+	private final FlushHandler flushHandler;
+
 	/**
 	 * Head {@link StreamBuffer}.
 	 */
@@ -77,8 +80,24 @@ public class BufferPoolServerOutputStream<B> extends ServerOutputStream {
 	 *            {@link CloseHandler}.
 	 */
 	public BufferPoolServerOutputStream(StreamBufferPool<B> bufferPool, CloseHandler closeHandler) {
+		this(bufferPool, closeHandler, null);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param bufferPool
+	 *            {@link StreamBufferPool}.
+	 * @param closeHandler
+	 *            {@link CloseHandler}.
+	 * @param flushHandler
+	 *            {@link FlushHandler}. May be <code>null</code>.
+	 */
+	public BufferPoolServerOutputStream(StreamBufferPool<B> bufferPool, CloseHandler closeHandler,
+			FlushHandler flushHandler) {
 		this.bufferPool = bufferPool;
 		this.closeHandler = closeHandler;
+		this.flushHandler = flushHandler;
 	}
 
 	/**
@@ -115,7 +134,7 @@ public class BufferPoolServerOutputStream<B> extends ServerOutputStream {
 	 */
 	public ServerWriter getServerWriter(Charset charset) throws IOException {
 		this.ensureOpen();
-		return new BufferPoolServerWriter(charset);
+		return new ServerOutputStreamWriter(this, charset, this.closeHandler);
 	}
 
 	/**
@@ -138,6 +157,21 @@ public class BufferPoolServerOutputStream<B> extends ServerOutputStream {
 		return this.head;
 	}
 
+	/**
+	 * Removes the {@link StreamBuffer} instances written so far, so that they
+	 * may be sent while further content is written. The content length
+	 * continues to include the removed content.
+	 * 
+	 * @return Head {@link StreamBuffer} of the removed {@link StreamBuffer}
+	 *         instances. May be <code>null</code> if no content.
+	 */
+	public StreamBuffer<B> removeBuffers() {
+		StreamBuffer<B> buffers = this.head;
+		this.head = null;
+		this.tail = null;
+		return buffers;
+	}
+
 	/**
 	 * Clears this {@link OutputStream} and releases the {@link StreamBuffer}
 	 * instances.
@@ -318,7 +352,10 @@ public class BufferPoolServerOutputStream<B> extends ServerOutputStream {
 	public void flush() throws IOException {
 		this.ensureOpen();
 
-		// Nothing to flush, as always writes straight to buffers
+		// Always writes straight to buffers, so only notify of flush
+		if (this.flushHandler != null) {
+			this.flushHandler.flush();
+		}
 	}
 
 	@Override
@@ -333,134 +370,4 @@ public class BufferPoolServerOutputStream<B> extends ServerOutputStream {
 		this.closeHandler.close();
 	}
 
-	/**
-	 * {@link StreamBufferPool} {@link ServerWriter}.
-	 */
-	private class BufferPoolServerWriter extends ServerWriter {
-
-		/**
-		 * Delegate {@link OutputStreamWriter}.
-		 */
-		private final OutputStreamWriter delegate;
-
-		/**
-		 * Instantiate.
-		 * 
-		 * @param charset
-		 *            {@link Charset}.
-		 */
-		private BufferPoolServerWriter(Charset charset) {
-			this.delegate = new OutputStreamWriter(BufferPoolServerOutputStream.this, charset);
-		}
-
-		/*
-		 * ============= ServerWriter =====================
-		 */
-
-		@Override
-		public void write(byte[] encodedBytes) throws IOException {
-
-			// Flush to ensure written out
-			this.delegate.flush();
-
-			// Write the encoded bytes
-			BufferPoolServerOutputStream.this.write(encodedBytes);
-		}
-
-		@Override
-		public void write(ByteBuffer encodedBytes) throws IOException {
-
-			// Flush to ensure written out
-			this.delegate.flush();
-
-			// Write the buffer
-			BufferPoolServerOutputStream.this.write(encodedBytes);
-		}
-
-		@Override
-		public void write(FileChannel file, long position, long count, FileCompleteCallback callback)
-				throws IOException {
-
-			// Flush to ensure written out
-			this.delegate.flush();
-
-			// Write the file content
-			BufferPoolServerOutputStream.this.write(file, position, count, callback);
-		}
-
-		@Override
-		public void write(FileChannel file, FileCompleteCallback callback) throws IOException {
-
-			// Flush to ensure written out
-			this.delegate.flush();
-
-			// Write the file content
-			BufferPoolServerOutputStream.this.write(file, callback);
-		}
-
-		/*
-		 * ================ Writer ========================
-		 */
-
-		@Override
-		public void write(int c) throws IOException {
-			this.delegate.write(c);
-		}
-
-		@Override
-		public void write(char[] cbuf) throws IOException {
-			this.delegate.write(cbuf);
-		}
-
-		@Override
-		public void write(String str) throws IOException {
-			this.delegate.write(str);
-		}
-
-		@Override
-		public void write(String str, int off, int len) throws IOException {
-			this.delegate.write(str, off, len);
-		}
-
-		@Override
-		public Writer append(CharSequence csq) throws IOException {
-			this.delegate.append(csq);
-			return this;
-		}
-
-		@Override
-		public Writer append(CharSequence csq, int start, int end) throws IOException {
-			this.delegate.append(csq, start, end);
-			return this;
-		}
-
-		@Override
-		public Writer append(char c) throws IOException {
-			this.delegate.append(c);
-			return this;
-		}
-
-		@Override
-		public void write(char[] cbuf, int off, int len) throws IOException {
-			this.delegate.write(cbuf, off, len);
-		}
-
-		@Override
-		public void flush() throws IOException {
-			this.delegate.flush();
-		}
-
-		@Override
-		public void close() throws IOException {
-
-			// Determine if already closed
-			if (BufferPoolServerOutputStream.this.closeHandler.isClosed()) {
-				return; // already closed
-			}
-
-			// Close
-			this.delegate.close();
-		}
-	}
-
 }
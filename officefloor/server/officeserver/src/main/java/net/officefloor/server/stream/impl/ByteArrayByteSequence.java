@@ -22,6 +22,7 @@
 package net.officefloor.server.stream.impl;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 /**
  * <code>byte</code> array {@link ByteSequence}.
@@ -64,4 +65,18 @@ public class ByteArrayByteSequence implements ByteSequence, Serializable {
 		return this.bytes.length;
 	}
 
+	@Override
+	public int copyTo(int index, byte[] destination, int offset, int length) {
+		int copyLength = Math.max(0, Math.min(length, this.bytes.length - index));
+		System.arraycopy(this.bytes, index, destination, offset, copyLength);
+		return copyLength;
+	}
+
+	@Override
+	public ByteBuffer[] getByteBuffers(int index) {
+		int length = Math.max(0, this.bytes.length - index);
+		return new ByteBuffer[] { ByteBuffer.wrap(this.bytes, Math.min(index, this.bytes.length), length).slice()
+				.asReadOnlyBuffer() };
+	}
+
 }
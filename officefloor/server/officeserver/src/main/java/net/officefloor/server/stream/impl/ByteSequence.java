@@ -21,6 +21,7 @@
 
 package net.officefloor.server.stream.impl;
 
+import java.nio.ByteBuffer;
 import java.util.NoSuchElementException;
 
 /**
@@ -63,4 +64,73 @@ public interface ByteSequence {
 	 */
 	int length();
 
+	/**
+	 * <p>
+	 * Copies the <code>byte</code> values into the array.
+	 * <p>
+	 * Implementations should override to bulk copy, as the default copies each
+	 * <code>byte</code> individually.
+	 * 
+	 * @param index
+	 *            Index of the first <code>byte</code> to copy.
+	 * @param destination
+	 *            Array to receive the <code>byte</code> values.
+	 * @param offset
+	 *            Offset into the array to start copying.
+	 * @param length
+	 *            Maximum number of <code>byte</code> values to copy.
+	 * @return Number of <code>byte</code> values copied. Will be less than the
+	 *         requested length if reaching the end of the {@link ByteSequence}.
+	 */
+	default int copyTo(int index, byte[] destination, int offset, int length) {
+		int copyLength = Math.max(0, Math.min(length, this.length() - index));
+		for (int i = 0; i < copyLength; i++) {
+			destination[offset + i] = this.byteAt(index + i);
+		}
+		return copyLength;
+	}
+
+	/**
+	 * Copies the <code>byte</code> values into the {@link ByteBuffer}.
+	 * 
+	 * @param index
+	 *            Index of the first <code>byte</code> to copy.
+	 * @param destination
+	 *            {@link ByteBuffer} to receive the <code>byte</code> values (up
+	 *            to its remaining space).
+	 * @return Number of <code>byte</code> values copied.
+	 */
+	default int copyTo(int index, ByteBuffer destination) {
+		ByteBuffer[] segments = this.getByteBuffers(index);
+		int copied = 0;
+		for (int i = 0; (i < segments.length) && (destination.hasRemaining()); i++) {
+			ByteBuffer segment = segments[i];
+			if (segment.remaining() > destination.remaining()) {
+				segment.limit(segment.position() + destination.remaining());
+			}
+			copied += segment.remaining();
+			destination.put(segment);
+		}
+		return copied;
+	}
+
+	/**
+	 * <p>
+	 * Obtains read-only {@link ByteBuffer} views of the <code>byte</code>
+	 * values from the index to the end of the {@link ByteSequence}.
+	 * <p>
+	 * This allows zero-copy consumption of the underlying buffers. The
+	 * {@link ByteBuffer} instances are only valid while the {@link ByteSequence}
+	 * is valid.
+	 * 
+	 * @param index
+	 *            Index of the first <code>byte</code>.
+	 * @return Read-only {@link ByteBuffer} views, in order.
+	 */
+	default ByteBuffer[] getByteBuffers(int index) {
+		byte[] bytes = new byte[Math.max(0, this.length() - index)];
+		this.copyTo(index, bytes, 0, bytes.length);
+		return new ByteBuffer[] { ByteBuffer.wrap(bytes).asReadOnlyBuffer() };
+	}
+
 }
@@ -71,10 +71,36 @@ public class ByteSequenceServerInputStream extends ServerInputStream {
 			return -1; // end of stream
 		} else {
 			// Return next byte
-			return this.byteSequence.byteAt(this.position++);
+			return this.byteSequence.byteAt(this.position++) & 0xff;
 		}
 	}
 
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+
+		// Ensure valid range
+		if ((off < 0) || (len < 0) || (len > (b.length - off))) {
+			throw new IndexOutOfBoundsException();
+		} else if (len == 0) {
+			return 0;
+		}
+
+		// Bulk copy the bytes
+		int bytesRead = this.byteSequence.copyTo(this.position, b, off, len);
+		if (bytesRead <= 0) {
+			return -1; // end of stream
+		}
+		this.position += bytesRead;
+		return bytesRead;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = Math.max(0, Math.min(n, this.byteSequence.length() - this.position));
+		this.position += (int) skipped;
+		return skipped;
+	}
+
 	@Override
 	public int available() throws IOException {
 		return Math.max(0, this.byteSequence.length() - position);
@@ -96,6 +96,11 @@ public class ProcessAwareServerWriter extends ServerWriter {
 		this.safe(() -> this.unsafeServerWriter.write(encodedBytes));
 	}
 
+	@Override
+	public void write(byte[] encodedBytes, int offset, int length) throws IOException {
+		this.safe(() -> this.unsafeServerWriter.write(encodedBytes, offset, length));
+	}
+
 	@Override
 	public void write(FileChannel file, long position, long count, FileCompleteCallback callback) throws IOException {
 		this.safe(() -> this.unsafeServerWriter.write(file, position, count, callback));
@@ -0,0 +1,242 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.stream.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import net.officefloor.server.stream.FileCompleteCallback;
+import net.officefloor.server.stream.ServerOutputStream;
+import net.officefloor.server.stream.ServerWriter;
+
+/**
+ * {@link ServerWriter} writing to a {@link ServerOutputStream}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class ServerOutputStreamWriter extends ServerWriter {
+
+	/**
+	 * {@link ServerOutputStream} to write.
+	 */
+	private final ServerOutputStream outputStream;
+
+	/**
+	 * {@link CloseHandler}.
+	 */
+	private final CloseHandler closeHandler;
+
+	/**
+	 * Delegate {@link OutputStreamWriter}.
+	 */
+	private final OutputStreamWriter delegate;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param outputStream
+	 *            {@link ServerOutputStream} to write.
+	 * @param charset
+	 *            {@link Charset}.
+	 * @param closeHandler
+	 *            {@link CloseHandler}.
+	 */
+	public ServerOutputStreamWriter(ServerOutputStream outputStream, Charset charset, CloseHandler closeHandler) {
+		this.outputStream = outputStream;
+		this.closeHandler = closeHandler;
+		this.delegate = new OutputStreamWriter(new EncodedOutputStream(outputStream), charset);
+	}
+
+	/*
+	 * ============= ServerWriter =====================
+	 */
+
+	@Override
+	public void write(byte[] encodedBytes) throws IOException {
+
+		// Flush to ensure written out
+		this.delegate.flush();
+
+		// Write the encoded bytes
+		this.outputStream.write(encodedBytes);
+	}
+
+	@Override
+	public void write(byte[] encodedBytes, int offset, int length) throws IOException {
+
+		// Flush to ensure written out
+		this.delegate.flush();
+
+		// Write the encoded bytes (copied into the stream buffers)
+		this.outputStream.write(encodedBytes, offset, length);
+	}
+
+	@Override
+	public void write(ByteBuffer encodedBytes) throws IOException {
+
+		// Flush to ensure written out
+		this.delegate.flush();
+
+		// Write the buffer
+		this.outputStream.write(encodedBytes);
+	}
+
+	@Override
+	public void write(FileChannel file, long position, long count, FileCompleteCallback callback)
+			throws IOException {
+
+		// Flush to ensure written out
+		this.delegate.flush();
+
+		// Write the file content
+		this.outputStream.write(file, position, count, callback);
+	}
+
+	@Override
+	public void write(FileChannel file, FileCompleteCallback callback) throws IOException {
+
+		// Flush to ensure written out
+		this.delegate.flush();
+
+		// Write the file content
+		this.outputStream.write(file, callback);
+	}
+
+	/*
+	 * ================ Writer ========================
+	 */
+
+	@Override
+	public void write(int c) throws IOException {
+		this.delegate.write(c);
+	}
+
+	@Override
+	public void write(char[] cbuf) throws IOException {
+		this.delegate.write(cbuf);
+	}
+
+	@Override
+	public void write(String str) throws IOException {
+		this.delegate.write(str);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		this.delegate.write(str, off, len);
+	}
+
+	@Override
+	public Writer append(CharSequence csq) throws IOException {
+		this.delegate.append(csq);
+		return this;
+	}
+
+	@Override
+	public Writer append(CharSequence csq, int start, int end) throws IOException {
+		this.delegate.append(csq, start, end);
+		return this;
+	}
+
+	@Override
+	public Writer append(char c) throws IOException {
+		this.delegate.append(c);
+		return this;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		this.delegate.write(cbuf, off, len);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.delegate.flush();
+		this.outputStream.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		// Determine if already closed
+		if (this.closeHandler.isClosed()) {
+			return; // already closed
+		}
+
+		// Close
+		this.delegate.close();
+	}
+
+	/**
+	 * {@link OutputStream} receiving the encoded characters. Flushing the
+	 * encoded characters (before writing bytes directly) does not flush the
+	 * {@link ServerOutputStream}, as the {@link ServerOutputStream} is only
+	 * flushed on flushing this {@link ServerWriter}.
+	 */
+	private static class EncodedOutputStream extends OutputStream {
+
+		/**
+		 * {@link ServerOutputStream}.
+		 */
+		private final ServerOutputStream outputStream;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param outputStream
+		 *            {@link ServerOutputStream}.
+		 */
+		private EncodedOutputStream(ServerOutputStream outputStream) {
+			this.outputStream = outputStream;
+		}
+
+		/*
+		 * =============== OutputStream =================
+		 */
+
+		@Override
+		public void write(int b) throws IOException {
+			this.outputStream.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.outputStream.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// Flushed by flushing the writer
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.outputStream.close();
+		}
+	}
+
+}
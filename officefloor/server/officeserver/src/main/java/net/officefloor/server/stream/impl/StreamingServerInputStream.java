@@ -0,0 +1,459 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.stream.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.officefloor.server.stream.ServerInputStream;
+
+/**
+ * <p>
+ * {@link ServerInputStream} fed the data as it is received.
+ * <p>
+ * Reading blocks until the data is received. To keep memory bounded, feeding
+ * indicates to stop receiving data once the maximum number of chunks of data
+ * are not yet consumed. Once consumption catches up, the resume
+ * {@link Runnable} is invoked to start receiving data again.
+ * <p>
+ * As the {@link Thread} feeding the data can not receive further data while
+ * blocked, reading on the feeding {@link Thread} fails rather than blocking.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class StreamingServerInputStream extends ServerInputStream {
+
+	/**
+	 * No data.
+	 */
+	private static final byte[] NO_DATA = new byte[0];
+
+	/**
+	 * Chunk of received data.
+	 */
+	private static class Chunk {
+
+		/**
+		 * Data of the chunk.
+		 */
+		private final byte[] data;
+
+		/**
+		 * Next {@link Chunk}.
+		 */
+		private Chunk next = null;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param data Data of the chunk.
+		 */
+		private Chunk(byte[] data) {
+			this.data = data;
+		}
+	}
+
+	/**
+	 * Maximum number of {@link Chunk} instances not yet consumed before
+	 * indicating to stop receiving data.
+	 */
+	private final int maxUnconsumedChunks;
+
+	/**
+	 * {@link Runnable} to resume receiving data.
+	 */
+	private final Runnable resume;
+
+	/**
+	 * {@link Thread} feeding the data.
+	 */
+	private final Thread feedingThread;
+
+	/**
+	 * Current {@link Chunk} being read.
+	 */
+	private Chunk current = new Chunk(NO_DATA);
+
+	/**
+	 * Position within the current {@link Chunk}.
+	 */
+	private int position = 0;
+
+	/**
+	 * Last {@link Chunk} fed.
+	 */
+	private Chunk last = this.current;
+
+	/**
+	 * Number of {@link Chunk} instances not yet consumed.
+	 */
+	private int unconsumedChunks = 0;
+
+	/**
+	 * Number of bytes received but not yet consumed.
+	 */
+	private long unconsumedBytes = 0;
+
+	/**
+	 * Indicates if receiving data is suspended until consumption catches up.
+	 */
+	private boolean isSuspended = false;
+
+	/**
+	 * Indicates if all data has been received.
+	 */
+	private boolean isComplete = false;
+
+	/**
+	 * Indicates if further data is discarded (no longer consumed).
+	 */
+	private boolean isDiscard = false;
+
+	/**
+	 * Possible failure in receiving the data.
+	 */
+	private IOException failure = null;
+
+	/**
+	 * Instantiate. The current {@link Thread} is taken to be the {@link Thread}
+	 * feeding the data.
+	 * 
+	 * @param maxUnconsumedChunks Maximum number of chunks of data not yet consumed
+	 *                            before indicating to stop receiving data.
+	 * @param resume              {@link Runnable} to resume receiving data once
+	 *                            consumption catches up.
+	 */
+	public StreamingServerInputStream(int maxUnconsumedChunks, Runnable resume) {
+		this.maxUnconsumedChunks = maxUnconsumedChunks;
+		this.resume = resume;
+		this.feedingThread = Thread.currentThread();
+	}
+
+	/**
+	 * Feeds a chunk of received data.
+	 * 
+	 * @param data Received data. Ownership is taken, so must not be modified.
+	 * @return <code>true</code> to continue receiving data. <code>false</code> to
+	 *         stop receiving data until the resume {@link Runnable} is invoked.
+	 */
+	public synchronized boolean feed(byte[] data) {
+
+		// Ignore data if discarding
+		if (this.isDiscard || (data.length == 0)) {
+			return true;
+		}
+
+		// Append the data
+		Chunk chunk = new Chunk(data);
+		this.last.next = chunk;
+		this.last = chunk;
+		this.unconsumedChunks++;
+		this.unconsumedBytes += data.length;
+		this.notifyAll();
+
+		// Determine if stop receiving until consumption catches up
+		if (this.unconsumedChunks >= this.maxUnconsumedChunks) {
+			this.isSuspended = true;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Flags all data received.
+	 */
+	public synchronized void complete() {
+		this.isComplete = true;
+		this.notifyAll();
+	}
+
+	/**
+	 * Flags failure in receiving the data.
+	 * 
+	 * @param failure Failure in receiving the data.
+	 */
+	public synchronized void fail(IOException failure) {
+		if (!this.isComplete) {
+			this.failure = failure;
+			this.notifyAll();
+		}
+	}
+
+	/**
+	 * Discards the remaining data, as no longer to be consumed.
+	 */
+	public void discard() {
+		synchronized (this) {
+			this.isDiscard = true;
+			this.current = this.last;
+			this.position = this.last.data.length;
+			this.unconsumedChunks = 0;
+			this.unconsumedBytes = 0;
+			this.notifyAll();
+			if (!this.isSuspended) {
+				return; // still receiving data
+			}
+			this.isSuspended = false;
+		}
+		this.resume.run();
+	}
+
+	/**
+	 * Obtains the {@link Chunk} with data to read, waiting on the data to be
+	 * received.
+	 * 
+	 * @param chunk    {@link Chunk} being read.
+	 * @param position Position within the {@link Chunk}.
+	 * @return {@link Chunk} containing further data. <code>null</code> if end of
+	 *         stream.
+	 * @throws IOException If fails to receive the data.
+	 */
+	private Chunk awaitChunk(Chunk chunk, int position) throws IOException {
+		while (position >= chunk.data.length) {
+
+			// Move to next chunk (if available)
+			if (chunk.next != null) {
+				return chunk.next;
+			}
+
+			// Determine if end of stream
+			if (this.failure != null) {
+				throw this.failure;
+			} else if (this.isComplete || this.isDiscard) {
+				return null;
+			}
+
+			// Can not block feeding thread (as would never receive data)
+			if (Thread.currentThread() == this.feedingThread) {
+				throw new IOException("Entity not yet received (must not block on thread receiving the entity)");
+			}
+
+			// Wait for the data
+			try {
+				this.wait();
+			} catch (InterruptedException ex) {
+				throw new IOException("Interrupted waiting on entity", ex);
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * Obtains the current {@link Chunk} to read.
+	 * 
+	 * @return Current {@link Chunk} to read. <code>null</code> if end of stream.
+	 * @throws IOException If fails to receive the data.
+	 */
+	private Chunk currentChunk() throws IOException {
+		Chunk chunk = this.awaitChunk(this.current, this.position);
+		if ((chunk != null) && (chunk != this.current)) {
+			this.current = chunk;
+			this.position = 0;
+			this.unconsumedChunks--;
+		}
+		return chunk;
+	}
+
+	/**
+	 * Consumes the bytes.
+	 * 
+	 * @param bytesRead Number of bytes consumed from the current {@link Chunk}.
+	 * @return <code>true</code> to resume receiving data.
+	 */
+	private boolean consume(int bytesRead) {
+		this.position += bytesRead;
+		this.unconsumedBytes -= bytesRead;
+
+		// Determine if resume receiving data (once half consumed)
+		if ((this.isSuspended) && (this.unconsumedChunks <= (this.maxUnconsumedChunks / 2))) {
+			this.isSuspended = false;
+			return true;
+		}
+		return false;
+	}
+
+	/*
+	 * ================== ServerInputStream ======================
+	 */
+
+	@Override
+	public InputStream createBrowseInputStream() {
+		synchronized (this) {
+			return new BrowseInputStream(this.current, this.position);
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		int value;
+		boolean isResume;
+		synchronized (this) {
+			Chunk chunk = this.currentChunk();
+			if (chunk == null) {
+				return -1; // end of stream
+			}
+			value = chunk.data[this.position] & 0xff;
+			isResume = this.consume(1);
+		}
+		if (isResume) {
+			this.resume.run();
+		}
+		return value;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+
+		// Ensure valid range
+		if ((off < 0) || (len < 0) || (len > (b.length - off))) {
+			throw new IndexOutOfBoundsException();
+		} else if (len == 0) {
+			return 0;
+		}
+
+		// Bulk copy the bytes from the current chunk
+		int bytesRead;
+		boolean isResume;
+		synchronized (this) {
+			Chunk chunk = this.currentChunk();
+			if (chunk == null) {
+				return -1; // end of stream
+			}
+			bytesRead = Math.min(len, chunk.data.length - this.position);
+			System.arraycopy(chunk.data, this.position, b, off, bytesRead);
+			isResume = this.consume(bytesRead);
+		}
+		if (isResume) {
+			this.resume.run();
+		}
+		return bytesRead;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+		boolean isResume = false;
+		synchronized (this) {
+			while (skipped < n) {
+				Chunk chunk = this.currentChunk();
+				if (chunk == null) {
+					break; // end of stream
+				}
+				int skip = (int) Math.min(n - skipped, chunk.data.length - this.position);
+				isResume |= this.consume(skip);
+				skipped += skip;
+			}
+		}
+		if (isResume) {
+			this.resume.run();
+		}
+		return skipped;
+	}
+
+	@Override
+	public synchronized int available() throws IOException {
+		return (int) Math.min(Integer.MAX_VALUE, this.unconsumedBytes);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.discard();
+	}
+
+	/**
+	 * {@link InputStream} to browse the data from a position.
+	 */
+	private class BrowseInputStream extends InputStream {
+
+		/**
+		 * Current {@link Chunk} being browsed.
+		 */
+		private Chunk current;
+
+		/**
+		 * Position within the current {@link Chunk}.
+		 */
+		private int position;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param current  Current {@link Chunk} being browsed.
+		 * @param position Position within the current {@link Chunk}.
+		 */
+		private BrowseInputStream(Chunk current, int position) {
+			this.current = current;
+			this.position = position;
+		}
+
+		/**
+		 * Obtains the current {@link Chunk} to browse.
+		 * 
+		 * @return Current {@link Chunk} to browse. <code>null</code> if end of
+		 *         stream.
+		 * @throws IOException If fails to receive the data.
+		 */
+		private Chunk currentChunk() throws IOException {
+			Chunk chunk = StreamingServerInputStream.this.awaitChunk(this.current, this.position);
+			if ((chunk != null) && (chunk != this.current)) {
+				this.current = chunk;
+				this.position = 0;
+			}
+			return chunk;
+		}
+
+		@Override
+		public int read() throws IOException {
+			synchronized (StreamingServerInputStream.this) {
+				Chunk chunk = this.currentChunk();
+				if (chunk == null) {
+					return -1; // end of stream
+				}
+				return chunk.data[this.position++] & 0xff;
+			}
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+
+			// Ensure valid range
+			if ((off < 0) || (len < 0) || (len > (b.length - off))) {
+				throw new IndexOutOfBoundsException();
+			} else if (len == 0) {
+				return 0;
+			}
+
+			// Bulk copy the bytes from the current chunk
+			synchronized (StreamingServerInputStream.this) {
+				Chunk chunk = this.currentChunk();
+				if (chunk == null) {
+					return -1; // end of stream
+				}
+				int bytesRead = Math.min(len, chunk.data.length - this.position);
+				System.arraycopy(chunk.data, this.position, b, off, bytesRead);
+				this.position += bytesRead;
+				return bytesRead;
+			}
+		}
+	}
+
+}
@@ -21,8 +21,15 @@
 
 package net.officefloor.server.stream.impl;
 
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import net.officefloor.frame.api.managedobject.pool.ManagedObjectPool;
 import net.officefloor.frame.api.managedobject.pool.ThreadCompletionListener;
@@ -33,13 +40,19 @@ import net.officefloor.server.stream.StreamBuffer;
 import net.officefloor.server.stream.StreamBufferPool;
 
 /**
+ * <p>
  * {@link StreamBufferPool} of {@link ByteBuffer} instances that utilises
  * {@link ThreadLocal} caches for performance.
+ * <p>
+ * {@link StreamBuffer} instances released on another {@link Thread} are handed
+ * back directly to the {@link ThreadLocal} pool of the {@link Thread} that
+ * obtained them (e.g. socket listener obtains and team {@link Thread}
+ * releases). Only overflow is released to the core pool, which is lock-free.
  * 
  * @author Daniel Sagenschneider
  */
 public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBuffer>
-		implements ThreadCompletionListenerFactory, ThreadCompletionListener {
+		implements ThreadCompletionListenerFactory, ThreadCompletionListener, ThreadLocalStreamBufferPoolMBean {
 
 	/**
 	 * {@link ThreadLocalPool}.
@@ -47,10 +60,18 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 	private final ThreadLocal<ThreadLocalPool> threadLocalPool = new ThreadLocal<ThreadLocalPool>() {
 		@Override
 		protected ThreadLocalPool initialValue() {
-			return new ThreadLocalPool();
+			ThreadLocalPool pool = new ThreadLocalPool(Thread.currentThread().getName());
+			ThreadLocalStreamBufferPool.this.threadLocalPools.add(new WeakReference<>(pool));
+			return pool;
 		}
 	};
 
+	/**
+	 * {@link ThreadLocalPool} instances for statistics. Weakly referenced so that
+	 * completed {@link Thread} instances do not retain their pool.
+	 */
+	private final ConcurrentLinkedQueue<WeakReference<ThreadLocalPool>> threadLocalPools = new ConcurrentLinkedQueue<>();
+
 	/**
 	 * Number of {@link StreamBuffer} instances in circulation.
 	 */
@@ -72,14 +93,35 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 	private final int maxCorePoolSize;
 
 	/**
-	 * Head {@link StreamBuffer} within the core pool.
+	 * Head {@link CoreEntry} within the core pool.
 	 */
-	private StreamBuffer<ByteBuffer> coreHead = null;
+	private final AtomicReference<CoreEntry> coreHead = new AtomicReference<>(null);
 
 	/**
 	 * Core pool size.
 	 */
-	private int corePoolSize = 0;
+	private final AtomicInteger corePoolSize = new AtomicInteger(0);
+
+	/**
+	 * Number of allocation misses.
+	 */
+	private final LongAdder allocationMissCount = new LongAdder();
+
+	/**
+	 * Number of {@link StreamBuffer} instances obtained from core pool.
+	 */
+	private final LongAdder corePoolHitCount = new LongAdder();
+
+	/**
+	 * Number of {@link StreamBuffer} instances handed back to their obtaining
+	 * {@link Thread}.
+	 */
+	private final LongAdder handoffCount = new LongAdder();
+
+	/**
+	 * Number of {@link StreamBuffer} instances discarded.
+	 */
+	private final LongAdder discardCount = new LongAdder();
 
 	/**
 	 * <p>
@@ -88,8 +130,13 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 	 * The total potential amount of memory used is:
 	 * <p>
 	 * <code>pooledByteBufferSize</code> * (<code>active buffers</code> +
-	 * (<code>threadLocalPoolSize</code> * <code>active threads</code>) +
+	 * (<code>threadLocalPoolSize</code> * 2 * <code>active threads</code>) +
 	 * <code>corePoolSize</code>).
+	 * <p>
+	 * Note that the {@link ThreadLocal} pool size is doubled, as each
+	 * {@link Thread} may also have up to <code>threadLocalPoolSize</code>
+	 * {@link StreamBuffer} instances handed back from other {@link Thread}
+	 * instances.
 	 * 
 	 * @param byteBufferFactory      {@link ByteBufferFactory}.
 	 * @param maxThreadLocalPoolSize Maximum {@link ThreadLocal} pool size.
@@ -102,43 +149,31 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 		this.maxCorePoolSize = maxCorePoolSize;
 	}
 
-	/**
-	 * Obtains the number of {@link StreamBuffer} instances in circulation.
-	 * 
-	 * @return Number of {@link StreamBuffer} instances in circulation.
-	 */
-	public int getStreamBufferCount() {
-		return this.bufferCount.get();
-	}
-
 	/**
 	 * Releases the {@link StreamBuffer} to the core pool.
 	 * 
 	 * @param buffer {@link StreamBuffer}.
 	 */
-	private void unsafeReleaseToCorePool(StreamBuffer<ByteBuffer> buffer) {
+	private void releaseToCorePool(StreamBuffer<ByteBuffer> buffer) {
 
-		// Determine if release
-		if (this.corePoolSize < this.maxCorePoolSize) {
+		// Determine if space in core pool
+		if (this.corePoolSize.incrementAndGet() > this.maxCorePoolSize) {
 
-			// Released to core pool
-			buffer.next = this.coreHead;
-			this.coreHead = buffer;
-			this.corePoolSize++;
+			// Allow buffer to be garbage collected (too many buffers)
+			this.corePoolSize.decrementAndGet();
+			this.bufferCount.decrementAndGet();
+			this.discardCount.increment();
 			return;
 		}
 
-		// Allow buffer to be garbage collected (too many buffers)
-		this.bufferCount.decrementAndGet();
-	}
-
-	/**
-	 * {@link Thread} safe release to core pool.
-	 * 
-	 * @param buffer {@link StreamBuffer}.
-	 */
-	private synchronized void safeReleaseToCorePool(StreamBuffer<ByteBuffer> buffer) {
-		this.unsafeReleaseToCorePool(buffer);
+		// Release to core pool (new entry to avoid ABA on lock-free stack)
+		buffer.next = null;
+		CoreEntry entry = new CoreEntry(buffer);
+		CoreEntry head;
+		do {
+			head = this.coreHead.get();
+			entry.next = head;
+		} while (!this.coreHead.compareAndSet(head, entry));
 	}
 
 	/**
@@ -146,20 +181,21 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 	 * 
 	 * @return {@link StreamBuffer} or <code>null</code> if core pool is empty.
 	 */
-	private synchronized StreamBuffer<ByteBuffer> getCorePoolBuffer() {
-
-		// Determine if buffers in the core pool
-		if (this.corePoolSize <= 0) {
-			return null; // empty pool
-		}
-
-		// Obtain the buffer from core pool
-		StreamBuffer<ByteBuffer> buffer = this.coreHead;
-		this.coreHead = this.coreHead.next;
-		this.corePoolSize--;
+	private StreamBuffer<ByteBuffer> getCorePoolBuffer() {
+
+		// Obtain the buffer from the core pool
+		CoreEntry head;
+		do {
+			head = this.coreHead.get();
+			if (head == null) {
+				return null; // empty pool
+			}
+		} while (!this.coreHead.compareAndSet(head, head.next));
 
-		// Return the buffer
-		return buffer;
+		// Obtained the buffer
+		this.corePoolSize.decrementAndGet();
+		this.corePoolHitCount.increment();
+		return head.buffer;
 	}
 
 	/**
@@ -167,43 +203,133 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 	 * 
 	 * @return New pooled {@link StreamBuffer}.
 	 */
-	private StreamBuffer<ByteBuffer> createPooledStreamBuffer() {
+	private PooledStreamBuffer createPooledStreamBuffer() {
 
 		// Capture created buffer
 		this.bufferCount.incrementAndGet();
+		this.allocationMissCount.increment();
 
 		// Create and return new buffer
 		ByteBuffer byteBuffer = this.byteBufferFactory.createByteBuffer();
 		return new PooledStreamBuffer(byteBuffer);
 	}
 
+	/*
+	 * =============== ThreadLocalStreamBufferPoolMBean ===============
+	 */
+
+	@Override
+	public int getStreamBufferCount() {
+		return this.bufferCount.get();
+	}
+
+	@Override
+	public int getCorePoolSize() {
+		return this.corePoolSize.get();
+	}
+
+	@Override
+	public int getThreadLocalPoolSize() {
+		int size = 0;
+		for (ThreadLocalPool pool : this.getThreadLocalPools()) {
+			size += pool.threadPoolSize + pool.handoffSize.get();
+		}
+		return size;
+	}
+
+	@Override
+	public int getThreadLocalPoolCount() {
+		return this.getThreadLocalPools().size();
+	}
+
+	@Override
+	public long getAllocationMissCount() {
+		return this.allocationMissCount.sum();
+	}
+
+	@Override
+	public long getCorePoolHitCount() {
+		return this.corePoolHitCount.sum();
+	}
+
+	@Override
+	public long getHandoffCount() {
+		return this.handoffCount.sum();
+	}
+
+	@Override
+	public long getDiscardCount() {
+		return this.discardCount.sum();
+	}
+
+	@Override
+	public String[] getThreadLocalPoolStatistics() {
+		List<ThreadLocalPool> pools = this.getThreadLocalPools();
+		String[] statistics = new String[pools.size()];
+		for (int i = 0; i < statistics.length; i++) {
+			ThreadLocalPool pool = pools.get(i);
+			statistics[i] = pool.threadName + ": pooled=" + pool.threadPoolSize + ", handoff="
+					+ pool.handoffSize.get() + ", allocationMisses=" + pool.allocationMissCount;
+		}
+		return statistics;
+	}
+
 	/**
+	 * Obtains the active {@link ThreadLocalPool} instances (removing those no
+	 * longer referenced).
+	 * 
+	 * @return Active {@link ThreadLocalPool} instances.
+	 */
+	private List<ThreadLocalPool> getThreadLocalPools() {
+		List<ThreadLocalPool> pools = new ArrayList<>();
+		Iterator<WeakReference<ThreadLocalPool>> iterator = this.threadLocalPools.iterator();
+		while (iterator.hasNext()) {
+			ThreadLocalPool pool = iterator.next().get();
+			if (pool == null) {
+				iterator.remove();
+			} else {
+				pools.add(pool);
+			}
+		}
+		return pools;
+	}
+
+	/*
 	 * =============== BufferPool ===========================
 	 */
 
 	@Override
 	public StreamBuffer<ByteBuffer> getPooledStreamBuffer() {
 
-		// Obtain the stream buffer
-		StreamBuffer<ByteBuffer> pooledBuffer = null;
-
-		// Attempt to obtain from thread local pool
+		// Obtain the thread local pool (flagging active)
 		ThreadLocalPool pool = threadLocalPool.get();
+		if (!pool.isActive) {
+			pool.isActive = true;
+		}
+
+		// Include any buffers handed back
+		if ((pool.threadHead == null) && (pool.handoffHead.get() != null)) {
+			pool.receiveHandoffs();
+		}
+
+		// Obtain the stream buffer
+		PooledStreamBuffer pooledBuffer;
 		if (pool.threadHead != null) {
 			// Obtain from thread pool
 			pooledBuffer = pool.threadHead;
-			pool.threadHead = pool.threadHead.next;
+			pool.threadHead = (PooledStreamBuffer) pooledBuffer.next;
 			pool.threadPoolSize--;
 
 		} else {
 			// No thread buffers, so attempt core pool
-			pooledBuffer = this.getCorePoolBuffer();
+			pooledBuffer = (PooledStreamBuffer) this.getCorePoolBuffer();
 		}
 
 		// Ensure have a buffer
 		if (pooledBuffer == null) {
 			// Create new buffer
 			pooledBuffer = this.createPooledStreamBuffer();
+			pool.allocationMissCount++;
 
 		} else {
 			// Pooled buffer, so reset for use
@@ -211,11 +337,14 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 			pooledBuffer.next = null;
 		}
 
+		// Buffer owned by thread obtaining it
+		pooledBuffer.owner = pool;
+
 		// Return the pooled buffer
 		return pooledBuffer;
 	}
 
-	/**
+	/*
 	 * ============= ThreadCompletionListenerFactory =========
 	 */
 
@@ -224,18 +353,24 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 		return this;
 	}
 
-	/**
+	/*
 	 * ================= ThreadCompletionListener ============
 	 */
 
 	@Override
-	public synchronized void threadComplete() {
+	public void threadComplete() {
 
-		// Obtain the thread pool
+		// Obtain the thread pool (no longer accepting hand backs)
 		ThreadLocalPool pool = threadLocalPool.get();
+		pool.isActive = false;
+
+		// Include buffers handed back
+		pool.receiveHandoffs();
 
-		// Release all to pool
+		// Release all to core pool
 		StreamBuffer<ByteBuffer> buffer = pool.threadHead;
+		pool.threadHead = null;
+		pool.threadPoolSize = 0;
 		while (buffer != null) {
 
 			// Obtain release buffer (must obtain next, as release sets next)
@@ -243,7 +378,7 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 			buffer = buffer.next;
 
 			// Release the buffer
-			this.unsafeReleaseToCorePool(release);
+			this.releaseToCorePool(release);
 		}
 	}
 
@@ -252,6 +387,12 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 	 */
 	private class PooledStreamBuffer extends StreamBuffer<ByteBuffer> {
 
+		/**
+		 * {@link ThreadLocalPool} of the {@link Thread} that obtained this
+		 * {@link StreamBuffer}.
+		 */
+		private ThreadLocalPool owner = null;
+
 		/**
 		 * Instantiate.
 		 * 
@@ -300,6 +441,13 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 			// Obtain the thread local pool
 			ThreadLocalPool pool = threadLocalPool.get();
 
+			// Attempt to hand back to thread that obtained the buffer
+			ThreadLocalPool owner = this.owner;
+			if ((owner != null) && (owner != pool) && (owner.handoff(this, bufferPool.maxThreadLocalPoolSize))) {
+				bufferPool.handoffCount.increment();
+				return; // handed back
+			}
+
 			// Attempt to release to thread local pool
 			if (pool.threadPoolSize < bufferPool.maxThreadLocalPoolSize) {
 				// Release to thread pool
@@ -310,7 +458,32 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 			}
 
 			// As here, release to core pool
-			bufferPool.safeReleaseToCorePool(this);
+			bufferPool.releaseToCorePool(this);
+		}
+	}
+
+	/**
+	 * Entry within the lock-free core pool.
+	 */
+	private static class CoreEntry {
+
+		/**
+		 * {@link StreamBuffer}.
+		 */
+		private final StreamBuffer<ByteBuffer> buffer;
+
+		/**
+		 * Next {@link CoreEntry}.
+		 */
+		private CoreEntry next = null;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param buffer {@link StreamBuffer}.
+		 */
+		private CoreEntry(StreamBuffer<ByteBuffer> buffer) {
+			this.buffer = buffer;
 		}
 	}
 
@@ -319,15 +492,107 @@ public class ThreadLocalStreamBufferPool extends AbstractStreamBufferPool<ByteBu
 	 */
 	private static class ThreadLocalPool {
 
+		/**
+		 * Name of the owning {@link Thread}.
+		 */
+		private final String threadName;
+
 		/**
 		 * Head {@link StreamBuffer} to linked list of {@link StreamBuffer} instances.
 		 */
-		private StreamBuffer<ByteBuffer> threadHead = null;
+		private PooledStreamBuffer threadHead = null;
 
 		/**
 		 * Number of {@link StreamBuffer} instances within this pool.
 		 */
 		private int threadPoolSize = 0;
+
+		/**
+		 * Number of allocation misses by the owning {@link Thread}.
+		 */
+		private long allocationMissCount = 0;
+
+		/**
+		 * Indicates if the owning {@link Thread} is active and will take the hand
+		 * backs.
+		 */
+		private volatile boolean isActive = true;
+
+		/**
+		 * <p>
+		 * Head of {@link StreamBuffer} instances handed back by other
+		 * {@link Thread} instances.
+		 * <p>
+		 * As only pushed and all taken together, there is no ABA problem.
+		 */
+		private final AtomicReference<PooledStreamBuffer> handoffHead = new AtomicReference<>(null);
+
+		/**
+		 * Number of {@link StreamBuffer} instances handed back.
+		 */
+		private final AtomicInteger handoffSize = new AtomicInteger(0);
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param threadName Name of the owning {@link Thread}.
+		 */
+		private ThreadLocalPool(String threadName) {
+			this.threadName = threadName;
+		}
+
+		/**
+		 * Hands back the {@link PooledStreamBuffer}.
+		 * 
+		 * @param buffer         {@link PooledStreamBuffer}.
+		 * @param maxHandoffSize Maximum number of {@link StreamBuffer} instances to
+		 *                       be handed back.
+		 * @return <code>true</code> if handed back.
+		 */
+		private boolean handoff(PooledStreamBuffer buffer, int maxHandoffSize) {
+
+			// Determine if able to hand back
+			if (!this.isActive) {
+				return false;
+			}
+			if (this.handoffSize.incrementAndGet() > maxHandoffSize) {
+				this.handoffSize.decrementAndGet();
+				return false;
+			}
+
+			// Hand back the buffer
+			PooledStreamBuffer head;
+			do {
+				head = this.handoffHead.get();
+				buffer.next = head;
+			} while (!this.handoffHead.compareAndSet(head, buffer));
+			return true;
+		}
+
+		/**
+		 * Includes the handed back {@link StreamBuffer} instances into this pool.
+		 * Must only be invoked by the owning {@link Thread}.
+		 */
+		private void receiveHandoffs() {
+
+			// Take all the handed back buffers
+			PooledStreamBuffer head = this.handoffHead.getAndSet(null);
+			if (head == null) {
+				return; // nothing handed back
+			}
+
+			// Include the buffers in this pool
+			int count = 1;
+			PooledStreamBuffer tail = head;
+			while (tail.next != null) {
+				tail = (PooledStreamBuffer) tail.next;
+				count++;
+			}
+			tail.next = this.threadHead;
+			this.threadHead = head;
+			this.threadPoolSize += count;
+			this.handoffSize.addAndGet(-count);
+		}
 	}
 
 }
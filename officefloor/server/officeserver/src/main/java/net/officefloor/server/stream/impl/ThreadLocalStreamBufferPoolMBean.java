@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.stream.impl;
+
+import net.officefloor.server.stream.StreamBuffer;
+
+/**
+ * MBean providing the statistics of the {@link ThreadLocalStreamBufferPool}.
+ * <p>
+ * These are intended to size the {@link ThreadLocal} and core pools from
+ * observed use.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public interface ThreadLocalStreamBufferPoolMBean {
+
+	/**
+	 * Obtains the number of {@link StreamBuffer} instances in circulation.
+	 * 
+	 * @return Number of {@link StreamBuffer} instances in circulation.
+	 */
+	int getStreamBufferCount();
+
+	/**
+	 * Obtains the number of {@link StreamBuffer} instances within the core pool.
+	 * 
+	 * @return Number of {@link StreamBuffer} instances within the core pool.
+	 */
+	int getCorePoolSize();
+
+	/**
+	 * Obtains the number of {@link StreamBuffer} instances across the
+	 * {@link ThreadLocal} pools.
+	 * 
+	 * @return Number of {@link StreamBuffer} instances across the
+	 *         {@link ThreadLocal} pools.
+	 */
+	int getThreadLocalPoolSize();
+
+	/**
+	 * Obtains the number of {@link ThreadLocal} pools.
+	 * 
+	 * @return Number of {@link ThreadLocal} pools.
+	 */
+	int getThreadLocalPoolCount();
+
+	/**
+	 * Obtains the number of times no pooled {@link StreamBuffer} was available and
+	 * a new {@link StreamBuffer} was allocated.
+	 * 
+	 * @return Number of allocation misses.
+	 */
+	long getAllocationMissCount();
+
+	/**
+	 * Obtains the number of {@link StreamBuffer} instances obtained from the core
+	 * pool.
+	 * 
+	 * @return Number of {@link StreamBuffer} instances obtained from the core
+	 *         pool.
+	 */
+	long getCorePoolHitCount();
+
+	/**
+	 * Obtains the number of {@link StreamBuffer} instances handed back directly to
+	 * the pool of the {@link Thread} that obtained them.
+	 * 
+	 * @return Number of {@link StreamBuffer} instances handed back.
+	 */
+	long getHandoffCount();
+
+	/**
+	 * Obtains the number of {@link StreamBuffer} instances discarded (left for
+	 * garbage collection) as the core pool was full.
+	 * 
+	 * @return Number of discarded {@link StreamBuffer} instances.
+	 */
+	long getDiscardCount();
+
+	/**
+	 * Obtains the statistics for each {@link ThreadLocal} pool.
+	 * 
+	 * @return Statistics for each {@link ThreadLocal} pool.
+	 */
+	String[] getThreadLocalPoolStatistics();
+
+}
@@ -22,6 +22,7 @@
 package net.officefloor.server.http;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -43,6 +44,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -293,7 +296,7 @@ public abstract class AbstractHttpServerImplementationTest<M> extends OfficeFram
 			httpServer.value = new HttpServer(serviceHandler, deployer, context);
 
 			// Provide thread object
-			if (sectionServicer == ThreadedServicer.class) {
+			if ((sectionServicer == ThreadedServicer.class) || (sectionServicer == StreamServicer.class)) {
 				addManagedObject(deployer, "ThreadedManagedObject", ThreadedManagedObject.class,
 						ManagedObjectScope.THREAD);
 				deployer.addTeam("Threaded", ExecutorCachedTeamSource.class.getName()).addTypeQualification(null,
@@ -457,6 +460,27 @@ public abstract class AbstractHttpServerImplementationTest<M> extends OfficeFram
 		}
 	}
 
+	public static class StreamServicer {
+
+		private static volatile CountDownLatch completeLatch;
+
+		public void service(ServerHttpConnection connection, ThreadedManagedObject managedObject) throws Exception {
+			assertEquals("Incorrect request URI", "/test", connection.getRequest().getUri());
+			net.officefloor.server.http.HttpResponse response = connection.getResponse();
+			response.setContentType(BytesServicer.TEXT_PLAIN, null);
+			response.stream();
+
+			// Flush first part (before completing)
+			ServerWriter writer = response.getEntityWriter();
+			writer.write("hello");
+			writer.flush();
+
+			// Complete once client has first part
+			assertTrue("Timed out waiting on client", completeLatch.await(10, TimeUnit.SECONDS));
+			writer.write(" world");
+		}
+	}
+
 	public static class FunctionalityServicer {
 		public void service(ServerHttpConnection connection) throws IOException {
 
@@ -731,6 +755,76 @@ public abstract class AbstractHttpServerImplementationTest<M> extends OfficeFram
 		this.doSingleRequest(true);
 	}
 
+	/**
+	 * Ensure can stream the response.
+	 * 
+	 * @throws Exception If test failure.
+	 */
+	public void testStream() throws Exception {
+		this.doStreamTest(false);
+	}
+
+	/**
+	 * Ensure can stream the response over a secure connection.
+	 * 
+	 * @throws Exception If test failure.
+	 */
+	public void testSecureStream() throws Exception {
+		this.doStreamTest(true);
+	}
+
+	/**
+	 * Indicates if the {@link HttpServerImplementation} streams the response.
+	 * 
+	 * @return <code>true</code> if streams the response.
+	 */
+	protected boolean isStreamResponse() {
+		return true;
+	}
+
+	/**
+	 * Undertakes the stream test.
+	 * 
+	 * @param isSecure If secure.
+	 * @throws Exception If test failure.
+	 */
+	private void doStreamTest(boolean isSecure) throws Exception {
+		StreamServicer.completeLatch = new CountDownLatch(1);
+		this.startHttpServer(StreamServicer.class);
+
+		// Determine if sends entire response
+		if (!this.isStreamResponse()) {
+			StreamServicer.completeLatch.countDown();
+			this.doSingleRequest(isSecure);
+			return;
+		}
+
+		try (CloseableHttpClient client = HttpClientTestUtil.createHttpClient(isSecure)) {
+
+			// Ensure head sent before servicing complete
+			HttpResponse response = client.execute(new HttpGet(this.serverLocation.createClientUrl(isSecure, "/test")));
+			assertEquals("Incorrect status", 200, response.getStatusLine().getStatusCode());
+			assertEquals("Should be chunked", "chunked", response.getFirstHeader("Transfer-Encoding").getValue());
+			assertNull("Should not have Content-Length", response.getFirstHeader("Content-Length"));
+			assertEquals("Incorrect Content-Type", "text/plain", response.getFirstHeader("Content-Type").getValue());
+
+			// Ensure flushed content received before servicing complete
+			InputStream entity = response.getEntity().getContent();
+			byte[] flushed = new byte["hello".length()];
+			int totalBytesRead = 0;
+			while (totalBytesRead < flushed.length) {
+				int bytesRead = entity.read(flushed, totalBytesRead, flushed.length - totalBytesRead);
+				assertTrue("Must read flushed content", bytesRead > 0);
+				totalBytesRead += bytesRead;
+			}
+			assertEquals("Incorrect flushed content", "hello", new String(flushed));
+
+			// Complete the response
+			StreamServicer.completeLatch.countDown();
+			assertEquals("Incorrect remaining content", " world", HttpClientTestUtil.entityToString(response));
+		}
+	}
+
 	/**
 	 * Undertakes a single request.
 	 */
@@ -0,0 +1,183 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.http.impl.DeflaterHttpContentEncoder;
+
+/**
+ * Tests the {@link HttpResponseCompression}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class HttpResponseCompressionTest extends OfficeFrameTestCase {
+
+	/**
+	 * <code>gzip</code> {@link HttpContentEncoder}.
+	 */
+	private final HttpContentEncoder gzip = new DeflaterHttpContentEncoder(true, HttpResponseCompression.DEFAULT_LEVEL);
+
+	/**
+	 * <code>deflate</code> {@link HttpContentEncoder}.
+	 */
+	private final HttpContentEncoder deflate = new DeflaterHttpContentEncoder(false,
+			HttpResponseCompression.DEFAULT_LEVEL);
+
+	/**
+	 * {@link HttpResponseCompression} to test.
+	 */
+	private final HttpResponseCompression compression = new HttpResponseCompression(
+			HttpResponseCompression.DEFAULT_MINIMUM_SIZE, HttpResponseCompression.DEFAULT_CONTENT_TYPES.split(","),
+			this.gzip, this.deflate);
+
+	/**
+	 * Ensure negotiate the <code>Content-Encoding</code>.
+	 */
+	public void testNegotiate() {
+		assertNull("No Accept-Encoding", this.compression.negotiate(null));
+		assertNull("Empty Accept-Encoding", this.compression.negotiate(""));
+		assertNull("Unsupported coding", this.compression.negotiate("br"));
+		assertSame("gzip", this.gzip, this.compression.negotiate("gzip"));
+		assertSame("deflate", this.deflate, this.compression.negotiate("deflate"));
+		assertSame("Case insensitive", this.gzip, this.compression.negotiate("GZIP"));
+		assertSame("Server preference", this.gzip, this.compression.negotiate("deflate, gzip"));
+		assertSame("Client quality", this.deflate, this.compression.negotiate("gzip;q=0.5, deflate"));
+		assertSame("Spacing", this.deflate, this.compression.negotiate(" gzip ; q=0.5 , br, deflate ; q=0.8"));
+		assertNull("Not acceptable", this.compression.negotiate("gzip;q=0, deflate;q=0"));
+		assertSame("Wildcard", this.gzip, this.compression.negotiate("*"));
+		assertSame("Wildcard excluding", this.deflate, this.compression.negotiate("gzip;q=0, *"));
+		assertNull("Identity only", this.compression.negotiate("identity"));
+		assertNull("Invalid quality", this.compression.negotiate("gzip;q=invalid"));
+	}
+
+	/**
+	 * Ensure determine if the <code>Content-Type</code> is compressible.
+	 */
+	public void testCompressible() {
+		assertFalse("No content type", this.compression.isCompressible(null));
+		assertTrue("Prefix", this.compression.isCompressible("text/html"));
+		assertTrue("Parameters", this.compression.isCompressible("text/plain; charset=UTF-8"));
+		assertTrue("Exact", this.compression.isCompressible("application/json"));
+		assertTrue("Exact with parameters", this.compression.isCompressible("application/json;charset=UTF-8"));
+		assertTrue("Case insensitive", this.compression.isCompressible("Application/JSON"));
+		assertFalse("Binary", this.compression.isCompressible("application/octet-stream"));
+		assertFalse("Not exact", this.compression.isCompressible("application/jsonx"));
+		assertFalse("Image", this.compression.isCompressible("image/png"));
+		assertTrue("SVG", this.compression.isCompressible("image/svg+xml"));
+	}
+
+	/**
+	 * Ensure <code>gzip</code> encodes content.
+	 */
+	public void testGzip() throws IOException {
+		byte[] content = createContent(100000);
+		byte[] encoded = encode(this.gzip, content);
+		assertTrue("Should be compressed", encoded.length < content.length);
+		assertContent(content, new GZIPInputStream(new ByteArrayInputStream(encoded)));
+	}
+
+	/**
+	 * Ensure <code>deflate</code> encodes content.
+	 */
+	public void testDeflate() throws IOException {
+		byte[] content = createContent(100000);
+		byte[] encoded = encode(this.deflate, content);
+		assertTrue("Should be compressed", encoded.length < content.length);
+		assertContent(content, new InflaterInputStream(new ByteArrayInputStream(encoded)));
+	}
+
+	/**
+	 * Ensure reuse pooled compressor for further encoding.
+	 */
+	public void testReuseCompressor() throws IOException {
+		for (int i = 0; i < 10; i++) {
+			byte[] content = createContent(1000 + i);
+			assertContent(content, new GZIPInputStream(new ByteArrayInputStream(encode(this.gzip, content))));
+		}
+	}
+
+	/**
+	 * Ensure can encode empty content.
+	 */
+	public void testEncodeEmpty() throws IOException {
+		byte[] encoded = encode(this.gzip, new byte[0]);
+		assertContent(new byte[0], new GZIPInputStream(new ByteArrayInputStream(encoded)));
+	}
+
+	/**
+	 * Creates the content.
+	 * 
+	 * @param length Length of the content.
+	 * @return Content.
+	 */
+	static byte[] createContent(int length) {
+		byte[] content = new byte[length];
+		for (int i = 0; i < length; i++) {
+			content[i] = (byte) ('A' + (i % 23));
+		}
+		return content;
+	}
+
+	/**
+	 * Encodes the content.
+	 * 
+	 * @param encoder {@link HttpContentEncoder}.
+	 * @param content Content.
+	 * @return Encoded content.
+	 */
+	private static byte[] encode(HttpContentEncoder encoder, byte[] content) throws IOException {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		OutputStream encoding = encoder.createEncoder(target);
+		if (content.length > 0) {
+			encoding.write(content[0]);
+			encoding.write(content, 1, content.length - 1);
+		}
+		encoding.close();
+		encoding.close(); // ensure only closes once
+		return target.toByteArray();
+	}
+
+	/**
+	 * Asserts the decoded content.
+	 * 
+	 * @param expected Expected content.
+	 * @param decoder  Decoding {@link InputStream}.
+	 */
+	private static void assertContent(byte[] expected, InputStream decoder) throws IOException {
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		for (int size = decoder.read(buffer); size != -1; size = decoder.read(buffer)) {
+			decoded.write(buffer, 0, size);
+		}
+		assertTrue("Incorrect decoded content", Arrays.equals(expected, decoded.toByteArray()));
+	}
+
+}
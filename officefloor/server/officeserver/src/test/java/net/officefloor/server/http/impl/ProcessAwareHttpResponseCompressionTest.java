@@ -0,0 +1,345 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.http.HttpHeaderValue;
+import net.officefloor.server.http.HttpMethod;
+import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.http.HttpResponseCompression;
+import net.officefloor.server.http.HttpResponseWriter;
+import net.officefloor.server.http.HttpStatus;
+import net.officefloor.server.http.HttpVersion;
+import net.officefloor.server.http.ServerHttpConnection;
+import net.officefloor.server.http.WritableHttpCookie;
+import net.officefloor.server.http.WritableHttpHeader;
+import net.officefloor.server.http.mock.MockManagedObjectContext;
+import net.officefloor.server.http.mock.MockNonMaterialisedHttpHeaders;
+import net.officefloor.server.http.mock.MockStreamBufferPool;
+import net.officefloor.server.stream.ServerOutputStream;
+import net.officefloor.server.stream.ServerWriter;
+import net.officefloor.server.stream.StreamBuffer;
+
+/**
+ * Tests compressing the {@link ProcessAwareHttpResponse} entity.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class ProcessAwareHttpResponseCompressionTest extends OfficeFrameTestCase
+		implements HttpResponseWriter<ByteBuffer> {
+
+	/**
+	 * Minimum size for compressing.
+	 */
+	private static final int MINIMUM_SIZE = 100;
+
+	/**
+	 * {@link MockStreamBufferPool}.
+	 */
+	private final MockStreamBufferPool bufferPool = new MockStreamBufferPool(() -> ByteBuffer.allocate(1024));
+
+	/**
+	 * {@link HttpResponseCompression}.
+	 */
+	private final HttpResponseCompression compression = new HttpResponseCompression(MINIMUM_SIZE,
+			HttpResponseCompression.DEFAULT_CONTENT_TYPES.split(","), new DeflaterHttpContentEncoder(true, 6),
+			new DeflaterHttpContentEncoder(false, 6));
+
+	/**
+	 * Ensure compress text content.
+	 */
+	public void testCompressText() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse("gzip, deflate");
+		String text = createText(10000);
+		ServerWriter writer = response.getEntityWriter();
+		writer.write(text);
+		response.flushResponseToHttpResponseWriter(null);
+		this.assertResponse("gzip", true, text.getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+	}
+
+	/**
+	 * Ensure compress with <code>deflate</code>.
+	 */
+	public void testCompressDeflate() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse("gzip;q=0.1, deflate");
+		response.setContentType("application/json", null);
+		byte[] content = createText(5000).getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET);
+		ServerOutputStream output = response.getEntity();
+		for (int i = 0; i < content.length; i += 10) {
+			output.write(content, i, Math.min(10, content.length - i));
+		}
+		response.flushResponseToHttpResponseWriter(null);
+		this.assertResponse("deflate", true, content);
+	}
+
+	/**
+	 * Ensure compress content written in various forms.
+	 */
+	public void testCompressMixedWrites() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse("gzip");
+		response.setContentType("text/html", null);
+		byte[] content = createText(3000).getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET);
+
+		// Write content to file
+		File file = File.createTempFile(this.getClass().getSimpleName(), ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), Arrays.copyOfRange(content, 1000, 2000));
+		boolean[] isFileComplete = new boolean[] { false };
+
+		// Write the content
+		ServerOutputStream output = response.getEntity();
+		output.write(content[0]);
+		output.write(ByteBuffer.wrap(content, 1, 499));
+		ByteBuffer direct = ByteBuffer.allocateDirect(500);
+		direct.put(content, 500, 500);
+		direct.flip();
+		output.write(direct);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			output.write(channel, (completedFile, isWritten) -> isFileComplete[0] = isWritten);
+		}
+		output.write(content, 2000, 1000);
+		response.flushResponseToHttpResponseWriter(null);
+
+		// Ensure compressed
+		assertTrue("File should be complete", isFileComplete[0]);
+		this.assertResponse("gzip", true, content);
+	}
+
+	/**
+	 * Ensure not compress content below minimum size.
+	 */
+	public void testNotCompressSmallContent() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse("gzip");
+		String text = createText(MINIMUM_SIZE - 1);
+		response.getEntityWriter().write(text);
+		response.flushResponseToHttpResponseWriter(null);
+		this.assertResponse(null, true, text.getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+	}
+
+	/**
+	 * Ensure compress content at minimum size.
+	 */
+	public void testCompressMinimumSize() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse("gzip");
+		String text = createText(MINIMUM_SIZE);
+		response.getEntityWriter().write(text);
+		response.flushResponseToHttpResponseWriter(null);
+		this.assertResponse("gzip", true, text.getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+	}
+
+	/**
+	 * Ensure not compress binary content.
+	 */
+	public void testNotCompressBinary() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse("gzip");
+		byte[] content = createText(1000).getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET);
+		response.getEntity().write(content);
+		response.flushResponseToHttpResponseWriter(null);
+		this.assertResponse(null, false, content);
+	}
+
+	/**
+	 * Ensure not compress if client does not accept encoding.
+	 */
+	public void testNotAcceptEncoding() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse(null);
+		String text = createText(1000);
+		response.getEntityWriter().write(text);
+		response.flushResponseToHttpResponseWriter(null);
+		this.assertResponse(null, true, text.getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+	}
+
+	/**
+	 * Ensure not compress if already encoded.
+	 */
+	public void testNotCompressAlreadyEncoded() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse("gzip");
+		response.getHeaders().addHeader("Content-Encoding", "custom");
+		String text = createText(1000);
+		response.getEntityWriter().write(text);
+		response.flushResponseToHttpResponseWriter(null);
+		assertEquals("Incorrect Content-Length", text.length(), this.contentLength);
+		MockStreamBufferPool.releaseStreamBuffers(this.contentHeadStreamBuffer);
+		assertEquals("Incorrect content", text, MockStreamBufferPool.getContent(this.contentHeadStreamBuffer,
+				ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+		this.bufferPool.assertAllBuffersReturned();
+	}
+
+	/**
+	 * Ensure can reset compressed content.
+	 */
+	public void testResetCompressedContent() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse("gzip");
+		response.getEntityWriter().write(createText(5000));
+		response.reset();
+		String text = createText(2000);
+		response.getEntityWriter().write(text);
+		response.flushResponseToHttpResponseWriter(null);
+		this.assertResponse("gzip", true, text.getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+	}
+
+	/**
+	 * Ensure escalation replaces compressed content.
+	 */
+	public void testEscalationReplacesCompressedContent() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createResponse("gzip");
+		response.getEntityWriter().write(createText(5000));
+		response.flushResponseToHttpResponseWriter(new Exception("TEST"));
+		assertEquals("Incorrect status", HttpStatus.INTERNAL_SERVER_ERROR, this.status);
+		assertNull("Should not be encoded", this.getHeader("Content-Encoding"));
+		MockStreamBufferPool.releaseStreamBuffers(this.contentHeadStreamBuffer);
+		String content = MockStreamBufferPool.getContent(this.contentHeadStreamBuffer,
+				ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET);
+		assertTrue("Should be stack trace: " + content, content.startsWith(Exception.class.getName() + ": TEST"));
+		this.bufferPool.assertAllBuffersReturned();
+	}
+
+	/**
+	 * Creates the {@link HttpResponse}.
+	 * 
+	 * @param acceptEncoding <code>Accept-Encoding</code>. May be
+	 *                       <code>null</code>.
+	 * @return {@link ProcessAwareHttpResponse}.
+	 */
+	private ProcessAwareHttpResponse<ByteBuffer> createResponse(String acceptEncoding) {
+		MockNonMaterialisedHttpHeaders headers = new MockNonMaterialisedHttpHeaders();
+		if (acceptEncoding != null) {
+			headers.addHttpHeader("Accept-Encoding", acceptEncoding);
+		}
+		ProcessAwareServerHttpConnectionManagedObject<ByteBuffer> connection = new ProcessAwareServerHttpConnectionManagedObject<ByteBuffer>(
+				new HttpServerLocationImpl(), false, () -> HttpMethod.GET, () -> "/", HttpVersion.HTTP_1_1, headers,
+				null, null, null, true, this, this.bufferPool, this.compression);
+		return new ProcessAwareHttpResponse<ByteBuffer>(connection, HttpVersion.HTTP_1_1,
+				new MockManagedObjectContext());
+	}
+
+	/**
+	 * Creates text content.
+	 * 
+	 * @param length Length of the text.
+	 * @return Text content.
+	 */
+	private static String createText(int length) {
+		StringBuilder text = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			text.append((char) ('a' + (i % 26)));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Obtains the written {@link WritableHttpHeader} value.
+	 * 
+	 * @param name Name of {@link WritableHttpHeader}.
+	 * @return Value of {@link WritableHttpHeader} or <code>null</code> if not
+	 *         written.
+	 */
+	private String getHeader(String name) {
+		for (WritableHttpHeader header = this.httpHeader; header != null; header = header.next) {
+			if (name.equalsIgnoreCase(header.getName())) {
+				return header.getValue();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Asserts the written {@link HttpResponse}.
+	 * 
+	 * @param contentEncoding Expected <code>Content-Encoding</code>. May be
+	 *                        <code>null</code> if not encoded.
+	 * @param isVary          Indicates if expecting <code>Vary</code>.
+	 * @param content         Expected content.
+	 */
+	private void assertResponse(String contentEncoding, boolean isVary, byte[] content) throws IOException {
+
+		// Ensure correct headers
+		assertEquals("Incorrect Content-Encoding", contentEncoding, this.getHeader("Content-Encoding"));
+		assertEquals("Incorrect Vary", isVary ? "Accept-Encoding" : null, this.getHeader("Vary"));
+
+		// Obtain the written content
+		MockStreamBufferPool.releaseStreamBuffers(this.contentHeadStreamBuffer);
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+		InputStream input = MockStreamBufferPool.createInputStream(this.contentHeadStreamBuffer);
+		for (int value = input.read(); value != -1; value = input.read()) {
+			written.write(value);
+		}
+		byte[] writtenContent = written.toByteArray();
+		assertEquals("Incorrect Content-Length", writtenContent.length, this.contentLength);
+
+		// Decode the content
+		InputStream decoder;
+		if (contentEncoding == null) {
+			decoder = new ByteArrayInputStream(writtenContent);
+		} else if ("gzip".equals(contentEncoding)) {
+			assertTrue("Should be compressed", writtenContent.length < content.length);
+			decoder = new GZIPInputStream(new ByteArrayInputStream(writtenContent));
+		} else {
+			assertTrue("Should be compressed", writtenContent.length < content.length);
+			decoder = new InflaterInputStream(new ByteArrayInputStream(writtenContent));
+		}
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		for (int value = decoder.read(); value != -1; value = decoder.read()) {
+			decoded.write(value);
+		}
+		assertTrue("Incorrect content", Arrays.equals(content, decoded.toByteArray()));
+
+		// Ensure all buffers released
+		this.bufferPool.assertAllBuffersReturned();
+	}
+
+	/*
+	 * ===================== HttpResponseWriter ============================
+	 */
+
+	private HttpStatus status = null;
+
+	private WritableHttpHeader httpHeader = null;
+
+	private long contentLength;
+
+	private StreamBuffer<ByteBuffer> contentHeadStreamBuffer = null;
+
+	@Override
+	public void writeHttpResponse(HttpVersion version, HttpStatus status, WritableHttpHeader httpHeader,
+			WritableHttpCookie httpCookie, long contentLength, HttpHeaderValue contentType,
+			StreamBuffer<ByteBuffer> contentHeadStreamBuffer) {
+		this.status = status;
+		this.httpHeader = httpHeader;
+		this.contentLength = contentLength;
+		this.contentHeadStreamBuffer = contentHeadStreamBuffer;
+	}
+
+}
@@ -0,0 +1,319 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.http.HttpHeaderValue;
+import net.officefloor.server.http.HttpMethod;
+import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.http.HttpResponseStream;
+import net.officefloor.server.http.HttpStatus;
+import net.officefloor.server.http.HttpVersion;
+import net.officefloor.server.http.ServerHttpConnection;
+import net.officefloor.server.http.StreamingHttpResponseWriter;
+import net.officefloor.server.http.WritableHttpCookie;
+import net.officefloor.server.http.WritableHttpHeader;
+import net.officefloor.server.http.mock.MockManagedObjectContext;
+import net.officefloor.server.http.mock.MockStreamBufferPool;
+import net.officefloor.server.stream.ServerWriter;
+import net.officefloor.server.stream.StreamBuffer;
+
+/**
+ * Tests streaming the {@link ProcessAwareHttpResponse}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class ProcessAwareHttpResponseStreamingTest extends OfficeFrameTestCase
+		implements StreamingHttpResponseWriter<ByteBuffer> {
+
+	/**
+	 * {@link MockStreamBufferPool}.
+	 */
+	private final MockStreamBufferPool bufferPool = new MockStreamBufferPool();
+
+	/**
+	 * Ensure writes the head on streaming and content on flushing.
+	 */
+	public void testStream() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createHttpResponse(HttpVersion.HTTP_1_1);
+
+		// Stream the response
+		response.setStatus(HttpStatus.CREATED);
+		response.getHeaders().addHeader("test", "value");
+		response.setContentType("text/csv", null);
+		response.stream();
+		assertEquals("Should write head", HttpStatus.CREATED, this.status);
+		assertEquals("Incorrect header", "test", this.httpHeader.getName());
+		assertEquals("Incorrect Content-Type", "text/csv", this.contentType.getValue());
+		assertEquals("Should be no content yet", "", this.content.toString());
+
+		// Write and flush content
+		ServerWriter writer = response.getEntityWriter();
+		writer.write("first,");
+		assertEquals("Should not send content until flushed", "", this.content.toString());
+		writer.flush();
+		assertEquals("Should send flushed content", "first,", this.content.toString());
+		assertFalse("Should not be complete", this.isLast);
+
+		// Complete the response
+		writer.write("second");
+		response.flushResponseToHttpResponseWriter(null);
+		assertEquals("Should send remaining content", "first,second", this.content.toString());
+		assertTrue("Should be complete", this.isLast);
+		assertNull("Should not write as complete response", this.writeStatus);
+	}
+
+	/**
+	 * Ensure can not reset or change <code>Content-Type</code> once streaming.
+	 */
+	public void testCommittedOnStreaming() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createHttpResponse(HttpVersion.HTTP_1_1);
+		response.stream();
+
+		// Should not be able to reset
+		try {
+			response.reset();
+			fail("Should not be able to reset once streaming");
+		} catch (IOException ex) {
+			assertEquals("Already committed to send response", ex.getMessage());
+		}
+
+		// Should not be able to change Content-Type
+		try {
+			response.setContentType("text/html", null);
+			fail("Should not be able to change Content-Type once streaming");
+		} catch (IOException ex) {
+			assertEquals("Can not change Content-Type. Committed to streaming application/octet-stream",
+					ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure aborts the streamed {@link HttpResponse} on escalation.
+	 */
+	public void testAbortOnEscalation() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createHttpResponse(HttpVersion.HTTP_1_1);
+		response.stream();
+		response.getEntity().write(1);
+
+		// Escalation after head sent
+		Exception escalation = new Exception("TEST");
+		response.flushResponseToHttpResponseWriter(escalation);
+		assertSame("Should abort response", escalation, this.abortFailure);
+		assertFalse("Should not complete response", this.isLast);
+	}
+
+	/**
+	 * Ensure can continue writing detached {@link HttpResponse} after servicing
+	 * completes.
+	 */
+	public void testDetach() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createHttpResponse(HttpVersion.HTTP_1_1);
+		response.setContentType("text/event-stream", null);
+		ServerWriter writer = response.getEntityWriter();
+		writer.write("first,");
+
+		// Detach (sending content so far)
+		HttpResponseStream stream = response.detach();
+		assertEquals("Should write head", HttpStatus.OK, this.status);
+		assertEquals("Should send content so far", "first,", this.content.toString());
+		assertSame("Should be same stream", stream, response.detach());
+
+		// Servicing completes, but response remains open
+		response.flushResponseToHttpResponseWriter(null);
+		assertFalse("Should not complete response", this.isLast);
+
+		// Write shared content via the stream
+		ByteBuffer shared = ByteBuffer
+				.wrap("second".getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET)).asReadOnlyBuffer();
+		stream.write(shared);
+		assertEquals("Should send content", "first,second", this.content.toString());
+		assertEquals("Should not modify shared content", 0, shared.position());
+
+		// Offer shared content via the stream (without blocking)
+		stream.offer(shared, 10);
+		assertEquals("Should offer content", "first,secondsecond", this.content.toString());
+		assertEquals("Incorrect max pending writes", 10, this.maxPendingWrites);
+		assertEquals("Should not modify offered content", 0, shared.position());
+
+		// Close the stream (completing the response)
+		assertFalse("Should be open", stream.isClosed());
+		stream.close();
+		assertTrue("Should complete response", this.isLast);
+		assertTrue("Should be closed", stream.isClosed());
+		try {
+			stream.write(shared);
+			fail("Should not write once closed");
+		} catch (IOException ex) {
+			assertEquals("Incorrect cause", "HttpResponseStream closed", ex.getMessage());
+		}
+		try {
+			stream.offer(shared, 10);
+			fail("Should not offer once closed");
+		} catch (IOException ex) {
+			assertEquals("Incorrect cause", "HttpResponseStream closed", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure detached {@link HttpResponse} is aborted on escalation.
+	 */
+	public void testDetachAbortOnEscalation() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createHttpResponse(HttpVersion.HTTP_1_1);
+		HttpResponseStream stream = response.detach();
+
+		// Escalation aborts the response
+		Exception escalation = new Exception("TEST");
+		response.flushResponseToHttpResponseWriter(escalation);
+		assertSame("Should abort response", escalation, this.abortFailure);
+		assertTrue("Should be closed", stream.isClosed());
+	}
+
+	/**
+	 * Ensure detached {@link HttpResponseStream} is closed on connection closing.
+	 */
+	public void testDetachConnectionClosed() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createHttpResponse(HttpVersion.HTTP_1_1);
+		HttpResponseStream stream = response.detach();
+		assertFalse("Should be open", stream.isClosed());
+		this.isConnectionClosed = true;
+		assertTrue("Should be closed with connection", stream.isClosed());
+	}
+
+	/**
+	 * Ensure unable to detach for HTTP/1.0 client.
+	 */
+	public void testNotDetachForHttp10() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createHttpResponse(HttpVersion.HTTP_1_0);
+		try {
+			response.detach();
+			fail("Should not be able to detach");
+		} catch (IOException ex) {
+			assertEquals("Incorrect cause", "Unable to detach HttpResponse as unable to stream for HTTP/1.0",
+					ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure HTTP/1.0 client is sent the complete {@link HttpResponse}, as unable
+	 * to chunk the entity.
+	 */
+	public void testNotStreamForHttp10() throws IOException {
+		ProcessAwareHttpResponse<ByteBuffer> response = this.createHttpResponse(HttpVersion.HTTP_1_0);
+		response.stream();
+		assertNull("Should not write head", this.status);
+
+		// Flush should not send content
+		ServerWriter writer = response.getEntityWriter();
+		writer.write("TEST");
+		writer.flush();
+		assertEquals("Should not stream content", "", this.content.toString());
+
+		// Should send complete response
+		response.flushResponseToHttpResponseWriter(null);
+		assertEquals("Should write complete response", HttpStatus.OK, this.writeStatus);
+		assertEquals("Incorrect Content-Length", 4, this.contentLength);
+	}
+
+	/**
+	 * Creates the {@link ProcessAwareHttpResponse} to test.
+	 * 
+	 * @param clientVersion Client {@link HttpVersion}.
+	 * @return {@link ProcessAwareHttpResponse} to test.
+	 */
+	private ProcessAwareHttpResponse<ByteBuffer> createHttpResponse(HttpVersion clientVersion) {
+		ProcessAwareServerHttpConnectionManagedObject<ByteBuffer> connection = new ProcessAwareServerHttpConnectionManagedObject<ByteBuffer>(
+				new HttpServerLocationImpl(), false, () -> HttpMethod.GET, () -> "/", clientVersion, null, null,
+				null, null, true, this, this.bufferPool);
+		return new ProcessAwareHttpResponse<ByteBuffer>(connection, clientVersion, new MockManagedObjectContext());
+	}
+
+	/*
+	 * ================= StreamingHttpResponseWriter =======================
+	 */
+
+	private HttpStatus writeStatus = null;
+
+	private long contentLength = -1;
+
+	private HttpStatus status = null;
+
+	private WritableHttpHeader httpHeader = null;
+
+	private HttpHeaderValue contentType = null;
+
+	private final StringBuilder content = new StringBuilder();
+
+	private boolean isLast = false;
+
+	private int maxPendingWrites = -1;
+
+	private Throwable abortFailure = null;
+
+	private boolean isConnectionClosed = false;
+
+	@Override
+	public void writeHttpResponse(HttpVersion version, HttpStatus status, WritableHttpHeader httpHeader,
+			WritableHttpCookie httpCookie, long contentLength, HttpHeaderValue contentType,
+			StreamBuffer<ByteBuffer> contentHeadStreamBuffer) {
+		this.writeStatus = status;
+		this.contentLength = contentLength;
+	}
+
+	@Override
+	public void writeHttpResponseHead(HttpVersion version, HttpStatus status, WritableHttpHeader headHttpHeader,
+			WritableHttpCookie headHttpCookie, HttpHeaderValue contentType) {
+		this.status = status;
+		this.httpHeader = headHttpHeader;
+		this.contentType = contentType;
+	}
+
+	@Override
+	public void writeHttpResponseContent(StreamBuffer<ByteBuffer> contentHeadStreamBuffer, boolean isLast) {
+		if (contentHeadStreamBuffer != null) {
+			MockStreamBufferPool.releaseStreamBuffers(contentHeadStreamBuffer);
+			this.content.append(MockStreamBufferPool.getContent(contentHeadStreamBuffer,
+					ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+		}
+		this.isLast = isLast;
+	}
+
+	@Override
+	public void offerHttpResponseContent(StreamBuffer<ByteBuffer> contentHeadStreamBuffer, int maxPendingWrites) {
+		this.writeHttpResponseContent(contentHeadStreamBuffer, false);
+		this.maxPendingWrites = maxPendingWrites;
+	}
+
+	@Override
+	public void abortHttpResponse(Throwable failure) {
+		this.abortFailure = failure;
+	}
+
+	@Override
+	public boolean isConnectionClosed() {
+		return this.isConnectionClosed;
+	}
+
+}
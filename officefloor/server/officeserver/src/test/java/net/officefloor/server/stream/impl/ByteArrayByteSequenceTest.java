@@ -21,6 +21,8 @@
 
 package net.officefloor.server.stream.impl;
 
+import java.nio.ByteBuffer;
+
 import net.officefloor.frame.test.OfficeFrameTestCase;
 import net.officefloor.server.http.ServerHttpConnection;
 
@@ -64,4 +66,28 @@ public class ByteArrayByteSequenceTest extends OfficeFrameTestCase {
 		}
 		assertEquals("Incorrect reconstructed value", TEST, new String(content, ServerHttpConnection.HTTP_CHARSET));
 	}
+
+	/**
+	 * Ensure can bulk copy contents.
+	 */
+	public void testBulkCopy() {
+		byte[] content = new byte[6];
+		assertEquals("Incorrect number of bytes copied", 3, this.sequence.copyTo(1, content, 2, 10));
+		assertEquals("Incorrect copied value", "EST", new String(content, 2, 3, ServerHttpConnection.HTTP_CHARSET));
+		ByteBuffer buffer = ByteBuffer.allocate(2);
+		assertEquals("Incorrect number of bytes copied to buffer", 2, this.sequence.copyTo(1, buffer));
+		assertEquals("Incorrect buffer value", "ES", new String(buffer.array(), ServerHttpConnection.HTTP_CHARSET));
+	}
+
+	/**
+	 * Ensure can obtain {@link ByteBuffer} view of contents.
+	 */
+	public void testByteBuffers() {
+		ByteBuffer[] buffers = this.sequence.getByteBuffers(2);
+		assertEquals("Incorrect number of buffers", 1, buffers.length);
+		assertTrue("Should be read-only", buffers[0].isReadOnly());
+		assertEquals("Incorrect remaining", 2, buffers[0].remaining());
+		assertEquals("Incorrect first byte", this.bytes[2], buffers[0].get());
+		assertEquals("Incorrect second byte", this.bytes[3], buffers[0].get());
+	}
 }
@@ -95,6 +95,38 @@ public class ByteSequenceServerInputStreamTest extends OfficeFrameTestCase {
 				new String(data, offset, length, ServerHttpConnection.HTTP_CHARSET));
 	}
 
+	/**
+	 * Ensure bulk read indicates end of stream.
+	 */
+	public void testBulkReadEndOfStream() throws IOException {
+		byte[] data = new byte[this.bytes.length + 10];
+		assertEquals("Should read available bytes", this.bytes.length, this.inputStream.read(data));
+		assertEquals("Should be end of stream", -1, this.inputStream.read(data));
+		assertEquals("Should read nothing for no length", 0, this.inputStream.read(data, 0, 0));
+	}
+
+	/**
+	 * Ensure can skip bytes.
+	 */
+	public void testSkip() throws IOException {
+		assertEquals("Incorrect bytes skipped", 5, this.inputStream.skip(5));
+		assertEquals("Incorrect byte after skip", "t".getBytes(ServerHttpConnection.HTTP_CHARSET)[0],
+				this.inputStream.read());
+		assertEquals("Should only skip remaining", 3, this.inputStream.skip(100));
+		assertEquals("Should be end of stream", -1, this.inputStream.read());
+	}
+
+	/**
+	 * Ensure high <code>byte</code> values are not confused with end of stream.
+	 */
+	public void testReadHighByteValues() throws IOException {
+		ByteSequenceServerInputStream input = new ByteSequenceServerInputStream(
+				new ByteArrayByteSequence(new byte[] { (byte) 0xff, (byte) 0x80 }), 0);
+		assertEquals("Incorrect first byte", 0xff, input.read());
+		assertEquals("Incorrect second byte", 0x80, input.read());
+		assertEquals("Should be end of stream", -1, input.read());
+	}
+
 	/**
 	 * Ensure can browse rest of {@link ServerInputStream}.
 	 */
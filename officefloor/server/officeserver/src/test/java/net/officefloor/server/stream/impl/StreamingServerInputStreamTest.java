@@ -0,0 +1,234 @@
+/*-
+ * #%L
+ * HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.stream.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.http.ServerHttpConnection;
+
+/**
+ * Tests the {@link StreamingServerInputStream}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class StreamingServerInputStreamTest extends OfficeFrameTestCase {
+
+	/**
+	 * Number of times resumed.
+	 */
+	private final AtomicInteger resumeCount = new AtomicInteger(0);
+
+	/**
+	 * {@link StreamingServerInputStream} to test.
+	 */
+	private final StreamingServerInputStream inputStream = new StreamingServerInputStream(4,
+			() -> this.resumeCount.incrementAndGet());
+
+	/**
+	 * Ensure can read the fed data.
+	 */
+	public void testReadFedData() throws IOException {
+		assertTrue("Should continue receiving", this.inputStream.feed(bytes("TEST")));
+		assertTrue("Should continue receiving", this.inputStream.feed(bytes("_test")));
+		this.inputStream.complete();
+		assertEquals("Incorrect number available", 9, this.inputStream.available());
+		assertEquals("Incorrect data", "TEST_test", readAll(this.inputStream));
+		assertEquals("Should continue to be end of stream", -1, this.inputStream.read());
+	}
+
+	/**
+	 * Ensure can bulk read across the fed data.
+	 */
+	public void testBulkRead() throws IOException {
+		this.inputStream.feed(bytes("TEST"));
+		this.inputStream.feed(bytes("_test"));
+		this.inputStream.complete();
+		byte[] data = new byte[12];
+		assertEquals("Should only read first chunk", 4, this.inputStream.read(data, 2, 10));
+		assertEquals("Incorrect first chunk", "TEST", new String(data, 2, 4, ServerHttpConnection.HTTP_CHARSET));
+		assertEquals("Should read second chunk", 5, this.inputStream.read(data));
+		assertEquals("Incorrect second chunk", "_test", new String(data, 0, 5, ServerHttpConnection.HTTP_CHARSET));
+		assertEquals("Should be end of stream", -1, this.inputStream.read(data));
+	}
+
+	/**
+	 * Ensure high <code>byte</code> values are not confused with end of stream.
+	 */
+	public void testReadHighByteValues() throws IOException {
+		this.inputStream.feed(new byte[] { (byte) 0xff, (byte) 0x80 });
+		this.inputStream.complete();
+		assertEquals("Incorrect first byte", 0xff, this.inputStream.read());
+		assertEquals("Incorrect second byte", 0x80, this.inputStream.read());
+		assertEquals("Should be end of stream", -1, this.inputStream.read());
+	}
+
+	/**
+	 * Ensure can skip across the fed data.
+	 */
+	public void testSkip() throws IOException {
+		this.inputStream.feed(bytes("TEST"));
+		this.inputStream.feed(bytes("_test"));
+		this.inputStream.complete();
+		assertEquals("Incorrect bytes skipped", 5, this.inputStream.skip(5));
+		assertEquals("Incorrect byte after skip", 't', this.inputStream.read());
+		assertEquals("Should only skip remaining", 3, this.inputStream.skip(100));
+		assertEquals("Should be end of stream", -1, this.inputStream.read());
+	}
+
+	/**
+	 * Ensure can browse the remaining data.
+	 */
+	public void testBrowseStream() throws IOException {
+		this.inputStream.feed(bytes("TEST"));
+		this.inputStream.feed(bytes("_test"));
+		this.inputStream.complete();
+		assertEquals("Incorrect bytes skipped", 3, this.inputStream.skip(3));
+		InputStream browse = this.inputStream.createBrowseInputStream();
+		assertEquals("Incorrect browsed data", "T_test", readAll(browse));
+		assertEquals("Browse should not consume data", "T_test", readAll(this.inputStream));
+	}
+
+	/**
+	 * Ensure stop receiving data once too much unconsumed and resumes once
+	 * consumption catches up.
+	 */
+	public void testBackPressure() throws IOException {
+		assertTrue("First chunk", this.inputStream.feed(bytes("1")));
+		assertTrue("Second chunk", this.inputStream.feed(bytes("2")));
+		assertTrue("Third chunk", this.inputStream.feed(bytes("3")));
+		assertFalse("Should stop receiving on reaching maximum", this.inputStream.feed(bytes("4")));
+		assertEquals("Should not yet resume", 0, this.resumeCount.get());
+
+		// Consume until half remaining unconsumed
+		assertEquals("Incorrect first byte", '1', this.inputStream.read());
+		assertEquals("Should not resume until half consumed", 0, this.resumeCount.get());
+		assertEquals("Incorrect second byte", '2', this.inputStream.read());
+		assertEquals("Should resume once half consumed", 1, this.resumeCount.get());
+
+		// Ensure resume only once
+		assertEquals("Incorrect third byte", '3', this.inputStream.read());
+		assertEquals("Incorrect fourth byte", '4', this.inputStream.read());
+		assertEquals("Should only resume once", 1, this.resumeCount.get());
+	}
+
+	/**
+	 * Ensure discarding resumes receiving data and ignores further data.
+	 */
+	public void testDiscard() throws IOException {
+		for (int i = 0; i < 3; i++) {
+			this.inputStream.feed(bytes(String.valueOf(i)));
+		}
+		assertFalse("Should stop receiving", this.inputStream.feed(bytes("3")));
+		this.inputStream.close();
+		assertEquals("Should resume to discard remaining data", 1, this.resumeCount.get());
+		assertEquals("Should discard data", 0, this.inputStream.available());
+		for (int i = 0; i < 10; i++) {
+			assertTrue("Should continue receiving discarded data", this.inputStream.feed(bytes("discard")));
+		}
+		assertEquals("Should be end of stream", -1, this.inputStream.read());
+	}
+
+	/**
+	 * Ensure reading on the feeding {@link Thread} fails rather than blocks.
+	 */
+	public void testNotBlockFeedingThread() {
+		this.inputStream.feed(bytes("A"));
+		try {
+			assertEquals("Should read available data", 'A', this.inputStream.read());
+			this.inputStream.read();
+			fail("Should not block feeding thread");
+		} catch (IOException ex) {
+			assertEquals("Incorrect cause",
+					"Entity not yet received (must not block on thread receiving the entity)", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure reading blocks until data is fed.
+	 */
+	public void testBlockUntilFed() throws Throwable {
+		StringBuilder received = new StringBuilder();
+		Throwable[] failure = new Throwable[1];
+		Thread reader = new Thread(() -> {
+			try {
+				received.append(readAll(this.inputStream));
+			} catch (Throwable ex) {
+				failure[0] = ex;
+			}
+		});
+		reader.start();
+		this.inputStream.feed(bytes("TEST"));
+		Thread.sleep(10);
+		this.inputStream.feed(bytes("_test"));
+		this.inputStream.complete();
+		reader.join(10000);
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		assertEquals("Incorrect data", "TEST_test", received.toString());
+	}
+
+	/**
+	 * Ensure failure in receiving is propagated to the reader.
+	 */
+	public void testFail() throws IOException {
+		this.inputStream.feed(bytes("A"));
+		IOException failure = new IOException("TEST");
+		this.inputStream.fail(failure);
+		assertEquals("Should read received data", 'A', this.inputStream.read());
+		try {
+			this.inputStream.read();
+			fail("Should propagate failure");
+		} catch (IOException ex) {
+			assertSame("Incorrect failure", failure, ex);
+		}
+	}
+
+	/**
+	 * Obtains the bytes.
+	 * 
+	 * @param text Text.
+	 * @return Bytes for the text.
+	 */
+	private static byte[] bytes(String text) {
+		return text.getBytes(ServerHttpConnection.HTTP_CHARSET);
+	}
+
+	/**
+	 * Reads all the data from the {@link InputStream}.
+	 * 
+	 * @param input {@link InputStream}.
+	 * @return Data as text.
+	 * @throws IOException If fails to read.
+	 */
+	private static String readAll(InputStream input) throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int value = input.read(); value != -1; value = input.read()) {
+			text.append((char) value);
+		}
+		return text.toString();
+	}
+
+}
@@ -272,6 +272,83 @@ public class ThreadLocalStreamBufferPoolTest extends OfficeFrameTestCase {
 		assertSame("Core is first after thread completion", coreBuffer, reuse[THREAD_LOCAL_POOL_SIZE]);
 	}
 
+	/**
+	 * Ensure {@link StreamBuffer} released on another {@link Thread} is handed back
+	 * to the {@link Thread} that obtained it.
+	 */
+	public void testHandoffToObtainingThread() throws Exception {
+
+		// Obtain the buffer
+		StreamBuffer<ByteBuffer> buffer = this.pool.getPooledStreamBuffer();
+
+		// Release on another thread
+		Thread releaser = new Thread(() -> buffer.release());
+		releaser.start();
+		releaser.join();
+		assertEquals("Should be handed back", 1, this.pool.getHandoffCount());
+		assertEquals("Should not be in core pool", 0, this.pool.getCorePoolSize());
+
+		// Ensure obtain the handed back buffer
+		assertSame("Should obtain handed back buffer", buffer, this.pool.getPooledStreamBuffer());
+		assertEquals("Should not go to core pool", 0, this.pool.getCorePoolHitCount());
+	}
+
+	/**
+	 * Ensure {@link StreamBuffer} released on another {@link Thread} after
+	 * {@link Thread} completion is not handed back.
+	 */
+	public void testNoHandoffAfterThreadComplete() throws Exception {
+
+		// Obtain the buffer and complete the thread
+		StreamBuffer<ByteBuffer> buffer = this.pool.getPooledStreamBuffer();
+		this.pool.createThreadCompletionListener(null).threadComplete();
+
+		// Release on another thread (and complete that thread)
+		Thread releaser = new Thread(() -> {
+			buffer.release();
+			this.pool.threadComplete();
+		});
+		releaser.start();
+		releaser.join();
+		assertEquals("Should not be handed back", 0, this.pool.getHandoffCount());
+		assertEquals("Should be in core pool", 1, this.pool.getCorePoolSize());
+
+		// Ensure obtain buffer from core pool
+		assertSame("Should obtain buffer from core pool", buffer, this.pool.getPooledStreamBuffer());
+		assertEquals("Should be from core pool", 1, this.pool.getCorePoolHitCount());
+	}
+
+	/**
+	 * Ensure provides statistics.
+	 */
+	@SuppressWarnings("unchecked")
+	public void testStatistics() {
+
+		// Obtain buffers (more than can be pooled)
+		final int RETRIEVE_NUMBER = THREAD_LOCAL_POOL_SIZE + CORE_POOL_SIZE + 1;
+		StreamBuffer<ByteBuffer>[] buffers = new StreamBuffer[RETRIEVE_NUMBER];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = this.pool.getPooledStreamBuffer();
+		}
+		assertEquals("Incorrect allocation misses", RETRIEVE_NUMBER, this.pool.getAllocationMissCount());
+		assertEquals("Incorrect number of buffers", RETRIEVE_NUMBER, this.pool.getStreamBufferCount());
+
+		// Release the buffers
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i].release();
+		}
+		assertEquals("Incorrect thread local pool size", THREAD_LOCAL_POOL_SIZE, this.pool.getThreadLocalPoolSize());
+		assertEquals("Incorrect core pool size", CORE_POOL_SIZE, this.pool.getCorePoolSize());
+		assertEquals("Incorrect discards", 1, this.pool.getDiscardCount());
+		assertEquals("Incorrect number of buffers", RETRIEVE_NUMBER - 1, this.pool.getStreamBufferCount());
+
+		// Ensure per thread statistics
+		String[] statistics = this.pool.getThreadLocalPoolStatistics();
+		assertEquals("Incorrect number of thread local pools", 1, statistics.length);
+		assertEquals("Incorrect thread statistics", Thread.currentThread().getName() + ": pooled="
+				+ THREAD_LOCAL_POOL_SIZE + ", handoff=0, allocationMisses=" + RETRIEVE_NUMBER, statistics[0]);
+	}
+
 	/**
 	 * Ensure can write to {@link ByteBuffer} through {@link StreamBuffer} write
 	 * facade.
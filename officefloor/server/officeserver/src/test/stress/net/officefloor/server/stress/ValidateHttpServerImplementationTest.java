@@ -96,6 +96,11 @@ public class ValidateHttpServerImplementationTest extends AbstractHttpServerImpl
 		return false;
 	}
 
+	@Override
+	protected boolean isStreamResponse() {
+		return false;
+	}
+
 	/**
 	 * Ensures the multi-client pipeline test runs appropriately.
 	 */
@@ -84,6 +84,48 @@ public interface RequestHandler<R> {
 	 */
 	void sendImmediateData(StreamBuffer<ByteBuffer> immediateHead) throws IllegalStateException;
 
+	/**
+	 * <p>
+	 * Specifies whether to read further data from the {@link Socket}. This
+	 * allows back-pressure on the client, should received data not be consumed
+	 * fast enough.
+	 * <p>
+	 * This may only be invoked by the {@link Socket} {@link Thread}.
+	 * 
+	 * @param isReadInterest
+	 *            <code>true</code> to read further data. <code>false</code> to
+	 *            stop reading data from the {@link Socket}.
+	 * @throws IllegalStateException
+	 *             If invoked from another {@link Thread}.
+	 */
+	void setReadInterest(boolean isReadInterest) throws IllegalStateException;
+
+	/**
+	 * <p>
+	 * Releases the read {@link StreamBuffer} instances already serviced (prior
+	 * to the current read {@link StreamBuffer}). Typically, these are released
+	 * with the next request. However, for streamed requests, the data is copied
+	 * out as received and the {@link StreamBuffer} instances may be released
+	 * early to keep memory bounded.
+	 * <p>
+	 * This may only be invoked by the {@link Socket} {@link Thread}.
+	 * 
+	 * @throws IllegalStateException
+	 *             If invoked from another {@link Thread}.
+	 */
+	void releaseServicedReadBuffers() throws IllegalStateException;
+
+	/**
+	 * <p>
+	 * Waits for the data pending write to the {@link Socket} to drain. This
+	 * provides back-pressure on partial responses written outside the
+	 * {@link Socket} {@link Thread}.
+	 * <p>
+	 * Returns immediately if invoked by the {@link Socket} {@link Thread}, as
+	 * must not block writing the data.
+	 */
+	void awaitPendingWrites();
+
 	/**
 	 * Allows to close connection.
 	 * 
@@ -47,4 +47,56 @@ public interface ResponseWriter {
 	 */
 	void write(ResponseHeaderWriter responseHeaderWriter, StreamBuffer<ByteBuffer> headResponseBuffer);
 
+	/**
+	 * <p>
+	 * Writes the {@link StreamBuffer} instances as part of the response, with
+	 * further parts of the response to follow. The response is completed by
+	 * {@link #write(ResponseHeaderWriter, StreamBuffer)}.
+	 * <p>
+	 * Should the {@link Socket} not be keeping up with the response, this
+	 * blocks (when not invoked by the {@link SocketManager} {@link Thread})
+	 * until the pending response data drains.
+	 * 
+	 * @param responseHeaderWriter
+	 *            {@link ResponseHeaderWriter}. May be <code>null</code> if no
+	 *            header for this part of the response.
+	 * @param headResponseBuffer
+	 *            Head {@link StreamBuffer} for the linked list of
+	 *            {@link StreamBuffer} instances for this part of the response.
+	 *            May be <code>null</code> if no content.
+	 */
+	void writePartial(ResponseHeaderWriter responseHeaderWriter, StreamBuffer<ByteBuffer> headResponseBuffer);
+
+	/**
+	 * <p>
+	 * Writes the {@link StreamBuffer} instances as part of the response, without
+	 * blocking.
+	 * <p>
+	 * Rather than back-pressure, should the {@link Socket} not be keeping up
+	 * with the response (more than the maximum {@link StreamBuffer} instances
+	 * pending write), the connection is closed to drop the client. This is
+	 * determined by the {@link SocketManager} {@link Thread}.
+	 * 
+	 * @param responseHeaderWriter
+	 *            {@link ResponseHeaderWriter}. May be <code>null</code> if no
+	 *            header for this part of the response.
+	 * @param headResponseBuffer
+	 *            Head {@link StreamBuffer} for the linked list of
+	 *            {@link StreamBuffer} instances for this part of the response.
+	 *            May be <code>null</code> if no content.
+	 * @param maxPendingWrites
+	 *            Maximum number of {@link StreamBuffer} instances pending write
+	 *            before the client is dropped.
+	 */
+	void offerPartial(ResponseHeaderWriter responseHeaderWriter, StreamBuffer<ByteBuffer> headResponseBuffer,
+			int maxPendingWrites);
+
+	/**
+	 * Indicates if the connection is closed, so no further response data will
+	 * be sent.
+	 * 
+	 * @return <code>true</code> if the connection is closed.
+	 */
+	boolean isConnectionClosed();
+
 }
@@ -39,7 +39,9 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -62,6 +64,13 @@ public class SocketManager {
 	 */
 	public static final int DEFAULT_SERVER_SOCKET_BACKLOG_SIZE = 8192;
 
+	/**
+	 * Maximum number of {@link StreamBuffer} instances pending write to the
+	 * {@link Socket} before a partial response write (from outside the
+	 * {@link SocketListener} {@link Thread}) waits for them to drain.
+	 */
+	public static final int MAX_PENDING_WRITE_BUFFERS = 32;
+
 	/**
 	 * {@link ThreadLocal} to determine if {@link SocketListener} {@link Thread}.
 	 */
@@ -119,10 +128,33 @@ public class SocketManager {
 	 */
 	public SocketManager(int listenerCount, int socketReceiveBufferSize, int maxReadsOnSelect,
 			StreamBufferPool<ByteBuffer> bufferPool, int socketSendBufferSize) throws IOException {
+		this(listenerCount, socketReceiveBufferSize, maxReadsOnSelect, bufferPool, socketSendBufferSize, false);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param listenerCount           Number of {@link SocketListener} instances.
+	 * @param socketReceiveBufferSize Receive buffer size for the {@link Socket}.
+	 * @param maxReadsOnSelect        Maximum number of reads per
+	 *                                {@link SocketChannel} per select.
+	 * @param bufferPool              {@link StreamBufferPool}.
+	 * @param socketSendBufferSize    Send buffer size for the {@link Socket}.
+	 * @param isPipeHandoff           Indicates to hand off events from other
+	 *                                {@link Thread} instances to the
+	 *                                {@link SocketListener} via a {@link Pipe}.
+	 *                                Otherwise, a lock-free queue is used with the
+	 *                                {@link Selector} woken up (at most once per
+	 *                                drain of the queue).
+	 * @throws IOException If fails to initialise {@link Socket} management.
+	 */
+	public SocketManager(int listenerCount, int socketReceiveBufferSize, int maxReadsOnSelect,
+			StreamBufferPool<ByteBuffer> bufferPool, int socketSendBufferSize, boolean isPipeHandoff)
+			throws IOException {
 		this.listeners = new SocketListener[listenerCount];
 		for (int i = 0; i < listeners.length; i++) {
 			listeners[i] = new SocketListener(socketReceiveBufferSize, maxReadsOnSelect, bufferPool,
-					socketSendBufferSize);
+					socketSendBufferSize, isPipeHandoff);
 		}
 	}
 
@@ -347,6 +379,19 @@ public class SocketManager {
 		 */
 		private final SafeCloseConnectionHandler safeCloseConnectionHandler;
 
+		/**
+		 * {@link AbstractSafeReadHandler} instances to drain on each select (should
+		 * not be using {@link Pipe} hand off).
+		 */
+		private final AbstractSafeReadHandler<?>[] drainHandlers;
+
+		/**
+		 * Indicates if {@link Selector} wake up is pending. This coalesces the wake
+		 * ups to at most one per drain of the {@link AbstractSafeReadHandler}
+		 * instances.
+		 */
+		private final AtomicBoolean isWakeupPending = new AtomicBoolean(false);
+
 		/**
 		 * {@link Pipe} to invoke to shutdown servicing.
 		 */
@@ -365,11 +410,14 @@ public class SocketManager {
 		 *                                {@link SocketChannel} per select.
 		 * @param bufferPool              {@link StreamBufferPool}.
 		 * @param socketSendBufferSize    Send buffer size for the {@link Socket}.
+		 * @param isPipeHandoff           Indicates to hand off events via
+		 *                                {@link Pipe}.
 		 * @throws IOException If fails to establish necessary {@link Socket} and
 		 *                     {@link Pipe} facilities.
 		 */
 		private SocketListener(int socketReceiveBufferSize, int maxReadsOnSelect,
-				StreamBufferPool<ByteBuffer> bufferPool, int socketSendBufferSize) throws IOException {
+				StreamBufferPool<ByteBuffer> bufferPool, int socketSendBufferSize, boolean isPipeHandoff)
+				throws IOException {
 			this.socketReceiveBufferSize = socketReceiveBufferSize;
 			this.maxReadsOnSelect = maxReadsOnSelect;
 			this.bufferPool = bufferPool;
@@ -378,36 +426,32 @@ public class SocketManager {
 			// Create the selector
 			this.selector = Selector.open();
 
-			// Create pipe to listen for accepted sockets
-			Pipe acceptedSocketPipe = Pipe.open();
-			acceptedSocketPipe.source().configureBlocking(false);
-			this.acceptSocketHandler = new AcceptSocketHandler(acceptedSocketPipe, this);
-			acceptedSocketPipe.source().register(this.selector, SelectionKey.OP_READ, this.acceptSocketHandler);
-
-			// Create pipe to lister for executions
-			Pipe executionPipe = Pipe.open();
-			executionPipe.source().configureBlocking(false);
-			this.executionHandler = new ExecutionHandler(executionPipe);
-			executionPipe.source().register(this.selector, SelectionKey.OP_READ, this.executionHandler);
-
-			// Create pipe to listen for safe socket writing
-			Pipe safeWriteSocketPipe = Pipe.open();
-			safeWriteSocketPipe.source().configureBlocking(false);
-			this.safeWriteSocketHandler = new SafeWriteSocketHandler(safeWriteSocketPipe);
-			safeWriteSocketPipe.source().register(this.selector, SelectionKey.OP_READ, this.safeWriteSocketHandler);
-
-			// Create pipe to bulk flush writes
-			Pipe bulkFlushWritesPipe = Pipe.open();
-			bulkFlushWritesPipe.source().configureBlocking(false);
-			this.bulkFlushWritesHandler = new BulkFlushWritesHandler(bulkFlushWritesPipe);
-			bulkFlushWritesPipe.source().register(this.selector, SelectionKey.OP_READ, this.bulkFlushWritesHandler);
-
-			// Create pipe to listen for connection close
-			Pipe safeCloseConectionPipe = Pipe.open();
-			safeCloseConectionPipe.source().configureBlocking(false);
-			this.safeCloseConnectionHandler = new SafeCloseConnectionHandler(safeCloseConectionPipe);
-			safeCloseConectionPipe.source().register(this.selector, SelectionKey.OP_READ,
-					this.safeCloseConnectionHandler);
+			// Create handler to listen for accepted sockets
+			this.acceptSocketHandler = new AcceptSocketHandler(this.openHandoffPipe(isPipeHandoff), this);
+			this.registerHandoff(this.acceptSocketHandler);
+
+			// Create handler to lister for executions
+			this.executionHandler = new ExecutionHandler(this.openHandoffPipe(isPipeHandoff), this);
+			this.registerHandoff(this.executionHandler);
+
+			// Create handler to listen for safe socket writing
+			this.safeWriteSocketHandler = new SafeWriteSocketHandler(this.openHandoffPipe(isPipeHandoff), this);
+			this.registerHandoff(this.safeWriteSocketHandler);
+
+			// Create handler to bulk flush writes
+			this.bulkFlushWritesHandler = new BulkFlushWritesHandler(this.openHandoffPipe(isPipeHandoff), this);
+			this.registerHandoff(this.bulkFlushWritesHandler);
+
+			// Create handler to listen for connection close
+			this.safeCloseConnectionHandler = new SafeCloseConnectionHandler(this.openHandoffPipe(isPipeHandoff),
+					this);
+			this.registerHandoff(this.safeCloseConnectionHandler);
+
+			// Drain (in order) handlers not notified by pipe
+			this.drainHandlers = isPipeHandoff ? new AbstractSafeReadHandler<?>[0]
+					: new AbstractSafeReadHandler<?>[] { this.acceptSocketHandler, this.executionHandler,
+							this.safeWriteSocketHandler, this.bulkFlushWritesHandler,
+							this.safeCloseConnectionHandler };
 
 			// Create pipe to listen for shutdown
 			this.shutdownPipe = Pipe.open();
@@ -416,6 +460,67 @@ public class SocketManager {
 					new ShutdownReadHandler(this.shutdownPipe.source(), this));
 		}
 
+		/**
+		 * Opens the {@link Pipe} for handing off events to this
+		 * {@link SocketListener}.
+		 * 
+		 * @param isPipeHandoff Indicates if hand off via {@link Pipe}.
+		 * @return {@link Pipe} or <code>null</code> if lock-free hand off.
+		 * @throws IOException If fails to open the {@link Pipe}.
+		 */
+		private final Pipe openHandoffPipe(boolean isPipeHandoff) throws IOException {
+			if (!isPipeHandoff) {
+				return null; // lock-free hand off
+			}
+			Pipe pipe = Pipe.open();
+			pipe.source().configureBlocking(false);
+			return pipe;
+		}
+
+		/**
+		 * Registers the {@link AbstractSafeReadHandler} with the {@link Selector} (if
+		 * notified by {@link Pipe}).
+		 * 
+		 * @param handler {@link AbstractSafeReadHandler}.
+		 * @throws IOException If fails to register the {@link Pipe}.
+		 */
+		private final void registerHandoff(AbstractSafeReadHandler<?> handler) throws IOException {
+			if (handler.pipe != null) {
+				handler.pipe.source().register(this.selector, SelectionKey.OP_READ, handler);
+			}
+		}
+
+		/**
+		 * Wakes up the {@link Selector} to drain the lock-free hand off events.
+		 * Multiple wake ups before the drain are coalesced into a single
+		 * {@link Selector#wakeup()}.
+		 */
+		private final void wakeupForHandoff() {
+			if ((!this.isWakeupPending.get()) && (this.isWakeupPending.compareAndSet(false, true))) {
+				this.selector.wakeup();
+			}
+		}
+
+		/**
+		 * Drains the lock-free hand off events.
+		 */
+		private final void drainHandoff() {
+
+			// Clear wake up before drain (so new events trigger wake up)
+			this.isWakeupPending.set(false);
+
+			// Drain the events
+			for (int i = 0; i < this.drainHandlers.length; i++) {
+				AbstractSafeReadHandler<?> handler = this.drainHandlers[i];
+				try {
+					handler.handleSafeEvents();
+				} catch (Throwable ex) {
+					LOGGER.log(Level.WARNING, "Failure handling " + handler.getClass().getSimpleName() + " events",
+							ex);
+				}
+			}
+		}
+
 		/**
 		 * Binds the {@link SocketServicer} to the port.
 		 * 
@@ -567,6 +672,11 @@ public class SocketManager {
 						return; // fatal error, so can not continue
 					}
 
+					// Drain events handed off from other threads
+					if (this.drainHandlers.length > 0) {
+						this.drainHandoff();
+					}
+
 					// Obtain the selected keys
 					Set<SelectionKey> selectedKeys = this.selector.selectedKeys();
 
@@ -666,7 +776,8 @@ public class SocketManager {
 									// Handle the read
 									handler.handleRead(bytesRead, isNewBuffer);
 
-								} while ((buffer.remaining() == 0) && (readsOnSelect < this.maxReadsOnSelect));
+								} while ((buffer.remaining() == 0) && (readsOnSelect < this.maxReadsOnSelect)
+										&& (!handler.isReadSuspended));
 							}
 
 							// Determine if write content
@@ -677,7 +788,7 @@ public class SocketManager {
 										.attachment();
 								if (acceptedSocket.unsafeSendWrites()) {
 									// Content written, no longer write interest
-									selectedKey.interestOps(SelectionKey.OP_READ);
+									selectedKey.interestOps(acceptedSocket.getReadInterestOps());
 								}
 							}
 
@@ -760,6 +871,11 @@ public class SocketManager {
 		 */
 		protected StreamBuffer<ByteBuffer> readBuffer = null;
 
+		/**
+		 * Indicates if reading is suspended (for back-pressure on the client).
+		 */
+		protected boolean isReadSuspended = false;
+
 		/**
 		 * Instantiate.
 		 * 
@@ -796,12 +912,18 @@ public class SocketManager {
 	private static abstract class AbstractSafeReadHandler<E> extends AbstractReadHandler {
 
 		/**
-		 * {@link Pipe} to send unsafe operations.
+		 * {@link Pipe} to send unsafe operations. May be <code>null</code> if lock-free
+		 * hand off.
 		 */
 		private final Pipe pipe;
 
 		/**
-		 * Unsafe events to be run in safe context.
+		 * {@link SocketListener} to wake up on lock-free hand off.
+		 */
+		private final SocketListener socketListener;
+
+		/**
+		 * Unsafe events to be run in safe context (for {@link Pipe} hand off).
 		 */
 		private final List<E> events = new ArrayList<>();
 
@@ -810,14 +932,25 @@ public class SocketManager {
 		 */
 		private boolean isNotified = false;
 
+		/**
+		 * Most recently added {@link SafeEvent} for lock-free hand off. Producers
+		 * push onto this stack, with the {@link SocketListener} taking the entire
+		 * stack on drain.
+		 */
+		private final AtomicReference<SafeEvent<E>> pendingEvents = new AtomicReference<>(null);
+
 		/**
 		 * Instantiate.
 		 * 
-		 * @param pipe {@link Pipe} to send unsafe events to be handled safely.
+		 * @param pipe           {@link Pipe} to send unsafe events to be handled
+		 *                       safely. May be <code>null</code> for lock-free hand
+		 *                       off.
+		 * @param socketListener {@link SocketListener}.
 		 */
-		public AbstractSafeReadHandler(Pipe pipe) {
-			super(pipe.source());
+		public AbstractSafeReadHandler(Pipe pipe, SocketListener socketListener) {
+			super(pipe != null ? pipe.source() : null);
 			this.pipe = pipe;
+			this.socketListener = socketListener;
 		}
 
 		/**
@@ -825,7 +958,32 @@ public class SocketManager {
 		 * 
 		 * @param event Unsafe event.
 		 */
-		protected synchronized final void sendUnsafeEvent(E event) {
+		protected final void sendUnsafeEvent(E event) {
+
+			// Determine if hand off via pipe
+			if (this.pipe != null) {
+				this.sendUnsafeEventViaPipe(event);
+				return;
+			}
+
+			// Push the event (lock-free)
+			SafeEvent<E> safeEvent = new SafeEvent<>(event);
+			SafeEvent<E> previous;
+			do {
+				previous = this.pendingEvents.get();
+				safeEvent.previous = previous;
+			} while (!this.pendingEvents.compareAndSet(previous, safeEvent));
+
+			// Notify to drain the events
+			this.socketListener.wakeupForHandoff();
+		}
+
+		/**
+		 * Sends the unsafe event via the {@link Pipe}.
+		 * 
+		 * @param event Unsafe event.
+		 */
+		private synchronized final void sendUnsafeEventViaPipe(E event) {
 
 			// Queue the event
 			this.events.add(event);
@@ -851,6 +1009,33 @@ public class SocketManager {
 		 */
 		protected abstract void safelyHandleEvent(E event);
 
+		/**
+		 * Handles the lock-free hand off events.
+		 */
+		private final void handleSafeEvents() {
+
+			// Take all the pending events
+			SafeEvent<E> safeEvent = this.pendingEvents.getAndSet(null);
+			if (safeEvent == null) {
+				return; // no events
+			}
+
+			// Reverse to handle events in order of being sent
+			SafeEvent<E> head = null;
+			while (safeEvent != null) {
+				SafeEvent<E> previous = safeEvent.previous;
+				safeEvent.previous = head;
+				head = safeEvent;
+				safeEvent = previous;
+			}
+
+			// Safely handle the events
+			while (head != null) {
+				this.safelyHandleEvent(head.event);
+				head = head.previous;
+			}
+		}
+
 		/*
 		 * ============== AbstractReadHandler ================
 		 */
@@ -883,6 +1068,31 @@ public class SocketManager {
 		}
 	}
 
+	/**
+	 * Event for lock-free hand off to the {@link SocketListener}.
+	 */
+	private static class SafeEvent<E> {
+
+		/**
+		 * Event.
+		 */
+		private final E event;
+
+		/**
+		 * Previous {@link SafeEvent} (or next once reversed for handling).
+		 */
+		private SafeEvent<E> previous = null;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param event Event.
+		 */
+		private SafeEvent(E event) {
+			this.event = event;
+		}
+	}
+
 	/**
 	 * Accept {@link Socket} handler.
 	 */
@@ -891,17 +1101,18 @@ public class SocketManager {
 		/**
 		 * {@link SocketListener}.
 		 */
-		private final SocketListener socketListener;
+		private final SocketListener listener;
 
 		/**
 		 * Instantiate.
 		 * 
-		 * @param acceptedSocketPipe {@link AcceptedSocketServicer} {@link Pipe}.
+		 * @param acceptedSocketPipe {@link AcceptedSocketServicer} {@link Pipe}. May
+		 *                           be <code>null</code> for lock-free hand off.
 		 * @param listener           {@link SocketListener}.
 		 */
 		private AcceptSocketHandler(Pipe acceptedSocketPipe, SocketListener listener) {
-			super(acceptedSocketPipe);
-			this.socketListener = listener;
+			super(acceptedSocketPipe, listener);
+			this.listener = listener;
 		}
 
 		/**
@@ -924,7 +1135,7 @@ public class SocketManager {
 
 			// Accept the socket (registers itself for servicing)
 			try {
-				new AcceptedSocketServicer(acceptedSocket, this.socketListener);
+				new AcceptedSocketServicer(acceptedSocket, this.listener);
 			} catch (IOException ex) {
 				LOGGER.log(Level.WARNING, "Failed to register accepted socket", ex);
 			}
@@ -1030,6 +1241,25 @@ public class SocketManager {
 		 */
 		private StreamBuffer<ByteBuffer> writeResponseHead = null;
 
+		/**
+		 * Number of {@link StreamBuffer} instances pending write to the
+		 * {@link Socket}. Only modified by the {@link SocketListener} {@link Thread},
+		 * however read by other {@link Thread} instances for back-pressure on partial
+		 * response writes.
+		 */
+		private volatile int pendingWriteBufferCount = 0;
+
+		/**
+		 * Indicates if the connection is closed, so no longer wait on pending
+		 * writes.
+		 */
+		private volatile boolean isConnectionClosed = false;
+
+		/**
+		 * Lock to wait on the pending writes draining.
+		 */
+		private final Object pendingWriteLock = new Object();
+
 		/**
 		 * Instantiate.
 		 * 
@@ -1077,16 +1307,68 @@ public class SocketManager {
 		 * @param headResponseBuffer   Head response {@link StreamBuffer} of the linked
 		 *                             list of {@link StreamBuffer} instances for the
 		 *                             {@link SocketRequest}.
+		 * @param isComplete           Indicates if completes the response. Otherwise,
+		 *                             further parts of the response are to follow.
+		 * @param maxPendingWrites     Maximum number of {@link StreamBuffer}
+		 *                             instances pending write to the {@link Socket}
+		 *                             before the connection is closed (dropping the
+		 *                             client). Negative for no limit.
 		 */
 		private final void unsafeWriteResponse(SocketRequest<R> socketRequest,
-				ResponseHeaderWriter responseHeaderWriter, StreamBuffer<ByteBuffer> headResponseBuffer) {
+				ResponseHeaderWriter responseHeaderWriter, StreamBuffer<ByteBuffer> headResponseBuffer,
+				boolean isComplete, int maxPendingWrites) {
+
+			// Drop the client if not keeping up with the response
+			boolean isDrop = (maxPendingWrites >= 0) && (this.pendingWriteBufferCount >= maxPendingWrites);
+			if (isDrop || this.isConnectionClosed) {
+				while (headResponseBuffer != null) {
+					StreamBuffer<ByteBuffer> release = headResponseBuffer;
+					headResponseBuffer = headResponseBuffer.next;
+					release.release();
+				}
+				if (isDrop) {
+					this.unsafeCloseConnection(null);
+				}
+				return;
+			}
 
-			// Provide the response for the request
-			socketRequest.responseHeaderWriter = responseHeaderWriter;
-			socketRequest.headResponseBuffer = headResponseBuffer;
+			// Determine if previous part of response not yet compacted
+			if ((socketRequest.responseHeaderWriter != null) || (socketRequest.headResponseBuffer != null)) {
+
+				// Write header now to keep order with the previous part
+				if (responseHeaderWriter != null) {
+					StreamBuffer<ByteBuffer> headerBuffer = this.socketListener.bufferPool.getPooledStreamBuffer();
+					responseHeaderWriter.write(headerBuffer, this.socketListener.bufferPool);
+					StreamBuffer<ByteBuffer> tailHeaderBuffer = headerBuffer;
+					while (tailHeaderBuffer.next != null) {
+						tailHeaderBuffer = tailHeaderBuffer.next;
+					}
+					tailHeaderBuffer.next = headResponseBuffer;
+					headResponseBuffer = headerBuffer;
+				}
+
+				// Append to the previous part of the response
+				if (socketRequest.headResponseBuffer == null) {
+					socketRequest.headResponseBuffer = headResponseBuffer;
+				} else {
+					StreamBuffer<ByteBuffer> tailResponseBuffer = socketRequest.headResponseBuffer;
+					while (tailResponseBuffer.next != null) {
+						tailResponseBuffer = tailResponseBuffer.next;
+					}
+					tailResponseBuffer.next = headResponseBuffer;
+				}
+
+			} else {
+				// Provide the response for the request
+				socketRequest.responseHeaderWriter = responseHeaderWriter;
+				socketRequest.headResponseBuffer = headResponseBuffer;
+			}
+			socketRequest.isResponse = true;
+			socketRequest.isResponseComplete = isComplete;
 
 			// Response written (so release all request buffers)
 			StreamBuffer<ByteBuffer> requestBuffer = socketRequest.headRequestBuffer;
+			socketRequest.headRequestBuffer = null;
 			while (requestBuffer != null) {
 				StreamBuffer<ByteBuffer> release = requestBuffer;
 				requestBuffer = requestBuffer.next;
@@ -1119,7 +1401,7 @@ public class SocketManager {
 			while (this.head != null) {
 
 				// Ensure a response for request
-				if ((this.head.responseHeaderWriter == null) && (this.head.headResponseBuffer == null)) {
+				if (!this.head.isResponse) {
 					return; // no response yet
 				}
 
@@ -1212,6 +1494,11 @@ public class SocketManager {
 					}
 				}
 
+				// Determine if further parts of the response to follow
+				if (!this.head.isResponseComplete) {
+					break; // flush the partial response
+				}
+
 				// Compacted head response, so move onto next request
 				this.head = this.head.next;
 			}
@@ -1277,6 +1564,49 @@ public class SocketManager {
 			} else {
 				tailWriteBuffer.next = writeHead;
 			}
+
+			// Include the buffers as pending write
+			int pendingCount = this.pendingWriteBufferCount;
+			while (writeHead != null) {
+				pendingCount++;
+				writeHead = writeHead.next;
+			}
+			this.pendingWriteBufferCount = pendingCount;
+		}
+
+		/**
+		 * Waits for the pending writes to drain. This provides back-pressure on
+		 * partial response writes from outside the {@link SocketListener}
+		 * {@link Thread}.
+		 */
+		@Override
+		public final void awaitPendingWrites() {
+
+			// Never block the socket listener thread
+			if (this.socketListener.isSocketListenerThread()) {
+				return;
+			}
+
+			// Wait on the pending writes to drain
+			synchronized (this.pendingWriteLock) {
+				while ((this.pendingWriteBufferCount > MAX_PENDING_WRITE_BUFFERS) && (!this.isConnectionClosed)) {
+					try {
+						this.pendingWriteLock.wait();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						return; // stop waiting
+					}
+				}
+			}
+		}
+
+		/**
+		 * Notifies waiting on pending writes to drain.
+		 */
+		private final void notifyPendingWrites() {
+			synchronized (this.pendingWriteLock) {
+				this.pendingWriteLock.notifyAll();
+			}
 		}
 
 		/**
@@ -1311,7 +1641,7 @@ public class SocketManager {
 						// Not all bytes written, so write when emptied
 
 						// Flag interest in write (as buffer full)
-						this.selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+						this.selectionKey.interestOps(this.getReadInterestOps() | SelectionKey.OP_WRITE);
 
 						// Can not write anything further
 						return false; // require further writes
@@ -1336,7 +1666,7 @@ public class SocketManager {
 						// Not all bytes written, so write when buffer emptied
 
 						// Flag interest in write (as buffer full)
-						this.selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+						this.selectionKey.interestOps(this.getReadInterestOps() | SelectionKey.OP_WRITE);
 
 						// Can not write anything further
 						return false; // require further writes
@@ -1349,12 +1679,29 @@ public class SocketManager {
 
 				// Release the written buffer
 				release.release();
+
+				// Determine if pending writes drained for back-pressure
+				int pendingCount = this.pendingWriteBufferCount - 1;
+				this.pendingWriteBufferCount = pendingCount;
+				if (pendingCount == MAX_PENDING_WRITE_BUFFERS) {
+					this.notifyPendingWrites();
+				}
 			}
 
 			// As here, all data written
 			return true;
 		}
 
+		/**
+		 * Obtains the read interest operations.
+		 * 
+		 * @return {@link SelectionKey#OP_READ} if reading. Otherwise, <code>0</code>
+		 *         if reading suspended.
+		 */
+		private final int getReadInterestOps() {
+			return this.isReadSuspended ? 0 : SelectionKey.OP_READ;
+		}
+
 		/**
 		 * Closes the connection.
 		 * 
@@ -1456,6 +1803,11 @@ public class SocketManager {
 				release.release();
 			}
 
+			// No longer wait on pending writes
+			this.pendingWriteBufferCount = 0;
+			this.isConnectionClosed = true;
+			this.notifyPendingWrites();
+
 			// Allow socket servicer to release buffers
 			this.socketServicer.release();
 		}
@@ -1527,6 +1879,39 @@ public class SocketManager {
 			}
 		}
 
+		@Override
+		public final void setReadInterest(boolean isReadInterest) {
+
+			// Ensure only change read interest on socket listener thread
+			this.socketListener.ensureSocketListenerThread();
+
+			// Determine if change in read interest
+			if (this.isReadSuspended != isReadInterest) {
+				return; // no change
+			}
+			this.isReadSuspended = !isReadInterest;
+
+			// Update read interest (keeping possible write interest)
+			if (this.selectionKey.isValid()) {
+				int writeInterestOps = this.selectionKey.interestOps() & SelectionKey.OP_WRITE;
+				this.selectionKey.interestOps(this.getReadInterestOps() | writeInterestOps);
+			}
+		}
+
+		@Override
+		public final void releaseServicedReadBuffers() {
+
+			// Ensure only release buffers on socket listener thread
+			this.socketListener.ensureSocketListenerThread();
+
+			// Release the serviced read buffers
+			while (this.releaseRequestBuffers != null) {
+				StreamBuffer<ByteBuffer> release = this.releaseRequestBuffers;
+				this.releaseRequestBuffers = this.releaseRequestBuffers.next;
+				release.release();
+			}
+		}
+
 		@Override
 		public final void closeConnection(Throwable exception) {
 			// Appropriately execute based on thread safety
@@ -1548,19 +1933,20 @@ public class SocketManager {
 		/**
 		 * Instantiate.
 		 * 
-		 * @param executionPipe Notify execution {@link Pipe}.
+		 * @param executionPipe Notify execution {@link Pipe}. May be
+		 *                      <code>null</code> for lock-free hand off.
+		 * @param listener      {@link SocketListener}.
 		 */
-		private ExecutionHandler(Pipe executionPipe) {
-			super(executionPipe);
+		private ExecutionHandler(Pipe executionPipe, SocketListener listener) {
+			super(executionPipe, listener);
 		}
 
 		/**
 		 * <p>
 		 * Safely executes the {@link Execution}.
 		 * <p>
-		 * Method is synchronised to ensure data is safe across the {@link Thread}, when
-		 * {@link #handleRead()} is invoked by the {@link SocketListener}
-		 * {@link Thread}.
+		 * Event is handed off to ensure data is safe across the {@link Thread}, when
+		 * handled by the {@link SocketListener} {@link Thread}.
 		 * 
 		 * @param acceptedSocket {@link AcceptedSocketServicer}.
 		 * @param execution      {@link Execution}.
@@ -1615,31 +2001,36 @@ public class SocketManager {
 		/**
 		 * Instantiate.
 		 * 
-		 * @param writeSocketPipe Notify write {@link Pipe}.
+		 * @param writeSocketPipe Notify write {@link Pipe}. May be
+		 *                        <code>null</code> for lock-free hand off.
+		 * @param listener        {@link SocketListener}.
 		 */
-		private SafeWriteSocketHandler(Pipe writeSocketPipe) {
-			super(writeSocketPipe);
+		private SafeWriteSocketHandler(Pipe writeSocketPipe, SocketListener listener) {
+			super(writeSocketPipe, listener);
 		}
 
 		/**
 		 * <p>
 		 * Safely writes the response.
 		 * <p>
-		 * Method is synchronised to ensure data is safe across the {@link Thread}, when
-		 * {@link #handleRead()} is invoked by the {@link SocketListener}
-		 * {@link Thread}.
+		 * Event is handed off to ensure data is safe across the {@link Thread}, when
+		 * handled by the {@link SocketListener} {@link Thread}.
 		 * 
 		 * @param acceptedSocket       {@link AcceptedSocketServicer}.
 		 * @param socketRequest        {@link SocketRequest}.
 		 * @param responseHeaderWriter {@link ResponseHeaderWriter}.
 		 * @param headResponseBuffer   Head {@link StreamBuffer} to the linked list of
 		 *                             {@link StreamBuffer} instances for the response.
+		 * @param isComplete           Indicates if completes the response.
+		 * @param maxPendingWrites     Maximum number of {@link StreamBuffer}
+		 *                             instances pending write before dropping the
+		 *                             client. Negative for no limit.
 		 */
 		private final <R> void safeWriteResponse(AcceptedSocketServicer<R> acceptedSocket,
 				SocketRequest<R> socketRequest, ResponseHeaderWriter responseHeaderWriter,
-				StreamBuffer<ByteBuffer> headResponseBuffer) {
-			this.sendUnsafeEvent(
-					new SafeWriteResponse<>(acceptedSocket, socketRequest, responseHeaderWriter, headResponseBuffer));
+				StreamBuffer<ByteBuffer> headResponseBuffer, boolean isComplete, int maxPendingWrites) {
+			this.sendUnsafeEvent(new SafeWriteResponse<>(acceptedSocket, socketRequest, responseHeaderWriter,
+					headResponseBuffer, isComplete, maxPendingWrites));
 		}
 
 		/*
@@ -1650,7 +2041,7 @@ public class SocketManager {
 		@SuppressWarnings({ "unchecked", "rawtypes" })
 		protected void safelyHandleEvent(SafeWriteResponse response) {
 			response.acceptedSocket.unsafeWriteResponse(response.socketRequest, response.responseHeaderWriter,
-					response.headResponseBuffer);
+					response.headResponseBuffer, response.isComplete, response.maxPendingWrites);
 		}
 	}
 
@@ -1680,6 +2071,17 @@ public class SocketManager {
 		 */
 		private final StreamBuffer<ByteBuffer> headResponseBuffer;
 
+		/**
+		 * Indicates if completes the response.
+		 */
+		private final boolean isComplete;
+
+		/**
+		 * Maximum number of {@link StreamBuffer} instances pending write before
+		 * dropping the client. Negative for no limit.
+		 */
+		private final int maxPendingWrites;
+
 		/**
 		 * Instantiate.
 		 * 
@@ -1688,13 +2090,20 @@ public class SocketManager {
 		 * @param responseHeaderWriter {@link ResponseHeaderWriter}.
 		 * @param headResponseBuffer   Head {@link StreamBuffer} to the linked list of
 		 *                             {@link StreamBuffer} instances for the response.
+		 * @param isComplete           Indicates if completes the response.
+		 * @param maxPendingWrites     Maximum number of {@link StreamBuffer}
+		 *                             instances pending write before dropping the
+		 *                             client. Negative for no limit.
 		 */
 		public SafeWriteResponse(AcceptedSocketServicer<R> acceptedSocket, SocketRequest<R> socketRequest,
-				ResponseHeaderWriter responseHeaderWriter, StreamBuffer<ByteBuffer> headResponseBuffer) {
+				ResponseHeaderWriter responseHeaderWriter, StreamBuffer<ByteBuffer> headResponseBuffer,
+				boolean isComplete, int maxPendingWrites) {
 			this.acceptedSocket = acceptedSocket;
 			this.socketRequest = socketRequest;
 			this.responseHeaderWriter = responseHeaderWriter;
 			this.headResponseBuffer = headResponseBuffer;
+			this.isComplete = isComplete;
+			this.maxPendingWrites = maxPendingWrites;
 		}
 	}
 
@@ -1710,9 +2119,9 @@ public class SocketManager {
 
 		/**
 		 * Head request {@link StreamBuffer} of the linked list of {@link StreamBuffer}
-		 * instances.
+		 * instances. Released (and cleared) on the first write of the response.
 		 */
-		private final StreamBuffer<ByteBuffer> headRequestBuffer;
+		private StreamBuffer<ByteBuffer> headRequestBuffer;
 
 		/**
 		 * {@link ResponseHeaderWriter}.
@@ -1725,6 +2134,16 @@ public class SocketManager {
 		 */
 		private StreamBuffer<ByteBuffer> headResponseBuffer = null;
 
+		/**
+		 * Indicates if response (or part of the response) has been written.
+		 */
+		private boolean isResponse = false;
+
+		/**
+		 * Indicates if the response is complete.
+		 */
+		private boolean isResponseComplete = false;
+
 		/**
 		 * Next {@link SocketRequest}.
 		 */
@@ -1753,15 +2172,58 @@ public class SocketManager {
 		@Override
 		public final void write(ResponseHeaderWriter responseHeaderWriter,
 				StreamBuffer<ByteBuffer> headResponseBuffers) {
+			this.write(responseHeaderWriter, headResponseBuffers, true, -1);
+		}
+
+		@Override
+		public final void writePartial(ResponseHeaderWriter responseHeaderWriter,
+				StreamBuffer<ByteBuffer> headResponseBuffers) {
+			boolean isSocketListenerThread = this.write(responseHeaderWriter, headResponseBuffers, false, -1);
+
+			// Provide back-pressure (when not blocking socket listener)
+			if (!isSocketListenerThread) {
+				this.acceptedSocket.awaitPendingWrites();
+			}
+		}
+
+		@Override
+		public final void offerPartial(ResponseHeaderWriter responseHeaderWriter,
+				StreamBuffer<ByteBuffer> headResponseBuffers, int maxPendingWrites) {
+			this.write(responseHeaderWriter, headResponseBuffers, false, maxPendingWrites);
+		}
+
+		@Override
+		public final boolean isConnectionClosed() {
+			return this.acceptedSocket.isConnectionClosed;
+		}
+
+		/**
+		 * Writes the response.
+		 * 
+		 * @param responseHeaderWriter {@link ResponseHeaderWriter}.
+		 * @param headResponseBuffers  Head {@link StreamBuffer} for the linked list of
+		 *                             {@link StreamBuffer} instances for the response.
+		 * @param isComplete           Indicates if completes the response.
+		 * @param maxPendingWrites     Maximum number of {@link StreamBuffer}
+		 *                             instances pending write before dropping the
+		 *                             client. Negative for no limit.
+		 * @return <code>true</code> if written by the {@link SocketListener}
+		 *         {@link Thread}.
+		 */
+		private boolean write(ResponseHeaderWriter responseHeaderWriter, StreamBuffer<ByteBuffer> headResponseBuffers,
+				boolean isComplete, int maxPendingWrites) {
 
 			// Appropriately write the response based on thread safety
 			if (this.acceptedSocket.socketListener.isSocketListenerThread()) {
-				this.acceptedSocket.unsafeWriteResponse(this, responseHeaderWriter, headResponseBuffers);
+				this.acceptedSocket.unsafeWriteResponse(this, responseHeaderWriter, headResponseBuffers, isComplete,
+						maxPendingWrites);
+				return true;
 
 			} else {
 				// Writes to the request, so may happen in any order
 				this.acceptedSocket.socketListener.safeWriteSocketHandler.safeWriteResponse(this.acceptedSocket, this,
-						responseHeaderWriter, headResponseBuffers);
+						responseHeaderWriter, headResponseBuffers, isComplete, maxPendingWrites);
+				return false;
 			}
 		}
 	}
@@ -1775,19 +2237,20 @@ public class SocketManager {
 		/**
 		 * Instantiate.
 		 * 
-		 * @param flushWritesPipe Notify flush writes {@link Pipe}.
+		 * @param flushWritesPipe Notify flush writes {@link Pipe}. May be
+		 *                        <code>null</code> for lock-free hand off.
+		 * @param listener        {@link SocketListener}.
 		 */
-		private BulkFlushWritesHandler(Pipe flushWritesPipe) {
-			super(flushWritesPipe);
+		private BulkFlushWritesHandler(Pipe flushWritesPipe, SocketListener listener) {
+			super(flushWritesPipe, listener);
 		}
 
 		/**
 		 * <p>
 		 * Safely writes the response.
 		 * <p>
-		 * Method is synchronised to ensure data is safe across the {@link Thread}, when
-		 * {@link #handleRead()} is invoked by the {@link SocketListener}
-		 * {@link Thread}.
+		 * Event is handed off to ensure data is safe across the {@link Thread}, when
+		 * handled by the {@link SocketListener} {@link Thread}.
 		 * 
 		 * @param acceptedSocket {@link AcceptedSocketServicer}.
 		 */
@@ -1817,10 +2280,12 @@ public class SocketManager {
 		/**
 		 * Instantiate.
 		 * 
-		 * @param closeConnectionPipe Close connection {@link Pipe}.
+		 * @param closeConnectionPipe Close connection {@link Pipe}. May be
+		 *                            <code>null</code> for lock-free hand off.
+		 * @param listener            {@link SocketListener}.
 		 */
-		private SafeCloseConnectionHandler(Pipe closeConnectionPipe) {
-			super(closeConnectionPipe);
+		private SafeCloseConnectionHandler(Pipe closeConnectionPipe, SocketListener listener) {
+			super(closeConnectionPipe, listener);
 		}
 
 		/**
@@ -22,6 +22,7 @@
 package net.officefloor.server.buffer;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
@@ -229,6 +230,73 @@ public class StreamBufferByteSequence implements ByteSequence, CharSequence {
 		this.sequenceLength += length;
 	}
 
+	/**
+	 * Appends the content of another {@link StreamBufferByteSequence} to this
+	 * {@link ByteSequence}.
+	 * 
+	 * @param sequence {@link StreamBufferByteSequence} to append to this
+	 *                 {@link ByteSequence}.
+	 */
+	public void appendByteSequence(StreamBufferByteSequence sequence) {
+		StreamSegment segment = sequence.head;
+		while (segment != null) {
+			this.appendStreamBuffer(segment.buffer, segment.offset, segment.length);
+			segment = segment.next;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Applies the mask to the bytes of this {@link ByteSequence} in place. Each
+	 * byte is XOR'ed with the mask byte at its index (modulo the mask length).
+	 * <p>
+	 * This allows decoding masked content (e.g. WebSocket payloads) within the
+	 * pooled {@link StreamBuffer} instances without copying out the data.
+	 *
+	 * @param mask Mask.
+	 * @return <code>this</code>.
+	 */
+	public StreamBufferByteSequence applyMask(byte[] mask) {
+
+		// Determine if able to mask a long (8 bytes) at a time
+		boolean isLongMask = (8 % mask.length) == 0;
+
+		// Apply the mask to each segment
+		int index = 0;
+		StreamSegment segment = this.head;
+		while (segment != null) {
+			ByteBuffer data = segment.buffer.pooledBuffer;
+			int position = segment.offset;
+			int end = segment.offset + segment.length;
+
+			// Mask long at a time (mask repeats within the long)
+			if (isLongMask && ((end - position) >= 8)) {
+				long longMask = 0;
+				for (int i = 0; i < 8; i++) {
+					longMask = (longMask << 8) | (mask[(index + i) % mask.length] & 0xffL);
+				}
+				if (data.order() == ByteOrder.LITTLE_ENDIAN) {
+					longMask = Long.reverseBytes(longMask);
+				}
+				while ((end - position) >= 8) {
+					data.putLong(position, data.getLong(position) ^ longMask);
+					position += 8;
+					index += 8;
+				}
+			}
+
+			// Mask remaining bytes
+			while (position < end) {
+				data.put(position, (byte) (data.get(position) ^ mask[index % mask.length]));
+				position++;
+				index++;
+			}
+
+			segment = segment.next;
+		}
+		return this;
+	}
+
 	/**
 	 * Trims this {@link ByteSequence} of outer HTTP spaces and tabs.
 	 * 
@@ -739,6 +807,63 @@ public class StreamBufferByteSequence implements ByteSequence, CharSequence {
 		return this.sequenceLength;
 	}
 
+	@Override
+	public int copyTo(int index, byte[] destination, int offset, int length) {
+
+		// Determine the number of bytes to copy
+		int copyLength = Math.max(0, Math.min(length, this.sequenceLength - index));
+
+		// Skip to the segment containing the index
+		StreamSegment segment = this.head;
+		int segmentIndex = index;
+		while ((segment != null) && (segmentIndex >= segment.length)) {
+			segmentIndex -= segment.length;
+			segment = segment.next;
+		}
+
+		// Bulk copy from each segment
+		int remaining = copyLength;
+		while (remaining > 0) {
+			int segmentCopyLength = Math.min(remaining, segment.length - segmentIndex);
+			ByteBuffer source = segment.buffer.pooledBuffer.duplicate();
+			BufferJvmFix.position(source, segment.offset + segmentIndex);
+			source.get(destination, offset, segmentCopyLength);
+			offset += segmentCopyLength;
+			remaining -= segmentCopyLength;
+			segment = segment.next;
+			segmentIndex = 0;
+		}
+		return copyLength;
+	}
+
+	@Override
+	public ByteBuffer[] getByteBuffers(int index) {
+
+		// Skip to the segment containing the index
+		StreamSegment segment = this.head;
+		int segmentIndex = index;
+		int segmentCount = 0;
+		while ((segment != null) && (segmentIndex >= segment.length)) {
+			segmentIndex -= segment.length;
+			segment = segment.next;
+		}
+		for (StreamSegment count = segment; count != null; count = count.next) {
+			segmentCount++;
+		}
+
+		// Create the read-only views of the segments
+		ByteBuffer[] buffers = new ByteBuffer[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			ByteBuffer view = segment.buffer.pooledBuffer.asReadOnlyBuffer();
+			BufferJvmFix.limit(view, segment.offset + segment.length);
+			BufferJvmFix.position(view, segment.offset + segmentIndex);
+			buffers[i] = view.slice();
+			segment = segment.next;
+			segmentIndex = 0;
+		}
+		return buffers;
+	}
+
 	/*
 	 * ===================== CharSequence ======================
 	 */
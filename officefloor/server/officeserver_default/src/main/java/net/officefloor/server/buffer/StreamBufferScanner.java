@@ -478,6 +478,40 @@ public class StreamBufferScanner {
 		return null;
 	}
 
+	/**
+	 * Scans the bytes currently available, up to the maximum number of bytes.
+	 * 
+	 * @param maxNumberOfBytes Maximum number of bytes to scan.
+	 * @return {@link StreamBufferByteSequence} to the scanned bytes.
+	 *         <code>null</code> if no bytes available.
+	 */
+	public StreamBufferByteSequence scanAvailableBytes(long maxNumberOfBytes) {
+
+		// Determine the number of available bytes
+		long availableBytes = this.previousBuffersByteCount
+				+ (BufferJvmFix.position(this.currentBuffer.pooledBuffer) - this.currentBufferStartPosition);
+		long numberOfBytes = Math.min(availableBytes, maxNumberOfBytes);
+		if (numberOfBytes <= 0) {
+			return null; // no bytes available
+		}
+
+		// Scan the available bytes
+		return this.scanBytes(numberOfBytes);
+	}
+
+	/**
+	 * Indicates if previous {@link StreamBuffer} instances are still required for
+	 * scanning. Once not required, only the current {@link StreamBuffer} is
+	 * referenced and previous {@link StreamBuffer} instances may be released
+	 * (should their data no longer be referenced).
+	 * 
+	 * @return <code>true</code> if previous {@link StreamBuffer} instances are
+	 *         still required.
+	 */
+	public boolean isRequirePreviousStreamBuffers() {
+		return this.previousBuffers.size() > 0;
+	}
+
 	/**
 	 * <p>
 	 * Scans the {@link StreamBuffer} for the byte value from the current position.
@@ -22,8 +22,12 @@
 package net.officefloor.server.http;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 import net.officefloor.frame.api.escalate.Escalation;
@@ -31,21 +35,46 @@ import net.officefloor.frame.api.manage.ProcessManager;
 import net.officefloor.server.RequestHandler;
 import net.officefloor.server.RequestServicer;
 import net.officefloor.server.RequestServicerFactory;
+import net.officefloor.server.ResponseHeaderWriter;
 import net.officefloor.server.ResponseWriter;
 import net.officefloor.server.SocketServicer;
 import net.officefloor.server.SocketServicerFactory;
+import net.officefloor.server.buffer.StreamBufferByteSequence;
 import net.officefloor.server.http.impl.NonMaterialisedHttpHeaders;
+import net.officefloor.server.http.http2.Http2Connection;
+import net.officefloor.server.http.http2.Http2RequestHeaders;
+import net.officefloor.server.http.http2.Http2ResponseEncoder;
+import net.officefloor.server.http.http2.Http2Stream;
 import net.officefloor.server.http.impl.ProcessAwareServerHttpConnectionManagedObject;
 import net.officefloor.server.http.parse.HttpRequestParser;
 import net.officefloor.server.http.parse.HttpRequestParser.HttpRequestParserMetaData;
+import net.officefloor.server.http.websocket.WebSocketException;
+import net.officefloor.server.http.websocket.WebSocketFrameEncoder;
+import net.officefloor.server.http.websocket.WebSocketFrameParser;
+import net.officefloor.server.http.websocket.WebSocketHandshake;
+import net.officefloor.server.http.websocket.WebSocketRequestHeaders;
+import net.officefloor.server.stream.BufferJvmFix;
 import net.officefloor.server.stream.StreamBuffer;
+import net.officefloor.server.stream.StreamBuffer.FileBuffer;
 import net.officefloor.server.stream.StreamBufferPool;
+import net.officefloor.server.stream.impl.ByteArrayByteSequence;
 import net.officefloor.server.stream.impl.ByteSequence;
+import net.officefloor.server.stream.impl.StreamingServerInputStream;
 
 /**
  * {@link SocketServicerFactory} and {@link RequestServicerFactory} to use the
  * {@link HttpRequestParser} to produce {@link ServerHttpConnection} instances
  * for servicing.
+ * <p>
+ * Optionally, connections starting with the HTTP/2 client preface are serviced
+ * as HTTP/2 (prior knowledge for clear text, or as negotiated by ALPN for
+ * secure connections).
+ * <p>
+ * Optionally, connections may also be upgraded to WebSocket. The WebSocket
+ * frames continue to be serviced on the same {@link SocketServicer} (and
+ * therefore the same socket listener event loop), with each received message
+ * serviced as a {@link ServerHttpConnection} using the
+ * {@link #WEBSOCKET_METHOD_NAME} method to the handshake request URI.
  * 
  * @author Daniel Sagenschneider
  */
@@ -58,11 +87,141 @@ public abstract class AbstractHttpServicerFactory
 
 	private static final HttpHeaderName CONTENT_LENGTH_NAME = new HttpHeaderName("Content-Length");
 	private static final HttpHeaderName CONTENT_TYPE_NAME = new HttpHeaderName("Content-Type");
+	private static final HttpHeaderName TRANSFER_ENCODING_NAME = new HttpHeaderName("Transfer-Encoding");
+	private static final byte[] CHUNKED = "chunked".getBytes(ServerHttpConnection.HTTP_CHARSET);
+	private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(ServerHttpConnection.HTTP_CHARSET);
+	private static final byte[] LAST_CHUNK_AFTER_CHUNK = "\r\n0\r\n\r\n".getBytes(ServerHttpConnection.HTTP_CHARSET);
 
 	private static final ProcessManager FAIL_PROCESSING = () -> {
 		// nothing to cancel, as already failed
 	};
 
+	/**
+	 * Name of the {@link HttpMethod} for servicing a received WebSocket message.
+	 */
+	public static final String WEBSOCKET_METHOD_NAME = "WEBSOCKET";
+
+	/**
+	 * {@link HttpMethod} for servicing a received WebSocket message.
+	 */
+	private static final HttpMethod WEBSOCKET_METHOD = HttpMethod.getHttpMethod(WEBSOCKET_METHOD_NAME);
+
+	/**
+	 * No WebSocket frame, as only releasing discarded read {@link StreamBuffer}
+	 * instances.
+	 */
+	private static final byte[] NO_WEBSOCKET_FRAME = new byte[0];
+
+	/**
+	 * Writes the head of the {@link HttpResponse}.
+	 * 
+	 * @param version          {@link HttpVersion}.
+	 * @param status           {@link HttpStatus}.
+	 * @param httpHeader       Head {@link WritableHttpHeader}.
+	 * @param httpCookie       Head {@link WritableHttpCookie}.
+	 * @param contentLength    Content length. Negative to not include.
+	 * @param contentType      <code>Content-Type</code>. May be <code>null</code>.
+	 * @param isChunked        Indicates if entity is chunked.
+	 * @param responseHead     Head {@link StreamBuffer} to write the head.
+	 * @param socketBufferPool {@link StreamBufferPool}.
+	 */
+	private static void writeResponseHead(HttpVersion version, HttpStatus status, WritableHttpHeader httpHeader,
+			WritableHttpCookie httpCookie, long contentLength, HttpHeaderValue contentType, boolean isChunked,
+			StreamBuffer<ByteBuffer> responseHead, StreamBufferPool<ByteBuffer> socketBufferPool) {
+
+		// Write the status line
+		version.write(responseHead, socketBufferPool);
+		StreamBuffer.write(SPACE, 0, SPACE.length, responseHead, socketBufferPool);
+		status.write(responseHead, socketBufferPool);
+		StreamBuffer.write(HEADER_EOLN, 0, HEADER_EOLN.length, responseHead, socketBufferPool);
+
+		// Write the headers
+		if (contentType != null) {
+			CONTENT_TYPE_NAME.write(responseHead, socketBufferPool);
+			StreamBuffer.write(COLON_SPACE, 0, COLON_SPACE.length, responseHead, socketBufferPool);
+			contentType.write(responseHead, socketBufferPool);
+			StreamBuffer.write(HEADER_EOLN, 0, HEADER_EOLN.length, responseHead, socketBufferPool);
+		}
+		if (contentLength >= 0) {
+			CONTENT_LENGTH_NAME.write(responseHead, socketBufferPool);
+			StreamBuffer.write(COLON_SPACE, 0, COLON_SPACE.length, responseHead, socketBufferPool);
+			StreamBuffer.write(contentLength, responseHead, socketBufferPool);
+			StreamBuffer.write(HEADER_EOLN, 0, HEADER_EOLN.length, responseHead, socketBufferPool);
+		}
+		if (isChunked) {
+			TRANSFER_ENCODING_NAME.write(responseHead, socketBufferPool);
+			StreamBuffer.write(COLON_SPACE, 0, COLON_SPACE.length, responseHead, socketBufferPool);
+			StreamBuffer.write(CHUNKED, 0, CHUNKED.length, responseHead, socketBufferPool);
+			StreamBuffer.write(HEADER_EOLN, 0, HEADER_EOLN.length, responseHead, socketBufferPool);
+		}
+		WritableHttpHeader header = httpHeader;
+		while (header != null) {
+			header.write(responseHead, socketBufferPool);
+			header = header.next;
+		}
+		WritableHttpCookie cookie = httpCookie;
+		while (cookie != null) {
+			cookie.write(responseHead, socketBufferPool);
+			cookie = cookie.next;
+		}
+		StreamBuffer.write(HEADER_EOLN, 0, HEADER_EOLN.length, responseHead, socketBufferPool);
+	}
+
+	/**
+	 * Releases the content.
+	 * 
+	 * @param contentHead Head {@link StreamBuffer} of the content. May be
+	 *                    <code>null</code>.
+	 */
+	private static void releaseContent(StreamBuffer<ByteBuffer> contentHead) {
+		while (contentHead != null) {
+			StreamBuffer<ByteBuffer> release = contentHead;
+			contentHead = contentHead.next;
+			release.release();
+		}
+	}
+
+	/**
+	 * Obtains the length of the content.
+	 * 
+	 * @param contentHead Head {@link StreamBuffer} of the content (not yet
+	 *                    flipped for writing). May be <code>null</code>.
+	 * @return Length of the content.
+	 */
+	private static long getContentLength(StreamBuffer<ByteBuffer> contentHead) {
+		long length = 0;
+		while (contentHead != null) {
+			if (contentHead.pooledBuffer != null) {
+				length += BufferJvmFix.position(contentHead.pooledBuffer);
+			} else if (contentHead.unpooledByteBuffer != null) {
+				length += contentHead.unpooledByteBuffer.remaining();
+			} else {
+				FileBuffer fileBuffer = contentHead.fileBuffer;
+				if (fileBuffer.count >= 0) {
+					length += fileBuffer.count;
+				} else {
+					try {
+						length += fileBuffer.file.size() - fileBuffer.position;
+					} catch (IOException ex) {
+						throw new IllegalStateException("Unable to determine file content size", ex);
+					}
+				}
+			}
+			contentHead = contentHead.next;
+		}
+		return length;
+	}
+
+	/**
+	 * {@link HttpVersion} for HTTP/2.
+	 */
+	private static final HttpVersion HTTP_2 = HttpVersion.getHttpVersion("HTTP/2.0");
+
+	/**
+	 * Maximum number of concurrent streams for a HTTP/2 connection.
+	 */
+	private static final int HTTP2_MAX_CONCURRENT_STREAMS = 100;
+
 	/**
 	 * {@link HttpServerLocation}.
 	 */
@@ -100,6 +259,21 @@ public abstract class AbstractHttpServicerFactory
 	 */
 	private boolean isIncludeEscalationStackTrace;
 
+	/**
+	 * Indicates if to service HTTP/2 connections.
+	 */
+	private final boolean isHttp2;
+
+	/**
+	 * Indicates if to upgrade connections to WebSocket.
+	 */
+	private final boolean isWebSocket;
+
+	/**
+	 * {@link HttpResponseCompression}. May be <code>null</code> to not compress.
+	 */
+	private final HttpResponseCompression httpResponseCompression;
+
 	/**
 	 * Services the {@link ProcessAwareServerHttpConnectionManagedObject}.
 	 * 
@@ -149,6 +323,88 @@ public abstract class AbstractHttpServicerFactory
 			HttpRequestParserMetaData metaData, StreamBufferPool<ByteBuffer> serviceBufferPool,
 			HttpHeaderValue serverName, DateHttpHeaderClock dateHttpHeaderClock,
 			boolean isIncludeEscalationStackTrace) {
+		this(serverLocation, isSecure, metaData, serviceBufferPool, serverName, dateHttpHeaderClock,
+				isIncludeEscalationStackTrace, false);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param serverLocation                {@link HttpServerLocation}.
+	 * @param isSecure                      Indicates if over secure {@link Socket}.
+	 * @param serviceBufferPool             {@link StreamBufferPool} used to service
+	 *                                      requests.
+	 * @param metaData                      {@link HttpRequestParserMetaData}.
+	 * @param serverName                    <code>Server</code>
+	 *                                      {@link HttpHeaderValue}.
+	 * @param dateHttpHeaderClock           {@link DateHttpHeaderClock}.
+	 * @param isIncludeEscalationStackTrace Indicates whether to include the
+	 *                                      {@link Escalation} stack trace in
+	 *                                      {@link HttpResponse}.
+	 * @param isHttp2                       Indicates whether to service HTTP/2
+	 *                                      connections.
+	 */
+	public AbstractHttpServicerFactory(HttpServerLocation serverLocation, boolean isSecure,
+			HttpRequestParserMetaData metaData, StreamBufferPool<ByteBuffer> serviceBufferPool,
+			HttpHeaderValue serverName, DateHttpHeaderClock dateHttpHeaderClock,
+			boolean isIncludeEscalationStackTrace, boolean isHttp2) {
+		this(serverLocation, isSecure, metaData, serviceBufferPool, serverName, dateHttpHeaderClock,
+				isIncludeEscalationStackTrace, isHttp2, null);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param serverLocation                {@link HttpServerLocation}.
+	 * @param isSecure                      Indicates if over secure {@link Socket}.
+	 * @param serviceBufferPool             {@link StreamBufferPool} used to service
+	 *                                      requests.
+	 * @param metaData                      {@link HttpRequestParserMetaData}.
+	 * @param serverName                    <code>Server</code>
+	 *                                      {@link HttpHeaderValue}.
+	 * @param dateHttpHeaderClock           {@link DateHttpHeaderClock}.
+	 * @param isIncludeEscalationStackTrace Indicates whether to include the
+	 *                                      {@link Escalation} stack trace in
+	 *                                      {@link HttpResponse}.
+	 * @param isHttp2                       Indicates whether to service HTTP/2
+	 *                                      connections.
+	 * @param httpResponseCompression       {@link HttpResponseCompression}. May be
+	 *                                      <code>null</code> to not compress.
+	 */
+	public AbstractHttpServicerFactory(HttpServerLocation serverLocation, boolean isSecure,
+			HttpRequestParserMetaData metaData, StreamBufferPool<ByteBuffer> serviceBufferPool,
+			HttpHeaderValue serverName, DateHttpHeaderClock dateHttpHeaderClock,
+			boolean isIncludeEscalationStackTrace, boolean isHttp2, HttpResponseCompression httpResponseCompression) {
+		this(serverLocation, isSecure, metaData, serviceBufferPool, serverName, dateHttpHeaderClock,
+				isIncludeEscalationStackTrace, isHttp2, false, httpResponseCompression);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param serverLocation                {@link HttpServerLocation}.
+	 * @param isSecure                      Indicates if over secure {@link Socket}.
+	 * @param serviceBufferPool             {@link StreamBufferPool} used to service
+	 *                                      requests.
+	 * @param metaData                      {@link HttpRequestParserMetaData}.
+	 * @param serverName                    <code>Server</code>
+	 *                                      {@link HttpHeaderValue}.
+	 * @param dateHttpHeaderClock           {@link DateHttpHeaderClock}.
+	 * @param isIncludeEscalationStackTrace Indicates whether to include the
+	 *                                      {@link Escalation} stack trace in
+	 *                                      {@link HttpResponse}.
+	 * @param isHttp2                       Indicates whether to service HTTP/2
+	 *                                      connections.
+	 * @param isWebSocket                   Indicates whether to upgrade
+	 *                                      connections to WebSocket.
+	 * @param httpResponseCompression       {@link HttpResponseCompression}. May be
+	 *                                      <code>null</code> to not compress.
+	 */
+	public AbstractHttpServicerFactory(HttpServerLocation serverLocation, boolean isSecure,
+			HttpRequestParserMetaData metaData, StreamBufferPool<ByteBuffer> serviceBufferPool,
+			HttpHeaderValue serverName, DateHttpHeaderClock dateHttpHeaderClock,
+			boolean isIncludeEscalationStackTrace, boolean isHttp2, boolean isWebSocket,
+			HttpResponseCompression httpResponseCompression) {
 		this.serverLocation = serverLocation;
 		this.isSecure = isSecure;
 		this.metaData = metaData;
@@ -156,6 +412,9 @@ public abstract class AbstractHttpServicerFactory
 		this.serverName = serverName;
 		this.dateHttpHeaderClock = dateHttpHeaderClock;
 		this.isIncludeEscalationStackTrace = isIncludeEscalationStackTrace;
+		this.isHttp2 = isHttp2;
+		this.isWebSocket = isWebSocket;
+		this.httpResponseCompression = httpResponseCompression;
 	}
 
 	/**
@@ -174,6 +433,44 @@ public abstract class AbstractHttpServicerFactory
 		 */
 		private HttpException parseFailure = null;
 
+		/**
+		 * Number of bytes matching the HTTP/2 client preface. Negative once
+		 * determined to be HTTP/1.
+		 */
+		private int prefaceMatchCount;
+
+		/**
+		 * {@link Http2Servicer}. <code>null</code> if not HTTP/2 connection.
+		 */
+		private Http2Servicer http2 = null;
+
+		/**
+		 * Last read {@link StreamBuffer}.
+		 */
+		private StreamBuffer<ByteBuffer> lastReadBuffer = null;
+
+		/**
+		 * Position within the last read {@link StreamBuffer} already serviced.
+		 */
+		private int lastReadPosition = 0;
+
+		/**
+		 * HTTP/2 frames to be written for the next request.
+		 */
+		private byte[] http2Frames = null;
+
+		/**
+		 * {@link WebSocketServicer}. <code>null</code> if not upgraded to
+		 * WebSocket.
+		 */
+		private WebSocketServicer webSocket = null;
+
+		/**
+		 * {@link StreamingServerInputStream} receiving the streamed entity of the
+		 * current request. <code>null</code> if not streaming an entity.
+		 */
+		private StreamingServerInputStream entityStream = null;
+
 		/**
 		 * Instantiate.
 		 * 
@@ -182,6 +479,7 @@ public abstract class AbstractHttpServicerFactory
 		private HttpServicer(RequestHandler<HttpRequestParser> requestHandler) {
 			super(AbstractHttpServicerFactory.this.metaData);
 			this.requestHandler = requestHandler;
+			this.prefaceMatchCount = AbstractHttpServicerFactory.this.isHttp2 ? 0 : -1;
 		}
 
 		/*
@@ -191,23 +489,156 @@ public abstract class AbstractHttpServicerFactory
 		@Override
 		public void service(StreamBuffer<ByteBuffer> readBuffer, long bytesRead, boolean isNewBuffer) {
 
+			// Determine if servicing HTTP/2
+			if (this.http2 != null) {
+				this.serviceHttp2(readBuffer, isNewBuffer);
+				return;
+			}
+
+			// Determine if servicing WebSocket
+			if (this.webSocket != null) {
+				this.webSocket.receive(readBuffer, isNewBuffer);
+				return;
+			}
+
 			// Add the buffer
 			this.appendStreamBuffer(readBuffer);
 
+			// Determine if HTTP/2 client preface
+			if (this.prefaceMatchCount >= 0) {
+				ByteBuffer data = readBuffer.pooledBuffer;
+				int position = this.getReadStart(readBuffer, isNewBuffer);
+				int end = BufferJvmFix.position(data);
+				while ((this.prefaceMatchCount >= 0) && (this.prefaceMatchCount < Http2Connection.PREFACE.length)
+						&& (position < end)) {
+					if (data.get(position++) == Http2Connection.PREFACE[this.prefaceMatchCount]) {
+						this.prefaceMatchCount++;
+					} else {
+						this.prefaceMatchCount = -1; // HTTP/1
+					}
+				}
+				if (this.prefaceMatchCount == Http2Connection.PREFACE.length) {
+					// HTTP/2 connection
+					this.http2 = new Http2Servicer();
+					this.http2.start();
+					this.lastReadPosition = position;
+					this.serviceHttp2(readBuffer, false);
+					return;
+				}
+				if (this.prefaceMatchCount >= 0) {
+					return; // await further data to determine protocol
+				}
+			}
+
 			// Parse out the requests
 			try {
 				while (this.parse()) {
 
 					// Create request from parser
 					this.requestHandler.handleRequest(this);
+
+					// Remaining data is WebSocket frames once upgraded
+					if (this.webSocket != null) {
+						this.webSocket.receive(null, false);
+						return;
+					}
 				}
 			} catch (HttpException ex) {
+
+				// Determine if failed within streamed entity (request already serviced)
+				if (this.entityStream != null) {
+					this.entityStream.fail(new IOException(ex.getMessage(), ex));
+					this.entityStream = null;
+					this.requestHandler.closeConnection(ex);
+					return;
+				}
+
 				// Failed to parse request
 				this.parseFailure = ex;
 				this.requestHandler.handleRequest(this);
 			}
 		}
 
+		@Override
+		public void release() {
+			if (this.http2 != null) {
+				this.http2.release();
+			}
+			if (this.entityStream != null) {
+				this.entityStream.fail(new IOException("Connection closed before entity received"));
+				this.entityStream = null;
+			}
+		}
+
+		/*
+		 * ===================== HttpRequestParser ==================
+		 */
+
+		@Override
+		protected void receiveStreamedEntity(StreamBufferByteSequence data) {
+
+			// Copy out the data (so read buffers may be released)
+			if (this.entityStream != null) {
+				byte[] bytes = new byte[data.length()];
+				data.copyTo(0, bytes, 0, bytes.length);
+
+				// Stop reading should entity not be consumed fast enough
+				if (!this.entityStream.feed(bytes)) {
+					this.requestHandler.setReadInterest(false);
+				}
+			}
+
+			// Release the read buffers (as data copied out)
+			if (!this.isRequirePreviousStreamBuffers()) {
+				this.requestHandler.releaseServicedReadBuffers();
+			}
+		}
+
+		@Override
+		protected void completeStreamedEntity() {
+			if (this.entityStream != null) {
+				this.entityStream.complete();
+				this.entityStream = null;
+			}
+		}
+
+		/**
+		 * Obtains the position within the {@link StreamBuffer} of the data not yet
+		 * serviced.
+		 * 
+		 * @param readBuffer  Read {@link StreamBuffer}.
+		 * @param isNewBuffer Indicates if new {@link StreamBuffer}.
+		 * @return Position of the data not yet serviced.
+		 */
+		private int getReadStart(StreamBuffer<ByteBuffer> readBuffer, boolean isNewBuffer) {
+			int start = ((!isNewBuffer) && (readBuffer == this.lastReadBuffer)) ? this.lastReadPosition : 0;
+			this.lastReadBuffer = readBuffer;
+			this.lastReadPosition = BufferJvmFix.position(readBuffer.pooledBuffer);
+			return start;
+		}
+
+		/**
+		 * Services the data for the HTTP/2 connection.
+		 * 
+		 * @param readBuffer  Read {@link StreamBuffer}.
+		 * @param isNewBuffer Indicates if new {@link StreamBuffer}.
+		 */
+		private void serviceHttp2(StreamBuffer<ByteBuffer> readBuffer, boolean isNewBuffer) {
+
+			// Obtain the data to service
+			int start = this.getReadStart(readBuffer, isNewBuffer);
+			ByteBuffer data = readBuffer.pooledBuffer.duplicate();
+			BufferJvmFix.limit(data, this.lastReadPosition);
+			BufferJvmFix.position(data, start);
+
+			// Service the data (copied out so read buffers may be released)
+			this.http2.isFramesWritten = false;
+			this.http2.receive(data);
+			if ((isNewBuffer) && (!this.http2.isFramesWritten)) {
+				this.requestHandler.handleRequest(this);
+			}
+		}
+
 		/*
 		 * ===================== RequestServicer ====================
 		 */
@@ -215,6 +646,23 @@ public abstract class AbstractHttpServicerFactory
 		@Override
 		public ProcessManager service(HttpRequestParser request, ResponseWriter responseWriter) {
 
+			// Determine if writing HTTP/2 frames
+			if (this.http2 != null) {
+				byte[] frames = this.http2Frames;
+				this.http2Frames = null;
+				responseWriter.write((responseHead, socketBufferPool) -> {
+					if (frames != null) {
+						StreamBuffer.write(frames, 0, frames.length, responseHead, socketBufferPool);
+					}
+				}, null);
+				return null;
+			}
+
+			// Determine if servicing WebSocket message
+			if (this.webSocket != null) {
+				return this.webSocket.service(responseWriter);
+			}
+
 			// Determine if parse failure
 			if (this.parseFailure != null) {
 				// Write parse failure
@@ -233,46 +681,25 @@ public abstract class AbstractHttpServicerFactory
 			NonMaterialisedHttpHeaders requestHeaders = this.getHeaders();
 			ByteSequence requestEntity = this.getEntity();
 
-			// Create the HTTP response writer
-			HttpResponseWriter<ByteBuffer> writer = (responseVersion, status, httpHeader, httpCookie, contentLength,
-					contentType, content) -> {
-
-				// Write the response
-				responseWriter.write((responseHead, socketBufferPool) -> {
+			// Determine if upgrading to WebSocket
+			if ((AbstractHttpServicerFactory.this.isWebSocket)
+					&& (WebSocketHandshake.isUpgradeRequest(methodSupplier.get(), version, requestHeaders))) {
+				return this.upgradeWebSocket(requestUriSupplier, version, requestHeaders, responseWriter);
+			}
 
-					// Write the status line
-					responseVersion.write(responseHead, socketBufferPool);
-					StreamBuffer.write(SPACE, 0, SPACE.length, responseHead, socketBufferPool);
-					status.write(responseHead, socketBufferPool);
-					StreamBuffer.write(HEADER_EOLN, 0, HEADER_EOLN.length, responseHead, socketBufferPool);
-
-					// Write the headers
-					if (contentType != null) {
-						CONTENT_TYPE_NAME.write(responseHead, socketBufferPool);
-						StreamBuffer.write(COLON_SPACE, 0, COLON_SPACE.length, responseHead, socketBufferPool);
-						contentType.write(responseHead, socketBufferPool);
-						StreamBuffer.write(HEADER_EOLN, 0, HEADER_EOLN.length, responseHead, socketBufferPool);
-					}
-					if (contentLength >= 0) {
-						CONTENT_LENGTH_NAME.write(responseHead, socketBufferPool);
-						StreamBuffer.write(COLON_SPACE, 0, COLON_SPACE.length, responseHead, socketBufferPool);
-						StreamBuffer.write(contentLength, responseHead, socketBufferPool);
-						StreamBuffer.write(HEADER_EOLN, 0, HEADER_EOLN.length, responseHead, socketBufferPool);
-					}
-					WritableHttpHeader header = httpHeader;
-					while (header != null) {
-						header.write(responseHead, socketBufferPool);
-						header = header.next;
-					}
-					WritableHttpCookie cookie = httpCookie;
-					while (cookie != null) {
-						cookie.write(responseHead, socketBufferPool);
-						cookie = cookie.next;
-					}
-					StreamBuffer.write(HEADER_EOLN, 0, HEADER_EOLN.length, responseHead, socketBufferPool);
+			// Determine if stream the entity (resuming reads on consumption)
+			StreamingServerInputStream requestEntityStream = null;
+			if (this.isStreamEntity()) {
+				RequestHandler<HttpRequestParser> handler = this.requestHandler;
+				requestEntityStream = new StreamingServerInputStream(
+						AbstractHttpServicerFactory.this.metaData.maxStreamEntityBuffers,
+						() -> handler.execute(() -> handler.setReadInterest(true)));
+				this.entityStream = requestEntityStream;
+			}
 
-				}, content);
-			};
+			// Create the HTTP response writer (supporting streaming)
+			HttpResponseWriter<ByteBuffer> writer = new ChunkedHttpResponseWriter(responseWriter,
+					requestEntityStream);
 
 			// Create the connection
 			ProcessAwareServerHttpConnectionManagedObject<ByteBuffer> connection = new ProcessAwareServerHttpConnectionManagedObject<ByteBuffer>(
@@ -280,7 +707,8 @@ public abstract class AbstractHttpServicerFactory
 					methodSupplier, requestUriSupplier, version, requestHeaders, requestEntity,
 					AbstractHttpServicerFactory.this.serverName, AbstractHttpServicerFactory.this.dateHttpHeaderClock,
 					AbstractHttpServicerFactory.this.isIncludeEscalationStackTrace, writer,
-					AbstractHttpServicerFactory.this.serviceBufferPool);
+					AbstractHttpServicerFactory.this.serviceBufferPool,
+					AbstractHttpServicerFactory.this.httpResponseCompression, requestEntityStream);
 
 			try {
 				try {
@@ -302,6 +730,831 @@ public abstract class AbstractHttpServicerFactory
 			}
 		}
 
+		/**
+		 * Upgrades the connection to WebSocket.
+		 * 
+		 * @param requestUriSupplier {@link Supplier} of the handshake request URI.
+		 * @param version            {@link HttpVersion}.
+		 * @param requestHeaders     Handshake {@link NonMaterialisedHttpHeaders}.
+		 * @param responseWriter     {@link ResponseWriter}.
+		 * @return {@link ProcessManager}.
+		 */
+		private ProcessManager upgradeWebSocket(Supplier<String> requestUriSupplier, HttpVersion version,
+				NonMaterialisedHttpHeaders requestHeaders, ResponseWriter responseWriter) {
+			try {
+				// Validate the handshake (materialising as request buffers released)
+				WebSocketHandshake handshake = new WebSocketHandshake(requestHeaders);
+				String requestUri = requestUriSupplier.get();
+
+				// Switch to servicing WebSocket frames
+				this.webSocket = new WebSocketServicer(requestUri, handshake.getHeaders());
+
+				// Accept the handshake
+				WritableHttpHeader responseHeaders = handshake.createResponseHeaders();
+				responseWriter.write((responseHead, socketBufferPool) -> {
+					writeResponseHead(version, HttpStatus.SWITCHING_PROTOCOLS, responseHeaders, null, -1, null, false,
+							responseHead, socketBufferPool);
+				}, null);
+				return null;
+
+			} catch (HttpException ex) {
+				// Reject the handshake
+				responseWriter.write((responseHead, socketBufferPool) -> {
+					ex.writeHttpResponse(version, AbstractHttpServicerFactory.this.isIncludeEscalationStackTrace,
+							responseHead, socketBufferPool);
+				}, null);
+				return FAIL_PROCESSING;
+			}
+		}
+
+		/**
+		 * {@link StreamingHttpResponseWriter} writing the streamed entity with
+		 * <code>Transfer-Encoding: chunked</code>.
+		 */
+		private class ChunkedHttpResponseWriter implements StreamingHttpResponseWriter<ByteBuffer> {
+
+			/**
+			 * {@link ResponseWriter}.
+			 */
+			private final ResponseWriter responseWriter;
+
+			/**
+			 * {@link StreamingServerInputStream} for the streamed request entity. May
+			 * be <code>null</code> if request entity not streamed.
+			 */
+			private final StreamingServerInputStream requestEntityStream;
+
+			/**
+			 * Indicates if a chunk has been written.
+			 */
+			private boolean isChunkWritten = false;
+
+			/**
+			 * Instantiate.
+			 * 
+			 * @param responseWriter      {@link ResponseWriter}.
+			 * @param requestEntityStream {@link StreamingServerInputStream} for the
+			 *                            streamed request entity. May be
+			 *                            <code>null</code> if request entity not
+			 *                            streamed.
+			 */
+			private ChunkedHttpResponseWriter(ResponseWriter responseWriter,
+					StreamingServerInputStream requestEntityStream) {
+				this.responseWriter = responseWriter;
+				this.requestEntityStream = requestEntityStream;
+			}
+
+			/**
+			 * Discards the remaining streamed request entity, as response complete.
+			 */
+			private void discardRequestEntity() {
+				if (this.requestEntityStream != null) {
+					this.requestEntityStream.discard();
+				}
+			}
+
+			/**
+			 * Creates the {@link ResponseHeaderWriter} for the chunk header.
+			 * 
+			 * @param chunkLength Length of the chunk.
+			 * @return {@link ResponseHeaderWriter} for the chunk header.
+			 */
+			private ResponseHeaderWriter createChunkHeaderWriter(long chunkLength) {
+				byte[] chunkHeader = ((this.isChunkWritten ? "\r\n" : "") + Long.toHexString(chunkLength) + "\r\n")
+						.getBytes(ServerHttpConnection.HTTP_CHARSET);
+				this.isChunkWritten = true;
+				return (responseHead, socketBufferPool) -> {
+					StreamBuffer.write(chunkHeader, 0, chunkHeader.length, responseHead, socketBufferPool);
+				};
+			}
+
+			/*
+			 * ============== StreamingHttpResponseWriter ===============
+			 */
+
+			@Override
+			public void writeHttpResponse(HttpVersion version, HttpStatus status, WritableHttpHeader httpHeader,
+					WritableHttpCookie httpCookie, long contentLength, HttpHeaderValue contentType,
+					StreamBuffer<ByteBuffer> content) {
+				this.responseWriter.write((responseHead, socketBufferPool) -> {
+					writeResponseHead(version, status, httpHeader, httpCookie, contentLength, contentType, false,
+							responseHead, socketBufferPool);
+				}, content);
+				this.discardRequestEntity();
+			}
+
+			@Override
+			public void writeHttpResponseHead(HttpVersion version, HttpStatus status, WritableHttpHeader headHttpHeader,
+					WritableHttpCookie headHttpCookie, HttpHeaderValue contentType) {
+				this.responseWriter.writePartial((responseHead, socketBufferPool) -> {
+					writeResponseHead(version, status, headHttpHeader, headHttpCookie, -1, contentType, true,
+							responseHead, socketBufferPool);
+				}, null);
+			}
+
+			@Override
+			public void writeHttpResponseContent(StreamBuffer<ByteBuffer> contentHeadStreamBuffer, boolean isLast) {
+
+				// Write the chunk (ignoring empty chunks, as terminates entity)
+				long chunkLength = getContentLength(contentHeadStreamBuffer);
+				if (chunkLength > 0) {
+					this.responseWriter.writePartial(this.createChunkHeaderWriter(chunkLength),
+							contentHeadStreamBuffer);
+
+				} else {
+					// Release the empty content
+					while (contentHeadStreamBuffer != null) {
+						StreamBuffer<ByteBuffer> release = contentHeadStreamBuffer;
+						contentHeadStreamBuffer = contentHeadStreamBuffer.next;
+						release.release();
+					}
+				}
+
+				// Complete the response with the last chunk
+				if (isLast) {
+					byte[] lastChunk = this.isChunkWritten ? LAST_CHUNK_AFTER_CHUNK : LAST_CHUNK;
+					this.responseWriter.write((responseHead, socketBufferPool) -> {
+						StreamBuffer.write(lastChunk, 0, lastChunk.length, responseHead, socketBufferPool);
+					}, null);
+					this.discardRequestEntity();
+				}
+			}
+
+			@Override
+			public void offerHttpResponseContent(StreamBuffer<ByteBuffer> contentHeadStreamBuffer,
+					int maxPendingWrites) {
+
+				// Offer the chunk (ignoring empty chunks, as terminates entity)
+				long chunkLength = getContentLength(contentHeadStreamBuffer);
+				if (chunkLength > 0) {
+					this.responseWriter.offerPartial(this.createChunkHeaderWriter(chunkLength),
+							contentHeadStreamBuffer, maxPendingWrites);
+				} else {
+					releaseContent(contentHeadStreamBuffer);
+				}
+			}
+
+			@Override
+			public void abortHttpResponse(Throwable failure) {
+				HttpServicer.this.requestHandler.closeConnection(failure);
+			}
+
+			@Override
+			public boolean isConnectionClosed() {
+				return this.responseWriter.isConnectionClosed();
+			}
+		}
+
+		/**
+		 * {@link Http2Connection} servicing the {@link Http2Stream} instances.
+		 */
+		private class Http2Servicer extends Http2Connection {
+
+			/**
+			 * Indicates if frames written.
+			 */
+			private boolean isFramesWritten = false;
+
+			/**
+			 * Instantiate.
+			 */
+			private Http2Servicer() {
+				super(HTTP2_MAX_CONCURRENT_STREAMS, AbstractHttpServicerFactory.this.metaData.maxHeaderCount,
+						AbstractHttpServicerFactory.this.metaData.maxEntityLength);
+			}
+
+			/*
+			 * ================== Http2Connection ==================
+			 */
+
+			@Override
+			protected void writeFrames(byte[] frames) {
+				// Write via request (to write through potential SSL)
+				this.isFramesWritten = true;
+				HttpServicer.this.http2Frames = frames;
+				HttpServicer.this.requestHandler.handleRequest(HttpServicer.this);
+			}
+
+			@Override
+			protected ProcessManager serviceStream(Http2Stream stream) {
+
+				// Obtain the stream details
+				int streamId = stream.getStreamId();
+				String method = stream.getMethod();
+				Supplier<HttpMethod> methodSupplier = () -> HttpMethod.getHttpMethod(method);
+				String requestUri = stream.getPath();
+				Supplier<String> requestUriSupplier = () -> requestUri;
+				NonMaterialisedHttpHeaders requestHeaders = new Http2RequestHeaders(stream.getHeaders());
+				ByteSequence requestEntity = new ByteArrayByteSequence(stream.getEntity());
+
+				// Create the HTTP response writer
+				RequestHandler<HttpRequestParser> requestHandler = HttpServicer.this.requestHandler;
+				HttpResponseWriter<ByteBuffer> writer = (responseVersion, status, httpHeader, httpCookie,
+						contentLength, contentType, content) -> {
+
+					// Encode the response (on servicing thread)
+					byte[] headerBlock = Http2ResponseEncoder.encodeHeaders(status, httpHeader, httpCookie,
+							contentLength, contentType);
+					byte[] entity;
+					try {
+						entity = Http2ResponseEncoder.readEntity(content);
+					} catch (IOException ex) {
+						// Failed to obtain entity, so provide failure
+						headerBlock = Http2ResponseEncoder.encodeHeaders(HttpStatus.INTERNAL_SERVER_ERROR,
+								new HttpHeader[0], 0);
+						entity = null;
+					}
+
+					// Write the response on socket thread
+					byte[] responseHeaderBlock = headerBlock;
+					byte[] responseEntity = entity;
+					requestHandler.execute(() -> this.writeResponse(streamId, responseHeaderBlock, responseEntity));
+				};
+
+				// Create the connection
+				ProcessAwareServerHttpConnectionManagedObject<ByteBuffer> connection = new ProcessAwareServerHttpConnectionManagedObject<ByteBuffer>(
+						AbstractHttpServicerFactory.this.serverLocation, AbstractHttpServicerFactory.this.isSecure,
+						methodSupplier, requestUriSupplier, HTTP_2, requestHeaders, requestEntity,
+						AbstractHttpServicerFactory.this.serverName,
+						AbstractHttpServicerFactory.this.dateHttpHeaderClock,
+						AbstractHttpServicerFactory.this.isIncludeEscalationStackTrace, writer,
+						AbstractHttpServicerFactory.this.serviceBufferPool,
+						AbstractHttpServicerFactory.this.httpResponseCompression);
+
+				try {
+					try {
+						// Service the connection
+						return AbstractHttpServicerFactory.this.service(connection);
+
+					} catch (IOException ex) {
+						// Propagate as HTTP exception
+						throw new HttpException(
+								new HttpStatus(HttpStatus.INTERNAL_SERVER_ERROR.getStatusCode(), ex.getMessage()));
+					}
+				} catch (HttpException ex) {
+					// Send HTTP exception
+					byte[] entity = null;
+					if (AbstractHttpServicerFactory.this.isIncludeEscalationStackTrace) {
+						StringWriter stackTrace = new StringWriter();
+						PrintWriter stackTraceWriter = new PrintWriter(stackTrace);
+						ex.printStackTrace(stackTraceWriter);
+						stackTraceWriter.flush();
+						entity = stackTrace.toString().getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET);
+					}
+					this.writeResponse(streamId, Http2ResponseEncoder.encodeHeaders(ex.getHttpStatus(),
+							ex.getHttpHeaders(), entity == null ? 0 : entity.length), entity);
+					return FAIL_PROCESSING;
+				}
+			}
+		}
+
+		/**
+		 * <p>
+		 * Services the WebSocket frames of the upgraded connection.
+		 * <p>
+		 * Each received message is serviced as a {@link ServerHttpConnection} with
+		 * the {@link AbstractHttpServicerFactory#WEBSOCKET_METHOD_NAME} method to the
+		 * handshake request URI. The {@link HttpResponse} entity is sent back as a
+		 * message (binary for <code>application/octet-stream</code>, otherwise
+		 * text). As the {@link HttpResponse} may be streamed, each written chunk is
+		 * sent as a message, so detaching the {@link HttpResponse} allows pushing
+		 * messages to the client. Similar to HTTP/1.1 pipelining, replies to
+		 * subsequent messages are sent after the detached stream is closed.
+		 */
+		private class WebSocketServicer extends WebSocketFrameParser {
+
+			/**
+			 * {@link Supplier} of the handshake request URI.
+			 */
+			private final Supplier<String> requestUriSupplier;
+
+			/**
+			 * {@link NonMaterialisedHttpHeaders} for text messages.
+			 */
+			private final NonMaterialisedHttpHeaders textHeaders;
+
+			/**
+			 * {@link NonMaterialisedHttpHeaders} for binary messages.
+			 */
+			private final NonMaterialisedHttpHeaders binaryHeaders;
+
+			/**
+			 * Indicates if closing the WebSocket (so further frames are ignored).
+			 */
+			private volatile boolean isClosing = false;
+
+			/**
+			 * Control frame to be written for the next request.
+			 */
+			private byte[] controlFrame = null;
+
+			/**
+			 * Pong frame awaiting completion of the fragmented message.
+			 */
+			private byte[] pendingPongFrame = null;
+
+			/**
+			 * Op code of the message to service.
+			 */
+			private int messageOpCode;
+
+			/**
+			 * Payload of the message to service.
+			 */
+			private StreamBufferByteSequence messagePayload;
+
+			/**
+			 * Earliest {@link WebSocketResponseWriter} yet to write.
+			 */
+			private WebSocketResponseWriter headWriter = null;
+
+			/**
+			 * Latest {@link WebSocketResponseWriter}.
+			 */
+			private WebSocketResponseWriter tailWriter = null;
+
+			/**
+			 * Instantiate.
+			 * 
+			 * @param requestUri       Handshake request URI.
+			 * @param handshakeHeaders Handshake {@link HttpHeader} instances.
+			 */
+			private WebSocketServicer(String requestUri, List<HttpHeader> handshakeHeaders) {
+				super(HttpServicer.this, Math.min(AbstractHttpServicerFactory.this.metaData.maxEntityLength,
+						Integer.MAX_VALUE));
+				this.requestUriSupplier = () -> requestUri;
+				this.textHeaders = new WebSocketRequestHeaders(handshakeHeaders,
+						WebSocketRequestHeaders.TEXT_CONTENT_TYPE);
+				this.binaryHeaders = new WebSocketRequestHeaders(handshakeHeaders,
+						WebSocketRequestHeaders.BINARY_CONTENT_TYPE);
+			}
+
+			/**
+			 * Receives data for the WebSocket.
+			 * 
+			 * @param readBuffer  Read {@link StreamBuffer}. May be <code>null</code>
+			 *                    to parse the remaining data after the handshake.
+			 * @param isNewBuffer Indicates if new {@link StreamBuffer}.
+			 */
+			private void receive(StreamBuffer<ByteBuffer> readBuffer, boolean isNewBuffer) {
+
+				// Discard data once closing (releasing the read buffers)
+				if (this.isClosing) {
+					if (isNewBuffer) {
+						this.writeControlFrame(NO_WEBSOCKET_FRAME);
+					}
+					return;
+				}
+
+				// Add the buffer
+				if (readBuffer != null) {
+					HttpServicer.this.appendStreamBuffer(readBuffer);
+				}
+
+				// Service the frames
+				try {
+					while ((!this.isClosing) && (this.parse())) {
+						switch (this.getOpCode()) {
+						case OPCODE_TEXT:
+						case OPCODE_BINARY:
+							// Service the message
+							this.messageOpCode = this.getOpCode();
+							this.messagePayload = this.getPayload();
+							HttpServicer.this.requestHandler.handleRequest(HttpServicer.this);
+
+							// Respond to ping received during the fragmented message
+							if (this.pendingPongFrame != null) {
+								this.writeControlFrame(this.pendingPongFrame);
+								this.pendingPongFrame = null;
+							}
+							break;
+
+						case OPCODE_PING:
+							// Respond with pong (after fragments as request releases their buffers)
+							byte[] pongFrame = WebSocketFrameEncoder.encodeControlFrame(OPCODE_PONG, this.getPayload());
+							if (this.isFragmentedMessage()) {
+								this.pendingPongFrame = pongFrame;
+							} else {
+								this.writeControlFrame(pongFrame);
+							}
+							break;
+
+						case OPCODE_CLOSE:
+							// Echo the (validated) close (client closes the connection)
+							int closeCode = this.getCloseCode();
+							this.close(closeCode == WebSocketException.NO_STATUS_RECEIVED
+									? WebSocketFrameEncoder.encodeControlFrame(OPCODE_CLOSE, null)
+									: WebSocketFrameEncoder.encodeCloseFrame(closeCode, null));
+							break;
+
+						default:
+							// Ignore pong
+							break;
+						}
+					}
+				} catch (WebSocketException ex) {
+					// Close on invalid frames
+					this.close(WebSocketFrameEncoder.encodeCloseFrame(ex.getCloseCode(), ex.getMessage()));
+				}
+			}
+
+			/**
+			 * Closes the WebSocket.
+			 * 
+			 * @param closeFrame Close frame.
+			 */
+			private void close(byte[] closeFrame) {
+				this.isClosing = true;
+				this.pendingPongFrame = null;
+				this.writeControlFrame(closeFrame);
+			}
+
+			/**
+			 * Writes the control frame.
+			 * 
+			 * @param frame Control frame.
+			 */
+			private void writeControlFrame(byte[] frame) {
+				// Write via request (to write through potential SSL)
+				this.controlFrame = frame;
+				HttpServicer.this.requestHandler.handleRequest(HttpServicer.this);
+			}
+
+			/**
+			 * Services the request.
+			 * 
+			 * @param socketResponseWriter {@link ResponseWriter}.
+			 * @return {@link ProcessManager}.
+			 */
+			private ProcessManager service(ResponseWriter socketResponseWriter) {
+
+				// Order writes (so request buffers released only once serviced)
+				WebSocketResponseWriter responseWriter = new WebSocketResponseWriter(socketResponseWriter);
+
+				// Determine if writing control frame
+				if (this.controlFrame != null) {
+					byte[] frame = this.controlFrame;
+					this.controlFrame = null;
+					responseWriter.write((responseHead, socketBufferPool) -> {
+						StreamBuffer.write(frame, 0, frame.length, responseHead, socketBufferPool);
+					}, null);
+					return null;
+				}
+
+				// Obtain the message details
+				boolean isBinary = (this.messageOpCode == OPCODE_BINARY);
+				ByteSequence requestEntity = (this.messagePayload != null) ? this.messagePayload : ByteSequence.EMPTY;
+				this.messagePayload = null;
+
+				// Create the connection (messages are not compressed)
+				ProcessAwareServerHttpConnectionManagedObject<ByteBuffer> connection = new ProcessAwareServerHttpConnectionManagedObject<ByteBuffer>(
+						AbstractHttpServicerFactory.this.serverLocation, AbstractHttpServicerFactory.this.isSecure,
+						() -> WEBSOCKET_METHOD, this.requestUriSupplier, HttpVersion.HTTP_1_1,
+						isBinary ? this.binaryHeaders : this.textHeaders, requestEntity,
+						AbstractHttpServicerFactory.this.serverName,
+						AbstractHttpServicerFactory.this.dateHttpHeaderClock,
+						AbstractHttpServicerFactory.this.isIncludeEscalationStackTrace,
+						new WebSocketMessageWriter(responseWriter), AbstractHttpServicerFactory.this.serviceBufferPool,
+						null);
+
+				try {
+					try {
+						// Service the connection
+						return AbstractHttpServicerFactory.this.service(connection);
+
+					} catch (IOException ex) {
+						// Propagate as HTTP exception
+						throw new HttpException(
+								new HttpStatus(HttpStatus.INTERNAL_SERVER_ERROR.getStatusCode(), ex.getMessage()));
+					}
+				} catch (HttpException ex) {
+					// Close on failure to service
+					this.isClosing = true;
+					byte[] closeFrame = WebSocketFrameEncoder.encodeCloseFrame(WebSocketException.INTERNAL_ERROR,
+							ex.getMessage());
+					responseWriter.write((responseHead, socketBufferPool) -> {
+						StreamBuffer.write(closeFrame, 0, closeFrame.length, responseHead, socketBufferPool);
+					}, null);
+					return FAIL_PROCESSING;
+				}
+			}
+
+			/**
+			 * Undertakes the write in order of the {@link WebSocketResponseWriter}
+			 * instances.
+			 * 
+			 * @param writer {@link WebSocketResponseWriter}.
+			 * @param write  Write to the {@link ResponseWriter}.
+			 */
+			private synchronized void write(WebSocketResponseWriter writer, Runnable write) {
+
+				// Defer until all previous writers have written
+				if (!writer.isReleased) {
+					if (writer.deferredWrites == null) {
+						writer.deferredWrites = new ArrayList<>(2);
+					}
+					writer.deferredWrites.add(write);
+					return;
+				}
+
+				// Undertake the write
+				write.run();
+
+				// First write of head, so release the following writers
+				if (writer == this.headWriter) {
+					do {
+						this.headWriter = this.headWriter.next;
+						if (this.headWriter == null) {
+							this.tailWriter = null;
+							return;
+						}
+						this.headWriter.isReleased = true;
+						if (this.headWriter.deferredWrites == null) {
+							return; // awaiting first write
+						}
+						for (Runnable deferredWrite : this.headWriter.deferredWrites) {
+							deferredWrite.run();
+						}
+						this.headWriter.deferredWrites = null;
+					} while (true);
+				}
+			}
+
+			/**
+			 * <p>
+			 * {@link ResponseWriter} ordering the first write.
+			 * <p>
+			 * Writing releases the request {@link StreamBuffer} instances provided to
+			 * the request. As these may contain the payload of a previous message
+			 * still being serviced, writes are deferred until all previous requests
+			 * have written.
+			 */
+			private class WebSocketResponseWriter implements ResponseWriter {
+
+				/**
+				 * {@link ResponseWriter}.
+				 */
+				private final ResponseWriter responseWriter;
+
+				/**
+				 * Next {@link WebSocketResponseWriter}.
+				 */
+				private WebSocketResponseWriter next = null;
+
+				/**
+				 * Indicates if all previous {@link WebSocketResponseWriter} instances
+				 * have written.
+				 */
+				private boolean isReleased = false;
+
+				/**
+				 * Writes deferred until released. May be <code>null</code>.
+				 */
+				private List<Runnable> deferredWrites = null;
+
+				/**
+				 * Instantiate.
+				 * 
+				 * @param responseWriter {@link ResponseWriter}.
+				 */
+				private WebSocketResponseWriter(ResponseWriter responseWriter) {
+					this.responseWriter = responseWriter;
+
+					// Register in order
+					synchronized (WebSocketServicer.this) {
+						if (WebSocketServicer.this.tailWriter == null) {
+							WebSocketServicer.this.headWriter = this;
+							WebSocketServicer.this.tailWriter = this;
+							this.isReleased = true;
+						} else {
+							WebSocketServicer.this.tailWriter.next = this;
+							WebSocketServicer.this.tailWriter = this;
+						}
+					}
+				}
+
+				/*
+				 * ================= ResponseWriter ===================
+				 */
+
+				@Override
+				public void write(ResponseHeaderWriter responseHeaderWriter,
+						StreamBuffer<ByteBuffer> headResponseBuffers) {
+					WebSocketServicer.this.write(this,
+							() -> this.responseWriter.write(responseHeaderWriter, headResponseBuffers));
+				}
+
+				@Override
+				public void writePartial(ResponseHeaderWriter responseHeaderWriter,
+						StreamBuffer<ByteBuffer> headResponseBuffers) {
+					WebSocketServicer.this.write(this,
+							() -> this.responseWriter.writePartial(responseHeaderWriter, headResponseBuffers));
+				}
+
+				@Override
+				public void offerPartial(ResponseHeaderWriter responseHeaderWriter,
+						StreamBuffer<ByteBuffer> headResponseBuffers, int maxPendingWrites) {
+					WebSocketServicer.this.write(this, () -> this.responseWriter.offerPartial(responseHeaderWriter,
+							headResponseBuffers, maxPendingWrites));
+				}
+
+				@Override
+				public boolean isConnectionClosed() {
+					return this.responseWriter.isConnectionClosed();
+				}
+			}
+
+			/**
+			 * {@link StreamingHttpResponseWriter} sending the {@link HttpResponse}
+			 * entity as WebSocket messages.
+			 */
+			private class WebSocketMessageWriter implements StreamingHttpResponseWriter<ByteBuffer> {
+
+				/**
+				 * {@link ResponseWriter}.
+				 */
+				private final ResponseWriter responseWriter;
+
+				/**
+				 * Op code for streamed messages.
+				 */
+				private int streamOpCode = OPCODE_TEXT;
+
+				/**
+				 * Indicates if closed due to failure {@link HttpStatus}.
+				 */
+				private boolean isClosed = false;
+
+				/**
+				 * Instantiate.
+				 * 
+				 * @param responseWriter {@link ResponseWriter}.
+				 */
+				private WebSocketMessageWriter(ResponseWriter responseWriter) {
+					this.responseWriter = responseWriter;
+				}
+
+				/**
+				 * Obtains the op code for the <code>Content-Type</code>.
+				 * 
+				 * @param contentType <code>Content-Type</code>. May be
+				 *                    <code>null</code>.
+				 * @return Op code.
+				 */
+				private int getOpCode(HttpHeaderValue contentType) {
+					return ((contentType != null)
+							&& (contentType.getValue().startsWith(WebSocketRequestHeaders.BINARY_CONTENT_TYPE)))
+									? OPCODE_BINARY
+									: OPCODE_TEXT;
+				}
+
+				/**
+				 * Closes the WebSocket if failure {@link HttpStatus}.
+				 * 
+				 * @param status {@link HttpStatus}.
+				 * @return <code>true</code> if closed.
+				 */
+				private boolean isCloseOnFailure(HttpStatus status) {
+					int statusCode = status.getStatusCode();
+					if (statusCode < 400) {
+						return false;
+					}
+
+					// Close the WebSocket
+					int closeCode = (statusCode < 500) ? WebSocketException.POLICY_VIOLATION
+							: WebSocketException.INTERNAL_ERROR;
+					byte[] closeFrame = WebSocketFrameEncoder.encodeCloseFrame(closeCode, status.getStatusMessage());
+					WebSocketServicer.this.isClosing = true;
+					this.isClosed = true;
+					this.responseWriter.write((responseHead, socketBufferPool) -> {
+						StreamBuffer.write(closeFrame, 0, closeFrame.length, responseHead, socketBufferPool);
+					}, null);
+					return true;
+				}
+
+				/**
+				 * Writes the content as a message.
+				 * 
+				 * @param opCode        Op code.
+				 * @param contentLength Length of the content.
+				 * @param content       Head {@link StreamBuffer} of the content.
+				 * @param isComplete    Indicates if completes the response.
+				 */
+				private void writeMessage(int opCode, long contentLength, StreamBuffer<ByteBuffer> content,
+						boolean isComplete) {
+					ResponseHeaderWriter headerWriter = createFrameHeaderWriter(opCode, contentLength);
+					if (isComplete) {
+						this.responseWriter.write(headerWriter, content);
+					} else {
+						this.responseWriter.writePartial(headerWriter, content);
+					}
+				}
+
+				/**
+				 * Creates the {@link ResponseHeaderWriter} for the frame header.
+				 * 
+				 * @param opCode        Op code.
+				 * @param contentLength Length of the content.
+				 * @return {@link ResponseHeaderWriter} for the frame header.
+				 */
+				private ResponseHeaderWriter createFrameHeaderWriter(int opCode, long contentLength) {
+					byte[] frameHeader = WebSocketFrameEncoder.encodeFrameHeader(opCode, contentLength);
+					return (responseHead, socketBufferPool) -> {
+						StreamBuffer.write(frameHeader, 0, frameHeader.length, responseHead, socketBufferPool);
+					};
+				}
+
+				/*
+				 * ============== StreamingHttpResponseWriter ===============
+				 */
+
+				@Override
+				public void writeHttpResponse(HttpVersion version, HttpStatus status, WritableHttpHeader httpHeader,
+						WritableHttpCookie httpCookie, long contentLength, HttpHeaderValue contentType,
+						StreamBuffer<ByteBuffer> content) {
+
+					// Determine if failure
+					if (this.isCloseOnFailure(status)) {
+						releaseContent(content);
+						return;
+					}
+
+					// Send the entity as message (no entity, no message)
+					if (contentLength > 0) {
+						this.writeMessage(this.getOpCode(contentType), contentLength, content, true);
+					} else {
+						releaseContent(content);
+						this.responseWriter.write(null, null);
+					}
+				}
+
+				@Override
+				public void writeHttpResponseHead(HttpVersion version, HttpStatus status,
+						WritableHttpHeader headHttpHeader, WritableHttpCookie headHttpCookie,
+						HttpHeaderValue contentType) {
+
+					// Determine if failure
+					if (this.isCloseOnFailure(status)) {
+						return;
+					}
+
+					// Stream messages (writing to release request buffers)
+					this.streamOpCode = this.getOpCode(contentType);
+					this.responseWriter.writePartial(null, null);
+				}
+
+				@Override
+				public void writeHttpResponseContent(StreamBuffer<ByteBuffer> contentHeadStreamBuffer, boolean isLast) {
+
+					// Ignore content once closed
+					if (this.isClosed) {
+						releaseContent(contentHeadStreamBuffer);
+						return;
+					}
+
+					// Send the chunk as message (ignoring empty chunks)
+					long chunkLength = getContentLength(contentHeadStreamBuffer);
+					if (chunkLength > 0) {
+						this.writeMessage(this.streamOpCode, chunkLength, contentHeadStreamBuffer, isLast);
+					} else {
+						releaseContent(contentHeadStreamBuffer);
+						if (isLast) {
+							this.responseWriter.write(null, null);
+						}
+					}
+				}
+
+				@Override
+				public void offerHttpResponseContent(StreamBuffer<ByteBuffer> contentHeadStreamBuffer,
+						int maxPendingWrites) {
+
+					// Ignore content once closed
+					if (this.isClosed) {
+						releaseContent(contentHeadStreamBuffer);
+						return;
+					}
+
+					// Offer the chunk as message (ignoring empty chunks)
+					long chunkLength = getContentLength(contentHeadStreamBuffer);
+					if (chunkLength > 0) {
+						this.responseWriter.offerPartial(this.createFrameHeaderWriter(this.streamOpCode, chunkLength),
+								contentHeadStreamBuffer, maxPendingWrites);
+					} else {
+						releaseContent(contentHeadStreamBuffer);
+					}
+				}
+
+				@Override
+				public void abortHttpResponse(Throwable failure) {
+					HttpServicer.this.requestHandler.closeConnection(failure);
+				}
+
+				@Override
+				public boolean isConnectionClosed() {
+					return this.responseWriter.isConnectionClosed();
+				}
+			}
+		}
 	}
 
 }
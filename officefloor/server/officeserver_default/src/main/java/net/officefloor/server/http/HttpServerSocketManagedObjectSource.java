@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
 import java.nio.channels.SocketChannel;
 import java.sql.Connection;
 import java.util.HashMap;
@@ -42,6 +43,7 @@ import java.util.logging.Logger;
 import javax.net.ssl.SSLContext;
 
 import net.officefloor.compile.impl.util.CompileUtil;
+import net.officefloor.compile.mbean.MBeanFactory;
 import net.officefloor.compile.properties.Property;
 import net.officefloor.compile.properties.PropertyList;
 import net.officefloor.frame.api.build.Indexed;
@@ -73,6 +75,7 @@ import net.officefloor.server.http.impl.HttpServerLocationImpl;
 import net.officefloor.server.http.impl.ProcessAwareServerHttpConnectionManagedObject;
 import net.officefloor.server.http.parse.HttpRequestParser.HttpRequestParserMetaData;
 import net.officefloor.server.ssl.SslSocketServicerFactory;
+import net.officefloor.server.stream.ServerInputStream;
 import net.officefloor.server.stream.StreamBuffer;
 import net.officefloor.server.stream.StreamBufferPool;
 import net.officefloor.server.stream.impl.ThreadLocalStreamBufferPool;
@@ -84,7 +87,7 @@ import net.officefloor.server.stream.impl.ThreadLocalStreamBufferPool;
  */
 @PrivateSource
 public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSource<None, Indexed>
-		implements ManagedFunction<Indexed, None> {
+		implements ManagedFunction<Indexed, None>, MBeanFactory {
 
 	/**
 	 * Name of {@link System} property to specify the number of
@@ -129,11 +132,43 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 	 */
 	public static final String SYSTEM_PROPERTY_CORE_BUFFER_POOL_MAX_SIZE = "officefloor.socket.core.buffer.pool.max.size";
 
+	/**
+	 * Name of {@link System} property to flag handing off events to the
+	 * {@link SocketManager} via {@link Pipe} (rather than the default lock-free
+	 * queue).
+	 */
+	public static final String SYSTEM_PROPERTY_PIPE_HANDOFF = "officefloor.socket.pipe.handoff";
+
+	/**
+	 * Name of {@link System} property providing the default for
+	 * {@link #PROPERTY_HTTP2}.
+	 */
+	public static final String SYSTEM_PROPERTY_HTTP2 = "officefloor.http2";
+
+	/**
+	 * Name of {@link System} property providing the default for
+	 * {@link #PROPERTY_WEBSOCKET}.
+	 */
+	public static final String SYSTEM_PROPERTY_WEBSOCKET = "officefloor.websocket";
+
 	/**
 	 * Name of {@link Property} indicating if secure.
 	 */
 	public static final String PROPERTY_SECURE = "secure";
 
+	/**
+	 * Name of {@link Property} indicating if to service HTTP/2 connections.
+	 */
+	public static final String PROPERTY_HTTP2 = "http2";
+
+	/**
+	 * Name of {@link Property} indicating if to upgrade connections to
+	 * WebSocket. Each received message is serviced as a {@link HttpRequest} with
+	 * the {@link AbstractHttpServicerFactory#WEBSOCKET_METHOD_NAME} method to the
+	 * handshake request URI.
+	 */
+	public static final String PROPERTY_WEBSOCKET = "websocket";
+
 	/**
 	 * Name of {@link Property} for the maximum {@link HttpHeader} per
 	 * {@link HttpRequest}.
@@ -150,6 +185,21 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 	 */
 	public static final String PROPERTY_MAX_ENTITY_LENGTH = "max.entity.length";
 
+	/**
+	 * Name of {@link Property} for the Content-Length above which the
+	 * {@link HttpRequest} entity is streamed to the {@link ServerInputStream} as
+	 * it is received (rather than buffered in memory). Chunked entities are then
+	 * also streamed. Negative value (default) disables streaming the entity.
+	 */
+	public static final String PROPERTY_STREAM_ENTITY_LENGTH = "stream.entity.length";
+
+	/**
+	 * Name of {@link Property} for the maximum number of chunks of the streamed
+	 * {@link HttpRequest} entity not yet consumed before no longer reading from
+	 * the {@link Socket}.
+	 */
+	public static final String PROPERTY_MAX_STREAM_ENTITY_BUFFERS = "stream.entity.max.buffers";
+
 	/**
 	 * Name of {@link Property} for the size of the {@link StreamBuffer} instances
 	 * for the service.
@@ -251,6 +301,7 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 		int maxThreadLocalPoolSize = getSystemProperty(SYSTEM_PROPERTY_THREADLOCAL_BUFFER_POOL_MAX_SIZE,
 				Integer.MAX_VALUE);
 		int maxCorePoolSize = getSystemProperty(SYSTEM_PROPERTY_CORE_BUFFER_POOL_MAX_SIZE, Integer.MAX_VALUE);
+		boolean isPipeHandoff = Boolean.parseBoolean(System.getProperty(SYSTEM_PROPERTY_PIPE_HANDOFF, "false"));
 
 		// Create the stream buffer pool
 		StreamBufferPool<ByteBuffer> bufferPool = new ThreadLocalStreamBufferPool(
@@ -258,7 +309,7 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 
 		// Create and return the socket manager
 		return new SocketManager(numberOfSocketListeners, receiveBufferSize, maxReadsOnSelect, bufferPool,
-				sendBufferSize);
+				sendBufferSize, isPipeHandoff);
 	}
 
 	/**
@@ -559,6 +610,11 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 	 */
 	private boolean isIncludeEscalationStackTrace = true;
 
+	/**
+	 * {@link HttpResponseCompression}. May be <code>null</code> to not compress.
+	 */
+	private HttpResponseCompression httpResponseCompression;
+
 	/**
 	 * {@link HttpRequestParserMetaData}.
 	 */
@@ -585,6 +641,16 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 	 */
 	private boolean isSecure;
 
+	/**
+	 * Indicates if to service HTTP/2 connections.
+	 */
+	private boolean isHttp2;
+
+	/**
+	 * Indicates if to upgrade connections to WebSocket.
+	 */
+	private boolean isWebSocket;
+
 	/**
 	 * {@link SSLContext}.
 	 */
@@ -634,10 +700,31 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 	 */
 	public HttpServerSocketManagedObjectSource(HttpServerLocation serverLocation, HttpHeaderValue serverName,
 			DateHttpHeaderClock dateHttpHeaderClock, boolean isIncludeEscalationStackTrace) {
+		this(serverLocation, serverName, dateHttpHeaderClock, isIncludeEscalationStackTrace,
+				(HttpResponseCompression) null);
+	}
+
+	/**
+	 * Instantiate for non-secure servicing.
+	 * 
+	 * @param serverLocation                {@link HttpServerLocation}.
+	 * @param serverName                    <code>Server</code>
+	 *                                      {@link HttpHeaderValue}.
+	 * @param dateHttpHeaderClock           {@link DateHttpHeaderClock}.
+	 * @param isIncludeEscalationStackTrace Indicates if include the
+	 *                                      {@link Escalation} stack trace on the
+	 *                                      {@link HttpResponse}.
+	 * @param httpResponseCompression       {@link HttpResponseCompression}. May be
+	 *                                      <code>null</code> to not compress.
+	 */
+	public HttpServerSocketManagedObjectSource(HttpServerLocation serverLocation, HttpHeaderValue serverName,
+			DateHttpHeaderClock dateHttpHeaderClock, boolean isIncludeEscalationStackTrace,
+			HttpResponseCompression httpResponseCompression) {
 		this.serverLocation = serverLocation;
 		this.serverName = serverName;
 		this.dateHttpHeaderClock = dateHttpHeaderClock;
 		this.isIncludeEscalationStackTrace = isIncludeEscalationStackTrace;
+		this.httpResponseCompression = httpResponseCompression;
 		this.isSecure = false;
 		this.sslContext = null;
 	}
@@ -658,10 +745,33 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 	 */
 	public HttpServerSocketManagedObjectSource(HttpServerLocation serverLocation, HttpHeaderValue serverName,
 			DateHttpHeaderClock dateHttpHeaderClock, boolean isIncludeEscalationStackTrace, SSLContext sslContext) {
+		this(serverLocation, serverName, dateHttpHeaderClock, isIncludeEscalationStackTrace, null, sslContext);
+	}
+
+	/**
+	 * Instantiate for secure servicing.
+	 * 
+	 * @param serverLocation                {@link HttpServerLocation}.
+	 * @param serverName                    <code>Server</code>
+	 *                                      {@link HttpHeaderValue}.
+	 * @param dateHttpHeaderClock           {@link DateHttpHeaderClock}.
+	 * @param isIncludeEscalationStackTrace Indicates if include the
+	 *                                      {@link Escalation} stack trace on the
+	 *                                      {@link HttpResponse}.
+	 * @param httpResponseCompression       {@link HttpResponseCompression}. May be
+	 *                                      <code>null</code> to not compress.
+	 * @param sslContext                    {@link SSLContext}. May be
+	 *                                      <code>null</code> if behind reverse
+	 *                                      proxy handling secure communication.
+	 */
+	public HttpServerSocketManagedObjectSource(HttpServerLocation serverLocation, HttpHeaderValue serverName,
+			DateHttpHeaderClock dateHttpHeaderClock, boolean isIncludeEscalationStackTrace,
+			HttpResponseCompression httpResponseCompression, SSLContext sslContext) {
 		this.serverLocation = serverLocation;
 		this.serverName = serverName;
 		this.dateHttpHeaderClock = dateHttpHeaderClock;
 		this.isIncludeEscalationStackTrace = isIncludeEscalationStackTrace;
+		this.httpResponseCompression = httpResponseCompression;
 		this.isSecure = true;
 		this.sslContext = sslContext;
 	}
@@ -718,15 +828,24 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 		int maxTextLength = Integer.parseInt(mosContext.getProperty(PROPERTY_MAX_TEXT_LENGTH, String.valueOf(2048)));
 		long maxEntityLength = Long
 				.parseLong(mosContext.getProperty(PROPERTY_MAX_ENTITY_LENGTH, String.valueOf(1 * 1024 * 1024)));
+		long streamEntityLength = Long
+				.parseLong(mosContext.getProperty(PROPERTY_STREAM_ENTITY_LENGTH, String.valueOf(-1)));
+		int maxStreamEntityBuffers = Integer
+				.parseInt(mosContext.getProperty(PROPERTY_MAX_STREAM_ENTITY_BUFFERS, String.valueOf(16)));
 		this.serviceBufferSize = Integer
 				.parseInt(mosContext.getProperty(PROPERTY_SERVICE_BUFFER_SIZE, String.valueOf(256)));
 		this.serviceBufferMaxThreadPoolSize = Integer
 				.parseInt(mosContext.getProperty(PROPERTY_SERVICE_MAX_THREAD_POOL_SIZE, String.valueOf(10000)));
 		this.serviceBufferMaxCorePoolSize = Integer
 				.parseInt(mosContext.getProperty(PROPERTY_SERVICE_MAX_CORE_POOL_SIZE, String.valueOf(10000000)));
+		this.isHttp2 = Boolean.parseBoolean(
+				mosContext.getProperty(PROPERTY_HTTP2, System.getProperty(SYSTEM_PROPERTY_HTTP2, String.valueOf(false))));
+		this.isWebSocket = Boolean.parseBoolean(mosContext.getProperty(PROPERTY_WEBSOCKET,
+				System.getProperty(SYSTEM_PROPERTY_WEBSOCKET, String.valueOf(false))));
 
 		// Create the request parser meta-data
-		this.httpRequestParserMetaData = new HttpRequestParserMetaData(maxHeaderCount, maxTextLength, maxEntityLength);
+		this.httpRequestParserMetaData = new HttpRequestParserMetaData(maxHeaderCount, maxTextLength, maxEntityLength,
+				streamEntityLength, maxStreamEntityBuffers);
 
 		// Obtain the decorators
 		this.serverSocketDecorator = this.getServerSocketDecorator(context);
@@ -739,6 +858,7 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 			this.serverLocation = new HttpServerLocationImpl(mosContext);
 			this.isIncludeEscalationStackTrace = Boolean.parseBoolean(mosContext.getProperty(
 					HttpServer.PROPERTY_INCLUDE_STACK_TRACE, String.valueOf(this.isIncludeEscalationStackTrace)));
+			this.httpResponseCompression = HttpResponseCompression.load(mosContext);
 
 			// Determine if secure and set up security
 			this.isSecure = Boolean.parseBoolean(mosContext.getProperty(PROPERTY_SECURE, String.valueOf(false)));
@@ -784,7 +904,8 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 				ManagedObjectSourceHttpServicerFactory servicerFactory = new ManagedObjectSourceHttpServicerFactory(
 						serviceContext, source.serverLocation, source.isSecure, source.httpRequestParserMetaData,
 						serviceBufferPool, source.serverName, source.dateHttpHeaderClock,
-						source.isIncludeEscalationStackTrace);
+						source.isIncludeEscalationStackTrace, source.isHttp2, source.isWebSocket,
+						source.httpResponseCompression);
 
 				// Create the SSL servicer factory
 				SocketServicerFactory socketServicerFactory = servicerFactory;
@@ -797,9 +918,11 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 							null, null, source.serverName, source.dateHttpHeaderClock, false, null, null);
 					Executor executor = source.executorFactory.createExecutor(serviceContext, executorManagedObject);
 
-					// Register SSL servicing
+					// Register SSL servicing (negotiating HTTP/2 if enabled)
+					String[] applicationProtocols = source.isHttp2 ? new String[] { "h2", "http/1.1" } : null;
 					SslSocketServicerFactory<?> sslServicerFactory = new SslSocketServicerFactory<>(source.sslContext,
-							servicerFactory, servicerFactory, socketManager.getStreamBufferPool(), executor);
+							servicerFactory, servicerFactory, socketManager.getStreamBufferPool(), executor,
+							applicationProtocols);
 					socketServicerFactory = sslServicerFactory;
 					requestServicerFactory = sslServicerFactory;
 				}
@@ -852,6 +975,25 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 		managedObject.setCleanupEscalations(parameter.getCleanupEscalations());
 	}
 
+	/*
+	 * ====================== MBeanFactory ======================
+	 */
+
+	@Override
+	public Object createMBean() {
+
+		// Obtain the stream buffer pool of the socket manager
+		StreamBufferPool<ByteBuffer> bufferPool = null;
+		synchronized (HttpServerSocketManagedObjectSource.class) {
+			if (singletonSocketManager != null) {
+				bufferPool = singletonSocketManager.getStreamBufferPool();
+			}
+		}
+
+		// Provide statistics of the buffer pool (otherwise not an MBean)
+		return (bufferPool instanceof ThreadLocalStreamBufferPool) ? bufferPool : this;
+	}
+
 	/**
 	 * {@link AbstractHttpServicerFactory}.
 	 */
@@ -878,13 +1020,20 @@ public class HttpServerSocketManagedObjectSource extends AbstractManagedObjectSo
 		 * @param isIncludeEscalationStackTrace Indicates whether to include the
 		 *                                      {@link Escalation} stack trace in the
 		 *                                      {@link HttpResponse}.
+		 * @param isHttp2                       Indicates whether to service HTTP/2
+		 *                                      connections.
+		 * @param isWebSocket                   Indicates whether to upgrade
+		 *                                      connections to WebSocket.
+		 * @param httpResponseCompression       {@link HttpResponseCompression}. May
+		 *                                      be <code>null</code> to not compress.
 		 */
 		public ManagedObjectSourceHttpServicerFactory(ManagedObjectServiceContext<Indexed> context,
 				HttpServerLocation serverLocation, boolean isSecure, HttpRequestParserMetaData metaData,
 				StreamBufferPool<ByteBuffer> serviceBufferPool, HttpHeaderValue serverName,
-				DateHttpHeaderClock dateHttpHeaderClock, boolean isIncludeEscalationStackTrace) {
+				DateHttpHeaderClock dateHttpHeaderClock, boolean isIncludeEscalationStackTrace, boolean isHttp2,
+				boolean isWebSocket, HttpResponseCompression httpResponseCompression) {
 			super(serverLocation, isSecure, metaData, serviceBufferPool, serverName, dateHttpHeaderClock,
-					isIncludeEscalationStackTrace);
+					isIncludeEscalationStackTrace, isHttp2, isWebSocket, httpResponseCompression);
 			this.context = context;
 		}
 
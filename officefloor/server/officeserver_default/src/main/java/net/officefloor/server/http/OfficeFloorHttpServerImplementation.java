@@ -63,10 +63,13 @@ public class OfficeFloorHttpServerImplementation implements HttpServerImplementa
 		// Obtain whether to include the escalation stack trace
 		boolean isIncludeEscalationStackTrace = context.isIncludeEscalationStackTrace();
 
+		// Obtain the response compression
+		HttpResponseCompression httpResponseCompression = context.getHttpResponseCompression();
+
 		// Configure the non-secure HTTP
 		OfficeFloorManagedObjectSource http = deployer.addManagedObjectSource("HTTP",
 				new HttpServerSocketManagedObjectSource(serverLocation, serverHttpHeaderValue, dateHttpHeaderClock,
-						isIncludeEscalationStackTrace));
+						isIncludeEscalationStackTrace, httpResponseCompression));
 		deployer.link(http.getManagingOffice(), office);
 		deployer.link(
 				http.getOfficeFloorManagedObjectFlow(HttpServerSocketManagedObjectSource.HANDLE_REQUEST_FLOW_NAME),
@@ -78,7 +81,7 @@ public class OfficeFloorHttpServerImplementation implements HttpServerImplementa
 		if (httpsPort > 0) {
 			OfficeFloorManagedObjectSource https = deployer.addManagedObjectSource("HTTPS",
 					new HttpServerSocketManagedObjectSource(serverLocation, serverHttpHeaderValue, dateHttpHeaderClock,
-							isIncludeEscalationStackTrace, context.getSslContext()));
+							isIncludeEscalationStackTrace, httpResponseCompression, context.getSslContext()));
 			deployer.link(https.getManagingOffice(), office);
 			deployer.link(
 					https.getOfficeFloorManagedObjectFlow(HttpServerSocketManagedObjectSource.HANDLE_REQUEST_FLOW_NAME),
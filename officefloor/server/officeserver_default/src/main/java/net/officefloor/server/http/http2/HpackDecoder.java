@@ -0,0 +1,258 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HPACK decoder (RFC 7541).
+ * <p>
+ * Maintains the dynamic table for the connection, so must only be used by the
+ * one {@link Thread} decoding the header blocks of the connection.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class HpackDecoder {
+
+	/**
+	 * {@link Charset} for header octets.
+	 */
+	private static final Charset OCTETS = Charset.forName("ISO-8859-1");
+
+	/**
+	 * Dynamic table with the newest entry first.
+	 */
+	private final List<HpackHeaderField> dynamicTable = new ArrayList<>();
+
+	/**
+	 * Maximum size of the dynamic table allowed by settings.
+	 */
+	private final int maxAllowedTableSize;
+
+	/**
+	 * Current maximum size of the dynamic table.
+	 */
+	private int maxTableSize;
+
+	/**
+	 * Size of the dynamic table.
+	 */
+	private int tableSize = 0;
+
+	/**
+	 * Current position within the header block being decoded.
+	 */
+	private int position;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param maxAllowedTableSize Maximum size of the dynamic table (as per
+	 *                            <code>SETTINGS_HEADER_TABLE_SIZE</code>).
+	 */
+	public HpackDecoder(int maxAllowedTableSize) {
+		this.maxAllowedTableSize = maxAllowedTableSize;
+		this.maxTableSize = maxAllowedTableSize;
+	}
+
+	/**
+	 * Obtains the size of the dynamic table.
+	 * 
+	 * @return Size of the dynamic table.
+	 */
+	public int getTableSize() {
+		return this.tableSize;
+	}
+
+	/**
+	 * Decodes the header block.
+	 * 
+	 * @param block   Header block.
+	 * @param offset  Offset into the block.
+	 * @param length  Length of the block.
+	 * @param headers {@link List} to receive the decoded {@link HpackHeaderField}
+	 *                instances.
+	 * @throws Http2Exception If fails to decode.
+	 */
+	public void decode(byte[] block, int offset, int length, List<HpackHeaderField> headers) throws Http2Exception {
+		this.position = offset;
+		int end = offset + length;
+		boolean isFieldDecoded = false;
+		while (this.position < end) {
+			int first = block[this.position] & 0xff;
+			if ((first & 0x80) != 0) {
+				// Indexed header field
+				int index = this.decodeInteger(block, end, 7);
+				headers.add(this.getEntry(index));
+				isFieldDecoded = true;
+
+			} else if ((first & 0x40) != 0) {
+				// Literal header field with incremental indexing
+				HpackHeaderField field = this.decodeLiteral(block, end, 6);
+				this.addEntry(field);
+				headers.add(field);
+				isFieldDecoded = true;
+
+			} else if ((first & 0x20) != 0) {
+				// Dynamic table size update (only at start of block)
+				if (isFieldDecoded) {
+					throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Table size update after header field");
+				}
+				int size = this.decodeInteger(block, end, 5);
+				if (size > this.maxAllowedTableSize) {
+					throw new Http2Exception(Http2Exception.COMPRESSION_ERROR,
+							"Table size update " + size + " exceeds " + this.maxAllowedTableSize);
+				}
+				this.maxTableSize = size;
+				this.evict(0);
+
+			} else {
+				// Literal header field without indexing / never indexed
+				headers.add(this.decodeLiteral(block, end, 4));
+				isFieldDecoded = true;
+			}
+		}
+	}
+
+	/**
+	 * Obtains the {@link HpackHeaderField} by index.
+	 * 
+	 * @param index Index.
+	 * @return {@link HpackHeaderField}.
+	 * @throws Http2Exception If invalid index.
+	 */
+	private HpackHeaderField getEntry(int index) throws Http2Exception {
+		if (index <= 0) {
+			throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Invalid header index " + index);
+		} else if (index <= HpackStaticTable.LENGTH) {
+			return HpackStaticTable.ENTRIES[index];
+		}
+		int dynamicIndex = index - HpackStaticTable.LENGTH - 1;
+		if (dynamicIndex >= this.dynamicTable.size()) {
+			throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Invalid header index " + index);
+		}
+		return this.dynamicTable.get(dynamicIndex);
+	}
+
+	/**
+	 * Adds the {@link HpackHeaderField} to the dynamic table.
+	 * 
+	 * @param field {@link HpackHeaderField}.
+	 */
+	private void addEntry(HpackHeaderField field) {
+		int size = field.getSize();
+		if (size > this.maxTableSize) {
+			// Entry larger than table, so empties the table
+			this.dynamicTable.clear();
+			this.tableSize = 0;
+			return;
+		}
+		this.evict(size);
+		this.dynamicTable.add(0, field);
+		this.tableSize += size;
+	}
+
+	/**
+	 * Evicts entries to make space within the dynamic table.
+	 * 
+	 * @param requiredSpace Required space.
+	 */
+	private void evict(int requiredSpace) {
+		while ((this.tableSize + requiredSpace) > this.maxTableSize) {
+			HpackHeaderField evicted = this.dynamicTable.remove(this.dynamicTable.size() - 1);
+			this.tableSize -= evicted.getSize();
+		}
+	}
+
+	/**
+	 * Decodes a literal {@link HpackHeaderField}.
+	 * 
+	 * @param block      Header block.
+	 * @param end        End of the header block.
+	 * @param prefixBits Number of prefix bits for the name index.
+	 * @return {@link HpackHeaderField}.
+	 * @throws Http2Exception If fails to decode.
+	 */
+	private HpackHeaderField decodeLiteral(byte[] block, int end, int prefixBits) throws Http2Exception {
+		int nameIndex = this.decodeInteger(block, end, prefixBits);
+		String name = (nameIndex == 0) ? this.decodeString(block, end) : this.getEntry(nameIndex).getName();
+		String value = this.decodeString(block, end);
+		return new HpackHeaderField(name, value);
+	}
+
+	/**
+	 * Decodes a string literal.
+	 * 
+	 * @param block Header block.
+	 * @param end   End of the header block.
+	 * @return Decoded {@link String}.
+	 * @throws Http2Exception If fails to decode.
+	 */
+	private String decodeString(byte[] block, int end) throws Http2Exception {
+		if (this.position >= end) {
+			throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Truncated string literal");
+		}
+		boolean isHuffman = (block[this.position] & 0x80) != 0;
+		int length = this.decodeInteger(block, end, 7);
+		if (length > (end - this.position)) {
+			throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Truncated string literal");
+		}
+		int start = this.position;
+		this.position += length;
+		return isHuffman ? HpackHuffman.decode(block, start, length) : new String(block, start, length, OCTETS);
+	}
+
+	/**
+	 * Decodes an integer.
+	 * 
+	 * @param block      Header block.
+	 * @param end        End of the header block.
+	 * @param prefixBits Number of prefix bits.
+	 * @return Decoded integer.
+	 * @throws Http2Exception If fails to decode.
+	 */
+	private int decodeInteger(byte[] block, int end, int prefixBits) throws Http2Exception {
+		int maxPrefix = (1 << prefixBits) - 1;
+		int value = block[this.position++] & maxPrefix;
+		if (value < maxPrefix) {
+			return value;
+		}
+		int shift = 0;
+		int octet;
+		do {
+			if (this.position >= end) {
+				throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Truncated integer");
+			}
+			octet = block[this.position++] & 0xff;
+			long next = value + ((long) (octet & 0x7f) << shift);
+			if ((shift > 28) || (next > Integer.MAX_VALUE)) {
+				throw new Http2Exception(Http2Exception.COMPRESSION_ERROR, "Integer overflow");
+			}
+			value = (int) next;
+			shift += 7;
+		} while ((octet & 0x80) != 0);
+		return value;
+	}
+
+}
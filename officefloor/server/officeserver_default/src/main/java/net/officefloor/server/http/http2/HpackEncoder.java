@@ -0,0 +1,105 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * HPACK encoder (RFC 7541).
+ * <p>
+ * Does not make use of the dynamic table (nor Huffman encoding), so that
+ * encoding is stateless. This allows header blocks to be encoded by the
+ * servicing {@link Thread}, rather than synchronising on the connection.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class HpackEncoder {
+
+	/**
+	 * Encodes the header field.
+	 * 
+	 * @param name   Name of header (must be lower case).
+	 * @param value  Value of header.
+	 * @param output {@link ByteArrayOutputStream} to receive the encoding.
+	 */
+	public static void encode(String name, String value, ByteArrayOutputStream output) {
+
+		// Determine if fully indexed
+		int index = HpackStaticTable.getNameValueIndex(name, value);
+		if (index > 0) {
+			encodeInteger(index, 7, 0x80, output);
+			return;
+		}
+
+		// Literal header field without indexing
+		int nameIndex = HpackStaticTable.getNameIndex(name);
+		encodeInteger(nameIndex, 4, 0x00, output);
+		if (nameIndex == 0) {
+			encodeString(name, output);
+		}
+		encodeString(value, output);
+	}
+
+	/**
+	 * Encodes a string literal (without Huffman encoding).
+	 * 
+	 * @param value  Value.
+	 * @param output {@link ByteArrayOutputStream}.
+	 */
+	private static void encodeString(String value, ByteArrayOutputStream output) {
+		int length = value.length();
+		encodeInteger(length, 7, 0x00, output);
+		for (int i = 0; i < length; i++) {
+			output.write(value.charAt(i));
+		}
+	}
+
+	/**
+	 * Encodes an integer.
+	 * 
+	 * @param value      Value.
+	 * @param prefixBits Number of prefix bits.
+	 * @param mask       Mask for the bits above the prefix.
+	 * @param output     {@link ByteArrayOutputStream}.
+	 */
+	static void encodeInteger(int value, int prefixBits, int mask, ByteArrayOutputStream output) {
+		int maxPrefix = (1 << prefixBits) - 1;
+		if (value < maxPrefix) {
+			output.write(mask | value);
+			return;
+		}
+		output.write(mask | maxPrefix);
+		value -= maxPrefix;
+		while (value >= 0x80) {
+			output.write((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		output.write(value);
+	}
+
+	/**
+	 * All access via static methods.
+	 */
+	private HpackEncoder() {
+	}
+
+}
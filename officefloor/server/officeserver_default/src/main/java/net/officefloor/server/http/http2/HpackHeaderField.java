@@ -0,0 +1,93 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+/**
+ * HPACK header field.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class HpackHeaderField {
+
+	/**
+	 * Overhead of entry within the HPACK table (RFC 7541 Section 4.1).
+	 */
+	public static final int ENTRY_OVERHEAD = 32;
+
+	/**
+	 * Name.
+	 */
+	private final String name;
+
+	/**
+	 * Value.
+	 */
+	private final String value;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param name  Name.
+	 * @param value Value.
+	 */
+	public HpackHeaderField(String name, String value) {
+		this.name = name;
+		this.value = value;
+	}
+
+	/**
+	 * Obtains the name.
+	 * 
+	 * @return Name.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Obtains the value.
+	 * 
+	 * @return Value.
+	 */
+	public String getValue() {
+		return this.value;
+	}
+
+	/**
+	 * Obtains the size of this {@link HpackHeaderField} within the HPACK table.
+	 * 
+	 * @return Size within the HPACK table.
+	 */
+	public int getSize() {
+		return this.name.length() + this.value.length() + ENTRY_OVERHEAD;
+	}
+
+	/*
+	 * ================= Object ======================
+	 */
+
+	@Override
+	public String toString() {
+		return this.name + ": " + this.value;
+	}
+
+}
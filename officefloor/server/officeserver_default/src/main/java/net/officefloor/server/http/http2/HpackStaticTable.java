@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HPACK static table (RFC 7541 Appendix A).
+ * 
+ * @author Daniel Sagenschneider
+ */
+class HpackStaticTable {
+
+	/**
+	 * Static table entries. Index <code>0</code> is unused, as HPACK indexes
+	 * start at <code>1</code>.
+	 */
+	static final HpackHeaderField[] ENTRIES = new HpackHeaderField[] { null, new HpackHeaderField(":authority", ""),
+			new HpackHeaderField(":method", "GET"), new HpackHeaderField(":method", "POST"),
+			new HpackHeaderField(":path", "/"), new HpackHeaderField(":path", "/index.html"),
+			new HpackHeaderField(":scheme", "http"), new HpackHeaderField(":scheme", "https"),
+			new HpackHeaderField(":status", "200"), new HpackHeaderField(":status", "204"),
+			new HpackHeaderField(":status", "206"), new HpackHeaderField(":status", "304"),
+			new HpackHeaderField(":status", "400"), new HpackHeaderField(":status", "404"),
+			new HpackHeaderField(":status", "500"), new HpackHeaderField("accept-charset", ""),
+			new HpackHeaderField("accept-encoding", "gzip, deflate"), new HpackHeaderField("accept-language", ""),
+			new HpackHeaderField("accept-ranges", ""), new HpackHeaderField("accept", ""),
+			new HpackHeaderField("access-control-allow-origin", ""), new HpackHeaderField("age", ""),
+			new HpackHeaderField("allow", ""), new HpackHeaderField("authorization", ""),
+			new HpackHeaderField("cache-control", ""), new HpackHeaderField("content-disposition", ""),
+			new HpackHeaderField("content-encoding", ""), new HpackHeaderField("content-language", ""),
+			new HpackHeaderField("content-length", ""), new HpackHeaderField("content-location", ""),
+			new HpackHeaderField("content-range", ""), new HpackHeaderField("content-type", ""),
+			new HpackHeaderField("cookie", ""), new HpackHeaderField("date", ""), new HpackHeaderField("etag", ""),
+			new HpackHeaderField("expect", ""), new HpackHeaderField("expires", ""), new HpackHeaderField("from", ""),
+			new HpackHeaderField("host", ""), new HpackHeaderField("if-match", ""),
+			new HpackHeaderField("if-modified-since", ""), new HpackHeaderField("if-none-match", ""),
+			new HpackHeaderField("if-range", ""), new HpackHeaderField("if-unmodified-since", ""),
+			new HpackHeaderField("last-modified", ""), new HpackHeaderField("link", ""),
+			new HpackHeaderField("location", ""), new HpackHeaderField("max-forwards", ""),
+			new HpackHeaderField("proxy-authenticate", ""), new HpackHeaderField("proxy-authorization", ""),
+			new HpackHeaderField("range", ""), new HpackHeaderField("referer", ""),
+			new HpackHeaderField("refresh", ""), new HpackHeaderField("retry-after", ""),
+			new HpackHeaderField("server", ""), new HpackHeaderField("set-cookie", ""),
+			new HpackHeaderField("strict-transport-security", ""), new HpackHeaderField("transfer-encoding", ""),
+			new HpackHeaderField("user-agent", ""), new HpackHeaderField("vary", ""), new HpackHeaderField("via", ""),
+			new HpackHeaderField("www-authenticate", "") };
+
+	/**
+	 * Number of entries in the static table.
+	 */
+	static final int LENGTH = ENTRIES.length - 1;
+
+	/**
+	 * Index of first entry by name.
+	 */
+	private static final Map<String, Integer> NAME_INDEXES = new HashMap<>();
+
+	/**
+	 * Index of entry by name and value.
+	 */
+	private static final Map<String, Integer> NAME_VALUE_INDEXES = new HashMap<>();
+
+	static {
+		for (int i = ENTRIES.length - 1; i > 0; i--) {
+			HpackHeaderField entry = ENTRIES[i];
+			NAME_INDEXES.put(entry.getName(), i);
+			if (entry.getValue().length() > 0) {
+				NAME_VALUE_INDEXES.put(entry.getName() + ": " + entry.getValue(), i);
+			}
+		}
+	}
+
+	/**
+	 * Obtains the index of the entry matching name.
+	 * 
+	 * @param name Name.
+	 * @return Index of entry, or <code>0</code> if no match.
+	 */
+	static int getNameIndex(String name) {
+		Integer index = NAME_INDEXES.get(name);
+		return index == null ? 0 : index;
+	}
+
+	/**
+	 * Obtains the index of the entry matching name and value.
+	 * 
+	 * @param name  Name.
+	 * @param value Value.
+	 * @return Index of entry, or <code>0</code> if no match.
+	 */
+	static int getNameValueIndex(String name, String value) {
+		Integer index = NAME_VALUE_INDEXES.get(name + ": " + value);
+		return index == null ? 0 : index;
+	}
+
+	/**
+	 * All access via static members.
+	 */
+	private HpackStaticTable() {
+	}
+
+}
@@ -0,0 +1,1098 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.officefloor.frame.api.manage.ProcessManager;
+
+/**
+ * <p>
+ * HTTP/2 connection (RFC 7540).
+ * <p>
+ * Frames are received and sent on the {@link Socket} {@link Thread}, with each
+ * stream serviced independently to avoid head of line blocking of the
+ * connection. Received data is copied out of the socket buffers, so the
+ * receive window is replenished as soon as the frame is read. Response data is
+ * held per stream until the send window allows it to be written.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public abstract class Http2Connection {
+
+	/**
+	 * Client connection preface.
+	 */
+	public static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(Charset.forName("US-ASCII"));
+
+	/*
+	 * ================= Frame Types ======================
+	 */
+
+	static final int DATA = 0x0;
+	static final int HEADERS = 0x1;
+	static final int PRIORITY = 0x2;
+	static final int RST_STREAM = 0x3;
+	static final int SETTINGS = 0x4;
+	static final int PUSH_PROMISE = 0x5;
+	static final int PING = 0x6;
+	static final int GOAWAY = 0x7;
+	static final int WINDOW_UPDATE = 0x8;
+	static final int CONTINUATION = 0x9;
+
+	/*
+	 * ================= Frame Flags ======================
+	 */
+
+	static final int FLAG_END_STREAM = 0x1;
+	static final int FLAG_ACK = 0x1;
+	static final int FLAG_END_HEADERS = 0x4;
+	static final int FLAG_PADDED = 0x8;
+	static final int FLAG_PRIORITY = 0x20;
+
+	/*
+	 * ================== Settings ========================
+	 */
+
+	static final int SETTINGS_HEADER_TABLE_SIZE = 0x1;
+	static final int SETTINGS_ENABLE_PUSH = 0x2;
+	static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+	static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+	static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+	static final int SETTINGS_MAX_HEADER_LIST_SIZE = 0x6;
+
+	/**
+	 * Length of the frame header.
+	 */
+	static final int FRAME_HEADER_LENGTH = 9;
+
+	/**
+	 * Default initial window size.
+	 */
+	static final int DEFAULT_WINDOW_SIZE = 65535;
+
+	/**
+	 * Default (and maximum received) frame size.
+	 */
+	static final int DEFAULT_MAX_FRAME_SIZE = 16384;
+
+	/**
+	 * Size of the HPACK dynamic table for decoding.
+	 */
+	static final int HEADER_TABLE_SIZE = 4096;
+
+	/**
+	 * Maximum size of a header block (across <code>CONTINUATION</code> frames).
+	 */
+	static final int MAX_HEADER_BLOCK_SIZE = 64 * 1024;
+
+	/**
+	 * Maximum flow control window size.
+	 */
+	static final long MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+
+	/**
+	 * Maximum number of concurrent streams.
+	 */
+	private final int maxConcurrentStreams;
+
+	/**
+	 * Maximum number of headers for a request.
+	 */
+	private final int maxHeaderCount;
+
+	/**
+	 * Maximum length of a request entity.
+	 */
+	private final long maxEntityLength;
+
+	/**
+	 * {@link HpackDecoder} for the connection.
+	 */
+	private final HpackDecoder decoder = new HpackDecoder(HEADER_TABLE_SIZE);
+
+	/**
+	 * Active {@link Http2Stream} instances by stream identifier.
+	 */
+	private final Map<Integer, Http2Stream> streams = new HashMap<>();
+
+	/**
+	 * Received bytes awaiting a complete frame.
+	 */
+	private final byte[] input = new byte[FRAME_HEADER_LENGTH + DEFAULT_MAX_FRAME_SIZE];
+
+	/**
+	 * Number of bytes within the input.
+	 */
+	private int inputLength = 0;
+
+	/**
+	 * Indicates if receiving data.
+	 */
+	private boolean isReceiving = false;
+
+	/**
+	 * Data received while already receiving (e.g. writing frames through SSL
+	 * unwraps further data).
+	 */
+	private final ByteArrayOutputStream receivedInput = new ByteArrayOutputStream();
+
+	/**
+	 * Frames to be written.
+	 */
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+	/**
+	 * Indicates if the client <code>SETTINGS</code> have been received.
+	 */
+	private boolean isSettingsReceived = false;
+
+	/**
+	 * Highest stream identifier opened by the client.
+	 */
+	private int highestStreamId = 0;
+
+	/**
+	 * Stream identifier of header block awaiting <code>CONTINUATION</code>.
+	 * <code>0</code> if no header block in progress.
+	 */
+	private int headerBlockStreamId = 0;
+
+	/**
+	 * Flags of the <code>HEADERS</code> frame starting the header block.
+	 */
+	private int headerBlockFlags = 0;
+
+	/**
+	 * Header block in progress.
+	 */
+	private ByteArrayOutputStream headerBlock = null;
+
+	/**
+	 * Initial send window for streams (as per client settings).
+	 */
+	private long initialSendWindow = DEFAULT_WINDOW_SIZE;
+
+	/**
+	 * Maximum frame size the client will receive.
+	 */
+	private int maxSendFrameSize = DEFAULT_MAX_FRAME_SIZE;
+
+	/**
+	 * Window for sending data on the connection.
+	 */
+	private long connectionSendWindow = DEFAULT_WINDOW_SIZE;
+
+	/**
+	 * Indicates if <code>GOAWAY</code> sent (connection no longer serviced).
+	 */
+	private boolean isGoAway = false;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param maxConcurrentStreams Maximum number of concurrent streams.
+	 * @param maxHeaderCount       Maximum number of headers for a request.
+	 * @param maxEntityLength      Maximum length of a request entity.
+	 */
+	public Http2Connection(int maxConcurrentStreams, int maxHeaderCount, long maxEntityLength) {
+		this.maxConcurrentStreams = maxConcurrentStreams;
+		this.maxHeaderCount = maxHeaderCount;
+		this.maxEntityLength = maxEntityLength;
+	}
+
+	/**
+	 * Writes the frames to the client.
+	 * 
+	 * @param frames Frames.
+	 */
+	protected abstract void writeFrames(byte[] frames);
+
+	/**
+	 * Services the {@link Http2Stream} request.
+	 * 
+	 * @param stream {@link Http2Stream}.
+	 * @return {@link ProcessManager} servicing the request. May be
+	 *         <code>null</code>.
+	 */
+	protected abstract ProcessManager serviceStream(Http2Stream stream);
+
+	/**
+	 * Starts the connection by sending the server <code>SETTINGS</code>.
+	 * <p>
+	 * This is to be invoked once the client preface has been received.
+	 */
+	public void start() {
+		this.writeFrameHeader(6 * 2, SETTINGS, 0, 0);
+		this.writeSetting(SETTINGS_MAX_CONCURRENT_STREAMS, this.maxConcurrentStreams);
+		this.writeSetting(SETTINGS_ENABLE_PUSH, 0);
+		this.flush();
+	}
+
+	/**
+	 * Receives data from the client.
+	 * 
+	 * @param data {@link ByteBuffer} containing the data between its position and
+	 *             limit.
+	 */
+	public void receive(ByteBuffer data) {
+
+		// Determine if re-entrant receive (process once current data processed)
+		if (this.isReceiving) {
+			while (data.remaining() > 0) {
+				this.receivedInput.write(data.get());
+			}
+			return;
+		}
+
+		// Process the data
+		this.isReceiving = true;
+		try {
+			while (data != null) {
+				try {
+					while ((!this.isGoAway) && (data.remaining() > 0)) {
+
+						// Load the data
+						int length = Math.min(data.remaining(), this.input.length - this.inputLength);
+						data.get(this.input, this.inputLength, length);
+						this.inputLength += length;
+
+						// Process the available frames
+						this.processFrames();
+					}
+				} catch (Http2Exception ex) {
+					// Connection error
+					this.goAway(ex.getErrorCode(), ex.getMessage());
+				}
+				this.flush();
+
+				// Process data received while processing
+				data = null;
+				if (this.receivedInput.size() > 0) {
+					data = ByteBuffer.wrap(this.receivedInput.toByteArray());
+					this.receivedInput.reset();
+				}
+			}
+		} finally {
+			this.isReceiving = false;
+		}
+	}
+
+	/**
+	 * Writes the response for the {@link Http2Stream}.
+	 * <p>
+	 * This must be invoked on the {@link Socket} {@link Thread}.
+	 * 
+	 * @param streamId    Stream identifier.
+	 * @param headerBlock HPACK encoded header block.
+	 * @param entity      Response entity. May be <code>null</code>.
+	 */
+	public void writeResponse(int streamId, byte[] headerBlock, byte[] entity) {
+
+		// Ignore if stream reset (or connection in error)
+		Http2Stream stream = this.streams.get(streamId);
+		if ((stream == null) || (stream.isResponding) || (this.isGoAway)) {
+			return;
+		}
+		stream.isResponding = true;
+
+		// Write the headers
+		boolean isEndStream = (entity == null) || (entity.length == 0);
+		int offset = 0;
+		int type = HEADERS;
+		int flags = isEndStream ? FLAG_END_STREAM : 0;
+		do {
+			int length = Math.min(headerBlock.length - offset, this.maxSendFrameSize);
+			boolean isEndHeaders = (offset + length) >= headerBlock.length;
+			this.writeFrameHeader(length, type, flags | (isEndHeaders ? FLAG_END_HEADERS : 0), streamId);
+			this.output.write(headerBlock, offset, length);
+			offset += length;
+			type = CONTINUATION;
+			flags = 0;
+		} while (offset < headerBlock.length);
+
+		// Write the entity
+		if (isEndStream) {
+			this.closeStream(stream);
+		} else {
+			stream.pendingData = entity;
+			stream.pendingOffset = 0;
+			this.writeData(stream);
+		}
+		this.flush();
+	}
+
+	/**
+	 * Releases the connection, cancelling servicing of the active streams.
+	 */
+	public void release() {
+		for (Http2Stream stream : this.streams.values()) {
+			if (stream.processManager != null) {
+				stream.processManager.cancel();
+			}
+		}
+		this.streams.clear();
+	}
+
+	/**
+	 * Processes the complete frames within the input.
+	 * 
+	 * @throws Http2Exception If connection error.
+	 */
+	private void processFrames() throws Http2Exception {
+		int position = 0;
+		while ((this.inputLength - position) >= FRAME_HEADER_LENGTH) {
+
+			// Determine if complete frame
+			int length = ((this.input[position] & 0xff) << 16) | ((this.input[position + 1] & 0xff) << 8)
+					| (this.input[position + 2] & 0xff);
+			if (length > DEFAULT_MAX_FRAME_SIZE) {
+				throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Frame size " + length + " too large");
+			}
+			if ((this.inputLength - position - FRAME_HEADER_LENGTH) < length) {
+				break; // await remaining of frame
+			}
+
+			// Handle the frame
+			int type = this.input[position + 3] & 0xff;
+			int flags = this.input[position + 4] & 0xff;
+			int streamId = this.readInt(position + 5) & 0x7fffffff;
+			try {
+				this.handleFrame(type, flags, streamId, position + FRAME_HEADER_LENGTH, length);
+			} catch (Http2Exception ex) {
+				if (ex.isConnectionError()) {
+					throw ex;
+				}
+
+				// Stream error, so reset the stream
+				Http2Stream stream = this.streams.remove(ex.getStreamId());
+				if ((stream != null) && (stream.processManager != null)) {
+					stream.processManager.cancel();
+				}
+				this.writeRstStream(ex.getStreamId(), ex.getErrorCode());
+			}
+			position += FRAME_HEADER_LENGTH + length;
+		}
+
+		// Compact the remaining input
+		System.arraycopy(this.input, position, this.input, 0, this.inputLength - position);
+		this.inputLength -= position;
+	}
+
+	/**
+	 * Handles the frame.
+	 * 
+	 * @param type     Frame type.
+	 * @param flags    Frame flags.
+	 * @param streamId Stream identifier.
+	 * @param offset   Offset of the payload within the input.
+	 * @param length   Length of the payload.
+	 * @throws Http2Exception If connection or stream error.
+	 */
+	private void handleFrame(int type, int flags, int streamId, int offset, int length) throws Http2Exception {
+
+		// First frame must be SETTINGS
+		if ((!this.isSettingsReceived) && ((type != SETTINGS) || ((flags & FLAG_ACK) != 0))) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Expecting SETTINGS frame");
+		}
+
+		// Header block must be contiguous
+		if ((this.headerBlockStreamId != 0) && ((type != CONTINUATION) || (streamId != this.headerBlockStreamId))) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Expecting CONTINUATION frame");
+		}
+
+		switch (type) {
+		case DATA:
+			this.handleData(flags, streamId, offset, length);
+			break;
+
+		case HEADERS:
+			this.handleHeaders(flags, streamId, offset, length);
+			break;
+
+		case PRIORITY:
+			if (streamId == 0) {
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "PRIORITY for connection");
+			}
+			if (length != 5) {
+				throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, streamId, "Invalid PRIORITY frame size");
+			}
+			break; // stream priorities are not used
+
+		case RST_STREAM:
+			this.handleRstStream(streamId, offset, length);
+			break;
+
+		case SETTINGS:
+			this.handleSettings(flags, streamId, offset, length);
+			break;
+
+		case PUSH_PROMISE:
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Client may not PUSH_PROMISE");
+
+		case PING:
+			if (streamId != 0) {
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "PING for stream");
+			}
+			if (length != 8) {
+				throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Invalid PING frame size");
+			}
+			if ((flags & FLAG_ACK) == 0) {
+				this.writeFrameHeader(8, PING, FLAG_ACK, 0);
+				this.output.write(this.input, offset, 8);
+			}
+			break;
+
+		case GOAWAY:
+			if (streamId != 0) {
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "GOAWAY for stream");
+			}
+			if (length < 8) {
+				throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Invalid GOAWAY frame size");
+			}
+			break; // client closes connection once active streams complete
+
+		case WINDOW_UPDATE:
+			this.handleWindowUpdate(streamId, offset, length);
+			break;
+
+		case CONTINUATION:
+			this.handleContinuation(flags, streamId, offset, length);
+			break;
+
+		default:
+			break; // ignore unknown frame types
+		}
+	}
+
+	/**
+	 * Handles the <code>DATA</code> frame.
+	 * 
+	 * @param flags    Frame flags.
+	 * @param streamId Stream identifier.
+	 * @param offset   Offset of the payload within the input.
+	 * @param length   Length of the payload.
+	 * @throws Http2Exception If connection or stream error.
+	 */
+	private void handleData(int flags, int streamId, int offset, int length) throws Http2Exception {
+		if (streamId == 0) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "DATA for connection");
+		}
+
+		// Determine the data (less padding)
+		int dataOffset = offset;
+		int dataLength = length;
+		if ((flags & FLAG_PADDED) != 0) {
+			int padLength = (length > 0) ? (this.input[offset] & 0xff) : length;
+			if (padLength >= length) {
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid DATA padding");
+			}
+			dataOffset++;
+			dataLength = length - 1 - padLength;
+		}
+
+		// Data copied out of the frame, so replenish connection window
+		if (length > 0) {
+			this.writeWindowUpdate(0, length);
+		}
+
+		// Obtain the stream
+		Http2Stream stream = this.streams.get(streamId);
+		if (stream == null) {
+			if (streamId > this.highestStreamId) {
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "DATA for idle stream " + streamId);
+			}
+			return; // ignore data for reset stream
+		}
+		if (stream.isRemoteClosed) {
+			throw new Http2Exception(Http2Exception.STREAM_CLOSED, streamId, "DATA after end of stream");
+		}
+		boolean isEndStream = (flags & FLAG_END_STREAM) != 0;
+		stream.isRemoteClosed = isEndStream;
+
+		// Load the data
+		if (!stream.isRejected) {
+			long entityLength = (stream.entity == null ? 0 : stream.entity.size()) + dataLength;
+			if (entityLength > this.maxEntityLength) {
+				// Entity too large
+				stream.isRejected = true;
+				stream.entity = null;
+				this.rejectStream(stream, 413);
+			} else if (dataLength > 0) {
+				if (stream.entity == null) {
+					stream.entity = new ByteArrayOutputStream(dataLength);
+				}
+				stream.entity.write(this.input, dataOffset, dataLength);
+			}
+		}
+
+		// Determine if end of request
+		if (isEndStream) {
+			if (!stream.isRejected) {
+				this.service(stream);
+			}
+		} else if ((length > 0) && (this.streams.containsKey(streamId))) {
+			this.writeWindowUpdate(streamId, length);
+		}
+	}
+
+	/**
+	 * Handles the <code>HEADERS</code> frame.
+	 * 
+	 * @param flags    Frame flags.
+	 * @param streamId Stream identifier.
+	 * @param offset   Offset of the payload within the input.
+	 * @param length   Length of the payload.
+	 * @throws Http2Exception If connection or stream error.
+	 */
+	private void handleHeaders(int flags, int streamId, int offset, int length) throws Http2Exception {
+		if ((streamId == 0) || ((streamId % 2) == 0)) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid stream " + streamId + " for HEADERS");
+		}
+
+		// Determine the header block fragment
+		int blockOffset = offset;
+		int blockLength = length;
+		if ((flags & FLAG_PADDED) != 0) {
+			int padLength = (length > 0) ? (this.input[offset] & 0xff) : length;
+			blockOffset++;
+			blockLength -= (1 + padLength);
+		}
+		if ((flags & FLAG_PRIORITY) != 0) {
+			blockOffset += 5;
+			blockLength -= 5;
+		}
+		if (blockLength < 0) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid HEADERS padding");
+		}
+
+		// Determine if complete header block
+		if ((flags & FLAG_END_HEADERS) != 0) {
+			this.handleHeaderBlock(flags, streamId, this.input, blockOffset, blockLength);
+		} else {
+			this.headerBlockStreamId = streamId;
+			this.headerBlockFlags = flags;
+			this.headerBlock = new ByteArrayOutputStream(blockLength * 2);
+			this.headerBlock.write(this.input, blockOffset, blockLength);
+		}
+	}
+
+	/**
+	 * Handles the <code>CONTINUATION</code> frame.
+	 * 
+	 * @param flags    Frame flags.
+	 * @param streamId Stream identifier.
+	 * @param offset   Offset of the payload within the input.
+	 * @param length   Length of the payload.
+	 * @throws Http2Exception If connection or stream error.
+	 */
+	private void handleContinuation(int flags, int streamId, int offset, int length) throws Http2Exception {
+		if (this.headerBlockStreamId == 0) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "CONTINUATION without HEADERS");
+		}
+		this.headerBlock.write(this.input, offset, length);
+		if (this.headerBlock.size() > MAX_HEADER_BLOCK_SIZE) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Header block too large");
+		}
+
+		// Determine if complete header block
+		if ((flags & FLAG_END_HEADERS) != 0) {
+			byte[] block = this.headerBlock.toByteArray();
+			this.headerBlockStreamId = 0;
+			this.headerBlock = null;
+			this.handleHeaderBlock(this.headerBlockFlags, streamId, block, 0, block.length);
+		}
+	}
+
+	/**
+	 * Handles the complete header block.
+	 * 
+	 * @param flags    Flags of the <code>HEADERS</code> frame.
+	 * @param streamId Stream identifier.
+	 * @param block    Header block.
+	 * @param offset   Offset into the header block.
+	 * @param length   Length of the header block.
+	 * @throws Http2Exception If connection or stream error.
+	 */
+	private void handleHeaderBlock(int flags, int streamId, byte[] block, int offset, int length)
+			throws Http2Exception {
+
+		// Always decode to keep HPACK state in sync
+		List<HpackHeaderField> fields = new ArrayList<>();
+		this.decoder.decode(block, offset, length, fields);
+		boolean isEndStream = (flags & FLAG_END_STREAM) != 0;
+
+		// Determine if trailers for existing stream
+		Http2Stream stream = this.streams.get(streamId);
+		if (stream != null) {
+			if (stream.isRemoteClosed) {
+				throw new Http2Exception(Http2Exception.STREAM_CLOSED, streamId, "HEADERS after end of stream");
+			}
+			if (!isEndStream) {
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, streamId, "Trailers must end stream");
+			}
+			stream.isRemoteClosed = true;
+			if (!stream.isRejected) {
+				this.service(stream);
+			}
+			return;
+		}
+
+		// Ensure new stream
+		if (streamId <= this.highestStreamId) {
+			throw new Http2Exception(Http2Exception.STREAM_CLOSED, streamId, "HEADERS for closed stream");
+		}
+		this.highestStreamId = streamId;
+		if (this.streams.size() >= this.maxConcurrentStreams) {
+			throw new Http2Exception(Http2Exception.REFUSED_STREAM, streamId, "Too many concurrent streams");
+		}
+
+		// Load the request headers
+		stream = new Http2Stream(streamId, this.initialSendWindow);
+		StringBuilder cookie = null;
+		boolean isHost = false;
+		for (HpackHeaderField field : fields) {
+			String name = field.getName();
+			String value = field.getValue();
+			if (!name.equals(name.toLowerCase())) {
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, streamId, "Upper case header " + name);
+			}
+
+			// Handle pseudo headers
+			if (name.startsWith(":")) {
+				if (stream.headers.size() > 0) {
+					throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, streamId, "Pseudo header after header");
+				}
+				switch (name) {
+				case ":method":
+					stream.method = this.pseudoHeader(stream.method, value, streamId);
+					break;
+				case ":scheme":
+					stream.scheme = this.pseudoHeader(stream.scheme, value, streamId);
+					break;
+				case ":path":
+					stream.path = this.pseudoHeader(stream.path, value, streamId);
+					break;
+				case ":authority":
+					stream.authority = this.pseudoHeader(stream.authority, value, streamId);
+					break;
+				default:
+					throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, streamId, "Unknown pseudo header " + name);
+				}
+				continue;
+			}
+
+			// Handle headers
+			switch (name) {
+			case "connection":
+			case "keep-alive":
+			case "proxy-connection":
+			case "transfer-encoding":
+			case "upgrade":
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, streamId, "Connection header " + name);
+			case "te":
+				if (!"trailers".equals(value)) {
+					throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, streamId, "Invalid te header");
+				}
+				break;
+			case "cookie":
+				// Cookies may be split across headers
+				cookie = (cookie == null) ? new StringBuilder(value) : cookie.append("; ").append(value);
+				continue;
+			case "host":
+				isHost = true;
+				break;
+			}
+			stream.headers.add(field);
+		}
+		if (cookie != null) {
+			stream.headers.add(new HpackHeaderField("cookie", cookie.toString()));
+		}
+		if ((!isHost) && (stream.authority != null)) {
+			stream.headers.add(new HpackHeaderField("host", stream.authority));
+		}
+
+		// Ensure valid request
+		if ((stream.method == null) || (stream.scheme == null) || (stream.path == null)
+				|| (stream.path.length() == 0)) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, streamId, "Missing request pseudo header");
+		}
+
+		// Register the stream
+		this.streams.put(streamId, stream);
+		stream.isRemoteClosed = isEndStream;
+
+		// Ensure within header limits
+		if (stream.headers.size() > this.maxHeaderCount) {
+			stream.isRejected = true;
+			this.rejectStream(stream, 431);
+
+		} else if (isEndStream) {
+			// Service as end of request
+			this.service(stream);
+		}
+	}
+
+	/**
+	 * Obtains the pseudo header value.
+	 * 
+	 * @param existing Existing value.
+	 * @param value    Value.
+	 * @param streamId Stream identifier.
+	 * @return Pseudo header value.
+	 * @throws Http2Exception If duplicate pseudo header.
+	 */
+	private String pseudoHeader(String existing, String value, int streamId) throws Http2Exception {
+		if (existing != null) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, streamId, "Duplicate pseudo header");
+		}
+		return value;
+	}
+
+	/**
+	 * Handles the <code>RST_STREAM</code> frame.
+	 * 
+	 * @param streamId Stream identifier.
+	 * @param offset   Offset of the payload within the input.
+	 * @param length   Length of the payload.
+	 * @throws Http2Exception If connection error.
+	 */
+	private void handleRstStream(int streamId, int offset, int length) throws Http2Exception {
+		if (streamId == 0) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "RST_STREAM for connection");
+		}
+		if (length != 4) {
+			throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Invalid RST_STREAM frame size");
+		}
+		if (streamId > this.highestStreamId) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "RST_STREAM for idle stream " + streamId);
+		}
+
+		// Cancel servicing the stream
+		Http2Stream stream = this.streams.remove(streamId);
+		if ((stream != null) && (stream.processManager != null)) {
+			stream.processManager.cancel();
+		}
+	}
+
+	/**
+	 * Handles the <code>SETTINGS</code> frame.
+	 * 
+	 * @param flags    Frame flags.
+	 * @param streamId Stream identifier.
+	 * @param offset   Offset of the payload within the input.
+	 * @param length   Length of the payload.
+	 * @throws Http2Exception If connection error.
+	 */
+	private void handleSettings(int flags, int streamId, int offset, int length) throws Http2Exception {
+		if (streamId != 0) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "SETTINGS for stream");
+		}
+		if ((flags & FLAG_ACK) != 0) {
+			if (length != 0) {
+				throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "SETTINGS acknowledgement with payload");
+			}
+			return;
+		}
+		if ((length % 6) != 0) {
+			throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Invalid SETTINGS frame size");
+		}
+
+		// Apply the settings
+		for (int i = offset; i < (offset + length); i += 6) {
+			int identifier = ((this.input[i] & 0xff) << 8) | (this.input[i + 1] & 0xff);
+			long value = this.readInt(i + 2) & 0xffffffffL;
+			switch (identifier) {
+			case SETTINGS_ENABLE_PUSH:
+				if (value > 1) {
+					throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid SETTINGS_ENABLE_PUSH");
+				}
+				break;
+
+			case SETTINGS_INITIAL_WINDOW_SIZE:
+				if (value > MAX_WINDOW_SIZE) {
+					throw new Http2Exception(Http2Exception.FLOW_CONTROL_ERROR, "Invalid SETTINGS_INITIAL_WINDOW_SIZE");
+				}
+				long delta = value - this.initialSendWindow;
+				for (Http2Stream stream : this.streams.values()) {
+					stream.sendWindow += delta;
+					if (stream.sendWindow > MAX_WINDOW_SIZE) {
+						throw new Http2Exception(Http2Exception.FLOW_CONTROL_ERROR, "Stream window overflow");
+					}
+				}
+				this.initialSendWindow = value;
+				break;
+
+			case SETTINGS_MAX_FRAME_SIZE:
+				if ((value < DEFAULT_MAX_FRAME_SIZE) || (value > 0xffffff)) {
+					throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Invalid SETTINGS_MAX_FRAME_SIZE");
+				}
+				this.maxSendFrameSize = (int) value;
+				break;
+
+			default:
+				break; // HPACK encoding does not index, so other settings not required
+			}
+		}
+		this.isSettingsReceived = true;
+
+		// Acknowledge the settings
+		this.writeFrameHeader(0, SETTINGS, FLAG_ACK, 0);
+
+		// Window may have increased, so send pending data
+		this.writeAllData();
+	}
+
+	/**
+	 * Handles the <code>WINDOW_UPDATE</code> frame.
+	 * 
+	 * @param streamId Stream identifier.
+	 * @param offset   Offset of the payload within the input.
+	 * @param length   Length of the payload.
+	 * @throws Http2Exception If connection or stream error.
+	 */
+	private void handleWindowUpdate(int streamId, int offset, int length) throws Http2Exception {
+		if (length != 4) {
+			throw new Http2Exception(Http2Exception.FRAME_SIZE_ERROR, "Invalid WINDOW_UPDATE frame size");
+		}
+		int increment = this.readInt(offset) & 0x7fffffff;
+
+		// Determine if connection window update
+		if (streamId == 0) {
+			if (increment == 0) {
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "Zero WINDOW_UPDATE for connection");
+			}
+			this.connectionSendWindow += increment;
+			if (this.connectionSendWindow > MAX_WINDOW_SIZE) {
+				throw new Http2Exception(Http2Exception.FLOW_CONTROL_ERROR, "Connection window overflow");
+			}
+			this.writeAllData();
+			return;
+		}
+
+		// Stream window update
+		if (increment == 0) {
+			throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, streamId, "Zero WINDOW_UPDATE for stream");
+		}
+		Http2Stream stream = this.streams.get(streamId);
+		if (stream == null) {
+			if (streamId > this.highestStreamId) {
+				throw new Http2Exception(Http2Exception.PROTOCOL_ERROR, "WINDOW_UPDATE for idle stream " + streamId);
+			}
+			return; // ignore for closed stream
+		}
+		stream.sendWindow += increment;
+		if (stream.sendWindow > MAX_WINDOW_SIZE) {
+			throw new Http2Exception(Http2Exception.FLOW_CONTROL_ERROR, streamId, "Stream window overflow");
+		}
+		this.writeData(stream);
+	}
+
+	/**
+	 * Services the {@link Http2Stream}.
+	 * 
+	 * @param stream {@link Http2Stream}.
+	 */
+	private void service(Http2Stream stream) {
+		stream.processManager = this.serviceStream(stream);
+	}
+
+	/**
+	 * Rejects the {@link Http2Stream} with the status.
+	 * 
+	 * @param stream     {@link Http2Stream}.
+	 * @param statusCode Status code.
+	 */
+	private void rejectStream(Http2Stream stream, int statusCode) {
+		ByteArrayOutputStream headerBlock = new ByteArrayOutputStream();
+		HpackEncoder.encode(":status", String.valueOf(statusCode), headerBlock);
+		this.writeResponse(stream.getStreamId(), headerBlock.toByteArray(), null);
+	}
+
+	/**
+	 * Writes the pending data of all {@link Http2Stream} instances.
+	 */
+	private void writeAllData() {
+		if (this.connectionSendWindow <= 0) {
+			return; // no window to send data
+		}
+		for (Http2Stream stream : new ArrayList<>(this.streams.values())) {
+			this.writeData(stream);
+		}
+	}
+
+	/**
+	 * Writes the pending data of the {@link Http2Stream}, as allowed by the flow
+	 * control windows.
+	 * 
+	 * @param stream {@link Http2Stream}.
+	 */
+	private void writeData(Http2Stream stream) {
+		while (stream.pendingData != null) {
+
+			// Determine if window to send data
+			long window = Math.min(stream.sendWindow, this.connectionSendWindow);
+			if (window <= 0) {
+				return; // await WINDOW_UPDATE
+			}
+
+			// Write the data frame
+			int remaining = stream.pendingData.length - stream.pendingOffset;
+			int length = (int) Math.min(Math.min(remaining, window), this.maxSendFrameSize);
+			boolean isEndStream = (length == remaining);
+			this.writeFrameHeader(length, DATA, isEndStream ? FLAG_END_STREAM : 0, stream.getStreamId());
+			this.output.write(stream.pendingData, stream.pendingOffset, length);
+			stream.pendingOffset += length;
+			stream.sendWindow -= length;
+			this.connectionSendWindow -= length;
+
+			// Determine if complete
+			if (isEndStream) {
+				stream.pendingData = null;
+				this.closeStream(stream);
+			}
+		}
+	}
+
+	/**
+	 * Closes the {@link Http2Stream} once the response is sent.
+	 * 
+	 * @param stream {@link Http2Stream}.
+	 */
+	private void closeStream(Http2Stream stream) {
+		this.streams.remove(stream.getStreamId());
+		if (!stream.isRemoteClosed) {
+			// Response sent before complete request, so stop request
+			this.writeRstStream(stream.getStreamId(), Http2Exception.NO_ERROR);
+		}
+	}
+
+	/**
+	 * Sends <code>GOAWAY</code> and stops servicing the connection.
+	 * 
+	 * @param errorCode Error code.
+	 * @param message   Message for debug data.
+	 */
+	private void goAway(int errorCode, String message) {
+		byte[] debugData = (message == null ? "" : message).getBytes(Charset.forName("US-ASCII"));
+		this.writeFrameHeader(8 + debugData.length, GOAWAY, 0, 0);
+		this.writeInt(this.highestStreamId);
+		this.writeInt(errorCode);
+		this.output.write(debugData, 0, debugData.length);
+		this.isGoAway = true;
+		this.inputLength = 0;
+		this.release();
+	}
+
+	/**
+	 * Writes the <code>RST_STREAM</code> frame.
+	 * 
+	 * @param streamId  Stream identifier.
+	 * @param errorCode Error code.
+	 */
+	private void writeRstStream(int streamId, int errorCode) {
+		this.writeFrameHeader(4, RST_STREAM, 0, streamId);
+		this.writeInt(errorCode);
+	}
+
+	/**
+	 * Writes the <code>WINDOW_UPDATE</code> frame.
+	 * 
+	 * @param streamId  Stream identifier.
+	 * @param increment Window increment.
+	 */
+	private void writeWindowUpdate(int streamId, int increment) {
+		this.writeFrameHeader(4, WINDOW_UPDATE, 0, streamId);
+		this.writeInt(increment);
+	}
+
+	/**
+	 * Writes a setting.
+	 * 
+	 * @param identifier Setting identifier.
+	 * @param value      Setting value.
+	 */
+	private void writeSetting(int identifier, int value) {
+		this.output.write(identifier >>> 8);
+		this.output.write(identifier);
+		this.writeInt(value);
+	}
+
+	/**
+	 * Writes the frame header.
+	 * 
+	 * @param length   Length of payload.
+	 * @param type     Frame type.
+	 * @param flags    Frame flags.
+	 * @param streamId Stream identifier.
+	 */
+	private void writeFrameHeader(int length, int type, int flags, int streamId) {
+		this.output.write(length >>> 16);
+		this.output.write(length >>> 8);
+		this.output.write(length);
+		this.output.write(type);
+		this.output.write(flags);
+		this.writeInt(streamId);
+	}
+
+	/**
+	 * Writes a 32 bit integer.
+	 * 
+	 * @param value Value.
+	 */
+	private void writeInt(int value) {
+		this.output.write(value >>> 24);
+		this.output.write(value >>> 16);
+		this.output.write(value >>> 8);
+		this.output.write(value);
+	}
+
+	/**
+	 * Reads a 32 bit integer from the input.
+	 * 
+	 * @param offset Offset into the input.
+	 * @return Value.
+	 */
+	private int readInt(int offset) {
+		return ((this.input[offset] & 0xff) << 24) | ((this.input[offset + 1] & 0xff) << 16)
+				| ((this.input[offset + 2] & 0xff) << 8) | (this.input[offset + 3] & 0xff);
+	}
+
+	/**
+	 * Flushes the written frames to the client.
+	 */
+	private void flush() {
+		if (this.output.size() > 0) {
+			byte[] frames = this.output.toByteArray();
+			this.output.reset();
+			this.writeFrames(frames);
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+/**
+ * HTTP/2 error (RFC 7540 Section 7).
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class Http2Exception extends Exception {
+
+	/**
+	 * Default serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/*
+	 * ================= Error Codes =================
+	 */
+
+	public static final int NO_ERROR = 0x0;
+	public static final int PROTOCOL_ERROR = 0x1;
+	public static final int INTERNAL_ERROR = 0x2;
+	public static final int FLOW_CONTROL_ERROR = 0x3;
+	public static final int SETTINGS_TIMEOUT = 0x4;
+	public static final int STREAM_CLOSED = 0x5;
+	public static final int FRAME_SIZE_ERROR = 0x6;
+	public static final int REFUSED_STREAM = 0x7;
+	public static final int CANCEL = 0x8;
+	public static final int COMPRESSION_ERROR = 0x9;
+
+	/**
+	 * Error code.
+	 */
+	private final int errorCode;
+
+	/**
+	 * Identifier of the stream in error. <code>0</code> indicates a connection
+	 * error.
+	 */
+	private final int streamId;
+
+	/**
+	 * Instantiate for connection error.
+	 * 
+	 * @param errorCode Error code.
+	 * @param message   Message.
+	 */
+	public Http2Exception(int errorCode, String message) {
+		this(errorCode, 0, message);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param errorCode Error code.
+	 * @param streamId  Identifier of the stream in error. <code>0</code> for a
+	 *                  connection error.
+	 * @param message   Message.
+	 */
+	public Http2Exception(int errorCode, int streamId, String message) {
+		super(message);
+		this.errorCode = errorCode;
+		this.streamId = streamId;
+	}
+
+	/**
+	 * Obtains the error code.
+	 * 
+	 * @return Error code.
+	 */
+	public int getErrorCode() {
+		return this.errorCode;
+	}
+
+	/**
+	 * Obtains the identifier of the stream in error.
+	 * 
+	 * @return Identifier of the stream in error. <code>0</code> indicates a
+	 *         connection error.
+	 */
+	public int getStreamId() {
+		return this.streamId;
+	}
+
+	/**
+	 * Indicates if a connection error (rather than stream error).
+	 * 
+	 * @return <code>true</code> if connection error.
+	 */
+	public boolean isConnectionError() {
+		return this.streamId == 0;
+	}
+
+}
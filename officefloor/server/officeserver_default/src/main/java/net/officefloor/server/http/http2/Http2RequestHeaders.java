@@ -0,0 +1,91 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.util.Iterator;
+import java.util.List;
+
+import net.officefloor.server.http.HttpHeader;
+import net.officefloor.server.http.impl.NonMaterialisedHttpHeader;
+import net.officefloor.server.http.impl.NonMaterialisedHttpHeaders;
+import net.officefloor.server.http.impl.SerialisableHttpHeader;
+
+/**
+ * {@link NonMaterialisedHttpHeaders} for the {@link Http2Stream}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class Http2RequestHeaders implements NonMaterialisedHttpHeaders {
+
+	/**
+	 * Decoded {@link HpackHeaderField} instances.
+	 */
+	private final List<HpackHeaderField> headers;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param headers Decoded {@link HpackHeaderField} instances.
+	 */
+	public Http2RequestHeaders(List<HpackHeaderField> headers) {
+		this.headers = headers;
+	}
+
+	/*
+	 * ================ NonMaterialisedHttpHeaders ================
+	 */
+
+	@Override
+	public Iterator<NonMaterialisedHttpHeader> iterator() {
+		Iterator<HpackHeaderField> iterator = this.headers.iterator();
+		return new Iterator<NonMaterialisedHttpHeader>() {
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public NonMaterialisedHttpHeader next() {
+				HpackHeaderField field = iterator.next();
+				return new NonMaterialisedHttpHeader() {
+
+					@Override
+					public CharSequence getName() {
+						return field.getName();
+					}
+
+					@Override
+					public HttpHeader materialiseHttpHeader() {
+						return new SerialisableHttpHeader(field.getName(), field.getValue());
+					}
+				};
+			}
+		};
+	}
+
+	@Override
+	public int length() {
+		return this.headers.size();
+	}
+
+}
@@ -0,0 +1,207 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+import net.officefloor.server.http.HttpHeader;
+import net.officefloor.server.http.HttpHeaderValue;
+import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.http.HttpStatus;
+import net.officefloor.server.http.WritableHttpCookie;
+import net.officefloor.server.http.WritableHttpHeader;
+import net.officefloor.server.stream.BufferJvmFix;
+import net.officefloor.server.stream.StreamBuffer;
+import net.officefloor.server.stream.StreamBuffer.FileBuffer;
+
+/**
+ * Encodes the {@link HttpResponse} for sending on a {@link Http2Stream}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class Http2ResponseEncoder {
+
+	/**
+	 * Encodes the response header block.
+	 * 
+	 * @param status        {@link HttpStatus}.
+	 * @param headHeader    Head {@link WritableHttpHeader}. May be
+	 *                      <code>null</code>.
+	 * @param headCookie    Head {@link WritableHttpCookie}. May be
+	 *                      <code>null</code>.
+	 * @param contentLength Content length. Negative if not specified.
+	 * @param contentType   Content type. May be <code>null</code>.
+	 * @return HPACK encoded header block.
+	 */
+	public static byte[] encodeHeaders(HttpStatus status, WritableHttpHeader headHeader,
+			WritableHttpCookie headCookie, long contentLength, HttpHeaderValue contentType) {
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		HpackEncoder.encode(":status", String.valueOf(status.getStatusCode()), block);
+		if (contentType != null) {
+			HpackEncoder.encode("content-type", contentType.getValue(), block);
+		}
+		if (contentLength >= 0) {
+			HpackEncoder.encode("content-length", String.valueOf(contentLength), block);
+		}
+		WritableHttpHeader header = headHeader;
+		while (header != null) {
+			encodeHeader(header.getName(), header.getValue(), block);
+			header = header.next;
+		}
+		WritableHttpCookie cookie = headCookie;
+		while (cookie != null) {
+			HpackEncoder.encode("set-cookie", cookie.toResponseHeaderValue(), block);
+			cookie = cookie.next;
+		}
+		return block.toByteArray();
+	}
+
+	/**
+	 * Encodes the response header block.
+	 * 
+	 * @param status        {@link HttpStatus}.
+	 * @param headers       {@link HttpHeader} instances.
+	 * @param contentLength Content length. Negative if not specified.
+	 * @return HPACK encoded header block.
+	 */
+	public static byte[] encodeHeaders(HttpStatus status, HttpHeader[] headers, long contentLength) {
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		HpackEncoder.encode(":status", String.valueOf(status.getStatusCode()), block);
+		if (contentLength >= 0) {
+			HpackEncoder.encode("content-length", String.valueOf(contentLength), block);
+		}
+		for (HttpHeader header : headers) {
+			encodeHeader(header.getName(), header.getValue(), block);
+		}
+		return block.toByteArray();
+	}
+
+	/**
+	 * Encodes the header, filtering out connection specific headers.
+	 * 
+	 * @param name  Name.
+	 * @param value Value.
+	 * @param block {@link ByteArrayOutputStream} for the header block.
+	 */
+	private static void encodeHeader(String name, String value, ByteArrayOutputStream block) {
+		String lowerName = name.toLowerCase(Locale.ENGLISH);
+		switch (lowerName) {
+		case "connection":
+		case "keep-alive":
+		case "proxy-connection":
+		case "transfer-encoding":
+		case "upgrade":
+			return; // not valid for HTTP/2
+		default:
+			HpackEncoder.encode(lowerName, value, block);
+		}
+	}
+
+	/**
+	 * Reads the entity content, releasing the {@link StreamBuffer} instances.
+	 * 
+	 * @param contentHead Head {@link StreamBuffer} of the content. May be
+	 *                    <code>null</code>.
+	 * @return Entity content.
+	 * @throws IOException If fails to read file content.
+	 */
+	public static byte[] readEntity(StreamBuffer<ByteBuffer> contentHead) throws IOException {
+		ByteArrayOutputStream entity = new ByteArrayOutputStream();
+		IOException failure = null;
+		StreamBuffer<ByteBuffer> streamBuffer = contentHead;
+		while (streamBuffer != null) {
+			StreamBuffer<ByteBuffer> release = streamBuffer;
+			streamBuffer = streamBuffer.next;
+			try {
+				if (failure == null) {
+					readContent(release, entity);
+				}
+			} catch (IOException ex) {
+				failure = ex;
+			}
+
+			// Must release buffer after released from chain
+			release.next = null;
+			release.release();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return entity.toByteArray();
+	}
+
+	/**
+	 * Reads the content of the {@link StreamBuffer}.
+	 * 
+	 * @param streamBuffer {@link StreamBuffer}.
+	 * @param entity       {@link ByteArrayOutputStream} to receive the content.
+	 * @throws IOException If fails to read file content.
+	 */
+	private static void readContent(StreamBuffer<ByteBuffer> streamBuffer, ByteArrayOutputStream entity)
+			throws IOException {
+
+		// Read file content
+		if (streamBuffer.fileBuffer != null) {
+			FileBuffer file = streamBuffer.fileBuffer;
+			long count = (file.count < 0) ? (file.file.size() - file.position) : file.count;
+			ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, 8192));
+			long position = file.position;
+			long end = file.position + count;
+			while (position < end) {
+				BufferJvmFix.clear(buffer);
+				BufferJvmFix.limit(buffer, (int) Math.min(buffer.capacity(), end - position));
+				int bytesRead = file.file.read(buffer, position);
+				if (bytesRead < 0) {
+					break; // end of file
+				}
+				entity.write(buffer.array(), 0, bytesRead);
+				position += bytesRead;
+			}
+			if (file.callback != null) {
+				file.callback.complete(file.file, true);
+			}
+			return;
+		}
+
+		// Read buffer content (pooled buffers are in write mode)
+		ByteBuffer buffer;
+		if (streamBuffer.pooledBuffer != null) {
+			buffer = streamBuffer.pooledBuffer.duplicate();
+			BufferJvmFix.flip(buffer);
+		} else {
+			buffer = streamBuffer.unpooledByteBuffer.duplicate();
+		}
+		byte[] data = new byte[buffer.remaining()];
+		buffer.get(data);
+		entity.write(data, 0, data.length);
+	}
+
+	/**
+	 * All access via static methods.
+	 */
+	private Http2ResponseEncoder() {
+	}
+
+}
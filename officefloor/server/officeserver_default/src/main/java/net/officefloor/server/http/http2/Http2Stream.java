@@ -0,0 +1,181 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.officefloor.frame.api.manage.ProcessManager;
+
+/**
+ * HTTP/2 stream carrying a request.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class Http2Stream {
+
+	/**
+	 * Stream identifier.
+	 */
+	private final int streamId;
+
+	/**
+	 * <code>:method</code> pseudo header value.
+	 */
+	String method = null;
+
+	/**
+	 * <code>:scheme</code> pseudo header value.
+	 */
+	String scheme = null;
+
+	/**
+	 * <code>:path</code> pseudo header value.
+	 */
+	String path = null;
+
+	/**
+	 * <code>:authority</code> pseudo header value.
+	 */
+	String authority = null;
+
+	/**
+	 * Request headers (excluding pseudo headers).
+	 */
+	final List<HpackHeaderField> headers = new ArrayList<>();
+
+	/**
+	 * Request entity.
+	 */
+	ByteArrayOutputStream entity = null;
+
+	/**
+	 * Indicates if the client has closed its side of the stream.
+	 */
+	boolean isRemoteClosed = false;
+
+	/**
+	 * Indicates if the request is rejected (no further servicing of stream).
+	 */
+	boolean isRejected = false;
+
+	/**
+	 * Indicates if the response has been started.
+	 */
+	boolean isResponding = false;
+
+	/**
+	 * Window for sending data on this stream.
+	 */
+	long sendWindow;
+
+	/**
+	 * Response data pending to be sent (awaiting flow control window).
+	 */
+	byte[] pendingData = null;
+
+	/**
+	 * Offset into the pending data of the next byte to send.
+	 */
+	int pendingOffset = 0;
+
+	/**
+	 * {@link ProcessManager} servicing the request.
+	 */
+	ProcessManager processManager = null;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param streamId   Stream identifier.
+	 * @param sendWindow Initial window for sending data.
+	 */
+	Http2Stream(int streamId, long sendWindow) {
+		this.streamId = streamId;
+		this.sendWindow = sendWindow;
+	}
+
+	/**
+	 * Obtains the stream identifier.
+	 * 
+	 * @return Stream identifier.
+	 */
+	public int getStreamId() {
+		return this.streamId;
+	}
+
+	/**
+	 * Obtains the request method.
+	 * 
+	 * @return Request method.
+	 */
+	public String getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Obtains the request scheme.
+	 * 
+	 * @return Request scheme.
+	 */
+	public String getScheme() {
+		return this.scheme;
+	}
+
+	/**
+	 * Obtains the request path.
+	 * 
+	 * @return Request path.
+	 */
+	public String getPath() {
+		return this.path;
+	}
+
+	/**
+	 * Obtains the request authority.
+	 * 
+	 * @return Request authority. May be <code>null</code>.
+	 */
+	public String getAuthority() {
+		return this.authority;
+	}
+
+	/**
+	 * Obtains the request headers (excluding pseudo headers).
+	 * 
+	 * @return Request headers.
+	 */
+	public List<HpackHeaderField> getHeaders() {
+		return this.headers;
+	}
+
+	/**
+	 * Obtains the request entity.
+	 * 
+	 * @return Request entity.
+	 */
+	public byte[] getEntity() {
+		return (this.entity == null) ? new byte[0] : this.entity.toByteArray();
+	}
+
+}
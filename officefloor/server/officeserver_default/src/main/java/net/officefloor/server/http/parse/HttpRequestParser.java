@@ -21,6 +21,7 @@
 
 package net.officefloor.server.http.parse;
 
+import java.net.Socket;
 import java.nio.charset.CoderResult;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -67,6 +68,19 @@ public class HttpRequestParser extends StreamBufferScanner {
 		 */
 		public final long maxEntityLength;
 
+		/**
+		 * Content-Length above which the entity is streamed (rather than
+		 * buffered). Chunked entities are always streamed. Negative value
+		 * disables streaming the entity.
+		 */
+		public final long streamEntityLength;
+
+		/**
+		 * Maximum number of chunks of the streamed entity not yet consumed
+		 * before no longer reading from the {@link Socket}.
+		 */
+		public final int maxStreamEntityBuffers;
+
 		/**
 		 * Initiate.
 		 * 
@@ -80,9 +94,36 @@ public class HttpRequestParser extends StreamBufferScanner {
 		 *            greater than this will fail parsing.
 		 */
 		public HttpRequestParserMetaData(int maxHeaderCount, int maxTextLength, long maxEntityLength) {
+			this(maxHeaderCount, maxTextLength, maxEntityLength, -1, 0);
+		}
+
+		/**
+		 * Initiate.
+		 * 
+		 * @param maxHeaderCount
+		 *            Maximum number of {@link HttpHeader} instances for a
+		 *            {@link HttpRequest}.
+		 * @param maxTextLength
+		 *            Maximum number of bytes per TEXT.
+		 * @param maxEntityLength
+		 *            Maximum length of the entity. Requests with entities
+		 *            greater than this will fail parsing.
+		 * @param streamEntityLength
+		 *            Content-Length above which the entity is streamed.
+		 *            Chunked entities are always streamed. Negative value
+		 *            disables streaming the entity.
+		 * @param maxStreamEntityBuffers
+		 *            Maximum number of chunks of the streamed entity not yet
+		 *            consumed before no longer reading from the
+		 *            {@link Socket}.
+		 */
+		public HttpRequestParserMetaData(int maxHeaderCount, int maxTextLength, long maxEntityLength,
+				long streamEntityLength, int maxStreamEntityBuffers) {
 			this.maxHeaderCount = maxHeaderCount;
 			this.maxTextLength = maxTextLength;
 			this.maxEntityLength = maxEntityLength;
+			this.streamEntityLength = streamEntityLength;
+			this.maxStreamEntityBuffers = maxStreamEntityBuffers;
 		}
 	}
 
@@ -139,6 +180,10 @@ public class HttpRequestParser extends StreamBufferScanner {
 	private static final Function<Character, HttpException> exceptionInvalidContentLengthValue = (
 			digit) -> new HttpException(new HttpStatus(HttpStatus.LENGTH_REQUIRED.getStatusCode(),
 					"Content-Length header value must be an integer"));
+	private static final Supplier<HttpException> exceptionChunkSizeTooLong = () -> new HttpException(
+			new HttpStatus(HttpStatus.BAD_REQUEST.getStatusCode(), "Chunk size too long"));
+	private static final Supplier<HttpException> exceptionInvalidChunkSize = () -> new HttpException(
+			new HttpStatus(HttpStatus.BAD_REQUEST.getStatusCode(), "Invalid chunk size"));
 
 	/**
 	 * Obtains the HTTP byte for the {@link String} value.
@@ -226,7 +271,14 @@ public class HttpRequestParser extends StreamBufferScanner {
 	 * State of parsing the {@link HttpRequest}.
 	 */
 	private static enum RequestParseState {
-		NEW_REQUEST, LEADING_CRLF, METHOD, CUSTOM_METHOD, REQUEST_URI, VERSION, CUSTOM_VERSION, REQUEST_LINE_EOLN, HEADERS, PARSE_HEADERS, ENTITY
+		NEW_REQUEST, LEADING_CRLF, METHOD, CUSTOM_METHOD, REQUEST_URI, VERSION, CUSTOM_VERSION, REQUEST_LINE_EOLN, HEADERS, PARSE_HEADERS, ENTITY, STREAM_ENTITY
+	}
+
+	/**
+	 * State of parsing a chunked HTTP entity.
+	 */
+	private static enum ChunkParseState {
+		CHUNK_SIZE, CHUNK_SIZE_EOLN, CHUNK_DATA, CHUNK_DATA_EOLN, TRAILER, TRAILER_FIELD, TRAILER_EOLN
 	}
 
 	/**
@@ -251,6 +303,11 @@ public class HttpRequestParser extends StreamBufferScanner {
 	 */
 	private HeaderParseState stateHeader = HeaderParseState.LEADING_SPACE_CHECK;
 
+	/**
+	 * {@link ChunkParseState}.
+	 */
+	private ChunkParseState stateChunk = ChunkParseState.CHUNK_SIZE;
+
 	/**
 	 * {@link Supplier} for the {@link HttpMethod}.
 	 */
@@ -281,11 +338,51 @@ public class HttpRequestParser extends StreamBufferScanner {
 	 */
 	private long contentLength = 0;
 
+	/**
+	 * Indicates if Content-Length {@link HttpHeader} provided.
+	 */
+	private boolean isContentLength = false;
+
+	/**
+	 * Indicates if the HTTP entity is sent with chunked Transfer-Encoding.
+	 */
+	private boolean isChunked = false;
+
+	/**
+	 * Size of the current chunk.
+	 */
+	private long chunkSize = 0;
+
+	/**
+	 * Number of bytes decoded so far for the chunked HTTP entity.
+	 */
+	private long chunkedEntityLength = 0;
+
+	/**
+	 * Number of trailer fields so far for the chunked HTTP entity.
+	 */
+	private int chunkedTrailerCount = 0;
+
+	/**
+	 * {@link StreamBufferByteSequence} accumulating the decoded chunks.
+	 */
+	private StreamBufferByteSequence chunkedEntity = null;
+
 	/**
 	 * {@link ByteSequence} for the HTTP entity.
 	 */
 	private ByteSequence entity = null;
 
+	/**
+	 * Indicates if the HTTP entity is streamed as it is received.
+	 */
+	private boolean isStreamEntity = false;
+
+	/**
+	 * Number of bytes remaining for the streamed Content-Length HTTP entity.
+	 */
+	private long streamEntityRemaining = 0;
+
 	/**
 	 * Initiate.
 	 * 
@@ -306,6 +403,15 @@ public class HttpRequestParser extends StreamBufferScanner {
 	 */
 	public boolean parse() throws HttpException {
 
+		// Determine if streaming the entity of the previous request
+		if (this.stateRequest == RequestParseState.STREAM_ENTITY) {
+			if (!this.parseStreamedEntity()) {
+				return false; // require further bytes
+			}
+			this.completeStreamedEntity();
+			this.stateRequest = RequestParseState.NEW_REQUEST;
+		}
+
 		// Variables for parsing
 		short checkCrLf = 0;
 
@@ -319,7 +425,16 @@ public class HttpRequestParser extends StreamBufferScanner {
 			this.version = null;
 			this.headers = null;
 			this.entity = null;
+			this.isStreamEntity = false;
+			this.streamEntityRemaining = 0;
 			this.contentLength = 0;
+			this.isContentLength = false;
+			this.isChunked = false;
+			this.chunkSize = 0;
+			this.chunkedEntityLength = 0;
+			this.chunkedTrailerCount = 0;
+			this.chunkedEntity = null;
+			this.stateChunk = ChunkParseState.CHUNK_SIZE;
 
 			this.stateRequest = RequestParseState.LEADING_CRLF;
 		case LEADING_CRLF:
@@ -591,13 +706,25 @@ public class HttpRequestParser extends StreamBufferScanner {
 									"Content-Length header value must be an integer"));
 						}
 						this.contentLength = headerValue.toLong(exceptionInvalidContentLengthValue);
+						this.isContentLength = true;
 
-						// Determine if content length too long
-						if (this.contentLength > this.metaData.maxEntityLength) {
+						// Determine if content length too long (streamed entity not held in memory)
+						if ((this.contentLength > this.metaData.maxEntityLength)
+								&& (!this.isStreamContentLength())) {
 							throw new HttpException(new HttpStatus(HttpStatus.REQUEST_ENTITY_TOO_LARGE.getStatusCode(),
 									"Request entity must be less than maximum of " + this.metaData.maxEntityLength
 											+ " bytes"));
 						}
+
+					} else if (MaterialisingHttpRequestHeaders.httpEqualsIgnoreCase("transfer-encoding",
+							this.headerName)) {
+						// Only chunked transfer coding is supported
+						headerValue.trim(); // remove spacing
+						if (!MaterialisingHttpRequestHeaders.httpEqualsIgnoreCase("chunked", headerValue)) {
+							throw new HttpException(new HttpStatus(HttpStatus.NOT_IMPLEMENTED.getStatusCode(),
+									"Only chunked Transfer-Encoding is supported"));
+						}
+						this.isChunked = true;
 					}
 
 					this.stateHeader = HeaderParseState.HEADER_EOLN;
@@ -628,13 +755,49 @@ public class HttpRequestParser extends StreamBufferScanner {
 			}
 			this.skipBytes(2); // CRLF
 
+			// Ambiguous entity length can be used to smuggle requests
+			if (this.isChunked && this.isContentLength) {
+				throw new HttpException(new HttpStatus(HttpStatus.BAD_REQUEST.getStatusCode(),
+						"Content-Length not allowed with Transfer-Encoding"));
+			}
+
+			// Determine if stream the entity
+			this.isStreamEntity = (this.metaData.streamEntityLength >= 0)
+					&& (this.isChunked || this.isStreamContentLength());
+
 			this.stateRequest = RequestParseState.ENTITY;
 		case ENTITY:
 
-			// Build entity of content length
-			this.entity = this.scanBytes(this.contentLength);
-			if (this.entity == null) {
-				return false; // require further bytes
+			// Determine if stream the entity
+			if (this.isStreamEntity) {
+
+				// Materialise request, as buffers released while streaming entity
+				HttpMethod httpMethod = this.method.get();
+				this.method = () -> httpMethod;
+				String uri = this.requestUri.get();
+				this.requestUri = () -> uri;
+				this.headers.materialiseHttpHeaders();
+
+				// Service the request, with entity streamed as received
+				this.streamEntityRemaining = this.contentLength;
+				this.stateRequest = RequestParseState.STREAM_ENTITY;
+				return true;
+			}
+
+			// Determine if chunked entity
+			if (this.isChunked) {
+				// Decode the chunks into the entity
+				if (!this.parseChunkedEntity()) {
+					return false; // require further bytes
+				}
+				this.entity = (this.chunkedEntity != null) ? this.chunkedEntity : ByteSequence.EMPTY;
+
+			} else {
+				// Build entity of content length
+				this.entity = this.scanBytes(this.contentLength);
+				if (this.entity == null) {
+					return false; // require further bytes
+				}
 			}
 
 			// Reset for new request
@@ -649,6 +812,258 @@ public class HttpRequestParser extends StreamBufferScanner {
 				"Invalid internal state in parsing request"));
 	}
 
+	/**
+	 * Parses the chunked HTTP entity.
+	 * 
+	 * @return <code>true</code> should the chunked HTTP entity be parsed.
+	 *         Otherwise, <code>false</code> if further data is required.
+	 * @throws HttpException
+	 *             If invalid chunked HTTP entity.
+	 */
+	private boolean parseChunkedEntity() throws HttpException {
+
+		// Variables for parsing
+		short checkCrLf;
+
+		// Loop until last chunk and trailer parsed
+		for (;;) {
+			switch (this.stateChunk) {
+			case CHUNK_SIZE:
+
+				// Scan in the chunk size line
+				StreamBufferByteSequence chunkSizeLine = this.scanToTarget(CR_TARGET, this.metaData.maxTextLength,
+						exceptionChunkSizeTooLong);
+				if (chunkSizeLine == null) {
+					return false; // require further bytes
+				}
+				this.chunkSize = parseChunkSize(chunkSizeLine);
+
+				// Determine if entity too long (streamed entity not held in memory)
+				if ((!this.isStreamEntity)
+						&& (this.chunkSize > (this.metaData.maxEntityLength - this.chunkedEntityLength))) {
+					throw new HttpException(new HttpStatus(HttpStatus.REQUEST_ENTITY_TOO_LARGE.getStatusCode(),
+							"Request entity must be less than maximum of " + this.metaData.maxEntityLength
+									+ " bytes"));
+				}
+
+				this.stateChunk = ChunkParseState.CHUNK_SIZE_EOLN;
+			case CHUNK_SIZE_EOLN:
+
+				// Ensure end of chunk size line
+				checkCrLf = this.buildShort(exceptionInvalidCharacter);
+				if (checkCrLf == -1) {
+					return false; // require further bytes
+				}
+				if (checkCrLf != CRLF) {
+					throw new HttpException(HttpStatus.BAD_REQUEST);
+				}
+				this.skipBytes(2); // CRLF
+
+				// Determine if last chunk
+				if (this.chunkSize == 0) {
+					this.stateChunk = ChunkParseState.TRAILER;
+					continue;
+				}
+
+				this.stateChunk = ChunkParseState.CHUNK_DATA;
+			case CHUNK_DATA:
+
+				// Stream the chunk data as received
+				if (this.isStreamEntity) {
+					while (this.chunkSize > 0) {
+						StreamBufferByteSequence data = this.scanAvailableBytes(this.chunkSize);
+						if (data == null) {
+							return false; // require further bytes
+						}
+						this.chunkSize -= data.length();
+						this.receiveStreamedEntity(data);
+					}
+					this.stateChunk = ChunkParseState.CHUNK_DATA_EOLN;
+					continue;
+				}
+
+				// Build the chunk data
+				StreamBufferByteSequence chunk = this.scanBytes(this.chunkSize);
+				if (chunk == null) {
+					return false; // require further bytes
+				}
+
+				// Append chunk to the entity
+				if (this.chunkedEntity == null) {
+					this.chunkedEntity = chunk;
+				} else {
+					this.chunkedEntity.appendByteSequence(chunk);
+				}
+				this.chunkedEntityLength += this.chunkSize;
+
+				this.stateChunk = ChunkParseState.CHUNK_DATA_EOLN;
+			case CHUNK_DATA_EOLN:
+
+				// Ensure end of chunk data
+				checkCrLf = this.buildShort(exceptionInvalidCharacter);
+				if (checkCrLf == -1) {
+					return false; // require further bytes
+				}
+				if (checkCrLf != CRLF) {
+					throw new HttpException(HttpStatus.BAD_REQUEST);
+				}
+				this.skipBytes(2); // CRLF
+
+				// Continue with next chunk
+				this.stateChunk = ChunkParseState.CHUNK_SIZE;
+				continue;
+
+			case TRAILER:
+
+				// Determine if end of trailer
+				checkCrLf = this.buildShort(exceptionInvalidCharacter);
+				if (checkCrLf == -1) {
+					return false; // require further bytes
+				}
+				if (checkCrLf == CRLF) {
+					this.skipBytes(2); // CRLF
+					return true; // chunked entity parsed
+				}
+
+				// Ensure not too many trailer fields
+				if (this.chunkedTrailerCount >= this.metaData.maxHeaderCount) {
+					throw new HttpException(
+							new HttpStatus(HttpStatus.BAD_REQUEST.getStatusCode(), "Too Many Trailer Fields"));
+				}
+
+				this.stateChunk = ChunkParseState.TRAILER_FIELD;
+			case TRAILER_FIELD:
+
+				// Skip the trailer field (not made available to request)
+				if (this.scanToTarget(CR_TARGET, this.metaData.maxTextLength, exceptionHeaderValueTooLong) == null) {
+					return false; // require further bytes
+				}
+				this.chunkedTrailerCount++;
+
+				this.stateChunk = ChunkParseState.TRAILER_EOLN;
+			case TRAILER_EOLN:
+
+				// Ensure end of trailer field
+				checkCrLf = this.buildShort(exceptionInvalidCharacter);
+				if (checkCrLf == -1) {
+					return false; // require further bytes
+				}
+				if (checkCrLf != CRLF) {
+					throw new HttpException(HttpStatus.BAD_REQUEST);
+				}
+				this.skipBytes(2); // CRLF
+
+				// Continue with next trailer field
+				this.stateChunk = ChunkParseState.TRAILER;
+				continue;
+			}
+		}
+	}
+
+	/**
+	 * Indicates if the Content-Length HTTP entity is to be streamed.
+	 * 
+	 * @return <code>true</code> to stream the Content-Length HTTP entity.
+	 */
+	private boolean isStreamContentLength() {
+		return (this.metaData.streamEntityLength >= 0) && (this.contentLength > this.metaData.streamEntityLength);
+	}
+
+	/**
+	 * Parses the streamed HTTP entity, providing the data as it is received.
+	 * 
+	 * @return <code>true</code> should the streamed HTTP entity be complete.
+	 *         Otherwise, <code>false</code> if further data is required.
+	 * @throws HttpException
+	 *             If invalid streamed HTTP entity.
+	 */
+	private boolean parseStreamedEntity() throws HttpException {
+
+		// Stream the chunks
+		if (this.isChunked) {
+			return this.parseChunkedEntity();
+		}
+
+		// Stream the Content-Length entity
+		while (this.streamEntityRemaining > 0) {
+			StreamBufferByteSequence data = this.scanAvailableBytes(this.streamEntityRemaining);
+			if (data == null) {
+				return false; // require further bytes
+			}
+			this.streamEntityRemaining -= data.length();
+			this.receiveStreamedEntity(data);
+		}
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Receives data of the streamed HTTP entity.
+	 * <p>
+	 * The {@link StreamBufferByteSequence} is only valid for the duration of this
+	 * method, so the data must be copied out.
+	 * <p>
+	 * By default, the data is discarded. Override to make use of the data.
+	 * 
+	 * @param data
+	 *            {@link StreamBufferByteSequence} of the received data.
+	 */
+	protected void receiveStreamedEntity(StreamBufferByteSequence data) {
+	}
+
+	/**
+	 * Invoked once the streamed HTTP entity is complete.
+	 */
+	protected void completeStreamedEntity() {
+	}
+
+	/**
+	 * Parses the hexadecimal chunk size, ignoring any chunk extensions.
+	 * 
+	 * @param chunkSizeLine
+	 *            {@link StreamBufferByteSequence} of the chunk size line.
+	 * @return Chunk size.
+	 * @throws HttpException
+	 *             If invalid chunk size.
+	 */
+	private static long parseChunkSize(StreamBufferByteSequence chunkSizeLine) throws HttpException {
+		long size = 0;
+		int digits = 0;
+		int length = chunkSizeLine.length();
+		for (int i = 0; i < length; i++) {
+			byte character = chunkSizeLine.byteAt(i);
+
+			// Obtain the hexadecimal value
+			int value;
+			if ((character >= '0') && (character <= '9')) {
+				value = character - '0';
+			} else if ((character >= 'a') && (character <= 'f')) {
+				value = character - 'a' + 10;
+			} else if ((character >= 'A') && (character <= 'F')) {
+				value = character - 'A' + 10;
+			} else if ((character == ';') || isWhiteSpace(character)) {
+				break; // end of size (ignore chunk extensions)
+			} else {
+				throw exceptionInvalidChunkSize.get();
+			}
+
+			// Ensure chunk size does not overflow
+			if (digits >= 15) {
+				throw exceptionInvalidChunkSize.get();
+			}
+
+			// Include the hexadecimal digit
+			size = (size << 4) | value;
+			digits++;
+		}
+
+		// Ensure have chunk size
+		if (digits == 0) {
+			throw exceptionInvalidChunkSize.get();
+		}
+		return size;
+	}
+
 	/**
 	 * Obtains the {@link Supplier} of the {@link HttpMethod}.
 	 * 
@@ -688,10 +1103,22 @@ public class HttpRequestParser extends StreamBufferScanner {
 	/**
 	 * Obtains the entity {@link ByteSequence}.
 	 * 
-	 * @return {@link ByteSequence} for the entity.
+	 * @return {@link ByteSequence} for the entity. <code>null</code> if the
+	 *         entity is streamed.
 	 */
 	public ByteSequence getEntity() {
 		return this.entity;
 	}
 
+	/**
+	 * Indicates if the entity is streamed. Should the entity be streamed, the
+	 * data is provided to {@link #receiveStreamedEntity(StreamBufferByteSequence)}
+	 * as it is received.
+	 * 
+	 * @return <code>true</code> if the entity is streamed.
+	 */
+	public boolean isStreamEntity() {
+		return this.isStreamEntity;
+	}
+
 }
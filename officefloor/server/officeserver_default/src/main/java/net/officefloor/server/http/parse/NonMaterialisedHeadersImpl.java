@@ -65,6 +65,17 @@ public class NonMaterialisedHeadersImpl implements NonMaterialisedHttpHeaders {
 		this.headers.add(new NonMaterialisedHeaderImpl(name, value));
 	}
 
+	/**
+	 * Materialises the {@link NonMaterialisedHttpHeader} instances, so that no
+	 * longer depend on the {@link StreamBufferByteSequence} content.
+	 */
+	public void materialiseHttpHeaders() {
+		for (int i = 0; i < this.headers.size(); i++) {
+			HttpHeader header = this.headers.get(i).materialiseHttpHeader();
+			this.headers.set(i, new MaterialisedHeaderImpl(header));
+		}
+	}
+
 	/*
 	 * =================== NonMaterialisedHttpHeaders ====================
 	 */
@@ -136,6 +147,42 @@ public class NonMaterialisedHeadersImpl implements NonMaterialisedHttpHeaders {
 		}
 	}
 
+	/**
+	 * {@link NonMaterialisedHttpHeader} for an already materialised
+	 * {@link HttpHeader}.
+	 */
+	private static class MaterialisedHeaderImpl implements NonMaterialisedHttpHeader {
+
+		/**
+		 * Materialised {@link HttpHeader}.
+		 */
+		private final HttpHeader header;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param header
+		 *            Materialised {@link HttpHeader}.
+		 */
+		public MaterialisedHeaderImpl(HttpHeader header) {
+			this.header = header;
+		}
+
+		/*
+		 * ================== NonMaterialisedHttpHeader ==================
+		 */
+
+		@Override
+		public CharSequence getName() {
+			return this.header.getName();
+		}
+
+		@Override
+		public HttpHeader materialiseHttpHeader() {
+			return this.header;
+		}
+	}
+
 	/**
 	 * {@link HttpHeader} implementation.
 	 */
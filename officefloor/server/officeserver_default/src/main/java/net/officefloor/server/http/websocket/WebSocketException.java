@@ -0,0 +1,75 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.websocket;
+
+/**
+ * WebSocket failure closing the connection (RFC 6455 Section 7.4).
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebSocketException extends Exception {
+
+	/**
+	 * Default serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/*
+	 * ================= Close Codes =================
+	 */
+
+	public static final int NORMAL_CLOSURE = 1000;
+	public static final int GOING_AWAY = 1001;
+	public static final int PROTOCOL_ERROR = 1002;
+	public static final int UNSUPPORTED_DATA = 1003;
+	public static final int NO_STATUS_RECEIVED = 1005;
+	public static final int INVALID_PAYLOAD_DATA = 1007;
+	public static final int POLICY_VIOLATION = 1008;
+	public static final int MESSAGE_TOO_BIG = 1009;
+	public static final int INTERNAL_ERROR = 1011;
+
+	/**
+	 * Close code.
+	 */
+	private final int closeCode;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param closeCode Close code.
+	 * @param message   Message.
+	 */
+	public WebSocketException(int closeCode, String message) {
+		super(message);
+		this.closeCode = closeCode;
+	}
+
+	/**
+	 * Obtains the close code.
+	 * 
+	 * @return Close code.
+	 */
+	public int getCloseCode() {
+		return this.closeCode;
+	}
+
+}
@@ -0,0 +1,117 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.websocket;
+
+import java.nio.charset.Charset;
+
+import net.officefloor.server.stream.impl.ByteSequence;
+
+/**
+ * Encodes the (unmasked) server WebSocket frames (RFC 6455 Section 5.2).
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebSocketFrameEncoder {
+
+	/**
+	 * {@link Charset} for the close reason.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Encodes the header for a final (unfragmented) frame.
+	 * 
+	 * @param opCode        Op code.
+	 * @param payloadLength Length of the payload following the header.
+	 * @return Frame header.
+	 */
+	public static byte[] encodeFrameHeader(int opCode, long payloadLength) {
+		byte first = (byte) (0x80 | opCode);
+		if (payloadLength < 126) {
+			return new byte[] { first, (byte) payloadLength };
+
+		} else if (payloadLength <= 0xffff) {
+			return new byte[] { first, 126, (byte) (payloadLength >> 8), (byte) payloadLength };
+
+		} else {
+			byte[] header = new byte[10];
+			header[0] = first;
+			header[1] = 127;
+			for (int i = 0; i < 8; i++) {
+				header[2 + i] = (byte) (payloadLength >> (56 - (i * 8)));
+			}
+			return header;
+		}
+	}
+
+	/**
+	 * Encodes a control frame.
+	 * 
+	 * @param opCode  Op code of the control frame.
+	 * @param payload Payload. May be <code>null</code> for no payload.
+	 * @return Control frame.
+	 */
+	public static byte[] encodeControlFrame(int opCode, ByteSequence payload) {
+		int length = (payload == null) ? 0
+				: Math.min(payload.length(), WebSocketFrameParser.MAX_CONTROL_PAYLOAD_LENGTH);
+		byte[] frame = new byte[2 + length];
+		frame[0] = (byte) (0x80 | opCode);
+		frame[1] = (byte) length;
+		if (length > 0) {
+			payload.copyTo(0, frame, 2, length);
+		}
+		return frame;
+	}
+
+	/**
+	 * Encodes a close frame.
+	 * 
+	 * @param closeCode Close code.
+	 * @param reason    Reason. May be <code>null</code>. Truncated to fit within
+	 *                  the control frame.
+	 * @return Close frame.
+	 */
+	public static byte[] encodeCloseFrame(int closeCode, String reason) {
+		byte[] reasonBytes = (reason == null) ? new byte[0] : reason.getBytes(UTF_8);
+		int reasonLength = Math.min(reasonBytes.length, WebSocketFrameParser.MAX_CONTROL_PAYLOAD_LENGTH - 2);
+		if (reasonLength < reasonBytes.length) {
+			// Truncate to character boundary (avoid splitting UTF-8 character)
+			while ((reasonLength > 0) && ((reasonBytes[reasonLength] & 0xc0) == 0x80)) {
+				reasonLength--;
+			}
+		}
+		byte[] frame = new byte[4 + reasonLength];
+		frame[0] = (byte) (0x80 | WebSocketFrameParser.OPCODE_CLOSE);
+		frame[1] = (byte) (2 + reasonLength);
+		frame[2] = (byte) (closeCode >> 8);
+		frame[3] = (byte) closeCode;
+		System.arraycopy(reasonBytes, 0, frame, 4, reasonLength);
+		return frame;
+	}
+
+	/**
+	 * All access via static methods.
+	 */
+	private WebSocketFrameEncoder() {
+	}
+
+}
@@ -0,0 +1,464 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.websocket;
+
+import net.officefloor.server.buffer.StreamBufferByteSequence;
+import net.officefloor.server.buffer.StreamBufferScanner;
+import net.officefloor.server.stream.StreamBuffer;
+
+/**
+ * <p>
+ * Parses WebSocket frames (RFC 6455 Section 5) from a
+ * {@link StreamBufferScanner}.
+ * <p>
+ * Masked payloads are unmasked in place within the pooled {@link StreamBuffer}
+ * instances, so that the payload is made available without copying.
+ * Fragmented messages are accumulated into a single payload, with control
+ * frames able to be interleaved between the fragments.
+ * <p>
+ * Text messages and close reasons are validated as UTF-8, along with the close
+ * code provided by the client.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebSocketFrameParser {
+
+	/*
+	 * ================= Op Codes =================
+	 */
+
+	public static final int OPCODE_CONTINUATION = 0x0;
+	public static final int OPCODE_TEXT = 0x1;
+	public static final int OPCODE_BINARY = 0x2;
+	public static final int OPCODE_CLOSE = 0x8;
+	public static final int OPCODE_PING = 0x9;
+	public static final int OPCODE_PONG = 0xA;
+
+	/**
+	 * Maximum payload length of a control frame.
+	 */
+	public static final int MAX_CONTROL_PAYLOAD_LENGTH = 125;
+
+	/**
+	 * Parsing the frame header.
+	 */
+	private static final int STATE_HEADER = 0;
+
+	/**
+	 * Parsing the extended payload length and masking key.
+	 */
+	private static final int STATE_LENGTH_MASK = 1;
+
+	/**
+	 * Parsing the payload.
+	 */
+	private static final int STATE_PAYLOAD = 2;
+
+	/**
+	 * {@link StreamBufferScanner}.
+	 */
+	private final StreamBufferScanner scanner;
+
+	/**
+	 * Maximum length of a message.
+	 */
+	private final long maxMessageLength;
+
+	/**
+	 * Parse state.
+	 */
+	private int state = STATE_HEADER;
+
+	/**
+	 * Indicates if the frame being parsed is the final fragment.
+	 */
+	private boolean isFinalFragment;
+
+	/**
+	 * Op code of the frame being parsed.
+	 */
+	private int frameOpCode;
+
+	/**
+	 * Number of extended payload length bytes for the frame being parsed.
+	 */
+	private int extendedLengthBytes;
+
+	/**
+	 * Payload length of the frame being parsed.
+	 */
+	private long framePayloadLength;
+
+	/**
+	 * Masking key of the frame being parsed.
+	 */
+	private final byte[] maskingKey = new byte[4];
+
+	/**
+	 * Op code of the fragmented message being accumulated. <code>-1</code> if
+	 * no fragmented message.
+	 */
+	private int fragmentedOpCode = -1;
+
+	/**
+	 * Accumulated payload of the fragmented message. May be <code>null</code>
+	 * if no payload yet.
+	 */
+	private StreamBufferByteSequence fragmentedPayload = null;
+
+	/**
+	 * Accumulated length of the fragmented message.
+	 */
+	private long fragmentedLength = 0;
+
+	/**
+	 * Op code of the parsed message.
+	 */
+	private int opCode;
+
+	/**
+	 * Payload of the parsed message.
+	 */
+	private StreamBufferByteSequence payload;
+
+	/**
+	 * Close code of the parsed close frame.
+	 */
+	private int closeCode;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param scanner          {@link StreamBufferScanner} containing the frame
+	 *                         data.
+	 * @param maxMessageLength Maximum length of a message.
+	 */
+	public WebSocketFrameParser(StreamBufferScanner scanner, long maxMessageLength) {
+		this.scanner = scanner;
+		this.maxMessageLength = maxMessageLength;
+	}
+
+	/**
+	 * Parses the next message (or control frame) from the available data.
+	 * 
+	 * @return <code>true</code> if message parsed. <code>false</code> if
+	 *         further data required.
+	 * @throws WebSocketException If invalid WebSocket data.
+	 */
+	public boolean parse() throws WebSocketException {
+		for (;;) {
+
+			// Parse the frame header
+			if (this.state == STATE_HEADER) {
+				StreamBufferByteSequence header = this.scanner.scanBytes(2);
+				if (header == null) {
+					return false; // await further data
+				}
+				int first = header.byteAt(0) & 0xff;
+				int second = header.byteAt(1) & 0xff;
+
+				// No extensions are negotiated
+				if ((first & 0x70) != 0) {
+					throw new WebSocketException(WebSocketException.PROTOCOL_ERROR,
+							"Reserved bits set without negotiated extension");
+				}
+				this.isFinalFragment = (first & 0x80) != 0;
+				this.frameOpCode = first & 0x0f;
+
+				// Client frames must be masked
+				if ((second & 0x80) == 0) {
+					throw new WebSocketException(WebSocketException.PROTOCOL_ERROR, "Client frame not masked");
+				}
+
+				// Obtain the payload length
+				int length = second & 0x7f;
+				switch (length) {
+				case 126:
+					this.extendedLengthBytes = 2;
+					break;
+				case 127:
+					this.extendedLengthBytes = 8;
+					break;
+				default:
+					this.extendedLengthBytes = 0;
+					this.framePayloadLength = length;
+					break;
+				}
+
+				// Validate the op code
+				switch (this.frameOpCode) {
+				case OPCODE_CLOSE:
+				case OPCODE_PING:
+				case OPCODE_PONG:
+					if (!this.isFinalFragment) {
+						throw new WebSocketException(WebSocketException.PROTOCOL_ERROR, "Fragmented control frame");
+					}
+					if (length > MAX_CONTROL_PAYLOAD_LENGTH) {
+						throw new WebSocketException(WebSocketException.PROTOCOL_ERROR,
+								"Control frame payload exceeds " + MAX_CONTROL_PAYLOAD_LENGTH + " bytes");
+					}
+					break;
+				case OPCODE_TEXT:
+				case OPCODE_BINARY:
+					if (this.fragmentedOpCode >= 0) {
+						throw new WebSocketException(WebSocketException.PROTOCOL_ERROR,
+								"New message before fragmented message completed");
+					}
+					break;
+				case OPCODE_CONTINUATION:
+					if (this.fragmentedOpCode < 0) {
+						throw new WebSocketException(WebSocketException.PROTOCOL_ERROR,
+								"Continuation frame without fragmented message");
+					}
+					break;
+				default:
+					throw new WebSocketException(WebSocketException.PROTOCOL_ERROR,
+							"Unknown op code " + this.frameOpCode);
+				}
+				this.state = STATE_LENGTH_MASK;
+			}
+
+			// Parse the extended payload length and masking key
+			if (this.state == STATE_LENGTH_MASK) {
+				StreamBufferByteSequence lengthMask = this.scanner.scanBytes(this.extendedLengthBytes + 4);
+				if (lengthMask == null) {
+					return false; // await further data
+				}
+				if (this.extendedLengthBytes > 0) {
+					long length = 0;
+					for (int i = 0; i < this.extendedLengthBytes; i++) {
+						length = (length << 8) | (lengthMask.byteAt(i) & 0xff);
+					}
+					if (length < 0) {
+						throw new WebSocketException(WebSocketException.PROTOCOL_ERROR,
+								"Most significant bit of payload length set");
+					}
+					this.framePayloadLength = length;
+				}
+				for (int i = 0; i < 4; i++) {
+					this.maskingKey[i] = lengthMask.byteAt(this.extendedLengthBytes + i);
+				}
+
+				// Ensure message within limits
+				if ((this.frameOpCode < OPCODE_CLOSE)
+						&& ((this.fragmentedLength + this.framePayloadLength) > this.maxMessageLength)) {
+					throw new WebSocketException(WebSocketException.MESSAGE_TOO_BIG,
+							"Message exceeds " + this.maxMessageLength + " bytes");
+				}
+				this.state = STATE_PAYLOAD;
+			}
+
+			// Parse the payload (unmasking in place)
+			StreamBufferByteSequence framePayload = null;
+			if (this.framePayloadLength > 0) {
+				framePayload = this.scanner.scanBytes(this.framePayloadLength);
+				if (framePayload == null) {
+					return false; // await further data
+				}
+				framePayload.applyMask(this.maskingKey);
+			}
+			this.state = STATE_HEADER;
+
+			// Control frames are provided immediately
+			if (this.frameOpCode >= OPCODE_CLOSE) {
+				if (this.frameOpCode == OPCODE_CLOSE) {
+					this.closeCode = validateClosePayload(framePayload);
+				}
+				this.opCode = this.frameOpCode;
+				this.payload = framePayload;
+				return true;
+			}
+
+			// Accumulate the message
+			if (this.frameOpCode != OPCODE_CONTINUATION) {
+				this.fragmentedOpCode = this.frameOpCode;
+				this.fragmentedPayload = framePayload;
+				this.fragmentedLength = this.framePayloadLength;
+			} else if (framePayload != null) {
+				if (this.fragmentedPayload == null) {
+					this.fragmentedPayload = framePayload;
+				} else {
+					this.fragmentedPayload.appendByteSequence(framePayload);
+				}
+				this.fragmentedLength += this.framePayloadLength;
+			}
+
+			// Provide message once final fragment received
+			if (this.isFinalFragment) {
+				this.opCode = this.fragmentedOpCode;
+				this.payload = this.fragmentedPayload;
+				this.fragmentedOpCode = -1;
+				this.fragmentedPayload = null;
+				this.fragmentedLength = 0;
+
+				// Ensure text is valid
+				if ((this.opCode == OPCODE_TEXT) && (!isValidUtf8(this.payload, 0))) {
+					throw new WebSocketException(WebSocketException.INVALID_PAYLOAD_DATA, "Text message not valid UTF-8");
+				}
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Validates the close frame payload.
+	 * 
+	 * @param payload Close frame payload. May be <code>null</code>.
+	 * @return Close code. {@link WebSocketException#NO_STATUS_RECEIVED} if no
+	 *         close code provided.
+	 * @throws WebSocketException If invalid close frame payload.
+	 */
+	private static int validateClosePayload(StreamBufferByteSequence payload) throws WebSocketException {
+
+		// Determine if no close code
+		if (payload == null) {
+			return WebSocketException.NO_STATUS_RECEIVED;
+		}
+		if (payload.length() < 2) {
+			throw new WebSocketException(WebSocketException.PROTOCOL_ERROR, "Invalid close payload");
+		}
+
+		// Ensure valid close code (RFC 6455 Section 7.4)
+		int closeCode = ((payload.byteAt(0) & 0xff) << 8) | (payload.byteAt(1) & 0xff);
+		switch (closeCode) {
+		case 1004: // reserved
+		case WebSocketException.NO_STATUS_RECEIVED:
+		case 1006: // abnormal closure
+		case 1015: // TLS handshake
+			throw new WebSocketException(WebSocketException.PROTOCOL_ERROR, "Reserved close code " + closeCode);
+		default:
+			if ((closeCode < 1000) || ((closeCode > 1015) && (closeCode < 3000)) || (closeCode > 4999)) {
+				throw new WebSocketException(WebSocketException.PROTOCOL_ERROR, "Invalid close code " + closeCode);
+			}
+		}
+
+		// Ensure close reason is UTF-8
+		if (!isValidUtf8(payload, 2)) {
+			throw new WebSocketException(WebSocketException.INVALID_PAYLOAD_DATA, "Close reason not valid UTF-8");
+		}
+		return closeCode;
+	}
+
+	/**
+	 * <p>
+	 * Determines if the payload is valid UTF-8 (RFC 3629).
+	 * <p>
+	 * Bytes are validated in place (without decoding), rejecting overlong
+	 * encodings, surrogates and code points beyond <code>U+10FFFF</code>.
+	 * 
+	 * @param payload Payload. May be <code>null</code>.
+	 * @param index   Index to start validating from.
+	 * @return <code>true</code> if valid UTF-8.
+	 */
+	private static boolean isValidUtf8(StreamBufferByteSequence payload, int index) {
+		if (payload == null) {
+			return true; // empty
+		}
+		int length = payload.length();
+		while (index < length) {
+			int first = payload.byteAt(index++) & 0xff;
+			if (first < 0x80) {
+				continue; // ASCII
+			}
+
+			// Determine continuation bytes and valid range of second byte
+			int continuationBytes;
+			int secondMin = 0x80;
+			int secondMax = 0xbf;
+			if ((first >= 0xc2) && (first <= 0xdf)) {
+				continuationBytes = 1;
+			} else if (first == 0xe0) {
+				continuationBytes = 2;
+				secondMin = 0xa0; // overlong
+			} else if (first == 0xed) {
+				continuationBytes = 2;
+				secondMax = 0x9f; // surrogates
+			} else if ((first >= 0xe1) && (first <= 0xef)) {
+				continuationBytes = 2;
+			} else if (first == 0xf0) {
+				continuationBytes = 3;
+				secondMin = 0x90; // overlong
+			} else if ((first >= 0xf1) && (first <= 0xf3)) {
+				continuationBytes = 3;
+			} else if (first == 0xf4) {
+				continuationBytes = 3;
+				secondMax = 0x8f; // beyond U+10FFFF
+			} else {
+				return false; // invalid lead byte
+			}
+			if ((index + continuationBytes) > length) {
+				return false; // truncated
+			}
+
+			// Validate the continuation bytes
+			int second = payload.byteAt(index++) & 0xff;
+			if ((second < secondMin) || (second > secondMax)) {
+				return false;
+			}
+			for (int i = 1; i < continuationBytes; i++) {
+				if ((payload.byteAt(index++) & 0xc0) != 0x80) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Indicates if part way through receiving a fragmented message.
+	 * 
+	 * @return <code>true</code> if awaiting further fragments of a message.
+	 */
+	public boolean isFragmentedMessage() {
+		return this.fragmentedOpCode >= 0;
+	}
+
+	/**
+	 * Obtains the op code of the parsed message (or control frame).
+	 * 
+	 * @return Op code of the parsed message.
+	 */
+	public int getOpCode() {
+		return this.opCode;
+	}
+
+	/**
+	 * Obtains the close code of the parsed close frame.
+	 * 
+	 * @return Close code of the parsed close frame.
+	 *         {@link WebSocketException#NO_STATUS_RECEIVED} if no close code
+	 *         provided.
+	 */
+	public int getCloseCode() {
+		return this.closeCode;
+	}
+
+	/**
+	 * Obtains the unmasked payload of the parsed message (or control frame).
+	 * 
+	 * @return Unmasked payload. <code>null</code> if empty payload.
+	 */
+	public StreamBufferByteSequence getPayload() {
+		return this.payload;
+	}
+
+}
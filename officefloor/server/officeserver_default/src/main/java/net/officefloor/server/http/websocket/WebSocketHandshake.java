@@ -0,0 +1,237 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.websocket;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import net.officefloor.server.http.HttpException;
+import net.officefloor.server.http.HttpHeader;
+import net.officefloor.server.http.HttpMethod;
+import net.officefloor.server.http.HttpStatus;
+import net.officefloor.server.http.HttpVersion;
+import net.officefloor.server.http.WritableHttpHeader;
+import net.officefloor.server.http.impl.NonMaterialisedHttpHeader;
+import net.officefloor.server.http.impl.NonMaterialisedHttpHeaders;
+
+/**
+ * WebSocket opening handshake (RFC 6455 Section 4.2).
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebSocketHandshake {
+
+	/**
+	 * GUID appended to the <code>Sec-WebSocket-Key</code> to create the
+	 * <code>Sec-WebSocket-Accept</code>.
+	 */
+	public static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+	/**
+	 * Supported <code>Sec-WebSocket-Version</code>.
+	 */
+	public static final String VERSION = "13";
+
+	/**
+	 * {@link HttpStatus} to reject the handshake for unsupported version.
+	 */
+	private static final HttpStatus UPGRADE_REQUIRED = new HttpStatus(426, "Upgrade Required");
+
+	/**
+	 * {@link Charset} for the <code>Sec-WebSocket-Accept</code> calculation.
+	 */
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+	/**
+	 * Determines if the request is attempting to upgrade to WebSocket.
+	 * 
+	 * @param method  {@link HttpMethod}.
+	 * @param version {@link HttpVersion}.
+	 * @param headers {@link NonMaterialisedHttpHeaders}.
+	 * @return <code>true</code> if WebSocket upgrade request.
+	 */
+	public static boolean isUpgradeRequest(HttpMethod method, HttpVersion version,
+			NonMaterialisedHttpHeaders headers) {
+
+		// Only GET for HTTP/1.1 may upgrade
+		if ((!HttpMethod.GET.isEqual(method)) || (!HttpVersion.HTTP_1_1.isEqual(version))) {
+			return false;
+		}
+
+		// Determine if upgrading to WebSocket
+		for (NonMaterialisedHttpHeader header : headers) {
+			if (isHeaderName(header.getName(), "Upgrade")) {
+				return "websocket".equalsIgnoreCase(header.materialiseHttpHeader().getValue().trim());
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determines if the {@link HttpHeader} name matches (case insensitive).
+	 * 
+	 * @param name     {@link HttpHeader} name.
+	 * @param expected Expected {@link HttpHeader} name.
+	 * @return <code>true</code> if matching name.
+	 */
+	private static boolean isHeaderName(CharSequence name, String expected) {
+		if (name.length() != expected.length()) {
+			return false;
+		}
+		for (int i = 0; i < expected.length(); i++) {
+			if (Character.toLowerCase(name.charAt(i)) != Character.toLowerCase(expected.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Creates the <code>Sec-WebSocket-Accept</code> value.
+	 * 
+	 * @param key <code>Sec-WebSocket-Key</code> value.
+	 * @return <code>Sec-WebSocket-Accept</code> value.
+	 */
+	public static String createAcceptKey(String key) {
+		try {
+			MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+			byte[] digest = sha1.digest((key + ACCEPT_GUID).getBytes(US_ASCII));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException ex) {
+			// SHA-1 required to be available by all JVMs
+			throw new IllegalStateException("SHA-1 not available", ex);
+		}
+	}
+
+	/**
+	 * Materialised {@link HttpHeader} instances of the handshake request.
+	 */
+	private final List<HttpHeader> headers;
+
+	/**
+	 * <code>Sec-WebSocket-Accept</code> value.
+	 */
+	private final String acceptKey;
+
+	/**
+	 * Instantiate validating the handshake request.
+	 * 
+	 * @param requestHeaders {@link NonMaterialisedHttpHeaders} of the handshake
+	 *                       request.
+	 * @throws HttpException If invalid handshake request.
+	 */
+	public WebSocketHandshake(NonMaterialisedHttpHeaders requestHeaders) throws HttpException {
+
+		// Materialise the headers (as request buffers are released)
+		this.headers = new ArrayList<>(requestHeaders.length());
+		for (NonMaterialisedHttpHeader header : requestHeaders) {
+			this.headers.add(header.materialiseHttpHeader());
+		}
+
+		// Ensure connection is to be upgraded
+		String connection = this.getHeaderValue("Connection");
+		boolean isConnectionUpgrade = false;
+		if (connection != null) {
+			for (String token : connection.split(",")) {
+				if ("upgrade".equalsIgnoreCase(token.trim())) {
+					isConnectionUpgrade = true;
+				}
+			}
+		}
+		if (!isConnectionUpgrade) {
+			throw new HttpException(HttpStatus.BAD_REQUEST, "WebSocket handshake requires Connection: Upgrade");
+		}
+
+		// Ensure supported version
+		String version = this.getHeaderValue("Sec-WebSocket-Version");
+		if (!VERSION.equals(version)) {
+			throw new HttpException(UPGRADE_REQUIRED,
+					new WritableHttpHeader[] { new WritableHttpHeader("Sec-WebSocket-Version", VERSION) },
+					"Unsupported WebSocket version " + version);
+		}
+
+		// Ensure valid key (base64 encoded 16 bytes)
+		String key = this.getHeaderValue("Sec-WebSocket-Key");
+		boolean isValidKey;
+		try {
+			isValidKey = (key != null) && (Base64.getDecoder().decode(key).length == 16);
+		} catch (IllegalArgumentException ex) {
+			isValidKey = false;
+		}
+		if (!isValidKey) {
+			throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid Sec-WebSocket-Key");
+		}
+		this.acceptKey = createAcceptKey(key);
+	}
+
+	/**
+	 * Obtains the materialised {@link HttpHeader} instances of the handshake
+	 * request.
+	 * 
+	 * @return {@link HttpHeader} instances of the handshake request.
+	 */
+	public List<HttpHeader> getHeaders() {
+		return this.headers;
+	}
+
+	/**
+	 * Obtains the <code>Sec-WebSocket-Accept</code> value.
+	 * 
+	 * @return <code>Sec-WebSocket-Accept</code> value.
+	 */
+	public String getAcceptKey() {
+		return this.acceptKey;
+	}
+
+	/**
+	 * Creates the {@link WritableHttpHeader} instances for the
+	 * {@link HttpStatus#SWITCHING_PROTOCOLS} response.
+	 * 
+	 * @return Head {@link WritableHttpHeader} of the response headers.
+	 */
+	public WritableHttpHeader createResponseHeaders() {
+		WritableHttpHeader upgrade = new WritableHttpHeader("Upgrade", "websocket");
+		upgrade.next = new WritableHttpHeader("Connection", "Upgrade");
+		upgrade.next.next = new WritableHttpHeader("Sec-WebSocket-Accept", this.acceptKey);
+		return upgrade;
+	}
+
+	/**
+	 * Obtains the value of the first {@link HttpHeader} by name.
+	 * 
+	 * @param name Name of the {@link HttpHeader}.
+	 * @return Value of the {@link HttpHeader}. <code>null</code> if not provided.
+	 */
+	private String getHeaderValue(String name) {
+		for (HttpHeader header : this.headers) {
+			if (name.equalsIgnoreCase(header.getName())) {
+				return header.getValue().trim();
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.websocket;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import net.officefloor.server.http.HttpHeader;
+import net.officefloor.server.http.impl.NonMaterialisedHttpHeader;
+import net.officefloor.server.http.impl.NonMaterialisedHttpHeaders;
+import net.officefloor.server.http.impl.SerialisableHttpHeader;
+
+/**
+ * {@link NonMaterialisedHttpHeaders} for a WebSocket message.
+ * <p>
+ * These are the {@link HttpHeader} instances of the handshake request, with the
+ * <code>Content-Type</code> indicating whether a text or binary message.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebSocketRequestHeaders implements NonMaterialisedHttpHeaders {
+
+	/**
+	 * <code>Content-Type</code> for text messages.
+	 */
+	public static final String TEXT_CONTENT_TYPE = "text/plain; charset=UTF-8";
+
+	/**
+	 * <code>Content-Type</code> for binary messages.
+	 */
+	public static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+
+	/**
+	 * {@link HttpHeader} instances.
+	 */
+	private final List<HttpHeader> headers;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param handshakeHeaders {@link HttpHeader} instances of the handshake
+	 *                         request.
+	 * @param contentType      <code>Content-Type</code> of the message.
+	 */
+	public WebSocketRequestHeaders(List<HttpHeader> handshakeHeaders, String contentType) {
+		this.headers = new ArrayList<>(handshakeHeaders.size() + 1);
+		for (HttpHeader header : handshakeHeaders) {
+			String name = header.getName();
+			if ((!"Content-Type".equalsIgnoreCase(name)) && (!"Content-Length".equalsIgnoreCase(name))) {
+				this.headers.add(header);
+			}
+		}
+		this.headers.add(new SerialisableHttpHeader("Content-Type", contentType));
+	}
+
+	/*
+	 * ================ NonMaterialisedHttpHeaders ================
+	 */
+
+	@Override
+	public Iterator<NonMaterialisedHttpHeader> iterator() {
+		Iterator<HttpHeader> iterator = this.headers.iterator();
+		return new Iterator<NonMaterialisedHttpHeader>() {
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public NonMaterialisedHttpHeader next() {
+				HttpHeader header = iterator.next();
+				return new NonMaterialisedHttpHeader() {
+
+					@Override
+					public CharSequence getName() {
+						return header.getName();
+					}
+
+					@Override
+					public HttpHeader materialiseHttpHeader() {
+						return header;
+					}
+				};
+			}
+		};
+	}
+
+	@Override
+	public int length() {
+		return this.headers.size();
+	}
+
+}
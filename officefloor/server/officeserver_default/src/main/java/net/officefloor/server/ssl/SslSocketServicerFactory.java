@@ -22,8 +22,11 @@
 package net.officefloor.server.ssl;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -37,6 +40,7 @@ import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLEngineResult;
 import javax.net.ssl.SSLEngineResult.HandshakeStatus;
 import javax.net.ssl.SSLEngineResult.Status;
+import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSession;
 
 import net.officefloor.frame.api.manage.ProcessManager;
@@ -65,6 +69,43 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 	 */
 	private static final Logger LOGGER = Logger.getLogger(SslSocketServicerFactory.class.getName());
 
+	/**
+	 * <code>SSLParameters.setApplicationProtocols(String[])</code> for ALPN.
+	 * <code>null</code> if JVM does not support ALPN (Java 8).
+	 */
+	private static final Method SET_APPLICATION_PROTOCOLS;
+
+	/**
+	 * Maximum plain text size of a TLS record. Application data is gathered up to
+	 * this size to wrap into a single TLS record.
+	 */
+	private static final int MAX_RECORD_PLAIN_TEXT_SIZE = 1 << 14;
+
+	/**
+	 * Size of the TLS record header.
+	 */
+	private static final int TLS_RECORD_HEADER_SIZE = 5;
+
+	/**
+	 * Maximum number of {@link ByteBuffer} instances gathered for a single wrap.
+	 */
+	private static final int MAX_WRAP_GATHER_COUNT = 16;
+
+	/**
+	 * Empty application data for wrapping handshake data.
+	 */
+	private static final ByteBuffer[] HANDSHAKE_SOURCE = new ByteBuffer[] { ByteBuffer.allocate(0) };
+
+	static {
+		Method setApplicationProtocols = null;
+		try {
+			setApplicationProtocols = SSLParameters.class.getMethod("setApplicationProtocols", String[].class);
+		} catch (NoSuchMethodException ex) {
+			// ALPN not supported
+		}
+		SET_APPLICATION_PROTOCOLS = setApplicationProtocols;
+	}
+
 	/**
 	 * {@link SSLContext}.
 	 */
@@ -90,6 +131,24 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 	 */
 	private final Executor executor;
 
+	/**
+	 * Application protocols for ALPN. May be <code>null</code> to not negotiate
+	 * application protocol.
+	 */
+	private final String[] applicationProtocols;
+
+	/**
+	 * <p>
+	 * Scratch {@link ByteBuffer} to wrap / unwrap a TLS record that does not fit
+	 * within a pooled {@link ByteBuffer}.
+	 * <p>
+	 * Processing is always undertaken on the {@link Socket} listener
+	 * {@link Thread} and the data is copied out to pooled {@link StreamBuffer}
+	 * instances before servicing / writing. This avoids allocating a buffer per
+	 * connection (or per TLS record).
+	 */
+	private final ThreadLocal<ByteBuffer> scratchBuffer = new ThreadLocal<>();
+
 	/**
 	 * Instantiate.
 	 * 
@@ -103,11 +162,64 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 	public SslSocketServicerFactory(SSLContext sslContext, SocketServicerFactory<R> delegateSocketServicerFactory,
 			RequestServicerFactory<R> delegateRequestServicerFactory, StreamBufferPool<ByteBuffer> bufferPool,
 			Executor executor) {
+		this(sslContext, delegateSocketServicerFactory, delegateRequestServicerFactory, bufferPool, executor, null);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param sslContext                     {@link SSLContext}.
+	 * @param delegateSocketServicerFactory  Delegate {@link SocketServicerFactory}.
+	 * @param delegateRequestServicerFactory Delegate
+	 *                                       {@link RequestServicerFactory}.
+	 * @param bufferPool                     {@link StreamBufferPool}.
+	 * @param executor                       {@link Executor}.
+	 * @param applicationProtocols           Application protocols (in order of
+	 *                                       preference) for ALPN. May be
+	 *                                       <code>null</code>. Ignored if JVM
+	 *                                       does not support ALPN.
+	 */
+	public SslSocketServicerFactory(SSLContext sslContext, SocketServicerFactory<R> delegateSocketServicerFactory,
+			RequestServicerFactory<R> delegateRequestServicerFactory, StreamBufferPool<ByteBuffer> bufferPool,
+			Executor executor, String[] applicationProtocols) {
 		this.sslContext = sslContext;
 		this.delegateSocketServicerFactory = delegateSocketServicerFactory;
 		this.delegateRequestServicerFactory = delegateRequestServicerFactory;
 		this.bufferPool = bufferPool;
 		this.executor = executor;
+		this.applicationProtocols = applicationProtocols;
+	}
+
+	/**
+	 * Obtains the scratch {@link ByteBuffer} for the {@link Thread}.
+	 * 
+	 * @param size Minimum size of the scratch {@link ByteBuffer}.
+	 * @return Cleared scratch {@link ByteBuffer}.
+	 */
+	private ByteBuffer getScratchBuffer(int size) {
+		ByteBuffer buffer = this.scratchBuffer.get();
+		if ((buffer == null) || (buffer.capacity() < size)) {
+			buffer = ByteBuffer.allocate(size);
+			this.scratchBuffer.set(buffer);
+		}
+		BufferJvmFix.clear(buffer);
+		return buffer;
+	}
+
+	/**
+	 * Copies data from the source to the target {@link ByteBuffer} (as much as
+	 * fits).
+	 * 
+	 * @param source Source {@link ByteBuffer}.
+	 * @param target Target {@link ByteBuffer}.
+	 */
+	private static void copy(ByteBuffer source, ByteBuffer target) {
+		int copyLength = Math.min(source.remaining(), target.remaining());
+		int sourcePosition = BufferJvmFix.position(source);
+		ByteBuffer copy = source.duplicate();
+		BufferJvmFix.limit(copy, sourcePosition + copyLength);
+		target.put(copy);
+		BufferJvmFix.position(source, sourcePosition + copyLength);
 	}
 
 	/*
@@ -121,16 +233,31 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 		SSLEngine engine = this.sslContext.createSSLEngine();
 		engine.setUseClientMode(false); // server mode
 
+		// Negotiate the application protocol (if supported)
+		if ((this.applicationProtocols != null) && (SET_APPLICATION_PROTOCOLS != null)) {
+			SSLParameters parameters = engine.getSSLParameters();
+			try {
+				SET_APPLICATION_PROTOCOLS.invoke(parameters, (Object) this.applicationProtocols);
+				engine.setSSLParameters(parameters);
+			} catch (Exception ex) {
+				LOGGER.log(Level.WARNING, "Failed to configure ALPN", ex);
+			}
+		}
+
 		// Create the delegate socket servicer
+		SslRequestHandler sslRequestHandler = new SslRequestHandler(requestHandler);
 		SocketServicer<R> delegateSocketServicer = this.delegateSocketServicerFactory
-				.createSocketServicer(requestHandler);
+				.createSocketServicer(sslRequestHandler);
 
 		// Create the delegate request servicer
 		RequestServicer<R> delegateRequestServicer = this.delegateRequestServicerFactory
 				.createRequestServicer(delegateSocketServicer);
 
 		// Return the SSL socket servicer
-		return new SslSocketServicer(engine, requestHandler, delegateSocketServicer, delegateRequestServicer);
+		SslSocketServicer sslSocketServicer = new SslSocketServicer(engine, requestHandler, delegateSocketServicer,
+				delegateRequestServicer);
+		sslRequestHandler.sslSocketServicer = sslSocketServicer;
+		return sslSocketServicer;
 	}
 
 	/*
@@ -179,6 +306,35 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 		 */
 		private int currentSocketToUnwrapLimit = 0;
 
+		/**
+		 * {@link ByteBuffer} to combine {@link Socket} data when a TLS record spans
+		 * multiple read {@link ByteBuffer} instances. Lazily created and re-used for
+		 * the connection.
+		 */
+		private ByteBuffer combinedSocketToUnwrapBuffer = null;
+
+		/**
+		 * Pooled {@link StreamBuffer} instances containing the unwrapped application
+		 * data to be serviced.
+		 */
+		@SuppressWarnings("unchecked")
+		private StreamBuffer<ByteBuffer>[] unwrapStreamBuffers = new StreamBuffer[4];
+
+		/**
+		 * Gathered application data {@link ByteBuffer} instances for a single wrap.
+		 */
+		private final ByteBuffer[] wrapSources = new ByteBuffer[MAX_WRAP_GATHER_COUNT];
+
+		/**
+		 * Head {@link StreamBuffer} of the wrapped data to be written.
+		 */
+		private StreamBuffer<ByteBuffer> wrapResponseHead = null;
+
+		/**
+		 * Tail {@link StreamBuffer} of the wrapped data to be written.
+		 */
+		private StreamBuffer<ByteBuffer> wrapResponseTail = null;
+
 		/**
 		 * {@link StreamBuffer} instance containing the unwrap to application data.
 		 */
@@ -259,6 +415,51 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 				this.currentUnwrapToAppBuffer.release();
 				this.currentUnwrapToAppBuffer = null;
 			}
+			while (this.previousRequestBuffers != null) {
+				StreamBuffer<ByteBuffer> release = this.previousRequestBuffers;
+				this.previousRequestBuffers = this.previousRequestBuffers.next;
+				release.release();
+			}
+
+			// Release buffers of requests not responded
+			for (SslRequest sslRequest : this.sslRequests) {
+				StreamBuffer<ByteBuffer> releaseHead = sslRequest.releaseRequestBuffers;
+				while (releaseHead != null) {
+					StreamBuffer<ByteBuffer> release = releaseHead;
+					releaseHead = releaseHead.next;
+					release.release();
+				}
+				releaseHead = sslRequest.headPartialResponseBuffer;
+				while (releaseHead != null) {
+					StreamBuffer<ByteBuffer> release = releaseHead;
+					releaseHead = releaseHead.next;
+					release.release();
+				}
+			}
+			this.sslRequests.clear();
+
+			// Allow delegate to release
+			this.delegateSocketServicer.release();
+		}
+
+		/**
+		 * Releases the application {@link StreamBuffer} instances already serviced
+		 * (along with the {@link Socket} read {@link StreamBuffer} instances once
+		 * unwrapped).
+		 */
+		private synchronized void releaseServicedReadBuffers() {
+
+			// Release the serviced application buffers
+			while (this.previousRequestBuffers != null) {
+				StreamBuffer<ByteBuffer> release = this.previousRequestBuffers;
+				this.previousRequestBuffers = this.previousRequestBuffers.next;
+				release.release();
+			}
+
+			// Release socket buffers (only once all data unwrapped)
+			if (this.socketToUnwrapBuffers.size() == 0) {
+				this.requestHandler.releaseServicedReadBuffers();
+			}
 		}
 
 		/*
@@ -274,90 +475,247 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 			this.previousRequestBuffers = null; // included for release
 
 			// Application level request, so delegate
-			return this.delegateRequestServicer.service(request, (responseHeaderWriter, headResponseBuffer) -> {
+			return this.delegateRequestServicer.service(request, new ResponseWriter() {
+
+				@Override
+				public void write(ResponseHeaderWriter responseHeaderWriter,
+						StreamBuffer<ByteBuffer> headResponseBuffer) {
+					SslSocketServicer.this.writeResponse(sslRequest, responseHeaderWriter, headResponseBuffer);
+				}
+
+				@Override
+				public void writePartial(ResponseHeaderWriter responseHeaderWriter,
+						StreamBuffer<ByteBuffer> headResponseBuffer) {
+					SslSocketServicer.this.writePartialResponse(sslRequest, responseHeaderWriter,
+							headResponseBuffer, -1);
+				}
+
+				@Override
+				public void offerPartial(ResponseHeaderWriter responseHeaderWriter,
+						StreamBuffer<ByteBuffer> headResponseBuffer, int maxPendingWrites) {
+					SslSocketServicer.this.writePartialResponse(sslRequest, responseHeaderWriter,
+							headResponseBuffer, maxPendingWrites);
+				}
+
+				@Override
+				public boolean isConnectionClosed() {
+					return sslRequest.responseWriter.isConnectionClosed();
+				}
+			});
+		}
+
+		/**
+		 * <p>
+		 * Writes part of the response for the {@link SslRequest}.
+		 * <p>
+		 * The part is wrapped and sent once the {@link SslRequest} is at the head of
+		 * the pipeline of {@link SslRequest} instances. Until then, the part is held
+		 * so that the responses are wrapped in order.
+		 * 
+		 * @param sslRequest           {@link SslRequest}.
+		 * @param responseHeaderWriter {@link ResponseHeaderWriter}. May be
+		 *                             <code>null</code>.
+		 * @param headResponseBuffer   Head {@link StreamBuffer} of the part of the
+		 *                             response. May be <code>null</code>.
+		 * @param maxPendingWrites     Maximum number of {@link StreamBuffer}
+		 *                             instances pending before dropping the client.
+		 *                             Negative for no limit (with back-pressure).
+		 */
+		private void writePartialResponse(SslRequest sslRequest, ResponseHeaderWriter responseHeaderWriter,
+				StreamBuffer<ByteBuffer> headResponseBuffer, int maxPendingWrites) {
+
+			// Write part of response on socket thread (keeping order of wrapped data)
+			this.requestHandler.execute(() -> {
+				synchronized (SslSocketServicer.this) {
+
+					// Determine if request still active (connection may be closed)
+					boolean isActive = this.sslRequests.contains(sslRequest);
+
+					// Drop the client if too much of the response held
+					boolean isDrop = false;
+					if (isActive && (maxPendingWrites >= 0)) {
+						int pendingCount = 0;
+						StreamBuffer<ByteBuffer> pending = sslRequest.headPartialResponseBuffer;
+						while (pending != null) {
+							pendingCount++;
+							pending = pending.next;
+						}
+						isDrop = (pendingCount >= maxPendingWrites);
+					}
+					if ((!isActive) || isDrop) {
+						StreamBuffer<ByteBuffer> releaseHead = headResponseBuffer;
+						while (releaseHead != null) {
+							StreamBuffer<ByteBuffer> release = releaseHead;
+							releaseHead = releaseHead.next;
+							release.release();
+						}
+						if (isDrop) {
+							this.requestHandler.closeConnection(null);
+						}
+						return;
+					}
+
+					// Include the part of the response
+					sslRequest.appendPartialResponse(responseHeaderWriter, headResponseBuffer,
+							SslSocketServicerFactory.this.bufferPool);
+
+					// Send the part immediately if head of pipeline
+					if (this.sslRequests.get(0) == sslRequest) {
+						this.sendPartialResponse(sslRequest, maxPendingWrites);
+					}
+				}
+			});
+
+			// Provide back-pressure (when not blocking socket listener)
+			if (maxPendingWrites < 0) {
+				this.requestHandler.awaitPendingWrites();
+			}
+		}
+
+		/**
+		 * Wraps and sends the held parts of the response for the {@link SslRequest}
+		 * at the head of the pipeline.
+		 * 
+		 * @param sslRequest       {@link SslRequest}.
+		 * @param maxPendingWrites Maximum number of {@link StreamBuffer} instances
+		 *                         pending write before dropping the client. Negative
+		 *                         for no limit.
+		 */
+		private void sendPartialResponse(SslRequest sslRequest, int maxPendingWrites) {
+
+			// Determine if parts of the response to send
+			StreamBuffer<ByteBuffer> partHead = sslRequest.headPartialResponseBuffer;
+			if (partHead == null) {
+				return; // nothing to send
+			}
+			sslRequest.headPartialResponseBuffer = null;
 
-				// Process request on socket thread
-				this.requestHandler.execute(() -> {
+			// Wrap the parts of the response and send
+			this.includeAppToWrap(partHead);
+			this.process(new PartialResponseWriter(sslRequest.responseWriter, maxPendingWrites));
+		}
 
-					// Process the response
-					synchronized (SslSocketServicer.this) {
+		/**
+		 * Includes the application data to be wrapped.
+		 * 
+		 * @param responseHead Head {@link StreamBuffer} of the application data.
+		 */
+		private void includeAppToWrap(StreamBuffer<ByteBuffer> responseHead) {
+
+			// Prepare the response buffers for writing
+			StreamBuffer<ByteBuffer> buffer = responseHead;
+			while (buffer != null) {
+				if (buffer.pooledBuffer != null) {
+					BufferJvmFix.flip(buffer.pooledBuffer);
+				}
+				buffer = buffer.next;
+			}
 
-						// Register the response for request
+			// Include the response
+			if (this.currentAppToWrapBuffer == null) {
+				// Only response to wrap
+				this.currentAppToWrapBuffer = responseHead;
+			} else {
+				// Add to existing responses
+				StreamBuffer<ByteBuffer> responseTail = this.currentAppToWrapBuffer;
+				while (responseTail.next != null) {
+					responseTail = responseTail.next;
+				}
+				responseTail.next = responseHead;
+			}
+		}
+
+		/**
+		 * Writes the response for the {@link SslRequest}.
+		 * 
+		 * @param sslRequest           {@link SslRequest}.
+		 * @param responseHeaderWriter {@link ResponseHeaderWriter}. May be
+		 *                             <code>null</code>.
+		 * @param headResponseBuffer   Head {@link StreamBuffer} of the response. May
+		 *                             be <code>null</code>.
+		 */
+		private void writeResponse(SslRequest sslRequest, ResponseHeaderWriter responseHeaderWriter,
+				StreamBuffer<ByteBuffer> headResponseBuffer) {
+
+			// Process request on socket thread
+			this.requestHandler.execute(() -> {
+
+				// Process the response
+				synchronized (SslSocketServicer.this) {
+
+					// Register the response for request (after any previous parts)
+					if (sslRequest.headPartialResponseBuffer != null) {
+						sslRequest.appendPartialResponse(responseHeaderWriter, headResponseBuffer,
+								SslSocketServicerFactory.this.bufferPool);
+						sslRequest.responseHeaderWriter = null;
+						sslRequest.headResponseBuffer = sslRequest.headPartialResponseBuffer;
+						sslRequest.headPartialResponseBuffer = null;
+					} else {
 						sslRequest.responseHeaderWriter = responseHeaderWriter;
 						sslRequest.headResponseBuffer = headResponseBuffer;
+					}
+					sslRequest.isResponseComplete = true;
 
-						// Process SSL responses in order
-						Iterator<SslRequest> iterator = this.sslRequests.iterator();
-						while (iterator.hasNext()) {
-							SslRequest completeRequest = iterator.next();
-
-							// Determine if request is complete
-							if ((completeRequest.responseHeaderWriter == null)
-									&& (completeRequest.headResponseBuffer == null)) {
-								return; // request not complete
-							}
+					// Process SSL responses in order
+					Iterator<SslRequest> iterator = this.sslRequests.iterator();
+					while (iterator.hasNext()) {
+						SslRequest completeRequest = iterator.next();
 
-							// Remove the request, as complete
-							iterator.remove();
+						// Determine if request is complete
+						if (!completeRequest.isResponseComplete) {
 
-							// Release the previous request buffers
-							StreamBuffer<ByteBuffer> releaseHead = completeRequest.releaseRequestBuffers;
-							while (releaseHead != null) {
-								StreamBuffer<ByteBuffer> release = releaseHead;
-								releaseHead = releaseHead.next;
+							// Now head of pipeline, so send parts of response
+							this.sendPartialResponse(completeRequest, -1);
+							return; // request not complete
+						}
 
-								// Release
-								release.release();
-							}
+						// Remove the request, as complete
+						iterator.remove();
 
-							// Include header information
-							StreamBuffer<ByteBuffer> responseHead = null;
-							if (completeRequest.responseHeaderWriter != null) {
-								responseHead = SslSocketServicerFactory.this.bufferPool.getPooledStreamBuffer();
-								completeRequest.responseHeaderWriter.write(responseHead,
-										SslSocketServicerFactory.this.bufferPool);
-							}
+						// Release the previous request buffers
+						StreamBuffer<ByteBuffer> releaseHead = completeRequest.releaseRequestBuffers;
+						while (releaseHead != null) {
+							StreamBuffer<ByteBuffer> release = releaseHead;
+							releaseHead = releaseHead.next;
 
-							// Append the response buffers
-							if (responseHead == null) {
-								// Only response buffers (no header)
-								responseHead = completeRequest.headResponseBuffer;
-							} else {
-								// Append response buffers to header
-								StreamBuffer<ByteBuffer> responseTail = responseHead;
-								while (responseTail.next != null) {
-									responseTail = responseTail.next;
-								}
-								responseTail.next = completeRequest.headResponseBuffer;
-							}
+							// Release
+							release.release();
+						}
 
-							// Prepare the response buffers for writing
-							StreamBuffer<ByteBuffer> buffer = responseHead;
-							while (buffer != null) {
-								if (buffer.pooledBuffer != null) {
-									BufferJvmFix.flip(buffer.pooledBuffer);
-								}
-								buffer = buffer.next;
-							}
+						// Include header information
+						StreamBuffer<ByteBuffer> responseHead = null;
+						if (completeRequest.responseHeaderWriter != null) {
+							responseHead = SslSocketServicerFactory.this.bufferPool.getPooledStreamBuffer();
+							completeRequest.responseHeaderWriter.write(responseHead,
+									SslSocketServicerFactory.this.bufferPool);
+						}
 
-							// Include the response
-							if (this.currentAppToWrapBuffer == null) {
-								// Only response to wrap
-								this.currentAppToWrapBuffer = responseHead;
-							} else {
-								// Add to existing responses
-								StreamBuffer<ByteBuffer> responseTail = this.currentAppToWrapBuffer;
-								while (responseTail.next != null) {
-									responseTail = responseTail.next;
-								}
-								responseTail.next = responseHead;
+						// Append the response buffers
+						if (responseHead == null) {
+							// Only response buffers (no header)
+							responseHead = completeRequest.headResponseBuffer;
+						} else {
+							// Append response buffers to header
+							StreamBuffer<ByteBuffer> responseTail = responseHead;
+							while (responseTail.next != null) {
+								responseTail = responseTail.next;
 							}
+							responseTail.next = completeRequest.headResponseBuffer;
+						}
 
-							// Write the response
-							this.process(completeRequest.responseWriter);
+						// Complete response (already sent in parts) with no further data
+						if (responseHead == null) {
+							completeRequest.responseWriter.write(null, null);
+							continue;
 						}
+
+						// Include the response
+						this.includeAppToWrap(responseHead);
+
+						// Write the response
+						this.process(completeRequest.responseWriter);
 					}
-				});
+				}
 			});
 		}
 
@@ -415,10 +773,20 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 						break;
 
 					case NEED_TASK:
-						// Trigger processing of the delegated task
-						this.sslRunnable = new SslRunnable(this.engine.getDelegatedTask(), this);
+						// Batch all delegated tasks to run together
+						List<Runnable> tasks = new ArrayList<>(2);
+						Runnable task;
+						while ((task = this.engine.getDelegatedTask()) != null) {
+							tasks.add(task);
+						}
+						if (tasks.size() == 0) {
+							continue; // tasks already run
+						}
+
+						// Trigger processing of the delegated tasks
+						this.sslRunnable = new SslRunnable(tasks, this);
 						SslSocketServicerFactory.this.executor.execute(this.sslRunnable);
-						return; // Must wait on task to complete
+						return; // Must wait on tasks to complete
 
 					case NOT_HANDSHAKING:
 						// Flag data to process
@@ -442,360 +810,706 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 					// Handle actions
 					if (isInputData) {
 						// Handle inputting data
+						if (!this.unwrap(session)) {
+							return; // require further data (or closed)
+						}
+					}
 
-						// Obtain the read data
-						ByteBuffer readBuffer;
-						if (this.socketToUnwrapBuffers.size() == 1) {
-							// Just the one read buffer
-							readBuffer = this.socketToUnwrapBuffers.removeFirst();
-						} else {
-							// Must combine all input buffers
-							int appToWrapLength = 0;
-							for (ByteBuffer buffer : this.socketToUnwrapBuffers) {
-								appToWrapLength += buffer.remaining();
-							}
-							readBuffer = ByteBuffer.allocate(appToWrapLength);
-							for (ByteBuffer buffer : this.socketToUnwrapBuffers) {
-								readBuffer.put(buffer);
-							}
-							BufferJvmFix.flip(readBuffer);
-							this.socketToUnwrapBuffers.clear();
+					if (isOutputData) {
+						// Handle outputting data
+						if (!this.wrap(session, responseWriter)) {
+							return; // closed
 						}
+					}
+				}
 
-						// Obtain the unwrap to application buffer
-						boolean isNewBuffer = false;
-						ByteBuffer unwrapBuffer;
-						if (this.currentUnwrapToAppBuffer == null) {
-							// Must have buffer
-							this.currentUnwrapToAppBuffer = SslSocketServicerFactory.this.bufferPool
-									.getPooledStreamBuffer();
-							unwrapBuffer = this.currentUnwrapToAppBuffer.pooledBuffer;
-							isNewBuffer = true;
+			} catch (Throwable ex) {
+				// Record failure of processing to fail further interaction
+				if (ex instanceof IOException) {
+					this.failure = (IOException) ex;
+				} else {
+					this.failure = new IOException(ex);
+				}
 
-						} else {
-							// Obtain the buffer (could be overflow unpooled)
-							unwrapBuffer = (this.currentUnwrapToAppBuffer.pooledBuffer != null)
-									? this.currentUnwrapToAppBuffer.pooledBuffer
-									: this.currentUnwrapToAppBuffer.unpooledByteBuffer;
-
-							// Determine if require new buffer
-							if (unwrapBuffer.remaining() == 0) {
-								// Require new buffer, so track for releasing
-								if (this.previousRequestBuffers == null) {
-									// First previous for request
-									this.previousRequestBuffers = this.currentAppToWrapBuffer;
-								} else {
-									// Append previous for request
-									StreamBuffer<ByteBuffer> head = this.previousRequestBuffers;
-									while (head.next != null) {
-										head = head.next;
-									}
-									head.next = this.currentAppToWrapBuffer;
-								}
-
-								// Create new buffer
-								this.currentUnwrapToAppBuffer = SslSocketServicerFactory.this.bufferPool
-										.getPooledStreamBuffer();
-								unwrapBuffer = this.currentUnwrapToAppBuffer.pooledBuffer;
-								isNewBuffer = true;
-							}
-						}
+				// Log SSL failure
+				if (LOGGER.isLoggable(Level.INFO)) {
+					LOGGER.log(Level.INFO, "Failure in SSL connection", ex);
+				}
 
-						// Unwrap the socket data for the application
-						SSLEngineResult sslEngineResult = this.engine.unwrap(readBuffer, unwrapBuffer);
+				// Failure, so close connection
+				this.requestHandler.closeConnection(ex);
+			}
+		}
 
-						// Determine if consumed all data
-						if (readBuffer.remaining() != 0) {
-							// Keep track of buffer (for next unwrap)
-							this.socketToUnwrapBuffers.addLast(readBuffer);
-						}
+		/**
+		 * Unwraps the {@link Socket} data to the application.
+		 * 
+		 * @param session {@link SSLSession}.
+		 * @return <code>true</code> to continue processing. <code>false</code> if
+		 *         require further data or closed.
+		 * @throws IOException If fails to unwrap.
+		 */
+		private boolean unwrap(SSLSession session) throws IOException {
 
-						// Handle underflow / overflow
-						Status status = sslEngineResult.getStatus();
-						switch (status) {
-						case BUFFER_UNDERFLOW:
-							// Need further data
-							return;
-
-						case BUFFER_OVERFLOW:
-							// Not enough space for application data
-							this.currentUnwrapToAppBuffer.release();
-							this.currentUnwrapToAppBuffer = null;
-
-							// Create buffer with enough space
-							int applicationBufferSize = session.getApplicationBufferSize();
-							byte[] applicationData = new byte[applicationBufferSize];
-							this.currentUnwrapToAppBuffer = SslSocketServicerFactory.this.bufferPool
-									.getUnpooledStreamBuffer(ByteBuffer.wrap(applicationData));
-							unwrapBuffer = this.currentUnwrapToAppBuffer.unpooledByteBuffer;
-							isNewBuffer = true;
-
-							// Wrap the data
-							sslEngineResult = this.engine.unwrap(readBuffer, unwrapBuffer);
-							status = sslEngineResult.getStatus();
-							if (status == Status.BUFFER_UNDERFLOW) {
-								return; // need further data
-							}
+			// Obtain the read data
+			ByteBuffer readBuffer = this.getSocketToUnwrapBuffer(session);
 
-						default:
-							// No underflow / overflow, so carry on
-							break;
-						}
+			// Release current buffer once request serviced (if full)
+			if ((this.currentUnwrapToAppBuffer != null) && (this.currentUnwrapToAppBuffer.pooledBuffer.remaining() == 0)) {
+				this.releaseOnServicingRequest(this.currentUnwrapToAppBuffer);
+				this.currentUnwrapToAppBuffer = null;
+			}
 
-						// Process based on status
-						switch (status) {
-						case OK:
-							// Handle any unwrapped data
-							if (BufferJvmFix.position(unwrapBuffer) > 0) {
+			// Determine if able to unwrap directly into pooled buffer
+			int recordLength = getCompleteRecordLength(readBuffer);
+			StreamBuffer<ByteBuffer> available = null;
+			StreamBuffer<ByteBuffer> direct = null;
+			if (recordLength >= 0) {
+				if (this.currentUnwrapToAppBuffer != null) {
+					// Unwrap into remaining space of current buffer
+					if (this.currentUnwrapToAppBuffer.pooledBuffer.remaining() >= recordLength) {
+						direct = this.currentUnwrapToAppBuffer;
+					}
+				} else {
+					// Unwrap into new buffer
+					available = SslSocketServicerFactory.this.bufferPool.getPooledStreamBuffer();
+					if (available.pooledBuffer.remaining() >= recordLength) {
+						direct = available;
+						available = null;
+					}
+				}
+			}
 
-								// Determine if unpooled (transform to pooled)
-								StreamBuffer<ByteBuffer> serviceStreamBuffer = (this.currentUnwrapToAppBuffer.pooledBuffer != null)
-										? this.currentUnwrapToAppBuffer
-										: new ServiceUnpooledStreamBuffer(this.currentUnwrapToAppBuffer);
+			// Unwrap the socket data for the application
+			ByteBuffer unwrapBuffer;
+			if (direct != null) {
+				unwrapBuffer = direct.pooledBuffer;
+			} else {
+				unwrapBuffer = SslSocketServicerFactory.this.getScratchBuffer(session.getApplicationBufferSize());
+			}
+			SSLEngineResult sslEngineResult = this.engine.unwrap(readBuffer, unwrapBuffer);
+			if (sslEngineResult.getStatus() == Status.BUFFER_OVERFLOW) {
+				// Not enough space for application data, so unwrap into larger buffer
+				if (direct == this.currentUnwrapToAppBuffer) {
+					direct = null; // keep current buffer
+				} else if (direct != null) {
+					available = direct; // use for copying application data
+					direct = null;
+				}
+				int applicationBufferSize = this.engine.getSession().getApplicationBufferSize();
+				unwrapBuffer = SslSocketServicerFactory.this.getScratchBuffer(applicationBufferSize);
+				sslEngineResult = this.engine.unwrap(readBuffer, unwrapBuffer);
+				if (sslEngineResult.getStatus() == Status.BUFFER_OVERFLOW) {
+					throw new IOException("Unable to unwrap into application buffer of size " + applicationBufferSize);
+				}
+			}
+
+			// Keep track of remaining data (for next unwrap)
+			if (readBuffer.remaining() != 0) {
+				this.socketToUnwrapBuffers.addFirst(readBuffer);
+			}
 
-								// Service the request
-								this.delegateSocketServicer.service(serviceStreamBuffer,
-										serviceStreamBuffer.pooledBuffer.position(), isNewBuffer);
+			// Load the buffers containing the unwrapped data
+			Status status = sslEngineResult.getStatus();
+			int serviceCount = 0;
+			if ((status == Status.OK) && (sslEngineResult.bytesProduced() > 0)) {
+				if (direct != null) {
+					// Unwrapped directly into pooled buffer
+					serviceCount = this.addUnwrapBuffer(direct, serviceCount);
 
+				} else {
+					// Copy the application data into pooled buffers
+					BufferJvmFix.flip(unwrapBuffer);
+					StreamBuffer<ByteBuffer> target = this.currentUnwrapToAppBuffer;
+					while (unwrapBuffer.remaining() > 0) {
+
+						// Ensure have space to copy the application data
+						if ((target == null) || (target.pooledBuffer.remaining() == 0)) {
+							if (available != null) {
+								target = available;
+								available = null;
 							} else {
-								// Release the unused buffer
-								this.currentUnwrapToAppBuffer.release();
-								this.currentUnwrapToAppBuffer = null;
-							}
-							break;
-
-						case CLOSED:
-							// Should be no application input data on close.
-							// Determine if in close handshake.
-							HandshakeStatus closeHandshakeStatus = this.engine.getHandshakeStatus();
-							switch (closeHandshakeStatus) {
-							case NEED_TASK:
-							case NEED_UNWRAP:
-							case NEED_WRAP:
-								// Allow close handshake to proceed
-								break;
-							case NOT_HANDSHAKING:
-								// Close handshake complete, close connection
-								this.requestHandler.closeConnection(null);
-								return; // closed, no further interaction
-							default:
-								throw new IllegalStateException("Unknown status " + status);
+								target = SslSocketServicerFactory.this.bufferPool.getPooledStreamBuffer();
 							}
-							break;
-						default:
-							throw new IllegalStateException("Unknown unwrap status " + status);
 						}
+						if ((serviceCount == 0) || (this.unwrapStreamBuffers[serviceCount - 1] != target)) {
+							serviceCount = this.addUnwrapBuffer(target, serviceCount);
+						}
+
+						// Copy the data
+						copy(unwrapBuffer, target.pooledBuffer);
 					}
+				}
+			}
 
-					if (isOutputData) {
-						// Handle outputting data
+			// Release the unused buffers
+			if (available != null) {
+				available.release();
+			}
+			if ((direct != null) && (serviceCount == 0) && (direct != this.currentUnwrapToAppBuffer)) {
+				direct.release();
+			}
 
-						// Determine if handshake response
-						ByteBuffer appToWrapBuffer;
-						if (this.currentAppToWrapBuffer == null) {
+			// Service the unwrapped data (after copying, as may re-enter)
+			for (int i = 0; i < serviceCount; i++) {
+				StreamBuffer<ByteBuffer> streamBuffer = this.unwrapStreamBuffers[i];
+				this.unwrapStreamBuffers[i] = null;
 
-							// Use the socket read data (as handshaking)
-							if (this.socketToUnwrapBuffers.size() == 1) {
-								// Just the one buffer
-								appToWrapBuffer = this.socketToUnwrapBuffers.removeFirst();
-							} else {
-								// Must combine all input buffers
-								int appToWrapLength = 0;
-								for (ByteBuffer buffer : this.socketToUnwrapBuffers) {
-									appToWrapLength += buffer.remaining();
-								}
-								appToWrapBuffer = ByteBuffer.allocate(appToWrapLength);
-								for (ByteBuffer buffer : this.socketToUnwrapBuffers) {
-									appToWrapBuffer.put(buffer);
-								}
-								BufferJvmFix.flip(appToWrapBuffer);
-								this.socketToUnwrapBuffers.clear();
-							}
+				// Previous buffer is full, so release once request serviced
+				boolean isNewBuffer = (streamBuffer != this.currentUnwrapToAppBuffer);
+				if (isNewBuffer && (this.currentUnwrapToAppBuffer != null)) {
+					this.releaseOnServicingRequest(this.currentUnwrapToAppBuffer);
+				}
+				this.currentUnwrapToAppBuffer = streamBuffer;
 
-							// Specify for processing
-							this.currentAppToWrapBuffer = SslSocketServicerFactory.this.bufferPool
-									.getUnpooledStreamBuffer(appToWrapBuffer);
-						}
+				// Service the data
+				this.delegateSocketServicer.service(streamBuffer, BufferJvmFix.position(streamBuffer.pooledBuffer),
+						isNewBuffer);
+			}
 
-						// Wrap all the data
-						Status status = Status.OK;
-						StreamBuffer<ByteBuffer> responseHead = null;
-						StreamBuffer<ByteBuffer> responseTail = null;
-						while (this.currentAppToWrapBuffer != null) {
-
-							// Obtain the response stream buffer
-							StreamBuffer<ByteBuffer> wrapToResponseBuffer = SslSocketServicerFactory.this.bufferPool
-									.getPooledStreamBuffer();
-
-							// Determine if file buffer
-							SSLEngineResult sslEngineResult;
-							StreamBuffer<ByteBuffer> fileContents;
-							long fileBytesCount;
-							if (this.currentAppToWrapBuffer.fileBuffer != null) {
-								// Obtain the file content
-								FileBuffer fileBuffer = this.currentAppToWrapBuffer.fileBuffer;
-
-								// Obtain the app to wrap buffer
-								fileContents = SslSocketServicerFactory.this.bufferPool.getPooledStreamBuffer();
-								appToWrapBuffer = fileContents.pooledBuffer;
-
-								// Obtain the position and count
-								long position = fileBuffer.position + fileBuffer.bytesWritten;
-								fileBytesCount = (fileBuffer.count < 0 ? fileBuffer.file.size() - fileBuffer.position
-										: fileBuffer.count);
-								long count = fileBytesCount - fileBuffer.bytesWritten;
-
-								// Read bytes from file
-								int bytesRead = fileBuffer.file.read(appToWrapBuffer, position);
-								BufferJvmFix.flip(appToWrapBuffer);
-								if (bytesRead > count) {
-									// Truncate off additional read data
-									BufferJvmFix.limit(appToWrapBuffer, (int) count);
-								}
-
-								// Wrap the written data
-								sslEngineResult = this.engine.wrap(appToWrapBuffer, wrapToResponseBuffer.pooledBuffer);
+			// Process based on status
+			switch (status) {
+			case BUFFER_UNDERFLOW:
+				// Need further data
+				return false;
+
+			case OK:
+				// Continue processing
+				return true;
+
+			case CLOSED:
+				// Should be no application input data on close.
+				// Determine if in close handshake.
+				HandshakeStatus closeHandshakeStatus = this.engine.getHandshakeStatus();
+				switch (closeHandshakeStatus) {
+				case NEED_TASK:
+				case NEED_UNWRAP:
+				case NEED_WRAP:
+					// Allow close handshake to proceed
+					return true;
+				case NOT_HANDSHAKING:
+					// Close handshake complete, close connection
+					this.requestHandler.closeConnection(null);
+					return false; // closed, no further interaction
+				default:
+					throw new IllegalStateException("Unknown status " + status);
+				}
 
-							} else {
-								// Obtain the Pooled / Unpooled application data
-								fileContents = null;
-								fileBytesCount = -1;
-								appToWrapBuffer = (this.currentAppToWrapBuffer.pooledBuffer != null)
-										? this.currentAppToWrapBuffer.pooledBuffer
-										: this.currentAppToWrapBuffer.unpooledByteBuffer;
-
-								// Wrap the written data
-								sslEngineResult = this.engine.wrap(appToWrapBuffer, wrapToResponseBuffer.pooledBuffer);
-							}
+			default:
+				throw new IllegalStateException("Unknown unwrap status " + status);
+			}
+		}
 
-							// Handle underflow / overflow
-							status = sslEngineResult.getStatus();
-							switch (status) {
-							case BUFFER_OVERFLOW:
+		/**
+		 * Obtains the length of the TLS record (excluding header) at the start of the
+		 * {@link Socket} data.
+		 * 
+		 * @param readBuffer {@link ByteBuffer} containing the {@link Socket} data.
+		 * @return Length of the TLS record. <code>-1</code> if the {@link ByteBuffer}
+		 *         does not contain the complete TLS record.
+		 */
+		private int getCompleteRecordLength(ByteBuffer readBuffer) {
+			int remaining = readBuffer.remaining();
+			if (remaining < TLS_RECORD_HEADER_SIZE) {
+				return -1; // incomplete header
+			}
+			int position = BufferJvmFix.position(readBuffer);
+			int length = ((readBuffer.get(position + 3) & 0xff) << 8) | (readBuffer.get(position + 4) & 0xff);
+			return ((TLS_RECORD_HEADER_SIZE + length) <= remaining) ? length : -1;
+		}
 
-								// Not enough space on buffer, so release it
-								wrapToResponseBuffer.release();
+		/**
+		 * Obtains the {@link Socket} data to unwrap.
+		 * 
+		 * @param session {@link SSLSession}.
+		 * @return {@link ByteBuffer} containing the {@link Socket} data to unwrap.
+		 */
+		private ByteBuffer getSocketToUnwrapBuffer(SSLSession session) {
 
-								// Create buffer with enough space
-								int packetBufferSize = session.getPacketBufferSize();
-								wrapToResponseBuffer = SslSocketServicerFactory.this.bufferPool
-										.getUnpooledStreamBuffer(ByteBuffer.allocate(packetBufferSize));
+			// Determine if just the one read buffer
+			if (this.socketToUnwrapBuffers.size() == 1) {
+				return this.socketToUnwrapBuffers.removeFirst();
+			}
 
-								// Wrap the data
-								sslEngineResult = this.engine.wrap(appToWrapBuffer,
-										wrapToResponseBuffer.unpooledByteBuffer);
+			// Must combine all input buffers
+			int length = 0;
+			for (ByteBuffer buffer : this.socketToUnwrapBuffers) {
+				length += buffer.remaining();
+			}
+			ByteBuffer combined = this.combinedSocketToUnwrapBuffer;
+			if ((combined == null) || (combined.capacity() < length)) {
+				// Create larger buffer (re-used for further combining)
+				combined = ByteBuffer.allocate(Math.max(length, session.getPacketBufferSize()));
+				this.combinedSocketToUnwrapBuffer = combined;
+
+			} else if (this.socketToUnwrapBuffers.peekFirst() == combined) {
+				// Remaining data from previous unwrap, so keep and append
+				this.socketToUnwrapBuffers.removeFirst();
+				combined.compact();
+
+			} else {
+				// Re-use the buffer
+				BufferJvmFix.clear(combined);
+			}
+			for (ByteBuffer buffer : this.socketToUnwrapBuffers) {
+				combined.put(buffer);
+			}
+			BufferJvmFix.flip(combined);
+			this.socketToUnwrapBuffers.clear();
+			return combined;
+		}
 
-								// Prepare for writing
-								BufferJvmFix.flip(wrapToResponseBuffer.unpooledByteBuffer);
+		/**
+		 * Adds a {@link StreamBuffer} containing unwrapped application data to be
+		 * serviced.
+		 * 
+		 * @param streamBuffer {@link StreamBuffer}.
+		 * @param unwrapCount  Current number of unwrap {@link StreamBuffer} instances.
+		 * @return Number of unwrap {@link StreamBuffer} instances.
+		 */
+		private int addUnwrapBuffer(StreamBuffer<ByteBuffer> streamBuffer, int unwrapCount) {
+			if (unwrapCount >= this.unwrapStreamBuffers.length) {
+				this.unwrapStreamBuffers = Arrays.copyOf(this.unwrapStreamBuffers, unwrapCount * 2);
+			}
+			this.unwrapStreamBuffers[unwrapCount] = streamBuffer;
+			return unwrapCount + 1;
+		}
 
-							default:
-								// Carry on to process
-								break;
-							}
+		/**
+		 * Registers the {@link StreamBuffer} to be released on servicing the next
+		 * request.
+		 * 
+		 * @param streamBuffer {@link StreamBuffer}.
+		 */
+		private void releaseOnServicingRequest(StreamBuffer<ByteBuffer> streamBuffer) {
+			streamBuffer.next = this.previousRequestBuffers;
+			this.previousRequestBuffers = streamBuffer;
+		}
 
-							// Determine if stream buffer written
-							boolean isStreamBufferWritten;
-							if (fileContents != null) {
-								// Release the file contents (as written)
-								fileContents.release();
+		/**
+		 * Wraps the application data for the {@link Socket}.
+		 * 
+		 * @param session        {@link SSLSession}.
+		 * @param responseWriter {@link ResponseWriter} to use in sending the response.
+		 *                       <code>null</code> to send handshake data immediately.
+		 * @return <code>true</code> to continue processing. <code>false</code> if
+		 *         closed.
+		 * @throws IOException If fails to wrap.
+		 */
+		private boolean wrap(SSLSession session, ResponseWriter responseWriter) throws IOException {
+
+			// Determine if handshake response
+			boolean isHandshake = (this.currentAppToWrapBuffer == null);
+
+			// Wrap all the data
+			Status status;
+			do {
+
+				// Gather the application data to wrap (up to maximum record size)
+				ByteBuffer[] sources;
+				int sourceCount = 0;
+				StreamBuffer<ByteBuffer> fileContents = null;
+				long fileBytesCount = -1;
+				if (isHandshake) {
+					// No application data for handshake
+					sources = HANDSHAKE_SOURCE;
+					sourceCount = 1;
+
+				} else if (this.currentAppToWrapBuffer.fileBuffer != null) {
+					// Obtain the file content
+					FileBuffer fileBuffer = this.currentAppToWrapBuffer.fileBuffer;
+					sources = this.wrapSources;
+
+					// Obtain the position and count
+					long position = fileBuffer.position + fileBuffer.bytesWritten;
+					fileBytesCount = (fileBuffer.count < 0 ? fileBuffer.file.size() - fileBuffer.position
+							: fileBuffer.count);
+					long count = fileBytesCount - fileBuffer.bytesWritten;
+
+					// Read the file content into pooled buffers
+					long gathered = 0;
+					StreamBuffer<ByteBuffer> fileContentsTail = null;
+					while ((count > 0) && (sourceCount < sources.length)
+							&& (gathered < MAX_RECORD_PLAIN_TEXT_SIZE)) {
+
+						// Obtain the buffer for file content
+						StreamBuffer<ByteBuffer> content = SslSocketServicerFactory.this.bufferPool
+								.getPooledStreamBuffer();
+						if (fileContents == null) {
+							fileContents = content;
+						} else {
+							fileContentsTail.next = content;
+						}
+						fileContentsTail = content;
+						ByteBuffer contentBuffer = content.pooledBuffer;
+						if (contentBuffer.remaining() > count) {
+							// Truncate off additional data
+							BufferJvmFix.limit(contentBuffer, (int) count);
+						}
 
-								// Increment the number of bytes read from file
-								int bytesConsumed = sslEngineResult.bytesConsumed();
-								FileBuffer fileBuffer = this.currentAppToWrapBuffer.fileBuffer;
-								fileBuffer.bytesWritten += bytesConsumed;
-								isStreamBufferWritten = (fileBuffer.bytesWritten == fileBytesCount);
+						// Read bytes from file
+						int bytesRead = fileBuffer.file.read(contentBuffer, position);
+						if (bytesRead <= 0) {
+							throw new IOException("File truncated while writing");
+						}
+						BufferJvmFix.flip(contentBuffer);
+						sources[sourceCount++] = contentBuffer;
+						position += bytesRead;
+						count -= bytesRead;
+						gathered += bytesRead;
+					}
 
-								// Callback once stream buffer written
-								if ((isStreamBufferWritten) && (fileBuffer.callback != null)) {
-									fileBuffer.callback.complete(fileBuffer.file, true);
-								}
+				} else {
+					// Gather the Pooled / Unpooled application data
+					sources = this.wrapSources;
+					long gathered = 0;
+					StreamBuffer<ByteBuffer> streamBuffer = this.currentAppToWrapBuffer;
+					while ((streamBuffer != null) && (streamBuffer.fileBuffer == null)
+							&& (sourceCount < sources.length) && (gathered < MAX_RECORD_PLAIN_TEXT_SIZE)) {
+						ByteBuffer data = (streamBuffer.pooledBuffer != null) ? streamBuffer.pooledBuffer
+								: streamBuffer.unpooledByteBuffer;
+						sources[sourceCount++] = data;
+						gathered += data.remaining();
+						streamBuffer = streamBuffer.next;
+					}
+				}
 
-							} else {
-								// Determine if pooled / unpooled written
-								isStreamBufferWritten = (appToWrapBuffer.remaining() == 0);
-							}
+				// Wrap the gathered data
+				SSLEngineResult sslEngineResult;
+				if (sourceCount == 0) {
+					sslEngineResult = null; // empty file content
+				} else {
+					sslEngineResult = this.wrap(sources, sourceCount, session);
+				}
+				if (sources != HANDSHAKE_SOURCE) {
+					Arrays.fill(sources, 0, sourceCount, null);
+				}
 
-							// Handle wrap
-							status = sslEngineResult.getStatus();
-							switch (status) {
-							case OK:
-							case CLOSED:
-								// Include buffer in response
-								if (responseHead == null) {
-									// First buffer
-									responseHead = wrapToResponseBuffer;
-									responseTail = wrapToResponseBuffer;
-								} else {
-									// Append
-									responseTail.next = wrapToResponseBuffer;
-									responseTail = wrapToResponseBuffer;
-								}
-								break;
-
-							default:
-								throw new IllegalStateException("Unknown wrap status " + status);
-							}
+				// Handle wrap
+				status = (sslEngineResult == null) ? Status.OK : sslEngineResult.getStatus();
+				switch (status) {
+				case OK:
+				case CLOSED:
+					// Carry on to process
+					break;
 
-							// Move to next buffer, only if written all
-							if (isStreamBufferWritten) {
+				default:
+					throw new IllegalStateException("Unknown wrap status " + status);
+				}
+				boolean isNoProgress = (sslEngineResult != null) && (sslEngineResult.bytesConsumed() == 0)
+						&& (sslEngineResult.bytesProduced() == 0);
+
+				// Release the written application data
+				if (isHandshake) {
+					// Handshake data wrapped
+					break;
+
+				} else if (this.currentAppToWrapBuffer.fileBuffer != null) {
+					// Release the file contents (as written)
+					while (fileContents != null) {
+						StreamBuffer<ByteBuffer> release = fileContents;
+						fileContents = fileContents.next;
+						release.release();
+					}
 
-								// Move to next buffer to wrap
-								StreamBuffer<ByteBuffer> release = this.currentAppToWrapBuffer;
-								this.currentAppToWrapBuffer = this.currentAppToWrapBuffer.next;
+					// Increment the number of bytes read from file
+					FileBuffer fileBuffer = this.currentAppToWrapBuffer.fileBuffer;
+					if (sslEngineResult != null) {
+						fileBuffer.bytesWritten += sslEngineResult.bytesConsumed();
+					}
+					if (fileBuffer.bytesWritten >= fileBytesCount) {
 
-								// Release application data buffer (after move)
-								release.release();
-							}
+						// Callback once stream buffer written
+						if (fileBuffer.callback != null) {
+							fileBuffer.callback.complete(fileBuffer.file, true);
 						}
 
-						// Send the response
-						if (responseWriter != null) {
-							// Write data for the response
-							responseWriter.write(null, responseHead);
+						// Move to next buffer to wrap
+						StreamBuffer<ByteBuffer> release = this.currentAppToWrapBuffer;
+						this.currentAppToWrapBuffer = this.currentAppToWrapBuffer.next;
+						release.release();
+					}
 
-						} else {
-							// Send the handshake data immediately
-							this.requestHandler.sendImmediateData(responseHead);
+				} else {
+					// Move past all written buffers
+					while ((this.currentAppToWrapBuffer != null) && (this.currentAppToWrapBuffer.fileBuffer == null)) {
+						ByteBuffer data = (this.currentAppToWrapBuffer.pooledBuffer != null)
+								? this.currentAppToWrapBuffer.pooledBuffer
+								: this.currentAppToWrapBuffer.unpooledByteBuffer;
+						if (data.remaining() > 0) {
+							break; // not all written
 						}
 
-						// Determine if in close handshake
-						if (status == Status.CLOSED) {
-							HandshakeStatus closeHandshakeStatus = this.engine.getHandshakeStatus();
-							switch (closeHandshakeStatus) {
-							case NEED_TASK:
-							case NEED_UNWRAP:
-							case NEED_WRAP:
-								// Allow close handshake to proceed
-								break;
-							case NOT_HANDSHAKING:
-								// Close complete, close connection
-								this.requestHandler.closeConnection(null);
-								return; // closed, no further processing
-							default:
-								throw new IllegalStateException("Unknown status " + status);
-							}
-							break;
-						}
+						// Move to next buffer to wrap
+						StreamBuffer<ByteBuffer> release = this.currentAppToWrapBuffer;
+						this.currentAppToWrapBuffer = this.currentAppToWrapBuffer.next;
+
+						// Release application data buffer (after move)
+						release.release();
 					}
 				}
 
-			} catch (Throwable ex) {
-				// Record failure of processing to fail further interaction
-				if (ex instanceof IOException) {
-					this.failure = (IOException) ex;
+				// Stop if unable to wrap further (e.g. handshake in progress)
+				if (isNoProgress) {
+					break;
+				}
+			} while (this.currentAppToWrapBuffer != null);
+
+			// Obtain the response (ensuring always a response)
+			StreamBuffer<ByteBuffer> responseHead = this.wrapResponseHead;
+			if (responseHead == null) {
+				responseHead = SslSocketServicerFactory.this.bufferPool.getPooledStreamBuffer();
+			}
+			this.wrapResponseHead = null;
+			this.wrapResponseTail = null;
+
+			// Send the response
+			if (responseWriter != null) {
+				// Write data for the response
+				responseWriter.write(null, responseHead);
+
+			} else {
+				// Send the handshake data immediately
+				this.requestHandler.sendImmediateData(responseHead);
+			}
+
+			// Determine if in close handshake
+			if (status == Status.CLOSED) {
+				HandshakeStatus closeHandshakeStatus = this.engine.getHandshakeStatus();
+				switch (closeHandshakeStatus) {
+				case NEED_TASK:
+				case NEED_UNWRAP:
+				case NEED_WRAP:
+					// Allow close handshake to proceed
+					break;
+				case NOT_HANDSHAKING:
+					// Close complete, close connection
+					this.requestHandler.closeConnection(null);
+					return false; // closed, no further processing
+				default:
+					throw new IllegalStateException("Unknown status " + status);
+				}
+			}
+
+			// Continue processing
+			return true;
+		}
+
+		/**
+		 * Wraps the gathered application data into a TLS record appended to the
+		 * response.
+		 * 
+		 * @param sources     Gathered application data.
+		 * @param sourceCount Number of gathered application data {@link ByteBuffer}
+		 *                    instances.
+		 * @param session     {@link SSLSession}.
+		 * @return {@link SSLEngineResult}.
+		 * @throws IOException If fails to wrap.
+		 */
+		private SSLEngineResult wrap(ByteBuffer[] sources, int sourceCount, SSLSession session) throws IOException {
+
+			// Determine if able to wrap directly into pooled buffer
+			int packetBufferSize = session.getPacketBufferSize();
+			ByteBuffer packet;
+			StreamBuffer<ByteBuffer> available = null;
+			if ((this.wrapResponseTail != null) && (this.wrapResponseTail.pooledBuffer.remaining() >= packetBufferSize)) {
+				// Wrap into remaining space of response
+				packet = this.wrapResponseTail.pooledBuffer;
+
+			} else {
+				available = SslSocketServicerFactory.this.bufferPool.getPooledStreamBuffer();
+				if (available.pooledBuffer.remaining() >= packetBufferSize) {
+					// Wrap directly into pooled buffer
+					this.appendWrapResponse(available);
+					packet = available.pooledBuffer;
+					available = null;
+
 				} else {
-					this.failure = new IOException(ex);
+					// Pooled buffers too small, so wrap into scratch buffer
+					packet = SslSocketServicerFactory.this.getScratchBuffer(packetBufferSize);
 				}
+			}
 
-				// Log SSL failure
-				if (LOGGER.isLoggable(Level.INFO)) {
-					LOGGER.log(Level.INFO, "Failure in SSL connection", ex);
+			// Wrap the application data
+			SSLEngineResult sslEngineResult = this.engine.wrap(sources, 0, sourceCount, packet);
+			if (sslEngineResult.getStatus() == Status.BUFFER_OVERFLOW) {
+				// Packet size changed (e.g. after handshake), so use larger buffer
+				packetBufferSize = this.engine.getSession().getPacketBufferSize();
+				packet = SslSocketServicerFactory.this.getScratchBuffer(packetBufferSize);
+				sslEngineResult = this.engine.wrap(sources, 0, sourceCount, packet);
+				if (sslEngineResult.getStatus() == Status.BUFFER_OVERFLOW) {
+					throw new IOException("Unable to wrap into packet buffer of size " + packetBufferSize);
 				}
+			}
 
-				// Failure, so close connection
-				this.requestHandler.closeConnection(ex);
+			// Copy packet data into pooled buffers of response
+			if (packet == SslSocketServicerFactory.this.scratchBuffer.get()) {
+				BufferJvmFix.flip(packet);
+				while (packet.remaining() > 0) {
+
+					// Ensure have space to copy the packet data
+					if ((this.wrapResponseTail == null) || (this.wrapResponseTail.pooledBuffer.remaining() == 0)) {
+						if (available == null) {
+							available = SslSocketServicerFactory.this.bufferPool.getPooledStreamBuffer();
+						}
+						this.appendWrapResponse(available);
+						available = null;
+					}
+
+					// Copy the data
+					copy(packet, this.wrapResponseTail.pooledBuffer);
+				}
+			}
+
+			// Release the unused buffer
+			if (available != null) {
+				available.release();
+			}
+
+			// Return the result
+			return sslEngineResult;
+		}
+
+		/**
+		 * Appends the {@link StreamBuffer} to the wrapped response.
+		 * 
+		 * @param streamBuffer {@link StreamBuffer}.
+		 */
+		private void appendWrapResponse(StreamBuffer<ByteBuffer> streamBuffer) {
+			if (this.wrapResponseHead == null) {
+				this.wrapResponseHead = streamBuffer;
+			} else {
+				this.wrapResponseTail.next = streamBuffer;
+			}
+			this.wrapResponseTail = streamBuffer;
+		}
+	}
+
+	/**
+	 * {@link RequestHandler} for the delegate {@link SocketServicer}, so that
+	 * releasing serviced read {@link StreamBuffer} instances releases the unwrapped
+	 * application {@link StreamBuffer} instances.
+	 */
+	private class SslRequestHandler implements RequestHandler<R> {
+
+		/**
+		 * {@link Socket} {@link RequestHandler}.
+		 */
+		private final RequestHandler<R> requestHandler;
+
+		/**
+		 * {@link SslSocketServicer}.
+		 */
+		private SslSocketServicer sslSocketServicer;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param requestHandler {@link Socket} {@link RequestHandler}.
+		 */
+		private SslRequestHandler(RequestHandler<R> requestHandler) {
+			this.requestHandler = requestHandler;
+		}
+
+		/*
+		 * ================= RequestHandler ====================
+		 */
+
+		@Override
+		public void execute(Execution execution) {
+			this.requestHandler.execute(execution);
+		}
+
+		@Override
+		public void handleRequest(R request) throws IllegalStateException {
+			this.requestHandler.handleRequest(request);
+		}
+
+		@Override
+		public void sendImmediateData(StreamBuffer<ByteBuffer> immediateHead) throws IllegalStateException {
+			this.requestHandler.sendImmediateData(immediateHead);
+		}
+
+		@Override
+		public void setReadInterest(boolean isReadInterest) throws IllegalStateException {
+			this.requestHandler.setReadInterest(isReadInterest);
+		}
+
+		@Override
+		public void releaseServicedReadBuffers() throws IllegalStateException {
+			this.sslSocketServicer.releaseServicedReadBuffers();
+		}
+
+		@Override
+		public void awaitPendingWrites() {
+			this.requestHandler.awaitPendingWrites();
+		}
+
+		@Override
+		public void closeConnection(Throwable exception) {
+			this.requestHandler.closeConnection(exception);
+		}
+	}
+
+	/**
+	 * {@link ResponseWriter} to send the wrapped part of a response.
+	 */
+	private static class PartialResponseWriter implements ResponseWriter {
+
+		/**
+		 * {@link ResponseWriter} for the {@link Socket}.
+		 */
+		private final ResponseWriter responseWriter;
+
+		/**
+		 * Maximum number of {@link StreamBuffer} instances pending write before
+		 * dropping the client. Negative for no limit.
+		 */
+		private final int maxPendingWrites;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param responseWriter   {@link ResponseWriter} for the {@link Socket}.
+		 * @param maxPendingWrites Maximum number of {@link StreamBuffer} instances
+		 *                         pending write before dropping the client. Negative
+		 *                         for no limit.
+		 */
+		private PartialResponseWriter(ResponseWriter responseWriter, int maxPendingWrites) {
+			this.responseWriter = responseWriter;
+			this.maxPendingWrites = maxPendingWrites;
+		}
+
+		/*
+		 * ================== ResponseWriter ==================
+		 */
+
+		@Override
+		public void write(ResponseHeaderWriter responseHeaderWriter, StreamBuffer<ByteBuffer> headResponseBuffer) {
+			// Wrapped data is only part of the response
+			if (this.maxPendingWrites < 0) {
+				this.responseWriter.writePartial(responseHeaderWriter, headResponseBuffer);
+			} else {
+				this.responseWriter.offerPartial(responseHeaderWriter, headResponseBuffer, this.maxPendingWrites);
 			}
 		}
+
+		@Override
+		public void writePartial(ResponseHeaderWriter responseHeaderWriter,
+				StreamBuffer<ByteBuffer> headResponseBuffer) {
+			this.responseWriter.writePartial(responseHeaderWriter, headResponseBuffer);
+		}
+
+		@Override
+		public void offerPartial(ResponseHeaderWriter responseHeaderWriter,
+				StreamBuffer<ByteBuffer> headResponseBuffer, int maxPendingWrites) {
+			this.responseWriter.offerPartial(responseHeaderWriter, headResponseBuffer, maxPendingWrites);
+		}
+
+		@Override
+		public boolean isConnectionClosed() {
+			return this.responseWriter.isConnectionClosed();
+		}
 	}
 
 	/**
@@ -826,6 +1540,18 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 		 */
 		private StreamBuffer<ByteBuffer> headResponseBuffer = null;
 
+		/**
+		 * Head {@link StreamBuffer} to the linked list of {@link StreamBuffer}
+		 * instances for parts of the response held until the {@link SslRequest} is
+		 * at the head of the pipeline.
+		 */
+		private StreamBuffer<ByteBuffer> headPartialResponseBuffer = null;
+
+		/**
+		 * Indicates if the response is complete.
+		 */
+		private boolean isResponseComplete = false;
+
 		/**
 		 * Instantiate.
 		 * 
@@ -839,17 +1565,53 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 			this.releaseRequestBuffers = releaseRequestBuffers;
 			this.responseWriter = reponseWriter;
 		}
+
+		/**
+		 * Appends part of the response.
+		 * 
+		 * @param responseHeaderWriter {@link ResponseHeaderWriter}. May be
+		 *                             <code>null</code>.
+		 * @param headResponseBuffer   Head {@link StreamBuffer} of the part of the
+		 *                             response. May be <code>null</code>.
+		 * @param bufferPool           {@link StreamBufferPool}.
+		 */
+		private void appendPartialResponse(ResponseHeaderWriter responseHeaderWriter,
+				StreamBuffer<ByteBuffer> headResponseBuffer, StreamBufferPool<ByteBuffer> bufferPool) {
+
+			// Write the header for the part
+			StreamBuffer<ByteBuffer> partHead = headResponseBuffer;
+			if (responseHeaderWriter != null) {
+				partHead = bufferPool.getPooledStreamBuffer();
+				responseHeaderWriter.write(partHead, bufferPool);
+				StreamBuffer<ByteBuffer> partTail = partHead;
+				while (partTail.next != null) {
+					partTail = partTail.next;
+				}
+				partTail.next = headResponseBuffer;
+			}
+
+			// Append the part
+			if (this.headPartialResponseBuffer == null) {
+				this.headPartialResponseBuffer = partHead;
+			} else {
+				StreamBuffer<ByteBuffer> tail = this.headPartialResponseBuffer;
+				while (tail.next != null) {
+					tail = tail.next;
+				}
+				tail.next = partHead;
+			}
+		}
 	}
 
 	/**
-	 * Wraps the SSL {@link Runnable} to be executed.
+	 * Wraps the SSL {@link Runnable} instances to be executed.
 	 */
 	private static class SslRunnable implements Runnable {
 
 		/**
-		 * Actual SSL task to be run.
+		 * Actual SSL tasks to be run.
 		 */
-		private final Runnable task;
+		private final List<Runnable> tasks;
 
 		/**
 		 * {@link SslSocketServicer}.
@@ -859,11 +1621,11 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 		/**
 		 * Initiate.
 		 * 
-		 * @param task              SSL task to be run.
+		 * @param tasks             SSL tasks to be run.
 		 * @param sslSocketServicer {@link SslSocketServicer}.
 		 */
-		private SslRunnable(Runnable task, SslSocketServicerFactory<?>.SslSocketServicer sslSocketServicer) {
-			this.task = task;
+		private SslRunnable(List<Runnable> tasks, SslSocketServicerFactory<?>.SslSocketServicer sslSocketServicer) {
+			this.tasks = tasks;
 			this.sslSocketServicer = sslSocketServicer;
 		}
 
@@ -874,8 +1636,10 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 		@Override
 		public void run() {
 			try {
-				// Run task and ensure notify when complete
-				this.task.run();
+				// Run tasks and ensure notify when complete
+				for (Runnable task : this.tasks) {
+					task.run();
+				}
 
 			} catch (Throwable ex) {
 				// Flag failure in running task
@@ -896,45 +1660,4 @@ public class SslSocketServicerFactory<R> implements SocketServicerFactory<R>, Re
 		}
 	}
 
-	/**
-	 * Need to adapt unpooled {@link StreamBuffer} to pooled {@link StreamBuffer} to
-	 * service.
-	 */
-	private static class ServiceUnpooledStreamBuffer extends StreamBuffer<ByteBuffer> {
-
-		/**
-		 * Unpooled {@link StreamBuffer}.
-		 */
-		private final StreamBuffer<ByteBuffer> unpooledStreamBuffer;
-
-		/**
-		 * Instantiate.
-		 * 
-		 * @param unpooledStreamBuffer Unpooled {@link StreamBuffer}.
-		 */
-		public ServiceUnpooledStreamBuffer(StreamBuffer<ByteBuffer> unpooledStreamBuffer) {
-			super(unpooledStreamBuffer.unpooledByteBuffer, null, null);
-			this.unpooledStreamBuffer = unpooledStreamBuffer;
-		}
-
-		/*
-		 * ===================== StreamBuffer ==============================
-		 */
-
-		@Override
-		public boolean write(byte datum) {
-			throw new IllegalStateException("Should only read from " + this.getClass().getSimpleName());
-		}
-
-		@Override
-		public int write(byte[] data, int offset, int length) {
-			throw new IllegalStateException("Should only read from " + this.getClass().getSimpleName());
-		}
-
-		@Override
-		public void release() {
-			this.unpooledStreamBuffer.release();
-		}
-	}
-
 }
@@ -28,6 +28,7 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import net.officefloor.frame.api.manage.ProcessManager;
@@ -241,6 +242,86 @@ public abstract class AbstractSocketManagerTestCase extends AbstractSocketManage
 		}
 	}
 
+	/**
+	 * Ensure able to suspend reading (for back-pressure on the client) and then
+	 * resume reading.
+	 */
+	public void testSuspendReading() throws Exception {
+		this.tester = new SocketManagerTester(1);
+
+		// Bind to server socket (suspending reads after first data)
+		AtomicInteger serviceCount = new AtomicInteger(0);
+		ThreadSafeClosure<RequestHandler<?>> suspendedHandler = new ThreadSafeClosure<>();
+		this.tester.bindServerSocket(null, null, (requestHandler) -> (buffer, bytesRead, isNewBuffer) -> {
+			if (serviceCount.incrementAndGet() == 1) {
+				requestHandler.setReadInterest(false);
+				suspendedHandler.set(requestHandler);
+			}
+		}, (socketServicer) -> (request, responseWriter) -> {
+			return null;
+		});
+
+		this.tester.start();
+
+		// Undertake connect and send data
+		try (Socket client = this.tester.getClient()) {
+
+			// Send data (to suspend reading)
+			OutputStream outputStream = client.getOutputStream();
+			outputStream.write(1);
+			outputStream.flush();
+			RequestHandler<?> requestHandler = suspendedHandler.waitAndGet();
+
+			// Ensure further data not read while suspended
+			outputStream.write(2);
+			outputStream.flush();
+			Thread.sleep(100);
+			assertEquals("Should not read data while suspended", 1, serviceCount.get());
+
+			// Resume reading to receive the further data
+			requestHandler.execute(() -> requestHandler.setReadInterest(true));
+			long endTime = System.currentTimeMillis() + 10000;
+			while (serviceCount.get() < 2) {
+				assertTrue("Timed out waiting on resumed read", System.currentTimeMillis() < endTime);
+				Thread.sleep(1);
+			}
+		}
+	}
+
+	/**
+	 * Ensure not able to change read interest on another {@link Thread}.
+	 */
+	public void testIssueIfSetReadInterestOnAnotherThread() throws Exception {
+		this.tester = new SocketManagerTester(1);
+
+		// Bind to server socket
+		ThreadSafeClosure<RequestHandler<?>> handler = new ThreadSafeClosure<>();
+		this.tester.bindServerSocket(null, null, (requestHandler) -> (buffer, bytesRead, isNewBuffer) -> {
+			handler.set(requestHandler);
+		}, (socketServicer) -> (request, responseWriter) -> {
+			return null;
+		});
+
+		this.tester.start();
+
+		// Undertake connect and send data
+		try (Socket client = this.tester.getClient()) {
+
+			// Send some data
+			OutputStream outputStream = client.getOutputStream();
+			outputStream.write(1);
+			outputStream.flush();
+
+			// Ensure not able to change read interest on another thread
+			try {
+				handler.waitAndGet().setReadInterest(false);
+				fail("Should not be able to change read interest on another thread");
+			} catch (IllegalStateException ex) {
+				// Correctly not able to change read interest
+			}
+		}
+	}
+
 	/**
 	 * Ensure can send response.
 	 */
@@ -655,6 +736,106 @@ public abstract class AbstractSocketManagerTestCase extends AbstractSocketManage
 		}
 	}
 
+	/**
+	 * Ensure can send parts of the response before the response is complete.
+	 */
+	public void testSendPartialResponse() throws IOException {
+		this.tester = new SocketManagerTester(1);
+
+		// Bind to server socket
+		ThreadSafeClosure<ResponseWriter> writer = new ThreadSafeClosure<>();
+		this.tester.bindServerSocket(null, null, (requestHandler) -> (buffer, bytesRead, isNewBuffer) -> {
+			if (bytesRead == 1) {
+				requestHandler.handleRequest("SEND");
+			}
+		}, (socketServicer) -> (request, responseWriter) -> {
+			writer.set(responseWriter);
+			return null;
+		});
+
+		this.tester.start();
+
+		// Undertake connect and send data
+		try (Socket client = this.tester.getClient()) {
+
+			// Send some data (to trigger request)
+			OutputStream outputStream = client.getOutputStream();
+			outputStream.write(1);
+			outputStream.flush();
+
+			// Write the first part (with header)
+			ResponseWriter responseWriter = writer.waitAndGet();
+			responseWriter.writePartial((head, pool) -> StreamBuffer.write(new byte[] { 1 }, 0, 1, head, pool),
+					this.tester.createStreamBuffer(2));
+
+			// Ensure receive first part before response complete
+			// (SSL holds parts until response complete to keep wrapping in order)
+			InputStream inputStream = client.getInputStream();
+			if (!this.isSecure) {
+				assertEquals("Incorrect header", 1, inputStream.read());
+				assertEquals("Incorrect first part", 2, inputStream.read());
+			}
+
+			// Write further part (without header)
+			responseWriter.writePartial(null, this.tester.createStreamBuffer(3));
+			if (!this.isSecure) {
+				assertEquals("Incorrect further part", 3, inputStream.read());
+			}
+
+			// Complete the response
+			responseWriter.write((head, pool) -> StreamBuffer.write(new byte[] { 4 }, 0, 1, head, pool),
+					this.tester.createStreamBuffer(5));
+			if (this.isSecure) {
+				assertEquals("Incorrect header", 1, inputStream.read());
+				assertEquals("Incorrect first part", 2, inputStream.read());
+				assertEquals("Incorrect further part", 3, inputStream.read());
+			}
+			assertEquals("Incorrect last header", 4, inputStream.read());
+			assertEquals("Incorrect last part", 5, inputStream.read());
+		}
+	}
+
+	/**
+	 * Ensure drops the client not keeping up with offered parts of the response
+	 * (rather than blocking on back-pressure).
+	 */
+	public void testDropSlowClientOnOfferPartial() throws Exception {
+		this.tester = new SocketManagerTester(1);
+
+		// Bind to server socket
+		ThreadSafeClosure<ResponseWriter> writer = new ThreadSafeClosure<>();
+		this.tester.bindServerSocket(null, null, (requestHandler) -> (buffer, bytesRead, isNewBuffer) -> {
+			if (bytesRead == 1) {
+				requestHandler.handleRequest("SEND");
+			}
+		}, (socketServicer) -> (request, responseWriter) -> {
+			writer.set(responseWriter);
+			return null;
+		});
+
+		this.tester.start();
+
+		// Undertake connect and send data
+		try (Socket client = this.tester.getClient()) {
+
+			// Send some data (to trigger request)
+			OutputStream outputStream = client.getOutputStream();
+			outputStream.write(1);
+			outputStream.flush();
+
+			// Offer content (client not reading) until client dropped
+			ResponseWriter responseWriter = writer.waitAndGet();
+			byte[] content = new byte[this.getBufferSize() < 10 ? 5 : 64 * 1024];
+			long endTime = System.currentTimeMillis() + 10000;
+			while (!responseWriter.isConnectionClosed()) {
+				assertTrue("Timed out waiting on client to be dropped", System.currentTimeMillis() < endTime);
+				responseWriter.offerPartial(null, this.tester.bufferPool.getUnpooledStreamBuffer(ByteBuffer.wrap(content)),
+						8);
+				Thread.sleep(1);
+			}
+		}
+	}
+
 	/**
 	 * Ensure can delay sending a response.
 	 */
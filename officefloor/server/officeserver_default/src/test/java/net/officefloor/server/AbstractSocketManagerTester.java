@@ -28,6 +28,7 @@ import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executor;
@@ -73,6 +74,15 @@ public abstract class AbstractSocketManagerTester extends OfficeFrameTestCase {
 	 */
 	protected abstract StreamBufferPool<ByteBuffer> createStreamBufferPool(int bufferSize);
 
+	/**
+	 * Indicates if hand off to the {@link SocketManager} is via {@link Pipe}.
+	 * 
+	 * @return <code>true</code> to hand off via {@link Pipe}.
+	 */
+	protected boolean isPipeHandoff() {
+		return false;
+	}
+
 	/**
 	 * {@link SslSocketServicerFactory}.
 	 */
@@ -225,7 +235,8 @@ public abstract class AbstractSocketManagerTester extends OfficeFrameTestCase {
 
 			// Create the Socket Manager
 			int bufferSize = AbstractSocketManagerTester.this.getBufferSize();
-			this.manager = new SocketManager(listenerCount, bufferSize * 4, 4, this.bufferPool, bufferSize);
+			this.manager = new SocketManager(listenerCount, bufferSize * 4, 4, this.bufferPool, bufferSize,
+					AbstractSocketManagerTester.this.isPipeHandoff());
 
 			// Start servicing the sockets
 			Runnable[] runnables = this.manager.getRunnables();
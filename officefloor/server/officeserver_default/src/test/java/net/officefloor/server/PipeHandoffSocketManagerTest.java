@@ -0,0 +1,52 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+
+import net.officefloor.server.stream.StreamBufferPool;
+import net.officefloor.server.stream.impl.ThreadLocalStreamBufferPool;
+
+/**
+ * Tests the {@link SocketManager} handing off events via {@link Pipe}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class PipeHandoffSocketManagerTest extends AbstractSocketManagerTestCase {
+
+	@Override
+	protected int getBufferSize() {
+		return 4096;
+	}
+
+	@Override
+	protected StreamBufferPool<ByteBuffer> createStreamBufferPool(int bufferSize) {
+		return new ThreadLocalStreamBufferPool(() -> ByteBuffer.allocateDirect(bufferSize), 10, 10);
+	}
+
+	@Override
+	protected boolean isPipeHandoff() {
+		return true;
+	}
+
+}
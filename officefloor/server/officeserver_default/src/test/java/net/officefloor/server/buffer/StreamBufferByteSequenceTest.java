@@ -117,6 +117,40 @@ public class StreamBufferByteSequenceTest extends OfficeFrameTestCase {
 		}
 	}
 
+	/**
+	 * Ensure able to append another {@link StreamBufferByteSequence}.
+	 */
+	public void testAppendByteSequence() {
+
+		// Create the sequences (second spanning multiple buffers)
+		StreamBuffer<ByteBuffer> buffer = this.bufferPool.getPooledStreamBuffer();
+		buffer.write((byte) 1);
+		StreamBufferByteSequence sequence = new StreamBufferByteSequence(buffer, 0, 1);
+		StreamBufferByteSequence other = null;
+		final int OTHER_LENGTH = 10;
+		for (int i = 0; i < OTHER_LENGTH; i++) {
+			StreamBuffer<ByteBuffer> dataBuffer = this.bufferPool.getPooledStreamBuffer();
+			dataBuffer.write((byte) (i + 2));
+			if (other == null) {
+				other = new StreamBufferByteSequence(dataBuffer, 0, 1);
+			} else {
+				other.appendStreamBuffer(dataBuffer, 0, 1);
+			}
+		}
+
+		// Append the other sequence
+		sequence.appendByteSequence(other);
+
+		// Ensure able to obtain the data
+		assertEquals("Incorrect number of bytes", OTHER_LENGTH + 1, sequence.length());
+		for (int i = 0; i < (OTHER_LENGTH + 1); i++) {
+			assertEquals("Incorrect byte", i + 1, sequence.byteAt(i));
+		}
+
+		// Ensure other sequence is unchanged
+		assertEquals("Other sequence should be unchanged", OTHER_LENGTH, other.length());
+	}
+
 	/**
 	 * Ensure can load single {@link StreamBuffer} to read data.
 	 */
@@ -201,6 +235,114 @@ public class StreamBufferByteSequenceTest extends OfficeFrameTestCase {
 		}
 	}
 
+	/**
+	 * Ensure can bulk copy data from multiple {@link StreamBuffer} instances.
+	 */
+	public void testBulkCopy() throws IOException {
+
+		// Write out all the byte values
+		@SuppressWarnings("resource")
+		BufferPoolServerOutputStream<ByteBuffer> output = new BufferPoolServerOutputStream<>(this.bufferPool);
+		byte[] expected = new byte[256];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = (byte) (Byte.MIN_VALUE + i);
+			output.write(expected[i]);
+		}
+
+		// Load up byte sequence (offset to test partial segments)
+		StreamBuffer<ByteBuffer> buffer = output.getBuffers();
+		StreamBufferByteSequence sequence = new StreamBufferByteSequence(buffer, 1,
+				BufferJvmFix.position(buffer.pooledBuffer) - 1);
+		for (buffer = buffer.next; buffer != null; buffer = buffer.next) {
+			sequence.appendStreamBuffer(buffer, 0, BufferJvmFix.position(buffer.pooledBuffer));
+		}
+
+		// Ensure bulk copy across segments
+		byte[] copy = new byte[300];
+		assertEquals("Incorrect number of bytes copied", 200, sequence.copyTo(6, copy, 5, 200));
+		for (int i = 0; i < 200; i++) {
+			assertEquals("Incorrect byte at " + i, expected[7 + i], copy[5 + i]);
+		}
+
+		// Ensure copy stops at end of sequence
+		assertEquals("Should only copy remaining bytes", 5, sequence.copyTo(250, copy, 0, 100));
+		assertEquals("Incorrect last byte", expected[255], copy[4]);
+		assertEquals("Should copy nothing at end", 0, sequence.copyTo(255, copy, 0, 100));
+
+		// Ensure can copy into buffer
+		ByteBuffer target = ByteBuffer.allocate(10);
+		assertEquals("Incorrect number of bytes copied to buffer", 10, sequence.copyTo(2, target));
+		for (int i = 0; i < 10; i++) {
+			assertEquals("Incorrect buffer byte at " + i, expected[3 + i], target.get(i));
+		}
+
+		// Ensure zero-copy views of the segments
+		ByteBuffer[] views = sequence.getByteBuffers(2);
+		assertTrue("Should have view per segment", views.length > 1);
+		int index = 3;
+		for (ByteBuffer view : views) {
+			assertTrue("View should be read-only", view.isReadOnly());
+			while (view.hasRemaining()) {
+				assertEquals("Incorrect view byte at " + index, expected[index++], view.get());
+			}
+		}
+		assertEquals("Views should cover remaining bytes", expected.length, index);
+	}
+
+	/**
+	 * Ensure can apply mask in place across {@link StreamBuffer} instances.
+	 */
+	public void testApplyMask() throws IOException {
+		byte[] mask = new byte[] { (byte) 0x37, (byte) 0xfa, (byte) 0x21, (byte) 0x3d };
+
+		// Small segments (byte at a time)
+		@SuppressWarnings("resource")
+		BufferPoolServerOutputStream<ByteBuffer> output = new BufferPoolServerOutputStream<>(this.bufferPool);
+		byte[] expected = new byte[30];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = (byte) i;
+			output.write(expected[i]);
+		}
+		StreamBuffer<ByteBuffer> buffer = output.getBuffers();
+		StreamBufferByteSequence sequence = new StreamBufferByteSequence(buffer, 1,
+				BufferJvmFix.position(buffer.pooledBuffer) - 1);
+		for (buffer = buffer.next; buffer != null; buffer = buffer.next) {
+			sequence.appendStreamBuffer(buffer, 0, BufferJvmFix.position(buffer.pooledBuffer));
+		}
+		assertSame("Should return sequence", sequence, sequence.applyMask(mask));
+		for (int i = 0; i < sequence.length(); i++) {
+			assertEquals("Incorrect masked byte " + i, (byte) (expected[1 + i] ^ mask[i % 4]), sequence.byteAt(i));
+		}
+
+		// Large segments (long at a time with remaining bytes)
+		StreamBufferPool<ByteBuffer> largePool = new MockStreamBufferPool(() -> ByteBuffer.allocate(64));
+		StreamBuffer<ByteBuffer> first = largePool.getPooledStreamBuffer();
+		StreamBuffer<ByteBuffer> second = largePool.getPooledStreamBuffer();
+		for (int i = 0; i < 64; i++) {
+			first.write((byte) i);
+			second.write((byte) (64 + i));
+		}
+		sequence = new StreamBufferByteSequence(first, 3, 27);
+		sequence.appendStreamBuffer(second, 0, 21);
+		sequence.applyMask(mask);
+		for (int i = 0; i < 27; i++) {
+			assertEquals("Incorrect first segment byte " + i, (byte) ((3 + i) ^ mask[i % 4]), sequence.byteAt(i));
+		}
+		for (int i = 27; i < 48; i++) {
+			assertEquals("Incorrect second segment byte " + i, (byte) ((64 + i - 27) ^ mask[i % 4]),
+					sequence.byteAt(i));
+		}
+		assertEquals("Should not mask before segment", 2, first.pooledBuffer.get(2));
+		assertEquals("Should not mask after segment", 30, first.pooledBuffer.get(30));
+		assertEquals("Should not mask after second segment", 64 + 21, second.pooledBuffer.get(21));
+
+		// Ensure applying mask again restores
+		sequence.applyMask(mask);
+		for (int i = 0; i < 27; i++) {
+			assertEquals("Incorrect unmasked byte " + i, (byte) (3 + i), sequence.byteAt(i));
+		}
+	}
+
 	/**
 	 * Ensure can decode bytes to HTTP {@link String}.
 	 */
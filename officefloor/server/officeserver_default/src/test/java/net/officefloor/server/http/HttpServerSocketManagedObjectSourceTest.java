@@ -21,19 +21,32 @@
 
 package net.officefloor.server.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 
 import net.officefloor.compile.managedobject.ManagedObjectType;
+import net.officefloor.compile.spi.office.OfficeArchitect;
+import net.officefloor.compile.spi.office.OfficeSection;
 import net.officefloor.compile.spi.officefloor.DeployedOffice;
 import net.officefloor.compile.spi.officefloor.OfficeFloorDeployer;
 import net.officefloor.compile.spi.officefloor.OfficeFloorInputManagedObject;
@@ -42,9 +55,17 @@ import net.officefloor.compile.test.managedobject.ManagedObjectLoaderUtil;
 import net.officefloor.compile.test.managedobject.ManagedObjectTypeBuilder;
 import net.officefloor.compile.test.officefloor.CompileOfficeFloor;
 import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.api.team.Team;
 import net.officefloor.frame.impl.spi.team.ExecutorCachedTeamSource;
 import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.http.http2.Http2TestClient;
+import net.officefloor.server.http.http2.Http2TestClient.Response;
 import net.officefloor.server.http.impl.HttpServerLocationImpl;
+import net.officefloor.server.http.websocket.WebSocketException;
+import net.officefloor.server.http.websocket.WebSocketFrameParser;
+import net.officefloor.server.http.websocket.WebSocketRequestHeaders;
+import net.officefloor.server.http.websocket.WebSocketTestClient;
+import net.officefloor.server.http.websocket.WebSocketTestClient.Message;
 import net.officefloor.server.ssl.OfficeFloorDefaultSslContextSource;
 
 /**
@@ -56,6 +77,12 @@ public class HttpServerSocketManagedObjectSourceTest extends OfficeFrameTestCase
 
 	private OfficeFloor officeFloor;
 
+	/**
+	 * Indicates if service the request with a separate {@link Team} (allowing
+	 * blocking on the streamed request entity).
+	 */
+	private boolean isServiceTeam = false;
+
 	@Override
 	protected void tearDown() throws Exception {
 
@@ -125,6 +152,258 @@ public class HttpServerSocketManagedObjectSourceTest extends OfficeFrameTestCase
 		}
 	}
 
+	/**
+	 * Ensure can service HTTP/1 requests with HTTP/2 enabled.
+	 */
+	public void testServiceHttp1RequestWithHttp2() throws Exception {
+
+		// Start non-secure server
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTP_PORT, String.valueOf(7878));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_HTTP2, String.valueOf(true));
+		});
+
+		// Ensure can get response
+		try (CloseableHttpClient client = HttpClientTestUtil.createHttpClient()) {
+			HttpResponse response = client.execute(new HttpGet("http://localhost:7878"));
+			assertEquals("Should be succesful", HttpStatus.OK.getStatusCode(),
+					response.getStatusLine().getStatusCode());
+			assertEquals("Incorrect content", "test", HttpClientTestUtil.entityToString(response));
+		}
+	}
+
+	/**
+	 * Ensure can service HTTP/2 (prior knowledge) requests.
+	 */
+	public void testServiceHttp2Request() throws Exception {
+
+		// Start non-secure server
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTP_PORT, String.valueOf(7878));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_HTTP2, String.valueOf(true));
+		});
+
+		// Ensure can service multiple streams on the connection
+		try (Socket socket = new Socket(InetAddress.getLocalHost(), 7878)) {
+			socket.setSoTimeout(5000);
+			this.assertHttp2Requests(new Http2TestClient(socket.getInputStream(), socket.getOutputStream()));
+		}
+	}
+
+	/**
+	 * Ensure can service HTTP/2 requests negotiated by ALPN.
+	 */
+	public void testServiceSecureHttp2Request() throws Exception {
+
+		// Determine if ALPN supported
+		Method setApplicationProtocols;
+		try {
+			setApplicationProtocols = SSLParameters.class.getMethod("setApplicationProtocols", String[].class);
+		} catch (NoSuchMethodException ex) {
+			System.out.println("ALPN not supported by JVM, so not testing " + this.getName());
+			return;
+		}
+
+		// Start secure server
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTPS_PORT, String.valueOf(7979));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_SECURE, String.valueOf(true));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_HTTP2, String.valueOf(true));
+			deployer.link(httpMos.getOfficeFloorManagedObjectTeam(HttpServerSocketManagedObjectSource.SSL_TEAM_NAME),
+					deployer.addTeam("TEAM", ExecutorCachedTeamSource.class.getName()));
+		});
+
+		// Negotiate HTTP/2
+		try (SSLSocket socket = (SSLSocket) OfficeFloorDefaultSslContextSource.createClientSslContext(null)
+				.getSocketFactory().createSocket(InetAddress.getLocalHost(), 7979)) {
+			socket.setSoTimeout(5000);
+			SSLParameters parameters = socket.getSSLParameters();
+			setApplicationProtocols.invoke(parameters, (Object) new String[] { "h2" });
+			socket.setSSLParameters(parameters);
+			socket.startHandshake();
+			assertEquals("Should negotiate HTTP/2", "h2",
+					SSLSocket.class.getMethod("getApplicationProtocol").invoke(socket));
+
+			// Ensure can service requests
+			this.assertHttp2Requests(new Http2TestClient(socket.getInputStream(), socket.getOutputStream()));
+		}
+	}
+
+	/**
+	 * Asserts servicing HTTP/2 requests.
+	 * 
+	 * @param client {@link Http2TestClient}.
+	 */
+	private void assertHttp2Requests(Http2TestClient client) throws Exception {
+		client.writePreface();
+		client.writeRequest(1, "GET", "/", null);
+		client.writeRequest(3, "POST", "/", "entity");
+		Map<Integer, Response> responses = client.readResponses(2);
+		for (int streamId : new int[] { 1, 3 }) {
+			Response response = responses.get(streamId);
+			assertEquals("Should be successful for stream " + streamId, HttpStatus.OK.getStatusCode(),
+					response.getStatus());
+			assertEquals("Incorrect header", "header", response.getHeader("test"));
+			assertEquals("Incorrect cookie", "test=cookie", response.getHeader("set-cookie"));
+			assertEquals("Incorrect content", "test", response.getEntity());
+		}
+	}
+
+	/**
+	 * Ensure can service WebSocket messages.
+	 */
+	public void testServiceWebSocket() throws Exception {
+
+		// Start non-secure server
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTP_PORT, String.valueOf(7878));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_WEBSOCKET, String.valueOf(true));
+		});
+
+		// Ensure can service messages on the upgraded connection
+		try (Socket socket = new Socket(InetAddress.getLocalHost(), 7878)) {
+			socket.setSoTimeout(5000);
+			this.assertWebSocketMessages(new WebSocketTestClient(socket.getInputStream(), socket.getOutputStream()));
+		}
+	}
+
+	/**
+	 * Ensure can service WebSocket messages over secure connection.
+	 */
+	public void testServiceSecureWebSocket() throws Exception {
+
+		// Start secure server
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTPS_PORT, String.valueOf(7979));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_SECURE, String.valueOf(true));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_WEBSOCKET, String.valueOf(true));
+			deployer.link(httpMos.getOfficeFloorManagedObjectTeam(HttpServerSocketManagedObjectSource.SSL_TEAM_NAME),
+					deployer.addTeam("TEAM", ExecutorCachedTeamSource.class.getName()));
+		});
+
+		// Ensure can service messages on the upgraded secure connection
+		try (Socket socket = OfficeFloorDefaultSslContextSource.createClientSslContext(null).getSocketFactory()
+				.createSocket(InetAddress.getLocalHost(), 7979)) {
+			socket.setSoTimeout(5000);
+			this.assertWebSocketMessages(new WebSocketTestClient(socket.getInputStream(), socket.getOutputStream()));
+		}
+	}
+
+	/**
+	 * Ensure invalid WebSocket handshake is rejected.
+	 */
+	public void testRejectInvalidWebSocketHandshake() throws Exception {
+
+		// Start non-secure server
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTP_PORT, String.valueOf(7878));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_WEBSOCKET, String.valueOf(true));
+		});
+
+		// Ensure reject handshake without key
+		try (Socket socket = new Socket(InetAddress.getLocalHost(), 7878)) {
+			socket.setSoTimeout(5000);
+			WebSocketTestClient client = new WebSocketTestClient(socket.getInputStream(), socket.getOutputStream());
+			client.writeUpgradeRequest("/", "Upgrade", null);
+			String head = client.readResponseHead();
+			assertTrue("Should reject handshake: " + head, head.startsWith("HTTP/1.1 400 "));
+		}
+	}
+
+	/**
+	 * Ensure WebSocket upgrade is ignored if not enabled.
+	 */
+	public void testWebSocketNotEnabled() throws Exception {
+
+		// Start non-secure server (without WebSocket)
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTP_PORT, String.valueOf(7878));
+		});
+
+		// Ensure serviced as HTTP request
+		try (Socket socket = new Socket(InetAddress.getLocalHost(), 7878)) {
+			socket.setSoTimeout(5000);
+			WebSocketTestClient client = new WebSocketTestClient(socket.getInputStream(), socket.getOutputStream());
+			String head = client.handshake("/");
+			assertTrue("Should service as HTTP request: " + head, head.startsWith("HTTP/1.1 200 OK"));
+		}
+	}
+
+	/**
+	 * Asserts servicing WebSocket messages.
+	 * 
+	 * @param client {@link WebSocketTestClient}.
+	 */
+	private void assertWebSocketMessages(WebSocketTestClient client) throws Exception {
+
+		// Undertake the handshake
+		String head = client.handshake("/");
+		assertTrue("Should switch protocols: " + head, head.startsWith("HTTP/1.1 101 Switching Protocols\r\n"));
+		assertTrue("Should accept key: " + head,
+				head.toLowerCase().contains(("Sec-WebSocket-Accept: " + WebSocketTestClient.ACCEPT_KEY + "\r\n").toLowerCase()));
+
+		// Ensure echo text message
+		client.writeText("hello");
+		Message message = client.readMessage();
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_TEXT, message.opCode);
+		assertEquals("Incorrect text", "echo:hello", message.getText());
+
+		// Ensure echo binary message
+		client.writeBinary(new byte[] { 1, 2, 3 });
+		message = client.readMessage();
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_BINARY, message.opCode);
+		assertEquals("Incorrect binary length", 3, message.payload.length);
+		assertEquals("Incorrect binary", 3, message.payload[2]);
+
+		// Ensure pong the ping
+		client.writeFrame(true, WebSocketFrameParser.OPCODE_PING, "ping".getBytes("UTF-8"));
+		message = client.readMessage();
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_PONG, message.opCode);
+		assertEquals("Incorrect pong", "ping", message.getText());
+
+		// Ensure can push messages (with following messages after)
+		client.writeText("push");
+		client.writeText("after");
+		assertEquals("Incorrect first push", "one", client.readMessage().getText());
+		assertEquals("Incorrect second push", "two", client.readMessage().getText());
+		assertEquals("Incorrect message after push", "echo:after", client.readMessage().getText());
+
+		// Ensure echo fragmented message
+		client.writeFrame(false, WebSocketFrameParser.OPCODE_TEXT, "frag".getBytes("UTF-8"));
+		client.writeFrame(true, WebSocketFrameParser.OPCODE_CONTINUATION, "mented".getBytes("UTF-8"));
+		assertEquals("Incorrect fragmented message", "echo:fragmented", client.readMessage().getText());
+
+		// Ensure close
+		client.writeFrame(true, WebSocketFrameParser.OPCODE_CLOSE,
+				new byte[] { (byte) (WebSocketException.NORMAL_CLOSURE >> 8), (byte) WebSocketException.NORMAL_CLOSURE });
+		message = client.readMessage();
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_CLOSE, message.opCode);
+		assertEquals("Incorrect close code", WebSocketException.NORMAL_CLOSURE, message.getCloseCode());
+	}
+
+	/**
+	 * Ensure WebSocket closed on failure to service message.
+	 */
+	public void testWebSocketServiceFailure() throws Exception {
+
+		// Start non-secure server
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTP_PORT, String.valueOf(7878));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_WEBSOCKET, String.valueOf(true));
+		});
+
+		// Ensure close on failure
+		try (Socket socket = new Socket(InetAddress.getLocalHost(), 7878)) {
+			socket.setSoTimeout(5000);
+			WebSocketTestClient client = new WebSocketTestClient(socket.getInputStream(), socket.getOutputStream());
+			client.handshake("/");
+			client.writeText("fail");
+			Message message = client.readMessage();
+			assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_CLOSE, message.opCode);
+			assertEquals("Incorrect close code", WebSocketException.INTERNAL_ERROR, message.getCloseCode());
+		}
+	}
+
 	/**
 	 * Ensure can create a secure connection.
 	 */
@@ -210,6 +489,85 @@ public class HttpServerSocketManagedObjectSourceTest extends OfficeFrameTestCase
 		}
 	}
 
+	/**
+	 * Ensure can stream the request entity.
+	 */
+	public void testStreamRequestEntity() throws Exception {
+
+		// Start server streaming request entities (with small back-pressure bound)
+		this.isServiceTeam = true;
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTP_PORT, String.valueOf(7878));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_STREAM_ENTITY_LENGTH, String.valueOf(0));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_MAX_STREAM_ENTITY_BUFFERS,
+					String.valueOf(2));
+		});
+
+		// Ensure can stream entities (larger than maximum buffered entity length)
+		try (CloseableHttpClient client = HttpClientTestUtil.createHttpClient()) {
+			this.assertStreamRequestEntity(client, "http://localhost:7878");
+		}
+	}
+
+	/**
+	 * Ensure can stream the secure request entity.
+	 */
+	public void testStreamSecureRequestEntity() throws Exception {
+
+		// Start secure server streaming request entities
+		this.isServiceTeam = true;
+		this.startServer((httpMos, deployer) -> {
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTPS_PORT, String.valueOf(7979));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_SECURE, String.valueOf(true));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_STREAM_ENTITY_LENGTH, String.valueOf(0));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_MAX_STREAM_ENTITY_BUFFERS,
+					String.valueOf(2));
+			deployer.link(httpMos.getOfficeFloorManagedObjectTeam(HttpServerSocketManagedObjectSource.SSL_TEAM_NAME),
+					deployer.addTeam("TEAM", ExecutorCachedTeamSource.class.getName()));
+		});
+
+		// Ensure can stream entities
+		try (CloseableHttpClient client = HttpClientTestUtil.createHttpClient(true)) {
+			this.assertStreamRequestEntity(client, "https://localhost:7979");
+		}
+	}
+
+	/**
+	 * Asserts streaming the request entity.
+	 * 
+	 * @param client {@link CloseableHttpClient}.
+	 * @param url    URL to the server.
+	 */
+	private void assertStreamRequestEntity(CloseableHttpClient client, String url) throws Exception {
+
+		// Create entity larger than maximum buffered entity length
+		byte[] entity = new byte[2 * 1024 * 1024 + 1];
+		for (int i = 0; i < entity.length; i++) {
+			entity[i] = (byte) i;
+		}
+
+		// Stream Content-Length entity
+		HttpPost post = new HttpPost(url + "/stream");
+		post.setEntity(new ByteArrayEntity(entity));
+		HttpResponse response = client.execute(post);
+		assertEquals("Should be successful", HttpStatus.OK.getStatusCode(), response.getStatusLine().getStatusCode());
+		assertEquals("Incorrect streamed entity", "received:" + entity.length,
+				HttpClientTestUtil.entityToString(response));
+
+		// Stream chunked entity (on same connection)
+		post = new HttpPost(url + "/stream");
+		post.setEntity(new InputStreamEntity(new ByteArrayInputStream(entity), -1));
+		response = client.execute(post);
+		assertEquals("Should be successful", HttpStatus.OK.getStatusCode(), response.getStatusLine().getStatusCode());
+		assertEquals("Incorrect streamed chunked entity", "received:" + entity.length,
+				HttpClientTestUtil.entityToString(response));
+
+		// Ensure can continue to service requests
+		response = client.execute(new HttpGet(url));
+		assertEquals("Should be successful", HttpStatus.OK.getStatusCode(), response.getStatusLine().getStatusCode());
+		assertEquals("Incorrect content", "test", HttpClientTestUtil.entityToString(response));
+	}
+
 	/**
 	 * Starts the {@link HttpServerSocketManagedObjectSource} to service requests.
 	 * 
@@ -246,9 +604,21 @@ public class HttpServerSocketManagedObjectSourceTest extends OfficeFrameTestCase
 							HttpServerSocketManagedObjectSource.HANDLE_REQUEST_FLOW_NAME),
 					office.getDeployedOfficeInput("SECTION", "service"));
 
+			// Configure team to service request (if required)
+			if (this.isServiceTeam) {
+				deployer.link(office.getDeployedOfficeTeam("SERVICE_TEAM"),
+						deployer.addTeam("SERVICE_TEAM", ExecutorCachedTeamSource.class.getName()));
+			}
 		});
 		compile.office((extension) -> {
-			extension.addSection("SECTION", MockSection.class);
+			OfficeSection section = extension.addSection("SECTION", MockSection.class);
+
+			// Service request with team (if required)
+			if (this.isServiceTeam) {
+				OfficeArchitect architect = extension.getOfficeArchitect();
+				architect.link(section.getOfficeSectionFunction("service").getResponsibleTeam(),
+						architect.addOfficeTeam("SERVICE_TEAM"));
+			}
 		});
 		this.officeFloor = compile.compileAndOpenOfficeFloor();
 	}
@@ -260,6 +630,54 @@ public class HttpServerSocketManagedObjectSourceTest extends OfficeFrameTestCase
 
 		public void service(ServerHttpConnection connection) throws IOException {
 			net.officefloor.server.http.HttpResponse response = connection.getResponse();
+
+			// Echo the WebSocket messages
+			if (AbstractHttpServicerFactory.WEBSOCKET_METHOD_NAME.equals(connection.getRequest().getMethod().getName())) {
+				ByteArrayOutputStream entity = new ByteArrayOutputStream();
+				for (int value = connection.getRequest().getEntity().read(); value != -1; value = connection
+						.getRequest().getEntity().read()) {
+					entity.write(value);
+				}
+				String contentType = connection.getRequest().getHeaders().getHeader("Content-Type").getValue();
+				if (WebSocketRequestHeaders.BINARY_CONTENT_TYPE.equals(contentType)) {
+					response.setContentType(contentType, null);
+					response.getEntity().write(entity.toByteArray());
+					return;
+				}
+				String text = new String(entity.toByteArray(), "UTF-8");
+				switch (text) {
+				case "push":
+					HttpResponseStream stream = response.detach();
+					stream.write(ByteBuffer.wrap("one".getBytes("UTF-8")));
+					stream.write(ByteBuffer.wrap("two".getBytes("UTF-8")));
+					stream.close();
+					return;
+				case "fail":
+					throw new IOException("TEST");
+				default:
+					response.getEntityWriter().write("echo:" + text);
+					return;
+				}
+			}
+
+			// Count (and validate) the streamed request entity
+			if ("/stream".equals(connection.getRequest().getUri())) {
+				InputStream entity = connection.getRequest().getEntity();
+				byte[] buffer = new byte[4096];
+				long received = 0;
+				for (int size = entity.read(buffer); size != -1; size = entity.read(buffer)) {
+					for (int i = 0; i < size; i++) {
+						if (buffer[i] != (byte) (received + i)) {
+							response.getEntityWriter().write("corrupt at " + (received + i));
+							return;
+						}
+					}
+					received += size;
+				}
+				response.getEntityWriter().write("received:" + received);
+				return;
+			}
+
 			response.getHeaders().addHeader("test", "header");
 			response.getCookies().setCookie("test", "cookie");
 			response.getEntityWriter().write("test");
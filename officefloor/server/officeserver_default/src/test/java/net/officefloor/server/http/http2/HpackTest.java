@@ -0,0 +1,190 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+
+/**
+ * Tests the {@link HpackDecoder} and {@link HpackEncoder} (with examples from
+ * RFC 7541 Appendix C).
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class HpackTest extends OfficeFrameTestCase {
+
+	/**
+	 * Ensure static table is complete.
+	 */
+	public void testStaticTable() {
+		assertEquals("Incorrect static table length", 61, HpackStaticTable.LENGTH);
+		assertEquals("Incorrect last entry", "www-authenticate", HpackStaticTable.ENTRIES[61].getName());
+	}
+
+	/**
+	 * Ensure can decode literal header field with indexing (C.2.1).
+	 */
+	public void testLiteralWithIndexing() throws Exception {
+		HpackDecoder decoder = new HpackDecoder(4096);
+		this.assertDecode(decoder,
+				"400a 6375 7374 6f6d 2d6b 6579 0d63 7573 746f 6d2d 6865 6164 6572", "custom-key", "custom-header");
+		assertEquals("Incorrect table size", 55, decoder.getTableSize());
+	}
+
+	/**
+	 * Ensure can decode requests without Huffman coding (C.3).
+	 */
+	public void testRequestsWithoutHuffman() throws Exception {
+		HpackDecoder decoder = new HpackDecoder(4096);
+		this.assertDecode(decoder, "8286 8441 0f77 7777 2e65 7861 6d70 6c65 2e63 6f6d", ":method", "GET", ":scheme",
+				"http", ":path", "/", ":authority", "www.example.com");
+		assertEquals("Incorrect table size after first", 57, decoder.getTableSize());
+		this.assertDecode(decoder, "8286 84be 5808 6e6f 2d63 6163 6865", ":method", "GET", ":scheme", "http", ":path",
+				"/", ":authority", "www.example.com", "cache-control", "no-cache");
+		assertEquals("Incorrect table size after second", 110, decoder.getTableSize());
+		this.assertDecode(decoder,
+				"8287 85bf 400a 6375 7374 6f6d 2d6b 6579 0c63 7573 746f 6d2d 7661 6c75 65", ":method", "GET",
+				":scheme", "https", ":path", "/index.html", ":authority", "www.example.com", "custom-key",
+				"custom-value");
+		assertEquals("Incorrect table size after third", 164, decoder.getTableSize());
+	}
+
+	/**
+	 * Ensure can decode requests with Huffman coding (C.4).
+	 */
+	public void testRequestsWithHuffman() throws Exception {
+		HpackDecoder decoder = new HpackDecoder(4096);
+		this.assertDecode(decoder, "8286 8441 8cf1 e3c2 e5f2 3a6b a0ab 90f4 ff", ":method", "GET", ":scheme", "http",
+				":path", "/", ":authority", "www.example.com");
+		this.assertDecode(decoder, "8286 84be 5886 a8eb 1064 9cbf", ":method", "GET", ":scheme", "http", ":path", "/",
+				":authority", "www.example.com", "cache-control", "no-cache");
+		this.assertDecode(decoder,
+				"8287 85bf 4088 25a8 49e9 5ba9 7d7f 8925 a849 e95b b8e8 b4bf", ":method", "GET", ":scheme", "https",
+				":path", "/index.html", ":authority", "www.example.com", "custom-key", "custom-value");
+		assertEquals("Incorrect table size", 164, decoder.getTableSize());
+	}
+
+	/**
+	 * Ensure evicts entries from dynamic table (C.5).
+	 */
+	public void testEviction() throws Exception {
+		HpackDecoder decoder = new HpackDecoder(256);
+		this.assertDecode(decoder,
+				"4803 3330 3258 0770 7269 7661 7465 611d 4d6f 6e2c 2032 3120 4f63 7420 3230 3133 2032 303a 3133 3a32 3120 474d 546e 1768 7474 7073 3a2f 2f77 7777 2e65 7861 6d70 6c65 2e63 6f6d",
+				":status", "302", "cache-control", "private", "date", "Mon, 21 Oct 2013 20:13:21 GMT", "location",
+				"https://www.example.com");
+		assertEquals("Incorrect table size after first", 222, decoder.getTableSize());
+		this.assertDecode(decoder, "4803 3330 37c1 c0bf", ":status", "307", "cache-control", "private", "date",
+				"Mon, 21 Oct 2013 20:13:21 GMT", "location", "https://www.example.com");
+		assertEquals("Incorrect table size after eviction", 222, decoder.getTableSize());
+	}
+
+	/**
+	 * Ensure fails on invalid index.
+	 */
+	public void testInvalidIndex() {
+		try {
+			this.assertDecode(new HpackDecoder(4096), "be");
+			fail("Should not be successful");
+		} catch (Http2Exception ex) {
+			assertEquals("Incorrect error", Http2Exception.COMPRESSION_ERROR, ex.getErrorCode());
+		}
+	}
+
+	/**
+	 * Ensure fails on invalid Huffman padding.
+	 */
+	public void testInvalidHuffmanPadding() {
+		try {
+			// 'a' (00011) padded with zeros
+			HpackHuffman.decode(new byte[] { 0x18 }, 0, 1);
+			fail("Should not be successful");
+		} catch (Http2Exception ex) {
+			assertEquals("Incorrect error", Http2Exception.COMPRESSION_ERROR, ex.getErrorCode());
+		}
+	}
+
+	/**
+	 * Ensure encoded headers can be decoded.
+	 */
+	public void testEncodeDecode() throws Exception {
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		HpackEncoder.encode(":status", "200", block);
+		HpackEncoder.encode("content-type", "text/plain", block);
+		HpackEncoder.encode("x-custom", "value", block);
+		StringBuilder longValue = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			longValue.append((char) ('a' + (i % 26)));
+		}
+		HpackEncoder.encode("x-long", longValue.toString(), block);
+		byte[] encoded = block.toByteArray();
+		assertEquals("Should index :status 200", (byte) 0x88, encoded[0]);
+
+		// Decode
+		List<HpackHeaderField> headers = new ArrayList<>();
+		HpackDecoder decoder = new HpackDecoder(4096);
+		decoder.decode(encoded, 0, encoded.length, headers);
+		assertEquals("Incorrect number of headers", 4, headers.size());
+		this.assertHeader(headers.get(0), ":status", "200");
+		this.assertHeader(headers.get(1), "content-type", "text/plain");
+		this.assertHeader(headers.get(2), "x-custom", "value");
+		this.assertHeader(headers.get(3), "x-long", longValue.toString());
+		assertEquals("Encoder should not index", 0, decoder.getTableSize());
+	}
+
+	/**
+	 * Asserts the decoding.
+	 * 
+	 * @param decoder         {@link HpackDecoder}.
+	 * @param hex             Hex encoded header block.
+	 * @param nameValuePairs Expected name / value pairs.
+	 */
+	private void assertDecode(HpackDecoder decoder, String hex, String... nameValuePairs) throws Http2Exception {
+		String digits = hex.replace(" ", "");
+		byte[] block = new byte[digits.length() / 2];
+		for (int i = 0; i < block.length; i++) {
+			block[i] = (byte) Integer.parseInt(digits.substring(i * 2, (i * 2) + 2), 16);
+		}
+		List<HpackHeaderField> headers = new ArrayList<>();
+		decoder.decode(block, 0, block.length, headers);
+		assertEquals("Incorrect number of headers", nameValuePairs.length / 2, headers.size());
+		for (int i = 0; i < headers.size(); i++) {
+			this.assertHeader(headers.get(i), nameValuePairs[i * 2], nameValuePairs[(i * 2) + 1]);
+		}
+	}
+
+	/**
+	 * Asserts the {@link HpackHeaderField}.
+	 * 
+	 * @param header {@link HpackHeaderField}.
+	 * @param name   Expected name.
+	 * @param value  Expected value.
+	 */
+	private void assertHeader(HpackHeaderField header, String name, String value) {
+		assertEquals("Incorrect header name", name, header.getName());
+		assertEquals("Incorrect header value for " + name, value, header.getValue());
+	}
+
+}
@@ -0,0 +1,405 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.officefloor.frame.api.manage.ProcessManager;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.http.HttpStatus;
+import net.officefloor.server.http.ServerHttpConnection;
+import net.officefloor.server.http.WritableHttpHeader;
+import net.officefloor.server.http.http2.Http2TestClient.Frame;
+import net.officefloor.server.http.http2.Http2TestClient.Response;
+
+/**
+ * Tests the {@link Http2Connection}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class Http2ConnectionTest extends OfficeFrameTestCase {
+
+	/**
+	 * Frames written by the client.
+	 */
+	private final ByteArrayOutputStream clientOutput = new ByteArrayOutputStream();
+
+	/**
+	 * Frames written by the server.
+	 */
+	private final ByteArrayOutputStream serverOutput = new ByteArrayOutputStream();
+
+	/**
+	 * Serviced {@link Http2Stream} instances.
+	 */
+	private final List<Http2Stream> serviced = new ArrayList<>();
+
+	/**
+	 * Number of cancelled {@link ProcessManager} instances.
+	 */
+	private int cancelCount = 0;
+
+	/**
+	 * {@link Http2Connection} to test.
+	 */
+	private final Http2Connection connection = new Http2Connection(10, 50, 1024) {
+
+		@Override
+		protected void writeFrames(byte[] frames) {
+			Http2ConnectionTest.this.serverOutput.write(frames, 0, frames.length);
+		}
+
+		@Override
+		protected ProcessManager serviceStream(Http2Stream stream) {
+			Http2ConnectionTest.this.serviced.add(stream);
+			return () -> Http2ConnectionTest.this.cancelCount++;
+		}
+	};
+
+	/**
+	 * {@link Http2TestClient}.
+	 */
+	private Http2TestClient client = new Http2TestClient(new ByteArrayInputStream(new byte[0]), this.clientOutput);
+
+	/**
+	 * Ensure exchange settings.
+	 */
+	public void testSettings() throws Exception {
+		this.connection.start();
+		this.client.writeSettings();
+		this.sendToServer();
+
+		// Ensure server settings and acknowledgement
+		Frame settings = this.client.readFrame();
+		assertEquals("Expecting server settings", Http2Connection.SETTINGS, settings.type);
+		assertFalse("Should not be acknowledgement", settings.isFlag(Http2Connection.FLAG_ACK));
+		assertEquals("Incorrect settings length", 12, settings.payload.length);
+		Frame ack = this.client.readFrame();
+		assertEquals("Expecting settings acknowledgement", Http2Connection.SETTINGS, ack.type);
+		assertTrue("Should be acknowledgement", ack.isFlag(Http2Connection.FLAG_ACK));
+	}
+
+	/**
+	 * Ensure can service request.
+	 */
+	public void testRequestResponse() throws Exception {
+		this.client.writeSettings();
+		this.client.writeRequest(1, "POST", "/path?query=value", "REQUEST", "content-type", "text/plain", "cookie",
+				"one=1", "cookie", "two=2");
+		this.sendToServer();
+
+		// Ensure stream serviced
+		assertEquals("Should service request", 1, this.serviced.size());
+		Http2Stream stream = this.serviced.get(0);
+		assertEquals("Incorrect stream", 1, stream.getStreamId());
+		assertEquals("Incorrect method", "POST", stream.getMethod());
+		assertEquals("Incorrect path", "/path?query=value", stream.getPath());
+		assertEquals("Incorrect authority", "localhost", stream.getAuthority());
+		assertEquals("Incorrect entity", "REQUEST",
+				new String(stream.getEntity(), ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+		assertHeaders(stream, "content-type", "text/plain", "cookie", "one=1; two=2", "host", "localhost");
+
+		// Send the response
+		this.writeResponse(1, "RESPONSE");
+		Response response = this.readResponses(1).get(1);
+		assertEquals("Incorrect status", 200, response.getStatus());
+		assertEquals("Incorrect header", "value", response.getHeader("x-test"));
+		assertEquals("Incorrect entity", "RESPONSE", response.getEntity());
+	}
+
+	/**
+	 * Ensure streams are serviced independently (no head of line blocking).
+	 */
+	public void testMultiplexStreams() throws Exception {
+		this.client.writeSettings();
+		this.client.writeRequest(1, "GET", "/one", null);
+		this.client.writeRequest(3, "GET", "/three", null);
+		this.sendToServer();
+		assertEquals("Should service both requests", 2, this.serviced.size());
+
+		// Respond to later stream first
+		this.writeResponse(3, "THREE");
+		this.serverOutput.reset();
+		this.writeResponse(1, "ONE");
+		Map<Integer, Response> responses = this.readResponses(1);
+		assertEquals("Should only have first stream response", 1, responses.size());
+		assertEquals("Incorrect response", "ONE", responses.get(1).getEntity());
+	}
+
+	/**
+	 * Ensure header block may be split across <code>CONTINUATION</code> frames.
+	 */
+	public void testContinuation() throws Exception {
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		HpackEncoder.encode(":method", "GET", block);
+		HpackEncoder.encode(":scheme", "http", block);
+		HpackEncoder.encode(":path", "/continued", block);
+		byte[] encoded = block.toByteArray();
+		byte[] first = new byte[2];
+		byte[] remaining = new byte[encoded.length - 2];
+		System.arraycopy(encoded, 0, first, 0, first.length);
+		System.arraycopy(encoded, 2, remaining, 0, remaining.length);
+
+		this.client.writeSettings();
+		this.client.writeFrame(Http2Connection.HEADERS, Http2Connection.FLAG_END_STREAM, 1, first);
+		this.client.writeFrame(Http2Connection.CONTINUATION, Http2Connection.FLAG_END_HEADERS, 1, remaining);
+		this.sendToServer();
+		assertEquals("Should service request", 1, this.serviced.size());
+		assertEquals("Incorrect path", "/continued", this.serviced.get(0).getPath());
+	}
+
+	/**
+	 * Ensure response data is flow controlled.
+	 */
+	public void testFlowControl() throws Exception {
+		this.client.writeSettings(Http2Connection.SETTINGS_INITIAL_WINDOW_SIZE, 5);
+		this.client.writeRequest(1, "GET", "/", null);
+		this.sendToServer();
+		this.serverOutput.reset();
+
+		// Only window of data sent
+		this.writeResponse(1, "HELLO WORLD");
+		this.resetClientInput();
+		assertEquals("Expecting headers", Http2Connection.HEADERS, this.client.readFrame().type);
+		Frame data = this.client.readFrame();
+		assertEquals("Expecting data", Http2Connection.DATA, data.type);
+		assertEquals("Incorrect data", "HELLO",
+				new String(data.payload, ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+		assertFalse("Should not end stream", data.isFlag(Http2Connection.FLAG_END_STREAM));
+		assertEquals("Should block until window update", 0, this.remainingServerOutput());
+
+		// Increase the window to send remaining data
+		this.serverOutput.reset();
+		this.client.writeWindowUpdate(1, 100);
+		this.sendToServer();
+		data = this.client.readFrame();
+		assertEquals("Expecting data", Http2Connection.DATA, data.type);
+		assertEquals("Incorrect data", " WORLD",
+				new String(data.payload, ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+		assertTrue("Should end stream", data.isFlag(Http2Connection.FLAG_END_STREAM));
+	}
+
+	/**
+	 * Ensure replenishes receive window.
+	 */
+	public void testReplenishReceiveWindow() throws Exception {
+		this.client.writeSettings();
+		this.sendToServer();
+		this.serverOutput.reset();
+
+		// Send partial request
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		HpackEncoder.encode(":method", "POST", block);
+		HpackEncoder.encode(":scheme", "http", block);
+		HpackEncoder.encode(":path", "/", block);
+		this.client.writeFrame(Http2Connection.HEADERS, Http2Connection.FLAG_END_HEADERS, 1, block.toByteArray());
+		this.client.writeFrame(Http2Connection.DATA, 0, 1, new byte[10]);
+		this.sendToServer();
+
+		// Ensure window updates for connection and stream
+		Frame connectionUpdate = this.client.readFrame();
+		assertEquals("Expecting window update", Http2Connection.WINDOW_UPDATE, connectionUpdate.type);
+		assertEquals("Incorrect stream", 0, connectionUpdate.streamId);
+		assertEquals("Incorrect increment", 10, connectionUpdate.getInt(0));
+		Frame streamUpdate = this.client.readFrame();
+		assertEquals("Expecting window update", Http2Connection.WINDOW_UPDATE, streamUpdate.type);
+		assertEquals("Incorrect stream", 1, streamUpdate.streamId);
+		assertEquals("Incorrect increment", 10, streamUpdate.getInt(0));
+	}
+
+	/**
+	 * Ensure reply to <code>PING</code>.
+	 */
+	public void testPing() throws Exception {
+		this.client.writeSettings();
+		this.sendToServer();
+		this.serverOutput.reset();
+		this.client.writeFrame(Http2Connection.PING, 0, 0, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		this.sendToServer();
+		Frame ping = this.client.readFrame();
+		assertEquals("Expecting ping", Http2Connection.PING, ping.type);
+		assertTrue("Should be acknowledgement", ping.isFlag(Http2Connection.FLAG_ACK));
+		assertEquals("Incorrect payload", 8, ping.payload[7]);
+	}
+
+	/**
+	 * Ensure <code>RST_STREAM</code> cancels servicing.
+	 */
+	public void testResetStream() throws Exception {
+		this.client.writeSettings();
+		this.client.writeRequest(1, "GET", "/", null);
+		this.client.writeFrame(Http2Connection.RST_STREAM, 0, 1, new byte[] { 0, 0, 0, Http2Exception.CANCEL });
+		this.sendToServer();
+		assertEquals("Should cancel servicing", 1, this.cancelCount);
+
+		// Response should be ignored
+		this.serverOutput.reset();
+		this.writeResponse(1, "IGNORED");
+		assertEquals("Should not write response", 0, this.serverOutput.size());
+	}
+
+	/**
+	 * Ensure reject entity too large.
+	 */
+	public void testEntityTooLarge() throws Exception {
+		StringBuilder entity = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			entity.append('.');
+		}
+		this.client.writeSettings();
+		this.client.writeRequest(1, "POST", "/", entity.toString());
+		this.sendToServer();
+		assertEquals("Should not service request", 0, this.serviced.size());
+		assertEquals("Incorrect status", HttpStatus.REQUEST_ENTITY_TOO_LARGE.getStatusCode(),
+				this.readResponses(1).get(1).getStatus());
+	}
+
+	/**
+	 * Ensure reset stream on malformed request.
+	 */
+	public void testMalformedRequest() throws Exception {
+		this.client.writeSettings();
+		this.client.writeRequest(1, "GET", "/", null, "connection", "keep-alive");
+		this.sendToServer();
+		assertEquals("Should not service request", 0, this.serviced.size());
+		Frame reset = this.readFrame(Http2Connection.RST_STREAM);
+		assertEquals("Incorrect stream", 1, reset.streamId);
+		assertEquals("Incorrect error", Http2Exception.PROTOCOL_ERROR, reset.getInt(0));
+	}
+
+	/**
+	 * Ensure connection error results in <code>GOAWAY</code>.
+	 */
+	public void testProtocolError() throws Exception {
+		this.client.writeSettings();
+		this.client.writeFrame(Http2Connection.DATA, 0, 0, new byte[1]);
+		this.sendToServer();
+		Frame goAway = this.readFrame(Http2Connection.GOAWAY);
+		assertEquals("Incorrect error", Http2Exception.PROTOCOL_ERROR, goAway.getInt(4));
+	}
+
+	/**
+	 * Ensure first frame must be <code>SETTINGS</code>.
+	 */
+	public void testRequireSettings() throws Exception {
+		this.client.writeRequest(1, "GET", "/", null);
+		this.sendToServer();
+		assertEquals("Should not service request", 0, this.serviced.size());
+		Frame goAway = this.readFrame(Http2Connection.GOAWAY);
+		assertEquals("Incorrect error", Http2Exception.PROTOCOL_ERROR, goAway.getInt(4));
+	}
+
+	/**
+	 * Sends the client frames to the server (one byte at a time to ensure
+	 * handles partial frames).
+	 */
+	private void sendToServer() {
+		byte[] data = this.clientOutput.toByteArray();
+		this.clientOutput.reset();
+		for (int i = 0; i < data.length; i++) {
+			this.connection.receive(ByteBuffer.wrap(data, i, 1));
+		}
+		this.resetClientInput();
+	}
+
+	/**
+	 * Writes the response.
+	 * 
+	 * @param streamId Stream identifier.
+	 * @param entity   Entity.
+	 */
+	private void writeResponse(int streamId, String entity) {
+		byte[] headerBlock = Http2ResponseEncoder.encodeHeaders(HttpStatus.OK, new WritableHttpHeader("X-Test", "value"),
+				null, entity.length(), null);
+		this.connection.writeResponse(streamId, headerBlock,
+				entity.getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+	}
+
+	/**
+	 * Reads the responses from the server.
+	 * 
+	 * @param count Number of responses.
+	 * @return Responses by stream identifier.
+	 */
+	private Map<Integer, Response> readResponses(int count) throws Exception {
+		this.resetClientInput();
+		return this.client.readResponses(count);
+	}
+
+	/**
+	 * Reads frames until the frame of the type.
+	 * 
+	 * @param type Type of frame.
+	 * @return {@link Frame}.
+	 */
+	private Frame readFrame(int type) throws IOException {
+		Frame frame;
+		do {
+			frame = this.client.readFrame();
+		} while (frame.type != type);
+		return frame;
+	}
+
+	/**
+	 * Obtains the remaining server output not read by the client.
+	 * 
+	 * @return Number of bytes not read.
+	 */
+	private int remainingServerOutput() throws IOException {
+		return this.clientInput.available();
+	}
+
+	/**
+	 * Client input of server output.
+	 */
+	private ByteArrayInputStream clientInput;
+
+	/**
+	 * Resets the client input to read the server output.
+	 */
+	private void resetClientInput() {
+		this.clientInput = new ByteArrayInputStream(this.serverOutput.toByteArray());
+		this.client = new Http2TestClient(this.clientInput, this.clientOutput);
+	}
+
+	/**
+	 * Asserts the headers of the {@link Http2Stream}.
+	 * 
+	 * @param stream         {@link Http2Stream}.
+	 * @param nameValuePairs Expected name / value pairs.
+	 */
+	private static void assertHeaders(Http2Stream stream, String... nameValuePairs) {
+		List<HpackHeaderField> headers = stream.getHeaders();
+		assertEquals("Incorrect number of headers", nameValuePairs.length / 2, headers.size());
+		for (int i = 0; i < headers.size(); i++) {
+			assertEquals("Incorrect header name", nameValuePairs[i * 2], headers.get(i).getName());
+			assertEquals("Incorrect header value", nameValuePairs[(i * 2) + 1], headers.get(i).getValue());
+		}
+	}
+
+}
@@ -0,0 +1,270 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.officefloor.server.http.ServerHttpConnection;
+
+/**
+ * Raw frame HTTP/2 client for testing.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class Http2TestClient {
+
+	/**
+	 * Received frame.
+	 */
+	public static class Frame {
+
+		public final int type;
+
+		public final int flags;
+
+		public final int streamId;
+
+		public final byte[] payload;
+
+		private Frame(int type, int flags, int streamId, byte[] payload) {
+			this.type = type;
+			this.flags = flags;
+			this.streamId = streamId;
+			this.payload = payload;
+		}
+
+		public boolean isFlag(int flag) {
+			return (this.flags & flag) != 0;
+		}
+
+		public int getInt(int offset) {
+			return ((this.payload[offset] & 0xff) << 24) | ((this.payload[offset + 1] & 0xff) << 16)
+					| ((this.payload[offset + 2] & 0xff) << 8) | (this.payload[offset + 3] & 0xff);
+		}
+	}
+
+	/**
+	 * Received response.
+	 */
+	public static class Response {
+
+		public final List<HpackHeaderField> headers = new ArrayList<>();
+
+		public final ByteArrayOutputStream entity = new ByteArrayOutputStream();
+
+		public String getHeader(String name) {
+			for (HpackHeaderField header : this.headers) {
+				if (header.getName().equals(name)) {
+					return header.getValue();
+				}
+			}
+			return null;
+		}
+
+		public int getStatus() {
+			return Integer.parseInt(this.getHeader(":status"));
+		}
+
+		public String getEntity() {
+			return new String(this.entity.toByteArray(), ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET);
+		}
+	}
+
+	/**
+	 * {@link DataInputStream} to read frames.
+	 */
+	private final DataInputStream input;
+
+	/**
+	 * {@link OutputStream} to write frames.
+	 */
+	private final OutputStream output;
+
+	/**
+	 * {@link HpackDecoder} for responses.
+	 */
+	private final HpackDecoder decoder = new HpackDecoder(Http2Connection.HEADER_TABLE_SIZE);
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param input  {@link InputStream} to read frames.
+	 * @param output {@link OutputStream} to write frames.
+	 */
+	public Http2TestClient(InputStream input, OutputStream output) {
+		this.input = new DataInputStream(input);
+		this.output = output;
+	}
+
+	/**
+	 * Writes the client preface (with empty <code>SETTINGS</code>).
+	 */
+	public void writePreface() throws IOException {
+		this.output.write(Http2Connection.PREFACE);
+		this.writeSettings();
+	}
+
+	/**
+	 * Writes <code>SETTINGS</code>.
+	 * 
+	 * @param identifierValuePairs Identifier / value pairs.
+	 */
+	public void writeSettings(int... identifierValuePairs) throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		for (int i = 0; i < identifierValuePairs.length; i += 2) {
+			payload.write(identifierValuePairs[i] >>> 8);
+			payload.write(identifierValuePairs[i]);
+			writeInt(identifierValuePairs[i + 1], payload);
+		}
+		this.writeFrame(Http2Connection.SETTINGS, 0, 0, payload.toByteArray());
+	}
+
+	/**
+	 * Writes a request.
+	 * 
+	 * @param streamId           Stream identifier.
+	 * @param method             Method.
+	 * @param path               Path.
+	 * @param entity             Entity. May be <code>null</code>.
+	 * @param headerNameValuePairs Header name / value pairs.
+	 */
+	public void writeRequest(int streamId, String method, String path, String entity, String... headerNameValuePairs)
+			throws IOException {
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		HpackEncoder.encode(":method", method, block);
+		HpackEncoder.encode(":scheme", "http", block);
+		HpackEncoder.encode(":path", path, block);
+		HpackEncoder.encode(":authority", "localhost", block);
+		for (int i = 0; i < headerNameValuePairs.length; i += 2) {
+			HpackEncoder.encode(headerNameValuePairs[i], headerNameValuePairs[i + 1], block);
+		}
+		boolean isEntity = (entity != null);
+		this.writeFrame(Http2Connection.HEADERS,
+				Http2Connection.FLAG_END_HEADERS | (isEntity ? 0 : Http2Connection.FLAG_END_STREAM), streamId,
+				block.toByteArray());
+		if (isEntity) {
+			this.writeFrame(Http2Connection.DATA, Http2Connection.FLAG_END_STREAM, streamId,
+					entity.getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET));
+		}
+	}
+
+	/**
+	 * Writes <code>WINDOW_UPDATE</code>.
+	 * 
+	 * @param streamId  Stream identifier.
+	 * @param increment Increment.
+	 */
+	public void writeWindowUpdate(int streamId, int increment) throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeInt(increment, payload);
+		this.writeFrame(Http2Connection.WINDOW_UPDATE, 0, streamId, payload.toByteArray());
+	}
+
+	/**
+	 * Writes a frame.
+	 * 
+	 * @param type     Type.
+	 * @param flags    Flags.
+	 * @param streamId Stream identifier.
+	 * @param payload  Payload.
+	 */
+	public void writeFrame(int type, int flags, int streamId, byte[] payload) throws IOException {
+		ByteArrayOutputStream frame = new ByteArrayOutputStream();
+		frame.write(payload.length >>> 16);
+		frame.write(payload.length >>> 8);
+		frame.write(payload.length);
+		frame.write(type);
+		frame.write(flags);
+		writeInt(streamId, frame);
+		frame.write(payload);
+		this.output.write(frame.toByteArray());
+		this.output.flush();
+	}
+
+	/**
+	 * Reads the next frame.
+	 * 
+	 * @return {@link Frame}.
+	 */
+	public Frame readFrame() throws IOException {
+		int length = (this.input.readUnsignedByte() << 16) | (this.input.readUnsignedByte() << 8)
+				| this.input.readUnsignedByte();
+		int type = this.input.readUnsignedByte();
+		int flags = this.input.readUnsignedByte();
+		int streamId = this.input.readInt() & 0x7fffffff;
+		byte[] payload = new byte[length];
+		this.input.readFully(payload);
+		return new Frame(type, flags, streamId, payload);
+	}
+
+	/**
+	 * Reads the responses, ignoring connection level frames.
+	 * 
+	 * @param count Number of responses to read.
+	 * @return {@link Response} instances by stream identifier.
+	 */
+	public Map<Integer, Response> readResponses(int count) throws IOException, Http2Exception {
+		Map<Integer, Response> responses = new HashMap<>();
+		int complete = 0;
+		while (complete < count) {
+			Frame frame = this.readFrame();
+			switch (frame.type) {
+			case Http2Connection.HEADERS:
+				Response response = new Response();
+				responses.put(frame.streamId, response);
+				this.decoder.decode(frame.payload, 0, frame.payload.length, response.headers);
+				break;
+			case Http2Connection.DATA:
+				responses.get(frame.streamId).entity.write(frame.payload);
+				break;
+			default:
+				continue; // ignore other frames
+			}
+			if (frame.isFlag(Http2Connection.FLAG_END_STREAM)) {
+				complete++;
+			}
+		}
+		return responses;
+	}
+
+	/**
+	 * Writes a 32 bit integer.
+	 * 
+	 * @param value  Value.
+	 * @param output {@link ByteArrayOutputStream}.
+	 */
+	private static void writeInt(int value, ByteArrayOutputStream output) {
+		output.write(value >>> 24);
+		output.write(value >>> 16);
+		output.write(value >>> 8);
+		output.write(value);
+	}
+
+}
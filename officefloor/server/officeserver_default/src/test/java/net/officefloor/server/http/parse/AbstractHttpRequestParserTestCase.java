@@ -21,10 +21,12 @@
 
 package net.officefloor.server.http.parse;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Iterator;
 
 import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.buffer.StreamBufferByteSequence;
 import net.officefloor.server.http.HttpException;
 import net.officefloor.server.http.HttpHeader;
 import net.officefloor.server.http.HttpMethod;
@@ -33,6 +35,7 @@ import net.officefloor.server.http.HttpRequest;
 import net.officefloor.server.http.HttpStatus;
 import net.officefloor.server.http.HttpVersion;
 import net.officefloor.server.http.HttpVersion.HttpVersionEnum;
+import net.officefloor.server.http.ServerHttpConnection;
 import net.officefloor.server.http.UsAsciiUtil;
 import net.officefloor.server.http.impl.NonMaterialisedHttpHeader;
 import net.officefloor.server.http.impl.NonMaterialisedHttpHeaders;
@@ -425,6 +428,142 @@ public abstract class AbstractHttpRequestParserTestCase extends OfficeFrameTestC
 				"Content-Length header value must be an integer");
 	}
 
+	/**
+	 * Validate POST with chunked entity.
+	 */
+	public void testChunkedEntity() {
+		this.doMethodTest("POST /path HTTP/1.1\nTransfer-Encoding: chunked\n\n4\nTEST\n1a\nabcdefghijklmnopqrstuvwxyz\n0\n\n",
+				HttpMethod.POST, "/path", HttpVersion.HTTP_1_1, "TESTabcdefghijklmnopqrstuvwxyz", "Transfer-Encoding",
+				"chunked");
+	}
+
+	/**
+	 * Validate POST with chunked entity containing chunk extensions and
+	 * trailer fields.
+	 */
+	public void testChunkedEntityWithExtensionsAndTrailer() {
+		this.doMethodTest("POST /path HTTP/1.1\nTransfer-Encoding: Chunked\n\n4;name=value\nTEST\n0\nTrailer: Value\n\n",
+				HttpMethod.POST, "/path", HttpVersion.HTTP_1_1, "TEST", "Transfer-Encoding", "Chunked");
+	}
+
+	/**
+	 * Validate POST with empty chunked entity.
+	 */
+	public void testChunkedEntityEmpty() {
+		this.doMethodTest("POST /path HTTP/1.1\nTransfer-Encoding: chunked\n\n0\n\n", HttpMethod.POST, "/path",
+				HttpVersion.HTTP_1_1, "", "Transfer-Encoding", "chunked");
+	}
+
+	/**
+	 * Validate POST with not all of the chunked entity received.
+	 */
+	public void testChunkedEntityNotAllReceived() {
+		this.doMethodTest("POST /path HTTP/1.1\nTransfer-Encoding: chunked\n\n4\nTEST\n", HttpMethod.POST, "/path",
+				HttpVersion.HTTP_1_1, null, "Transfer-Encoding", "chunked");
+	}
+
+	/**
+	 * Ensures fails if chunked entity is bigger than maximum size.
+	 */
+	public void testTooLong_ChunkedEntity() {
+		this.doInvalidMethodTest("POST /path HTTP/1.1\nTransfer-Encoding: chunked\n\n401\n",
+				HttpStatus.REQUEST_ENTITY_TOO_LARGE,
+				"Request entity must be less than maximum of " + MAX_ENTITY_LENGTH + " bytes");
+	}
+
+	/**
+	 * Ensures the chunk size is hexadecimal.
+	 */
+	public void testInvalidChunkSize() {
+		this.doInvalidMethodTest("POST /path HTTP/1.1\nTransfer-Encoding: chunked\n\nINVALID\nTEST\n0\n\n",
+				HttpStatus.BAD_REQUEST, "Invalid chunk size");
+	}
+
+	/**
+	 * Ensures only chunked Transfer-Encoding is supported.
+	 */
+	public void testUnsupportedTransferEncoding() {
+		this.doInvalidMethodTest("POST /path HTTP/1.1\nTransfer-Encoding: gzip\n\n", HttpStatus.NOT_IMPLEMENTED,
+				"Only chunked Transfer-Encoding is supported");
+	}
+
+	/**
+	 * Ensures not able to provide both Content-Length and Transfer-Encoding.
+	 */
+	public void testContentLengthWithTransferEncoding() {
+		this.doInvalidMethodTest(
+				"POST /path HTTP/1.1\nContent-Length: 4\nTransfer-Encoding: chunked\n\n4\nTEST\n0\n\n",
+				HttpStatus.BAD_REQUEST, "Content-Length not allowed with Transfer-Encoding");
+	}
+
+	/**
+	 * Ensure streams Content-Length entity larger than stream threshold.
+	 */
+	public void testStreamContentLengthEntity() throws HttpException {
+		StreamingHttpRequestParser parser = this.doStreamTest("POST /path HTTP/1.1\nContent-Length: 4\n\nTEST");
+		assertEquals("Incorrect method", HttpMethod.POST, parser.streamedMethod);
+		assertEquals("Incorrect request URI", "/path", parser.streamedRequestUri);
+		assertEquals("Incorrect header", "Content-Length: 4", parser.streamedHeaders);
+		assertEquals("Incorrect streamed entity", "TEST", parser.getStreamedEntity());
+	}
+
+	/**
+	 * Ensure streams chunked entity.
+	 */
+	public void testStreamChunkedEntity() throws HttpException {
+		StreamingHttpRequestParser parser = this.doStreamTest(
+				"POST /path HTTP/1.1\nTransfer-Encoding: chunked\n\n4\nTEST\n1a\nabcdefghijklmnopqrstuvwxyz\n0\nTrailer: Value\n\n");
+		assertEquals("Incorrect method", HttpMethod.POST, parser.streamedMethod);
+		assertEquals("Incorrect header", "Transfer-Encoding: chunked", parser.streamedHeaders);
+		assertEquals("Incorrect streamed entity", "TESTabcdefghijklmnopqrstuvwxyz", parser.getStreamedEntity());
+	}
+
+	/**
+	 * Ensure streamed entity is not limited by the maximum entity length (as not
+	 * held in memory).
+	 */
+	public void testStreamEntityLargerThanMaximum() throws HttpException {
+		StringBuilder entity = new StringBuilder();
+		for (int i = 0; i <= MAX_ENTITY_LENGTH; i++) {
+			entity.append((char) ('a' + (i % 26)));
+		}
+		StreamingHttpRequestParser parser = this
+				.doStreamTest("POST /path HTTP/1.1\nContent-Length: " + entity.length() + "\n\n" + entity);
+		assertEquals("Incorrect streamed entity", entity.toString(), parser.getStreamedEntity());
+	}
+
+	/**
+	 * Ensure does not stream entity within the stream threshold.
+	 */
+	public void testNotStreamSmallEntity() throws HttpException {
+		StreamingHttpRequestParser parser = new StreamingHttpRequestParser();
+		assertTrue("Should parse request",
+				this.parse(parser, UsAsciiUtil.convertToHttp("POST /path HTTP/1.1\nContent-Length: 2\n\nOK")));
+		assertFalse("Should not stream entity", parser.isStreamEntity());
+		ByteSequence entityData = parser.getEntity();
+		byte[] entity = new byte[entityData.length()];
+		entityData.copyTo(0, entity, 0, entity.length);
+		UsAsciiUtil.assertEquals("Incorrect entity", "OK", entity);
+		assertNull("Should not complete streamed entity", parser.streamedMethod);
+	}
+
+	/**
+	 * Ensure can parse request following the streamed entity.
+	 */
+	public void testRequestAfterStreamedEntity() throws HttpException {
+		StreamingHttpRequestParser parser = new StreamingHttpRequestParser();
+		boolean isParsed = this.parse(parser, UsAsciiUtil.convertToHttp(
+				"POST /one HTTP/1.1\nTransfer-Encoding: chunked\n\n5\nCHUNK\n0\n\nGET /two HTTP/1.1\n\n"));
+		if (parser.isStreamEntity()) {
+			// Only the streamed request parsed (so parse the next request)
+			isParsed = parser.parse();
+		}
+		assertTrue("Should parse next request", isParsed);
+		assertEquals("Incorrect streamed entity", "CHUNK", parser.getStreamedEntity());
+		assertEquals("Incorrect next method", HttpMethod.GET, parser.getMethod().get());
+		assertEquals("Incorrect next request URI", "/two", parser.getRequestURI().get());
+	}
+
 	/**
 	 * Ensure able to reset {@link HttpRequestParser} to parse another request.
 	 */
@@ -436,6 +575,14 @@ public abstract class AbstractHttpRequestParserTestCase extends OfficeFrameTestC
 		// Parse second request
 		this.doMethodTest("PUT /two HTTP/1.0\nContent-Length: 7\nHeaderTwo: ValueTwo\n\nANOTHER", HttpMethod.PUT,
 				"/two", HttpVersion.HTTP_1_0, "ANOTHER", "Content-Length", "7", "HeaderTwo", "ValueTwo");
+
+		// Parse chunked request
+		this.doMethodTest("POST /three HTTP/1.1\nTransfer-Encoding: chunked\n\n5\nCHUNK\n0\n\n", HttpMethod.POST,
+				"/three", HttpVersion.HTTP_1_1, "CHUNK", "Transfer-Encoding", "chunked");
+
+		// Parse request after chunked request
+		this.doMethodTest("PUT /four HTTP/1.1\nContent-Length: 4\n\nLAST", HttpMethod.PUT, "/four",
+				HttpVersion.HTTP_1_1, "LAST", "Content-Length", "4");
 	}
 
 	/**
@@ -658,6 +805,97 @@ public abstract class AbstractHttpRequestParserTestCase extends OfficeFrameTestC
 		}
 	}
 
+	/**
+	 * Undertakes parsing the {@link HttpRequest} with the entity streamed.
+	 * 
+	 * @param httpRequest
+	 *            HTTP request content.
+	 * @return {@link StreamingHttpRequestParser} containing the streamed
+	 *         details.
+	 * @throws HttpException
+	 *             If fails to parse.
+	 */
+	private StreamingHttpRequestParser doStreamTest(String httpRequest) throws HttpException {
+		StreamingHttpRequestParser parser = new StreamingHttpRequestParser();
+		this.parse(parser, UsAsciiUtil.convertToHttp(httpRequest));
+		parser.parse(); // stream remaining entity
+		assertTrue("Streamed entity should be complete", parser.isStreamComplete);
+		return parser;
+	}
+
+	/**
+	 * {@link HttpRequestParser} capturing the streamed entity.
+	 */
+	private static class StreamingHttpRequestParser extends HttpRequestParser {
+
+		/**
+		 * Streamed entity data.
+		 */
+		private final ByteArrayOutputStream streamedEntity = new ByteArrayOutputStream();
+
+		/**
+		 * Indicates if the streamed entity is complete.
+		 */
+		private boolean isStreamComplete = false;
+
+		/**
+		 * {@link HttpMethod} of the streamed request.
+		 */
+		private HttpMethod streamedMethod = null;
+
+		/**
+		 * Request URI of the streamed request.
+		 */
+		private String streamedRequestUri = null;
+
+		/**
+		 * Headers of the streamed request.
+		 */
+		private String streamedHeaders = null;
+
+		/**
+		 * Instantiate.
+		 */
+		private StreamingHttpRequestParser() {
+			super(new HttpRequestParserMetaData(MAX_HEADER_COUNT, MAX_TEXT_LENGTH, MAX_ENTITY_LENGTH, 2, 4));
+		}
+
+		/**
+		 * Obtains the streamed entity.
+		 * 
+		 * @return Streamed entity.
+		 */
+		private String getStreamedEntity() {
+			return new String(this.streamedEntity.toByteArray(), ServerHttpConnection.HTTP_CHARSET);
+		}
+
+		/*
+		 * ================= HttpRequestParser ====================
+		 */
+
+		@Override
+		protected void receiveStreamedEntity(StreamBufferByteSequence data) {
+			byte[] bytes = new byte[data.length()];
+			data.copyTo(0, bytes, 0, bytes.length);
+			this.streamedEntity.write(bytes, 0, bytes.length);
+		}
+
+		@Override
+		protected void completeStreamedEntity() {
+			this.isStreamComplete = true;
+
+			// Capture the request (as reset for next request)
+			this.streamedMethod = this.getMethod().get();
+			this.streamedRequestUri = this.getRequestURI().get();
+			StringBuilder headers = new StringBuilder();
+			for (NonMaterialisedHttpHeader header : this.getHeaders()) {
+				HttpHeader httpHeader = header.materialiseHttpHeader();
+				headers.append(httpHeader.getName() + ": " + httpHeader.getValue());
+			}
+			this.streamedHeaders = headers.toString();
+		}
+	}
+
 	/**
 	 * Does an invalid HTTP request test.
 	 * 
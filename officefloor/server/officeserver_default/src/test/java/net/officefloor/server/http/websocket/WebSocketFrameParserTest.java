@@ -0,0 +1,446 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.websocket;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.buffer.StreamBufferByteSequence;
+import net.officefloor.server.buffer.StreamBufferScanner;
+import net.officefloor.server.http.mock.MockStreamBufferPool;
+import net.officefloor.server.stream.StreamBuffer;
+import net.officefloor.server.stream.StreamBufferPool;
+
+/**
+ * Tests the {@link WebSocketFrameParser}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebSocketFrameParserTest extends OfficeFrameTestCase {
+
+	/**
+	 * UTF-8 {@link Charset}.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * {@link StreamBufferPool}.
+	 */
+	private final StreamBufferPool<ByteBuffer> bufferPool = new MockStreamBufferPool(() -> ByteBuffer.allocate(64));
+
+	/**
+	 * {@link StreamBufferScanner}.
+	 */
+	private final StreamBufferScanner scanner = new StreamBufferScanner();
+
+	/**
+	 * {@link WebSocketFrameParser}.
+	 */
+	private final WebSocketFrameParser parser = new WebSocketFrameParser(this.scanner, 1024 * 1024);
+
+	/**
+	 * Current read {@link StreamBuffer}.
+	 */
+	private StreamBuffer<ByteBuffer> readBuffer = null;
+
+	/**
+	 * Ensure can parse text message.
+	 */
+	public void testTextMessage() throws Exception {
+		this.receive(text(true, "Hello"));
+		this.assertMessage(WebSocketFrameParser.OPCODE_TEXT, "Hello");
+		assertFalse("Should be no further messages", this.parser.parse());
+	}
+
+	/**
+	 * Ensure can parse binary message.
+	 */
+	public void testBinaryMessage() throws Exception {
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_BINARY, new byte[] { 1, 2, 3 }));
+		assertTrue("Should parse message", this.parser.parse());
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_BINARY, this.parser.getOpCode());
+		assertBytes(new byte[] { 1, 2, 3 }, this.parser.getPayload());
+	}
+
+	/**
+	 * Ensure can parse empty message.
+	 */
+	public void testEmptyMessage() throws Exception {
+		this.receive(text(true, ""));
+		assertTrue("Should parse message", this.parser.parse());
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_TEXT, this.parser.getOpCode());
+		assertNull("Should be no payload", this.parser.getPayload());
+	}
+
+	/**
+	 * Ensure can parse 16 bit extended payload length.
+	 */
+	public void testExtendedLength() throws Exception {
+		byte[] data = data(300);
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_BINARY, data));
+		assertTrue("Should parse message", this.parser.parse());
+		assertBytes(data, this.parser.getPayload());
+	}
+
+	/**
+	 * Ensure can parse 64 bit extended payload length.
+	 */
+	public void testLongExtendedLength() throws Exception {
+		byte[] data = data(70000);
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_BINARY, data));
+		assertTrue("Should parse message", this.parser.parse());
+		assertBytes(data, this.parser.getPayload());
+	}
+
+	/**
+	 * Ensure can parse frame received a byte at a time.
+	 */
+	public void testReceiveByteAtATime() throws Exception {
+		byte[] data = data(200);
+		byte[] frame = frame(true, WebSocketFrameParser.OPCODE_BINARY, data);
+		for (int i = 0; i < frame.length - 1; i++) {
+			this.receive(new byte[] { frame[i] });
+			assertFalse("Should not parse until all data received (" + i + ")", this.parser.parse());
+		}
+		this.receive(new byte[] { frame[frame.length - 1] });
+		assertTrue("Should parse message", this.parser.parse());
+		assertBytes(data, this.parser.getPayload());
+	}
+
+	/**
+	 * Ensure can parse multiple messages from the same data.
+	 */
+	public void testMultipleMessages() throws Exception {
+		this.receive(text(true, "one"), text(true, "two"), text(true, "three"));
+		this.assertMessage(WebSocketFrameParser.OPCODE_TEXT, "one");
+		this.assertMessage(WebSocketFrameParser.OPCODE_TEXT, "two");
+		this.assertMessage(WebSocketFrameParser.OPCODE_TEXT, "three");
+		assertFalse("Should be no further messages", this.parser.parse());
+	}
+
+	/**
+	 * Ensure can accumulate fragmented message with interleaved control frame.
+	 */
+	public void testFragmentedMessage() throws Exception {
+		this.receive(text(true, "before"), text(false, "Hel"),
+				frame(true, WebSocketFrameParser.OPCODE_PING, "ping".getBytes(UTF_8)),
+				frame(false, WebSocketFrameParser.OPCODE_CONTINUATION, "lo ".getBytes(UTF_8)),
+				frame(false, WebSocketFrameParser.OPCODE_CONTINUATION, new byte[0]),
+				frame(true, WebSocketFrameParser.OPCODE_CONTINUATION, "World".getBytes(UTF_8)));
+		this.assertMessage(WebSocketFrameParser.OPCODE_TEXT, "before");
+		assertFalse("Should not be fragmented", this.parser.isFragmentedMessage());
+		this.assertMessage(WebSocketFrameParser.OPCODE_PING, "ping");
+		assertTrue("Should be part way through fragmented message", this.parser.isFragmentedMessage());
+		this.assertMessage(WebSocketFrameParser.OPCODE_TEXT, "Hello World");
+		assertFalse("Should complete fragmented message", this.parser.isFragmentedMessage());
+	}
+
+	/**
+	 * Ensure can parse control frames.
+	 */
+	public void testControlFrames() throws Exception {
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_PONG, new byte[0]),
+				frame(true, WebSocketFrameParser.OPCODE_CLOSE, new byte[] { 0x03, (byte) 0xe8 }));
+		assertTrue("Should parse pong", this.parser.parse());
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_PONG, this.parser.getOpCode());
+		assertNull("Should be no pong payload", this.parser.getPayload());
+		assertTrue("Should parse close", this.parser.parse());
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_CLOSE, this.parser.getOpCode());
+		assertBytes(new byte[] { 0x03, (byte) 0xe8 }, this.parser.getPayload());
+	}
+
+	/**
+	 * Ensure client frames must be masked.
+	 */
+	public void testUnmaskedFrame() {
+		this.receive(WebSocketTestClient.encodeFrame(true, WebSocketFrameParser.OPCODE_TEXT,
+				"unmasked".getBytes(UTF_8), null));
+		this.assertFailure(WebSocketException.PROTOCOL_ERROR);
+	}
+
+	/**
+	 * Ensure no reserved bits as no extensions negotiated.
+	 */
+	public void testReservedBits() {
+		byte[] frame = text(true, "reserved");
+		frame[0] |= 0x40;
+		this.receive(frame);
+		this.assertFailure(WebSocketException.PROTOCOL_ERROR);
+	}
+
+	/**
+	 * Ensure fail on unknown op code.
+	 */
+	public void testUnknownOpCode() {
+		this.receive(frame(true, 0x3, new byte[0]));
+		this.assertFailure(WebSocketException.PROTOCOL_ERROR);
+	}
+
+	/**
+	 * Ensure control frames may not be fragmented.
+	 */
+	public void testFragmentedControlFrame() {
+		this.receive(frame(false, WebSocketFrameParser.OPCODE_PING, new byte[0]));
+		this.assertFailure(WebSocketException.PROTOCOL_ERROR);
+	}
+
+	/**
+	 * Ensure control frame payload is limited.
+	 */
+	public void testControlFrameTooLarge() {
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_PING, data(126)));
+		this.assertFailure(WebSocketException.PROTOCOL_ERROR);
+	}
+
+	/**
+	 * Ensure continuation requires fragmented message.
+	 */
+	public void testUnexpectedContinuation() {
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_CONTINUATION, new byte[0]));
+		this.assertFailure(WebSocketException.PROTOCOL_ERROR);
+	}
+
+	/**
+	 * Ensure new message may not start before fragmented message completes.
+	 */
+	public void testMessageWithinFragmentedMessage() {
+		this.receive(text(false, "start"), text(true, "interrupt"));
+		this.assertFailure(WebSocketException.PROTOCOL_ERROR);
+	}
+
+	/**
+	 * Ensure message is limited in size.
+	 */
+	public void testMessageTooBig() {
+		WebSocketFrameParser limitedParser = new WebSocketFrameParser(this.scanner, 10);
+		this.receive(text(false, "12345"), frame(true, WebSocketFrameParser.OPCODE_CONTINUATION, data(6)));
+		try {
+			limitedParser.parse();
+			fail("Should not be successful");
+		} catch (WebSocketException ex) {
+			assertEquals("Incorrect close code", WebSocketException.MESSAGE_TOO_BIG, ex.getCloseCode());
+		}
+	}
+
+	/**
+	 * Ensure accepts valid UTF-8 text (including multi-byte characters split
+	 * across fragments).
+	 */
+	public void testValidUtf8Text() throws Exception {
+		byte[] text = "\u00a3 \u20ac \ud83d\ude00".getBytes(UTF_8);
+		byte[] start = new byte[3];
+		byte[] end = new byte[text.length - start.length];
+		System.arraycopy(text, 0, start, 0, start.length);
+		System.arraycopy(text, start.length, end, 0, end.length);
+		this.receive(frame(false, WebSocketFrameParser.OPCODE_TEXT, start),
+				frame(true, WebSocketFrameParser.OPCODE_CONTINUATION, end));
+		this.assertMessage(WebSocketFrameParser.OPCODE_TEXT, "\u00a3 \u20ac \ud83d\ude00");
+	}
+
+	/**
+	 * Ensure text message must be valid UTF-8.
+	 */
+	public void testInvalidUtf8Text() {
+		this.assertInvalidUtf8Text(0xff);
+		this.assertInvalidUtf8Text(0x80); // unexpected continuation
+		this.assertInvalidUtf8Text(0xc0, 0xaf); // overlong
+		this.assertInvalidUtf8Text(0xe0, 0x80, 0xaf); // overlong
+		this.assertInvalidUtf8Text(0xed, 0xa0, 0x80); // surrogate
+		this.assertInvalidUtf8Text(0xf4, 0x90, 0x80, 0x80); // beyond U+10FFFF
+		this.assertInvalidUtf8Text(0xe2, 0x82); // truncated
+		this.assertInvalidUtf8Text(0xe2, 0x28, 0xa1); // invalid continuation
+	}
+
+	/**
+	 * Ensure binary message is not validated as UTF-8.
+	 */
+	public void testBinaryNotValidatedAsUtf8() throws Exception {
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_BINARY, new byte[] { (byte) 0xff }));
+		assertTrue("Should parse message", this.parser.parse());
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_BINARY, this.parser.getOpCode());
+	}
+
+	/**
+	 * Ensure provides the close code.
+	 */
+	public void testCloseCode() throws Exception {
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_CLOSE, new byte[0]),
+				close(1000, "normal"), close(1012, null), close(3000, null), close(4999, "\u20ac"));
+		this.assertCloseCode(WebSocketException.NO_STATUS_RECEIVED);
+		this.assertCloseCode(1000);
+		this.assertCloseCode(1012);
+		this.assertCloseCode(3000);
+		this.assertCloseCode(4999);
+	}
+
+	/**
+	 * Ensure invalid close codes are rejected.
+	 */
+	public void testInvalidCloseCode() {
+		for (int closeCode : new int[] { 0, 999, 1004, 1005, 1006, 1015, 1016, 2999, 5000 }) {
+			this.receive(close(closeCode, null));
+			this.assertFailure(WebSocketException.PROTOCOL_ERROR);
+		}
+	}
+
+	/**
+	 * Ensure close payload must contain the close code.
+	 */
+	public void testIncompleteClosePayload() {
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_CLOSE, new byte[] { 0x03 }));
+		this.assertFailure(WebSocketException.PROTOCOL_ERROR);
+	}
+
+	/**
+	 * Ensure close reason must be valid UTF-8.
+	 */
+	public void testInvalidUtf8CloseReason() {
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_CLOSE, new byte[] { 0x03, (byte) 0xe8, (byte) 0xff }));
+		this.assertFailure(WebSocketException.INVALID_PAYLOAD_DATA);
+	}
+
+	/**
+	 * Asserts the text payload fails UTF-8 validation.
+	 * 
+	 * @param payload Text payload.
+	 */
+	private void assertInvalidUtf8Text(int... payload) {
+		byte[] data = new byte[payload.length];
+		for (int i = 0; i < payload.length; i++) {
+			data[i] = (byte) payload[i];
+		}
+		this.receive(frame(true, WebSocketFrameParser.OPCODE_TEXT, data));
+		this.assertFailure(WebSocketException.INVALID_PAYLOAD_DATA);
+	}
+
+	/**
+	 * Asserts the next parsed close frame.
+	 * 
+	 * @param closeCode Expected close code.
+	 */
+	private void assertCloseCode(int closeCode) throws WebSocketException {
+		assertTrue("Should parse close", this.parser.parse());
+		assertEquals("Incorrect op code", WebSocketFrameParser.OPCODE_CLOSE, this.parser.getOpCode());
+		assertEquals("Incorrect close code", closeCode, this.parser.getCloseCode());
+	}
+
+	/**
+	 * Receives the data.
+	 * 
+	 * @param frames Frame data.
+	 */
+	private void receive(byte[]... frames) {
+		for (byte[] frame : frames) {
+			for (byte data : frame) {
+				if ((this.readBuffer == null) || (this.readBuffer.pooledBuffer.remaining() == 0)) {
+					this.readBuffer = this.bufferPool.getPooledStreamBuffer();
+					this.scanner.appendStreamBuffer(this.readBuffer);
+				}
+				this.readBuffer.write(data);
+			}
+		}
+	}
+
+	/**
+	 * Asserts the next parsed message.
+	 * 
+	 * @param opCode Expected op code.
+	 * @param text   Expected text payload.
+	 */
+	private void assertMessage(int opCode, String text) throws WebSocketException {
+		assertTrue("Should parse message", this.parser.parse());
+		assertEquals("Incorrect op code", opCode, this.parser.getOpCode());
+		assertBytes(text.getBytes(UTF_8), this.parser.getPayload());
+	}
+
+	/**
+	 * Asserts parsing fails.
+	 * 
+	 * @param closeCode Expected close code.
+	 */
+	private void assertFailure(int closeCode) {
+		try {
+			this.parser.parse();
+			fail("Should not be successful");
+		} catch (WebSocketException ex) {
+			assertEquals("Incorrect close code", closeCode, ex.getCloseCode());
+		}
+	}
+
+	/**
+	 * Asserts the payload.
+	 * 
+	 * @param expected Expected bytes.
+	 * @param payload  Payload.
+	 */
+	private static void assertBytes(byte[] expected, StreamBufferByteSequence payload) {
+		assertNotNull("Should have payload", payload);
+		byte[] actual = new byte[payload.length()];
+		payload.copyTo(0, actual, 0, actual.length);
+		assertEquals("Incorrect payload length", expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals("Incorrect payload byte " + i, expected[i], actual[i]);
+		}
+	}
+
+	/**
+	 * Creates test data.
+	 * 
+	 * @param length Length of data.
+	 * @return Test data.
+	 */
+	private static byte[] data(int length) {
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) (i * 7);
+		}
+		return data;
+	}
+
+	/**
+	 * Creates a masked text frame.
+	 */
+	private static byte[] text(boolean isFinal, String text) {
+		return frame(isFinal, WebSocketFrameParser.OPCODE_TEXT, text.getBytes(UTF_8));
+	}
+
+	/**
+	 * Creates a masked close frame.
+	 */
+	private static byte[] close(int closeCode, String reason) {
+		byte[] reasonBytes = (reason == null) ? new byte[0] : reason.getBytes(UTF_8);
+		byte[] payload = new byte[2 + reasonBytes.length];
+		payload[0] = (byte) (closeCode >> 8);
+		payload[1] = (byte) closeCode;
+		System.arraycopy(reasonBytes, 0, payload, 2, reasonBytes.length);
+		return frame(true, WebSocketFrameParser.OPCODE_CLOSE, payload);
+	}
+
+	/**
+	 * Creates a masked frame.
+	 */
+	private static byte[] frame(boolean isFinal, int opCode, byte[] payload) {
+		return WebSocketTestClient.encodeFrame(isFinal, opCode, payload, WebSocketTestClient.MASK);
+	}
+
+}
@@ -0,0 +1,198 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.websocket;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Raw frame WebSocket client for testing.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebSocketTestClient {
+
+	/**
+	 * Example <code>Sec-WebSocket-Key</code> from RFC 6455.
+	 */
+	public static final String KEY = "dGhlIHNhbXBsZSBub25jZQ==";
+
+	/**
+	 * <code>Sec-WebSocket-Accept</code> for the {@link #KEY} from RFC 6455.
+	 */
+	public static final String ACCEPT_KEY = "s3pPLMBiTxaQ9kYGzzhZRbK+xOo=";
+
+	/**
+	 * Masking key for client frames.
+	 */
+	public static final byte[] MASK = new byte[] { (byte) 0x37, (byte) 0xfa, (byte) 0x21, (byte) 0x3d };
+
+	/**
+	 * UTF-8 {@link Charset}.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Received message.
+	 */
+	public static class Message {
+
+		public final int opCode;
+
+		public final byte[] payload;
+
+		private Message(int opCode, byte[] payload) {
+			this.opCode = opCode;
+			this.payload = payload;
+		}
+
+		public String getText() {
+			return new String(this.payload, UTF_8);
+		}
+
+		public int getCloseCode() {
+			return ((this.payload[0] & 0xff) << 8) | (this.payload[1] & 0xff);
+		}
+	}
+
+	/**
+	 * Encodes a masked client frame.
+	 * 
+	 * @param isFinal Indicates if final fragment.
+	 * @param opCode  Op code.
+	 * @param payload Payload.
+	 * @param mask    Masking key. May be <code>null</code> for unmasked frame.
+	 * @return Frame.
+	 */
+	public static byte[] encodeFrame(boolean isFinal, int opCode, byte[] payload, byte[] mask) {
+		ByteArrayOutputStream frame = new ByteArrayOutputStream();
+		frame.write((isFinal ? 0x80 : 0) | opCode);
+		int maskBit = (mask != null) ? 0x80 : 0;
+		if (payload.length < 126) {
+			frame.write(maskBit | payload.length);
+		} else if (payload.length <= 0xffff) {
+			frame.write(maskBit | 126);
+			frame.write(payload.length >> 8);
+			frame.write(payload.length);
+		} else {
+			frame.write(maskBit | 127);
+			for (int i = 7; i >= 0; i--) {
+				frame.write((int) (((long) payload.length) >> (i * 8)));
+			}
+		}
+		if (mask != null) {
+			frame.write(mask, 0, mask.length);
+		}
+		for (int i = 0; i < payload.length; i++) {
+			frame.write((mask != null) ? (payload[i] ^ mask[i % mask.length]) : payload[i]);
+		}
+		return frame.toByteArray();
+	}
+
+	private final DataInputStream input;
+
+	private final OutputStream output;
+
+	public WebSocketTestClient(InputStream input, OutputStream output) {
+		this.input = new DataInputStream(input);
+		this.output = output;
+	}
+
+	/**
+	 * Undertakes the opening handshake.
+	 * 
+	 * @param path Request path.
+	 * @return Head of the handshake response.
+	 */
+	public String handshake(String path) throws IOException {
+		this.writeUpgradeRequest(path, "Upgrade", KEY);
+		return this.readResponseHead();
+	}
+
+	/**
+	 * Writes the upgrade request.
+	 * 
+	 * @param path       Request path.
+	 * @param connection <code>Connection</code> value.
+	 * @param key        <code>Sec-WebSocket-Key</code>. May be <code>null</code>.
+	 */
+	public void writeUpgradeRequest(String path, String connection, String key) throws IOException {
+		String request = "GET " + path + " HTTP/1.1\r\nHost: localhost\r\nUpgrade: websocket\r\nConnection: "
+				+ connection + "\r\n" + (key == null ? "" : "Sec-WebSocket-Key: " + key + "\r\n")
+				+ "Sec-WebSocket-Version: 13\r\n\r\n";
+		this.output.write(request.getBytes(UTF_8));
+		this.output.flush();
+	}
+
+	/**
+	 * Reads the HTTP response head.
+	 * 
+	 * @return HTTP response head.
+	 */
+	public String readResponseHead() throws IOException {
+		StringBuilder head = new StringBuilder();
+		while (!head.toString().endsWith("\r\n\r\n")) {
+			head.append((char) this.input.readUnsignedByte());
+		}
+		return head.toString();
+	}
+
+	public void writeFrame(boolean isFinal, int opCode, byte[] payload) throws IOException {
+		this.output.write(encodeFrame(isFinal, opCode, payload, MASK));
+		this.output.flush();
+	}
+
+	public void writeText(String text) throws IOException {
+		this.writeFrame(true, WebSocketFrameParser.OPCODE_TEXT, text.getBytes(UTF_8));
+	}
+
+	public void writeBinary(byte[] data) throws IOException {
+		this.writeFrame(true, WebSocketFrameParser.OPCODE_BINARY, data);
+	}
+
+	/**
+	 * Reads the next (unfragmented) message.
+	 * 
+	 * @return {@link Message}.
+	 */
+	public Message readMessage() throws IOException {
+		int first = this.input.readUnsignedByte();
+		int second = this.input.readUnsignedByte();
+		if ((second & 0x80) != 0) {
+			throw new IOException("Server frame must not be masked");
+		}
+		long length = second & 0x7f;
+		if (length == 126) {
+			length = this.input.readUnsignedShort();
+		} else if (length == 127) {
+			length = this.input.readLong();
+		}
+		byte[] payload = new byte[(int) length];
+		this.input.readFully(payload);
+		return new Message(first & 0x0f, payload);
+	}
+
+}
@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.officefloor.frame.api.team.Team;
+import net.officefloor.server.stream.BufferJvmFix;
+import net.officefloor.server.stream.StreamBuffer;
+import net.officefloor.server.stream.StreamBufferPool;
+import net.officefloor.server.stream.impl.ThreadLocalStreamBufferPool;
+
+/**
+ * Compares the latency of responses written to the {@link SocketManager} from a
+ * fixed pool of {@link Thread} instances (as per a {@link Team}) for the
+ * lock-free and {@link Pipe} hand off.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class SocketManagerLatencyStressTest extends AbstractSocketManagerTester {
+
+	/**
+	 * Number of warm up requests.
+	 */
+	private static final int WARM_UP_COUNT = 20000;
+
+	/**
+	 * Number of measured requests.
+	 */
+	private static final int REQUEST_COUNT = 100000;
+
+	/**
+	 * Indicates if {@link Pipe} hand off.
+	 */
+	private boolean isPipeHandoff = false;
+
+	@Override
+	protected int getBufferSize() {
+		return 8192;
+	}
+
+	@Override
+	protected StreamBufferPool<ByteBuffer> createStreamBufferPool(int bufferSize) {
+		return new ThreadLocalStreamBufferPool(() -> ByteBuffer.allocateDirect(bufferSize), 1000, 1000);
+	}
+
+	@Override
+	protected boolean isPipeHandoff() {
+		return this.isPipeHandoff;
+	}
+
+	/**
+	 * Reports latency for lock-free hand off.
+	 */
+	public void testLockFreeHandoff() throws Exception {
+		this.isPipeHandoff = false;
+		this.doLatencyTest("lock-free");
+	}
+
+	/**
+	 * Reports latency for {@link Pipe} hand off.
+	 */
+	public void testPipeHandoff() throws Exception {
+		this.isPipeHandoff = true;
+		this.doLatencyTest("pipe");
+	}
+
+	/**
+	 * Undertakes the latency test.
+	 * 
+	 * @param handoffName Name of the hand off for reporting.
+	 */
+	private void doLatencyTest(String handoffName) throws Exception {
+
+		// Start the server with responses written by pool of threads
+		ExecutorService team = Executors.newFixedThreadPool(4);
+		try {
+			this.tester = new SocketManagerTester(1);
+			this.tester.bindServerSocket(null, null, new ByteSocketServicer(),
+					(socketServicer) -> (request, responseWriter) -> {
+						team.execute(() -> {
+							StreamBuffer<ByteBuffer> response = this.tester.createStreamBuffer(request);
+							responseWriter.write(null, response);
+						});
+						return null;
+					});
+			this.tester.start();
+
+			// Request/response to determine latency
+			long[] latencies = new long[REQUEST_COUNT];
+			try (Socket socket = this.tester.getClient()) {
+				OutputStream output = socket.getOutputStream();
+				InputStream input = socket.getInputStream();
+				for (int i = 0; i < (WARM_UP_COUNT + REQUEST_COUNT); i++) {
+					byte value = (byte) (i % Byte.MAX_VALUE);
+					long startTime = System.nanoTime();
+					output.write(value);
+					output.flush();
+					assertEquals("Incorrect response", value, (byte) input.read());
+					if (i >= WARM_UP_COUNT) {
+						latencies[i - WARM_UP_COUNT] = System.nanoTime() - startTime;
+					}
+				}
+			}
+
+			// Report the latency
+			Arrays.sort(latencies);
+			System.out.println(SocketManager.class.getSimpleName() + " " + handoffName + " hand off latency: p50 "
+					+ (latencies[REQUEST_COUNT / 2] / 1000) + "us, p99 "
+					+ (latencies[(int) (REQUEST_COUNT * 0.99)] / 1000) + "us, p99.9 "
+					+ (latencies[(int) (REQUEST_COUNT * 0.999)] / 1000) + "us");
+
+		} finally {
+			team.shutdown();
+		}
+	}
+
+	/**
+	 * {@link SocketServicer} providing each byte as a request.
+	 */
+	private static class ByteSocketServicer implements SocketServicerFactory<Byte>, SocketServicer<Byte> {
+
+		private final RequestHandler<Byte> requestHandler;
+
+		private int previousPosition = 0;
+
+		private ByteSocketServicer() {
+			this.requestHandler = null;
+		}
+
+		private ByteSocketServicer(RequestHandler<Byte> requestHandler) {
+			this.requestHandler = requestHandler;
+		}
+
+		@Override
+		public SocketServicer<Byte> createSocketServicer(RequestHandler<Byte> requestHandler) {
+			return new ByteSocketServicer(requestHandler);
+		}
+
+		@Override
+		public void service(StreamBuffer<ByteBuffer> readBuffer, long bytesRead, boolean isNewBuffer) {
+
+			// Setup for reading
+			int position = BufferJvmFix.position(readBuffer.pooledBuffer);
+			ByteBuffer data = readBuffer.pooledBuffer.duplicate();
+			BufferJvmFix.flip(data);
+			if (!isNewBuffer) {
+				BufferJvmFix.position(data, this.previousPosition);
+			}
+			this.previousPosition = position;
+
+			// Each byte is a request
+			while (data.remaining() > 0) {
+				this.requestHandler.handleRequest(data.get());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,200 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import net.officefloor.server.ssl.SslSocketServicerFactory;
+import net.officefloor.server.stream.BufferJvmFix;
+import net.officefloor.server.stream.StreamBuffer;
+import net.officefloor.server.stream.StreamBufferPool;
+import net.officefloor.server.stream.impl.ThreadLocalStreamBufferPool;
+
+/**
+ * Reports the TLS throughput of the {@link SocketManager} with the
+ * {@link SslSocketServicerFactory}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class SslSocketManagerThroughputStressTest extends AbstractSocketManagerTester {
+
+	/**
+	 * Number of warm up requests.
+	 */
+	private static final int WARM_UP_COUNT = 1000;
+
+	/**
+	 * Number of measured requests.
+	 */
+	private static final int REQUEST_COUNT = 5000;
+
+	/**
+	 * Size of the response.
+	 */
+	private int responseSize;
+
+	public SslSocketManagerThroughputStressTest() {
+		this.isSecure = true;
+	}
+
+	@Override
+	protected int getBufferSize() {
+		return 8192;
+	}
+
+	@Override
+	protected StreamBufferPool<ByteBuffer> createStreamBufferPool(int bufferSize) {
+		return new ThreadLocalStreamBufferPool(() -> ByteBuffer.allocateDirect(bufferSize), 1000, 1000);
+	}
+
+	/**
+	 * Reports throughput of small responses (spanning only part of a TLS record).
+	 */
+	public void testSmallResponses() throws Exception {
+		this.doThroughputTest("small", 100);
+	}
+
+	/**
+	 * Reports throughput of large responses (spanning many TLS records).
+	 */
+	public void testLargeResponses() throws Exception {
+		this.doThroughputTest("large", 64 * 1024);
+	}
+
+	/**
+	 * Undertakes the throughput test.
+	 * 
+	 * @param name         Name of the test for reporting.
+	 * @param responseSize Size of the response.
+	 */
+	private void doThroughputTest(String name, int responseSize) throws Exception {
+		this.responseSize = responseSize;
+
+		// Start the server with responses spread across pooled buffers
+		this.tester = new SocketManagerTester(1);
+		this.tester.bindServerSocket(null, null, new ByteSocketServicer(),
+				(socketServicer) -> (request, responseWriter) -> {
+					StreamBuffer<ByteBuffer> response = this.tester.createStreamBuffer();
+					StreamBuffer<ByteBuffer> buffer = response;
+					for (int i = 0; i < this.responseSize; i++) {
+						byte value = (byte) (i % Byte.MAX_VALUE);
+						if (!buffer.write(value)) {
+							buffer.next = this.tester.createStreamBuffer();
+							buffer = buffer.next;
+							buffer.write(value);
+						}
+					}
+					responseWriter.write(null, response);
+					return null;
+				});
+		this.tester.start();
+
+		// Request/response to determine throughput
+		long startTime = 0;
+		try (Socket socket = this.tester.getClient()) {
+			OutputStream output = socket.getOutputStream();
+			InputStream input = socket.getInputStream();
+			byte[] responseData = new byte[responseSize];
+			for (int i = 0; i < (WARM_UP_COUNT + REQUEST_COUNT); i++) {
+				if (i == WARM_UP_COUNT) {
+					startTime = System.nanoTime();
+				}
+				output.write(1);
+				output.flush();
+				readFully(input, responseData);
+				assertEquals("Incorrect response", (byte) ((responseSize - 1) % Byte.MAX_VALUE),
+						responseData[responseSize - 1]);
+			}
+		}
+		long duration = System.nanoTime() - startTime;
+
+		// Report the throughput
+		double seconds = duration / 1_000_000_000.0;
+		System.out.println("TLS " + name + " response throughput: "
+				+ String.format("%.0f", REQUEST_COUNT / seconds) + " requests/second, "
+				+ String.format("%.1f", (((long) REQUEST_COUNT) * responseSize) / seconds / (1024 * 1024))
+				+ " MB/second");
+	}
+
+	/**
+	 * Reads the data fully.
+	 * 
+	 * @param input Input.
+	 * @param data  Data to fill.
+	 */
+	private static void readFully(InputStream input, byte[] data) throws IOException {
+		int offset = 0;
+		while (offset < data.length) {
+			int size = input.read(data, offset, data.length - offset);
+			if (size < 0) {
+				fail("Connection closed before reading all data");
+			}
+			offset += size;
+		}
+	}
+
+	/**
+	 * {@link SocketServicer} providing each byte as a request.
+	 */
+	private static class ByteSocketServicer implements SocketServicerFactory<Byte>, SocketServicer<Byte> {
+
+		private final RequestHandler<Byte> requestHandler;
+
+		private int previousPosition = 0;
+
+		private ByteSocketServicer() {
+			this.requestHandler = null;
+		}
+
+		private ByteSocketServicer(RequestHandler<Byte> requestHandler) {
+			this.requestHandler = requestHandler;
+		}
+
+		@Override
+		public SocketServicer<Byte> createSocketServicer(RequestHandler<Byte> requestHandler) {
+			return new ByteSocketServicer(requestHandler);
+		}
+
+		@Override
+		public void service(StreamBuffer<ByteBuffer> readBuffer, long bytesRead, boolean isNewBuffer) {
+
+			// Setup for reading
+			int position = BufferJvmFix.position(readBuffer.pooledBuffer);
+			ByteBuffer data = readBuffer.pooledBuffer.duplicate();
+			BufferJvmFix.flip(data);
+			if (!isNewBuffer) {
+				BufferJvmFix.position(data, this.previousPosition);
+			}
+			this.previousPosition = position;
+
+			// Each byte is a request
+			while (data.remaining() > 0) {
+				this.requestHandler.handleRequest(data.get());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,181 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.websocket;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+
+import net.officefloor.server.http.websocket.WebSocketTestClient.Message;
+
+/**
+ * <p>
+ * Client for the {@link WebSocketIdleConnectionsStressTest}.
+ * <p>
+ * Runs within a separate process so that the client connections do not share
+ * the file descriptor limit of the server.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebSocketIdleConnectionsClient {
+
+	/**
+	 * Exit status on success.
+	 */
+	public static final int EXIT_SUCCESS = 0;
+
+	/**
+	 * Exit status on failure.
+	 */
+	public static final int EXIT_FAILURE = 1;
+
+	/**
+	 * Exit status should file descriptor limit be too low for the connections.
+	 */
+	public static final int EXIT_FILE_DESCRIPTOR_LIMIT = 2;
+
+	/**
+	 * File descriptors reserved for the remaining process (class path, logging,
+	 * etc).
+	 */
+	public static final int RESERVED_FILE_DESCRIPTORS = 200;
+
+	/**
+	 * Opens the idle connections and ensures they are serviced.
+	 * 
+	 * @param args Port, number of connections and interval of connections to
+	 *             check are still serviced.
+	 */
+	public static void main(String[] args) {
+		int port = Integer.parseInt(args[0]);
+		int connectionCount = Integer.parseInt(args[1]);
+		int sampleInterval = Integer.parseInt(args[2]);
+
+		// Ensure able to open the connections
+		long fileDescriptorLimit = getFileDescriptorLimit();
+		if (fileDescriptorLimit < (connectionCount + RESERVED_FILE_DESCRIPTORS)) {
+			System.err.println("Client file descriptor limit " + fileDescriptorLimit + " is too low for "
+					+ connectionCount + " connections (increase with ulimit -n)");
+			System.exit(EXIT_FILE_DESCRIPTOR_LIMIT);
+		}
+
+		// Run the connections
+		try {
+			run(port, connectionCount, sampleInterval);
+		} catch (Throwable ex) {
+			ex.printStackTrace();
+			System.exit(EXIT_FAILURE);
+		}
+		System.exit(EXIT_SUCCESS);
+	}
+
+	/**
+	 * Obtains the file descriptor limit of this process.
+	 * 
+	 * @return File descriptor limit or {@link Long#MAX_VALUE} if unknown.
+	 */
+	public static long getFileDescriptorLimit() {
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		return (os instanceof UnixOperatingSystemMXBean) ? ((UnixOperatingSystemMXBean) os).getMaxFileDescriptorCount()
+				: Long.MAX_VALUE;
+	}
+
+	/**
+	 * Opens the idle connections and ensures they are serviced.
+	 * 
+	 * @param port            Port of the server.
+	 * @param connectionCount Number of idle connections.
+	 * @param sampleInterval  Interval of connections to check are still serviced.
+	 */
+	private static void run(int port, int connectionCount, int sampleInterval) throws Exception {
+
+		// Open the idle connections
+		Socket[] sockets = new Socket[connectionCount];
+		WebSocketTestClient[] clients = new WebSocketTestClient[connectionCount];
+		try {
+			long startTime = System.currentTimeMillis();
+			for (int i = 0; i < connectionCount; i++) {
+				sockets[i] = new Socket(InetAddress.getLocalHost(), port);
+				sockets[i].setSoTimeout(10000);
+				clients[i] = new WebSocketTestClient(sockets[i].getInputStream(), sockets[i].getOutputStream());
+				String head = clients[i].handshake("/");
+				if (!head.startsWith("HTTP/1.1 101 Switching Protocols")) {
+					throw new IllegalStateException("Connection " + i + " should be upgraded: " + head);
+				}
+			}
+			long openTime = System.currentTimeMillis() - startTime;
+			System.out.println("Opened " + connectionCount + " WebSocket connections in " + openTime + " milliseconds");
+
+			// Ensure sample of idle connections still serviced
+			startTime = System.currentTimeMillis();
+			int sampleCount = 0;
+			for (int i = 0; i < connectionCount; i += sampleInterval) {
+				assertEcho(clients[i], "connection-" + i);
+				sampleCount++;
+			}
+			assertEcho(clients[connectionCount - 1], "last");
+			long sampleTime = System.currentTimeMillis() - startTime;
+			System.out.println("Serviced " + (sampleCount + 1) + " messages across idle connections in " + sampleTime
+					+ " milliseconds");
+
+			// Ensure new connection is also serviced
+			try (Socket socket = new Socket(InetAddress.getLocalHost(), port)) {
+				socket.setSoTimeout(10000);
+				WebSocketTestClient client = new WebSocketTestClient(socket.getInputStream(),
+						socket.getOutputStream());
+				client.handshake("/");
+				assertEcho(client, "new");
+			}
+
+		} finally {
+			// Close the connections
+			for (Socket socket : sockets) {
+				if (socket != null) {
+					socket.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Asserts the text message is echoed.
+	 * 
+	 * @param client {@link WebSocketTestClient}.
+	 * @param text   Text of the message.
+	 * @throws IOException If fails to communicate.
+	 */
+	private static void assertEcho(WebSocketTestClient client, String text) throws IOException {
+		client.writeText(text);
+		Message message = client.readMessage();
+		if (message.opCode != WebSocketFrameParser.OPCODE_TEXT) {
+			throw new IllegalStateException("Incorrect op code " + message.opCode + " for echo of " + text);
+		}
+		if (!("echo:" + text).equals(message.getText())) {
+			throw new IllegalStateException("Incorrect echo '" + message.getText() + "' for " + text);
+		}
+	}
+
+}
@@ -0,0 +1,200 @@
+/*-
+ * #%L
+ * Default OfficeFloor HTTP Server
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.server.http.websocket;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+import net.officefloor.compile.spi.officefloor.DeployedOffice;
+import net.officefloor.compile.spi.officefloor.OfficeFloorDeployer;
+import net.officefloor.compile.spi.officefloor.OfficeFloorInputManagedObject;
+import net.officefloor.compile.spi.officefloor.OfficeFloorManagedObjectSource;
+import net.officefloor.compile.test.officefloor.CompileOfficeFloor;
+import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.SocketManager;
+import net.officefloor.server.http.HttpServerLocation;
+import net.officefloor.server.http.HttpServerSocketManagedObjectSource;
+import net.officefloor.server.http.HttpServerSocketManagedObjectSourceTest.MockSection;
+import net.officefloor.server.http.ServerHttpConnection;
+
+/**
+ * <p>
+ * Ensures a single {@link SocketManager} listener holds many idle WebSocket
+ * connections while continuing to service messages.
+ * <p>
+ * The client connections are opened by a separate process (see
+ * {@link WebSocketIdleConnectionsClient}), so that the server and client each
+ * only require a file descriptor limit above the number of connections. The
+ * test fails should the file descriptor limit be too low.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebSocketIdleConnectionsStressTest extends OfficeFrameTestCase {
+
+	/**
+	 * Number of idle connections.
+	 */
+	private static final int CONNECTION_COUNT = 10000;
+
+	/**
+	 * Time in seconds to wait on the client to complete.
+	 */
+	private static final int CLIENT_TIMEOUT = 300;
+
+	/**
+	 * Port for the server.
+	 */
+	private static final int PORT = 7878;
+
+	/**
+	 * Interval of connections to check are still serviced.
+	 */
+	private static final int SAMPLE_INTERVAL = 500;
+
+	/**
+	 * {@link OfficeFloor}.
+	 */
+	private OfficeFloor officeFloor;
+
+	/**
+	 * Previous socket listener count {@link System} property value.
+	 */
+	private String previousListenerCount;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		// Single socket listener (so all connections on same listener)
+		this.previousListenerCount = System
+				.getProperty(HttpServerSocketManagedObjectSource.SYSTEM_PROPERTY_SOCKET_LISTENER_COUNT);
+		System.setProperty(HttpServerSocketManagedObjectSource.SYSTEM_PROPERTY_SOCKET_LISTENER_COUNT, "1");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+
+		// Ensure close OfficeFloor
+		if (this.officeFloor != null) {
+			this.officeFloor.closeOfficeFloor();
+		}
+
+		// Reinstate the socket listener count
+		if (this.previousListenerCount == null) {
+			System.clearProperty(HttpServerSocketManagedObjectSource.SYSTEM_PROPERTY_SOCKET_LISTENER_COUNT);
+		} else {
+			System.setProperty(HttpServerSocketManagedObjectSource.SYSTEM_PROPERTY_SOCKET_LISTENER_COUNT,
+					this.previousListenerCount);
+		}
+
+		// Remaining tear down
+		super.tearDown();
+	}
+
+	/**
+	 * Ensure able to hold 10,000 idle WebSocket connections on a listener.
+	 */
+	@StressTest
+	public void testIdleConnections() throws Exception {
+
+		// Ensure server able to hold the connections
+		long fileDescriptorLimit = WebSocketIdleConnectionsClient.getFileDescriptorLimit();
+		assertTrue(
+				"Server file descriptor limit " + fileDescriptorLimit + " is too low for " + CONNECTION_COUNT
+						+ " connections (increase with ulimit -n)",
+				fileDescriptorLimit >= (CONNECTION_COUNT + WebSocketIdleConnectionsClient.RESERVED_FILE_DESCRIPTORS));
+
+		// Start the server
+		this.startServer();
+
+		// Run the client connections in separate process
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		Process client = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				WebSocketIdleConnectionsClient.class.getName(), String.valueOf(PORT),
+				String.valueOf(CONNECTION_COUNT), String.valueOf(SAMPLE_INTERVAL)).redirectErrorStream(true).start();
+		Thread output = new Thread(() -> {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream()))) {
+				for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+					System.out.println(line);
+				}
+			} catch (IOException ex) {
+				// Client finished
+			}
+		});
+		output.setDaemon(true);
+		output.start();
+		try {
+			assertTrue("Timed out waiting on client", client.waitFor(CLIENT_TIMEOUT, TimeUnit.SECONDS));
+		} finally {
+			client.destroyForcibly();
+		}
+
+		// Ensure the client was successful
+		int exitValue = client.exitValue();
+		assertTrue("Client file descriptor limit is too low for " + CONNECTION_COUNT
+				+ " connections (increase with ulimit -n)",
+				exitValue != WebSocketIdleConnectionsClient.EXIT_FILE_DESCRIPTOR_LIMIT);
+		assertEquals("Client failed servicing " + CONNECTION_COUNT + " idle connections (see client output)",
+				WebSocketIdleConnectionsClient.EXIT_SUCCESS, exitValue);
+	}
+
+	/**
+	 * Starts the {@link HttpServerSocketManagedObjectSource} servicing WebSocket
+	 * connections.
+	 */
+	private void startServer() throws Exception {
+		CompileOfficeFloor compile = new CompileOfficeFloor();
+		compile.officeFloor((extension) -> {
+			OfficeFloorDeployer deployer = extension.getOfficeFloorDeployer();
+
+			// Configure the HTTP managed object source (with WebSocket)
+			OfficeFloorManagedObjectSource httpMos = deployer.addManagedObjectSource("HTTP",
+					HttpServerSocketManagedObjectSource.class.getName());
+			httpMos.addProperty(HttpServerLocation.PROPERTY_HTTP_PORT, String.valueOf(PORT));
+			httpMos.addProperty(HttpServerSocketManagedObjectSource.PROPERTY_WEBSOCKET, String.valueOf(true));
+
+			// Configure input
+			OfficeFloorInputManagedObject inputHttp = deployer.addInputManagedObject("HTTP",
+					ServerHttpConnection.class.getName());
+			deployer.link(httpMos, inputHttp);
+
+			// Configure office
+			DeployedOffice office = extension.getDeployedOffice();
+			deployer.link(httpMos.getManagingOffice(), office);
+
+			// Configure servicing the messages
+			deployer.link(
+					httpMos.getOfficeFloorManagedObjectFlow(
+							HttpServerSocketManagedObjectSource.HANDLE_REQUEST_FLOW_NAME),
+					office.getDeployedOfficeInput("SECTION", "service"));
+		});
+		compile.office((extension) -> {
+			extension.addSection("SECTION", MockSection.class);
+		});
+		this.officeFloor = compile.compileAndOpenOfficeFloor();
+	}
+
+}
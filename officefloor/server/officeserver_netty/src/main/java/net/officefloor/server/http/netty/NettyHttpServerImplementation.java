@@ -21,18 +21,26 @@
 
 package net.officefloor.server.http.netty;
 
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.util.AsciiString;
 import net.officefloor.compile.spi.officefloor.ExternalServiceInput;
 import net.officefloor.frame.api.build.OfficeFloorEvent;
@@ -44,18 +52,24 @@ import net.officefloor.server.http.DateHttpHeaderClock;
 import net.officefloor.server.http.HttpHeader;
 import net.officefloor.server.http.HttpHeaderValue;
 import net.officefloor.server.http.HttpMethod;
+import net.officefloor.server.http.HttpResponseCompression;
 import net.officefloor.server.http.HttpResponseWriter;
 import net.officefloor.server.http.HttpServer;
 import net.officefloor.server.http.HttpServerImplementation;
 import net.officefloor.server.http.HttpServerImplementationContext;
 import net.officefloor.server.http.HttpServerImplementationFactory;
 import net.officefloor.server.http.HttpServerLocation;
+import net.officefloor.server.http.HttpStatus;
 import net.officefloor.server.http.HttpVersion;
 import net.officefloor.server.http.ServerHttpConnection;
+import net.officefloor.server.http.StreamingHttpResponseWriter;
+import net.officefloor.server.http.WritableHttpCookie;
+import net.officefloor.server.http.WritableHttpHeader;
 import net.officefloor.server.http.impl.NonMaterialisedHttpHeader;
 import net.officefloor.server.http.impl.NonMaterialisedHttpHeaders;
 import net.officefloor.server.http.impl.ProcessAwareServerHttpConnectionManagedObject;
 import net.officefloor.server.http.impl.SerialisableHttpHeader;
+import net.officefloor.server.stream.StreamBuffer;
 import net.officefloor.server.stream.impl.ByteSequence;
 
 /**
@@ -95,6 +109,11 @@ public class NettyHttpServerImplementation extends AbstractNettyHttpServer
 	 */
 	private boolean isIncludeStackTrace;
 
+	/**
+	 * {@link HttpResponseCompression}. May be <code>null</code> to not compress.
+	 */
+	private HttpResponseCompression httpResponseCompression;
+
 	/**
 	 * {@link ExternalServiceInput}.
 	 */
@@ -128,6 +147,9 @@ public class NettyHttpServerImplementation extends AbstractNettyHttpServer
 		// Determine if include stack trace
 		this.isIncludeStackTrace = context.isIncludeEscalationStackTrace();
 
+		// Obtain the response compression
+		this.httpResponseCompression = context.getHttpResponseCompression();
+
 		// Obtain the service input for handling requests
 		this.serviceInput = context.getExternalServiceInput(ProcessAwareServerHttpConnectionManagedObject.class,
 				ProcessAwareServerHttpConnectionManagedObject.getCleanupEscalationHandler());
@@ -253,6 +275,23 @@ public class NettyHttpServerImplementation extends AbstractNettyHttpServer
 				public int length() {
 					return entityByteBuf.capacity();
 				}
+
+				@Override
+				public int copyTo(int index, byte[] destination, int offset, int length) {
+					int copyLength = Math.max(0, Math.min(length, entityByteBuf.capacity() - index));
+					entityByteBuf.getBytes(index, destination, offset, copyLength);
+					return copyLength;
+				}
+
+				@Override
+				public ByteBuffer[] getByteBuffers(int index) {
+					int length = Math.max(0, entityByteBuf.capacity() - index);
+					ByteBuffer[] buffers = entityByteBuf.nioBuffers(Math.min(index, entityByteBuf.capacity()), length);
+					for (int i = 0; i < buffers.length; i++) {
+						buffers[i] = buffers[i].asReadOnlyBuffer();
+					}
+					return buffers;
+				}
 			};
 		}
 
@@ -260,52 +299,180 @@ public class NettyHttpServerImplementation extends AbstractNettyHttpServer
 		FullHttpResponse response = new DefaultFullHttpResponse(io.netty.handler.codec.http.HttpVersion.HTTP_1_1,
 				HttpResponseStatus.OK, false);
 
-		// Handle response
-		HttpResponseWriter<ByteBuf> responseWriter = (responseVersion, status, httpHeader, httpCookie, contentLength,
-				contentType, content) -> {
+		// Handle response (supporting streaming)
+		HttpResponseWriter<ByteBuf> responseWriter = new NettyHttpResponseWriter(context, response);
+
+		// Create the Netty buffer pool
+		NettyBufferPool bufferPool = new NettyBufferPool(response);
+
+		// Create the Server HTTP connection
+		ProcessAwareServerHttpConnectionManagedObject<ByteBuf> connection = new ProcessAwareServerHttpConnectionManagedObject<>(
+				serverLocation, false, methodSupplier, requestUriSupplier, version, requestHeaders, requestEntity,
+				this.serverName, this.dateHttpHeaderClock, this.isIncludeStackTrace, responseWriter, bufferPool,
+				this.httpResponseCompression);
+
+		// Service the request
+		return this.serviceInput.service(connection, connection.getServiceFlowCallback());
+	}
+
+
+	/**
+	 * Loads the {@link HttpResponse} headers.
+	 * 
+	 * @param headers     {@link HttpHeaders} to load.
+	 * @param httpHeader  Head {@link WritableHttpHeader}.
+	 * @param httpCookie  Head {@link WritableHttpCookie}.
+	 * @param contentType <code>Content-Type</code>. May be <code>null</code>.
+	 */
+	private static void loadHeaders(HttpHeaders headers, WritableHttpHeader httpHeader, WritableHttpCookie httpCookie,
+			HttpHeaderValue contentType) {
+
+		// Write the content type
+		if (contentType != null) {
+			headers.add("Content-Type", contentType.getValue());
+		}
+
+		// Load the remaining headers
+		while (httpHeader != null) {
+			headers.add(httpHeader.getName(), httpHeader.getValue());
+			httpHeader = httpHeader.next;
+		}
+
+		// Load the cookies
+		while (httpCookie != null) {
+			headers.add("set-cookie", httpCookie.toResponseHeaderValue());
+			httpCookie = httpCookie.next;
+		}
+	}
+
+	/**
+	 * Netty {@link StreamingHttpResponseWriter}.
+	 */
+	private static class NettyHttpResponseWriter implements StreamingHttpResponseWriter<ByteBuf> {
+
+		/**
+		 * {@link ChannelHandlerContext}.
+		 */
+		private final ChannelHandlerContext context;
+
+		/**
+		 * {@link FullHttpResponse} containing the written content.
+		 */
+		private final FullHttpResponse response;
+
+		/**
+		 * Number of offered content writes pending being sent.
+		 */
+		private final AtomicInteger pendingOfferedWrites = new AtomicInteger(0);
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param context  {@link ChannelHandlerContext}.
+		 * @param response {@link FullHttpResponse} containing the written content.
+		 */
+		private NettyHttpResponseWriter(ChannelHandlerContext context, FullHttpResponse response) {
+			this.context = context;
+			this.response = response;
+		}
+
+		/*
+		 * ============== StreamingHttpResponseWriter ==================
+		 */
+
+		@Override
+		public void writeHttpResponse(HttpVersion version, HttpStatus status, WritableHttpHeader httpHeader,
+				WritableHttpCookie httpCookie, long contentLength, HttpHeaderValue contentType,
+				StreamBuffer<ByteBuf> content) {
 
 			// Specify the status
 			HttpResponseStatus nettyStatus = HttpResponseStatus.valueOf(status.getStatusCode());
-			response.setStatus(nettyStatus);
+			this.response.setStatus(nettyStatus);
 
 			// Write the content details
-			HttpHeaders headers = response.headers();
+			HttpHeaders headers = this.response.headers();
 			if (contentLength > 0) {
 				headers.addInt("Content-Length", (int) contentLength);
-				if (contentType != null) {
-					headers.add("Content-Type", contentType.getValue());
-				}
+			} else {
+				contentType = null; // no content
 			}
+			loadHeaders(headers, httpHeader, httpCookie, contentType);
+
+			// Send the response
+			this.context.executor().execute(() -> {
+				this.context.write(this.response);
+				this.context.flush();
+			});
+		}
+
+		@Override
+		public void writeHttpResponseHead(HttpVersion version, HttpStatus status, WritableHttpHeader headHttpHeader,
+				WritableHttpCookie headHttpCookie, HttpHeaderValue contentType) {
 
-			// Load the remaining headers
-			while (httpHeader != null) {
-				headers.add(httpHeader.getName(), httpHeader.getValue());
-				httpHeader = httpHeader.next;
+			// Create the head (with entity chunked)
+			HttpResponse head = new DefaultHttpResponse(io.netty.handler.codec.http.HttpVersion.HTTP_1_1,
+					HttpResponseStatus.valueOf(status.getStatusCode()), false);
+			loadHeaders(head.headers(), headHttpHeader, headHttpCookie, contentType);
+			HttpUtil.setTransferEncodingChunked(head, true);
+
+			// Send the head
+			this.context.writeAndFlush(head);
+		}
+
+		@Override
+		public void writeHttpResponseContent(StreamBuffer<ByteBuf> contentHeadStreamBuffer, boolean isLast) {
+
+			// Copy out content (as buffer pool writes to response content)
+			ByteBuf content = this.response.content();
+			ByteBuf chunk = content.copy();
+			content.clear();
+
+			// Send the content
+			ChannelFuture future;
+			if (isLast) {
+				future = this.context.writeAndFlush(new DefaultLastHttpContent(chunk, false));
+				this.response.release();
+			} else {
+				future = this.context.writeAndFlush(new DefaultHttpContent(chunk));
 			}
 
-			// Load the cookies
-			while (httpCookie != null) {
-				headers.add("set-cookie", httpCookie.toResponseHeaderValue());
-				httpCookie = httpCookie.next;
+			// Provide back-pressure (when not blocking event loop)
+			if ((!this.context.executor().inEventLoop()) && (!this.context.channel().isWritable())) {
+				future.awaitUninterruptibly();
 			}
+		}
 
-			// Send the response
-			context.executor().execute(() -> {
-				context.write(response);
-				context.flush();
-			});
-		};
+		@Override
+		public void offerHttpResponseContent(StreamBuffer<ByteBuf> contentHeadStreamBuffer, int maxPendingWrites) {
 
-		// Create the Netty buffer pool
-		NettyBufferPool bufferPool = new NettyBufferPool(response);
+			// Copy out content (as buffer pool writes to response content)
+			ByteBuf content = this.response.content();
+			ByteBuf chunk = content.copy();
+			content.clear();
 
-		// Create the Server HTTP connection
-		ProcessAwareServerHttpConnectionManagedObject<ByteBuf> connection = new ProcessAwareServerHttpConnectionManagedObject<>(
-				serverLocation, false, methodSupplier, requestUriSupplier, version, requestHeaders, requestEntity,
-				this.serverName, this.dateHttpHeaderClock, this.isIncludeStackTrace, responseWriter, bufferPool);
+			// Drop the client if not keeping up with the content
+			if (this.pendingOfferedWrites.get() >= maxPendingWrites) {
+				chunk.release();
+				this.context.close();
+				return;
+			}
 
-		// Service the request
-		return this.serviceInput.service(connection, connection.getServiceFlowCallback());
+			// Send the content (without blocking)
+			this.pendingOfferedWrites.incrementAndGet();
+			this.context.writeAndFlush(new DefaultHttpContent(chunk))
+					.addListener((future) -> this.pendingOfferedWrites.decrementAndGet());
+		}
+
+		@Override
+		public void abortHttpResponse(Throwable failure) {
+			this.response.release();
+			this.context.close();
+		}
+
+		@Override
+		public boolean isConnectionClosed() {
+			return !this.context.channel().isActive();
+		}
 	}
 
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ package net.officefloor.server.http.servlet;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -65,8 +66,9 @@ public class HttpServletEntityByteSequence implements ByteSequence {
 				synchronized (this.request) {
 					ByteArrayOutputStream buffer = new ByteArrayOutputStream();
 					InputStream requestEntity = this.request.getInputStream();
-					for (int value = requestEntity.read(); value != -1; value = requestEntity.read()) {
-						buffer.write(value);
+					byte[] transfer = new byte[4096];
+					for (int size = requestEntity.read(transfer); size != -1; size = requestEntity.read(transfer)) {
+						buffer.write(transfer, 0, size);
 					}
 					this.bytes = buffer.toByteArray();
 				}
@@ -93,4 +95,20 @@ public class HttpServletEntityByteSequence implements ByteSequence {
 		return this.bytes.length;
 	}
 
+	@Override
+	public int copyTo(int index, byte[] destination, int offset, int length) {
+		this.ensureBytesLoaded();
+		int copyLength = Math.max(0, Math.min(length, this.bytes.length - index));
+		System.arraycopy(this.bytes, index, destination, offset, copyLength);
+		return copyLength;
+	}
+
+	@Override
+	public ByteBuffer[] getByteBuffers(int index) {
+		this.ensureBytesLoaded();
+		int length = Math.max(0, this.bytes.length - index);
+		return new ByteBuffer[] { ByteBuffer.wrap(this.bytes, Math.min(index, this.bytes.length), length).slice()
+				.asReadOnlyBuffer() };
+	}
+
 }
@@ -209,6 +209,11 @@ public class HttpServletHttpServerImplementationTest extends AbstractHttpServerI
 		return false;
 	}
 
+	@Override
+	protected boolean isStreamResponse() {
+		return false;
+	}
+
 	/**
 	 * {@link Filter} to fix the {@link org.eclipse.jetty.http.HttpHeader}
 	 * instances.
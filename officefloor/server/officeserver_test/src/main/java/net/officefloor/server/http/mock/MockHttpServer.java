@@ -46,6 +46,7 @@ import net.officefloor.server.http.HttpMethod;
 import net.officefloor.server.http.HttpRequest;
 import net.officefloor.server.http.HttpRequestCookie;
 import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.http.HttpResponseStream;
 import net.officefloor.server.http.HttpResponseCookie;
 import net.officefloor.server.http.HttpResponseCookies;
 import net.officefloor.server.http.HttpResponseHeaders;
@@ -980,6 +981,16 @@ public class MockHttpServer implements HttpServerLocation, HttpServerImplementat
 			this.delegate.send();
 		}
 
+		@Override
+		public void stream() throws IOException {
+			this.delegate.stream();
+		}
+
+		@Override
+		public HttpResponseStream detach() throws IOException {
+			return this.delegate.detach();
+		}
+
 		@Override
 		public MockHttpResponse build() {
 			try {
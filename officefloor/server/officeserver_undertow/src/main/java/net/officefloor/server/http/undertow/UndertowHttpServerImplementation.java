@@ -43,6 +43,7 @@ import net.officefloor.server.http.DateHttpHeaderClock;
 import net.officefloor.server.http.HttpHeader;
 import net.officefloor.server.http.HttpHeaderValue;
 import net.officefloor.server.http.HttpMethod;
+import net.officefloor.server.http.HttpResponseCompression;
 import net.officefloor.server.http.HttpResponseWriter;
 import net.officefloor.server.http.HttpServer;
 import net.officefloor.server.http.HttpServerImplementation;
@@ -51,7 +52,9 @@ import net.officefloor.server.http.HttpServerImplementationFactory;
 import net.officefloor.server.http.HttpServerLocation;
 import net.officefloor.server.http.HttpStatus;
 import net.officefloor.server.http.HttpVersion;
+import net.officefloor.server.http.HttpResponse;
 import net.officefloor.server.http.ServerHttpConnection;
+import net.officefloor.server.http.StreamingHttpResponseWriter;
 import net.officefloor.server.http.WritableHttpCookie;
 import net.officefloor.server.http.WritableHttpHeader;
 import net.officefloor.server.http.impl.NonMaterialisedHttpHeader;
@@ -62,6 +65,7 @@ import net.officefloor.server.stream.BufferJvmFix;
 import net.officefloor.server.stream.StreamBuffer;
 import net.officefloor.server.stream.StreamBuffer.FileBuffer;
 import net.officefloor.server.stream.StreamBufferPool;
+import net.officefloor.server.stream.impl.ByteArrayByteSequence;
 import net.officefloor.server.stream.impl.ByteSequence;
 import net.officefloor.server.stream.impl.ThreadLocalStreamBufferPool;
 
@@ -113,6 +117,11 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 	 */
 	private boolean isIncludeStackTrace;
 
+	/**
+	 * {@link HttpResponseCompression}. May be <code>null</code> to not compress.
+	 */
+	private HttpResponseCompression httpResponseCompression;
+
 	/**
 	 * {@link StreamBufferPool}.
 	 */
@@ -144,6 +153,9 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 		// Determine if include stack trace
 		this.isIncludeStackTrace = context.isIncludeEscalationStackTrace();
 
+		// Obtain the response compression
+		this.httpResponseCompression = context.getHttpResponseCompression();
+
 		// Obtain the service input for handling requests
 		this.serviceInput = context.getExternalServiceInput(ProcessAwareServerHttpConnectionManagedObject.class,
 				ProcessAwareServerHttpConnectionManagedObject.getCleanupEscalationHandler());
@@ -303,18 +315,7 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 			};
 
 			// Create the byte sequence
-			ByteSequence requestEntity = new ByteSequence() {
-
-				@Override
-				public byte byteAt(int index) {
-					return message[index];
-				}
-
-				@Override
-				public int length() {
-					return message.length;
-				}
-			};
+			ByteSequence requestEntity = new ByteArrayByteSequence(message);
 
 			// Handle response
 			HttpResponseWriter<ByteBuffer> responseWriter = new UndertowHttpResponseWriter(exchange);
@@ -325,7 +326,8 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 					UndertowHttpServerImplementation.this.serverName,
 					UndertowHttpServerImplementation.this.dateHttpHeaderClock,
 					UndertowHttpServerImplementation.this.isIncludeStackTrace, responseWriter,
-					UndertowHttpServerImplementation.this.bufferPool);
+					UndertowHttpServerImplementation.this.bufferPool,
+					UndertowHttpServerImplementation.this.httpResponseCompression);
 
 			// Service the request (dispatched to avoid threading issues)
 			exchange.dispatch(DISPATCH_EXECUTOR, () -> {
@@ -348,13 +350,33 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 		}
 	}
 
-	private class UndertowHttpResponseWriter implements HttpResponseWriter<ByteBuffer>, Runnable {
+	private class UndertowHttpResponseWriter implements StreamingHttpResponseWriter<ByteBuffer>, Runnable {
 
 		/**
 		 * {@link HttpServerExchange}.
 		 */
 		private final HttpServerExchange exchange;
 
+		/**
+		 * Indicates if streaming the {@link HttpResponse}.
+		 */
+		private boolean isStreaming = false;
+
+		/**
+		 * Indicates if the last of the streamed content has been provided.
+		 */
+		private boolean isLast = false;
+
+		/**
+		 * Indicates if writing the streamed content.
+		 */
+		private boolean isWriting = false;
+
+		/**
+		 * Indicates if the connection is closed.
+		 */
+		private boolean isClosed = false;
+
 		/**
 		 * Response {@link StreamSinkChannel}.
 		 */
@@ -385,8 +407,87 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 			}
 		}
 
+		/**
+		 * Loads the {@link HttpResponse} headers.
+		 * 
+		 * @param httpHeader Head {@link WritableHttpHeader}.
+		 * @param httpCookie Head {@link WritableHttpCookie}.
+		 */
+		private void loadHeaders(WritableHttpHeader httpHeader, WritableHttpCookie httpCookie) {
+			HeaderMap headers = this.exchange.getResponseHeaders();
+
+			// Load the remaining headers
+			while (httpHeader != null) {
+				headers.add(new HttpString(httpHeader.getName()), httpHeader.getValue());
+				httpHeader = httpHeader.next;
+			}
+
+			// Load the cookies
+			while (httpCookie != null) {
+				headers.add(SET_COOKIE, httpCookie.toResponseHeaderValue());
+				httpCookie = httpCookie.next;
+			}
+		}
+
+		/**
+		 * Completes writing the available content.
+		 */
+		private void completeWrite() {
+
+			// Determine if further content to be streamed
+			if (this.isStreaming && !this.isLast) {
+
+				// Flush the streamed content
+				try {
+					if (!this.responseChannel.flush()) {
+						this.exchange.dispatch(this);
+						return; // flush once able
+					}
+				} catch (IOException ex) {
+					this.closeConnection();
+					return;
+				}
+
+				// Flushed, so allow further content
+				this.isWriting = false;
+				this.notifyAll();
+				return;
+			}
+
+			// No further content, so end exchange
+			this.exchange.endExchange();
+			this.isWriting = false;
+			this.notifyAll();
+		}
+
+		/**
+		 * Closes the connection, as failure in writing the {@link HttpResponse}.
+		 */
+		private void closeConnection() {
+
+			// Release all buffers, as failure in writing entity
+			StreamBuffer<ByteBuffer> release;
+			while (this.content != null) {
+				release = this.content;
+				this.content = this.content.next;
+				release.release();
+			}
+
+			// Failure with connection, so close
+			try {
+				this.exchange.getConnection().close();
+			} catch (IOException e) {
+				// Best attempts made
+			}
+
+			// Flag closed (no longer waiting on writes)
+			this.isClosed = true;
+			this.isWriting = false;
+			this.notifyAll();
+		}
+
 		/*
-		 * ==================== HttpResponseWriter ==========================
+		 * ================= StreamingHttpResponseWriter =====================
 		 */
 
 		@Override
@@ -407,16 +508,7 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 			}
 
 			// Load the remaining headers
-			while (httpHeader != null) {
-				headers.add(new HttpString(httpHeader.getName()), httpHeader.getValue());
-				httpHeader = httpHeader.next;
-			}
-
-			// Load the cookies
-			while (httpCookie != null) {
-				headers.add(SET_COOKIE, httpCookie.toResponseHeaderValue());
-				httpCookie = httpCookie.next;
-			}
+			this.loadHeaders(httpHeader, httpCookie);
 
 			// Determine if entity to write
 			if (content == null) {
@@ -427,20 +519,152 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 			// Write the entity and complete
 			this.responseChannel = this.exchange.getResponseChannel();
 			this.content = content;
-			this.prepareStreamBuffer(this.content);
+			StreamBuffer<ByteBuffer> buffer = this.content;
+			while (buffer != null) {
+				this.prepareStreamBuffer(buffer);
+				buffer = buffer.next;
+			}
 			this.run();
 		}
 
+		@Override
+		public synchronized void writeHttpResponseHead(HttpVersion version, HttpStatus status,
+				WritableHttpHeader headHttpHeader, WritableHttpCookie headHttpCookie, HttpHeaderValue contentType) {
+
+			// Specify the status
+			this.exchange.setStatusCode(status.getStatusCode());
+
+			// Write the content type (no content length, so chunked)
+			if (contentType != null) {
+				this.exchange.getResponseHeaders().add(CONTENT_TYPE, contentType.getValue());
+			}
+
+			// Load the remaining headers
+			this.loadHeaders(headHttpHeader, headHttpCookie);
+
+			// Send the head
+			this.isStreaming = true;
+			this.responseChannel = this.exchange.getResponseChannel();
+			this.isWriting = true;
+			this.completeWrite();
+		}
+
+		@Override
+		public synchronized void writeHttpResponseContent(StreamBuffer<ByteBuffer> contentHeadStreamBuffer,
+				boolean isLast) {
+
+			// Provide back-pressure (when not blocking I/O thread)
+			if (!this.exchange.isInIoThread()) {
+				while (this.isWriting && !this.isClosed) {
+					try {
+						this.wait();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						break; // stop waiting
+					}
+				}
+			}
+
+			// Ignore content if connection closed
+			if (this.isClosed) {
+				while (contentHeadStreamBuffer != null) {
+					StreamBuffer<ByteBuffer> release = contentHeadStreamBuffer;
+					contentHeadStreamBuffer = contentHeadStreamBuffer.next;
+					release.release();
+				}
+				return;
+			}
+
+			// Append the content for writing
+			this.isLast = isLast;
+			this.appendContent(contentHeadStreamBuffer);
+		}
+
+		/**
+		 * Appends the content for writing.
+		 * 
+		 * @param contentHeadStreamBuffer Head {@link StreamBuffer} to the linked list
+		 *                                of {@link StreamBuffer} instances of the
+		 *                                content. May be <code>null</code>.
+		 */
+		private void appendContent(StreamBuffer<ByteBuffer> contentHeadStreamBuffer) {
+			StreamBuffer<ByteBuffer> buffer = contentHeadStreamBuffer;
+			while (buffer != null) {
+				this.prepareStreamBuffer(buffer);
+				buffer = buffer.next;
+			}
+			if (this.content == null) {
+				this.content = contentHeadStreamBuffer;
+			} else {
+				StreamBuffer<ByteBuffer> tail = this.content;
+				while (tail.next != null) {
+					tail = tail.next;
+				}
+				tail.next = contentHeadStreamBuffer;
+			}
+
+			// Write the content (if not already writing)
+			if (!this.isWriting) {
+				this.isWriting = true;
+				this.run();
+			}
+		}
+
+		@Override
+		public synchronized void offerHttpResponseContent(StreamBuffer<ByteBuffer> contentHeadStreamBuffer,
+				int maxPendingWrites) {
+
+			// Drop the client if not keeping up with the content
+			int pendingCount = 0;
+			StreamBuffer<ByteBuffer> pending = this.content;
+			while (pending != null) {
+				pendingCount++;
+				pending = pending.next;
+			}
+			if ((!this.isClosed) && (pendingCount >= maxPendingWrites)) {
+				this.closeConnection();
+			}
+
+			// Ignore content if connection closed
+			if (this.isClosed) {
+				while (contentHeadStreamBuffer != null) {
+					StreamBuffer<ByteBuffer> release = contentHeadStreamBuffer;
+					contentHeadStreamBuffer = contentHeadStreamBuffer.next;
+					release.release();
+				}
+				return;
+			}
+
+			// Append the content for writing
+			this.appendContent(contentHeadStreamBuffer);
+		}
+
+		@Override
+		public synchronized void abortHttpResponse(Throwable failure) {
+			this.closeConnection();
+		}
+
+		@Override
+		public synchronized boolean isConnectionClosed() {
+			return this.isClosed || !this.exchange.getConnection().isOpen();
+		}
+
 		/*
 		 * =================== Runnable =============================
 		 */
 
 		@Override
-		public void run() {
+		public synchronized void run() {
 
 			// Loop until complete write
 			for (;;) {
 
+				// Determine if all content written
+				if (this.content == null) {
+					this.completeWrite();
+					return;
+				}
+
 				// Continue writing existing buffer
 				boolean isFurtherBufferWrite;
 				try {
@@ -485,20 +709,8 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 
 				} catch (Throwable ex) {
 
-					// Release all buffers, as failure in writing entity
-					StreamBuffer<ByteBuffer> release;
-					while (this.content != null) {
-						release = this.content;
-						this.content = this.content.next;
-						release.release();
-					}
-
 					// Failure with connection, so close
-					try {
-						this.exchange.getConnection().close();
-					} catch (IOException e) {
-						// Best attempts made
-					}
+					this.closeConnection();
 
 					// Nothing further
 					return;
@@ -510,18 +722,10 @@ public class UndertowHttpServerImplementation extends AbstractUndertowHttpServer
 					return;
 				}
 
-				// Prepare the next buffer (releasing written buffer)
+				// Move to the next buffer (releasing written buffer)
 				StreamBuffer<ByteBuffer> release = this.content;
 				this.content = this.content.next;
 				release.release();
-				if (this.content == null) {
-					// No further content, so end exchange
-					this.exchange.endExchange();
-					return;
-				}
-
-				// Prepare next buffer (looping to write)
-				this.prepareStreamBuffer(this.content);
 			}
 		}
 	}
@@ -22,15 +22,23 @@
 package net.officefloor.web.jwt;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -181,6 +189,33 @@ public class JwtHttpSecuritySource<C> extends
 	 */
 	public static final long DEFAULT_CLOCK_SKEW = 2;
 
+	/**
+	 * <p>
+	 * {@link Property} name for the maximum number of validated JWTs to cache.
+	 * <p>
+	 * Caching validated JWTs avoids re-validating the signature (and re-parsing
+	 * the claims) for each {@link HttpRequest} re-sending the same JWT. Note that
+	 * the claims object is then shared by the {@link HttpRequest} instances
+	 * sending the same JWT. A value of <code>0</code> disables the cache.
+	 */
+	public static final String PROPERTY_VALIDATED_JWT_CACHE_SIZE = "validated.jwt.cache.size";
+
+	/**
+	 * Default value for {@link #PROPERTY_VALIDATED_JWT_CACHE_SIZE}.
+	 */
+	public static final int DEFAULT_VALIDATED_JWT_CACHE_SIZE = 1000;
+
+	/**
+	 * {@link Property} name for the maximum time in seconds to cache a validated
+	 * JWT.
+	 */
+	public static final String PROPERTY_VALIDATED_JWT_CACHE_TIME = "validated.jwt.cache.time";
+
+	/**
+	 * Default value for {@link #PROPERTY_VALIDATED_JWT_CACHE_TIME}.
+	 */
+	public static final long DEFAULT_VALIDATED_JWT_CACHE_TIME = 5 * 60;
+
 	/**
 	 * Flow keys.
 	 */
@@ -213,6 +248,17 @@ public class JwtHttpSecuritySource<C> extends
 	 */
 	private static final JavaType jwtHeaderJavaType = mapper.constructType(JwtHeader.class);
 
+	/**
+	 * {@link MessageDigest} to create the key for caching validated JWTs.
+	 */
+	private static final ThreadLocal<MessageDigest> jwtDigest = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("Unable to create digest for caching validated JWTs", ex);
+		}
+	});
+
 	static {
 		// Ensure JSON deserialising is valid
 		if (!mapper.canDeserialize(jwtClaimsJavaType)) {
@@ -261,6 +307,52 @@ public class JwtHttpSecuritySource<C> extends
 	 */
 	private JwtKeysFactoryOverride keysOverride;
 
+	/**
+	 * Cache of {@link ValidatedJwt} instances by digest of the JWT. Will be
+	 * <code>null</code> if not caching.
+	 */
+	private Map<ByteBuffer, ValidatedJwt<C>> validatedJwtCache = null;
+
+	/**
+	 * Maximum number of {@link ValidatedJwt} instances to cache.
+	 */
+	private int validatedJwtCacheSize;
+
+	/**
+	 * Maximum time in seconds to cache a {@link ValidatedJwt}.
+	 */
+	private long validatedJwtCacheTime;
+
+	/**
+	 * Number of {@link HttpRequest} instances authenticated from the cache.
+	 */
+	private final LongAdder validatedJwtCacheHits = new LongAdder();
+
+	/**
+	 * Number of {@link HttpRequest} instances requiring validating the JWT.
+	 */
+	private final LongAdder validatedJwtCacheMisses = new LongAdder();
+
+	/**
+	 * Obtains the number of {@link HttpRequest} instances authenticated from the
+	 * cache of validated JWTs.
+	 * 
+	 * @return Number of cache hits.
+	 */
+	public long getValidatedJwtCacheHits() {
+		return this.validatedJwtCacheHits.sum();
+	}
+
+	/**
+	 * Obtains the number of {@link HttpRequest} instances requiring validating
+	 * the JWT (as not in the cache of validated JWTs).
+	 * 
+	 * @return Number of cache misses.
+	 */
+	public long getValidatedJwtCacheMisses() {
+		return this.validatedJwtCacheMisses.sum();
+	}
+
 	/*
 	 * ==================== HttpSecuritySource ============================
 	 */
@@ -284,6 +376,13 @@ public class JwtHttpSecuritySource<C> extends
 		this.claimsClass = securityContext.loadClass(securityContext.getProperty(PROPERTY_CLAIMS_CLASS));
 		this.startupTimeout = Long.parseLong(
 				securityContext.getProperty(PROEPRTY_STARTUP_TIMEOUT, String.valueOf(DEFAULT_STARTUP_TIMEOUT)));
+		this.validatedJwtCacheSize = Integer.parseInt(securityContext.getProperty(PROPERTY_VALIDATED_JWT_CACHE_SIZE,
+				String.valueOf(DEFAULT_VALIDATED_JWT_CACHE_SIZE)));
+		this.validatedJwtCacheTime = Long.parseLong(securityContext.getProperty(PROPERTY_VALIDATED_JWT_CACHE_TIME,
+				String.valueOf(DEFAULT_VALIDATED_JWT_CACHE_TIME)));
+		if (this.validatedJwtCacheSize > 0) {
+			this.validatedJwtCache = new ConcurrentHashMap<>();
+		}
 
 		// Ensure claims class can be deserialised
 		this.claimsJavaType = mapper.constructType(this.claimsClass);
@@ -401,6 +500,23 @@ public class JwtHttpSecuritySource<C> extends
 				.getHttpAuthenticationScheme(context.getConnection().getRequest());
 		String jwtToken = scheme.getParameters();
 
+		// Obtain the current time (in seconds)
+		long currentTime = this.clock.getTime();
+
+		// Determine if JWT already validated
+		ByteBuffer cacheKey = null;
+		if (this.validatedJwtCache != null) {
+			cacheKey = ByteBuffer.wrap(jwtDigest.get().digest(jwtToken.getBytes(StandardCharsets.UTF_8)));
+			ValidatedJwt<C> validated = this.validatedJwtCache.get(cacheKey);
+			if ((validated != null) && (validated.isValid(currentTime, validateKeys))) {
+				// Use the already validated JWT
+				this.validatedJwtCacheHits.increment();
+				this.retrieveRoles(scheme, validated.principalName, validated.claims, context);
+				return;
+			}
+			this.validatedJwtCacheMisses.increment();
+		}
+
 		// Split out the JWT
 		String[] jwtParts = jwtToken.split("\\.");
 		if (jwtParts.length != 3) {
@@ -433,9 +549,6 @@ public class JwtHttpSecuritySource<C> extends
 			return;
 		}
 
-		// Obtain the current time (in seconds)
-		long currentTime = this.clock.getTime();
-
 		// Ensure valid window (taking into account clock skew)
 		// Note: signature will only confirm not yet available
 		if ((validateClaims.nbf != null) && (validateClaims.nbf > (currentTime + this.clockSkew))) {
@@ -481,7 +594,7 @@ public class JwtHttpSecuritySource<C> extends
 				headerBase64.length() + ".".length() + claimsBase64.length());
 
 		// Loop over decode keys to determine if JWT valid
-		boolean isValid = false;
+		JwtValidateKey validKey = null;
 		NEXT_DECODE_KEY: for (JwtValidateKey decodeKey : validateKeys) {
 
 			// Ensure key is still within window (taking into account clock skew)
@@ -495,14 +608,14 @@ public class JwtHttpSecuritySource<C> extends
 					base64UrlDecoder);
 			try {
 				if (validator.isValid(jwtWithoutSignature, signatureBase64)) {
-					isValid = true;
+					validKey = decodeKey;
 					break NEXT_DECODE_KEY; // is valid, so no further processing
 				}
 			} catch (Exception ex) {
 				// Ignore as signature not valid
 			}
 		}
-		if (!isValid) {
+		if (validKey == null) {
 			this.challenge(ChallengeReason.INVALID_JWT, context);
 			return;
 		}
@@ -517,14 +630,64 @@ public class JwtHttpSecuritySource<C> extends
 			return;
 		}
 
+		// Cache the validated JWT
+		String principalName = validateClaims.sub;
+		if (cacheKey != null) {
+			long cacheExpireTime = currentTime + this.validatedJwtCacheTime;
+			if (validateClaims.exp != null) {
+				cacheExpireTime = Math.min(cacheExpireTime, validateClaims.exp + this.clockSkew);
+			}
+			this.cacheValidatedJwt(cacheKey, new ValidatedJwt<>(principalName, claims, validateClaims.nbf,
+					cacheExpireTime, validKey, this.clockSkew), currentTime);
+		}
+
 		// Retrieve the roles
+		this.retrieveRoles(scheme, principalName, claims, context);
+	}
+
+	/**
+	 * Retrieves the roles for the validated JWT.
+	 * 
+	 * @param scheme        {@link HttpAuthenticationScheme}.
+	 * @param principalName Name of the {@link Principal}.
+	 * @param claims        Claims.
+	 * @param context       {@link AuthenticateContext}.
+	 */
+	private void retrieveRoles(HttpAuthenticationScheme scheme, String principalName, C claims,
+			AuthenticateContext<JwtHttpAccessControl<C>, None, Flows> context) {
 		String authenticationScheme = scheme.getAuthentiationScheme();
-		String principalName = validateClaims.sub;
 		JwtRoleCollectorImpl rolesCollector = new JwtRoleCollectorImpl(claims, authenticationScheme, principalName,
 				context);
 		context.doFlow(Flows.RETRIEVE_ROLES, rolesCollector, rolesCollector);
 	}
 
+	/**
+	 * Caches the {@link ValidatedJwt}.
+	 * 
+	 * @param cacheKey    Key for the {@link ValidatedJwt}.
+	 * @param validated   {@link ValidatedJwt}.
+	 * @param currentTime Current time in seconds.
+	 */
+	private void cacheValidatedJwt(ByteBuffer cacheKey, ValidatedJwt<C> validated, long currentTime) {
+
+		// Keep cache bounded
+		if (this.validatedJwtCache.size() >= this.validatedJwtCacheSize) {
+
+			// Remove the expired entries
+			this.validatedJwtCache.values().removeIf((entry) -> entry.cacheExpireTime < currentTime);
+
+			// Remove arbitrary entries if still full
+			Iterator<ByteBuffer> iterator = this.validatedJwtCache.keySet().iterator();
+			while ((this.validatedJwtCache.size() >= this.validatedJwtCacheSize) && (iterator.hasNext())) {
+				iterator.next();
+				iterator.remove();
+			}
+		}
+
+		// Cache the validated JWT
+		this.validatedJwtCache.put(cacheKey, validated);
+	}
+
 	/**
 	 * Loads the challenge details.
 	 * 
@@ -620,6 +783,12 @@ public class JwtHttpSecuritySource<C> extends
 			// Load the JWT decode keys
 			JwtValidateKey[] validKeys = copy.toArray(new JwtValidateKey[copy.size()]);
 			this.context.setNextState(validKeys, -1, null);
+
+			// Keys changed, so JWTs must be validated against the new keys
+			Map<ByteBuffer, ValidatedJwt<C>> cache = JwtHttpSecuritySource.this.validatedJwtCache;
+			if (cache != null) {
+				cache.clear();
+			}
 		}
 
 		@Override
@@ -628,6 +797,94 @@ public class JwtHttpSecuritySource<C> extends
 		}
 	}
 
+	/**
+	 * Cached validated JWT.
+	 */
+	private static class ValidatedJwt<C> {
+
+		/**
+		 * Name of the {@link Principal}.
+		 */
+		private final String principalName;
+
+		/**
+		 * Claims.
+		 */
+		private final C claims;
+
+		/**
+		 * Not before time in seconds. May be <code>null</code>.
+		 */
+		private final Long nbf;
+
+		/**
+		 * Time in seconds that this cache entry expires.
+		 */
+		private final long cacheExpireTime;
+
+		/**
+		 * {@link JwtValidateKey} that validated the JWT signature.
+		 */
+		private final JwtValidateKey validKey;
+
+		/**
+		 * Skew in seconds for clock time.
+		 */
+		private final long clockSkew;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param principalName   Name of the {@link Principal}.
+		 * @param claims          Claims.
+		 * @param nbf             Not before time in seconds. May be
+		 *                        <code>null</code>.
+		 * @param cacheExpireTime Time in seconds that this cache entry expires.
+		 * @param validKey        {@link JwtValidateKey} that validated the JWT
+		 *                        signature.
+		 * @param clockSkew       Skew in seconds for clock time.
+		 */
+		private ValidatedJwt(String principalName, C claims, Long nbf, long cacheExpireTime, JwtValidateKey validKey,
+				long clockSkew) {
+			this.principalName = principalName;
+			this.claims = claims;
+			this.nbf = nbf;
+			this.cacheExpireTime = cacheExpireTime;
+			this.validKey = validKey;
+			this.clockSkew = clockSkew;
+		}
+
+		/**
+		 * Determines if the validated JWT is still valid.
+		 * 
+		 * @param currentTime  Current time in seconds.
+		 * @param validateKeys Current {@link JwtValidateKey} instances.
+		 * @return <code>true</code> if still valid.
+		 */
+		private boolean isValid(long currentTime, JwtValidateKey[] validateKeys) {
+
+			// Ensure within time window
+			if ((currentTime > this.cacheExpireTime)
+					|| ((this.nbf != null) && (this.nbf > (currentTime + this.clockSkew)))) {
+				return false;
+			}
+
+			// Ensure the validating key is still within window
+			if ((this.validKey.getStartTime() > (currentTime + this.clockSkew))
+					|| (this.validKey.getExpireTime() < (currentTime - this.clockSkew))) {
+				return false;
+			}
+
+			// Ensure the validating key is still available
+			for (JwtValidateKey validateKey : validateKeys) {
+				if (validateKey == this.validKey) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
 	/**
 	 * {@link JwtRoleCollector} implementation.
 	 */
@@ -32,6 +32,7 @@ import java.util.Base64;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -371,6 +372,67 @@ public class JwtHttpSecurityIntegrateTest extends OfficeFrameTestCase {
 		this.server.send(request).assertResponse(HttpStatus.OK.getStatusCode(), "INJECT: Daniel");
 	}
 
+	/**
+	 * Ensure validated JWT is cached to avoid re-validating on each request.
+	 */
+	public void testValidatedJwtCached() throws Exception {
+		this.doValidatedJwtCacheTest(1);
+	}
+
+	/**
+	 * Ensure able to disable caching validated JWT.
+	 */
+	public void testValidatedJwtCacheDisabled() throws Exception {
+		this.doValidatedJwtCacheTest(3, JwtHttpSecuritySource.PROPERTY_VALIDATED_JWT_CACHE_SIZE, "0");
+	}
+
+	/**
+	 * Undertakes test of caching the validated JWT.
+	 * 
+	 * @param expectedClaimsCount    Expected number of claims objects loaded.
+	 * @param httpSecurityProperties {@link HttpSecuritySource} {@link Property}
+	 *                               name/value pairs.
+	 */
+	private void doValidatedJwtCacheTest(int expectedClaimsCount, String... httpSecurityProperties)
+			throws Exception {
+
+		// Start server
+		String[] properties = new String[httpSecurityProperties.length + 2];
+		properties[0] = JwtHttpSecuritySource.PROPERTY_CLAIMS_CLASS;
+		properties[1] = CountingClaims.class.getName();
+		System.arraycopy(httpSecurityProperties, 0, properties, 2, httpSecurityProperties.length);
+		this.loadServer(null, properties);
+		CountingClaims.instanceCount.set(0);
+
+		// Send same JWT multiple times
+		String token = Jwts.builder().signWith(keyPair.getPrivate()).claim("role", "allow")
+				.setExpiration(getDate(currentTimeOffset(1, TimeUnit.MINUTES))).compact();
+		for (int i = 0; i < 3; i++) {
+			MockHttpRequestBuilder request = MockHttpServer.mockRequest(ROLE_PATH);
+			request.header("Authorization", "Bearer " + token);
+			this.server.send(request).assertResponse(HttpStatus.OK.getStatusCode(), "ROLE");
+		}
+		assertEquals("Incorrect number of claims loaded", expectedClaimsCount, CountingClaims.instanceCount.get());
+
+		// Ensure (cached) JWT expires
+		this.clockFactory.setCurrentTimeSeconds(currentTimeOffset(2, TimeUnit.MINUTES));
+		MockHttpRequestBuilder request = MockHttpServer.mockRequest(ROLE_PATH);
+		request.header("Authorization", "Bearer " + token);
+		this.server.send(request).assertResponse(HttpStatus.UNAUTHORIZED.getStatusCode(), "EXPIRED JWT");
+	}
+
+	/**
+	 * Claims counting the number of instances loaded.
+	 */
+	public static class CountingClaims extends RoleClaims {
+
+		private static final AtomicInteger instanceCount = new AtomicInteger(0);
+
+		public CountingClaims() {
+			instanceCount.incrementAndGet();
+		}
+	}
+
 	/**
 	 * Creates the {@link JwtValidateKey}.
 	 * 
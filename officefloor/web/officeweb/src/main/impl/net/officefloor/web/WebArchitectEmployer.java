@@ -75,6 +75,8 @@ import net.officefloor.web.response.ObjectResponseManagedObjectSource.DefaultHtt
 import net.officefloor.web.route.WebRouterBuilder;
 import net.officefloor.web.session.HttpSessionManagedObjectSource;
 import net.officefloor.web.session.object.HttpSessionObjectManagedObjectSource;
+import net.officefloor.web.sse.ServerSentEventBroadcasterManagedObjectSource;
+import net.officefloor.web.sse.ServerSentEventStreamManagedObjectSource;
 import net.officefloor.web.state.HttpApplicationObjectManagedObjectSource;
 import net.officefloor.web.state.HttpApplicationStateManagedObjectSource;
 import net.officefloor.web.state.HttpArgumentManagedObjectSource;
@@ -508,6 +510,15 @@ public class WebArchitectEmployer implements WebArchitect {
 						new HttpRequestStateManagedObjectSource(argumentParsers))
 				.addOfficeManagedObject("HTTP_REQUEST_STATE", ManagedObjectScope.PROCESS);
 
+		// Configure the Server-Sent Events
+		this.officeArchitect
+				.addOfficeManagedObjectSource("SERVER_SENT_EVENT_STREAM", new ServerSentEventStreamManagedObjectSource())
+				.addOfficeManagedObject("SERVER_SENT_EVENT_STREAM", ManagedObjectScope.PROCESS);
+		this.officeArchitect
+				.addOfficeManagedObjectSource("SERVER_SENT_EVENT_BROADCASTER",
+						new ServerSentEventBroadcasterManagedObjectSource())
+				.addOfficeManagedObject("SERVER_SENT_EVENT_BROADCASTER", ManagedObjectScope.PROCESS);
+
 		// Create the object response registrator
 		ObjectResponseRegistrator objectResponseRegistrator = new ObjectResponseRegistrator();
 
@@ -22,7 +22,10 @@
 package net.officefloor.web.accept;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.officefloor.server.http.HttpException;
 import net.officefloor.server.http.HttpHeader;
@@ -111,12 +114,58 @@ public class AcceptNegotiatorImpl<H> implements AcceptNegotiator<H> {
 		return new AcceptHandler<H>(AcceptHandlerEnum.SUB_TYPE, contentType, handler);
 	}
 
+	/**
+	 * Negotiated result for an <code>accept</code> {@link HttpHeader} value.
+	 */
+	private static class Negotiation<H> {
+
+		/**
+		 * Negotiated handler. May be <code>null</code> if no match.
+		 */
+		private final H handler;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param handler
+		 *            Negotiated handler. May be <code>null</code> if no match.
+		 */
+		private Negotiation(H handler) {
+			this.handler = handler;
+		}
+	}
+
 	/**
 	 * {@link AcceptType} linked list to use should there be no <code>accept</code>
 	 * {@link HttpHeader} values.
 	 */
 	private static final AcceptType MATCH_ANY = new AnyAcceptType("1", 0);
 
+	/**
+	 * Maximum number of {@link Negotiation} instances cached. This bounds the
+	 * memory used should clients send many distinct <code>accept</code>
+	 * {@link HttpHeader} values.
+	 */
+	static final int MAX_CACHED_NEGOTIATIONS = 256;
+
+	/**
+	 * Cached {@link Negotiation} by <code>accept</code> {@link HttpHeader} value.
+	 */
+	private final Map<String, Negotiation<H>> acceptNegotiations = new ConcurrentHashMap<>();
+
+	/**
+	 * Cached {@link Negotiation} by <code>content-type</code> {@link HttpHeader}
+	 * value for only wild card <code>accept</code> {@link HttpHeader} values.
+	 */
+	private final Map<String, Negotiation<H>> contentTypeNegotiations = new ConcurrentHashMap<>();
+
+	/**
+	 * {@link Negotiation} indicating the <code>accept</code> {@link HttpHeader} is
+	 * only wild card, so requires negotiating on the <code>content-type</code>
+	 * {@link HttpHeader}.
+	 */
+	private final Negotiation<H> contentTypeNegotiation = new Negotiation<>(null);
+
 	/**
 	 * {@link AcceptHandler} instances.
 	 */
@@ -178,8 +227,81 @@ public class AcceptNegotiatorImpl<H> implements AcceptNegotiator<H> {
 	@Override
 	public H getHandler(HttpRequest request) {
 
-		// Parse out the accept type
-		AcceptType acceptType = parseAccept(request);
+		// Obtain the accept header
+		HttpRequestHeaders headers = request.getHeaders();
+		Iterator<HttpHeader> acceptHeaders = headers.getHeaders("accept").iterator();
+		HttpHeader acceptHeader = acceptHeaders.hasNext() ? acceptHeaders.next() : null;
+		if (acceptHeaders.hasNext()) {
+			// Multiple accept headers (rare), so negotiate without caching
+			return this.negotiate(parseAccept(request));
+		}
+
+		// Obtain the cached negotiation for the accept value
+		String accept = (acceptHeader == null) ? "" : acceptHeader.getValue();
+		Negotiation<H> negotiation = this.acceptNegotiations.get(accept);
+		if (negotiation == null) {
+
+			// Not cached, so parse out the accept types
+			AcceptType head = parseAccept(accept, null);
+			negotiation = isOnlyWildcard(head) ? this.contentTypeNegotiation
+					: new Negotiation<>(this.negotiate(head));
+
+			// Cache the negotiation
+			cacheNegotiation(this.acceptNegotiations, accept, negotiation);
+		}
+
+		// Determine if negotiated on accept
+		if (negotiation != this.contentTypeNegotiation) {
+			return negotiation.handler;
+		}
+
+		// Only wild card, so negotiate on content type
+		HttpHeader contentTypeHeader = headers.getHeader("content-type");
+		String contentType = (contentTypeHeader == null) ? "" : contentTypeHeader.getValue();
+		negotiation = this.contentTypeNegotiations.get(contentType);
+		if (negotiation == null) {
+
+			// Not cached, so negotiate on content type
+			AcceptType head = MATCH_ANY;
+			if (contentTypeHeader != null) {
+				head = new SubTypeAcceptType(contentType, "1", 0);
+				head.next = MATCH_ANY;
+			}
+			negotiation = new Negotiation<>(this.negotiate(head));
+
+			// Cache the negotiation
+			cacheNegotiation(this.contentTypeNegotiations, contentType, negotiation);
+		}
+		return negotiation.handler;
+	}
+
+	/**
+	 * Caches the {@link Negotiation}.
+	 * 
+	 * @param cache
+	 *            Cache of {@link Negotiation} instances.
+	 * @param key
+	 *            {@link HttpHeader} value.
+	 * @param negotiation
+	 *            {@link Negotiation}.
+	 */
+	private static <H> void cacheNegotiation(Map<String, Negotiation<H>> cache, String key,
+			Negotiation<H> negotiation) {
+
+		// Only cache up to bound (as typically only few distinct values)
+		if (cache.size() < MAX_CACHED_NEGOTIATIONS) {
+			cache.putIfAbsent(key, negotiation);
+		}
+	}
+
+	/**
+	 * Negotiates the handler from the {@link AcceptType} linked list.
+	 * 
+	 * @param acceptType
+	 *            Head {@link AcceptType} of the linked list.
+	 * @return Handler or <code>null</code> if no match.
+	 */
+	private H negotiate(AcceptType acceptType) {
 
 		// Find first matching handler
 		while (acceptType != null) {
@@ -229,10 +351,7 @@ public class AcceptNegotiatorImpl<H> implements AcceptNegotiator<H> {
 		// Determine if only wild card match
 		// - no head, so will match any type
 		// - only one head that is any match, so will match any type
-		boolean isOnlyWildcard = ((head == null) || ((head.next == null) && (head.getClass() == AnyAcceptType.class)));
-
-		// Default to content-type if wild card only
-		if (isOnlyWildcard) {
+		if (isOnlyWildcard(head)) {
 
 			// Attempt to match first on input content type
 			// (e.g. if JSON sent then respond with JSON)
@@ -253,6 +372,18 @@ public class AcceptNegotiatorImpl<H> implements AcceptNegotiator<H> {
 		return head;
 	}
 
+	/**
+	 * Determines if only wild card match.
+	 * 
+	 * @param head
+	 *            Head {@link AcceptType} of the linked list. May be
+	 *            <code>null</code>.
+	 * @return <code>true</code> if will match any type.
+	 */
+	private static boolean isOnlyWildcard(AcceptType head) {
+		return ((head == null) || ((head.next == null) && (head.getClass() == AnyAcceptType.class)));
+	}
+
 	/**
 	 * State of parsing.
 	 */
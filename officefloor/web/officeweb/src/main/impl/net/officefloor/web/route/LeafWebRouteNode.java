@@ -49,9 +49,10 @@ public class LeafWebRouteNode implements WebRouteNode {
 	private static final HttpHeaderName ALLOW = new HttpHeaderName("allow");
 
 	/**
-	 * {@link LeafWebRouteHandling} instances by their {@link HttpMethod}.
+	 * {@link LeafWebRouteHandling} instances indexed by their
+	 * {@link HttpMethodEnum} ordinal.
 	 */
-	private final Map<HttpMethodEnum, LeafWebRouteHandling> handlers;
+	private final LeafWebRouteHandling[] handlers;
 
 	/**
 	 * Not allowed {@link WebServicer}.
@@ -66,7 +67,12 @@ public class LeafWebRouteNode implements WebRouteNode {
 	 *                       {@link HttpMethod}.
 	 */
 	public LeafWebRouteNode(String[] allowedMethods, Map<HttpMethodEnum, LeafWebRouteHandling> handlers) {
-		this.handlers = handlers;
+
+		// Create the dispatch of method to handling
+		this.handlers = new LeafWebRouteHandling[HttpMethodEnum.values().length];
+		for (HttpMethodEnum methodEnum : handlers.keySet()) {
+			this.handlers[methodEnum.ordinal()] = handlers.get(methodEnum);
+		}
 
 		// Create the allow value
 		StringBuilder value = new StringBuilder();
@@ -103,7 +109,7 @@ public class LeafWebRouteNode implements WebRouteNode {
 	 */
 
 	@Override
-	public WebServicer handle(HttpMethod method, String path, int index, HttpArgument headPathArgument,
+	public WebServicer handle(HttpMethod method, String path, int index, int[] parameters, int parameterCount,
 			ServerHttpConnection connection, ManagedFunctionContext<?, Indexed> context) {
 
 		// Determine if end of path
@@ -141,7 +147,7 @@ public class LeafWebRouteNode implements WebRouteNode {
 
 		// Obtain the handler
 		WebRouteHandler handler = null;
-		LeafWebRouteHandling handling = this.handlers.get(method.getEnum());
+		LeafWebRouteHandling handling = this.handlers[method.getEnum().ordinal()];
 		if (handling != null) {
 			handler = handling.handlerFactory.apply(method);
 		}
@@ -149,28 +155,17 @@ public class LeafWebRouteNode implements WebRouteNode {
 		// Undertake handling
 		if (handler != null) {
 
-			// Obtain the named path arguments
+			// Obtain the named path arguments (extracting values from path)
 			HttpArgument namedArguments = null;
 			String[] parameterNames = handling.parameterNamesFactory.apply(method);
-			if (parameterNames.length > 0) {
-
-				// Load the last parameter
-				String name = parameterNames[parameterNames.length - 1];
-				namedArguments = new HttpArgument(name, headPathArgument.value, HttpValueLocation.PATH);
-				headPathArgument = headPathArgument.next;
-
-				// Load the remaining parameters
-				for (int i = parameterNames.length - 2; i >= 0; i--) {
-					name = parameterNames[i];
-
-					// Add in the parameter
-					HttpArgument nextArgument = new HttpArgument(name, headPathArgument.value, HttpValueLocation.PATH);
-					nextArgument.next = namedArguments;
-					namedArguments = nextArgument;
-
-					// Move to next argument
-					headPathArgument = headPathArgument.next;
-				}
+			for (int i = parameterNames.length - 1; i >= 0; i--) {
+				String name = parameterNames[i];
+				String value = path.substring(parameters[i * 2], parameters[(i * 2) + 1]);
+
+				// Add in the parameter
+				HttpArgument nextArgument = new HttpArgument(name, value, HttpValueLocation.PATH);
+				nextArgument.next = namedArguments;
+				namedArguments = nextArgument;
 			}
 
 			// Service the request
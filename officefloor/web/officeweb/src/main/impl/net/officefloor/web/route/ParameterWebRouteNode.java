@@ -23,18 +23,14 @@ package net.officefloor.web.route;
 
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import net.officefloor.frame.api.build.Indexed;
 import net.officefloor.frame.api.function.ManagedFunctionContext;
 import net.officefloor.server.http.HttpMethod;
 import net.officefloor.server.http.ServerHttpConnection;
-import net.officefloor.web.build.HttpValueLocation;
-import net.officefloor.web.state.HttpArgument;
 
 /**
  * {@link WebRouteNode} for a path parameter.
@@ -44,15 +40,23 @@ import net.officefloor.web.state.HttpArgument;
 public class ParameterWebRouteNode implements WebRouteNode {
 
 	/**
-	 * Terminating characters for the parameter.
+	 * Size of the terminating character dispatch table (covers ASCII
+	 * characters).
 	 */
-	private final char[] terminatingCharacters;
+	private static final int DISPATCH_TABLE_SIZE = 128;
 
 	/**
-	 * {@link Map} of terminating {@link Character} to {@link StaticWebRouteNode}
-	 * instances.
+	 * Children {@link WebRouteNode} instances indexed by their terminating
+	 * character. Entry is <code>null</code> if not a terminating character.
 	 */
-	private final Map<Character, WebRouteNode[]> characterToChildren;
+	private final WebRouteNode[][] characterToChildren = new WebRouteNode[DISPATCH_TABLE_SIZE][];
+
+	/**
+	 * {@link Map} of terminating {@link Character} to children
+	 * {@link WebRouteNode} instances for characters outside the dispatch table.
+	 * May be <code>null</code> if no such terminating characters.
+	 */
+	private final Map<Character, WebRouteNode[]> otherCharacterToChildren;
 
 	/**
 	 * {@link LeafWebRouteNode}.
@@ -70,8 +74,7 @@ public class ParameterWebRouteNode implements WebRouteNode {
 	public ParameterWebRouteNode(StaticWebRouteNode[] nodes, LeafWebRouteNode leafNode) {
 		this.leafNode = leafNode;
 
-		// Create the terminating characters and map to children
-		Set<Character> initialCharacters = new HashSet<>();
+		// Map terminating characters to children
 		Map<Character, List<WebRouteNode>> characterNodesMap = new HashMap<>();
 		for (StaticWebRouteNode node : nodes) {
 			char initialCharacter = node.getInitialCharacter();
@@ -83,9 +86,6 @@ public class ParameterWebRouteNode implements WebRouteNode {
 				characterNodesMap.put(initialCharacter, characterNodes);
 			}
 			characterNodes.add(node);
-
-			// Keep track of all initial characters
-			initialCharacters.add(initialCharacter);
 		}
 
 		// Determine if able to complete path with parameter
@@ -94,42 +94,24 @@ public class ParameterWebRouteNode implements WebRouteNode {
 
 				// Add mapping for path completion
 				characterNodesMap.put(pathEndCharacter, Arrays.asList(this.leafNode));
-
-				// Include the path end character
-				initialCharacters.add(pathEndCharacter);
 			}
 		}
 
-		// Create the array of terminating characters (faster matching)
-		this.terminatingCharacters = new char[initialCharacters.size()];
-		int index = 0;
-		for (Character character : initialCharacters) {
-			this.terminatingCharacters[index++] = character;
-		}
-
-		// Create the map of children
-		// (size for ASCII characters to index avoiding collisions)
-		this.characterToChildren = new HashMap<>(128);
-		for (Character initialCharacter : characterNodesMap.keySet()) {
-			List<WebRouteNode> children = characterNodesMap.get(initialCharacter);
-
-			// Load the initial character choice
+		// Create the dispatch of terminating characters to children
+		Map<Character, WebRouteNode[]> otherCharacterToChildren = new HashMap<>();
+		for (Character terminatingCharacter : characterNodesMap.keySet()) {
+			List<WebRouteNode> children = characterNodesMap.get(terminatingCharacter);
 			WebRouteNode[] childrenArray = children.toArray(new WebRouteNode[children.size()]);
-			this.characterToChildren.put(initialCharacter, childrenArray);
-		}
-	}
 
-	/**
-	 * Includes the {@link HttpArgument}.
-	 * 
-	 * @param headPathArgument Head {@link HttpArgument}.of arguments.
-	 * @param argumentValue    {@link HttpArgument} value.
-	 * @return Head {@link HttpArgument} of arguments including the argument.
-	 */
-	private HttpArgument includePathArgument(HttpArgument headPathArgument, String argumentValue) {
-		HttpArgument argumentIncluded = new HttpArgument(null, argumentValue, HttpValueLocation.PATH);
-		argumentIncluded.next = headPathArgument;
-		return argumentIncluded;
+			// Load the terminating character choice
+			char character = terminatingCharacter.charValue();
+			if (character < DISPATCH_TABLE_SIZE) {
+				this.characterToChildren[character] = childrenArray;
+			} else {
+				otherCharacterToChildren.put(terminatingCharacter, childrenArray);
+			}
+		}
+		this.otherCharacterToChildren = otherCharacterToChildren.size() == 0 ? null : otherCharacterToChildren;
 	}
 
 	/*
@@ -137,30 +119,38 @@ public class ParameterWebRouteNode implements WebRouteNode {
 	 */
 
 	@Override
-	public WebServicer handle(HttpMethod method, String path, int index, HttpArgument headPathArgument,
+	public WebServicer handle(HttpMethod method, String path, int index, int[] parameters, int parameterCount,
 			ServerHttpConnection connection, ManagedFunctionContext<?, Indexed> context) {
 
 		// Capture starting position of parameter value
 		final int parameterStart = index;
+		final int parameterOffset = parameterCount * 2;
+		parameters[parameterOffset] = parameterStart;
 
 		// Loop until match, or end of path
-		while (index < path.length()) {
+		final int pathLength = path.length();
+		while (index < pathLength) {
 
-			// Obtain the current character
+			// Obtain the children for terminating character
 			char character = path.charAt(index);
+			WebRouteNode[] nodes;
+			if (character < DISPATCH_TABLE_SIZE) {
+				nodes = this.characterToChildren[character];
+			} else {
+				nodes = (this.otherCharacterToChildren == null) ? null
+						: this.otherCharacterToChildren.get(character);
+			}
 
 			// Determine if terminating character
-			for (int c = 0; c < this.terminatingCharacters.length; c++) {
-				char terminatingCharacter = this.terminatingCharacters[c];
-				if (character == terminatingCharacter) {
+			if (nodes != null) {
 
-					// Obtain parameter value
-					String parameterValue = path.substring(parameterStart, index);
+				// Capture end of parameter value (only extracted on match)
+				parameters[parameterOffset + 1] = index;
 
-					// Attempt to terminate parameter
-					WebRouteNode[] nodes = this.characterToChildren.get(character);
-					WebServicer servicer = WebServicer.getBestMatch(method, path, index,
-							this.includePathArgument(headPathArgument, parameterValue), connection, context, nodes);
+				// Attempt to terminate parameter
+				for (int i = 0; i < nodes.length; i++) {
+					WebServicer servicer = nodes[i].handle(method, path, index, parameters, parameterCount + 1,
+							connection, context);
 					if (WebServicer.isMatch(servicer)) {
 						return servicer; // parameter terminated (route matched)
 					}
@@ -180,12 +170,12 @@ public class ParameterWebRouteNode implements WebRouteNode {
 				parameterEnd--;
 			}
 
-			// Obtain the parameter value (+1 as exclusive)
-			String parameterValue = path.substring(parameterStart, parameterEnd + 1);
+			// Capture end of parameter value (+1 as exclusive)
+			parameters[parameterOffset] = parameterStart;
+			parameters[parameterOffset + 1] = parameterEnd + 1;
 
 			// Handle by leaf
-			return this.leafNode.handle(method, path, index, this.includePathArgument(headPathArgument, parameterValue),
-					connection, context);
+			return this.leafNode.handle(method, path, index, parameters, parameterCount + 1, connection, context);
 		}
 
 		// As here, no match
@@ -25,7 +25,6 @@ import net.officefloor.frame.api.build.Indexed;
 import net.officefloor.frame.api.function.ManagedFunctionContext;
 import net.officefloor.server.http.HttpMethod;
 import net.officefloor.server.http.ServerHttpConnection;
-import net.officefloor.web.state.HttpArgument;
 
 /**
  * {@link WebRouteNode} for static characters.
@@ -35,14 +34,14 @@ import net.officefloor.web.state.HttpArgument;
 public class StaticWebRouteNode implements WebRouteNode {
 
 	/**
-	 * Static characters.
+	 * Static characters (held as {@link String} for efficient region matching).
 	 */
-	private final char[] characters;
+	private final String characters;
 
 	/**
-	 * Further {@link WebRouteNode} instances.
+	 * {@link WebRouteDispatcher} to the further {@link WebRouteNode} instances.
 	 */
-	private final WebRouteNode[] nodes;
+	private final WebRouteDispatcher dispatcher;
 
 	/**
 	 * Instantiate.
@@ -51,8 +50,8 @@ public class StaticWebRouteNode implements WebRouteNode {
 	 * @param nodes      Further {@link WebRouteNode} instances.
 	 */
 	public StaticWebRouteNode(char[] characters, WebRouteNode[] nodes) {
-		this.characters = characters;
-		this.nodes = nodes;
+		this.characters = new String(characters);
+		this.dispatcher = new WebRouteDispatcher(nodes);
 	}
 
 	/**
@@ -61,7 +60,7 @@ public class StaticWebRouteNode implements WebRouteNode {
 	 * @return Initial {@link Character}.
 	 */
 	public char getInitialCharacter() {
-		return this.characters[0];
+		return this.characters.charAt(0);
 	}
 
 	/*
@@ -69,26 +68,17 @@ public class StaticWebRouteNode implements WebRouteNode {
 	 */
 
 	@Override
-	public WebServicer handle(HttpMethod method, String path, int index, HttpArgument headPathParameter,
+	public WebServicer handle(HttpMethod method, String path, int index, int[] parameters, int parameterCount,
 			ServerHttpConnection connection, ManagedFunctionContext<?, Indexed> context) {
 
-		// Determine if enough characters
-		if (this.characters.length + index > path.length()) {
-			return WebServicer.NO_MATCH; // not enough characters to match
-		}
-
 		// Determine if match on characters
-		for (int i = 0; i < this.characters.length; i++) {
-			char staticCharacter = this.characters[i];
-			char pathCharacter = path.charAt(index + i);
-			if (staticCharacter != pathCharacter) {
-				return WebServicer.NO_MATCH; // not match static route
-			}
+		if (!path.startsWith(this.characters, index)) {
+			return WebServicer.NO_MATCH; // not match static route
 		}
 
 		// As here, match on paths, so continue matching
-		return WebServicer.getBestMatch(method, path, index + this.characters.length, headPathParameter, connection,
-				context, this.nodes);
+		return this.dispatcher.getBestMatch(method, path, index + this.characters.length(), parameters, parameterCount,
+				connection, context);
 	}
 
 }
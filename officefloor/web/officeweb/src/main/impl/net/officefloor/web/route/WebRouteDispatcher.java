@@ -0,0 +1,205 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.route;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.officefloor.frame.api.build.Indexed;
+import net.officefloor.frame.api.function.ManagedFunctionContext;
+import net.officefloor.server.http.HttpMethod;
+import net.officefloor.server.http.ServerHttpConnection;
+
+/**
+ * <p>
+ * Dispatches matching to the {@link WebRouteNode} choices.
+ * <p>
+ * {@link StaticWebRouteNode} choices are dispatched by the next character of
+ * the path, so that only choices that may possibly match are attempted. This
+ * avoids linearly attempting each static choice at each branch of the routing
+ * tree.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebRouteDispatcher {
+
+	/**
+	 * Size of the character dispatch table (covers ASCII characters).
+	 */
+	private static final int DISPATCH_TABLE_SIZE = 128;
+
+	/**
+	 * No {@link WebRouteNode} instances.
+	 */
+	private static final WebRouteNode[] NO_NODES = new WebRouteNode[0];
+
+	/**
+	 * {@link WebRouteNode} instances to attempt before the
+	 * {@link StaticWebRouteNode} instances.
+	 */
+	private final WebRouteNode[] leadingNodes;
+
+	/**
+	 * {@link StaticWebRouteNode} instances indexed by their initial character.
+	 * May be <code>null</code> if no {@link StaticWebRouteNode} instances.
+	 */
+	private final WebRouteNode[][] staticNodesByCharacter;
+
+	/**
+	 * {@link StaticWebRouteNode} instances with an initial character outside the
+	 * dispatch table.
+	 */
+	private final WebRouteNode[] otherStaticNodes;
+
+	/**
+	 * {@link WebRouteNode} instances to attempt after the
+	 * {@link StaticWebRouteNode} instances.
+	 */
+	private final WebRouteNode[] trailingNodes;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param nodes {@link WebRouteNode} instances in order of matching.
+	 */
+	public WebRouteDispatcher(WebRouteNode[] nodes) {
+
+		// Split nodes into leading, static and trailing nodes
+		List<WebRouteNode> leading = new ArrayList<>();
+		List<StaticWebRouteNode> statics = new ArrayList<>();
+		List<WebRouteNode> trailing = new ArrayList<>();
+		boolean isDispatch = true;
+		for (WebRouteNode node : nodes) {
+			if (node instanceof StaticWebRouteNode) {
+				if (trailing.size() > 0) {
+					// Static after non-static, so must keep ordering
+					isDispatch = false;
+				}
+				statics.add((StaticWebRouteNode) node);
+			} else if (statics.size() == 0) {
+				leading.add(node);
+			} else {
+				trailing.add(node);
+			}
+		}
+
+		// Determine if able to dispatch by character
+		if ((!isDispatch) || (statics.size() == 0)) {
+			// Attempt all nodes in order
+			this.leadingNodes = nodes;
+			this.staticNodesByCharacter = null;
+			this.otherStaticNodes = NO_NODES;
+			this.trailingNodes = NO_NODES;
+			return;
+		}
+
+		// Create the dispatch table (keeping order of static nodes)
+		List<List<WebRouteNode>> characterNodes = new ArrayList<>(DISPATCH_TABLE_SIZE);
+		for (int i = 0; i < DISPATCH_TABLE_SIZE; i++) {
+			characterNodes.add(null);
+		}
+		List<WebRouteNode> others = new ArrayList<>();
+		for (StaticWebRouteNode node : statics) {
+			char initialCharacter = node.getInitialCharacter();
+			if (initialCharacter < DISPATCH_TABLE_SIZE) {
+				List<WebRouteNode> list = characterNodes.get(initialCharacter);
+				if (list == null) {
+					list = new ArrayList<>(1);
+					characterNodes.set(initialCharacter, list);
+				}
+				list.add(node);
+			} else {
+				others.add(node);
+			}
+		}
+		this.staticNodesByCharacter = new WebRouteNode[DISPATCH_TABLE_SIZE][];
+		for (int i = 0; i < DISPATCH_TABLE_SIZE; i++) {
+			List<WebRouteNode> list = characterNodes.get(i);
+			if (list != null) {
+				this.staticNodesByCharacter[i] = list.toArray(new WebRouteNode[list.size()]);
+			}
+		}
+
+		// Specify the remaining nodes
+		this.leadingNodes = leading.toArray(new WebRouteNode[leading.size()]);
+		this.otherStaticNodes = others.toArray(new WebRouteNode[others.size()]);
+		this.trailingNodes = trailing.toArray(new WebRouteNode[trailing.size()]);
+	}
+
+	/**
+	 * Obtains the best {@link WebServicer} from the {@link WebRouteNode} choices.
+	 * 
+	 * @param method         {@link HttpMethod}.
+	 * @param path           Path.
+	 * @param index          Index within the path.
+	 * @param parameters     Offsets of the captured path parameters.
+	 * @param parameterCount Number of path parameters captured.
+	 * @param connection     {@link ServerHttpConnection}.
+	 * @param context        {@link ManagedFunctionContext}.
+	 * @return Best {@link WebServicer}.
+	 */
+	public WebServicer getBestMatch(HttpMethod method, String path, int index, int[] parameters, int parameterCount,
+			ServerHttpConnection connection, ManagedFunctionContext<?, Indexed> context) {
+
+		// Attempt the leading nodes
+		WebServicer closeMatch = WebServicer.NO_MATCH;
+		for (int i = 0; i < this.leadingNodes.length; i++) {
+			WebServicer result = this.leadingNodes[i].handle(method, path, index, parameters, parameterCount,
+					connection, context);
+			if (WebServicer.isMatch(result)) {
+				return result; // found match
+			}
+			closeMatch = WebServicer.getCloserMatch(closeMatch, result);
+		}
+
+		// Attempt only the static nodes for the next character
+		if ((this.staticNodesByCharacter != null) && (index < path.length())) {
+			char character = path.charAt(index);
+			WebRouteNode[] staticNodes = (character < DISPATCH_TABLE_SIZE) ? this.staticNodesByCharacter[character]
+					: this.otherStaticNodes;
+			if (staticNodes != null) {
+				for (int i = 0; i < staticNodes.length; i++) {
+					WebServicer result = staticNodes[i].handle(method, path, index, parameters, parameterCount,
+							connection, context);
+					if (WebServicer.isMatch(result)) {
+						return result; // found match
+					}
+					closeMatch = WebServicer.getCloserMatch(closeMatch, result);
+				}
+			}
+		}
+
+		// Attempt the trailing nodes
+		for (int i = 0; i < this.trailingNodes.length; i++) {
+			WebServicer result = this.trailingNodes[i].handle(method, path, index, parameters, parameterCount,
+					connection, context);
+			if (WebServicer.isMatch(result)) {
+				return result; // found match
+			}
+			closeMatch = WebServicer.getCloserMatch(closeMatch, result);
+		}
+
+		// Return the close match
+		return closeMatch;
+	}
+
+}
@@ -25,7 +25,6 @@ import net.officefloor.frame.api.build.Indexed;
 import net.officefloor.frame.api.function.ManagedFunctionContext;
 import net.officefloor.server.http.HttpMethod;
 import net.officefloor.server.http.ServerHttpConnection;
-import net.officefloor.web.state.HttpArgument;
 
 /**
  * Node in the {@link WebRouter} route tree.
@@ -47,12 +46,16 @@ public interface WebRouteNode {
 	 * @param method           {@link HttpMethod}.
 	 * @param path             Path.
 	 * @param index            Index into the path.
-	 * @param headPathArgument Head {@link HttpArgument} from the path.
+	 * @param parameters       Offsets into the path of the captured path
+	 *                         parameter values. Each path parameter occupies two
+	 *                         entries (start inclusive and end exclusive) so that
+	 *                         values are only extracted on matching a route.
+	 * @param parameterCount   Number of path parameters captured.
 	 * @param connection       {@link ServerHttpConnection}.
 	 * @param context          {@link ManagedFunctionContext}.
 	 * @return {@link WebServicer}.
 	 */
-	WebServicer handle(HttpMethod method, String path, int index, HttpArgument headPathArgument,
+	WebServicer handle(HttpMethod method, String path, int index, int[] parameters, int parameterCount,
 			ServerHttpConnection connection, ManagedFunctionContext<?, Indexed> context);
 
 }
@@ -262,17 +262,33 @@ public class WebRouter {
 	}
 
 	/**
-	 * Root {@link WebRouteNode} instances.
+	 * No path parameters.
 	 */
-	private final WebRouteNode[] nodes;
+	private static final int[] NO_PARAMETERS = new int[0];
+
+	/**
+	 * {@link WebRouteDispatcher} to the root {@link WebRouteNode} instances.
+	 */
+	private final WebRouteDispatcher dispatcher;
+
+	/**
+	 * Re-usable offsets for capturing the path parameters. As path parameter
+	 * values are extracted on matching, the offsets may be re-used by the
+	 * {@link Thread} for each routing. May be <code>null</code> if no path
+	 * parameters.
+	 */
+	private final ThreadLocal<int[]> parameters;
 
 	/**
 	 * Instantiate.
 	 * 
-	 * @param nodes Root {@link WebRouteNode} instances.
+	 * @param nodes             Root {@link WebRouteNode} instances.
+	 * @param maxParameterCount Maximum number of path parameters for a route.
 	 */
-	public WebRouter(WebRouteNode[] nodes) {
-		this.nodes = nodes;
+	public WebRouter(WebRouteNode[] nodes, int maxParameterCount) {
+		this.dispatcher = new WebRouteDispatcher(nodes);
+		this.parameters = (maxParameterCount <= 0) ? null
+				: ThreadLocal.withInitial(() -> new int[maxParameterCount * 2]);
 	}
 
 	/**
@@ -292,7 +308,9 @@ public class WebRouter {
 		String requestUri = request.getUri();
 
 		// Obtain the best matching
-		return WebServicer.getBestMatch(method, requestUri, 0, null, connection, managedFunctionContext, this.nodes);
+		int[] parameters = (this.parameters == null) ? NO_PARAMETERS : this.parameters.get();
+		return this.dispatcher.getBestMatch(method, requestUri, 0, parameters, 0, connection,
+				managedFunctionContext);
 	}
 
 }
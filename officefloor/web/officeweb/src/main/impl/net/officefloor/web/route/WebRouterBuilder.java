@@ -200,8 +200,14 @@ public class WebRouterBuilder {
 			nodes[i] = this.createNode(choices[i], new LinkedList<>());
 		}
 
+		// Determine the maximum number of path parameters
+		int maxParameterCount = 0;
+		for (WebRoute route : this.routes) {
+			maxParameterCount = Math.max(maxParameterCount, route.parameterCount);
+		}
+
 		// Return the web router
-		return new WebRouter(nodes);
+		return new WebRouter(nodes, maxParameterCount);
 	}
 
 	/**
@@ -303,6 +309,10 @@ public class WebRouterBuilder {
 			default:
 				// Multiple routes, so create the children
 				WebRouteChoice[] childChoices = this.createChoices(choice.routes);
+				if ((childChoices.length == 1) && (childChoices[0].type == WebRouteChoiceEnum.STATIC)) {
+					// Shared static prefix, so carry on with static characters (radix compression)
+					return this.createNode(childChoices[0], staticCharacters);
+				}
 				WebRouteNode[] children = new WebRouteNode[childChoices.length];
 				for (int i = 0; i < children.length; i++) {
 					children[i] = this.createNode(childChoices[i], new LinkedList<>());
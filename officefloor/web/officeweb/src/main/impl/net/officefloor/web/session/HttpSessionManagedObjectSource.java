@@ -26,11 +26,16 @@ import java.time.Clock;
 import java.time.ZoneId;
 
 import net.officefloor.frame.api.build.Indexed;
+import net.officefloor.frame.api.build.None;
 import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectExecuteContext;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectServiceContext;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
 import net.officefloor.frame.api.managedobject.source.ManagedObjectSourceContext;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSourceFlow;
 import net.officefloor.frame.api.managedobject.source.impl.AbstractManagedObjectSource;
 import net.officefloor.frame.api.source.PrivateSource;
+import net.officefloor.frame.impl.execute.service.SafeManagedObjectService;
 import net.officefloor.server.http.ServerHttpConnection;
 import net.officefloor.web.session.generator.UuidHttpSessionIdGenerator;
 import net.officefloor.web.session.spi.HttpSessionIdGenerator;
@@ -71,6 +76,20 @@ public class HttpSessionManagedObjectSource extends AbstractManagedObjectSource<
 	 */
 	public static final String PROPERTY_MAX_IDLE_TIME = "max.idle.time";
 
+	/**
+	 * Property name to obtain the maximum number of {@link HttpSession}
+	 * instances held by the default {@link HttpSessionStore}. Once reached, the
+	 * least recently used {@link HttpSession} instances are evicted. A value of
+	 * <code>0</code> indicates no limit.
+	 */
+	public static final String PROPERTY_MAX_SESSIONS = "max.sessions";
+
+	/**
+	 * Property name to obtain the number of shards for the default
+	 * {@link HttpSessionStore}.
+	 */
+	public static final String PROPERTY_SESSION_STORE_SHARDS = "session.store.shards";
+
 	/**
 	 * Keep default consistent with JEE to aid in special processing of session
 	 * identifiers by such things as search engines.
@@ -82,6 +101,12 @@ public class HttpSessionManagedObjectSource extends AbstractManagedObjectSource<
 	 */
 	private static final int DEFAULT_MAX_IDLE_TIME = (20 * 60); // 20 minutes
 
+	/**
+	 * Name of the function to expire idle {@link HttpSession} instances of the
+	 * default {@link HttpSessionStore}.
+	 */
+	private static final String EXPIRE_IDLE_SESSIONS_FUNCTION_NAME = "EXPIRE_IDLE_SESSIONS";
+
 	/**
 	 * Name of the {@link HttpCookie} containing the Session Id.
 	 */
@@ -112,6 +137,18 @@ public class HttpSessionManagedObjectSource extends AbstractManagedObjectSource<
 	 */
 	private HttpSessionStore store = null;
 
+	/**
+	 * Index of the {@link ManagedObjectSourceFlow} to expire idle
+	 * {@link HttpSession} instances of the default {@link HttpSessionStore}.
+	 */
+	private int expireIdleSessionsFlowIndex = -1;
+
+	/**
+	 * {@link SafeManagedObjectService} to schedule expiring idle
+	 * {@link HttpSession} instances of the default {@link HttpSessionStore}.
+	 */
+	private SafeManagedObjectService<Indexed> expirer = null;
+
 	/*
 	 * ================== AbstractManagedObjectSource ===================
 	 */
@@ -160,7 +197,42 @@ public class HttpSessionManagedObjectSource extends AbstractManagedObjectSource<
 			// Use default Session Store
 			int maxIdleTime = Integer
 					.parseInt(mosContext.getProperty(PROPERTY_MAX_IDLE_TIME, String.valueOf(DEFAULT_MAX_IDLE_TIME)));
-			this.store = new MemoryHttpSessionStore(Clock.system(ZoneId.of("GMT")), maxIdleTime);
+			int maxSessions = Integer.parseInt(mosContext.getProperty(PROPERTY_MAX_SESSIONS, String.valueOf(0)));
+			int shardCount = Integer.parseInt(mosContext.getProperty(PROPERTY_SESSION_STORE_SHARDS,
+					String.valueOf(MemoryHttpSessionStore.getDefaultShardCount())));
+			MemoryHttpSessionStore memoryStore = new MemoryHttpSessionStore(Clock.system(ZoneId.of("GMT")),
+					maxIdleTime, maxSessions, shardCount);
+			this.store = memoryStore;
+
+			// Expire idle sessions each tick (off the request threads)
+			mosContext.<None, None>addManagedFunction(EXPIRE_IDLE_SESSIONS_FUNCTION_NAME, () -> (functionContext) -> {
+				memoryStore.expireIdleSessions();
+				this.expirer.service((serviceContext) -> this.scheduleExpireIdleSessions(serviceContext));
+			});
+			this.expireIdleSessionsFlowIndex = context.addFlow(null).setLabel(EXPIRE_IDLE_SESSIONS_FUNCTION_NAME)
+					.getIndex();
+			mosContext.getFlow(this.expireIdleSessionsFlowIndex).linkFunction(EXPIRE_IDLE_SESSIONS_FUNCTION_NAME);
+		}
+	}
+
+	/**
+	 * Schedules expiring the idle {@link HttpSession} instances on the next tick
+	 * of the {@link MemoryHttpSessionStore}.
+	 * 
+	 * @param serviceContext {@link ManagedObjectServiceContext}.
+	 */
+	private void scheduleExpireIdleSessions(ManagedObjectServiceContext<Indexed> serviceContext) {
+		serviceContext.invokeProcess(this.expireIdleSessionsFlowIndex, null, () -> this.store,
+				MemoryHttpSessionStore.EXPIRE_TICK_INTERVAL, null);
+	}
+
+	@Override
+	public void start(ManagedObjectExecuteContext<Indexed> context) throws Exception {
+
+		// Expire idle sessions of default store as delayed process
+		if (this.expireIdleSessionsFlowIndex >= 0) {
+			this.expirer = new SafeManagedObjectService<>(context,
+					(serviceContext) -> this.scheduleExpireIdleSessions(serviceContext));
 		}
 	}
 
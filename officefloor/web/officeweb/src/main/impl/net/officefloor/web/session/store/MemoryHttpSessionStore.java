@@ -25,10 +25,14 @@ import java.io.Serializable;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import net.officefloor.web.session.HttpSession;
 import net.officefloor.web.session.spi.CreateHttpSessionOperation;
@@ -42,22 +46,46 @@ import net.officefloor.web.session.spi.StoreHttpSessionOperation;
  * {@link HttpSessionStore} that contains state of the {@link HttpSession}
  * within memory.
  * <p>
- * This is a very basic implementation that keeps all {@link HttpSession}
- * instances in memory. Though this may provide a very fast solution it suffers
- * from issues such as:
- * <ol>
- * <li>{@link OutOfMemoryError} if too many/large {@link HttpSession}
- * instances</li>
- * <li>state is not shared with other JVMs (especially for clustered
- * environments)</li>
- * </ol>
+ * The {@link HttpSession} instances are spread across lock striped shards so
+ * that concurrent requests for different {@link HttpSession} instances
+ * typically do not contend. Each shard keeps its {@link HttpSession} instances
+ * in least recently used order and a timing wheel of expiry times. Expiring
+ * idle {@link HttpSession} instances only visits the wheel slots that are due,
+ * rather than scanning all {@link HttpSession} instances. This is expected to
+ * be driven off the request threads via {@link #expireIdleSessions()}.
  * <p>
- * This is useful in light load testing environments (such as unit tests).
+ * The maximum number of {@link HttpSession} instances is across all shards.
+ * Only once exceeded is the least recently used {@link HttpSession} of the
+ * shard being inserted into evicted.
+ * <p>
+ * As all state is kept in memory, it is not shared with other JVMs (especially
+ * for clustered environments).
  * 
  * @author Daniel Sagenschneider
  */
 public class MemoryHttpSessionStore implements HttpSessionStore {
 
+	/**
+	 * Interval in milliseconds of a tick of the timing wheel. This is also the
+	 * interval to invoke {@link #expireIdleSessions()}.
+	 */
+	public static final long EXPIRE_TICK_INTERVAL = 1000;
+
+	/**
+	 * Number of slots in the timing wheel of each shard. Must be a power of 2.
+	 */
+	private static final int WHEEL_SIZE = 1024;
+
+	/**
+	 * Obtains the default number of shards.
+	 * 
+	 * @return Default number of shards.
+	 */
+	public static int getDefaultShardCount() {
+		int shardCount = Runtime.getRuntime().availableProcessors() * 4;
+		return Math.min(64, shardCount);
+	}
+
 	/**
 	 * {@link Clock} for determining {@link HttpSession} times.
 	 */
@@ -70,55 +98,168 @@ public class MemoryHttpSessionStore implements HttpSessionStore {
 	private final long maxIdleTime;
 
 	/**
-	 * {@link SessionState} instances by their Session Id.
+	 * {@link Shard} instances.
 	 */
-	private final Map<String, SessionState> sessions = new HashMap<String, SessionState>();
+	private final Shard[] shards;
 
 	/**
-	 * Next time to run an expire.
+	 * Mask to obtain the {@link Shard} index from the hash of the Session Id.
 	 */
-	private Instant nextExpireTime;
+	private final int shardMask;
 
 	/**
-	 * Initiate.
+	 * Maximum number of {@link HttpSession} instances across all {@link Shard}
+	 * instances.
+	 */
+	private final int maxSessions;
+
+	/**
+	 * Number of {@link HttpSession} instances across all {@link Shard}
+	 * instances.
+	 */
+	private final AtomicInteger sessionCount = new AtomicInteger(0);
+
+	/**
+	 * Number of {@link HttpSession} instances expired.
+	 */
+	private final LongAdder expiredCount = new LongAdder();
+
+	/**
+	 * Number of {@link HttpSession} instances evicted to keep within the maximum
+	 * number of {@link HttpSession} instances.
+	 */
+	private final LongAdder evictedCount = new LongAdder();
+
+	/**
+	 * Initiate with no limit on the number of {@link HttpSession} instances.
 	 * 
-	 * @param clock
-	 *            {@link Clock} for determining {@link HttpSession} times.
-	 * @param maxIdleTime
-	 *            Maximum idle time in seconds before expiring the
-	 *            {@link HttpSession}.
+	 * @param clock       {@link Clock} for determining {@link HttpSession} times.
+	 * @param maxIdleTime Maximum idle time in seconds before expiring the
+	 *                    {@link HttpSession}.
 	 */
 	public MemoryHttpSessionStore(Clock clock, int maxIdleTime) {
+		this(clock, maxIdleTime, 0, getDefaultShardCount());
+	}
+
+	/**
+	 * Initiate.
+	 * 
+	 * @param clock       {@link Clock} for determining {@link HttpSession} times.
+	 * @param maxIdleTime Maximum idle time in seconds before expiring the
+	 *                    {@link HttpSession}.
+	 * @param maxSessions Maximum number of {@link HttpSession} instances. Once
+	 *                    reached, the least recently used {@link HttpSession}
+	 *                    instances are evicted. A value of <code>0</code> (or
+	 *                    less) indicates no limit.
+	 * @param shardCount  Number of shards. Rounded up to a power of 2.
+	 */
+	public MemoryHttpSessionStore(Clock clock, int maxIdleTime, int maxSessions, int shardCount) {
 		this.clock = clock;
-		this.maxIdleTime = (maxIdleTime * 1000);
-		this.nextExpireTime = this.clock.instant().plus(this.maxIdleTime, ChronoUnit.MILLIS);
+		this.maxIdleTime = (maxIdleTime * 1000L);
+
+		// Determine the number of shards (power of 2 for masking)
+		int count = 1;
+		while (count < shardCount) {
+			count <<= 1;
+		}
+		this.shardMask = count - 1;
+
+		// Bound the sessions across all shards
+		this.maxSessions = (maxSessions <= 0) ? Integer.MAX_VALUE : maxSessions;
+
+		// Create the shards
+		long startTick = this.clock.millis() / EXPIRE_TICK_INTERVAL;
+		this.shards = new Shard[count];
+		for (int i = 0; i < count; i++) {
+			this.shards[i] = new Shard(startTick);
+		}
+	}
+
+	/**
+	 * Expires the idle {@link HttpSession} instances.
+	 * <p>
+	 * Only the timing wheel slots due since the last invocation are visited.
+	 * This should be invoked every {@link #EXPIRE_TICK_INTERVAL} by a thread
+	 * other than the request servicing threads.
+	 */
+	public void expireIdleSessions() {
+		Instant currentTime = this.clock.instant();
+		for (Shard shard : this.shards) {
+			synchronized (shard) {
+				shard.expire(currentTime);
+			}
+		}
+	}
+
+	/**
+	 * Obtains the number of {@link HttpSession} instances currently held.
+	 * 
+	 * @return Number of {@link HttpSession} instances currently held.
+	 */
+	public int getSessionCount() {
+		return this.sessionCount.get();
 	}
 
 	/**
-	 * Expires idle {@link SessionState} instances based on current time.
+	 * Obtains the number of {@link HttpSession} instances expired.
 	 * 
-	 * @param currentTime
-	 *            Current time.
+	 * @return Number of {@link HttpSession} instances expired.
 	 */
-	private void expireIdleSessions(Instant currentTime) {
+	public long getExpiredSessionCount() {
+		return this.expiredCount.sum();
+	}
 
-		// Determine if time for another expire run
-		if (currentTime.isAfter(this.nextExpireTime)) {
+	/**
+	 * Obtains the number of {@link HttpSession} instances evicted to keep within
+	 * the maximum number of {@link HttpSession} instances.
+	 * 
+	 * @return Number of {@link HttpSession} instances evicted.
+	 */
+	public long getEvictedSessionCount() {
+		return this.evictedCount.sum();
+	}
 
-			// Expire all idle session
-			for (Iterator<Entry<String, SessionState>> iterator = this.sessions.entrySet().iterator(); iterator
-					.hasNext();) {
-				SessionState session = iterator.next().getValue();
+	/**
+	 * Obtains the {@link Shard} for the Session Id.
+	 * 
+	 * @param sessionId Session Id.
+	 * @return {@link Shard} for the Session Id.
+	 */
+	private Shard getShard(String sessionId) {
+		int hash = sessionId.hashCode();
+		hash ^= (hash >>> 16);
+		return this.shards[hash & this.shardMask];
+	}
 
-				// Determine if session is idle and requires expiring
-				if (currentTime.isAfter(session.expireTime)) {
-					// Expire the session
-					iterator.remove();
+	/**
+	 * Obtains the timing wheel tick for the time.
+	 * 
+	 * @param time Time.
+	 * @return Tick for the time.
+	 */
+	private static long getTick(Instant time) {
+		return time.toEpochMilli() / EXPIRE_TICK_INTERVAL;
+	}
+
+	/**
+	 * <p>
+	 * Evicts from the other {@link Shard} instances should the maximum number of
+	 * {@link HttpSession} instances still be exceeded.
+	 * <p>
+	 * This only occurs should the inserted {@link Shard} have no other
+	 * {@link HttpSession} instances to evict. Only one {@link Shard} lock is held
+	 * at a time.
+	 * 
+	 * @param insertedShard {@link Shard} inserted into.
+	 */
+	private void evictOtherShards(Shard insertedShard) {
+		for (int i = 0; (this.sessionCount.get() > this.maxSessions) && (i < this.shards.length); i++) {
+			Shard shard = this.shards[i];
+			if (shard != insertedShard) {
+				synchronized (shard) {
+					shard.evict(null);
 				}
 			}
-
-			// Indicate time of next expire run
-			this.nextExpireTime = currentTime.plus(this.maxIdleTime, ChronoUnit.MILLIS);
 		}
 	}
 
@@ -132,27 +273,33 @@ public class MemoryHttpSessionStore implements HttpSessionStore {
 		// Create the new Session in anticipation of adding.
 		// Improves concurrency performance doing outside locks.
 		Instant currentTime = this.clock.instant();
-		SessionState session = new SessionState(currentTime, new HashMap<String, Serializable>(),
-				currentTime.plus(this.maxIdleTime, ChronoUnit.MILLIS));
-
-		// Obtain the Session Id
 		String sessionId = operation.getSessionId();
+		SessionState session = new SessionState(sessionId, currentTime, new HashMap<String, Serializable>(),
+				currentTime.plus(this.maxIdleTime, ChronoUnit.MILLIS));
 
 		// Register the new Session
-		synchronized (this.sessions) {
-			// Expire any idle Sessions
-			this.expireIdleSessions(currentTime);
+		Shard shard = this.getShard(sessionId);
+		synchronized (shard) {
 
 			// Determine if register the session
-			if (this.sessions.containsKey(sessionId)) {
+			SessionState existing = shard.sessions.get(sessionId);
+			if ((existing != null) && (!currentTime.isAfter(existing.expireTime))) {
 				// Collision in Session Id
 				session = null;
 			} else {
-				// Register the Session
-				this.sessions.put(sessionId, session);
+				// Register the Session (replacing any idle Session)
+				if (existing != null) {
+					this.expiredCount.increment();
+				}
+				shard.register(session, existing);
 			}
 		}
 
+		// Keep within the maximum number of sessions
+		if (session != null) {
+			this.evictOtherShards(shard);
+		}
+
 		// Handle result of registering the new Session
 		if (session == null) {
 			// Collision
@@ -167,31 +314,48 @@ public class MemoryHttpSessionStore implements HttpSessionStore {
 	public void retrieveHttpSession(RetrieveHttpSessionOperation operation) {
 
 		// Determine extended expiry time as Session active
-		Instant extendedExpiryTime = this.clock.instant().plus(this.maxIdleTime, ChronoUnit.MILLIS);
+		Instant currentTime = this.clock.instant();
+		Instant extendedExpiryTime = currentTime.plus(this.maxIdleTime, ChronoUnit.MILLIS);
 
 		// Obtain the Session State
 		String sessionId = operation.getSessionId();
 
 		// Obtain session (minimum operation in lock)
-		SessionState session;
-		synchronized (this.sessions) {
-			session = this.sessions.get(sessionId);
-
-			// Determine if extend expiry time
-			if ((session != null) && (extendedExpiryTime.isAfter(session.expireTime))) {
-				// Extend the expiry time (as active)
-				session = new SessionState(session.creationTime, session.attributes, extendedExpiryTime);
-				this.sessions.put(sessionId, session);
+		Instant creationTime = null;
+		Instant expireTime = null;
+		Map<String, Serializable> attributes = null;
+		Shard shard = this.getShard(sessionId);
+		synchronized (shard) {
+			SessionState session = shard.sessions.get(sessionId);
+			if (session != null) {
+
+				// Determine if session idle (and not yet expired)
+				if (currentTime.isAfter(session.expireTime)) {
+					shard.remove(session);
+					this.expiredCount.increment();
+
+				} else {
+					// Extend the expiry time (as active).
+					// Timing wheel re-schedules on reaching original expiry.
+					if (extendedExpiryTime.isAfter(session.expireTime)) {
+						session.expireTime = extendedExpiryTime;
+					}
+
+					// Capture state for use outside lock
+					creationTime = session.creationTime;
+					expireTime = session.expireTime;
+					attributes = session.attributes;
+				}
 			}
 		}
 
 		// Determine if available
-		if (session == null) {
+		if (attributes == null) {
 			// Session not available
 			operation.sessionNotAvailable();
 		} else {
 			// Have Session State so return for Session
-			operation.sessionRetrieved(session.creationTime, session.expireTime, session.attributes);
+			operation.sessionRetrieved(creationTime, expireTime, attributes);
 		}
 	}
 
@@ -204,13 +368,17 @@ public class MemoryHttpSessionStore implements HttpSessionStore {
 		Instant creationTime = operation.getCreationTime();
 		Instant expireTime = operation.getExpireTime();
 		Map<String, Serializable> attributes = operation.getAttributes();
-		SessionState session = new SessionState(creationTime, attributes, expireTime);
+		SessionState session = new SessionState(sessionId, creationTime, attributes, expireTime);
 
 		// Store Session State
-		synchronized (this.sessions) {
-			this.sessions.put(sessionId, session);
+		Shard shard = this.getShard(sessionId);
+		synchronized (shard) {
+			shard.register(session, shard.sessions.get(sessionId));
 		}
 
+		// Keep within the maximum number of sessions
+		this.evictOtherShards(shard);
+
 		// Indicate Session stored
 		operation.sessionStored();
 	}
@@ -222,45 +390,266 @@ public class MemoryHttpSessionStore implements HttpSessionStore {
 		String sessionId = operation.getSessionId();
 
 		// Remove the Session
-		synchronized (this.sessions) {
-			this.sessions.remove(sessionId);
+		Shard shard = this.getShard(sessionId);
+		synchronized (shard) {
+			SessionState session = shard.sessions.get(sessionId);
+			if (session != null) {
+				shard.remove(session);
+			}
 		}
 
 		// Indicate Session invalidated
 		operation.sessionInvalidated();
 	}
 
+	/**
+	 * Shard of the {@link HttpSession} instances.
+	 * <p>
+	 * All access must be synchronized on the {@link Shard}.
+	 */
+	private class Shard {
+
+		/**
+		 * {@link SessionState} instances by their Session Id in least recently
+		 * used order.
+		 */
+		private final Map<String, SessionState> sessions;
+
+		/**
+		 * Timing wheel of {@link WheelEntry} instances. Slots are lazily created.
+		 */
+		private final List<WheelEntry>[] wheel;
+
+		/**
+		 * Last tick processed by the timing wheel.
+		 */
+		private long currentTick;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param startTick Starting tick of the timing wheel.
+		 */
+		@SuppressWarnings("unchecked")
+		private Shard(long startTick) {
+			this.sessions = new LinkedHashMap<String, SessionState>(16, 0.75f, true);
+			this.wheel = new List[WHEEL_SIZE];
+			this.currentTick = startTick;
+		}
+
+		/**
+		 * Registers the {@link SessionState}.
+		 * <p>
+		 * Should the maximum number of {@link HttpSession} instances be exceeded,
+		 * the least recently used {@link HttpSession} of this {@link Shard} is
+		 * evicted.
+		 * 
+		 * @param session  {@link SessionState} to register.
+		 * @param existing Existing {@link SessionState} for the Session Id. May be
+		 *                 <code>null</code>.
+		 */
+		private void register(SessionState session, SessionState existing) {
+			if (existing != null) {
+				existing.wheelEntry = null;
+			}
+			this.sessions.put(session.sessionId, session);
+			this.schedule(session);
+
+			// Keep within maximum number of sessions
+			if (existing == null) {
+				MemoryHttpSessionStore store = MemoryHttpSessionStore.this;
+				if (store.sessionCount.incrementAndGet() > store.maxSessions) {
+					this.evict(session);
+				}
+			}
+		}
+
+		/**
+		 * Evicts the least recently used {@link SessionState}.
+		 * 
+		 * @param retain {@link SessionState} to not evict. May be
+		 *               <code>null</code>.
+		 */
+		private void evict(SessionState retain) {
+			Iterator<SessionState> iterator = this.sessions.values().iterator();
+			if (iterator.hasNext()) {
+				SessionState eldest = iterator.next();
+				if (eldest != retain) {
+					iterator.remove();
+					eldest.wheelEntry = null;
+					MemoryHttpSessionStore.this.sessionCount.decrementAndGet();
+					MemoryHttpSessionStore.this.evictedCount.increment();
+				}
+			}
+		}
+
+		/**
+		 * Removes the {@link SessionState}.
+		 * 
+		 * @param session {@link SessionState}.
+		 */
+		private void remove(SessionState session) {
+			session.wheelEntry = null;
+			if (this.sessions.remove(session.sessionId) != null) {
+				MemoryHttpSessionStore.this.sessionCount.decrementAndGet();
+			}
+		}
+
+		/**
+		 * Schedules the {@link SessionState} on the timing wheel for its expire
+		 * time.
+		 * 
+		 * @param session {@link SessionState}.
+		 */
+		private void schedule(SessionState session) {
+			long tick = Math.max(this.currentTick + 1, getTick(session.expireTime) + 1);
+			WheelEntry entry = new WheelEntry(session, tick);
+			session.wheelEntry = entry;
+			int slot = (int) (tick & (WHEEL_SIZE - 1));
+			List<WheelEntry> entries = this.wheel[slot];
+			if (entries == null) {
+				entries = new ArrayList<>();
+				this.wheel[slot] = entries;
+			}
+			entries.add(entry);
+		}
+
+		/**
+		 * Expires the idle {@link SessionState} instances due on the timing wheel.
+		 * 
+		 * @param currentTime Current time.
+		 */
+		private void expire(Instant currentTime) {
+
+			// Determine the ticks to process
+			long nowTick = getTick(currentTime);
+			long fromTick = this.currentTick + 1;
+			if (nowTick < fromTick) {
+				return; // no ticks due
+			}
+			long toTick = Math.min(nowTick, this.currentTick + WHEEL_SIZE);
+			this.currentTick = nowTick;
+
+			// Process the due slots
+			for (long tick = fromTick; tick <= toTick; tick++) {
+				int slot = (int) (tick & (WHEEL_SIZE - 1));
+				List<WheelEntry> entries = this.wheel[slot];
+				if (entries == null) {
+					continue; // nothing scheduled
+				}
+
+				// Detach slot (as re-scheduling may add back to the slot)
+				this.wheel[slot] = null;
+				List<WheelEntry> remaining = null;
+				for (WheelEntry entry : entries) {
+					SessionState session = entry.session;
+
+					// Ignore if removed or re-scheduled
+					if (session.wheelEntry != entry) {
+						continue;
+					}
+
+					// Determine if for later rotation of the wheel
+					if (entry.tick > nowTick) {
+						if (remaining == null) {
+							remaining = new ArrayList<>();
+						}
+						remaining.add(entry);
+						continue;
+					}
+
+					// Determine if expire, otherwise re-schedule (as extended)
+					if (currentTime.isAfter(session.expireTime)) {
+						this.remove(session);
+						MemoryHttpSessionStore.this.expiredCount.increment();
+					} else {
+						this.schedule(session);
+					}
+				}
+
+				// Retain entries for later rotation of the wheel
+				if (remaining != null) {
+					List<WheelEntry> slotEntries = this.wheel[slot];
+					if (slotEntries == null) {
+						this.wheel[slot] = remaining;
+					} else {
+						slotEntries.addAll(remaining);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Entry on the timing wheel.
+	 */
+	private static class WheelEntry {
+
+		/**
+		 * {@link SessionState}.
+		 */
+		private final SessionState session;
+
+		/**
+		 * Tick at which to check expiry of the {@link SessionState}.
+		 */
+		private final long tick;
+
+		/**
+		 * Instantiate.
+		 * 
+		 * @param session {@link SessionState}.
+		 * @param tick    Tick at which to check expiry of the
+		 *                {@link SessionState}.
+		 */
+		private WheelEntry(SessionState session, long tick) {
+			this.session = session;
+			this.tick = tick;
+		}
+	}
+
 	/**
 	 * Contains the state of a {@link HttpSession}.
 	 */
-	private class SessionState {
+	private static class SessionState {
+
+		/**
+		 * Session Id.
+		 */
+		private final String sessionId;
 
 		/**
 		 * Creation time.
 		 */
-		public final Instant creationTime;
+		private final Instant creationTime;
 
 		/**
 		 * Attributes.
 		 */
-		public final Map<String, Serializable> attributes;
+		private final Map<String, Serializable> attributes;
+
+		/**
+		 * Time that this {@link SessionState} will be expired. Only extended while
+		 * holding the {@link Shard} lock.
+		 */
+		private Instant expireTime;
 
 		/**
-		 * Time that this {@link SessionState} will be expired.
+		 * Current {@link WheelEntry}. <code>null</code> once removed.
 		 */
-		public final Instant expireTime;
+		private WheelEntry wheelEntry = null;
 
 		/**
 		 * Initiate.
 		 * 
-		 * @param creationTime
-		 *            Creation time.
-		 * @param attributes
-		 *            Attributes.
-		 * @param expireTime
-		 *            Time that this {@link SessionState} will be expired.
+		 * @param sessionId    Session Id.
+		 * @param creationTime Creation time.
+		 * @param attributes   Attributes.
+		 * @param expireTime   Time that this {@link SessionState} will be expired.
 		 */
-		public SessionState(Instant creationTime, Map<String, Serializable> attributes, Instant expireTime) {
+		private SessionState(String sessionId, Instant creationTime, Map<String, Serializable> attributes,
+				Instant expireTime) {
+			this.sessionId = sessionId;
 			this.creationTime = creationTime;
 			this.attributes = attributes;
 			this.expireTime = expireTime;
@@ -0,0 +1,231 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.officefloor.frame.api.build.Indexed;
+import net.officefloor.frame.api.build.None;
+import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectExecuteContext;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectServiceContext;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSourceContext;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSourceFlow;
+import net.officefloor.frame.api.managedobject.source.impl.AbstractManagedObjectSource;
+import net.officefloor.frame.api.source.PrivateSource;
+import net.officefloor.frame.impl.execute.service.SafeManagedObjectService;
+import net.officefloor.server.http.ServerHttpConnection;
+
+/**
+ * <p>
+ * {@link ManagedObjectSource} for the {@link ServerSentEventBroadcaster}.
+ * <p>
+ * Events are fanned out by queuing the shared content on each
+ * {@link ServerSentEventStream} connection (without blocking), so that a slow
+ * client does not hold up the other clients. Heartbeat comments are also
+ * periodically broadcast (as a delayed process) to keep connections alive
+ * through proxies and to detect disconnected clients.
+ * 
+ * @author Daniel Sagenschneider
+ */
+@PrivateSource
+public class ServerSentEventBroadcasterManagedObjectSource extends AbstractManagedObjectSource<None, Indexed>
+		implements ManagedObject, ServerSentEventBroadcaster {
+
+	/**
+	 * Default interval in milliseconds between heartbeats.
+	 */
+	public static final long DEFAULT_HEARTBEAT_INTERVAL = 15000;
+
+	/**
+	 * Name of the {@link ManagedObjectSourceFlow} to send the heartbeat.
+	 */
+	public static final String HEARTBEAT_FUNCTION_NAME = "HEARTBEAT";
+
+	/**
+	 * Heartbeat content (a comment ignored by clients).
+	 */
+	private static final ByteBuffer HEARTBEAT = ByteBuffer
+			.wrap(": heartbeat\n\n".getBytes(ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET)).asReadOnlyBuffer();
+
+	/**
+	 * Interval in milliseconds between heartbeats. Zero or less for no
+	 * heartbeat.
+	 */
+	private final long heartbeatInterval;
+
+	/**
+	 * Subscribed {@link ServerSentEventStreamImpl} instances.
+	 */
+	private final Set<ServerSentEventStreamImpl> subscribers = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Index of the {@link ManagedObjectSourceFlow} to send the heartbeat.
+	 */
+	private int heartbeatFlowIndex = -1;
+
+	/**
+	 * {@link SafeManagedObjectService} to schedule the heartbeat.
+	 */
+	private SafeManagedObjectService<Indexed> heartbeat = null;
+
+	/**
+	 * Instantiate with default heartbeat interval.
+	 */
+	public ServerSentEventBroadcasterManagedObjectSource() {
+		this(DEFAULT_HEARTBEAT_INTERVAL);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param heartbeatInterval Interval in milliseconds between heartbeats. Zero
+	 *                          or less for no heartbeat.
+	 */
+	public ServerSentEventBroadcasterManagedObjectSource(long heartbeatInterval) {
+		this.heartbeatInterval = heartbeatInterval;
+	}
+
+	/**
+	 * Broadcasts the content.
+	 * 
+	 * @param content Read-only content shared by all
+	 *                {@link ServerSentEventStream} instances.
+	 */
+	private void broadcast(ByteBuffer content) {
+		Iterator<ServerSentEventStreamImpl> iterator = this.subscribers.iterator();
+		while (iterator.hasNext()) {
+			ServerSentEventStreamImpl stream = iterator.next();
+			if (!stream.queue(content)) {
+				iterator.remove(); // closed or dropped
+			}
+		}
+	}
+
+	/**
+	 * Schedules the next heartbeat.
+	 * 
+	 * @param serviceContext {@link ManagedObjectServiceContext}.
+	 */
+	private void scheduleHeartbeat(ManagedObjectServiceContext<Indexed> serviceContext) {
+		serviceContext.invokeProcess(this.heartbeatFlowIndex, null, this, this.heartbeatInterval, null);
+	}
+
+	/*
+	 * =================== ManagedObjectSource ==========================
+	 */
+
+	@Override
+	protected void loadSpecification(SpecificationContext context) {
+		// No properties required
+	}
+
+	@Override
+	protected void loadMetaData(MetaDataContext<None, Indexed> context) throws Exception {
+		ManagedObjectSourceContext<Indexed> mosContext = context.getManagedObjectSourceContext();
+
+		// Specify types
+		context.setObjectClass(ServerSentEventBroadcaster.class);
+
+		// Send heartbeat each interval (off the request threads)
+		if (this.heartbeatInterval > 0) {
+			mosContext.<None, None>addManagedFunction(HEARTBEAT_FUNCTION_NAME, () -> (functionContext) -> {
+				this.broadcast(HEARTBEAT);
+				this.heartbeat.service((serviceContext) -> this.scheduleHeartbeat(serviceContext));
+			});
+			this.heartbeatFlowIndex = context.addFlow(null).setLabel(HEARTBEAT_FUNCTION_NAME).getIndex();
+			mosContext.getFlow(this.heartbeatFlowIndex).linkFunction(HEARTBEAT_FUNCTION_NAME);
+		}
+	}
+
+	@Override
+	public void start(ManagedObjectExecuteContext<Indexed> context) throws Exception {
+
+		// Send heartbeat as delayed process
+		if (this.heartbeatFlowIndex >= 0) {
+			this.heartbeat = new SafeManagedObjectService<>(context,
+					(serviceContext) -> this.scheduleHeartbeat(serviceContext));
+		}
+	}
+
+	@Override
+	public void stop() {
+
+		// Close the subscribers
+		for (ServerSentEventStreamImpl stream : this.subscribers) {
+			try {
+				stream.close();
+			} catch (Exception ex) {
+				// Ignore as stopping
+			}
+		}
+		this.subscribers.clear();
+	}
+
+	@Override
+	protected ManagedObject getManagedObject() throws Throwable {
+		return this;
+	}
+
+	/*
+	 * ====================== ManagedObject ===========================
+	 */
+
+	@Override
+	public Object getObject() throws Throwable {
+		return this;
+	}
+
+	/*
+	 * ================= ServerSentEventBroadcaster ======================
+	 */
+
+	@Override
+	public void subscribe(ServerSentEventStream stream) throws IllegalArgumentException {
+		if (!(stream instanceof ServerSentEventStreamImpl)) {
+			throw new IllegalArgumentException("May only subscribe " + ServerSentEventStream.class.getSimpleName()
+					+ " obtained as a dependency");
+		}
+		this.subscribers.add((ServerSentEventStreamImpl) stream);
+	}
+
+	@Override
+	public void broadcast(ServerSentEvent event) {
+		this.broadcast(event.getContent());
+	}
+
+	@Override
+	public void broadcast(String data) {
+		this.broadcast(new ServerSentEvent(data));
+	}
+
+	@Override
+	public int getSubscriberCount() {
+		this.subscribers.removeIf((stream) -> stream.isClosed());
+		return this.subscribers.size();
+	}
+
+}
@@ -0,0 +1,128 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import net.officefloor.server.http.HttpResponseStream;
+
+/**
+ * <p>
+ * {@link ServerSentEventStream} implementation.
+ * <p>
+ * Events are offered to the {@link HttpResponseStream} without blocking, so
+ * that a slow client does not hold up the {@link Thread} sending the events.
+ * The content is queued on the connection and written out by its socket
+ * {@link Thread}. Should the client not keep up with the events (queue reaches
+ * its limit), the client is dropped.
+ * 
+ * @author Daniel Sagenschneider
+ */
+class ServerSentEventStreamImpl implements ServerSentEventStream {
+
+	/**
+	 * {@link HttpResponseStream}.
+	 */
+	private final HttpResponseStream responseStream;
+
+	/**
+	 * Maximum number of events queued before dropping the client.
+	 */
+	private final int maxQueuedEvents;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param responseStream  {@link HttpResponseStream}.
+	 * @param maxQueuedEvents Maximum number of events queued before dropping the
+	 *                        client.
+	 */
+	ServerSentEventStreamImpl(HttpResponseStream responseStream, int maxQueuedEvents) {
+		this.responseStream = responseStream;
+		this.maxQueuedEvents = maxQueuedEvents;
+	}
+
+	/**
+	 * Queues the content for sending.
+	 * 
+	 * @param content Read-only content of the event. This is not modified, so
+	 *                may be shared across {@link ServerSentEventStream}
+	 *                instances.
+	 * @return <code>true</code> if queued. <code>false</code> if closed (or
+	 *         dropped for not keeping up with the events).
+	 */
+	boolean queue(ByteBuffer content) {
+
+		// Determine if closed (including client disconnecting)
+		if (this.responseStream.isClosed()) {
+			return false;
+		}
+
+		// Queue the content (dropping client if not keeping up)
+		try {
+			this.responseStream.offer(content, this.maxQueuedEvents);
+		} catch (IOException ex) {
+			this.closeResponseStream();
+			return false;
+		}
+		return !this.responseStream.isClosed();
+	}
+
+	/**
+	 * Closes the {@link HttpResponseStream}.
+	 */
+	private void closeResponseStream() {
+		try {
+			this.responseStream.close();
+		} catch (IOException ex) {
+			// Ignore as closing
+		}
+	}
+
+	/*
+	 * ================= ServerSentEventStream ====================
+	 */
+
+	@Override
+	public void send(ServerSentEvent event) throws IOException {
+		if (!this.queue(event.getContent())) {
+			throw new IOException(ServerSentEventStream.class.getSimpleName() + " closed");
+		}
+	}
+
+	@Override
+	public void send(String data) throws IOException {
+		this.send(new ServerSentEvent(data));
+	}
+
+	@Override
+	public boolean isClosed() {
+		return this.responseStream.isClosed();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.responseStream.close();
+	}
+
+}
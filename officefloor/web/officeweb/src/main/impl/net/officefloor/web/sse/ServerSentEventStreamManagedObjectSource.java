@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+import net.officefloor.frame.api.build.None;
+import net.officefloor.frame.api.managedobject.CoordinatingManagedObject;
+import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.frame.api.managedobject.ObjectRegistry;
+import net.officefloor.frame.api.managedobject.source.ManagedObjectSource;
+import net.officefloor.frame.api.managedobject.source.impl.AbstractManagedObjectSource;
+import net.officefloor.frame.api.source.PrivateSource;
+import net.officefloor.server.http.HttpHeaderName;
+import net.officefloor.server.http.HttpHeaderValue;
+import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.http.HttpResponseStream;
+import net.officefloor.server.http.ServerHttpConnection;
+
+/**
+ * {@link ManagedObjectSource} for the {@link ServerSentEventStream}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+@PrivateSource
+public class ServerSentEventStreamManagedObjectSource extends
+		AbstractManagedObjectSource<ServerSentEventStreamManagedObjectSource.ServerSentEventStreamDependencies, None> {
+
+	/**
+	 * Dependency keys.
+	 */
+	public static enum ServerSentEventStreamDependencies {
+		SERVER_HTTP_CONNECTION
+	}
+
+	/**
+	 * Default maximum number of events queued for a client before it is dropped.
+	 */
+	public static final int DEFAULT_MAX_QUEUED_EVENTS = 64;
+
+	/**
+	 * <code>Content-Type</code> for Server-Sent Events.
+	 */
+	private static final HttpHeaderValue TEXT_EVENT_STREAM = new HttpHeaderValue("text/event-stream");
+
+	/**
+	 * <code>Cache-Control</code> {@link HttpHeaderName}.
+	 */
+	private static final HttpHeaderName CACHE_CONTROL = new HttpHeaderName("cache-control");
+
+	/**
+	 * <code>no-cache</code> {@link HttpHeaderValue}.
+	 */
+	private static final HttpHeaderValue NO_CACHE = new HttpHeaderValue("no-cache");
+
+	/**
+	 * Maximum number of events queued for a client before it is dropped.
+	 */
+	private final int maxQueuedEvents;
+
+	/**
+	 * Instantiate with default maximum queued events.
+	 */
+	public ServerSentEventStreamManagedObjectSource() {
+		this(DEFAULT_MAX_QUEUED_EVENTS);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param maxQueuedEvents Maximum number of events queued for a client before
+	 *                        it is dropped.
+	 */
+	public ServerSentEventStreamManagedObjectSource(int maxQueuedEvents) {
+		this.maxQueuedEvents = maxQueuedEvents;
+	}
+
+	/*
+	 * ==================== ManagedObjectSource ======================
+	 */
+
+	@Override
+	protected void loadSpecification(SpecificationContext context) {
+	}
+
+	@Override
+	protected void loadMetaData(MetaDataContext<ServerSentEventStreamDependencies, None> context) throws Exception {
+		context.setObjectClass(ServerSentEventStream.class);
+		context.setManagedObjectClass(ServerSentEventStreamManagedObject.class);
+		context.addDependency(ServerSentEventStreamDependencies.SERVER_HTTP_CONNECTION, ServerHttpConnection.class);
+	}
+
+	@Override
+	protected ManagedObject getManagedObject() throws Throwable {
+		return new ServerSentEventStreamManagedObject();
+	}
+
+	/**
+	 * {@link ServerSentEventStream} {@link ManagedObject}.
+	 */
+	private class ServerSentEventStreamManagedObject
+			implements CoordinatingManagedObject<ServerSentEventStreamDependencies> {
+
+		/**
+		 * {@link ServerSentEventStream}.
+		 */
+		private ServerSentEventStream stream;
+
+		/*
+		 * ==================== ManagedObject =======================
+		 */
+
+		@Override
+		public void loadObjects(ObjectRegistry<ServerSentEventStreamDependencies> registry) throws Throwable {
+
+			// Obtain the server HTTP connection
+			ServerHttpConnection connection = (ServerHttpConnection) registry
+					.getObject(ServerSentEventStreamDependencies.SERVER_HTTP_CONNECTION);
+
+			// Detach the response as event stream
+			HttpResponse response = connection.getResponse();
+			response.setContentType(TEXT_EVENT_STREAM, null);
+			response.getHeaders().addHeader(CACHE_CONTROL, NO_CACHE);
+			HttpResponseStream responseStream = response.detach();
+
+			// Create the stream
+			this.stream = new ServerSentEventStreamImpl(responseStream,
+					ServerSentEventStreamManagedObjectSource.this.maxQueuedEvents);
+		}
+
+		@Override
+		public Object getObject() throws Throwable {
+			return this.stream;
+		}
+	}
+
+}
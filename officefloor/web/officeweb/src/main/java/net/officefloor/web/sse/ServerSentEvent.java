@@ -0,0 +1,196 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import net.officefloor.server.http.ServerHttpConnection;
+
+/**
+ * <p>
+ * Immutable Server-Sent Event.
+ * <p>
+ * The event is serialised once on construction, so that the same content may
+ * be sent to many {@link ServerSentEventStream} instances without copying.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class ServerSentEvent {
+
+	/**
+	 * {@link Charset} for Server-Sent Events (always <code>UTF-8</code>).
+	 */
+	private static final Charset UTF_8 = ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET;
+
+	/**
+	 * Identifier of the event. May be <code>null</code>.
+	 */
+	private final String id;
+
+	/**
+	 * Name of the event. May be <code>null</code>.
+	 */
+	private final String event;
+
+	/**
+	 * Data of the event.
+	 */
+	private final String data;
+
+	/**
+	 * Reconnection time in milliseconds. Negative for not specified.
+	 */
+	private final long retry;
+
+	/**
+	 * Serialised read-only content of the event.
+	 */
+	private final ByteBuffer content;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param data Data of the event.
+	 */
+	public ServerSentEvent(String data) {
+		this(null, null, data, -1);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param event Name of the event. May be <code>null</code>.
+	 * @param data  Data of the event.
+	 */
+	public ServerSentEvent(String event, String data) {
+		this(null, event, data, -1);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param id    Identifier of the event. May be <code>null</code>.
+	 * @param event Name of the event. May be <code>null</code>.
+	 * @param data  Data of the event.
+	 */
+	public ServerSentEvent(String id, String event, String data) {
+		this(id, event, data, -1);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param id    Identifier of the event. May be <code>null</code>.
+	 * @param event Name of the event. May be <code>null</code>.
+	 * @param data  Data of the event.
+	 * @param retry Reconnection time in milliseconds for the client. Negative to
+	 *              not specify.
+	 * @throws IllegalArgumentException If identifier or name contains a line
+	 *                                  break.
+	 */
+	public ServerSentEvent(String id, String event, String data, long retry) throws IllegalArgumentException {
+		ensureSingleLine("id", id);
+		ensureSingleLine("event", event);
+		this.id = id;
+		this.event = event;
+		this.data = (data == null) ? "" : data;
+		this.retry = retry;
+
+		// Serialise the event
+		StringBuilder text = new StringBuilder(this.data.length() + 16);
+		if (id != null) {
+			text.append("id: ").append(id).append('\n');
+		}
+		if (event != null) {
+			text.append("event: ").append(event).append('\n');
+		}
+		if (retry >= 0) {
+			text.append("retry: ").append(retry).append('\n');
+		}
+		for (String line : this.data.split("\r\n|\r|\n", -1)) {
+			text.append("data: ").append(line).append('\n');
+		}
+		text.append('\n');
+		this.content = ByteBuffer.wrap(text.toString().getBytes(UTF_8)).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Ensures the value is a single line.
+	 * 
+	 * @param name  Name of the field.
+	 * @param value Value of the field.
+	 * @throws IllegalArgumentException If value contains a line break.
+	 */
+	private static void ensureSingleLine(String name, String value) throws IllegalArgumentException {
+		if ((value != null) && ((value.indexOf('\n') >= 0) || (value.indexOf('\r') >= 0))) {
+			throw new IllegalArgumentException("Server-Sent Event " + name + " must not contain a line break");
+		}
+	}
+
+	/**
+	 * Obtains the identifier of the event.
+	 * 
+	 * @return Identifier of the event. May be <code>null</code>.
+	 */
+	public String getId() {
+		return this.id;
+	}
+
+	/**
+	 * Obtains the name of the event.
+	 * 
+	 * @return Name of the event. May be <code>null</code>.
+	 */
+	public String getEvent() {
+		return this.event;
+	}
+
+	/**
+	 * Obtains the data of the event.
+	 * 
+	 * @return Data of the event.
+	 */
+	public String getData() {
+		return this.data;
+	}
+
+	/**
+	 * Obtains the reconnection time.
+	 * 
+	 * @return Reconnection time in milliseconds. Negative if not specified.
+	 */
+	public long getRetry() {
+		return this.retry;
+	}
+
+	/**
+	 * Obtains the serialised content. The same read-only {@link ByteBuffer} is
+	 * shared by all {@link ServerSentEventStream} instances sent this event.
+	 * 
+	 * @return Serialised read-only content.
+	 */
+	ByteBuffer getContent() {
+		return this.content;
+	}
+
+}
@@ -0,0 +1,69 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+/**
+ * <p>
+ * Dependency injected broadcaster of {@link ServerSentEvent} instances to the
+ * subscribed {@link ServerSentEventStream} instances.
+ * <p>
+ * Each {@link ServerSentEvent} is serialised once and the same content is
+ * queued to each {@link ServerSentEventStream}. Clients not keeping up with the
+ * events are dropped, so that they do not hold up the other clients.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public interface ServerSentEventBroadcaster {
+
+	/**
+	 * Subscribes the {@link ServerSentEventStream}. The
+	 * {@link ServerSentEventStream} is unsubscribed once closed.
+	 * 
+	 * @param stream {@link ServerSentEventStream} obtained as a dependency.
+	 * @throws IllegalArgumentException If {@link ServerSentEventStream} was not
+	 *                                  obtained as a dependency.
+	 */
+	void subscribe(ServerSentEventStream stream) throws IllegalArgumentException;
+
+	/**
+	 * Broadcasts the {@link ServerSentEvent} to all subscribed
+	 * {@link ServerSentEventStream} instances.
+	 * 
+	 * @param event {@link ServerSentEvent}.
+	 */
+	void broadcast(ServerSentEvent event);
+
+	/**
+	 * Convenience method to broadcast data as an unnamed {@link ServerSentEvent}.
+	 * 
+	 * @param data Data of the {@link ServerSentEvent}.
+	 */
+	void broadcast(String data);
+
+	/**
+	 * Obtains the number of subscribed {@link ServerSentEventStream} instances.
+	 * 
+	 * @return Number of subscribed {@link ServerSentEventStream} instances.
+	 */
+	int getSubscriberCount();
+
+}
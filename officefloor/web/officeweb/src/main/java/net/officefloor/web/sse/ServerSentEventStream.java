@@ -0,0 +1,75 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+import java.io.IOException;
+
+import net.officefloor.server.http.HttpResponse;
+
+/**
+ * <p>
+ * Dependency injected stream of {@link ServerSentEvent} instances to the
+ * client.
+ * <p>
+ * Obtaining this dependency detaches the {@link HttpResponse} as a
+ * <code>text/event-stream</code>. The stream remains open after servicing
+ * completes, so may be kept (or subscribed to a
+ * {@link ServerSentEventBroadcaster}) to send further events from any
+ * {@link Thread}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public interface ServerSentEventStream {
+
+	/**
+	 * Sends the {@link ServerSentEvent}.
+	 * 
+	 * @param event {@link ServerSentEvent}.
+	 * @throws IOException If {@link ServerSentEventStream} is closed (including
+	 *                     being dropped for not keeping up with events).
+	 */
+	void send(ServerSentEvent event) throws IOException;
+
+	/**
+	 * Convenience method to send data as an unnamed {@link ServerSentEvent}.
+	 * 
+	 * @param data Data of the {@link ServerSentEvent}.
+	 * @throws IOException If {@link ServerSentEventStream} is closed.
+	 */
+	void send(String data) throws IOException;
+
+	/**
+	 * Indicates if closed. This will also be the case should the client
+	 * disconnect or be dropped for not keeping up with events.
+	 * 
+	 * @return <code>true</code> if closed.
+	 */
+	boolean isClosed();
+
+	/**
+	 * Closes the {@link ServerSentEventStream} once the queued events are sent.
+	 * 
+	 * @throws IOException If fails to close.
+	 */
+	void close() throws IOException;
+
+}
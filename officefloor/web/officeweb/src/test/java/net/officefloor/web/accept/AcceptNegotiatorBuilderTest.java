@@ -156,6 +156,62 @@ public class AcceptNegotiatorBuilderTest extends OfficeFrameTestCase {
 		this.doTest("*/*", this.request("not/not"), contentTypes);
 	}
 
+	/**
+	 * Ensure cached negotiation for <code>Accept</code> value still negotiates on
+	 * differing <code>Content-Type</code>.
+	 */
+	public void testCachedWildcardNegotiatesOnContentType() throws Exception {
+		AcceptNegotiator<String> negotiator = this.negotiator("application/json", "application/xml", "text/html");
+		for (int i = 0; i < 3; i++) {
+			assertEquals("Incorrect JSON", "application/json",
+					negotiator.getHandler(this.request("*/*", "application/json").build()));
+			assertEquals("Incorrect XML", "application/xml",
+					negotiator.getHandler(this.request("*/*", "application/xml").build()));
+			assertEquals("Incorrect default", "text/html", negotiator.getHandler(this.request("*/*").build()));
+			assertEquals("Incorrect specific", "text/html",
+					negotiator.getHandler(this.request("text/html", "application/xml").build()));
+		}
+	}
+
+	/**
+	 * Ensure negotiates across multiple <code>Accept</code> {@link HttpHeader}
+	 * values.
+	 */
+	public void testMultipleAcceptHeaders() throws Exception {
+		AcceptNegotiator<String> negotiator = this.negotiator("application/json", "application/xml");
+		for (int i = 0; i < 3; i++) {
+			assertEquals("Incorrect result", "application/xml", negotiator.getHandler(MockHttpServer.mockRequest()
+					.header("accept", "text/html").header("accept", "application/xml").build()));
+		}
+	}
+
+	/**
+	 * Ensure continues to negotiate once cache is full.
+	 */
+	public void testNegotiateBeyondCacheBound() throws Exception {
+		AcceptNegotiator<String> negotiator = this.negotiator("application/json", "application/xml");
+		for (int i = 0; i < (AcceptNegotiatorImpl.MAX_CACHED_NEGOTIATIONS * 2); i++) {
+			String expected = (i % 2) == 0 ? "application/json" : "application/xml";
+			assertEquals("Incorrect result " + i, expected,
+					negotiator.getHandler(this.request("type/unknown-" + i + ", " + expected).build()));
+		}
+	}
+
+	/**
+	 * Creates the {@link AcceptNegotiator}.
+	 * 
+	 * @param contentTypes
+	 *            <code>Content-Type</code> instances to create handlers.
+	 * @return {@link AcceptNegotiator}.
+	 */
+	private AcceptNegotiator<String> negotiator(String... contentTypes) throws NoAcceptHandlersException {
+		AcceptNegotiatorBuilder<String> builder = new AcceptNegotiatorBuilderImpl<>();
+		for (String contentType : contentTypes) {
+			builder.addHandler(contentType, contentType);
+		}
+		return builder.build();
+	}
+
 	/**
 	 * Creates the {@link MockHttpRequestBuilder}.
 	 * 
@@ -240,13 +296,13 @@ public class AcceptNegotiatorBuilderTest extends OfficeFrameTestCase {
 	 */
 	private void doTest(String expectedResult, MockHttpRequestBuilder request, String... contentTypes)
 			throws NoAcceptHandlersException {
-		AcceptNegotiatorBuilder<String> builder = new AcceptNegotiatorBuilderImpl<>();
-		for (String contentType : contentTypes) {
-			builder.addHandler(contentType, contentType);
-		}
-		AcceptNegotiator<String> negotiator = builder.build();
+		AcceptNegotiator<String> negotiator = this.negotiator(contentTypes);
 		String result = negotiator.getHandler(request.build());
 		assertEquals("Incorrect result", expectedResult, result);
+
+		// Ensure same result from cached negotiation
+		String cached = negotiator.getHandler(request.build());
+		assertEquals("Incorrect cached result", expectedResult, cached);
 	}
 
 }
@@ -263,6 +263,38 @@ public abstract class AbstractWebRouterTest extends OfficeFrameTestCase {
 				T(HttpMethod.POST, "/path/{param}2{second}/backout", "param", "value1", "second", "static"));
 	}
 
+	/**
+	 * Ensure dispatch to the appropriate static route from many static routes.
+	 */
+	public void testDispatchManyStaticRoutes() {
+		this.route("/orders/1", R("/accounts/{id}"), R("/basket/{id}"), R("/customers/{id}"), R("/offers/{id}"),
+				T("/orders/{id}", "id", "1"), R("/products/{id}"));
+	}
+
+	/**
+	 * Ensure can match static route with non-ASCII characters.
+	 */
+	public void testNonAsciiStatic() {
+		this.route("/café/über", R("/cafe/{param}"), T("/café/{param}", "param", "über"));
+	}
+
+	/**
+	 * Ensure can terminate parameter with non-ASCII character.
+	 */
+	public void testNonAsciiParameterTermination() {
+		this.route("/value§static", T("/{param}§static", "param", "value"));
+	}
+
+	/**
+	 * Ensure parameter offsets are not corrupted by other routings (as re-used).
+	 */
+	public void testRepeatedRoutingWithParameters() {
+		for (int i = 0; i < 3; i++) {
+			this.route("/one-" + i + "-two-2/3",
+					T("/one-{one}-two-{two}/{three}", "one", String.valueOf(i), "two", "2", "three", "3"));
+		}
+	}
+
 	/**
 	 * Ensure can ignore prefix of path only (ignoring rest of path in match).
 	 */
@@ -70,6 +70,11 @@ public class MemoryHttpSessionStateTest extends OfficeFrameTestCase {
 	 */
 	private final Instant MOCK_CURRENT_TIME = Instant.now();
 
+	/**
+	 * Current time of the {@link Clock}.
+	 */
+	private Instant currentTime = MOCK_CURRENT_TIME;
+
 	/**
 	 * Mock {@link Clock}.
 	 */
@@ -83,7 +88,7 @@ public class MemoryHttpSessionStateTest extends OfficeFrameTestCase {
 
 		@Override
 		public Instant instant() {
-			return MOCK_CURRENT_TIME;
+			return MemoryHttpSessionStateTest.this.currentTime;
 		}
 
 		@Override
@@ -196,4 +201,179 @@ public class MemoryHttpSessionStateTest extends OfficeFrameTestCase {
 		this.verifyMockObjects();
 	}
 
+	/**
+	 * Ensures evicts least recently used {@link HttpSession} once reached maximum
+	 * number of {@link HttpSession} instances.
+	 */
+	public void testEvictLeastRecentlyUsed() {
+
+		// Create the memory store (single shard for deterministic eviction)
+		MemoryHttpSessionStore store = new MemoryHttpSessionStore(this.clock, 200, 2, 1);
+
+		// Create sessions, using first so second is least recently used
+		assertTrue("Should create A", this.createSession(store, "A"));
+		assertTrue("Should create B", this.createSession(store, "B"));
+		assertTrue("Should retrieve A", this.retrieveSession(store, "A"));
+		assertTrue("Should create C", this.createSession(store, "C"));
+
+		// Ensure least recently used evicted
+		assertTrue("Should retain A", this.retrieveSession(store, "A"));
+		assertFalse("Should evict B", this.retrieveSession(store, "B"));
+		assertTrue("Should retain C", this.retrieveSession(store, "C"));
+		assertEquals("Incorrect number of sessions", 2, store.getSessionCount());
+		assertEquals("Incorrect number of evicted sessions", 1, store.getEvictedSessionCount());
+		assertEquals("Should not expire sessions", 0, store.getExpiredSessionCount());
+	}
+
+	/**
+	 * Ensures the maximum number of {@link HttpSession} instances is across all
+	 * shards (so sessions hashing to the same shard are not evicted early).
+	 */
+	public void testMaximumSessionsAcrossShards() {
+
+		// Create the memory store (more shards than maximum sessions)
+		MemoryHttpSessionStore store = new MemoryHttpSessionStore(this.clock, 200, 8, 16);
+
+		// Ensure no eviction up to maximum sessions
+		for (int i = 0; i < 8; i++) {
+			assertTrue("Should create S" + i, this.createSession(store, "S" + i));
+		}
+		for (int i = 0; i < 8; i++) {
+			assertTrue("Should retain S" + i, this.retrieveSession(store, "S" + i));
+		}
+		assertEquals("Incorrect number of sessions", 8, store.getSessionCount());
+		assertEquals("Should not evict sessions", 0, store.getEvictedSessionCount());
+
+		// Ensure evict once exceed maximum sessions
+		assertTrue("Should create S8", this.createSession(store, "S8"));
+		assertTrue("Should retain S8", this.retrieveSession(store, "S8"));
+		assertEquals("Incorrect number of sessions", 8, store.getSessionCount());
+		assertEquals("Incorrect number of evicted sessions", 1, store.getEvictedSessionCount());
+	}
+
+	/**
+	 * Ensures creating a {@link HttpSession} does not expire idle
+	 * {@link HttpSession} instances (as only expired on tick of timing wheel).
+	 */
+	public void testNotExpireOnCreate() {
+
+		// Create the memory store
+		MemoryHttpSessionStore store = new MemoryHttpSessionStore(this.clock, 10, 0, 1);
+		assertTrue("Should create A", this.createSession(store, "A"));
+
+		// Ensure create does not expire idle session
+		this.currentTime = MOCK_CURRENT_TIME.plus(11, ChronoUnit.SECONDS);
+		assertTrue("Should create B", this.createSession(store, "B"));
+		assertEquals("Should not expire on create", 2, store.getSessionCount());
+		assertEquals("Should not expire on create", 0, store.getExpiredSessionCount());
+
+		// Ensure expired on tick
+		store.expireIdleSessions();
+		assertEquals("Should expire A", 1, store.getSessionCount());
+		assertEquals("Incorrect number of expired sessions", 1, store.getExpiredSessionCount());
+	}
+
+	/**
+	 * Ensures expires idle {@link HttpSession} instances via the timing wheel,
+	 * taking into account extended expiry of active {@link HttpSession}
+	 * instances.
+	 */
+	public void testExpireIdleSessions() {
+
+		// Create the memory store
+		MemoryHttpSessionStore store = new MemoryHttpSessionStore(this.clock, 10, 0, 1);
+
+		// Create the sessions
+		assertTrue("Should create A", this.createSession(store, "A"));
+		assertTrue("Should create B", this.createSession(store, "B"));
+
+		// Use A to extend its expiry
+		this.currentTime = MOCK_CURRENT_TIME.plus(5, ChronoUnit.SECONDS);
+		store.expireIdleSessions();
+		assertEquals("Should not expire sessions", 2, store.getSessionCount());
+		assertTrue("Should retrieve A", this.retrieveSession(store, "A"));
+
+		// Ensure expire only idle session
+		this.currentTime = MOCK_CURRENT_TIME.plus(11, ChronoUnit.SECONDS);
+		store.expireIdleSessions();
+		assertEquals("Should expire B", 1, store.getSessionCount());
+		assertEquals("Incorrect number of expired sessions", 1, store.getExpiredSessionCount());
+
+		// Ensure expire A after its extended expiry
+		this.currentTime = MOCK_CURRENT_TIME.plus(16, ChronoUnit.SECONDS);
+		store.expireIdleSessions();
+		assertEquals("Should expire A", 0, store.getSessionCount());
+		assertEquals("Incorrect number of expired sessions", 2, store.getExpiredSessionCount());
+		assertFalse("Should not retrieve A", this.retrieveSession(store, "A"));
+	}
+
+	/**
+	 * Creates the {@link HttpSession}.
+	 * 
+	 * @param store     {@link HttpSessionStore}.
+	 * @param sessionId Session Id.
+	 * @return <code>true</code> if created.
+	 */
+	private boolean createSession(HttpSessionStore store, String sessionId) {
+		boolean[] isCreated = new boolean[] { false };
+		store.createHttpSession(new CreateHttpSessionOperation() {
+
+			@Override
+			public String getSessionId() {
+				return sessionId;
+			}
+
+			@Override
+			public void sessionCreated(Instant creationTime, Instant expireTime, Map<String, Serializable> attributes) {
+				isCreated[0] = true;
+			}
+
+			@Override
+			public void sessionIdCollision() {
+				fail("Should not have collision for " + sessionId);
+			}
+
+			@Override
+			public void failedToCreateSession(Throwable cause) {
+				throw fail(cause);
+			}
+		});
+		return isCreated[0];
+	}
+
+	/**
+	 * Retrieves the {@link HttpSession}.
+	 * 
+	 * @param store     {@link HttpSessionStore}.
+	 * @param sessionId Session Id.
+	 * @return <code>true</code> if retrieved.
+	 */
+	private boolean retrieveSession(HttpSessionStore store, String sessionId) {
+		boolean[] isRetrieved = new boolean[] { false };
+		store.retrieveHttpSession(new RetrieveHttpSessionOperation() {
+
+			@Override
+			public String getSessionId() {
+				return sessionId;
+			}
+
+			@Override
+			public void sessionRetrieved(Instant creationTime, Instant expireTime,
+					Map<String, Serializable> attributes) {
+				isRetrieved[0] = true;
+			}
+
+			@Override
+			public void sessionNotAvailable() {
+				isRetrieved[0] = false;
+			}
+
+			@Override
+			public void failedToRetreiveSession(Throwable cause) {
+				throw fail(cause);
+			}
+		});
+		return isRetrieved[0];
+	}
+
 }
@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.officefloor.server.http.HttpResponseStream;
+import net.officefloor.server.http.ServerHttpConnection;
+
+/**
+ * Mock {@link HttpResponseStream}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class MockHttpResponseStream implements HttpResponseStream {
+
+	/**
+	 * Obtains the {@link String} content.
+	 * 
+	 * @param content {@link ByteBuffer} content.
+	 * @return {@link String} content.
+	 */
+	public static String getContent(ByteBuffer content) {
+		ByteBuffer duplicate = content.duplicate();
+		byte[] bytes = new byte[duplicate.remaining()];
+		duplicate.get(bytes);
+		return new String(bytes, ServerHttpConnection.DEFAULT_HTTP_ENTITY_CHARSET);
+	}
+
+	/**
+	 * Written {@link ByteBuffer} instances.
+	 */
+	public final List<ByteBuffer> written = new ArrayList<>();
+
+	/**
+	 * Indicates if slow client (not receiving the offered content).
+	 */
+	private final boolean isSlowClient;
+
+	/**
+	 * Number of offered content pending to be written to the slow client.
+	 */
+	private int pendingWrites = 0;
+
+	/**
+	 * Maximum pending writes of last offer.
+	 */
+	public volatile int maxPendingWrites = -1;
+
+	/**
+	 * Indicates if closed.
+	 */
+	private volatile boolean isClosed = false;
+
+	/**
+	 * Indicates if client disconnected.
+	 */
+	public volatile boolean isDisconnected = false;
+
+	/**
+	 * Instantiate for client keeping up with content.
+	 */
+	public MockHttpResponseStream() {
+		this(false);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param isSlowClient Indicates if slow client that does not receive the
+	 *                     offered content (leaving it pending).
+	 */
+	public MockHttpResponseStream(boolean isSlowClient) {
+		this.isSlowClient = isSlowClient;
+	}
+
+	/**
+	 * Obtains the written content.
+	 * 
+	 * @return Written content.
+	 */
+	public synchronized String getContent() {
+		StringBuilder content = new StringBuilder();
+		for (ByteBuffer buffer : this.written) {
+			content.append(getContent(buffer));
+		}
+		return content.toString();
+	}
+
+	/*
+	 * ================= HttpResponseStream ==================
+	 */
+
+	@Override
+	public synchronized void write(ByteBuffer content) throws IOException {
+		if (this.isClosed()) {
+			throw new IOException("Closed");
+		}
+		this.written.add(content);
+	}
+
+	@Override
+	public synchronized void offer(ByteBuffer content, int maxPendingWrites) throws IOException {
+		if (this.isClosed()) {
+			throw new IOException("Closed");
+		}
+		this.maxPendingWrites = maxPendingWrites;
+
+		// Slow client left pending (dropping client on limit)
+		if (this.isSlowClient) {
+			if (this.pendingWrites >= maxPendingWrites) {
+				this.isClosed = true;
+			} else {
+				this.pendingWrites++;
+			}
+			return;
+		}
+
+		// Client keeping up
+		this.written.add(content);
+	}
+
+	@Override
+	public boolean isClosed() {
+		return this.isClosed || this.isDisconnected;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.isClosed = true;
+	}
+
+}
@@ -0,0 +1,365 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import net.officefloor.compile.spi.office.OfficeArchitect;
+import net.officefloor.compile.test.managedobject.ManagedObjectLoaderUtil;
+import net.officefloor.compile.test.managedobject.ManagedObjectTypeBuilder;
+import net.officefloor.compile.test.officefloor.CompileOfficeFloor;
+import net.officefloor.frame.api.manage.OfficeFloor;
+import net.officefloor.frame.internal.structure.ManagedObjectScope;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.frame.util.ManagedObjectSourceStandAlone;
+import net.officefloor.frame.util.ManagedObjectUserStandAlone;
+import net.officefloor.plugin.section.clazz.Parameter;
+import net.officefloor.server.http.HttpServer;
+import net.officefloor.server.http.OfficeFloorHttpServerImplementation;
+import net.officefloor.server.http.impl.HttpServerLocationImpl;
+import net.officefloor.server.ssl.OfficeFloorDefaultSslContextSource;
+
+/**
+ * Tests the {@link ServerSentEventBroadcasterManagedObjectSource}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class ServerSentEventBroadcasterManagedObjectSourceTest extends OfficeFrameTestCase {
+
+	/**
+	 * {@link ServerSentEventBroadcasterManagedObjectSource} under test.
+	 */
+	private ServerSentEventBroadcasterManagedObjectSource source;
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (this.source != null) {
+			this.source.stop();
+		}
+	}
+
+	/**
+	 * Validate specification.
+	 */
+	public void testSpecification() {
+		ManagedObjectLoaderUtil.validateSpecification(new ServerSentEventBroadcasterManagedObjectSource());
+	}
+
+	/**
+	 * Validate type.
+	 */
+	public void testType() {
+
+		// Create expected type
+		ManagedObjectTypeBuilder type = ManagedObjectLoaderUtil.createManagedObjectTypeBuilder();
+		type.setObjectClass(ServerSentEventBroadcaster.class);
+		type.setInput(true);
+
+		// Validate type
+		ManagedObjectLoaderUtil.validateManagedObjectType(type, new ServerSentEventBroadcasterManagedObjectSource());
+	}
+
+	/**
+	 * Ensure same {@link ServerSentEventBroadcaster} across sourcing.
+	 */
+	public void testSingleton() throws Throwable {
+		ServerSentEventBroadcaster broadcaster = this.loadBroadcaster(-1);
+		ManagedObjectUserStandAlone user = new ManagedObjectUserStandAlone();
+		assertSame("Should be same broadcaster", broadcaster, user.sourceManagedObject(this.source).getObject());
+	}
+
+	/**
+	 * Ensure broadcast the same content to all subscribers.
+	 */
+	public void testBroadcast() throws Throwable {
+		ServerSentEventBroadcaster broadcaster = this.loadBroadcaster(-1);
+
+		// Subscribe the streams
+		MockHttpResponseStream one = new MockHttpResponseStream();
+		MockHttpResponseStream two = new MockHttpResponseStream();
+		broadcaster.subscribe(new ServerSentEventStreamImpl(one, 10));
+		broadcaster.subscribe(new ServerSentEventStreamImpl(two, 10));
+		assertEquals("Incorrect number of subscribers", 2, broadcaster.getSubscriberCount());
+
+		// Broadcast the event
+		ServerSentEvent event = new ServerSentEvent("update", "TEST");
+		broadcaster.broadcast(event);
+		waitForContent(one, "event: update\ndata: TEST\n\n");
+		waitForContent(two, "event: update\ndata: TEST\n\n");
+
+		// Ensure shared the serialised content (without modifying it)
+		ByteBuffer content = event.getContent();
+		assertSame("Should share content", content, one.written.get(0));
+		assertSame("Should share content", content, two.written.get(0));
+		assertEquals("Should not modify content", 0, content.position());
+	}
+
+	/**
+	 * Ensure unsubscribe closed {@link ServerSentEventStream}.
+	 */
+	public void testUnsubscribeOnClose() throws Throwable {
+		ServerSentEventBroadcaster broadcaster = this.loadBroadcaster(-1);
+
+		// Subscribe the streams
+		MockHttpResponseStream open = new MockHttpResponseStream();
+		MockHttpResponseStream disconnected = new MockHttpResponseStream();
+		MockHttpResponseStream closed = new MockHttpResponseStream();
+		ServerSentEventStream closedStream = new ServerSentEventStreamImpl(closed, 10);
+		broadcaster.subscribe(new ServerSentEventStreamImpl(open, 10));
+		broadcaster.subscribe(new ServerSentEventStreamImpl(disconnected, 10));
+		broadcaster.subscribe(closedStream);
+		assertEquals("Incorrect number of subscribers", 3, broadcaster.getSubscriberCount());
+
+		// Close the streams
+		disconnected.isDisconnected = true;
+		closedStream.close();
+
+		// Should only broadcast to open stream
+		broadcaster.broadcast("TEST");
+		waitForContent(open, "data: TEST\n\n");
+		assertEquals("Should only have open subscriber", 1, broadcaster.getSubscriberCount());
+		assertEquals("Should not send to disconnected", "", disconnected.getContent());
+		assertEquals("Should not send to closed", "", closed.getContent());
+	}
+
+	/**
+	 * Ensure slow client does not hold up other clients.
+	 */
+	public void testDropSlowClient() throws Throwable {
+		ServerSentEventBroadcaster broadcaster = this.loadBroadcaster(-1);
+
+		// Subscribe the streams
+		MockHttpResponseStream fast = new MockHttpResponseStream();
+		MockHttpResponseStream slow = new MockHttpResponseStream(true);
+		broadcaster.subscribe(new ServerSentEventStreamImpl(slow, 2));
+		broadcaster.subscribe(new ServerSentEventStreamImpl(fast, 2));
+
+		// Broadcast events (with fast client keeping up)
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 5; i++) {
+			broadcaster.broadcast(String.valueOf(i));
+			expected.append("data: " + i + "\n\n");
+		}
+		assertEquals("Fast client should receive all events", expected.toString(), fast.getContent());
+
+		// Slow client should be dropped
+		assertEquals("Should drop slow client", 1, broadcaster.getSubscriberCount());
+		assertTrue("Should close slow client", slow.isClosed());
+		assertEquals("Should not send queued events to slow client", "", slow.getContent());
+	}
+
+	/**
+	 * Ensure send heartbeat as delayed process of the {@link OfficeFloor}.
+	 */
+	public void testHeartbeat() throws Throwable {
+
+		// Compile the OfficeFloor with heartbeat
+		CompileOfficeFloor compile = new CompileOfficeFloor();
+		compile.office((context) -> {
+			context.getOfficeArchitect()
+					.addOfficeManagedObjectSource("BROADCASTER", new ServerSentEventBroadcasterManagedObjectSource(10))
+					.addOfficeManagedObject("BROADCASTER", ManagedObjectScope.PROCESS);
+			context.addSection("SECTION", Subscriber.class);
+		});
+		OfficeFloor officeFloor = compile.compileAndOpenOfficeFloor();
+		MockHttpResponseStream response = new MockHttpResponseStream();
+		try {
+
+			// Subscribe the stream
+			CompileOfficeFloor.invokeProcess(officeFloor, "SECTION.subscribe", response);
+
+			// Should receive heartbeat (possibly many by time checked)
+			for (int i = 0; i < 1000; i++) {
+				if (response.getContent().length() == 0) {
+					Thread.sleep(10);
+				}
+			}
+			assertTrue("Should receive heartbeat", response.getContent().startsWith(": heartbeat\n\n"));
+
+		} finally {
+			officeFloor.closeOfficeFloor();
+		}
+
+		// Should stop heartbeat with the OfficeFloor
+		assertTrue("Should close subscriber", response.isClosed());
+		String content = response.getContent();
+		Thread.sleep(50);
+		assertEquals("Should not send heartbeat once closed", content, response.getContent());
+	}
+
+	/**
+	 * Subscribes to the {@link ServerSentEventBroadcaster}.
+	 */
+	public static class Subscriber {
+
+		/**
+		 * Subscribes the {@link MockHttpResponseStream}.
+		 * 
+		 * @param response    {@link MockHttpResponseStream}.
+		 * @param broadcaster {@link ServerSentEventBroadcaster}.
+		 */
+		public void subscribe(@Parameter MockHttpResponseStream response, ServerSentEventBroadcaster broadcaster) {
+			broadcaster.subscribe(new ServerSentEventStreamImpl(response, 10));
+		}
+	}
+
+	/**
+	 * Ensure events and heartbeats are sent over a secure connection of the
+	 * {@link HttpServer} (with the response never completing).
+	 */
+	public void testSecureServerEvents() throws Throwable {
+
+		// Compile the OfficeFloor with secure HTTP server
+		CompileOfficeFloor compile = new CompileOfficeFloor();
+		compile.officeFloor((context) -> {
+			new HttpServer(new OfficeFloorHttpServerImplementation(), new HttpServerLocationImpl(), null, null, true,
+					OfficeFloorDefaultSslContextSource.createServerSslContext(null),
+					context.getDeployedOffice().getDeployedOfficeInput("SECTION", "subscribe"),
+					context.getOfficeFloorDeployer(), context.getOfficeFloorSourceContext());
+		});
+		compile.office((context) -> {
+			OfficeArchitect office = context.getOfficeArchitect();
+			office.addOfficeManagedObjectSource("STREAM", new ServerSentEventStreamManagedObjectSource())
+					.addOfficeManagedObject("STREAM", ManagedObjectScope.PROCESS);
+			office.addOfficeManagedObjectSource("BROADCASTER", new ServerSentEventBroadcasterManagedObjectSource(10))
+					.addOfficeManagedObject("BROADCASTER", ManagedObjectScope.PROCESS);
+			context.addSection("SECTION", HttpSubscriber.class);
+		});
+		HttpSubscriber.broadcaster = null;
+		try (OfficeFloor officeFloor = compile.compileAndOpenOfficeFloor();
+				Socket socket = OfficeFloorDefaultSslContextSource.createClientSslContext(null).getSocketFactory()
+						.createSocket("localhost", 7979)) {
+			socket.setSoTimeout(5000);
+
+			// Subscribe for events
+			socket.getOutputStream()
+					.write("GET /events HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			StringBuilder received = new StringBuilder();
+			InputStream input = socket.getInputStream();
+
+			// Should receive heartbeat (response never completes)
+			waitForReceived(input, received, ": heartbeat\n\n");
+			assertTrue("Should stream events", received.toString().startsWith("HTTP/1.1 200 OK"));
+			assertTrue("Incorrect content type", received.toString().toLowerCase().contains("content-type: text/event-stream"));
+
+			// Should receive broadcast event
+			HttpSubscriber.broadcaster.broadcast("TEST");
+			waitForReceived(input, received, "data: TEST\n\n");
+		}
+	}
+
+	/**
+	 * Waits to receive the expected content.
+	 * 
+	 * @param input    {@link InputStream} of the {@link Socket}.
+	 * @param received Content received so far.
+	 * @param expected Expected content to be received.
+	 */
+	private static void waitForReceived(InputStream input, StringBuilder received, String expected) throws Exception {
+		byte[] buffer = new byte[1024];
+		while (!received.toString().contains(expected)) {
+			int bytesRead = input.read(buffer);
+			assertTrue("Connection closed before receiving " + expected, bytesRead > 0);
+			received.append(new String(buffer, 0, bytesRead, StandardCharsets.US_ASCII));
+		}
+	}
+
+	/**
+	 * Subscribes the {@link ServerSentEventStream} of the HTTP request.
+	 */
+	public static class HttpSubscriber {
+
+		/**
+		 * {@link ServerSentEventBroadcaster}.
+		 */
+		private static volatile ServerSentEventBroadcaster broadcaster;
+
+		/**
+		 * Subscribes the {@link ServerSentEventStream}.
+		 * 
+		 * @param stream      {@link ServerSentEventStream}.
+		 * @param broadcaster {@link ServerSentEventBroadcaster}.
+		 */
+		public void subscribe(ServerSentEventStream stream, ServerSentEventBroadcaster broadcaster) {
+			broadcaster.subscribe(stream);
+			HttpSubscriber.broadcaster = broadcaster;
+		}
+	}
+
+	/**
+	 * Ensure may only subscribe dependency {@link ServerSentEventStream}.
+	 */
+	public void testInvalidSubscribe() throws Throwable {
+		ServerSentEventBroadcaster broadcaster = this.loadBroadcaster(-1);
+		try {
+			broadcaster.subscribe(this.createMock(ServerSentEventStream.class));
+			fail("Should not be successful");
+		} catch (IllegalArgumentException ex) {
+			assertEquals("Incorrect cause", "May only subscribe ServerSentEventStream obtained as a dependency",
+					ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure close subscribers on stopping.
+	 */
+	public void testCloseOnStop() throws Throwable {
+		ServerSentEventBroadcaster broadcaster = this.loadBroadcaster(-1);
+		MockHttpResponseStream response = new MockHttpResponseStream();
+		broadcaster.subscribe(new ServerSentEventStreamImpl(response, 10));
+		this.source.stop();
+		assertTrue("Should close subscriber", response.isClosed());
+		assertEquals("Should be no subscribers", 0, broadcaster.getSubscriberCount());
+	}
+
+	/**
+	 * Loads the {@link ServerSentEventBroadcaster}.
+	 * 
+	 * @param heartbeatInterval Heartbeat interval.
+	 * @return {@link ServerSentEventBroadcaster}.
+	 */
+	private ServerSentEventBroadcaster loadBroadcaster(long heartbeatInterval) throws Throwable {
+		this.source = new ServerSentEventBroadcasterManagedObjectSource(heartbeatInterval);
+		ManagedObjectSourceStandAlone standAlone = new ManagedObjectSourceStandAlone();
+		standAlone.loadManagedObjectSource(this.source);
+		ManagedObjectUserStandAlone user = new ManagedObjectUserStandAlone();
+		return (ServerSentEventBroadcaster) user.sourceManagedObject(this.source).getObject();
+	}
+
+	/**
+	 * Waits for the content.
+	 * 
+	 * @param response {@link MockHttpResponseStream}.
+	 * @param expected Expected content.
+	 */
+	private static void waitForContent(MockHttpResponseStream response, String expected) throws InterruptedException {
+		long endTime = System.currentTimeMillis() + 10000;
+		while ((!expected.equals(response.getContent())) && (System.currentTimeMillis() < endTime)) {
+			Thread.sleep(1);
+		}
+		assertEquals("Incorrect content", expected, response.getContent());
+	}
+
+}
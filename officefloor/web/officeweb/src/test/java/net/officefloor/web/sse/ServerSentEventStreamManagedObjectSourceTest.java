@@ -0,0 +1,126 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+import java.io.IOException;
+
+import net.officefloor.compile.test.managedobject.ManagedObjectLoaderUtil;
+import net.officefloor.compile.test.managedobject.ManagedObjectTypeBuilder;
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.http.ServerHttpConnection;
+import net.officefloor.web.sse.ServerSentEventStreamManagedObjectSource.ServerSentEventStreamDependencies;
+
+/**
+ * Tests the {@link ServerSentEventStreamManagedObjectSource}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class ServerSentEventStreamManagedObjectSourceTest extends OfficeFrameTestCase {
+
+	/**
+	 * Validate specification.
+	 */
+	public void testSpecification() {
+		ManagedObjectLoaderUtil.validateSpecification(new ServerSentEventStreamManagedObjectSource());
+	}
+
+	/**
+	 * Validate type.
+	 */
+	public void testType() {
+
+		// Create expected type
+		ManagedObjectTypeBuilder type = ManagedObjectLoaderUtil.createManagedObjectTypeBuilder();
+		type.setObjectClass(ServerSentEventStream.class);
+		type.addDependency(ServerSentEventStreamDependencies.SERVER_HTTP_CONNECTION, ServerHttpConnection.class,
+				null);
+
+		// Validate type
+		ManagedObjectLoaderUtil.validateManagedObjectType(type, new ServerSentEventStreamManagedObjectSource());
+	}
+
+	/**
+	 * Ensure send events on the sending {@link Thread}.
+	 */
+	public void testSend() throws IOException {
+		MockHttpResponseStream response = new MockHttpResponseStream();
+		ServerSentEventStream stream = new ServerSentEventStreamImpl(response, 10);
+		stream.send("first");
+		stream.send(new ServerSentEvent("update", "second"));
+		assertEquals("Should send events", "data: first\n\nevent: update\ndata: second\n\n", response.getContent());
+
+		// Close
+		assertFalse("Should be open", stream.isClosed());
+		stream.close();
+		assertTrue("Should be closed", stream.isClosed());
+		assertTrue("Should complete response", response.isClosed());
+		try {
+			stream.send("not sent");
+			fail("Should not send once closed");
+		} catch (IOException ex) {
+			assertEquals("Incorrect cause", "ServerSentEventStream closed", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure closed on client disconnecting.
+	 */
+	public void testClientDisconnect() {
+		MockHttpResponseStream response = new MockHttpResponseStream();
+		ServerSentEventStreamImpl stream = new ServerSentEventStreamImpl(response, 10);
+		response.isDisconnected = true;
+		assertTrue("Should be closed", stream.isClosed());
+		assertFalse("Should not queue", stream.queue(new ServerSentEvent("TEST").getContent()));
+	}
+
+	/**
+	 * Ensure queues the events without blocking on a slow client.
+	 */
+	public void testQueueWithoutBlocking() {
+		MockHttpResponseStream response = new MockHttpResponseStream(true);
+		ServerSentEventStreamImpl stream = new ServerSentEventStreamImpl(response, 10);
+		assertTrue("Should queue first", stream.queue(new ServerSentEvent("first").getContent()));
+		assertTrue("Should queue second", stream.queue(new ServerSentEvent("second").getContent()));
+		assertEquals("Incorrect queue limit", 10, response.maxPendingWrites);
+		assertFalse("Should still be open", stream.isClosed());
+	}
+
+	/**
+	 * Ensure drop client not keeping up with the events.
+	 */
+	public void testDropSlowClient() {
+		MockHttpResponseStream response = new MockHttpResponseStream(true);
+		ServerSentEventStreamImpl stream = new ServerSentEventStreamImpl(response, 2);
+
+		// Queue up to the limit
+		assertTrue("Should queue first", stream.queue(new ServerSentEvent("first").getContent()));
+		assertTrue("Should queue second", stream.queue(new ServerSentEvent("second").getContent()));
+
+		// Drop client on exceeding limit
+		assertFalse("Should drop client", stream.queue(new ServerSentEvent("third").getContent()));
+		assertTrue("Should be closed", stream.isClosed());
+		assertTrue("Should close response", response.isClosed());
+		assertEquals("Should not send queued events to slow client", "", response.getContent());
+		assertFalse("Should not queue once dropped", stream.queue(new ServerSentEvent("fourth").getContent()));
+	}
+
+}
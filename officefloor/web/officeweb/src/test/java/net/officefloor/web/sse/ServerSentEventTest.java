@@ -0,0 +1,107 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.sse;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+
+/**
+ * Tests the {@link ServerSentEvent}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class ServerSentEventTest extends OfficeFrameTestCase {
+
+	/**
+	 * Ensure serialise data.
+	 */
+	public void testData() {
+		assertEvent("data: TEST\n\n", new ServerSentEvent("TEST"));
+	}
+
+	/**
+	 * Ensure serialise multi-line data.
+	 */
+	public void testMultiLineData() {
+		assertEvent("data: one\ndata: two\ndata: three\ndata: \n\n", new ServerSentEvent("one\ntwo\r\nthree\r"));
+	}
+
+	/**
+	 * Ensure serialise empty data.
+	 */
+	public void testEmptyData() {
+		assertEvent("data: \n\n", new ServerSentEvent(null));
+	}
+
+	/**
+	 * Ensure serialise all fields.
+	 */
+	public void testAllFields() {
+		ServerSentEvent event = new ServerSentEvent("1", "update", "TEST", 1000);
+		assertEquals("Incorrect id", "1", event.getId());
+		assertEquals("Incorrect event", "update", event.getEvent());
+		assertEquals("Incorrect data", "TEST", event.getData());
+		assertEquals("Incorrect retry", 1000, event.getRetry());
+		assertEvent("id: 1\nevent: update\nretry: 1000\ndata: TEST\n\n", event);
+	}
+
+	/**
+	 * Ensure content is read-only.
+	 */
+	public void testReadOnlyContent() {
+		assertTrue("Content should be read-only", new ServerSentEvent("TEST").getContent().isReadOnly());
+	}
+
+	/**
+	 * Ensure no line break in event name.
+	 */
+	public void testInvalidEventName() {
+		try {
+			new ServerSentEvent("invalid\nname", "TEST");
+			fail("Should not be successful");
+		} catch (IllegalArgumentException ex) {
+			assertEquals("Incorrect cause", "Server-Sent Event event must not contain a line break", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Ensure no line break in event identifier.
+	 */
+	public void testInvalidEventId() {
+		try {
+			new ServerSentEvent("invalid\rid", null, "TEST");
+			fail("Should not be successful");
+		} catch (IllegalArgumentException ex) {
+			assertEquals("Incorrect cause", "Server-Sent Event id must not contain a line break", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Asserts the serialised {@link ServerSentEvent}.
+	 * 
+	 * @param expected Expected serialised content.
+	 * @param event    {@link ServerSentEvent}.
+	 */
+	private static void assertEvent(String expected, ServerSentEvent event) {
+		assertEquals("Incorrect serialised event", expected, MockHttpResponseStream.getContent(event.getContent()));
+	}
+
+}
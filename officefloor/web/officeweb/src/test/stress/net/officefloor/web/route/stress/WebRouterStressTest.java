@@ -0,0 +1,146 @@
+/*-
+ * #%L
+ * Web Plug-in
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.route.stress;
+
+import java.util.concurrent.TimeUnit;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.http.HttpMethod;
+import net.officefloor.server.http.ServerHttpConnection;
+import net.officefloor.server.http.mock.MockHttpServer;
+import net.officefloor.web.route.WebRouteHandler;
+import net.officefloor.web.route.WebRouter;
+import net.officefloor.web.route.WebRouterBuilder;
+import net.officefloor.web.route.WebServicer;
+
+/**
+ * Benchmarks routing by the {@link WebRouter} over a realistic route table.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebRouterStressTest extends OfficeFrameTestCase {
+
+	/**
+	 * Number of routings to undertake for each run.
+	 */
+	private static final int ROUTE_COUNT = 5_000_000;
+
+	/**
+	 * Route table of an application.
+	 */
+	private static final String[][] ROUTES = new String[][] { { "GET", "/" }, { "GET", "/index.html" },
+			{ "GET", "/about" }, { "GET", "/contact" }, { "POST", "/contact" }, { "GET", "/login" },
+			{ "POST", "/login" }, { "POST", "/logout" }, { "GET", "/static/{file}.css" },
+			{ "GET", "/static/{file}.js" }, { "GET", "/images/{image}.png" }, { "GET", "/api/users" },
+			{ "POST", "/api/users" }, { "GET", "/api/users/{userId}" }, { "PUT", "/api/users/{userId}" },
+			{ "DELETE", "/api/users/{userId}" }, { "GET", "/api/users/{userId}/orders" },
+			{ "GET", "/api/users/{userId}/orders/{orderId}" }, { "GET", "/api/users/{userId}/addresses" },
+			{ "GET", "/api/products" }, { "POST", "/api/products" }, { "GET", "/api/products/{productId}" },
+			{ "PUT", "/api/products/{productId}" }, { "GET", "/api/products/{productId}/reviews" },
+			{ "POST", "/api/products/{productId}/reviews" }, { "GET", "/api/categories" },
+			{ "GET", "/api/categories/{category}/products" }, { "GET", "/api/orders" }, { "POST", "/api/orders" },
+			{ "GET", "/api/orders/{orderId}" }, { "POST", "/api/orders/{orderId}/cancel" },
+			{ "GET", "/api/orders/{orderId}/items/{itemId}" }, { "GET", "/api/search" },
+			{ "GET", "/api/health" }, { "GET", "/api/version" }, { "GET", "/docs/{page}" },
+			{ "GET", "/blog/{year}/{month}/{slug}" }, { "GET", "/files/{path}" } };
+
+	/**
+	 * Requests to route.
+	 */
+	private static final String[][] REQUESTS = new String[][] { { "GET", "/" }, { "GET", "/about" },
+			{ "POST", "/login" }, { "GET", "/static/site.css" }, { "GET", "/images/logo.png" },
+			{ "GET", "/api/users/12345" }, { "DELETE", "/api/users/12345" },
+			{ "GET", "/api/users/12345/orders/678" }, { "GET", "/api/products/ABC-1/reviews" },
+			{ "GET", "/api/categories/garden/products?page=2" }, { "POST", "/api/orders/678/cancel" },
+			{ "GET", "/api/orders/678/items/9" }, { "GET", "/api/search?q=router" }, { "GET", "/api/health" },
+			{ "GET", "/blog/2020/05/routing-performance" }, { "GET", "/unknown/path" } };
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		// Flag verbose to provide the results
+		this.setVerbose(true);
+	}
+
+	/**
+	 * Benchmarks routing with the {@link WebRouter}.
+	 */
+	@StressTest
+	public void testRouting() {
+
+		// Create the router
+		WebRouteHandler handler = (pathArguments, connection, context) -> {
+		};
+		WebRouterBuilder builder = new WebRouterBuilder(null);
+		for (String[] route : ROUTES) {
+			builder.addRoute(HttpMethod.getHttpMethod(route[0]), route[1], handler);
+		}
+		WebRouter router = builder.build();
+
+		// Create the connections
+		ServerHttpConnection[] connections = new ServerHttpConnection[REQUESTS.length];
+		for (int i = 0; i < connections.length; i++) {
+			String[] request = REQUESTS[i];
+			connections[i] = MockHttpServer.mockConnection(
+					MockHttpServer.mockRequest(request[1]).method(HttpMethod.getHttpMethod(request[0])));
+		}
+
+		// Ensure appropriately routes
+		for (int i = 0; i < connections.length; i++) {
+			boolean isExpectMatch = !("/unknown/path".equals(REQUESTS[i][1]));
+			assertEquals("Incorrect routing for " + REQUESTS[i][1], isExpectMatch,
+					WebServicer.isMatch(router.getWebServicer(connections[i], null)));
+		}
+
+		// Warm up and then measure
+		this.doRouting(router, connections);
+		long startTime = System.nanoTime();
+		int matches = this.doRouting(router, connections);
+		long runTime = System.nanoTime() - startTime;
+
+		// Report the throughput
+		long routesPerSecond = (ROUTE_COUNT * TimeUnit.SECONDS.toNanos(1)) / Math.max(1, runTime);
+		this.printMessage("Routed " + ROUTE_COUNT + " requests (" + matches + " matched) over " + ROUTES.length
+				+ " routes at " + routesPerSecond + " routes per second ("
+				+ (runTime / ROUTE_COUNT) + " nanoseconds per route)");
+	}
+
+	/**
+	 * Undertakes the routing.
+	 * 
+	 * @param router      {@link WebRouter}.
+	 * @param connections {@link ServerHttpConnection} instances to route.
+	 * @return Number of matched routes.
+	 */
+	private int doRouting(WebRouter router, ServerHttpConnection[] connections) {
+		int matches = 0;
+		for (int i = 0; i < ROUTE_COUNT; i++) {
+			WebServicer servicer = router.getWebServicer(connections[i % connections.length], null);
+			if (WebServicer.isMatch(servicer)) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+}
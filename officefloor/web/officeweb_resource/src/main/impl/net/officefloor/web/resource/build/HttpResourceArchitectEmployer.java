@@ -59,6 +59,7 @@ import net.officefloor.frame.api.build.None;
 import net.officefloor.frame.api.function.ManagedFunction;
 import net.officefloor.frame.api.source.PrivateSource;
 import net.officefloor.frame.internal.structure.ManagedObjectScope;
+import net.officefloor.server.http.HttpResponseCompression;
 import net.officefloor.server.http.ServerHttpConnection;
 import net.officefloor.web.build.WebArchitect;
 import net.officefloor.web.resource.HttpFile;
@@ -271,9 +272,12 @@ public class HttpResourceArchitectEmployer implements HttpResourceArchitect {
 			// Build the resource store
 			ResourceTransformer[] resourceTransformers = httpResourceSource.resourceTransformers
 					.toArray(new ResourceTransformer[httpResourceSource.resourceTransformers.size()]);
+			HttpResponseCompression compression = httpResourceSource.isCompressionSpecified
+					? httpResourceSource.compression
+					: HttpResponseCompression.load(this.officeSourceContext);
 			HttpResourceStoreImpl store = new HttpResourceStoreImpl(httpResourceSource.location,
 					httpResourceSource.resourceSystemService, fileCacheFactory, resourceTransformers,
-					httpResourceSource.directoryDefaultResourceNames);
+					httpResourceSource.directoryDefaultResourceNames, compression);
 			stores.add(store);
 
 			// Register the managed objects (for auto-wiring)
@@ -363,6 +367,16 @@ public class HttpResourceArchitectEmployer implements HttpResourceArchitect {
 		 */
 		private String[] directoryDefaultResourceNames = new String[] { "index.html" };
 
+		/**
+		 * Indicates if the {@link HttpResponseCompression} is specified.
+		 */
+		private boolean isCompressionSpecified = false;
+
+		/**
+		 * {@link HttpResponseCompression}.
+		 */
+		private HttpResponseCompression compression = null;
+
 		/**
 		 * Name suffix to use in configuring this {@link HttpResourceSource}.
 		 */
@@ -434,6 +448,12 @@ public class HttpResourceArchitectEmployer implements HttpResourceArchitect {
 			this.directoryDefaultResourceNames = defaultResourceNames;
 		}
 
+		@Override
+		public void setHttpResponseCompression(HttpResponseCompression compression) {
+			this.isCompressionSpecified = true;
+			this.compression = compression;
+		}
+
 		@Override
 		public HttpSecurableBuilder getHttpSecurer() {
 			if (this.securable == null) {
@@ -27,6 +27,8 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 
 import net.officefloor.web.resource.HttpFile;
 import net.officefloor.web.resource.HttpResourceStore;
@@ -206,6 +208,30 @@ public class ClasspathResourceSystem implements ResourceSystem {
 		return this.createFile(classPath, path);
 	}
 
+	@Override
+	public String[] getResourcePaths() throws IOException {
+		List<String> resourcePaths = new ArrayList<>();
+		this.loadResourcePaths(this.root, resourcePaths);
+		return resourcePaths.toArray(new String[resourcePaths.size()]);
+	}
+
+	/**
+	 * Loads the resource paths of the files within the {@link ClassPathNode}
+	 * tree.
+	 * 
+	 * @param node          {@link ClassPathNode}.
+	 * @param resourcePaths {@link List} to receive the resource paths.
+	 */
+	private void loadResourcePaths(ClassPathNode node, List<String> resourcePaths) {
+		for (ClassPathNode child : node.getChildren()) {
+			if (child.isDirectory()) {
+				this.loadResourcePaths(child, resourcePaths);
+			} else {
+				resourcePaths.add(child.getResourcePath());
+			}
+		}
+	}
+
 	/**
 	 * Creates the {@link Path} to the file.
 	 * 
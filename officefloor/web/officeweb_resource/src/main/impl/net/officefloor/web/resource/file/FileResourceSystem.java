@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.stream.Stream;
 
 import net.officefloor.web.resource.spi.ResourceSystem;
 import net.officefloor.web.resource.spi.ResourceSystemContext;
@@ -78,4 +79,13 @@ public class FileResourceSystem implements ResourceSystem {
 		return this.rootDirectory.resolve(path);
 	}
 
+	@Override
+	public String[] getResourcePaths() throws IOException {
+		try (Stream<Path> files = Files.walk(this.rootDirectory)) {
+			return files.filter((file) -> Files.isRegularFile(file))
+					.map((file) -> "/" + this.rootDirectory.relativize(file).toString().replace('\\', '/'))
+					.toArray(String[]::new);
+		}
+	}
+
 }
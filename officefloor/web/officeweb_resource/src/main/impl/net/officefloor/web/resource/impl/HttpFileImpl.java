@@ -26,10 +26,15 @@ import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 
+import net.officefloor.server.http.HttpContentEncoder;
+import net.officefloor.server.http.HttpHeader;
 import net.officefloor.server.http.HttpHeaderName;
 import net.officefloor.server.http.HttpHeaderValue;
+import net.officefloor.server.http.HttpRequest;
 import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.http.HttpResponseCompression;
 import net.officefloor.server.stream.FileCompleteCallback;
 import net.officefloor.web.resource.HttpFile;
 
@@ -45,6 +50,22 @@ public class HttpFileImpl extends AbstractHttpResource implements HttpFile, File
 	 */
 	private static final HttpHeaderName CONTENT_ENCODING = new HttpHeaderName("content-encoding");
 
+	/**
+	 * <code>Vary</code> {@link HttpHeaderName}.
+	 */
+	private static final HttpHeaderName VARY = new HttpHeaderName("vary");
+
+	/**
+	 * <code>Accept-Encoding</code> {@link HttpHeaderValue} for the
+	 * <code>Vary</code> {@link HttpHeaderName}.
+	 */
+	private static final HttpHeaderValue VARY_ACCEPT_ENCODING = new HttpHeaderValue("Accept-Encoding");
+
+	/**
+	 * <code>Accept-Encoding</code> {@link HttpHeader} name.
+	 */
+	private static final String ACCEPT_ENCODING = "accept-encoding";
+
 	/**
 	 * <code>Content-Encoding</code> {@link HttpHeaderValue}.
 	 */
@@ -69,6 +90,23 @@ public class HttpFileImpl extends AbstractHttpResource implements HttpFile, File
 	 * {@link FileChannel}.
 	 */
 	private final FileChannel file;
+
+	/**
+	 * {@link HttpResponseCompression} to negotiate the pre-compressed variants.
+	 * Will be <code>null</code> if no pre-compressed variants.
+	 */
+	private HttpResponseCompression compression = null;
+
+	/**
+	 * Pre-compressed variants of this {@link HttpFile} by
+	 * {@link HttpContentEncoder}.
+	 */
+	private Map<HttpContentEncoder, HttpFileImpl> encodedFiles = null;
+
+	/**
+	 * Indicates if the {@link HttpFile} varies by <code>Accept-Encoding</code>.
+	 */
+	private boolean isVary = false;
 	
 	/**
 	 * Initiate an existing {@link HttpFile}.
@@ -96,6 +134,25 @@ public class HttpFileImpl extends AbstractHttpResource implements HttpFile, File
 		this.file = file;
 	}
 
+	/**
+	 * Specifies the pre-compressed variants of this {@link HttpFile}.
+	 * 
+	 * @param compression
+	 *            {@link HttpResponseCompression} to negotiate the pre-compressed
+	 *            variants.
+	 * @param encodedFiles
+	 *            Pre-compressed variants of this {@link HttpFile} by
+	 *            {@link HttpContentEncoder}.
+	 */
+	void setEncodedHttpFiles(HttpResponseCompression compression, Map<HttpContentEncoder, HttpFileImpl> encodedFiles) {
+		this.compression = compression;
+		this.encodedFiles = encodedFiles;
+		this.isVary = true;
+		for (HttpFileImpl encodedFile : encodedFiles.values()) {
+			encodedFile.isVary = true;
+		}
+	}
+
 	/*
 	 * ================ HttpFile ======================================
 	 */
@@ -138,6 +195,9 @@ public class HttpFileImpl extends AbstractHttpResource implements HttpFile, File
 		if (this.contentEncoding != null) {
 			response.getHeaders().addHeader(CONTENT_ENCODING, this.contentEncoding);
 		}
+		if (this.isVary) {
+			response.getHeaders().addHeader(VARY, VARY_ACCEPT_ENCODING);
+		}
 		if (this.contentType != null) {
 			response.setContentType(this.contentType, this.charset);
 		}
@@ -146,6 +206,24 @@ public class HttpFileImpl extends AbstractHttpResource implements HttpFile, File
 		response.getEntityWriter().write(this.file, this);
 	}
 
+	@Override
+	public HttpFile getEncodedHttpFile(HttpRequest request) {
+
+		// Determine if pre-compressed variants
+		if (this.encodedFiles == null) {
+			return this;
+		}
+
+		// Negotiate the pre-compressed variant
+		HttpHeader acceptEncoding = request.getHeaders().getHeader(ACCEPT_ENCODING);
+		if (acceptEncoding == null) {
+			return this;
+		}
+		HttpContentEncoder encoder = this.compression.negotiate(acceptEncoding.getValue());
+		HttpFileImpl encodedFile = (encoder == null) ? null : this.encodedFiles.get(encoder);
+		return (encodedFile != null) ? encodedFile : this;
+	}
+
 	/*
 	 * ================ FileCompleteCallback =====================
 	 */
@@ -165,6 +243,13 @@ public class HttpFileImpl extends AbstractHttpResource implements HttpFile, File
 		// Close the file channel
 		this.file.close();
 
+		// Close the pre-compressed variants
+		if (this.encodedFiles != null) {
+			for (HttpFileImpl encodedFile : this.encodedFiles.values()) {
+				encodedFile.close();
+			}
+		}
+
 		// Determine if clean up file
 		if (this.cleanupResourcePath != null) {
 			Files.deleteIfExists(this.cleanupResourcePath);
@@ -24,6 +24,7 @@ package net.officefloor.web.resource.impl;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
@@ -44,7 +45,9 @@ import java.util.logging.Logger;
 
 import org.apache.tika.Tika;
 
+import net.officefloor.server.http.HttpContentEncoder;
 import net.officefloor.server.http.HttpHeaderValue;
+import net.officefloor.server.http.HttpResponseCompression;
 import net.officefloor.web.resource.HttpDirectory;
 import net.officefloor.web.resource.HttpFile;
 import net.officefloor.web.resource.HttpResource;
@@ -145,6 +148,12 @@ public class HttpResourceStoreImpl implements HttpResourceStore, ResourceSystemC
 	 */
 	private final String[] directoryDefaultResourceNames;
 
+	/**
+	 * {@link HttpResponseCompression} to pre-compress the {@link HttpFile}
+	 * variants. May be <code>null</code> to not pre-compress.
+	 */
+	private final HttpResponseCompression compression;
+
 	/**
 	 * Instantiate.
 	 * 
@@ -159,7 +168,29 @@ public class HttpResourceStoreImpl implements HttpResourceStore, ResourceSystemC
 	public HttpResourceStoreImpl(String location, ResourceSystemFactory resourceSystemService,
 			FileCacheFactory fileCacheFactory, ResourceTransformer[] transformers,
 			String[] directoryDefaultResourceNames) throws IOException {
+		this(location, resourceSystemService, fileCacheFactory, transformers, directoryDefaultResourceNames, null);
+	}
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param location                      Location for the
+	 *                                      {@link ResourceSystemContext}.
+	 * @param resourceSystemService         {@link ResourceSystemFactory}.
+	 * @param fileCacheFactory              {@link FileCacheFactory}.
+	 * @param transformers                  {@link ResourceTransformer} instances.
+	 * @param directoryDefaultResourceNames Directory default resource names.
+	 * @param compression                   {@link HttpResponseCompression} to
+	 *                                      pre-compress the {@link HttpFile}
+	 *                                      variants. May be <code>null</code> to
+	 *                                      not pre-compress.
+	 * @throws IOException If fails to instantiate the {@link HttpResourceStore}.
+	 */
+	public HttpResourceStoreImpl(String location, ResourceSystemFactory resourceSystemService,
+			FileCacheFactory fileCacheFactory, ResourceTransformer[] transformers,
+			String[] directoryDefaultResourceNames, HttpResponseCompression compression) throws IOException {
 		this.location = location;
+		this.compression = compression;
 
 		// Specify the transformers
 		this.transformers = transformers != null ? transformers : new ResourceTransformer[0];
@@ -180,6 +211,13 @@ public class HttpResourceStoreImpl implements HttpResourceStore, ResourceSystemC
 
 		// Create the resource system
 		this.resourceSystem = resourceSystemService.createResourceSystem(this);
+
+		// Pre-compress the HTTP files now (rather than on first request)
+		if (this.compression != null) {
+			for (String resourcePath : this.resourceSystem.getResourcePaths()) {
+				this.getHttpResource(resourcePath);
+			}
+		}
 	}
 
 	/**
@@ -543,10 +581,45 @@ public class HttpResourceStoreImpl implements HttpResourceStore, ResourceSystemC
 					}
 				}
 
+				// Pre-compress the HTTP file (if applicable)
+				HttpResponseCompression compression = store.compression;
+				Map<HttpContentEncoder, HttpFileImpl> encodedFiles = null;
+				if ((compression != null) && (context.contentEncoding == null)
+						&& (compression.isCompressible(context.contentType.getValue()))
+						&& (Files.size(context.resource) >= compression.getMinimumSize())) {
+					encodedFiles = new HashMap<>();
+					for (HttpContentEncoder encoder : compression.getHttpContentEncoders()) {
+
+						// Encode the file
+						Path encodedResource = store.fileCache
+								.createFile(("_" + encoder.getContentCoding() + "-" + this.resourcePath).replace('/', '_'));
+						try (OutputStream encodedOutput = Files.newOutputStream(encodedResource);
+								OutputStream encoding = encoder.createEncoder(encodedOutput)) {
+							Files.copy(context.resource, encoding);
+						}
+
+						// Only use if smaller than the original
+						if (Files.size(encodedResource) >= Files.size(context.resource)) {
+							Files.delete(encodedResource);
+							continue;
+						}
+
+						// Include the encoded file
+						FileChannel encodedChannel = FileChannel.open(encodedResource, OPEN_OPTIONS);
+						encodedFiles.put(encoder,
+								new HttpFileImpl(this.resourcePath, encodedResource, encodedChannel,
+										compression.getContentEncoding(encoder), context.contentType,
+										context.getCharset()));
+					}
+				}
+
 				// Create the HTTP file
 				FileChannel fileChannel = FileChannel.open(context.resource, OPEN_OPTIONS);
 				HttpFileImpl httpFile = new HttpFileImpl(this.resourcePath, context.resource, fileChannel,
 						context.contentEncoding, context.contentType, context.getCharset());
+				if ((encodedFiles != null) && (encodedFiles.size() > 0)) {
+					httpFile.setEncodedHttpFiles(compression, encodedFiles);
+				}
 
 				// Flag HTTP resource as resolved
 				this.singletonHttpResource = httpFile;
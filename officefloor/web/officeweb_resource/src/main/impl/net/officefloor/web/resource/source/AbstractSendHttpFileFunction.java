@@ -135,7 +135,7 @@ public abstract class AbstractSendHttpFileFunction<R>
 		}
 
 		// Send the file
-		file.writeTo(connection.getResponse());
+		file.getEncodedHttpFile(connection.getRequest()).writeTo(connection.getResponse());
 	}
 
 }
@@ -26,7 +26,9 @@ import java.nio.charset.Charset;
 import java.nio.file.spi.FileTypeDetector;
 
 import net.officefloor.server.http.HttpHeaderValue;
+import net.officefloor.server.http.HttpRequest;
 import net.officefloor.server.http.HttpResponse;
+import net.officefloor.server.http.HttpResponseCompression;
 import net.officefloor.web.resource.spi.ResourceSystem;
 import net.officefloor.web.resource.spi.ResourceSystemContext;
 import net.officefloor.web.resource.spi.ResourceTransformer;
@@ -78,4 +80,17 @@ public interface HttpFile extends HttpResource {
 	 */
 	void writeTo(HttpResponse response) throws IOException;
 
+	/**
+	 * Obtains the pre-compressed variant of this {@link HttpFile} acceptable to
+	 * the <code>Accept-Encoding</code> of the {@link HttpRequest}.
+	 * 
+	 * @param request
+	 *            {@link HttpRequest}.
+	 * @return Pre-compressed {@link HttpFile}, or this {@link HttpFile} if no
+	 *         acceptable pre-compressed variant.
+	 * 
+	 * @see HttpResponseCompression
+	 */
+	HttpFile getEncodedHttpFile(HttpRequest request);
+
 }
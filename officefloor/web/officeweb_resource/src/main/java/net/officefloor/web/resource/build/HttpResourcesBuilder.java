@@ -23,6 +23,8 @@ package net.officefloor.web.resource.build;
 
 import net.officefloor.compile.section.TypeQualification;
 import net.officefloor.frame.api.managedobject.ManagedObject;
+import net.officefloor.server.http.HttpResponseCompression;
+import net.officefloor.server.http.HttpServer;
 import net.officefloor.web.resource.HttpResource;
 import net.officefloor.web.resource.HttpResourceStore;
 import net.officefloor.web.resource.spi.ResourceTransformer;
@@ -86,6 +88,20 @@ public interface HttpResourcesBuilder {
 	 */
 	void setDirectoryDefaultResourceNames(String... defaultResourceNames);
 
+	/**
+	 * <p>
+	 * Specifies the {@link HttpResponseCompression} to pre-compute compressed
+	 * variants of the {@link HttpResource} instances.
+	 * <p>
+	 * If not specified, the {@link HttpResponseCompression} is loaded from the
+	 * {@link HttpServer} compression properties.
+	 * 
+	 * @param compression
+	 *            {@link HttpResponseCompression}. May be <code>null</code> to not
+	 *            pre-compute compressed variants.
+	 */
+	void setHttpResponseCompression(HttpResponseCompression compression);
+
 	/**
 	 * <p>
 	 * Obtains the {@link HttpSecurableBuilder} to configure access controls to
@@ -44,4 +44,21 @@ public interface ResourceSystem {
 	 */
 	Path getResource(String path) throws IOException;
 
+	/**
+	 * <p>
+	 * Obtains the paths of the file resources.
+	 * <p>
+	 * This enables the {@link HttpResourceStore} to prepare the resources (such
+	 * as pre-compressing) on being created, rather than on first request. By
+	 * default, no paths are listed and the resources are prepared on first
+	 * request.
+	 * 
+	 * @return Paths of the file resources.
+	 * @throws IOException
+	 *             If failure in listing the file resources.
+	 */
+	default String[] getResourcePaths() throws IOException {
+		return new String[0];
+	}
+
 }
@@ -23,10 +23,15 @@ package net.officefloor.web.resource.classpath;
 
 import org.junit.Assert;
 
+import net.officefloor.server.http.HttpResponseCompression;
+import net.officefloor.server.http.impl.DeflaterHttpContentEncoder;
 import net.officefloor.web.resource.HttpDirectory;
 import net.officefloor.web.resource.HttpFile;
 import net.officefloor.web.resource.HttpResource;
+import net.officefloor.web.resource.HttpResourceCache;
+import net.officefloor.web.resource.HttpResourceStore;
 import net.officefloor.web.resource.impl.AbstractHttpResourceStoreTestCase;
+import net.officefloor.web.resource.impl.HttpResourceStoreImpl;
 
 /**
  * Tests the {@link ClasspathResourceSystem}.
@@ -122,6 +127,26 @@ public class ClasspathResourceSystemTest extends AbstractHttpResourceStoreTestCa
 		}
 	}
 
+	/**
+	 * Ensure the {@link HttpResource} instances are prepared (pre-compressed) on
+	 * creating the {@link HttpResourceStore}, rather than on first request.
+	 */
+	public void testPrepareOnCreate() throws Exception {
+
+		// Setup with compression
+		HttpResponseCompression compression = new HttpResponseCompression(1, new String[] { "text/*" },
+				new DeflaterHttpContentEncoder(true, 6));
+		this.setupNewHttpResourceStore(this.getLocation(), null, compression, "index.html");
+
+		// Ensure resources prepared (without being requested)
+		HttpResourceCache cache = ((HttpResourceStoreImpl) this.getHttpResourceStore()).getCache();
+		for (String path : new String[] { "/index.html", "/directory/index.html" }) {
+			HttpResource resource = cache.getHttpResource(path);
+			assertNotNull("Should prepare " + path, resource);
+			assertTrue("Should be file " + path, resource instanceof HttpFile);
+		}
+	}
+
 	/*
 	 * ============== AbstractHttpResourceStoreTestCase =================
 	 */
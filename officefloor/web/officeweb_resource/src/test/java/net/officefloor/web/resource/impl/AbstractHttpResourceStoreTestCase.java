@@ -36,6 +36,7 @@ import net.officefloor.frame.api.source.ServiceFactory;
 import net.officefloor.frame.test.OfficeFrameTestCase;
 import net.officefloor.server.filesystem.OfficeFloorFileAttributes;
 import net.officefloor.server.http.HttpHeaderValue;
+import net.officefloor.server.http.HttpResponseCompression;
 import net.officefloor.server.http.mock.MockHttpResponse;
 import net.officefloor.server.http.mock.MockHttpResponseBuilder;
 import net.officefloor.server.http.mock.MockHttpServer;
@@ -160,6 +161,20 @@ public abstract class AbstractHttpResourceStoreTestCase extends OfficeFrameTestC
 	 */
 	protected void setupNewHttpResourceStore(String location, ResourceTransformer[] transformers,
 			String... directoryDefaultFileNames) throws Exception {
+		this.setupNewHttpResourceStore(location, transformers, null, directoryDefaultFileNames);
+	}
+
+	/**
+	 * Sets up a new {@link HttpResourceStore} for the location.
+	 * 
+	 * @param location                  Location.
+	 * @param transformers              {@link ResourceTransformer} instances.
+	 * @param compression               {@link HttpResponseCompression}. May be
+	 *                                  <code>null</code>.
+	 * @param directoryDefaultFileNames Directory default file names.
+	 */
+	protected void setupNewHttpResourceStore(String location, ResourceTransformer[] transformers,
+			HttpResponseCompression compression, String... directoryDefaultFileNames) throws Exception {
 
 		// Close the existing store
 		if (this.store != null) {
@@ -169,7 +184,7 @@ public abstract class AbstractHttpResourceStoreTestCase extends OfficeFrameTestC
 		// Set up the new HTTP resource store
 		ResourceSystemFactory factory = this.createResourceSystemService();
 		this.store = new HttpResourceStoreImpl(location, factory, (name) -> new MockFileCache(name), transformers,
-				directoryDefaultFileNames);
+				directoryDefaultFileNames, compression);
 	}
 
 	/**
@@ -21,11 +21,22 @@
 
 package net.officefloor.web.resource.impl;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+
+import net.officefloor.server.http.HttpResponseCompression;
+import net.officefloor.server.http.impl.DeflaterHttpContentEncoder;
+import net.officefloor.server.http.mock.MockHttpResponse;
+import net.officefloor.server.http.mock.MockHttpResponseBuilder;
+import net.officefloor.server.http.mock.MockHttpServer;
+import net.officefloor.web.resource.HttpFile;
 
 import net.officefloor.web.resource.HttpResource;
 import net.officefloor.web.resource.HttpResourceStore;
@@ -40,11 +51,21 @@ import net.officefloor.web.resource.spi.ResourceSystemFactory;
  */
 public class MockHttpResourceStoreTest extends AbstractHttpResourceStoreTestCase implements ResourceSystemFactory {
 
+	/**
+	 * UTF-8 {@link Charset}.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
 	/**
 	 * {@link ResourceSystemContext}.
 	 */
 	private ResourceSystemContext context;
 
+	/**
+	 * Overriding location. May be <code>null</code> to use test files.
+	 */
+	private String location = null;
+
 	/**
 	 * Mock {@link ResourceSystem}.
 	 */
@@ -118,13 +139,86 @@ public class MockHttpResourceStoreTest extends AbstractHttpResourceStoreTestCase
 				this.getHttpResourceStore().getHttpResource(directoryPath));
 	}
 
+	/**
+	 * Ensure provides pre-compressed variants of the {@link HttpFile}.
+	 */
+	public void testPreCompressedHttpFile() throws Exception {
+
+		// Create compressible content
+		StringBuilder content = new StringBuilder("<html><body>");
+		for (int i = 0; i < 100; i++) {
+			content.append("<p>Hello World</p>");
+		}
+		content.append("</body></html>");
+		Path directory = Files.createTempDirectory("compress-");
+		try {
+			Files.write(directory.resolve("large.html"), content.toString().getBytes(UTF_8));
+
+			// Setup with compression
+			HttpResponseCompression compression = new HttpResponseCompression(1024, new String[] { "text/*" },
+					new DeflaterHttpContentEncoder(true, 6), new DeflaterHttpContentEncoder(false, 6));
+			this.location = directory.toString();
+			this.setupNewHttpResourceStore(this.getLocation(), null, compression, "index.html");
+			HttpFile file = (HttpFile) this.getHttpResourceStore().getHttpResource("/large.html");
+			assertNull("Identity file should not be encoded", file.getContentEncoding());
+
+			// Ensure no encoding without Accept-Encoding
+			assertSame("Should not encode without Accept-Encoding", file,
+					file.getEncodedHttpFile(MockHttpServer.mockConnection().getRequest()));
+
+			// Ensure negotiates gzip variant
+			HttpFile gzip = file.getEncodedHttpFile(MockHttpServer
+					.mockConnection(MockHttpServer.mockRequest().header("Accept-Encoding", "deflate;q=0.5, gzip"))
+					.getRequest());
+			assertEquals("Incorrect encoding", "gzip", gzip.getContentEncoding().getValue());
+			assertSame("Should cache variant", gzip, file.getEncodedHttpFile(
+					MockHttpServer.mockConnection(MockHttpServer.mockRequest().header("Accept-Encoding", "gzip"))
+							.getRequest()));
+
+			// Ensure writes the gzip variant
+			MockHttpResponseBuilder mock = MockHttpServer.mockResponse();
+			gzip.writeTo(mock);
+			MockHttpResponse response = mock.build();
+			assertEquals("Incorrect content-encoding", "gzip", response.getHeader("content-encoding").getValue());
+			assertEquals("Incorrect vary", "Accept-Encoding", response.getHeader("vary").getValue());
+			ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+			try (InputStream input = new GZIPInputStream(response.getEntity())) {
+				for (int value = input.read(); value != -1; value = input.read()) {
+					decoded.write(value);
+				}
+			}
+			assertEquals("Incorrect decoded entity", content.toString(), new String(decoded.toByteArray(), UTF_8));
+
+			// Ensure identity variant also varies
+			mock = MockHttpServer.mockResponse();
+			file.writeTo(mock);
+			response = mock.build();
+			assertNull("Should not be encoded", response.getHeader("content-encoding"));
+			assertEquals("Incorrect vary", "Accept-Encoding", response.getHeader("vary").getValue());
+			assertEquals("Incorrect entity", content.toString(), response.getEntity(UTF_8));
+
+			// Ensure not pre-compress small files
+			Files.write(directory.resolve("index.html"), "<html/>".getBytes(UTF_8));
+			HttpFile small = (HttpFile) this.getHttpResourceStore().getHttpResource("/index.html");
+			assertSame("Should not pre-compress small file", small, small.getEncodedHttpFile(
+					MockHttpServer.mockConnection(MockHttpServer.mockRequest().header("Accept-Encoding", "gzip"))
+							.getRequest()));
+
+			// Ensure clean up
+			this.closeHttpResourceStore();
+
+		} finally {
+			this.deleteDirectory(directory.toFile());
+		}
+	}
+
 	/*
 	 * =========== AbstractHttpResourceStoreTestCase ============
 	 */
 
 	@Override
 	protected String getLocation() {
-		return this.getStoreFilePath();
+		return this.location != null ? this.location : this.getStoreFilePath();
 	}
 
 	@Override
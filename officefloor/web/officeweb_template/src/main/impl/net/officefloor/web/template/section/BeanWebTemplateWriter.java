@@ -56,6 +56,12 @@ public class BeanWebTemplateWriter implements WebTemplateWriter {
 	 */
 	private final WebTemplateWriter[] beanWriters;
 
+	/**
+	 * {@link WebTemplatePropertyAccessor}. May be <code>null</code> to use the
+	 * {@link ValueRetriever}.
+	 */
+	private final WebTemplatePropertyAccessor accessor;
+
 	/**
 	 * Initiate.
 	 * 
@@ -67,16 +73,25 @@ public class BeanWebTemplateWriter implements WebTemplateWriter {
 	 *            Indicates if an array of beans to render.
 	 * @param beanWriters
 	 *            {@link WebTemplateWriter} instances for the bean.
+	 * @param parentBeanType
+	 *            Type of the bean containing the bean property.
 	 * @throws Exception
 	 *             If {@link Method} to obtain the value to write is not
 	 *             available on the bean type.
 	 */
 	public BeanWebTemplateWriter(BeanParsedTemplateSectionContent content, ValueRetriever<Object> valueRetriever,
-			boolean isArray, WebTemplateWriter[] beanWriters) throws Exception {
+			boolean isArray, WebTemplateWriter[] beanWriters, Class<?> parentBeanType) throws Exception {
 		this.valueRetriever = valueRetriever;
 		this.propertyName = content.getPropertyName();
 		this.isArray = isArray;
 		this.beanWriters = beanWriters;
+
+		// Compile access to the bean
+		WebTemplatePropertyAccessor accessor = WebTemplatePropertyAccessor.create(parentBeanType, this.propertyName);
+		if ((accessor != null) && (accessor.getValueType() != WebTemplatePropertyAccessor.ValueType.OBJECT)) {
+			accessor = null; // bean must be an object
+		}
+		this.accessor = accessor;
 	}
 
 	/*
@@ -93,7 +108,13 @@ public class BeanWebTemplateWriter implements WebTemplateWriter {
 		}
 
 		// Obtain the bean
-		Object writerBean = this.valueRetriever.retrieveValue(bean, this.propertyName);
+		Object writerBean;
+		if ((this.accessor != null) && (this.accessor.isAccessible(bean))) {
+			Object object = this.accessor.navigate(bean);
+			writerBean = (object == null) ? null : this.accessor.getObject(object);
+		} else {
+			writerBean = this.valueRetriever.retrieveValue(bean, this.propertyName);
+		}
 
 		// Only write content if have the bean
 		if (writerBean == null) {
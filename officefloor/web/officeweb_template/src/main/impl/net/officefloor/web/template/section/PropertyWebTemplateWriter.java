@@ -23,6 +23,8 @@ package net.officefloor.web.template.section;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.text.StringEscapeUtils;
 
@@ -40,6 +42,16 @@ import net.officefloor.web.value.retrieve.ValueRetriever;
  */
 public class PropertyWebTemplateWriter implements WebTemplateWriter {
 
+	/**
+	 * Encoded <code>true</code>.
+	 */
+	private static final byte[] TRUE = String.valueOf(true).getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * Encoded <code>false</code>.
+	 */
+	private static final byte[] FALSE = String.valueOf(false).getBytes(StandardCharsets.UTF_8);
+
 	/**
 	 * {@link ValueRetriever}.
 	 */
@@ -55,6 +67,17 @@ public class PropertyWebTemplateWriter implements WebTemplateWriter {
 	 */
 	private final boolean isEscaped;
 
+	/**
+	 * {@link WebTemplatePropertyAccessor}. May be <code>null</code> to use the
+	 * {@link ValueRetriever}.
+	 */
+	private final WebTemplatePropertyAccessor accessor;
+
+	/**
+	 * Indicates if able to write encoded bytes for the template {@link Charset}.
+	 */
+	private final boolean isEncodable;
+
 	/**
 	 * Initiate.
 	 * 
@@ -64,12 +87,14 @@ public class PropertyWebTemplateWriter implements WebTemplateWriter {
 	 *            {@link ValueRetriever}.
 	 * @param beanType
 	 *            Bean type for the property.
+	 * @param charset
+	 *            {@link Charset} for the template.
 	 * @throws Exception
 	 *             If {@link Method} to obtain the value to write is not available
 	 *             on the bean type.
 	 */
 	public PropertyWebTemplateWriter(PropertyParsedTemplateSectionContent content,
-			ValueRetriever<Object> valueRetriever, Class<?> beanType) throws Exception {
+			ValueRetriever<Object> valueRetriever, Class<?> beanType, Charset charset) throws Exception {
 		this.valueRetriever = valueRetriever;
 		this.propertyName = content.getPropertyName();
 
@@ -83,6 +108,37 @@ public class PropertyWebTemplateWriter implements WebTemplateWriter {
 		// Determine if should be escaped
 		NotEscaped annotation = this.valueRetriever.getValueAnnotation(this.propertyName, NotEscaped.class);
 		this.isEscaped = (annotation == null);
+
+		// Compile access to the property
+		this.accessor = WebTemplatePropertyAccessor.create(beanType, this.propertyName);
+		this.isEncodable = WebTemplateEncoder.isEncodable(charset);
+	}
+
+	/**
+	 * Writes the text.
+	 * 
+	 * @param text
+	 *            Text.
+	 * @param isEncode
+	 *            Indicates to write encoded bytes.
+	 * @param writer
+	 *            {@link ServerWriter}.
+	 * @throws IOException
+	 *             If fails to write the text.
+	 */
+	private void writeText(String text, boolean isEncode, ServerWriter writer) throws IOException {
+		if (isEncode) {
+			// Write encoded (and possibly escaped) bytes
+			WebTemplateEncoder.write(text, this.isEscaped, writer);
+
+		} else if (this.isEscaped) {
+			// Write the escaped value
+			StringEscapeUtils.ESCAPE_HTML4.translate(text, writer);
+
+		} else {
+			// Write the raw value
+			writer.write(text);
+		}
 	}
 
 	/*
@@ -98,20 +154,65 @@ public class PropertyWebTemplateWriter implements WebTemplateWriter {
 			return;
 		}
 
-		// Obtain the property value from bean
-		Object value = this.valueRetriever.retrieveValue(bean, this.propertyName);
-
-		// Obtain the text value to write as content
-		String propertyTextValue = (value == null ? "" : value.toString());
+		// Determine if write encoded bytes
+		boolean isEncode = (isDefaultCharset && this.isEncodable);
 
 		try {
-			// Write out the value
-			if (this.isEscaped) {
-				// Write the escaped value
-				StringEscapeUtils.ESCAPE_HTML4.translate(propertyTextValue, writer);
-			} else {
-				// Write the raw value
-				writer.write(propertyTextValue);
+			// Determine if compiled access to the property
+			if ((this.accessor == null) || (!this.accessor.isAccessible(bean))) {
+
+				// Obtain the property value from bean
+				Object value = this.valueRetriever.retrieveValue(bean, this.propertyName);
+
+				// Write the text value
+				this.writeText(value == null ? "" : value.toString(), isEncode, writer);
+				return;
+			}
+
+			// Obtain the object containing the property
+			Object object = this.accessor.navigate(bean);
+			if (object == null) {
+				return; // no value to output
+			}
+
+			// Write the value (primitives require no escaping)
+			switch (this.accessor.getValueType()) {
+			case LONG:
+				long longValue = this.accessor.getLong(object);
+				if (isEncode) {
+					WebTemplateEncoder.write(longValue, writer);
+				} else {
+					writer.write(String.valueOf(longValue));
+				}
+				break;
+
+			case BOOLEAN:
+				boolean booleanValue = this.accessor.getBoolean(object);
+				if (isEncode) {
+					writer.write(booleanValue ? TRUE : FALSE);
+				} else {
+					writer.write(String.valueOf(booleanValue));
+				}
+				break;
+
+			case DOUBLE:
+				this.writeText(String.valueOf(this.accessor.getDouble(object)), isEncode, writer);
+				break;
+
+			case FLOAT:
+				this.writeText(String.valueOf(this.accessor.getFloat(object)), isEncode, writer);
+				break;
+
+			case CHAR:
+				this.writeText(String.valueOf(this.accessor.getChar(object)), isEncode, writer);
+				break;
+
+			default:
+				Object value = this.accessor.getObject(object);
+				if (value != null) {
+					this.writeText(value.toString(), isEncode, writer);
+				}
+				break;
 			}
 
 		} catch (IOException ex) {
@@ -0,0 +1,208 @@
+/*-
+ * #%L
+ * Web Template
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.template.section;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.translate.EntityArrays;
+
+import net.officefloor.server.stream.ServerWriter;
+
+/**
+ * <p>
+ * Encodes rendered values straight to <code>UTF-8</code> bytes for the
+ * {@link ServerWriter}.
+ * <p>
+ * This avoids the character encoding of the {@link ServerWriter} and escapes
+ * at the byte level (producing the same output as
+ * {@link StringEscapeUtils#ESCAPE_HTML4}). Encoding is via a {@link Thread}
+ * local buffer that is copied into the response, so no objects are allocated
+ * per value.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebTemplateEncoder {
+
+	/**
+	 * Size of the encode buffer.
+	 */
+	private static final int BUFFER_SIZE = 1024;
+
+	/**
+	 * Encoded HTML escapes indexed by the character. Entry is <code>null</code>
+	 * if character not escaped.
+	 */
+	private static final byte[][] ESCAPES;
+
+	/**
+	 * Maximum number of bytes for an encoded character.
+	 */
+	private static final int MAX_CHARACTER_BYTES;
+
+	static {
+		// Load the HTML 4 escapes
+		@SuppressWarnings("unchecked")
+		Map<CharSequence, CharSequence>[] escapeMaps = new Map[] { EntityArrays.BASIC_ESCAPE,
+				EntityArrays.ISO8859_1_ESCAPE, EntityArrays.HTML40_EXTENDED_ESCAPE };
+		int maxCharacter = 0;
+		for (Map<CharSequence, CharSequence> escapeMap : escapeMaps) {
+			for (CharSequence character : escapeMap.keySet()) {
+				maxCharacter = Math.max(maxCharacter, character.charAt(0));
+			}
+		}
+		ESCAPES = new byte[maxCharacter + 1][];
+		int maxBytes = 4; // maximum UTF-8 bytes for code point
+		for (Map<CharSequence, CharSequence> escapeMap : escapeMaps) {
+			for (Map.Entry<CharSequence, CharSequence> escape : escapeMap.entrySet()) {
+				char character = escape.getKey().charAt(0);
+				if (ESCAPES[character] == null) {
+					byte[] encoded = escape.getValue().toString().getBytes(StandardCharsets.UTF_8);
+					ESCAPES[character] = encoded;
+					maxBytes = Math.max(maxBytes, encoded.length);
+				}
+			}
+		}
+		MAX_CHARACTER_BYTES = maxBytes;
+	}
+
+	/**
+	 * {@link Thread} local encode buffer.
+	 */
+	private static final ThreadLocal<byte[]> buffer = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+	/**
+	 * Indicates if able to encode for the {@link Charset}.
+	 * 
+	 * @param charset {@link Charset}.
+	 * @return <code>true</code> if able to encode for the {@link Charset}.
+	 */
+	public static boolean isEncodable(Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset);
+	}
+
+	/**
+	 * Writes the text.
+	 * 
+	 * @param text      Text.
+	 * @param isEscaped Indicates if HTML escape the text.
+	 * @param writer    {@link ServerWriter}.
+	 * @throws IOException If fails to write.
+	 */
+	public static void write(CharSequence text, boolean isEscaped, ServerWriter writer) throws IOException {
+		byte[] bytes = buffer.get();
+		int position = 0;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+
+			// Ensure space for the character
+			if (position > (bytes.length - MAX_CHARACTER_BYTES)) {
+				writer.write(bytes, 0, position);
+				position = 0;
+			}
+
+			// Determine if escape the character
+			char character = text.charAt(i);
+			if ((isEscaped) && (character < ESCAPES.length)) {
+				byte[] escape = ESCAPES[character];
+				if (escape != null) {
+					System.arraycopy(escape, 0, bytes, position, escape.length);
+					position += escape.length;
+					continue;
+				}
+			}
+
+			// Encode the character
+			if (character < 0x80) {
+				bytes[position++] = (byte) character;
+
+			} else if (character < 0x800) {
+				bytes[position++] = (byte) (0xc0 | (character >> 6));
+				bytes[position++] = (byte) (0x80 | (character & 0x3f));
+
+			} else if (Character.isSurrogate(character)) {
+				// Determine if valid surrogate pair
+				char low;
+				if ((Character.isHighSurrogate(character)) && ((i + 1) < length)
+						&& (Character.isLowSurrogate(low = text.charAt(i + 1)))) {
+					int codePoint = Character.toCodePoint(character, low);
+					bytes[position++] = (byte) (0xf0 | (codePoint >> 18));
+					bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+					bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+					bytes[position++] = (byte) (0x80 | (codePoint & 0x3f));
+					i++; // consumed low surrogate
+				} else {
+					// Malformed, so replace (as per character encoding)
+					bytes[position++] = '?';
+				}
+
+			} else {
+				bytes[position++] = (byte) (0xe0 | (character >> 12));
+				bytes[position++] = (byte) (0x80 | ((character >> 6) & 0x3f));
+				bytes[position++] = (byte) (0x80 | (character & 0x3f));
+			}
+		}
+
+		// Write the remaining bytes
+		if (position > 0) {
+			writer.write(bytes, 0, position);
+		}
+	}
+
+	/**
+	 * Writes the <code>long</code> value.
+	 * 
+	 * @param value  Value.
+	 * @param writer {@link ServerWriter}.
+	 * @throws IOException If fails to write.
+	 */
+	public static void write(long value, ServerWriter writer) throws IOException {
+
+		// Write digits from end of buffer (avoids negating minimum value)
+		byte[] bytes = buffer.get();
+		int position = bytes.length;
+		boolean isNegative = (value < 0);
+		if (!isNegative) {
+			value = -value;
+		}
+		do {
+			bytes[--position] = (byte) ('0' - (value % 10));
+			value /= 10;
+		} while (value != 0);
+		if (isNegative) {
+			bytes[--position] = '-';
+		}
+
+		// Write the value
+		writer.write(bytes, position, bytes.length - position);
+	}
+
+	/**
+	 * All access via static methods.
+	 */
+	private WebTemplateEncoder() {
+	}
+
+}
@@ -0,0 +1,352 @@
+/*-
+ * #%L
+ * Web Template
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.template.section;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import net.officefloor.server.http.HttpException;
+import net.officefloor.web.value.retrieve.RetrieveValueException;
+import net.officefloor.web.value.retrieve.ValueRetriever;
+
+/**
+ * <p>
+ * Compiled access to a bean property for rendering.
+ * <p>
+ * Resolves the getter {@link Method} instances for the property path once from
+ * the bean type and invokes them via {@link MethodHandle} instances. This avoids
+ * the per render name parsing, {@link Method} lookup and reflective invocation
+ * of the {@link ValueRetriever}. Primitive property values are also provided
+ * without boxing.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebTemplatePropertyAccessor {
+
+	/**
+	 * Prefix of the getter {@link Method}.
+	 */
+	private static final String GETTER_PREFIX = "get";
+
+	/**
+	 * Type of the value of the property.
+	 */
+	public static enum ValueType {
+		OBJECT, LONG, DOUBLE, FLOAT, BOOLEAN, CHAR
+	}
+
+	/**
+	 * Creates the {@link WebTemplatePropertyAccessor}.
+	 * 
+	 * @param beanType     Bean type.
+	 * @param propertyName Property name. May be a <code>.</code> separated path
+	 *                     of properties.
+	 * @return {@link WebTemplatePropertyAccessor} or <code>null</code> if unable
+	 *         to compile access to the property (in which case should use the
+	 *         {@link ValueRetriever}).
+	 */
+	public static WebTemplatePropertyAccessor create(Class<?> beanType, String propertyName) {
+
+		// Resolve the getter for each property of the path
+		String[] names = propertyName.split("\\.");
+		MethodHandle[] navigation = new MethodHandle[names.length - 1];
+		Class<?> type = beanType;
+		for (int i = 0; i < names.length; i++) {
+
+			// Obtain the getter for the property
+			Method getter = getGetter(type, names[i]);
+			if (getter == null) {
+				return null; // unable to resolve property
+			}
+
+			// Obtain the handle for the getter
+			MethodHandle handle = unreflect(getter);
+			if (handle == null) {
+				return null; // unable to access getter
+			}
+
+			// Load the navigation
+			Class<?> returnType = getter.getReturnType();
+			if (i < navigation.length) {
+				if (returnType.isPrimitive()) {
+					return null; // can not navigate primitive
+				}
+				navigation[i] = handle.asType(MethodType.methodType(Object.class, Object.class));
+				type = returnType;
+				continue;
+			}
+
+			// Create the accessor for the value
+			ValueType valueType;
+			Class<?> handleType;
+			if ((returnType == long.class) || (returnType == int.class) || (returnType == short.class)
+					|| (returnType == byte.class)) {
+				valueType = ValueType.LONG;
+				handleType = long.class;
+			} else if (returnType == double.class) {
+				valueType = ValueType.DOUBLE;
+				handleType = double.class;
+			} else if (returnType == float.class) {
+				valueType = ValueType.FLOAT;
+				handleType = float.class;
+			} else if (returnType == boolean.class) {
+				valueType = ValueType.BOOLEAN;
+				handleType = boolean.class;
+			} else if (returnType == char.class) {
+				valueType = ValueType.CHAR;
+				handleType = char.class;
+			} else {
+				valueType = ValueType.OBJECT;
+				handleType = Object.class;
+			}
+			MethodHandle value = handle.asType(MethodType.methodType(handleType, Object.class));
+			return new WebTemplatePropertyAccessor(beanType, navigation, value, valueType);
+		}
+
+		// Should not get here (as always at least one property)
+		return null;
+	}
+
+	/**
+	 * Obtains the getter {@link Method} for the property. Matches the properties
+	 * made available by the {@link ValueRetriever} (case insensitive).
+	 * 
+	 * @param type         Type.
+	 * @param propertyName Name of the property.
+	 * @return Getter {@link Method} or <code>null</code> if not available.
+	 */
+	private static Method getGetter(Class<?> type, String propertyName) {
+		for (Method method : type.getMethods()) {
+
+			// Ensure public getter with no parameters returning value
+			if ((Object.class.equals(method.getDeclaringClass())) || (!Modifier.isPublic(method.getModifiers()))
+					|| (method.getParameterTypes().length != 0) || (method.getReturnType() == void.class)) {
+				continue;
+			}
+
+			// Determine if getter for the property
+			String methodName = method.getName();
+			if ((methodName.length() == (GETTER_PREFIX.length() + propertyName.length()))
+					&& (methodName.startsWith(GETTER_PREFIX))
+					&& (methodName.regionMatches(true, GETTER_PREFIX.length(), propertyName, 0, propertyName.length()))) {
+				return method;
+			}
+		}
+
+		// As here, no getter for property
+		return null;
+	}
+
+	/**
+	 * Obtains the {@link MethodHandle} for the {@link Method}.
+	 * 
+	 * @param method {@link Method}.
+	 * @return {@link MethodHandle} or <code>null</code> if not accessible.
+	 */
+	private static MethodHandle unreflect(Method method) {
+		try {
+			return MethodHandles.publicLookup().unreflect(method);
+		} catch (IllegalAccessException ex) {
+			// Attempt to make accessible (e.g. public method of non-public class)
+			try {
+				method.setAccessible(true);
+				return MethodHandles.lookup().unreflect(method);
+			} catch (Exception notAccessible) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Bean type.
+	 */
+	private final Class<?> beanType;
+
+	/**
+	 * {@link MethodHandle} instances to navigate to the object containing the
+	 * property value.
+	 */
+	private final MethodHandle[] navigation;
+
+	/**
+	 * {@link MethodHandle} to obtain the value.
+	 */
+	private final MethodHandle value;
+
+	/**
+	 * {@link ValueType}.
+	 */
+	private final ValueType valueType;
+
+	/**
+	 * Instantiate.
+	 * 
+	 * @param beanType   Bean type.
+	 * @param navigation {@link MethodHandle} instances to navigate to the object
+	 *                   containing the property value.
+	 * @param value      {@link MethodHandle} to obtain the value.
+	 * @param valueType  {@link ValueType}.
+	 */
+	private WebTemplatePropertyAccessor(Class<?> beanType, MethodHandle[] navigation, MethodHandle value,
+			ValueType valueType) {
+		this.beanType = beanType;
+		this.navigation = navigation;
+		this.value = value;
+		this.valueType = valueType;
+	}
+
+	/**
+	 * Indicates if able to access the property on the bean.
+	 * 
+	 * @param bean Bean.
+	 * @return <code>true</code> if able to access the property on the bean.
+	 */
+	public boolean isAccessible(Object bean) {
+		return this.beanType.isInstance(bean);
+	}
+
+	/**
+	 * Obtains the {@link ValueType}.
+	 * 
+	 * @return {@link ValueType}.
+	 */
+	public ValueType getValueType() {
+		return this.valueType;
+	}
+
+	/**
+	 * Navigates to the object containing the property value.
+	 * 
+	 * @param bean Bean.
+	 * @return Object containing the property value. May be <code>null</code> if
+	 *         <code>null</code> along the property path.
+	 * @throws HttpException If fails to navigate.
+	 */
+	public Object navigate(Object bean) throws HttpException {
+		Object object = bean;
+		try {
+			for (int i = 0; i < this.navigation.length; i++) {
+				if (object == null) {
+					return null;
+				}
+				object = (Object) this.navigation[i].invokeExact(object);
+			}
+		} catch (Throwable ex) {
+			throw new RetrieveValueException(ex);
+		}
+		return object;
+	}
+
+	/**
+	 * Obtains the {@link ValueType#OBJECT} value.
+	 * 
+	 * @param object Object containing the property value.
+	 * @return Value.
+	 * @throws HttpException If fails to obtain the value.
+	 */
+	public Object getObject(Object object) throws HttpException {
+		try {
+			return (Object) this.value.invokeExact(object);
+		} catch (Throwable ex) {
+			throw new RetrieveValueException(ex);
+		}
+	}
+
+	/**
+	 * Obtains the {@link ValueType#LONG} value.
+	 * 
+	 * @param object Object containing the property value.
+	 * @return Value.
+	 * @throws HttpException If fails to obtain the value.
+	 */
+	public long getLong(Object object) throws HttpException {
+		try {
+			return (long) this.value.invokeExact(object);
+		} catch (Throwable ex) {
+			throw new RetrieveValueException(ex);
+		}
+	}
+
+	/**
+	 * Obtains the {@link ValueType#DOUBLE} value.
+	 * 
+	 * @param object Object containing the property value.
+	 * @return Value.
+	 * @throws HttpException If fails to obtain the value.
+	 */
+	public double getDouble(Object object) throws HttpException {
+		try {
+			return (double) this.value.invokeExact(object);
+		} catch (Throwable ex) {
+			throw new RetrieveValueException(ex);
+		}
+	}
+
+	/**
+	 * Obtains the {@link ValueType#FLOAT} value.
+	 * 
+	 * @param object Object containing the property value.
+	 * @return Value.
+	 * @throws HttpException If fails to obtain the value.
+	 */
+	public float getFloat(Object object) throws HttpException {
+		try {
+			return (float) this.value.invokeExact(object);
+		} catch (Throwable ex) {
+			throw new RetrieveValueException(ex);
+		}
+	}
+
+	/**
+	 * Obtains the {@link ValueType#BOOLEAN} value.
+	 * 
+	 * @param object Object containing the property value.
+	 * @return Value.
+	 * @throws HttpException If fails to obtain the value.
+	 */
+	public boolean getBoolean(Object object) throws HttpException {
+		try {
+			return (boolean) this.value.invokeExact(object);
+		} catch (Throwable ex) {
+			throw new RetrieveValueException(ex);
+		}
+	}
+
+	/**
+	 * Obtains the {@link ValueType#CHAR} value.
+	 * 
+	 * @param object Object containing the property value.
+	 * @return Value.
+	 * @throws HttpException If fails to obtain the value.
+	 */
+	public char getChar(Object object) throws HttpException {
+		try {
+			return (char) this.value.invokeExact(object);
+		} catch (Throwable ex) {
+			throw new RetrieveValueException(ex);
+		}
+	}
+
+}
@@ -1413,7 +1413,8 @@ public class WebTemplateSectionSource extends AbstractSectionSource {
 
 					// Add the content writer
 					contentWriterList
-							.add(new BeanWebTemplateWriter(beanContent, valueRetriever, isArray, beanStruct.writers));
+							.add(new BeanWebTemplateWriter(beanContent, valueRetriever, isArray, beanStruct.writers,
+									beanClass));
 
 				} else if (content instanceof PropertyParsedTemplateSectionContent) {
 					// Add the property template writer
@@ -1430,7 +1431,8 @@ public class WebTemplateSectionSource extends AbstractSectionSource {
 					}
 
 					// Add the content writer
-					contentWriterList.add(new PropertyWebTemplateWriter(propertyContent, valueRetriever, beanClass));
+					contentWriterList
+							.add(new PropertyWebTemplateWriter(propertyContent, valueRetriever, beanClass, charset));
 
 				} else if (content instanceof LinkParsedTemplateSectionContent) {
 					// Add the link template writer
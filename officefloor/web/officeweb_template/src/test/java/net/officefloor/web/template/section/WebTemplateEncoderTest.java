@@ -0,0 +1,270 @@
+/*-
+ * #%L
+ * Web Template
+ * %%
+ * Copyright (C) 2005 - 2020 Daniel Sagenschneider
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+package net.officefloor.web.template.section;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.text.StringEscapeUtils;
+
+import net.officefloor.frame.test.OfficeFrameTestCase;
+import net.officefloor.server.stream.FileCompleteCallback;
+import net.officefloor.server.stream.ServerWriter;
+import net.officefloor.web.template.parse.PropertyParsedTemplateSectionContent;
+import net.officefloor.web.value.retrieve.ValueRetriever;
+import net.officefloor.web.value.retrieve.ValueRetrieverSource;
+
+/**
+ * Tests the {@link WebTemplateEncoder} and {@link WebTemplatePropertyAccessor}.
+ * 
+ * @author Daniel Sagenschneider
+ */
+public class WebTemplateEncoderTest extends OfficeFrameTestCase {
+
+	/**
+	 * {@link MockServerWriter}.
+	 */
+	private final MockServerWriter writer = new MockServerWriter();
+
+	/**
+	 * Ensure encodes text.
+	 */
+	public void testEncode() throws IOException {
+		this.assertEncode("");
+		this.assertEncode("hello world");
+		this.assertEncode("<a href=\"test\">&amp;</a>");
+		this.assertEncode("café αβ € ♦ 中");
+		this.assertEncode("emoji 😀 end");
+		this.assertEncode("malformed \ud83d end \ude00");
+	}
+
+	/**
+	 * Ensure encodes all characters as per {@link StringEscapeUtils}.
+	 */
+	public void testEncodeAllCharacters() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < Character.MIN_SURROGATE; i++) {
+			text.append((char) i);
+		}
+		for (int i = Character.MAX_SURROGATE + 1; i <= Character.MAX_VALUE; i++) {
+			text.append((char) i);
+		}
+		this.assertEncode(text.toString());
+	}
+
+	/**
+	 * Ensure encodes <code>long</code> values.
+	 */
+	public void testEncodeLong() throws IOException {
+		for (long value : new long[] { 0, 1, -1, 9, 10, 1234567890, -987654321, Long.MAX_VALUE, Long.MIN_VALUE }) {
+			this.writer.bytes.reset();
+			WebTemplateEncoder.write(value, this.writer);
+			assertEquals("Incorrect value", String.valueOf(value), this.writer.getText());
+		}
+	}
+
+	/**
+	 * Ensure can access properties.
+	 */
+	public void testPropertyAccess() throws Exception {
+		Bean bean = new Bean();
+
+		// Object property
+		WebTemplatePropertyAccessor accessor = WebTemplatePropertyAccessor.create(Bean.class, "text");
+		assertEquals("Incorrect type", WebTemplatePropertyAccessor.ValueType.OBJECT, accessor.getValueType());
+		assertTrue("Should be accessible", accessor.isAccessible(bean));
+		assertFalse("Should not be accessible", accessor.isAccessible("Not bean"));
+		assertEquals("Incorrect value", "TEXT", accessor.getObject(accessor.navigate(bean)));
+
+		// Primitive properties (case insensitive)
+		accessor = WebTemplatePropertyAccessor.create(Bean.class, "NUMBER");
+		assertEquals("Incorrect type", WebTemplatePropertyAccessor.ValueType.LONG, accessor.getValueType());
+		assertEquals("Incorrect value", 10, accessor.getLong(accessor.navigate(bean)));
+		accessor = WebTemplatePropertyAccessor.create(Bean.class, "flag");
+		assertEquals("Incorrect type", WebTemplatePropertyAccessor.ValueType.BOOLEAN, accessor.getValueType());
+		assertTrue("Incorrect value", accessor.getBoolean(accessor.navigate(bean)));
+		accessor = WebTemplatePropertyAccessor.create(Bean.class, "ratio");
+		assertEquals("Incorrect type", WebTemplatePropertyAccessor.ValueType.FLOAT, accessor.getValueType());
+		assertEquals("Incorrect value", 1.1f, accessor.getFloat(accessor.navigate(bean)));
+		accessor = WebTemplatePropertyAccessor.create(Bean.class, "amount");
+		assertEquals("Incorrect type", WebTemplatePropertyAccessor.ValueType.DOUBLE, accessor.getValueType());
+		assertEquals("Incorrect value", 2.2, accessor.getDouble(accessor.navigate(bean)));
+
+		// Nested property
+		accessor = WebTemplatePropertyAccessor.create(Bean.class, "child.text");
+		assertEquals("Incorrect nested value", "TEXT", accessor.getObject(accessor.navigate(bean)));
+		bean.child = null;
+		assertNull("Should handle null along path", accessor.navigate(bean));
+
+		// Unknown property
+		assertNull("Should not compile unknown property", WebTemplatePropertyAccessor.create(Bean.class, "unknown"));
+	}
+
+	/**
+	 * Ensure renders <code>float</code> property as per reflective access.
+	 */
+	public void testFloatProperty() throws Exception {
+		this.assertProperty("ratio", String.valueOf(Float.valueOf(1.1f)));
+		this.assertProperty("amount", String.valueOf(Double.valueOf(2.2)));
+	}
+
+	/**
+	 * Asserts the rendered property.
+	 * 
+	 * @param propertyName Name of property.
+	 * @param expected     Expected rendered value.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void assertProperty(String propertyName, String expected) throws Exception {
+		ValueRetriever retriever = new ValueRetrieverSource(true).sourceValueRetriever(Bean.class);
+		PropertyWebTemplateWriter propertyWriter = new PropertyWebTemplateWriter(
+				new PropertyParsedTemplateSectionContent(propertyName), retriever, Bean.class, StandardCharsets.UTF_8);
+		this.writer.bytes.reset();
+		propertyWriter.write(this.writer, true, new Bean(), null, null);
+		assertEquals("Incorrect rendered " + propertyName, expected, this.writer.getText());
+	}
+
+	/**
+	 * Bean for testing.
+	 */
+	public static class Bean {
+
+		private Bean child = this;
+
+		public String getText() {
+			return "TEXT";
+		}
+
+		public int getNumber() {
+			return 10;
+		}
+
+		public boolean getFlag() {
+			return true;
+		}
+
+		public float getRatio() {
+			return 1.1f;
+		}
+
+		public double getAmount() {
+			return 2.2;
+		}
+
+		public Bean getChild() {
+			return this.child;
+		}
+	}
+
+	/**
+	 * Asserts the encoding of the text.
+	 * 
+	 * @param text Text.
+	 */
+	private void assertEncode(String text) throws IOException {
+
+		// Ensure escapes as expected
+		this.writer.bytes.reset();
+		WebTemplateEncoder.write(text, true, this.writer);
+		assertEquals("Incorrect escaped text", utf8(StringEscapeUtils.ESCAPE_HTML4.translate(text)),
+				this.writer.getText());
+
+		// Ensure encoded as expected
+		this.writer.bytes.reset();
+		WebTemplateEncoder.write(text, false, this.writer);
+		assertEquals("Incorrect encoded text", utf8(text), this.writer.getText());
+	}
+
+	/**
+	 * Obtains the text after <code>UTF-8</code> encoding (handles malformed
+	 * surrogates).
+	 * 
+	 * @param text Text.
+	 * @return Text after <code>UTF-8</code> encoding.
+	 */
+	private static String utf8(String text) {
+		return new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Mock {@link ServerWriter} to capture the encoded bytes.
+	 */
+	private static class MockServerWriter extends ServerWriter {
+
+		/**
+		 * Captured bytes.
+		 */
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		/**
+		 * Obtains the written text.
+		 * 
+		 * @return Written text.
+		 */
+		private String getText() {
+			return new String(this.bytes.toByteArray(), StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void write(byte[] encodedBytes) throws IOException {
+			this.bytes.write(encodedBytes);
+		}
+
+		@Override
+		public void write(byte[] encodedBytes, int offset, int length) throws IOException {
+			this.bytes.write(encodedBytes, offset, length);
+		}
+
+		@Override
+		public void write(ByteBuffer encodedBytes) throws IOException {
+			fail("Should not write ByteBuffer");
+		}
+
+		@Override
+		public void write(FileChannel file, long position, long count, FileCompleteCallback callback)
+				throws IOException {
+			fail("Should not write file");
+		}
+
+		@Override
+		public void write(FileChannel file, FileCompleteCallback callback) throws IOException {
+			fail("Should not write file");
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			fail("Should write bytes");
+		}
+
+		@Override
+		public void flush() throws IOException {
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+
+}